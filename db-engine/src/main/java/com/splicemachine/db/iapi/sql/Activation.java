@@ -638,6 +638,14 @@ public interface Activation extends Dependent, AutoCloseable
 
     boolean isMaterialized();
 
+    /**
+     * @return the number of executions started with this activation, which tells apart the executions
+     * of a statement reusing the same result set trees
+     */
+    default long getExecutionNumber(){
+        return 0L;
+    }
+
     boolean isBatched();
 
     boolean nextBatchElement() throws StandardException;
@@ -200,6 +200,11 @@ public interface CompilerContext extends Context
     boolean DEFAULT_DISABLE_PARALLEL_TASKS_JOIN_COSTING = false;
     boolean DEFAULT_DISABLE_INDEX_PREFIX_ITERATION = false;
     boolean DEFAULT_DISABLE_SUBQUERY_FLATTENING = false;
+    boolean DEFAULT_DISABLE_SUBQUERY_MEMOIZATION = false;
+    int DEFAULT_SUBQUERY_MEMOIZATION_MAX_DISTINCT_KEYS = 10000;
+    int DEFAULT_JOIN_ORDER_ENUMERATION_TABLE_THRESHOLD = 12;
+    int DEFAULT_JOIN_ORDER_ENUMERATION_MAX_DP_TABLES = 18;
+    int DEFAULT_JOIN_ORDER_ENUMERATION_MAX_SUB_PLANS = 1 << 16;
     boolean DEFAULT_DISABLE_UNIONED_INDEX_SCANS = false;
     boolean DEFAULT_FAVOR_UNIONED_INDEX_SCANS = false;
     boolean DEFAULT_SPLICE_ALTER_TABLE_AUTO_VIEW_REFRESHING = false;
@@ -796,6 +801,26 @@ public interface CompilerContext extends Context
 
     boolean getDisableSubqueryFlattening();
 
+    void setDisableSubqueryMemoization(boolean newValue);
+
+    boolean getDisableSubqueryMemoization();
+
+    void setSubqueryMemoizationMaxDistinctKeys(int newValue);
+
+    int getSubqueryMemoizationMaxDistinctKeys();
+
+    void setJoinOrderEnumerationTableThreshold(int newValue);
+
+    int getJoinOrderEnumerationTableThreshold();
+
+    void setJoinOrderEnumerationMaxDPTables(int newValue);
+
+    int getJoinOrderEnumerationMaxDPTables();
+
+    void setJoinOrderEnumerationMaxSubPlans(int newValue);
+
+    int getJoinOrderEnumerationMaxSubPlans();
+
     void setDisableUnionedIndexScans(boolean newValue);
 
     boolean getDisableUnionedIndexScans();
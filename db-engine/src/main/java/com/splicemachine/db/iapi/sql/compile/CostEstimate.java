@@ -33,6 +33,7 @@ package com.splicemachine.db.iapi.sql.compile;
 
 import com.splicemachine.db.iapi.store.access.StoreCostResult;
 import com.splicemachine.db.impl.sql.compile.FirstColumnOfIndexStats;
+import com.splicemachine.db.impl.sql.compile.ScanCardinalityEstimate;
 
 /**
  * A CostEstimate represents the cost of getting a ResultSet, along with the
@@ -105,6 +106,13 @@ public interface CostEstimate extends StoreCostResult {
 
     FirstColumnOfIndexStats getFirstColumnStats();
 
+    /**
+     * Set the estimate of the rows returned by a base-table scan, checked against the actual number at execution.
+     */
+    void setScanCardinality(ScanCardinalityEstimate scanCardinality);
+
+    ScanCardinalityEstimate getScanCardinality();
+
     /**
      * Set the degree of parallelism when running on Spark,
      * ie. the number of parallel tasks that run simultaneously.
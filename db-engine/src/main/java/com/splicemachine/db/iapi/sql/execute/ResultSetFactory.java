@@ -732,6 +732,37 @@ public interface ResultSetFactory {
                                     double optimizerEstimatedCost)
             throws StandardException;
 
+    /**
+     * A once result set whose results may be memoized across invocations.
+     *
+     * @param source                     the result set from which to take rows to be
+     *                                   filtered by this operation.
+     * @param emptyRowFun                a reference to a method in the activation
+     *                                   that is called if the source returns no rows
+     * @param cardinalityCheck           The type of cardinality check, if any that
+     *                                   is required
+     * @param resultSetNumber            The resultSetNumber for the ResultSet
+     * @param subqueryNumber             The subquery number for this subquery.
+     * @param pointOfAttachment          The point of attachment for this subquery.
+     * @param optimizerEstimatedRowCount Estimated total # of rows by
+     *                                   optimizer
+     * @param optimizerEstimatedCost     Estimated total cost by optimizer
+     * @param memoizationKeyItem         Saved object index of the (result set number, column id)
+     *                                   pairs of the correlated columns that key the subquery
+     *                                   result cache, or -1 if the results are not memoized
+     * @return the once operation as a result set.
+     * @throws StandardException thrown when unable to create the
+     *                           result set
+     */
+    NoPutResultSet getOnceResultSet(NoPutResultSet source,
+                                    GeneratedMethod emptyRowFun,
+                                    int cardinalityCheck, int resultSetNumber,
+                                    int subqueryNumber, int pointOfAttachment,
+                                    double optimizerEstimatedRowCount,
+                                    double optimizerEstimatedCost,
+                                    int memoizationKeyItem)
+            throws StandardException;
+
     /**
      * A row result set forms a result set on a single, known row value.
      * It is used to turn constant rows into result sets for use in
@@ -108,6 +108,35 @@ public final class SQLDecimal extends NumberDataType implements VariableSizeData
     */
     private int            rawScale;
 
+    /**
+        Values with at most MAX_COMPACT_DIGITS digits can be held as an unscaled
+        long and a scale instead, which avoids the BigDecimal allocation when they
+        are decoded and lets arithmetic and comparisons work on the long. When
+        compact is set, value is either null or a cache of the same number, and
+        rawData is null.
+    */
+    private long           compactValue;
+
+    private int            compactScale;
+
+    private boolean        compact;
+
+    public static final int MAX_COMPACT_DIGITS = 18;
+
+    private static final long[] POWERS_OF_TEN = new long[MAX_COMPACT_DIGITS + 1];
+
+    static {
+        POWERS_OF_TEN[0] = 1L;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private static final double[] DOUBLE_POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
     private static final int BASE_MEMORY_USAGE = ClassSize.estimateBaseFromCatalog( SQLDecimal.class);
     private static final int BIG_DECIMAL_MEMORY_USAGE = ClassSize.estimateBaseFromCatalog( BigDecimal.class);
 
@@ -234,6 +263,11 @@ public final class SQLDecimal extends NumberDataType implements VariableSizeData
      */
     public long    getLong() throws StandardException
     {
+        if (compact) {
+            if (compactScale == 0)
+                return compactValue;
+            return compactScale <= MAX_COMPACT_DIGITS ? compactValue / POWERS_OF_TEN[compactScale] : 0L;
+        }
         BigDecimal localValue = getBigDecimal();
         if (localValue == null)
             return (long)0;
@@ -283,6 +317,8 @@ public final class SQLDecimal extends NumberDataType implements VariableSizeData
      */
     public double getDouble() throws StandardException
     {
+        if (compact && isExactDouble())
+            return NumberDataType.normalizeDOUBLE(compactDoubleValue());
         BigDecimal localValue = getBigDecimal();
         if (localValue == null)
             return (double)0;
@@ -300,10 +336,75 @@ public final class SQLDecimal extends NumberDataType implements VariableSizeData
         {
             setValue(new BigDecimal(new BigInteger(rawData), rawScale));
         }
+        else if ((value == null) && compact)
+        {
+            value = BigDecimal.valueOf(compactValue, compactScale);
+        }
 
         return value;
     }
 
+    /**
+     * Set the value from an unscaled long and a non-negative scale, without creating
+     * a BigDecimal. Precision and scale are set as if the value had been set from
+     * the equivalent BigDecimal.
+     */
+    public void setUnscaledValue(long unscaledValue, int scale)
+    {
+        if (unscaledValue == Long.MIN_VALUE || scale < 0) {
+            setCoreValue(BigDecimal.valueOf(unscaledValue, scale));
+            return;
+        }
+        value = null;
+        rawData = null;
+        compactValue = unscaledValue;
+        compactScale = scale;
+        compact = true;
+        this.precision = unscaledValue == 0 ? scale + 1 : digits(Math.abs(unscaledValue));
+        this.scale = scale;
+        isNull = false;
+    }
+
+    /**
+     * @return true if the value is held as an unscaled long, see {@link #getUnscaledValue()}
+     */
+    public boolean isCompact()
+    {
+        return compact;
+    }
+
+    public long getUnscaledValue()
+    {
+        return compactValue;
+    }
+
+    public int getCompactScale()
+    {
+        return compactScale;
+    }
+
+    private static int digits(long abs)
+    {
+        int digits = 1;
+        while (digits < POWERS_OF_TEN.length && abs >= POWERS_OF_TEN[digits])
+            digits++;
+        return digits;
+    }
+
+    /*
+     * The long and the power of ten are both exact as doubles, so a single
+     * division is correctly rounded, like BigDecimal.doubleValue().
+     */
+    private boolean isExactDouble()
+    {
+        return Math.abs(compactValue) < (1L << 52) && compactScale < DOUBLE_POWERS_OF_TEN.length;
+    }
+
+    private double compactDoubleValue()
+    {
+        return compactScale == 0 ? (double) compactValue : (double) compactValue / DOUBLE_POWERS_OF_TEN[compactScale];
+    }
+
     /**
      * DECIMAL implementation. Convert to a BigDecimal using getObject
      * which will return a BigDecimal
@@ -314,6 +415,8 @@ public final class SQLDecimal extends NumberDataType implements VariableSizeData
 
     // 0 or null is false, all else is true
     public boolean    getBoolean() {
+        if (compact)
+            return compactValue != 0;
         BigDecimal localValue = getBigDecimal();
         return localValue != null && localValue.compareTo(ZERO) != 0;
     }
@@ -353,6 +456,11 @@ public final class SQLDecimal extends NumberDataType implements VariableSizeData
     }
 
     protected void setFrom(DataValueDescriptor theValue) throws StandardException {
+        if (theValue instanceof SQLDecimal && ((SQLDecimal) theValue).compact) {
+            SQLDecimal other = (SQLDecimal) theValue;
+            setUnscaledValue(other.compactValue, other.compactScale);
+            return;
+        }
         setCoreValue(SQLDecimal.getBigDecimal(theValue));
     }
 
@@ -387,7 +495,7 @@ public final class SQLDecimal extends NumberDataType implements VariableSizeData
      */
     private boolean evaluateNull()
     {
-        return (value == null) && (rawData == null);
+        return (value == null) && (rawData == null) && !compact;
     }
 
     /**
@@ -406,6 +514,8 @@ public final class SQLDecimal extends NumberDataType implements VariableSizeData
 
         int scale;
         byte[] byteArray;
+        if (compact)
+            getBigDecimal();
         if (value != null) {
             scale = value.scale();
 
@@ -458,6 +568,8 @@ public final class SQLDecimal extends NumberDataType implements VariableSizeData
         if (!isNull) {
             int scale;
             byte[] byteArray;
+            if (compact)
+                getBigDecimal();
             if (value != null) {
                 scale = value.scale();
 
@@ -525,6 +637,7 @@ public final class SQLDecimal extends NumberDataType implements VariableSizeData
         // clear the previous value to ensure that the
         // rawData value will be used
         value = null;
+        compact = false;
 
         rawScale = in.readUnsignedByte();
         int size = in.readUnsignedByte();
@@ -564,6 +677,7 @@ public final class SQLDecimal extends NumberDataType implements VariableSizeData
         // clear the previous value to ensure that the
         // rawData value will be used
         value = null;
+        compact = false;
 
         rawScale = sqlDecimal.getRawScale();
         rawData = sqlDecimal.getRawData().toByteArray();
@@ -575,6 +689,7 @@ public final class SQLDecimal extends NumberDataType implements VariableSizeData
         // clear the previous value to ensure that the
         // rawData value will be used
         value = null;
+        compact = false;
 
         rawScale = in.readUnsignedByte();
         int size = in.readUnsignedByte();
@@ -603,6 +718,7 @@ public final class SQLDecimal extends NumberDataType implements VariableSizeData
     {
         value = null;
         rawData = null;
+        compact = false;
         isNull = true;
     }
 
@@ -610,6 +726,15 @@ public final class SQLDecimal extends NumberDataType implements VariableSizeData
     /** @exception StandardException        Thrown on error */
     protected int typeCompare(DataValueDescriptor arg) throws StandardException
     {
+        if (compact && arg instanceof SQLDecimal && ((SQLDecimal) arg).compact) {
+            SQLDecimal other = (SQLDecimal) arg;
+            try {
+                return Long.compare(rescale(compactValue, compactScale, other.compactScale),
+                        rescale(other.compactValue, other.compactScale, compactScale));
+            } catch (ArithmeticException ignored) {
+                // overflow, compare as BigDecimal
+            }
+        }
         BigDecimal otherValue = SQLDecimal.getBigDecimal(arg);
         return getBigDecimal().compareTo(otherValue);
     }
@@ -624,6 +749,15 @@ public final class SQLDecimal extends NumberDataType implements VariableSizeData
     public DataValueDescriptor cloneValue(boolean forceMaterialization)
     {
         try {
+            if (compact) {
+                SQLDecimal decimal = new SQLDecimal();
+                decimal.setUnscaledValue(compactValue, compactScale);
+                if (scale < 0 || decimal.setCompactWidth(IGNORE_PRECISION, scale)) {
+                    decimal.setPrecision(precision);
+                    decimal.setScale(scale);
+                    return decimal;
+                }
+            }
             SQLDecimal decimal = new SQLDecimal(getBigDecimal(), precision, scale);
             if (decimal.getPrecision() != precision)
                 decimal.setPrecision(precision);
@@ -734,7 +868,15 @@ public final class SQLDecimal extends NumberDataType implements VariableSizeData
      */
     public void setValue(long theValue)
     {
-        value = BigDecimal.valueOf(theValue);
+        if (theValue == Long.MIN_VALUE) {
+            value = BigDecimal.valueOf(theValue);
+            compact = false;
+        } else {
+            value = null;
+            compactValue = theValue;
+            compactScale = 0;
+            compact = true;
+        }
         rawData = null;
         isNull = evaluateNull();
     }
@@ -813,6 +955,7 @@ public final class SQLDecimal extends NumberDataType implements VariableSizeData
             scale = value.scale();
         }
         rawData = null;
+        compact = false;
         isNull = evaluateNull();
     }
 
@@ -823,6 +966,7 @@ public final class SQLDecimal extends NumberDataType implements VariableSizeData
             scale = value.scale();
         }
         rawData = null;
+        compact = false;
         isNull = evaluateNull();
     }
 
@@ -888,6 +1032,20 @@ public final class SQLDecimal extends NumberDataType implements VariableSizeData
             return result;
         }
 
+        if (isCompact(addend1) && isCompact(addend2) && result instanceof SQLDecimal) {
+            SQLDecimal left = (SQLDecimal) addend1;
+            SQLDecimal right = (SQLDecimal) addend2;
+            int resultScale = Math.max(left.compactScale, right.compactScale);
+            try {
+                ((SQLDecimal) result).setUnscaledValue(Math.addExact(
+                        rescale(left.compactValue, left.compactScale, resultScale),
+                        rescale(right.compactValue, right.compactScale, resultScale)), resultScale);
+                return result;
+            } catch (ArithmeticException ignored) {
+                // overflow, fall back to BigDecimal
+            }
+        }
+
         result.setBigDecimal(SQLDecimal.getBigDecimal(addend1).add(SQLDecimal.getBigDecimal(addend2)));
         return result;
     }
@@ -921,6 +1079,20 @@ public final class SQLDecimal extends NumberDataType implements VariableSizeData
             return result;
         }
 
+        if (isCompact(left) && isCompact(right) && result instanceof SQLDecimal) {
+            SQLDecimal l = (SQLDecimal) left;
+            SQLDecimal r = (SQLDecimal) right;
+            int resultScale = Math.max(l.compactScale, r.compactScale);
+            try {
+                ((SQLDecimal) result).setUnscaledValue(Math.subtractExact(
+                        rescale(l.compactValue, l.compactScale, resultScale),
+                        rescale(r.compactValue, r.compactScale, resultScale)), resultScale);
+                return result;
+            } catch (ArithmeticException ignored) {
+                // overflow, fall back to BigDecimal
+            }
+        }
+
         result.setBigDecimal(SQLDecimal.getBigDecimal(left).subtract(SQLDecimal.getBigDecimal(right)));
         return result;
     }
@@ -954,6 +1126,18 @@ public final class SQLDecimal extends NumberDataType implements VariableSizeData
             return result;
         }
 
+        if (isCompact(left) && isCompact(right) && result instanceof SQLDecimal) {
+            SQLDecimal l = (SQLDecimal) left;
+            SQLDecimal r = (SQLDecimal) right;
+            try {
+                ((SQLDecimal) result).setUnscaledValue(Math.multiplyExact(l.compactValue, r.compactValue),
+                        Math.addExact(l.compactScale, r.compactScale));
+                return result;
+            } catch (ArithmeticException ignored) {
+                // overflow, fall back to BigDecimal
+            }
+        }
+
         result.setBigDecimal(SQLDecimal.getBigDecimal(left).multiply(SQLDecimal.getBigDecimal(right)));
         return result;
     }
@@ -1063,6 +1247,11 @@ public final class SQLDecimal extends NumberDataType implements VariableSizeData
             return result;
         }
 
+        if (compact && compactValue != Long.MIN_VALUE && result instanceof SQLDecimal) {
+            ((SQLDecimal) result).setUnscaledValue(-compactValue, compactScale);
+            return result;
+        }
+
         result.setBigDecimal(getBigDecimal().negate());
         return result;
     }
@@ -1076,9 +1265,33 @@ public final class SQLDecimal extends NumberDataType implements VariableSizeData
 
     protected boolean isNegative()
     {
+        if (compact)
+            return compactValue < 0;
         return !isNull() && (getBigDecimal().compareTo(ZERO) == -1);
     }
 
+    private static boolean isCompact(DataValueDescriptor dvd)
+    {
+        return dvd instanceof SQLDecimal && ((SQLDecimal) dvd).compact;
+    }
+
+    /**
+     * @return the unscaled value of unscaledValue * 10^-scale at newScale, or unscaledValue
+     *         itself if newScale is smaller than scale
+     * @throws ArithmeticException if the result does not fit a long
+     */
+    private static long rescale(long unscaledValue, int scale, int newScale)
+    {
+        if (newScale == scale || unscaledValue == 0)
+            return unscaledValue;
+        int diff = newScale - scale;
+        if (diff < 0)
+            return unscaledValue;
+        if (diff > MAX_COMPACT_DIGITS)
+            throw new ArithmeticException("long overflow");
+        return Math.multiplyExact(unscaledValue, POWERS_OF_TEN[diff]);
+    }
+
     /*
      * String display of value
      */
@@ -1096,6 +1309,13 @@ public final class SQLDecimal extends NumberDataType implements VariableSizeData
     public int hashCode()
     {
         long longVal;
+        if (compact && isExactDouble()) {
+            double doubleVal = compactDoubleValue();
+            longVal = (long) doubleVal;
+            if (longVal != doubleVal)
+                longVal = Double.doubleToLongBits(doubleVal);
+            return (int) (longVal ^ (longVal >> 32));
+        }
         BigDecimal localValue = getBigDecimal();
 
         double doubleVal = (localValue != null) ? localValue.doubleValue() : 0;
@@ -1151,6 +1371,9 @@ public final class SQLDecimal extends NumberDataType implements VariableSizeData
         if (isNull())
             return;
 
+        if (compact && desiredScale >= 0 && setCompactWidth(desiredPrecision, desiredScale))
+            return;
+
         if (desiredPrecision != IGNORE_PRECISION &&
             ((desiredPrecision - desiredScale) <  SQLDecimal.getWholeDigits(getBigDecimal())))
         {
@@ -1158,11 +1381,48 @@ public final class SQLDecimal extends NumberDataType implements VariableSizeData
                                     ("DECIMAL/NUMERIC("+desiredPrecision+","+desiredScale+")"));
         }
         rawData = null;
-        setValue(value.setScale(desiredScale, BigDecimal.ROUND_HALF_UP));
+        setValue(getBigDecimal().setScale(desiredScale, BigDecimal.ROUND_HALF_UP));
         if (getPrecision() < desiredPrecision)
             setPrecision(desiredPrecision);
     }
 
+    /**
+     * setWidth() for compact values.
+     *
+     * @return false if the rescaled value does not fit a long, in which case
+     *         nothing was changed
+     */
+    private boolean setCompactWidth(int desiredPrecision, int desiredScale) throws StandardException
+    {
+        int diff = compactScale - desiredScale;
+        if (diff > MAX_COMPACT_DIGITS)
+            return false;
+        int wholeDigits = compactValue == 0 ? 0 : Math.max(0, digits(Math.abs(compactValue)) - compactScale);
+        if (desiredPrecision != IGNORE_PRECISION && (desiredPrecision - desiredScale) < wholeDigits)
+        {
+            throw StandardException.newException(SQLState.LANG_OUTSIDE_RANGE_FOR_DATATYPE,
+                                    ("DECIMAL/NUMERIC("+desiredPrecision+","+desiredScale+")"));
+        }
+        long newValue;
+        if (desiredScale >= compactScale) {
+            try {
+                newValue = rescale(compactValue, compactScale, desiredScale);
+            } catch (ArithmeticException ae) {
+                return false;
+            }
+        } else {
+            long divisor = POWERS_OF_TEN[diff];
+            newValue = compactValue / divisor;
+            long remainder = Math.abs(compactValue % divisor);
+            if (remainder >= divisor - remainder)
+                newValue += compactValue < 0 ? -1 : 1;
+        }
+        setUnscaledValue(newValue, desiredScale);
+        if (getPrecision() < desiredPrecision)
+            setPrecision(desiredPrecision);
+        return true;
+    }
+
     /**
      * Return the SQL scale of this value, number of digits after the
      * decimal point, or zero for a whole number. This does not match the
@@ -1191,7 +1451,7 @@ public final class SQLDecimal extends NumberDataType implements VariableSizeData
             return 0;
 
         if (value == null)
-            return rawScale;
+            return compact ? compactScale : rawScale;
 
         int scale = value.scale();
         if (scale >= 0)
@@ -1263,6 +1523,8 @@ public final class SQLDecimal extends NumberDataType implements VariableSizeData
         else {
             isNull = false;
             value = row.getDecimal(ordinal);
+            rawData = null;
+            compact = false;
         }
     }
 
@@ -1315,7 +1577,7 @@ public final class SQLDecimal extends NumberDataType implements VariableSizeData
     }
 
     public void updateThetaSketch(UpdateSketch updateSketch) {
-        updateSketch.update(this.value.toEngineeringString());
+        updateSketch.update(getBigDecimal().toEngineeringString());
     }
 
     @Override
@@ -1324,6 +1586,8 @@ public final class SQLDecimal extends NumberDataType implements VariableSizeData
             setToNull();
         else {
             value = (BigDecimal) sparkObject; //
+            rawData = null;
+            compact = false;
             setIsNull(false);
         }
     }
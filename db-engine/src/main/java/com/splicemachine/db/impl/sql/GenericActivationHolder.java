@@ -840,6 +840,11 @@ final public class GenericActivationHolder implements Activation
         return ac.isMaterialized();
     }
 
+    @Override
+    public long getExecutionNumber() {
+        return ac.getExecutionNumber();
+    }
+
     @Override
     public boolean isBatched() {
         return ac.isBatched();
@@ -230,6 +230,8 @@ public class GenericStatement implements Statement{
 
     public String getCompilationSchema(){ return compilationSchema.getDescriptorName(); }
 
+    public boolean isForReadOnly(){ return isForReadOnly; }
+
     /**
      * Return the {@link PreparedStatement} currently associated with this
      * statement.
@@ -484,6 +486,8 @@ public class GenericStatement implements Statement{
         setDisableParallelTaskJoinCosting(lcc, cc);
         setDisablePrefixIteratorMode(lcc, cc);
         setDisableSubqueryFlattening(lcc, cc);
+        setSubqueryMemoization(lcc, cc);
+        setJoinOrderEnumeration(lcc, cc);
         setDisableUnionedIndexScans(lcc, cc);
         setFavorUnionedIndexScans(lcc, cc);
         setCurrentTimestampPrecision(lcc, cc);
@@ -726,8 +730,47 @@ public class GenericStatement implements Statement{
     private void setDisableSubqueryFlattening(LanguageConnectionContext lcc, CompilerContext cc) throws StandardException {
         boolean param = getBooleanParam(lcc, Property.DISABLE_SUBQUERY_FLATTENING, CompilerContext.DEFAULT_DISABLE_SUBQUERY_FLATTENING);
         cc.setDisableSubqueryFlattening(param);
+    }
+
+    private void setSubqueryMemoization(LanguageConnectionContext lcc, CompilerContext cc) throws StandardException {
+        boolean disabled = getBooleanParam(lcc, Property.DISABLE_SUBQUERY_MEMOIZATION, CompilerContext.DEFAULT_DISABLE_SUBQUERY_MEMOIZATION);
+        cc.setDisableSubqueryMemoization(disabled);
+
+        String maxDistinctKeysString = PropertyUtil.getCachedDatabaseProperty(lcc, Property.SUBQUERY_MEMOIZATION_MAX_DISTINCT_KEYS);
+        int maxDistinctKeys = CompilerContext.DEFAULT_SUBQUERY_MEMOIZATION_MAX_DISTINCT_KEYS;
+        try {
+            if (maxDistinctKeysString != null)
+                maxDistinctKeys = Integer.parseInt(maxDistinctKeysString);
+        } catch (Exception e) {
+            // If the property value failed to convert to an int, don't throw an error,
+            // just use the default setting.
+        }
+        cc.setSubqueryMemoizationMaxDistinctKeys(maxDistinctKeys);
     }          
 
+    private void setJoinOrderEnumeration(LanguageConnectionContext lcc, CompilerContext cc) throws StandardException {
+        String tableThresholdString = PropertyUtil.getCachedDatabaseProperty(lcc, Property.JOIN_ORDER_ENUMERATION_TABLE_THRESHOLD);
+        int tableThreshold = CompilerContext.DEFAULT_JOIN_ORDER_ENUMERATION_TABLE_THRESHOLD;
+        String maxDPTablesString = PropertyUtil.getCachedDatabaseProperty(lcc, Property.JOIN_ORDER_ENUMERATION_MAX_DP_TABLES);
+        int maxDPTables = CompilerContext.DEFAULT_JOIN_ORDER_ENUMERATION_MAX_DP_TABLES;
+        String maxSubPlansString = PropertyUtil.getCachedDatabaseProperty(lcc, Property.JOIN_ORDER_ENUMERATION_MAX_SUB_PLANS);
+        int maxSubPlans = CompilerContext.DEFAULT_JOIN_ORDER_ENUMERATION_MAX_SUB_PLANS;
+        try {
+            if (tableThresholdString != null)
+                tableThreshold = Integer.parseInt(tableThresholdString);
+            if (maxDPTablesString != null)
+                maxDPTables = Integer.parseInt(maxDPTablesString);
+            if (maxSubPlansString != null)
+                maxSubPlans = Integer.parseInt(maxSubPlansString);
+        } catch (Exception e) {
+            // If the property value failed to convert to an int, don't throw an error,
+            // just use the default setting.
+        }
+        cc.setJoinOrderEnumerationTableThreshold(tableThreshold);
+        cc.setJoinOrderEnumerationMaxDPTables(maxDPTables);
+        cc.setJoinOrderEnumerationMaxSubPlans(maxSubPlans);
+    }
+
     private void setDisableParallelTaskJoinCosting(LanguageConnectionContext lcc, CompilerContext cc) throws StandardException {
         boolean param = getBooleanParam(lcc, GlobalDBProperties.DISABLE_PARALLEL_TASKS_JOIN_COSTING,
                 CompilerContext.DEFAULT_DISABLE_PARALLEL_TASKS_JOIN_COSTING);
@@ -615,6 +615,26 @@ public class DataDictionaryCache {
         return result;
     }
 
+    /**
+     * Take a snapshot of the most recently compiled valid statements of the statement cache.
+     * Statements compiled with session properties are left out, since they can't be compiled
+     * again the same way without the session.
+     */
+    public StatementCacheSnapshot statementCacheSnapshot(String dictionaryVersion, int maxStatements) {
+        List<Map.Entry<GenericStatement, StatementCacheValue>> cached = new ArrayList<>(statementCache.asMap().entrySet());
+        cached.sort((a, b) -> b.getValue().getTimestamp().compareTo(a.getValue().getTimestamp()));
+        List<StatementCacheSnapshot.Entry> entries = new ArrayList<>();
+        for (Map.Entry<GenericStatement, StatementCacheValue> entry : cached) {
+            if (entries.size() >= maxStatements)
+                break;
+            GenericStatement gs = entry.getKey();
+            if (!entry.getValue().isValid() || !gs.getSessionPropertyValues().isEmpty())
+                continue;
+            entries.add(new StatementCacheSnapshot.Entry(gs.getSource(), gs.getCompilationSchema(), gs.isForReadOnly()));
+        }
+        return new StatementCacheSnapshot(dictionaryVersion, entries);
+    }
+
     public GenericStorablePreparedStatement cacheIfAbsent(GenericStatement gs) throws StandardException {
         if (dd.canReadCache(null)) {
             StatementCacheValue value = statementCache.getIfPresent(gs);
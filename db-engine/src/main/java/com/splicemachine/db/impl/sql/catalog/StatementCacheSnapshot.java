@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.db.impl.sql.catalog;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The statements of the statement cache, saved to local disk so that they can be compiled
+ * again when the server restarts, before it takes any traffic.
+ *
+ * Only the SQL text and the compilation schema of each statement are kept; the statements
+ * are always compiled again against the current data dictionary. A snapshot taken with
+ * another dictionary version is discarded when it is read.
+ */
+public class StatementCacheSnapshot {
+    private static final int MAGIC = 0x53504c53; // "SPLS"
+    private static final int FORMAT_VERSION = 1;
+    private static final int MAX_STRING_LENGTH = 16 * 1024 * 1024;
+
+    public static final class Entry {
+        private final String statementText;
+        private final String compilationSchema;
+        private final boolean forReadOnly;
+
+        public Entry(String statementText, String compilationSchema, boolean forReadOnly) {
+            this.statementText = statementText;
+            this.compilationSchema = compilationSchema;
+            this.forReadOnly = forReadOnly;
+        }
+
+        public String getStatementText() {
+            return statementText;
+        }
+
+        public String getCompilationSchema() {
+            return compilationSchema;
+        }
+
+        public boolean isForReadOnly() {
+            return forReadOnly;
+        }
+    }
+
+    private final String dictionaryVersion;
+    private final List<Entry> entries;
+
+    public StatementCacheSnapshot(String dictionaryVersion, List<Entry> entries) {
+        this.dictionaryVersion = dictionaryVersion;
+        this.entries = Collections.unmodifiableList(entries);
+    }
+
+    public String getDictionaryVersion() {
+        return dictionaryVersion;
+    }
+
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Write the snapshot to {@code file}, replacing any previous snapshot atomically so that
+     * a crash while writing never leaves a truncated snapshot behind.
+     */
+    public void write(File file) throws IOException {
+        File dir = file.getAbsoluteFile().getParentFile();
+        if (dir != null && !dir.exists() && !dir.mkdirs())
+            throw new IOException("Unable to create directory " + dir);
+        File tmp = new File(dir, file.getName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            writeString(out, dictionaryVersion);
+            out.writeInt(entries.size());
+            for (Entry entry : entries) {
+                writeString(out, entry.statementText);
+                writeString(out, entry.compilationSchema);
+                out.writeBoolean(entry.forReadOnly);
+            }
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @return the snapshot saved in {@code file}, or null if there is none, it can't be read, or
+     * it was taken with a dictionary version other than {@code dictionaryVersion}
+     */
+    public static StatementCacheSnapshot read(File file, String dictionaryVersion) throws IOException {
+        if (!file.exists())
+            return null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION)
+                return null;
+            String version = readString(in);
+            if (!version.equals(dictionaryVersion))
+                return null;
+            int size = in.readInt();
+            List<Entry> entries = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                String statementText = readString(in);
+                String compilationSchema = readString(in);
+                entries.add(new Entry(statementText, compilationSchema, in.readBoolean()));
+            }
+            return new StatementCacheSnapshot(version, entries);
+        } catch (EOFException | UTFDataFormatException e) {
+            return null;
+        }
+    }
+
+    /*
+     * Statements can be longer than the 64KB supported by writeUTF
+     */
+    private static void writeString(DataOutput out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > MAX_STRING_LENGTH)
+            throw new UTFDataFormatException("Invalid string length " + length);
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
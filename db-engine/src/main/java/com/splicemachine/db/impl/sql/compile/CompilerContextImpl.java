@@ -323,6 +323,36 @@ public class CompilerContextImpl extends ContextImpl
 
     public boolean getDisableSubqueryFlattening() { return disableSubqueryFlattening; }
 
+    public void setDisableSubqueryMemoization(boolean newValue) {
+        disableSubqueryMemoization = newValue;
+    }
+
+    public boolean getDisableSubqueryMemoization() { return disableSubqueryMemoization; }
+
+    public void setSubqueryMemoizationMaxDistinctKeys(int newValue) {
+        subqueryMemoizationMaxDistinctKeys = newValue;
+    }
+
+    public int getSubqueryMemoizationMaxDistinctKeys() { return subqueryMemoizationMaxDistinctKeys; }
+
+    public void setJoinOrderEnumerationTableThreshold(int newValue) {
+        joinOrderEnumerationTableThreshold = newValue;
+    }
+
+    public int getJoinOrderEnumerationTableThreshold() { return joinOrderEnumerationTableThreshold; }
+
+    public void setJoinOrderEnumerationMaxDPTables(int newValue) {
+        joinOrderEnumerationMaxDPTables = newValue;
+    }
+
+    public int getJoinOrderEnumerationMaxDPTables() { return joinOrderEnumerationMaxDPTables; }
+
+    public void setJoinOrderEnumerationMaxSubPlans(int newValue) {
+        joinOrderEnumerationMaxSubPlans = newValue;
+    }
+
+    public int getJoinOrderEnumerationMaxSubPlans() { return joinOrderEnumerationMaxSubPlans; }
+
     public void setDisableUnionedIndexScans(boolean newValue) {
         disableUnionedIndexScans = newValue;
     }
@@ -1299,6 +1329,11 @@ public class CompilerContextImpl extends ContextImpl
     private       boolean                             disablePerParallelTaskJoinCosting            = DEFAULT_DISABLE_PARALLEL_TASKS_JOIN_COSTING;
     private       boolean                             disablePrefixIteratorMode                    = DEFAULT_DISABLE_INDEX_PREFIX_ITERATION;
     private       boolean                             disableSubqueryFlattening                    = DEFAULT_DISABLE_SUBQUERY_FLATTENING;
+    private       boolean                             disableSubqueryMemoization                   = DEFAULT_DISABLE_SUBQUERY_MEMOIZATION;
+    private       int                                 subqueryMemoizationMaxDistinctKeys           = DEFAULT_SUBQUERY_MEMOIZATION_MAX_DISTINCT_KEYS;
+    private       int                                 joinOrderEnumerationTableThreshold           = DEFAULT_JOIN_ORDER_ENUMERATION_TABLE_THRESHOLD;
+    private       int                                 joinOrderEnumerationMaxDPTables              = DEFAULT_JOIN_ORDER_ENUMERATION_MAX_DP_TABLES;
+    private       int                                 joinOrderEnumerationMaxSubPlans              = DEFAULT_JOIN_ORDER_ENUMERATION_MAX_SUB_PLANS;
     private       boolean                             disableUnionedIndexScans                     = DEFAULT_DISABLE_UNIONED_INDEX_SCANS;
     private       boolean                             favorUnionedIndexScans                       = DEFAULT_FAVOR_UNIONED_INDEX_SCANS;
     private       boolean                             alterTableAutoViewRefreshing                 = DEFAULT_SPLICE_ALTER_TABLE_AUTO_VIEW_REFRESHING;
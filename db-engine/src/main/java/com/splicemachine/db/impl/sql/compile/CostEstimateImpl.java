@@ -118,6 +118,10 @@ public class CostEstimateImpl implements CostEstimate {
 
     @Override public FirstColumnOfIndexStats getFirstColumnStats() { return null; }
 
+    @Override public void setScanCardinality(ScanCardinalityEstimate scanCardinality) {  }
+
+    @Override public ScanCardinalityEstimate getScanCardinality() { return null; }
+
     //no-op
     @Override public void setParallelism(int numparallelTasks) {  }
 
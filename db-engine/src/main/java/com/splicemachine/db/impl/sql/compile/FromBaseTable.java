@@ -3494,6 +3494,10 @@ public class FromBaseTable extends FromTable {
         if (partitionBy.length != 0)
             partitionReferenceItem=acb.addItem(new ReferencedColumnsDescriptorImpl(partitionBy));
 
+        // the scan finds its estimate among the saved objects by result set number, to report the actual row count
+        ScanCardinalityEstimate cardinality = getTrulyTheBestAccessPath().getCostEstimate().getScanCardinality();
+        if (cardinality != null && cardinality.getConglomerateId() == cd.getConglomerateNumber())
+            acb.addItem(cardinality.forResultSet(getResultSetNumber()));
 
         AccessPath ap=getTrulyTheBestAccessPath();
         JoinStrategy trulyTheBestJoinStrategy=ap.getJoinStrategy();
@@ -0,0 +1,338 @@
+/*
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Some parts of this source code are based on Apache Derby, and the following notices apply to
+ * Apache Derby:
+ *
+ * Apache Derby is a subproject of the Apache DB project, and is licensed under
+ * the Apache License, Version 2.0 (the "License"); you may not use these files
+ * except in compliance with the License. You may obtain a copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Splice Machine, Inc. has modified the Apache Derby code in this file.
+ *
+ * All such Splice Machine modifications are Copyright 2012 - 2020 Splice Machine, Inc.,
+ * and are licensed to you under the GNU Affero General Public License.
+ */
+
+package com.splicemachine.db.impl.sql.compile;
+
+import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.db.iapi.sql.compile.AccessPath;
+import com.splicemachine.db.iapi.sql.compile.CostEstimate;
+import com.splicemachine.db.iapi.sql.compile.JoinStrategy;
+import com.splicemachine.db.iapi.sql.compile.Optimizable;
+import com.splicemachine.db.iapi.sql.compile.OptimizableList;
+import com.splicemachine.db.iapi.sql.compile.OptimizablePredicate;
+import com.splicemachine.db.iapi.sql.compile.OptimizablePredicateList;
+import com.splicemachine.db.iapi.sql.compile.Optimizer;
+import com.splicemachine.db.iapi.sql.dictionary.ConglomerateDescriptor;
+import com.splicemachine.db.iapi.util.JBitSet;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Chooses a left-deep join order for query blocks with too many tables to permute.
+ * <p/>
+ * The join graph is built from the predicates of the query block: two optimizables are
+ * connected if a predicate references both of them and no other optimizable. Join orders
+ * are then enumerated bottom-up by dynamic programming over the connected subsets of the
+ * graph, keeping the cheapest sub-plan for each subset, so that a table is only joined to
+ * a sub-plan it is connected to (cross products are only considered when nothing is
+ * connected). Beyond {@code maxDPTables} tables, or beyond {@code maxSubPlans} memoized
+ * sub-plans, the join order is built greedily instead.
+ * <p/>
+ * Each join is costed by the optimizer's join strategies, starting from the scan cost of
+ * the best access path each optimizable got when it was costed in the first join order.
+ * The sub-plan costs are only used to rank join orders; the chosen order is then costed
+ * by the optimizer like any other.
+ */
+class JoinOrderEnumerator{
+    private final Optimizer optimizer;
+    private final OptimizableList optimizableList;
+    private final int numOptimizables;
+    private final int maxDPTables;
+    private final int maxSubPlans;
+    /* For each optimizable, the bit mask of the optimizables it is joined to */
+    private final long[] neighbors;
+    /* For each optimizable, the predicates joining it to other optimizables */
+    private final List<List<JoinPredicate>> joinPredicates;
+
+    private CostEstimate[] scanCosts;
+    private ConglomerateDescriptor[] conglomerates;
+
+    JoinOrderEnumerator(Optimizer optimizer,
+                        OptimizableList optimizableList,
+                        OptimizablePredicateList predicateList,
+                        int maxDPTables,
+                        int maxSubPlans){
+        this.optimizer=optimizer;
+        this.optimizableList=optimizableList;
+        this.numOptimizables=optimizableList.size();
+        this.maxDPTables=maxDPTables;
+        this.maxSubPlans=maxSubPlans;
+        this.neighbors=new long[numOptimizables];
+        this.joinPredicates=new ArrayList<>(numOptimizables);
+        for(int i=0;i<numOptimizables;i++){
+            joinPredicates.add(new ArrayList<JoinPredicate>());
+        }
+
+        // sub-plans keep their tables in a bit mask
+        if(predicateList==null || numOptimizables>=Long.SIZE) return;
+        for(int p=0;p<predicateList.size();p++){
+            OptimizablePredicate pred=predicateList.getOptPredicate(p);
+            JBitSet referencedMap=pred.getReferencedMap();
+            long tables=0L;
+            for(int i=0;i<numOptimizables;i++){
+                if(optimizableList.getOptimizable(i).getReferencedTableMap().intersects(referencedMap))
+                    tables|=1L<<i;
+            }
+            int numReferenced=Long.bitCount(tables);
+            if(numReferenced<2) continue;
+
+            JoinPredicate joinPredicate=new JoinPredicate((Predicate)pred,tables);
+            for(int i=0;i<numOptimizables;i++){
+                if((tables&(1L<<i))!=0)
+                    joinPredicates.get(i).add(joinPredicate);
+            }
+            if(numReferenced==2){
+                int first=Long.numberOfTrailingZeros(tables);
+                int second=Long.numberOfTrailingZeros(tables&~(1L<<first));
+                neighbors[first]|=1L<<second;
+                neighbors[second]|=1L<<first;
+            }
+        }
+    }
+
+    /**
+     * Enumerate the join orders, costing each optimizable from its best access path.
+     *
+     * @return the join order, or null if some optimizable has not been costed yet, no legal
+     * join order was found or there are too many optimizables
+     */
+    int[] getJoinOrder() throws StandardException{
+        if(numOptimizables>=Long.SIZE)
+            return null;
+        scanCosts=new CostEstimate[numOptimizables];
+        conglomerates=new ConglomerateDescriptor[numOptimizables];
+        for(int i=0;i<numOptimizables;i++){
+            AccessPath bestPath=optimizableList.getOptimizable(i).getBestAccessPath();
+            CostEstimate ce=bestPath==null? null: bestPath.getCostEstimate();
+            if(ce==null)
+                return null;
+            // the base is the cost of the scan, before it was joined in the first join order
+            scanCosts[i]=ce.getBase()!=null? ce.getBase(): ce;
+            conglomerates[i]=bestPath.getConglomerateDescriptor();
+        }
+
+        if(numOptimizables<=maxDPTables){
+            SubPlan best=dynamicProgrammingPlan();
+            if(best!=null)
+                return best.getJoinOrder(numOptimizables);
+        }
+        SubPlan best=greedyPlan();
+        return best==null? null: best.getJoinOrder(numOptimizables);
+    }
+
+    private SubPlan dynamicProgrammingPlan() throws StandardException{
+        Map<Long,SubPlan> plans=new HashMap<>();
+        List<SubPlan> currentLevel=new ArrayList<>();
+        for(int i=0;i<numOptimizables;i++){
+            SubPlan plan=join(null,i);
+            if(plan!=null)
+                currentLevel.add(plan);
+        }
+
+        for(int size=1;size<numOptimizables;size++){
+            List<SubPlan> nextLevel=new ArrayList<>();
+            for(SubPlan outer:currentLevel){
+                long candidates=connectedCandidates(outer);
+                for(int i=0;i<numOptimizables;i++){
+                    if((candidates&(1L<<i))==0) continue;
+                    SubPlan plan=join(outer,i);
+                    if(plan==null) continue;
+
+                    SubPlan existing=plans.get(plan.tables);
+                    if(existing==null){
+                        plans.put(plan.tables,plan);
+                        nextLevel.add(plan);
+                        if(plans.size()>maxSubPlans)
+                            return null;
+                    }else if(plan.cost.compare(existing.cost)<0){
+                        existing.replaceWith(plan);
+                    }
+                }
+            }
+            if(nextLevel.isEmpty())
+                return null;
+            currentLevel=nextLevel;
+        }
+        return currentLevel.get(0);
+    }
+
+    private SubPlan greedyPlan() throws StandardException{
+        SubPlan best=null;
+        for(int i=0;i<numOptimizables;i++){
+            SubPlan plan=join(null,i);
+            if(plan!=null && (best==null || plan.cost.rowCount()<best.cost.rowCount()))
+                best=plan;
+        }
+        for(int size=1;best!=null && size<numOptimizables;size++){
+            SubPlan outer=best;
+            best=null;
+            long candidates=connectedCandidates(outer);
+            for(int i=0;i<numOptimizables;i++){
+                if((candidates&(1L<<i))==0) continue;
+                SubPlan plan=join(outer,i);
+                if(plan!=null && (best==null || plan.cost.compare(best.cost)<0))
+                    best=plan;
+            }
+        }
+        return best;
+    }
+
+    /*
+     * The optimizables which are not in the sub-plan yet and are joined to it, or all of the
+     * optimizables which are not in the sub-plan if none of them is joined to it.
+     */
+    private long connectedCandidates(SubPlan outer){
+        long remaining=((1L<<numOptimizables)-1)&~outer.tables;
+        long connected=0L;
+        for(int i=0;i<numOptimizables;i++){
+            if((outer.tables&(1L<<i))!=0)
+                connected|=neighbors[i];
+        }
+        connected&=remaining;
+        return connected!=0? connected: remaining;
+    }
+
+    /*
+     * The plan which joins optimizable {@code inner} to the {@code outer} sub-plan with its
+     * cheapest join strategy, or null if the optimizable can't legally be placed after it.
+     */
+    private SubPlan join(SubPlan outer,int inner) throws StandardException{
+        Optimizable innerOpt=optimizableList.getOptimizable(inner);
+        JBitSet outerMap=outer==null? new JBitSet(innerOpt.getReferencedTableMap().size()): outer.tableMap;
+        if(!innerOpt.legalJoinOrder(outerMap))
+            return null;
+
+        JBitSet tableMap=(JBitSet)outerMap.clone();
+        tableMap.or(innerOpt.getReferencedTableMap());
+
+        if(outer==null){
+            CostEstimate cost=optimizer.getNewCostEstimate(0.0d,0.0d,0.0d);
+            OptimizerImpl.addCost(scanCosts[inner],cost);
+            return new SubPlan(null,inner,1L<<inner,tableMap,cost);
+        }
+
+        long tables=outer.tables|(1L<<inner);
+        PredicateList predicates=new PredicateList();
+        boolean hasEquiJoin=false;
+        for(JoinPredicate joinPredicate:joinPredicates.get(inner)){
+            if((joinPredicate.tables&~tables)!=0) continue;
+            predicates.addOptPredicate(joinPredicate.predicate);
+            hasEquiJoin|=joinPredicate.predicate.isHashableJoinPredicate();
+        }
+
+        CostEstimate bestJoinCost=null;
+        for(int s=0;s<optimizer.getNumberOfJoinStrategies();s++){
+            JoinStrategy strategy=optimizer.getJoinStrategy(s);
+            if(!considerJoinStrategy(strategy,predicates.size()>0,hasEquiJoin)) continue;
+
+            CostEstimate outerCost=outer.cost.cloneMe();
+            if(innerOpt instanceof FromTable){
+                FromTable fromTable=(FromTable)innerOpt;
+                if(fromTable.getFromSSQ() || fromTable.getOuterJoinLevel()>0)
+                    outerCost.setJoinType(JoinNode.LEFTOUTERJOIN);
+            }
+            CostEstimate joinCost=scanCosts[inner].cloneMe();
+            strategy.estimateCost(innerOpt,predicates,conglomerates[inner],outerCost,optimizer,joinCost);
+            if(bestJoinCost==null || joinCost.compare(bestJoinCost)<0)
+                bestJoinCost=joinCost;
+        }
+        if(bestJoinCost==null)
+            return null;
+
+        CostEstimate cost=outer.cost.cloneMe();
+        OptimizerImpl.addCost(bestJoinCost,cost);
+        return new SubPlan(outer,inner,tables,tableMap,cost);
+    }
+
+    /*
+     * The join strategies which can run the join whatever the access path of the inner table is.
+     * Merge joins are left out, as they depend on the row ordering of the outer sub-plan, which is
+     * not tracked here.
+     */
+    private static boolean considerJoinStrategy(JoinStrategy strategy,boolean hasJoinPredicate,boolean hasEquiJoin){
+        switch(strategy.getJoinStrategyType()){
+            case NESTED_LOOP:
+                return true;
+            case MERGE_SORT:
+            case BROADCAST:
+                return hasEquiJoin;
+            case CROSS:
+                return !hasJoinPredicate;
+            default:
+                return false;
+        }
+    }
+
+    private static final class JoinPredicate{
+        private final Predicate predicate;
+        /* the optimizables the predicate references */
+        private final long tables;
+
+        JoinPredicate(Predicate predicate,long tables){
+            this.predicate=predicate;
+            this.tables=tables;
+        }
+    }
+
+    private static final class SubPlan{
+        private SubPlan outer;
+        private int inner;
+        private final long tables;
+        private final JBitSet tableMap;
+        private CostEstimate cost;
+
+        SubPlan(SubPlan outer,int inner,long tables,JBitSet tableMap,CostEstimate cost){
+            this.outer=outer;
+            this.inner=inner;
+            this.tables=tables;
+            this.tableMap=tableMap;
+            this.cost=cost;
+        }
+
+        void replaceWith(SubPlan cheaper){
+            this.outer=cheaper.outer;
+            this.inner=cheaper.inner;
+            this.cost=cheaper.cost;
+        }
+
+        int[] getJoinOrder(int numOptimizables){
+            int[] joinOrder=new int[numOptimizables];
+            int position=numOptimizables-1;
+            for(SubPlan plan=this;plan!=null;plan=plan.outer){
+                joinOrder[position--]=plan.inner;
+            }
+            return joinOrder;
+        }
+    }
+}
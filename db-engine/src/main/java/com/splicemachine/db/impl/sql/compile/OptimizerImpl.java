@@ -87,6 +87,7 @@ public class OptimizerImpl implements Optimizer{
     private static final int JUMPING=2;
     private static final int WALK_HIGH=3;
     private static final int WALK_LOW=4;
+    private static final int ENUMERATED=5;
     private static final int STORED_PREPARED_STATEMENT_TIME_LIMIT_LOWER_BOUND = 10;
     private static final int HINTED_JOINSTRATEGY_TIME_LIMIT_LOWER_BOUND = 2;
 
@@ -111,6 +112,10 @@ public class OptimizerImpl implements Optimizer{
     private boolean desiredJoinOrderFound;
     private int permuteState;
     private int[] firstLookOrder;
+    /* Chooses the first join order to jump to for large query blocks, null if not used */
+    private JoinOrderEnumerator joinOrderEnumerator;
+    /* Stop the round once the join order being jumped to has been costed */
+    private boolean stopAfterJump;
     private boolean singleRow = false;
 
     protected boolean ruleBasedOptimization;
@@ -236,7 +241,13 @@ public class OptimizerImpl implements Optimizer{
         hasJoinStrategyHint = hasJoinStrategyHint();
 
         proposedJoinOrder=new int[numOptimizables];
-        if(numOptimizables>optimizableList.getTableLimitForExhaustiveSearch() && optimizableList.optimizeJoinOrder()){
+        int enumerationTableThreshold=joinOrderEnumerationTableThreshold();
+        if(enumerationTableThreshold>0 && numOptimizables>=enumerationTableThreshold && optimizableList.optimizeJoinOrder()){
+            joinOrderEnumerator=new JoinOrderEnumerator(this,optimizableList,predicateList,
+                    joinOrderEnumerationMaxDPTables(),joinOrderEnumerationMaxSubPlans());
+            permuteState=READY_TO_JUMP;
+            firstLookOrder=new int[numOptimizables];
+        }else if(numOptimizables>optimizableList.getTableLimitForExhaustiveSearch() && optimizableList.optimizeJoinOrder()){
             permuteState=READY_TO_JUMP;
             firstLookOrder=new int[numOptimizables];
         }else
@@ -344,7 +355,7 @@ public class OptimizerImpl implements Optimizer{
          * (0,1,2,...) before time limit exceeded. As a result, a suboptimal
          * plan is returned.
          */
-        if (permuteState == JUMPING) {
+        if (permuteState == JUMPING || permuteState == ENUMERATED) {
             permuteState = READY_TO_JUMP;
         }
 
@@ -469,6 +480,7 @@ public class OptimizerImpl implements Optimizer{
                     firstLookOrder=new int[numOptimizables];
                 System.arraycopy(bestJoinOrder,0,firstLookOrder,0,numOptimizables);
                 permuteState=JUMPING;
+                stopAfterJump=joinOrderEnumerator!=null;
 
                 /* If we already assigned at least one position in the
                  * join order when this happened (i.e. if joinPosition
@@ -583,6 +595,11 @@ public class OptimizerImpl implements Optimizer{
             reloadBestPlan=true;
             rewindJoinOrder();  //fall
             permuteState=NO_JUMP;  //give up
+            if(stopAfterJump){
+                // the join order we jumped to already costs more than the best
+                // one, which stays the best plan of this round
+                stopEnumeration();
+            }
         }
 
         /*
@@ -713,11 +730,13 @@ public class OptimizerImpl implements Optimizer{
                             rewindJoinOrder();
                         }
                         permuteState=NO_JUMP;
+                        if(stopAfterJump)
+                            stopEnumeration();
                         break;
                     }
                 }
 
-                if(permuteState==NO_JUMP)
+                if(permuteState==NO_JUMP || permuteState==ENUMERATED)
                     continue;
 
                 if(joinPosition==numOptimizables-1){
@@ -734,6 +753,11 @@ public class OptimizerImpl implements Optimizer{
                     // We walk the "high" first, then fall back and
                     // walk the "low".
                     permuteState=WALK_HIGH;
+                    if(stopAfterJump){
+                        // don't walk the join orders around the one we jumped
+                        // to, stop once it has been costed
+                        stopEnumeration();
+                    }
                 }
             }else{
                 /* Find the next unused table at this join position */
@@ -811,6 +835,20 @@ public class OptimizerImpl implements Optimizer{
                 if(permuteState==READY_TO_JUMP && joinPosition>0 && joinPosition==numOptimizables-1){
                     permuteState=JUMPING;
 
+                    if(joinOrderEnumerator!=null){
+                        int[] enumeratedOrder=joinOrderEnumerator.getJoinOrder();
+                        if(enumeratedOrder!=null){
+                            System.arraycopy(enumeratedOrder,0,firstLookOrder,0,numOptimizables);
+                            stopAfterJump=true;
+                            joinPosition--;
+                            rewindJoinOrder();  //jump from ground
+                            continue;
+                        }
+                        // fall back to the row count heuristics and to permuting the
+                        // join orders until we time out
+                        joinOrderEnumerator=null;
+                    }
+
                     /* A simple heuristics is that the row count we got indicates a potentially
                      * good join order.  We'd like row count to get big as late as possible, so
                      * that less load is carried over.
@@ -1685,7 +1723,7 @@ public class OptimizerImpl implements Optimizer{
         }
     }
 
-    private void addCost(CostEstimate addend,CostEstimate destCost){
+    static void addCost(CostEstimate addend,CostEstimate destCost){
         destCost.setRemoteCost(addend.remoteCost());
         destCost.setLocalCost(destCost.localCost()+addend.localCost());
         destCost.setRemoteCostPerParallelTask(addend.getRemoteCostPerParallelTask());
@@ -2271,6 +2309,39 @@ public class OptimizerImpl implements Optimizer{
         return lcc.compilingStoredPreparedStatement();
     }
 
+    private void stopEnumeration(){
+        stopAfterJump=false;
+        permuteState=ENUMERATED;
+        desiredJoinOrderFound=true;
+    }
+
+    private int joinOrderEnumerationTableThreshold() {
+        CompilerContext cc =
+            (CompilerContext) ContextService.
+                getContextOrNull(CompilerContext.CONTEXT_ID);
+        if (cc == null)
+            return CompilerContext.DEFAULT_JOIN_ORDER_ENUMERATION_TABLE_THRESHOLD;
+        return cc.getJoinOrderEnumerationTableThreshold();
+    }
+
+    private int joinOrderEnumerationMaxDPTables() {
+        CompilerContext cc =
+            (CompilerContext) ContextService.
+                getContextOrNull(CompilerContext.CONTEXT_ID);
+        if (cc == null)
+            return CompilerContext.DEFAULT_JOIN_ORDER_ENUMERATION_MAX_DP_TABLES;
+        return cc.getJoinOrderEnumerationMaxDPTables();
+    }
+
+    private int joinOrderEnumerationMaxSubPlans() {
+        CompilerContext cc =
+            (CompilerContext) ContextService.
+                getContextOrNull(CompilerContext.CONTEXT_ID);
+        if (cc == null)
+            return CompilerContext.DEFAULT_JOIN_ORDER_ENUMERATION_MAX_SUB_PLANS;
+        return cc.getJoinOrderEnumerationMaxSubPlans();
+    }
+
     private boolean hasJoinStrategyHint() {
         LanguageConnectionContext lcc =
             (LanguageConnectionContext) ContextService.
@@ -2696,6 +2767,9 @@ public class OptimizerImpl implements Optimizer{
          ** no timeout.
          */
         if(noTimeout) return false;
+        // with the join order enumerator, each round only costs the first and the enumerated
+        // join orders, so it is bounded without a timeout
+        if(joinOrderEnumerator!=null) return false;
         if(timeExceeded || numOptimizables<=optimizableList.getTableLimitForExhaustiveSearch()) return timeExceeded;
 
         // Must at least find one complete join plan, otherwise
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2012 - 2021 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.splicemachine.db.impl.sql.compile;
+
+import com.splicemachine.db.iapi.error.StandardException;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * The number of rows a scan of a conglomerate was estimated to return, together with what the estimate was
+ * made for, so that it can be compared with the number of rows the scan actually returns at execution.
+ *
+ * Estimates are made for a predicate shape: which columns of the table are restricted and by which operators,
+ * leaving out the values they are compared with, so that executions of a statement with different parameters,
+ * and different statements restricting a table the same way, all contribute to the same correction.
+ */
+public class ScanCardinalityEstimate implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final long conglomerateId;
+    private final String predicateShape;
+    // before correction
+    private final double estimatedRows;
+    private final double correction;
+    private final int resultSetNumber;
+
+    public ScanCardinalityEstimate(long conglomerateId, String predicateShape, double estimatedRows, double correction) {
+        this(conglomerateId, predicateShape, estimatedRows, correction, -1);
+    }
+
+    private ScanCardinalityEstimate(long conglomerateId, String predicateShape, double estimatedRows, double correction,
+                                    int resultSetNumber) {
+        this.conglomerateId = conglomerateId;
+        this.predicateShape = predicateShape;
+        this.estimatedRows = estimatedRows;
+        this.correction = correction;
+        this.resultSetNumber = resultSetNumber;
+    }
+
+    /**
+     * @return a copy of this estimate for the scan generated as result set {@code resultSetNumber}
+     */
+    public ScanCardinalityEstimate forResultSet(int resultSetNumber) {
+        return new ScanCardinalityEstimate(conglomerateId, predicateShape, estimatedRows, correction, resultSetNumber);
+    }
+
+    /**
+     * @return the estimate saved, among the saved objects of a statement, for result set {@code resultSetNumber},
+     * or null if there is none
+     */
+    public static ScanCardinalityEstimate find(Object[] savedObjects, int resultSetNumber) {
+        if (savedObjects == null)
+            return null;
+        for (Object o : savedObjects) {
+            if (o instanceof ScanCardinalityEstimate && ((ScanCardinalityEstimate) o).resultSetNumber == resultSetNumber)
+                return (ScanCardinalityEstimate) o;
+        }
+        return null;
+    }
+
+    /**
+     * @return the shape of {@code predicates} restricting the table numbered {@code tableNumber}, e.g.
+     * {@code "<(3) AND =(1) AND IN(2)"}. Predicates are listed in a canonical order.
+     */
+    public static String predicateShape(int tableNumber, List<Predicate> predicates) throws StandardException {
+        SortedSet<String> terms = new TreeSet<>();
+        for (Predicate p : predicates) {
+            StringBuilder term = new StringBuilder(operator(p)).append('(');
+            CollectNodesVisitor cnv = new CollectNodesVisitor(ColumnReference.class);
+            p.getAndNode().getLeftOperand().accept(cnv);
+            SortedSet<Integer> columns = new TreeSet<>();
+            for (Object o : cnv.getList()) {
+                ColumnReference cr = (ColumnReference) o;
+                if (cr.getTableNumber() == tableNumber)
+                    columns.add(cr.getColumnNumber());
+            }
+            boolean first = true;
+            for (Integer column : columns) {
+                if (!first)
+                    term.append(',');
+                term.append(column);
+                first = false;
+            }
+            terms.add(term.append(')').toString());
+        }
+        return String.join(" AND ", terms);
+    }
+
+    public long getConglomerateId() {
+        return conglomerateId;
+    }
+
+    public String getPredicateShape() {
+        return predicateShape;
+    }
+
+    public double getEstimatedRows() {
+        return estimatedRows;
+    }
+
+    /**
+     * @return the factor the estimate was multiplied by, from what was observed of earlier scans of the same shape
+     */
+    public double getCorrection() {
+        return correction;
+    }
+
+    public int getResultSetNumber() {
+        return resultSetNumber;
+    }
+
+    @Override
+    public String toString() {
+        return "ScanCardinalityEstimate{conglomerateId=" + conglomerateId + ", predicateShape=" + predicateShape +
+                ", estimatedRows=" + estimatedRows + ", correction=" + correction + "}";
+    }
+
+    private static String operator(Predicate p) throws StandardException {
+        if (p.getSourceInList() != null)
+            return "IN";
+        RelationalOperator relop = p.getRelop();
+        if (relop == null) {
+            String name = p.getAndNode().getLeftOperand().getClass().getSimpleName();
+            return name.replace("OperatorNode", "").replace("Node", "").toUpperCase();
+        }
+        switch (relop.getOperator()) {
+            case RelationalOperator.EQUALS_RELOP: return "=";
+            case RelationalOperator.NOT_EQUALS_RELOP: return "<>";
+            case RelationalOperator.GREATER_THAN_RELOP: return ">";
+            case RelationalOperator.GREATER_EQUALS_RELOP: return ">=";
+            case RelationalOperator.LESS_THAN_RELOP: return "<";
+            case RelationalOperator.LESS_EQUALS_RELOP: return "<=";
+            case RelationalOperator.IS_NULL_RELOP: return "IS NULL";
+            case RelationalOperator.IS_NOT_NULL_RELOP: return "IS NOT NULL";
+            default: return "?";
+        }
+    }
+}
@@ -31,6 +31,7 @@
 
 package com.splicemachine.db.impl.sql.compile;
 
+import com.splicemachine.db.catalog.types.RoutineAliasInfo;
 import com.splicemachine.db.iapi.error.StandardException;
 import com.splicemachine.db.iapi.reference.ClassName;
 import com.splicemachine.db.iapi.reference.SQLState;
@@ -39,6 +40,8 @@ import com.splicemachine.db.iapi.services.compiler.LocalField;
 import com.splicemachine.db.iapi.services.compiler.MethodBuilder;
 import com.splicemachine.db.iapi.services.context.ContextManager;
 import com.splicemachine.db.iapi.services.context.ContextService;
+import com.splicemachine.db.iapi.services.io.FormatableArrayHolder;
+import com.splicemachine.db.iapi.services.io.FormatableIntHolder;
 import com.splicemachine.db.iapi.services.sanity.SanityManager;
 import com.splicemachine.db.iapi.sql.compile.*;
 import com.splicemachine.db.iapi.sql.conn.Authorizer;
@@ -193,6 +196,16 @@ public class SubqueryNode extends ValueNode{
 
     private boolean hintNotFlatten=false;
 
+    /*
+    ** Indicate whether the results of this subquery may be memoized
+    ** per correlation key at execution time, and the estimated number
+    ** of distinct keys. Checked lazily.
+    */
+    private boolean doneMemoizationCheck;
+    private boolean memoizable;
+    private long memoizationDistinctKeys;
+    private double memoizationExpectedHitRate;
+
     public SubqueryNode() {}
 
     /**
@@ -1107,6 +1120,107 @@ public class SubqueryNode extends ValueNode{
         return !foundVariant;
     }
 
+    /**
+     * Check whether the result of this subquery may be memoized at execution time,
+     * keyed by the values of its correlated column references.
+     *
+     * Only correlated expression subqueries qualify. Every correlation must be a
+     * plain column reference with statistics, the subquery must not contain nested
+     * subqueries or non-deterministic routines, and the estimated number of distinct
+     * correlation keys must be both small enough to cache and small enough relative
+     * to the outer row count that keys are expected to repeat.
+     *
+     * @return whether the subquery results may be memoized
+     * @throws StandardException Thrown on error
+     */
+    public boolean isMemoizable() throws StandardException{
+        if(doneMemoizationCheck){
+            return memoizable;
+        }
+        doneMemoizationCheck=true;
+        memoizable=false;
+
+        CompilerContext cc=getCompilerContext();
+        if(cc.getDisableSubqueryMemoization() || subqueryType!=EXPRESSION_SUBQUERY || !hasCorrelatedCRs()){
+            return false;
+        }
+
+        CollectNodesVisitor subqueries=new CollectNodesVisitor(SubqueryNode.class);
+        resultSet.accept(subqueries);
+        if(!subqueries.getList().isEmpty()){
+            return false;
+        }
+
+        CollectNodesVisitor methodCalls=new CollectNodesVisitor(MethodCallNode.class);
+        resultSet.accept(methodCalls);
+        for(Object node : methodCalls.getList()){
+            RoutineAliasInfo routineInfo=((MethodCallNode)node).getRoutineInfo();
+            if(routineInfo==null || !routineInfo.isDeterministic()){
+                return false;
+            }
+        }
+
+        double distinctKeys=1.0d;
+        double outerRows=0.0d;
+        Set<ResultColumn> seen=new HashSet<>();
+        for(ValueNode node : getCorrelationCRs()){
+            if(!(node instanceof ColumnReference)){
+                return false;
+            }
+            ColumnReference cr=(ColumnReference)node;
+            if(cr.getSource()==null || cr.getStoreCostController()==null){
+                return false;
+            }
+            if(!seen.add(cr.getSource())){
+                continue;
+            }
+            double rowCount=cr.rowCountEstimate();
+            distinctKeys*=cr.nonZeroCardinality((long)rowCount);
+            outerRows=Math.max(outerRows,rowCount);
+        }
+
+        if(distinctKeys>cc.getSubqueryMemoizationMaxDistinctKeys() || outerRows<2*distinctKeys){
+            return false;
+        }
+        memoizationDistinctKeys=(long)distinctKeys;
+        memoizationExpectedHitRate=1.0d-distinctKeys/outerRows;
+        memoizable=true;
+        return true;
+    }
+
+    /**
+     * Get the (result set number, virtual column id) pairs of the outer columns this
+     * subquery is correlated to, in the form the generated code reads them from the
+     * activation's current rows.
+     *
+     * @return the flattened pairs, or null if some correlated column cannot be read
+     * directly from an outer row
+     * @throws StandardException Thrown on error
+     */
+    private int[] getMemoizationKeyColumns() throws StandardException{
+        List<int[]> pairs=new ArrayList<>();
+        for(ValueNode node : getCorrelationCRs()){
+            ResultColumn source=((ColumnReference)node).getSource();
+            if(source.isRedundant() || source.getResultSetNumber()<0){
+                return null;
+            }
+            int[] pair=new int[]{source.getResultSetNumber(),source.getVirtualColumnId()};
+            boolean duplicate=false;
+            for(int[] p : pairs){
+                duplicate|=Arrays.equals(p,pair);
+            }
+            if(!duplicate){
+                pairs.add(pair);
+            }
+        }
+        int[] keyColumns=new int[pairs.size()*2];
+        for(int i=0;i<pairs.size();i++){
+            keyColumns[2*i]=pairs.get(i)[0];
+            keyColumns[2*i+1]=pairs.get(i)[1];
+        }
+        return keyColumns;
+    }
+
     public static boolean hasNestedCR(PredicateList predList, int level){
         boolean check = false;
         for(Predicate pred : predList){
@@ -1550,6 +1664,16 @@ public class SubqueryNode extends ValueNode{
         mb.push(costEstimate.rowCount());
         mb.push(costEstimate.getEstimatedCost());
 
+        if(subqueryType==EXPRESSION_SUBQUERY && isMemoizable()){
+            int[] keyColumns=getMemoizationKeyColumns();
+            if(keyColumns!=null){
+                FormatableArrayHolder keyHolder=
+                        new FormatableArrayHolder(FormatableIntHolder.getFormatableIntHolders(keyColumns));
+                mb.push(acb.addItem(keyHolder));
+                nargs++;
+            }
+        }
+
         mb.callMethod(VMOpcode.INVOKEINTERFACE,null,resultSetString,ClassName.NoPutResultSet,nargs);
 
         /* Fill in the body of the method
@@ -2848,8 +2972,13 @@ public class SubqueryNode extends ValueNode{
                     sb.append(attrDelim).append(resultSet.getFinalCostEstimate(false).prettyScrollInsensitiveString(attrDelim));
                 }
                 sb.append(attrDelim).append(String.format("correlated=%b%sexpression=%b%sinvariant=%b",
-                        hasCorrelatedCRs(),attrDelim,getSubqueryType()==SubqueryNode.EXPRESSION_SUBQUERY,attrDelim,isInvariant()))
-                .append(")");
+                        hasCorrelatedCRs(),attrDelim,getSubqueryType()==SubqueryNode.EXPRESSION_SUBQUERY,attrDelim,isInvariant()));
+                if(isMemoizable()){
+                    sb.append(attrDelim).append("memoized=true")
+                      .append(attrDelim).append("distinctKeys=").append(memoizationDistinctKeys)
+                      .append(attrDelim).append(String.format("expectedHitRate=%.2f",memoizationExpectedHitRate));
+                }
+                sb.append(")");
         return sb.toString();
     }
 
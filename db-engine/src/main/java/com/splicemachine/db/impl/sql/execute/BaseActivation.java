@@ -86,6 +86,7 @@ public abstract class BaseActivation implements CursorActivation, GeneratedByteC
     protected DataValueFactory dvf;
     public boolean ignoreSequence = false;
     protected boolean materialized = false;
+    private long executionNumber;
 
     protected ExecPreparedStatement preStmt;
     protected ResultSet resultSet;
@@ -937,7 +938,12 @@ public abstract class BaseActivation implements CursorActivation, GeneratedByteC
      * @exception StandardException        Thrown on error
      */
     public void startExecution() throws StandardException {
+        executionNumber++;
+    }
 
+    @Override
+    public long getExecutionNumber() {
+        return executionNumber;
     }
 
     /**
@@ -58,6 +58,14 @@ public class DecimalBufferedSumAggregator extends SumAggregator {
     private boolean isNull = true;
     private int bufferSize;
 
+    /*
+     * Running sum of the compact (unscaled long) addends, at the largest scale seen so far,
+     * or -1 if there is none. It is folded into sum when it would overflow, and before sum
+     * is read.
+     */
+    private long compactSum;
+    private int compactSumScale = -1;
+
     public DecimalBufferedSumAggregator() { // SERDE
 
     }
@@ -82,10 +90,49 @@ public class DecimalBufferedSumAggregator extends SumAggregator {
     }
     @Override
     protected void accumulate(DataValueDescriptor addend) throws StandardException {
+        if (addend instanceof SQLDecimal && ((SQLDecimal) addend).isCompact()) {
+            SQLDecimal decimal = (SQLDecimal) addend;
+            addCompact(decimal.getUnscaledValue(), decimal.getCompactScale());
+            return;
+        }
         buffer[position] = getBigDecimal(addend);
         incrementPosition();
     }
 
+    private void addCompact(long unscaledValue, int scale) {
+        isNull = false;
+        if (compactSumScale < 0) {
+            compactSum = unscaledValue;
+            compactSumScale = scale;
+            return;
+        }
+        int newScale = Math.max(scale, compactSumScale);
+        try {
+            compactSum = Math.addExact(rescale(compactSum, compactSumScale, newScale),
+                    rescale(unscaledValue, scale, newScale));
+            compactSumScale = newScale;
+        } catch (ArithmeticException ae) {
+            foldCompact();
+            compactSum = unscaledValue;
+            compactSumScale = scale;
+        }
+    }
+
+    private static long rescale(long unscaledValue, int scale, int newScale) {
+        for (int i = scale; i < newScale; i++) {
+            unscaledValue = Math.multiplyExact(unscaledValue, 10L);
+        }
+        return unscaledValue;
+    }
+
+    private void foldCompact() {
+        if (compactSumScale >= 0) {
+            sum = sum.add(BigDecimal.valueOf(compactSum, compactSumScale));
+            compactSum = 0;
+            compactSumScale = -1;
+        }
+    }
+
 
     @Override
     public void merge(ExecAggregator addend) throws StandardException {
@@ -95,6 +142,9 @@ public class DecimalBufferedSumAggregator extends SumAggregator {
         if (other.isNull){
             return;
         }
+        if (other.compactSumScale >= 0) {
+            addCompact(other.compactSum, other.compactSumScale);
+        }
 
         if (!Objects.equals(other.sum, BigDecimal.ZERO)) {
             buffer[position] = other.sum;
@@ -117,6 +167,7 @@ public class DecimalBufferedSumAggregator extends SumAggregator {
             }
             position=0;
         }
+        foldCompact();
         out.writeBoolean(eliminatedNulls);
         out.writeBoolean(isNull);
         out.writeObject(sum);
@@ -139,6 +190,7 @@ public class DecimalBufferedSumAggregator extends SumAggregator {
             }
             position=0;
         }
+        foldCompact();
         try (ByteArrayOutputStream bos = new ByteArrayOutputStream();
              ObjectOutputStream os = new ObjectOutputStream(bos)) {
             os.writeObject(sum);
@@ -186,6 +238,7 @@ public class DecimalBufferedSumAggregator extends SumAggregator {
             sum(position);
             position=0;
         }
+        foldCompact();
         value.setBigDecimal(sum);
         return value;
     }
@@ -197,11 +250,13 @@ public class DecimalBufferedSumAggregator extends SumAggregator {
      */
     public BigDecimal getSum(){
         assert position==0: "There are entries still to be buffered!";
+        foldCompact();
         return sum;
     }
 
     public void init(BigDecimal sum,boolean eliminatedNulls){
         this.sum = sum;
+        this.compactSumScale = -1;
         this.eliminatedNulls = eliminatedNulls;
         this.isNull=false;
     }
@@ -233,6 +288,7 @@ public class DecimalBufferedSumAggregator extends SumAggregator {
     }
 
     public String toString() {
+        foldCompact();
         String bufferInfo = isNull ? null : (position < 25 && position > 0 ?
                 Arrays.toString(Arrays.copyOfRange(buffer, 0, position))
                 : String.format("%s buffered", position));
@@ -31,6 +31,7 @@
 package com.splicemachine.db.iapi.types;
 
 import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.db.iapi.reference.SQLState;
 import com.splicemachine.db.iapi.stats.ColumnStatisticsImpl;
 import com.splicemachine.db.iapi.stats.ItemStatistics;
 import com.splicemachine.db.impl.sql.execute.ValueRow;
@@ -199,4 +200,80 @@ public class SQLDecimalTest extends SQLDataValueDescriptorTest {
                 objectOutputStream.close();
         }
 
+        private static SQLDecimal compact(long unscaledValue, int scale) {
+                SQLDecimal decimal = new SQLDecimal();
+                decimal.setUnscaledValue(unscaledValue, scale);
+                Assert.assertTrue(decimal.isCompact());
+                return decimal;
+        }
+
+        private static void assertSameDecimal(BigDecimal expected, SQLDecimal actual) {
+                Assert.assertEquals(expected.toPlainString(), actual.getString());
+                Assert.assertEquals(expected.scale(), actual.getScale());
+        }
+
+        @Test
+        public void compactArithmeticMatchesBigDecimal() throws StandardException {
+                long[][] values = {{0, 0}, {125, 2}, {-1999, 3}, {7, 0}, {999999999999999999L, 4}, {-3, 18}, {Long.MAX_VALUE / 2, 1}};
+                for (long[] l : values) {
+                        for (long[] r : values) {
+                                SQLDecimal left = compact(l[0], (int) l[1]);
+                                SQLDecimal right = compact(r[0], (int) r[1]);
+                                BigDecimal bl = BigDecimal.valueOf(l[0], (int) l[1]);
+                                BigDecimal br = BigDecimal.valueOf(r[0], (int) r[1]);
+                                assertSameDecimal(bl.add(br), (SQLDecimal) left.plus(left, right, null));
+                                assertSameDecimal(bl.subtract(br), (SQLDecimal) left.minus(left, right, null));
+                                assertSameDecimal(bl.multiply(br), (SQLDecimal) left.times(left, right, null));
+                                Assert.assertEquals(Integer.signum(bl.compareTo(br)), Integer.signum(left.compare(right)));
+                        }
+                }
+        }
+
+        @Test
+        public void compactConversions() throws StandardException {
+                SQLDecimal decimal = compact(-12345, 2);
+                Assert.assertEquals(-123L, decimal.getLong());
+                Assert.assertEquals(-123.45d, decimal.getDouble(), 0d);
+                Assert.assertEquals(new SQLDecimal(new BigDecimal("-123.45")).hashCode(), decimal.hashCode());
+                Assert.assertTrue(decimal.isNegative());
+                Assert.assertEquals(new BigDecimal("-123.45"), decimal.getBigDecimal());
+                assertSameDecimal(new BigDecimal("123.45"), (SQLDecimal) decimal.minus(null));
+                Assert.assertFalse(compact(0, 4).getBoolean());
+                Assert.assertEquals(5, compact(0, 4).getPrecision());
+        }
+
+        @Test
+        public void compactSetWidthRoundsHalfUp() throws StandardException {
+                SQLDecimal decimal = compact(-12345, 3);
+                decimal.setWidth(5, 2, true);
+                assertSameDecimal(new BigDecimal("-12.35"), decimal);
+                decimal.setWidth(10, 4, true);
+                assertSameDecimal(new BigDecimal("-12.3500"), decimal);
+                Assert.assertEquals(10, decimal.getPrecision());
+                try {
+                        decimal.setWidth(3, 2, true);
+                        Assert.fail("Expected out of range");
+                } catch (StandardException se) {
+                        Assert.assertEquals(SQLState.LANG_OUTSIDE_RANGE_FOR_DATATYPE, se.getMessageId());
+                }
+        }
+
+        @Test
+        public void compactCloneAndSerde() throws Exception {
+                SQLDecimal decimal = new SQLDecimal(null, 10, 2);
+                decimal.setValue(42L);
+                SQLDecimal clone = (SQLDecimal) decimal.cloneValue(false);
+                Assert.assertEquals("42.00", clone.getString());
+
+                ByteArrayOutputStream outputStream = new ByteArrayOutputStream(8192);
+                ObjectOutputStream objectOutputStream = new ObjectOutputStream(outputStream);
+                compact(-98765, 3).writeExternal(objectOutputStream);
+                objectOutputStream.flush();
+                SQLDecimal read = new SQLDecimal();
+                read.readExternal(new ObjectInputStream(new ByteArrayInputStream(outputStream.toByteArray())));
+                Assert.assertFalse(read.isCompact());
+                Assert.assertEquals(new BigDecimal("-98.765"), read.getBigDecimal());
+        }
+
+
 }
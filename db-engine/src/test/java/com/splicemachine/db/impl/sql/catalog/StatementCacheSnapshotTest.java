@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.db.impl.sql.catalog;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.Collections;
+
+public class StatementCacheSnapshotTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        StringBuilder longStatement = new StringBuilder("select * from t where a in (0");
+        for (int i = 1; i < 20000; i++)
+            longStatement.append(',').append(i);
+        longStatement.append(')');
+
+        File file = new File(folder.getRoot(), "snapshots/statements");
+        new StatementCacheSnapshot("3.1.0 abc", Arrays.asList(
+                new StatementCacheSnapshot.Entry("select * from t where a = ?", "SPLICE", true),
+                new StatementCacheSnapshot.Entry("update \"T\" set b = '\u00e9' where a = ?", "My Schema", false),
+                new StatementCacheSnapshot.Entry(longStatement.toString(), "SPLICE", true))).write(file);
+
+        StatementCacheSnapshot snapshot = StatementCacheSnapshot.read(file, "3.1.0 abc");
+        Assert.assertNotNull(snapshot);
+        Assert.assertEquals("3.1.0 abc", snapshot.getDictionaryVersion());
+        Assert.assertEquals(3, snapshot.getEntries().size());
+        StatementCacheSnapshot.Entry entry = snapshot.getEntries().get(1);
+        Assert.assertEquals("update \"T\" set b = '\u00e9' where a = ?", entry.getStatementText());
+        Assert.assertEquals("My Schema", entry.getCompilationSchema());
+        Assert.assertFalse(entry.isForReadOnly());
+        Assert.assertTrue(snapshot.getEntries().get(0).isForReadOnly());
+        Assert.assertEquals(longStatement.toString(), snapshot.getEntries().get(2).getStatementText());
+        Assert.assertFalse("temporary file left behind", new File(file.getParentFile(), "statements.tmp").exists());
+    }
+
+    @Test
+    public void testOtherDictionaryVersionIsDiscarded() throws Exception {
+        File file = folder.newFile();
+        new StatementCacheSnapshot("3.1.0 abc", Collections.singletonList(
+                new StatementCacheSnapshot.Entry("values 1", "SPLICE", true))).write(file);
+        Assert.assertNull(StatementCacheSnapshot.read(file, "3.2.0 def"));
+    }
+
+    @Test
+    public void testMissingOrCorruptSnapshotIsIgnored() throws Exception {
+        Assert.assertNull(StatementCacheSnapshot.read(new File(folder.getRoot(), "missing"), "v"));
+
+        File garbage = folder.newFile();
+        try (FileOutputStream out = new FileOutputStream(garbage)) {
+            out.write(new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9});
+        }
+        Assert.assertNull(StatementCacheSnapshot.read(garbage, "v"));
+
+        File truncated = folder.newFile();
+        new StatementCacheSnapshot("v", Collections.singletonList(
+                new StatementCacheSnapshot.Entry("values 1", "SPLICE", true))).write(truncated);
+        try (RandomAccessFile raf = new RandomAccessFile(truncated, "rw")) {
+            raf.setLength(raf.length() - 3);
+        }
+        Assert.assertNull(StatementCacheSnapshot.read(truncated, "v"));
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.db.impl.sql.execute;
+
+import com.splicemachine.db.iapi.types.SQLDecimal;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.Assert.*;
+
+public class DecimalBufferedSumAggregatorTest {
+
+    private static SQLDecimal compact(long unscaledValue, int scale) {
+        SQLDecimal decimal = new SQLDecimal();
+        decimal.setUnscaledValue(unscaledValue, scale);
+        return decimal;
+    }
+
+    @Test
+    public void testMixedCompactAndBigDecimalAddends() throws Exception {
+        DecimalBufferedSumAggregator aggregator = new DecimalBufferedSumAggregator(4);
+        BigDecimal expected = BigDecimal.ZERO;
+        for (int i = 0; i < 100; i++) {
+            SQLDecimal addend = i % 3 == 0 ? new SQLDecimal(BigDecimal.valueOf(i, 1)) : compact(i * 7, i % 4);
+            expected = expected.add(addend.getBigDecimal());
+            aggregator.add(addend);
+        }
+        assertEquals(expected, aggregator.getResult().getObject());
+    }
+
+    @Test
+    public void testCompactOverflowFoldsIntoSum() throws Exception {
+        DecimalBufferedSumAggregator aggregator = new DecimalBufferedSumAggregator(4);
+        BigDecimal expected = BigDecimal.ZERO;
+        for (int i = 0; i < 10; i++) {
+            SQLDecimal addend = compact(999999999999999999L, 2);
+            expected = expected.add(addend.getBigDecimal());
+            aggregator.add(addend);
+        }
+        assertEquals(expected, aggregator.getResult().getObject());
+    }
+
+    @Test
+    public void testMergeKeepsCompactSums() throws Exception {
+        DecimalBufferedSumAggregator left = new DecimalBufferedSumAggregator(4);
+        DecimalBufferedSumAggregator right = new DecimalBufferedSumAggregator(4);
+        left.add(compact(150, 2));
+        right.add(compact(-25, 1));
+        right.add(new SQLDecimal(new BigDecimal("10")));
+        left.merge(right);
+        assertEquals(new BigDecimal("9.00"), left.getResult().getObject());
+    }
+}
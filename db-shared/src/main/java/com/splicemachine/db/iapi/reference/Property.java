@@ -1306,5 +1306,47 @@ public interface Property {
     String DISABLE_SUBQUERY_FLATTENING =
             "splice.optimizer.disableSubqueryFlattening";
 
+    /**
+     * If true, correlated expression subqueries are never memoized at execution time.
+     * The default value is false.
+     */
+    String DISABLE_SUBQUERY_MEMOIZATION =
+            "splice.optimizer.disableSubqueryMemoization";
+
+    /**
+     * The maximum estimated number of distinct correlation keys for which the optimizer
+     * will memoize the results of a correlated expression subquery.
+     * The default value is 10000.
+     */
+    String SUBQUERY_MEMOIZATION_MAX_DISTINCT_KEYS =
+            "splice.optimizer.subqueryMemoizationMaxDistinctKeys";
+
+    /**
+     * The number of tables in a query block from which the optimizer chooses the join order by
+     * dynamic programming over the join graph instead of permuting the join orders until it
+     * times out. A value of 0 disables the join order enumerator.
+     * The default value is 12.
+     */
+    String JOIN_ORDER_ENUMERATION_TABLE_THRESHOLD =
+            "splice.optimizer.joinOrderEnumerationTableThreshold";
+
+    /**
+     * The maximum number of tables for which the join order enumerator uses dynamic programming.
+     * Above this, it builds the join order greedily.
+     * The default value is 18.
+     */
+    String JOIN_ORDER_ENUMERATION_MAX_DP_TABLES =
+            "splice.optimizer.joinOrderEnumerationMaxDPTables";
+
+    /**
+     * The maximum number of sub-plans the join order enumerator keeps while it uses dynamic
+     * programming. Above this, it builds the join order greedily instead.
+     * The default value is 65536, which is enough to keep every subset of 16 tables. Each
+     * sub-plan is costed with every join strategy, so this also bounds the time spent
+     * enumerating join orders when the join graph is dense.
+     */
+    String JOIN_ORDER_ENUMERATION_MAX_SUB_PLANS =
+            "splice.optimizer.joinOrderEnumerationMaxSubPlans";
+
 }
 
@@ -37,6 +37,7 @@ import com.splicemachine.pipeline.contextfactory.ContextFactoryDriver;
 import com.splicemachine.pipeline.utils.PipelineCompressor;
 import com.splicemachine.si.data.hbase.coprocessor.TableType;
 import com.splicemachine.si.impl.driver.SIDriver;
+import com.splicemachine.si.impl.hlc.HLCTimestampSource;
 import com.splicemachine.si.impl.region.RegionServerControl;
 import com.splicemachine.storage.RegionPartition;
 import com.splicemachine.utils.SpliceLogUtils;
@@ -180,9 +181,16 @@ public class SpliceIndexEndpoint extends SpliceMessage.SpliceIndexService implem
             if(bytes==null||bytes.length<=0)
                 LOG.error("No bytes constructed for the result!");
 
-            SpliceMessage.BulkWriteResponse response =SpliceMessage.BulkWriteResponse.newBuilder()
-                    .setBytes(ZeroCopyLiteralByteString.wrap(bytes)).build();
-            done.run(response);
+            SpliceMessage.BulkWriteResponse.Builder response =SpliceMessage.BulkWriteResponse.newBuilder()
+                    .setBytes(ZeroCopyLiteralByteString.wrap(bytes));
+            if(HLCTimestampSource.isActive()){
+                /*
+                 * Our clock is past the begin timestamps of the transactions which read this region, so the writer
+                 * must not commit before them
+                 */
+                response.setObservedTs(HLCTimestampSource.observedTimestamp());
+            }
+            done.run(response.build());
         }catch(IOException e){
             LOG.error("Unexpected exception performing bulk write: ",e);
             ((ServerRpcController)controller).setFailedOn(e);
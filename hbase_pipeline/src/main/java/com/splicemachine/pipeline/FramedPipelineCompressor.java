@@ -0,0 +1,227 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.pipeline;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdDictCompress;
+import com.splicemachine.pipeline.utils.CompressionPathStats;
+import com.splicemachine.pipeline.utils.PipelineCompressionManagement;
+import com.splicemachine.pipeline.utils.PipelineCompressionStats;
+import com.splicemachine.pipeline.utils.PipelineCompressor;
+import com.splicemachine.primitives.Bytes;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compresses pipeline payloads with a configurable codec, prefixing each of them with a header which names
+ * how it was compressed. Receivers therefore decode every codec whatever their own setting, and payloads
+ * too small or too random to gain from compression are sent as they are.
+ *
+ * The header is a single codec byte, followed by:
+ * <ul>
+ *     <li>{@link #UNCOMPRESSED}: nothing</li>
+ *     <li>{@link #LZ4} and {@link #ZSTD}: the uncompressed length, as an int</li>
+ *     <li>{@link #ZSTD_DICTIONARY}: the uncompressed length, then the length and bytes of the name of the
+ *     table whose dictionary the payload was compressed with</li>
+ * </ul>
+ */
+public class FramedPipelineCompressor implements PipelineCompressor, PipelineCompressionManagement{
+    private static final Logger LOG=Logger.getLogger(FramedPipelineCompressor.class);
+
+    static final byte UNCOMPRESSED = 0;
+    static final byte LZ4 = 1;
+    static final byte ZSTD = 2;
+    static final byte ZSTD_DICTIONARY = 3;
+
+    private static final LZ4Factory LZ4_FACTORY = LZ4Factory.fastestInstance();
+    private static final boolean ZSTD_INSTALLED;
+
+    static{
+        boolean installed = false;
+        try{
+            Zstd.compress(new byte[16],1);
+            installed = true;
+        }catch(Throwable t){
+            LOG.error("No native Zstd installed: the zstd pipeline codec will fall back to lz4.",t);
+        }
+        ZSTD_INSTALLED = installed;
+    }
+
+    private final PipelineCompressor delegate;
+    private final byte codec;
+    private final int threshold;
+    private final int zstdLevel;
+    private final PipelineDictionaries dictionaries;
+    private final boolean trainDictionaries;
+    private final PipelineCompressionStats stats = new PipelineCompressionStats();
+
+    /**
+     * @param codec the codec to compress payloads with: none, lz4 or zstd
+     * @param threshold the size under which payloads are sent uncompressed
+     * @param dictionaries the dictionaries of the cluster, which payloads compressed with zstd are compressed
+     *                     with when {@code trainDictionaries} is set, and which received payloads may need
+     *                     whatever the codec of this server
+     */
+    public FramedPipelineCompressor(PipelineCompressor delegate,
+                                    String codec,
+                                    int threshold,
+                                    int zstdLevel,
+                                    PipelineDictionaries dictionaries,
+                                    boolean trainDictionaries){
+        this.delegate=delegate;
+        this.codec=parseCodec(codec);
+        this.threshold=threshold;
+        this.zstdLevel=zstdLevel;
+        this.dictionaries=dictionaries;
+        this.trainDictionaries=trainDictionaries && this.codec==ZSTD;
+    }
+
+    @Override
+    public byte[] compress(Object o) throws IOException{
+        return compress(o,null);
+    }
+
+    @Override
+    public byte[] compress(Object o,String tableName) throws IOException{
+        byte[] raw = delegate.compress(o);
+        long start = System.nanoTime();
+        byte[] framed = frame(raw,tableName);
+        stats.compressed(tableName,raw.length,framed.length,framed[0]!=UNCOMPRESSED,System.nanoTime()-start);
+        return framed;
+    }
+
+    @Override
+    public <T> T decompress(byte[] bytes,Class<T> clazz) throws IOException{
+        return decompress(bytes,clazz,null);
+    }
+
+    @Override
+    public <T> T decompress(byte[] bytes,Class<T> clazz,String tableName) throws IOException{
+        long start = System.nanoTime();
+        byte[] raw = unframe(bytes);
+        stats.decompressed(tableName,System.nanoTime()-start);
+        return delegate.decompress(raw,clazz);
+    }
+
+    @Override
+    public String getCodec(){
+        switch(codec){
+            case LZ4: return "lz4";
+            case ZSTD: return "zstd";
+            default: return "none";
+        }
+    }
+
+    @Override
+    public int getCompressionThreshold(){
+        return threshold;
+    }
+
+    @Override
+    public List<CompressionPathStats> getPathStats(){
+        return stats.snapshot();
+    }
+
+    @Override
+    public void resetStats(){
+        stats.reset();
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+    private byte[] frame(byte[] raw,String tableName){
+        if(codec==UNCOMPRESSED || raw.length<threshold)
+            return Bytes.prepend(UNCOMPRESSED,raw);
+
+        byte[] framed;
+        if(codec==LZ4){
+            LZ4Compressor compressor = LZ4_FACTORY.fastCompressor();
+            int maxLength = compressor.maxCompressedLength(raw.length);
+            byte[] buffer = new byte[5+maxLength];
+            buffer[0] = LZ4;
+            Bytes.toBytes(raw.length,buffer,1);
+            int length = compressor.compress(raw,0,raw.length,buffer,5,maxLength);
+            framed = Arrays.copyOf(buffer,5+length);
+        }else{
+            ZstdDictCompress dict = trainDictionaries && tableName!=null?dictionaries.forCompression(tableName,raw):null;
+            if(dict==null){
+                byte[] compressed = Zstd.compress(raw,zstdLevel);
+                framed = new byte[5+compressed.length];
+                framed[0] = ZSTD;
+                Bytes.toBytes(raw.length,framed,1);
+                System.arraycopy(compressed,0,framed,5,compressed.length);
+            }else{
+                byte[] compressed = Zstd.compress(raw,dict);
+                byte[] name = Bytes.toBytes(tableName);
+                framed = new byte[9+name.length+compressed.length];
+                framed[0] = ZSTD_DICTIONARY;
+                Bytes.toBytes(raw.length,framed,1);
+                Bytes.toBytes(name.length,framed,5);
+                System.arraycopy(name,0,framed,9,name.length);
+                System.arraycopy(compressed,0,framed,9+name.length,compressed.length);
+            }
+        }
+        if(framed.length>raw.length)
+            return Bytes.prepend(UNCOMPRESSED,raw); // incompressible, so don't make the receiver pay to decompress it
+        return framed;
+    }
+
+    private byte[] unframe(byte[] bytes) throws IOException{
+        if(bytes==null || bytes.length==0)
+            throw new IOException("Empty pipeline payload");
+        try{
+            switch(bytes[0]){
+                case UNCOMPRESSED:
+                    return Arrays.copyOfRange(bytes,1,bytes.length);
+                case LZ4:{
+                    byte[] raw = new byte[Bytes.toInt(bytes,1)];
+                    LZ4_FACTORY.fastDecompressor().decompress(bytes,5,raw,0,raw.length);
+                    return raw;
+                }
+                case ZSTD:
+                    return Zstd.decompress(Arrays.copyOfRange(bytes,5,bytes.length),Bytes.toInt(bytes,1));
+                case ZSTD_DICTIONARY:{
+                    int nameLength = Bytes.toInt(bytes,5);
+                    String tableName = Bytes.toString(bytes,9,nameLength);
+                    return Zstd.decompress(Arrays.copyOfRange(bytes,9+nameLength,bytes.length),
+                            dictionaries.forDecompression(tableName),Bytes.toInt(bytes,1));
+                }
+                default:
+                    throw new IOException("Unknown pipeline compression codec "+bytes[0]
+                            +"; all servers must use splice.pipeline.compression.codec=snappy or none of them");
+            }
+        }catch(RuntimeException e){
+            throw new IOException("Unable to decompress pipeline payload",e);
+        }
+    }
+
+    private static byte parseCodec(String codec){
+        switch(codec.toLowerCase()){
+            case "none":
+                return UNCOMPRESSED;
+            case "lz4":
+                return LZ4;
+            case "zstd":
+                return ZSTD_INSTALLED?ZSTD:LZ4;
+            default:
+                throw new IllegalArgumentException("Unknown pipeline compression codec "+codec);
+        }
+    }
+}
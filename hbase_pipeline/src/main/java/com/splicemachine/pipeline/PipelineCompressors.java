@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.pipeline;
+
+import com.splicemachine.access.api.SConfiguration;
+import com.splicemachine.access.configuration.PipelineConfiguration;
+import com.splicemachine.concurrent.MoreExecutors;
+import com.splicemachine.pipeline.utils.PipelineCompressor;
+
+/**
+ * Creates the compressor of pipeline payloads configured by {@link PipelineConfiguration#PIPELINE_COMPRESSION_CODEC}.
+ */
+public class PipelineCompressors{
+
+    private PipelineCompressors(){}
+
+    public static PipelineCompressor newCompressor(SConfiguration config,PipelineCompressor delegate){
+        String codec = config.getPipelineCompressionCodec();
+        if("snappy".equalsIgnoreCase(codec))
+            return new SnappyPipelineCompressor(delegate);
+
+        int dictionarySize = config.getPipelineCompressionDictionarySize();
+        int zstdLevel = config.getPipelineCompressionZstdLevel();
+        PipelineDictionaries dictionaries = new PipelineDictionaries(new ZkPipelineDictionaryStore(),
+                dictionarySize,zstdLevel,
+                MoreExecutors.namedSingleThreadExecutor("pipeline-dictionary-trainer-%d",true));
+        return new FramedPipelineCompressor(delegate,codec,config.getPipelineCompressionThreshold(),zstdLevel,
+                dictionaries,dictionarySize>0);
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.pipeline;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdDictCompress;
+import com.github.luben.zstd.ZstdDictDecompress;
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The zstd dictionaries used to compress the pipeline payloads of each table.
+ *
+ * A server trains the dictionary of a table from the first payloads it writes to it, and publishes it to a
+ * {@link Store} shared by the cluster. The first dictionary published for a table wins: a server which trained
+ * another one concurrently adopts the published one instead, and servers receiving payloads load it on first
+ * use. Published dictionaries never change, so they are cached for the life of the server.
+ */
+class PipelineDictionaries{
+    private static final Logger LOG=Logger.getLogger(PipelineDictionaries.class);
+
+    static final int SAMPLES = 256;
+    static final int MAX_SAMPLE_SIZE = 4*1024;
+    /*
+     * Bounds on the memory held by samples and dictionaries: the tables being sampled at once, how long a table
+     * may take to provide its samples before its slot is given to another, and the dictionaries kept
+     */
+    private static final int MAX_SAMPLING_TABLES = 16;
+    private static final long SAMPLING_TIMEOUT_MILLIS = 10*60*1000L;
+    private static final int MAX_DICTIONARIES = 1024;
+
+    interface Store{
+        /**
+         * @return the dictionary published for {@code tableName}, or null if there is none
+         */
+        byte[] get(String tableName) throws IOException;
+
+        /**
+         * Publishes {@code dictionary} for {@code tableName}, unless another one already is.
+         *
+         * @return the dictionary published for the table
+         */
+        byte[] putIfAbsent(String tableName,byte[] dictionary) throws IOException;
+
+        /**
+         * Discards the dictionary published for {@code tableName}, once the table is dropped.
+         */
+        void remove(String tableName) throws IOException;
+    }
+
+    private final Store store;
+    private final int dictionarySize;
+    private final int level;
+    private final Executor trainer;
+    private final ConcurrentMap<String, TableDictionary> compression = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ZstdDictDecompress> decompression = new ConcurrentHashMap<>();
+    private final AtomicInteger unsettled = new AtomicInteger(0);
+
+    PipelineDictionaries(Store store,int dictionarySize,int level,Executor trainer){
+        this.store=store;
+        this.dictionarySize=dictionarySize;
+        this.level=level;
+        this.trainer=trainer;
+    }
+
+    /**
+     * @return the dictionary to compress a payload written to {@code tableName} with, or null if the table has
+     * none yet, in which case {@code payload} may be kept to train one
+     */
+    ZstdDictCompress forCompression(String tableName,byte[] payload){
+        TableDictionary td = compression.get(tableName);
+        if(td==null){
+            if(compression.size()>=MAX_DICTIONARIES)
+                return null;
+            if(unsettled.get()>=MAX_SAMPLING_TABLES){
+                expireSampling(System.currentTimeMillis());
+                return null;
+            }
+            TableDictionary newTd = new TableDictionary(tableName);
+            td = compression.putIfAbsent(tableName,newTd);
+            if(td==null){
+                unsettled.incrementAndGet();
+                trainer.execute(newTd::lookup);
+                return null;
+            }
+        }
+        ZstdDictCompress dict = td.compressDict;
+        if(dict==null)
+            td.sample(payload);
+        return dict;
+    }
+
+    /**
+     * @return the dictionary published for {@code tableName}
+     * @throws IOException if there is none, or it cannot be loaded
+     */
+    ZstdDictDecompress forDecompression(String tableName) throws IOException{
+        ZstdDictDecompress dict = decompression.get(tableName);
+        if(dict==null){
+            byte[] bytes = store.get(tableName);
+            if(bytes==null)
+                throw new IOException("No compression dictionary has been published for table "+tableName);
+            dict = new ZstdDictDecompress(bytes);
+            ZstdDictDecompress published = decompression.putIfAbsent(tableName,dict);
+            if(published!=null)
+                dict = published;
+        }
+        return dict;
+    }
+
+    private void expireSampling(long now){
+        for(TableDictionary td:compression.values()){
+            td.expireIfStale(now);
+        }
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper classes*/
+    private class TableDictionary{
+        private final String tableName;
+        private final AtomicBoolean settled = new AtomicBoolean(false);
+        private final List<byte[]> samples = new ArrayList<>(); // guarded by this
+        private volatile long samplingStart = -1L;
+        private volatile ZstdDictCompress compressDict;
+
+        TableDictionary(String tableName){
+            this.tableName=tableName;
+        }
+
+        void lookup(){
+            try{
+                byte[] published = store.get(tableName);
+                if(published!=null){
+                    install(published);
+                    settle();
+                }else
+                    samplingStart = System.currentTimeMillis();
+            }catch(IOException | RuntimeException e){
+                LOG.warn("Unable to look up the compression dictionary of table "+tableName,e);
+                settle();
+            }
+        }
+
+        void sample(byte[] payload){
+            if(samplingStart<0)
+                return;
+            byte[][] trainingSet = null;
+            synchronized(this){
+                if(samplingStart<0)
+                    return;
+                samples.add(payload.length>MAX_SAMPLE_SIZE?Arrays.copyOf(payload,MAX_SAMPLE_SIZE):payload);
+                if(samples.size()>=SAMPLES){
+                    samplingStart = -1L;
+                    trainingSet = samples.toArray(new byte[samples.size()][]);
+                    samples.clear();
+                }
+            }
+            if(trainingSet!=null){
+                byte[][] t = trainingSet;
+                trainer.execute(() -> train(t));
+            }
+        }
+
+        synchronized void expireIfStale(long now){
+            if(samplingStart>=0 && now-samplingStart>SAMPLING_TIMEOUT_MILLIS){
+                samplingStart = -1L;
+                samples.clear();
+                compression.remove(tableName,this);
+                settle();
+            }
+        }
+
+        private void train(byte[][] trainingSet){
+            try{
+                byte[] buffer = new byte[dictionarySize];
+                long size = Zstd.trainFromBuffer(trainingSet,buffer);
+                if(Zstd.isError(size)){
+                    LOG.warn("Unable to train a compression dictionary for table "+tableName+": "+Zstd.getErrorName(size));
+                    return;
+                }
+                install(store.putIfAbsent(tableName,Arrays.copyOf(buffer,(int)size)));
+            }catch(IOException | RuntimeException e){
+                LOG.warn("Unable to publish the compression dictionary of table "+tableName,e);
+            }finally{
+                settle();
+            }
+        }
+
+        private void install(byte[] dictionary){
+            decompression.putIfAbsent(tableName,new ZstdDictDecompress(dictionary));
+            compressDict = new ZstdDictCompress(dictionary,level);
+        }
+
+        private void settle(){
+            if(settled.compareAndSet(false,true))
+                unsettled.decrementAndGet();
+        }
+    }
+}
@@ -15,8 +15,12 @@
 package com.splicemachine.pipeline;
 
 import java.io.IOException;
+import java.util.List;
 import org.apache.log4j.Logger;
 
+import com.splicemachine.pipeline.utils.CompressionPathStats;
+import com.splicemachine.pipeline.utils.PipelineCompressionManagement;
+import com.splicemachine.pipeline.utils.PipelineCompressionStats;
 import com.splicemachine.pipeline.utils.PipelineCompressor;
 import com.splicemachine.compression.SpliceSnappy;
 
@@ -24,10 +28,11 @@ import com.splicemachine.compression.SpliceSnappy;
  * @author Scott Fines
  *         Date: 12/29/15
  */
-public class SnappyPipelineCompressor implements PipelineCompressor{
+public class SnappyPipelineCompressor implements PipelineCompressor, PipelineCompressionManagement{
     private static final Logger LOG=Logger.getLogger(SnappyPipelineCompressor.class);
 
     private final PipelineCompressor delegate;
+    private final PipelineCompressionStats stats = new PipelineCompressionStats();
 
     public SnappyPipelineCompressor(PipelineCompressor delegate){
         this.delegate=delegate;
@@ -35,14 +40,48 @@ public class SnappyPipelineCompressor implements PipelineCompressor{
 
     @Override
     public byte[] compress(Object o) throws IOException {
+        return compress(o,null);
+    }
+
+    @Override
+    public byte[] compress(Object o,String tableName) throws IOException {
         byte[] d = delegate.compress(o);
-        d = SpliceSnappy.compress(d);
-        return d;
+        long start = System.nanoTime();
+        byte[] c = SpliceSnappy.compress(d);
+        stats.compressed(tableName,d.length,c.length,SpliceSnappy.isInstalled(),System.nanoTime()-start);
+        return c;
     }
 
     @Override
     public <T> T decompress(byte[] bytes,Class<T> clazz) throws IOException {
+        return decompress(bytes,clazz,null);
+    }
+
+    @Override
+    public <T> T decompress(byte[] bytes,Class<T> clazz,String tableName) throws IOException {
+        long start = System.nanoTime();
         byte[] d = SpliceSnappy.uncompress(bytes);
+        stats.decompressed(tableName,System.nanoTime()-start);
         return delegate.decompress(d, clazz);
     }
+
+    @Override
+    public String getCodec(){
+        return SpliceSnappy.isInstalled()?"snappy":"none";
+    }
+
+    @Override
+    public int getCompressionThreshold(){
+        return 0;
+    }
+
+    @Override
+    public List<CompressionPathStats> getPathStats(){
+        return stats.snapshot();
+    }
+
+    @Override
+    public void resetStats(){
+        stats.reset();
+    }
 }
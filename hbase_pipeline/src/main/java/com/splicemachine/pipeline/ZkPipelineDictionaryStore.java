@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.pipeline;
+
+import com.splicemachine.access.HConfiguration;
+import com.splicemachine.access.configuration.HBaseConfiguration;
+import com.splicemachine.hbase.ZkUtils;
+import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.ZooDefs;
+
+import java.io.IOException;
+
+/**
+ * Shares the dictionaries of pipeline payloads through ZooKeeper, one node per table. The node of a table is
+ * removed by the master when the table is deleted.
+ */
+public class ZkPipelineDictionaryStore implements PipelineDictionaries.Store{
+    private final String rootPath;
+
+    public ZkPipelineDictionaryStore(){
+        this.rootPath=HConfiguration.getConfiguration().getSpliceRootPath()+HBaseConfiguration.PIPELINE_DICTIONARY_PATH;
+    }
+
+    @Override
+    public byte[] get(String tableName) throws IOException{
+        try{
+            return ZkUtils.getRecoverableZooKeeper().getData(path(tableName),false,null);
+        }catch(KeeperException.NoNodeException e){
+            return null;
+        }catch(KeeperException e){
+            throw new IOException(e);
+        }catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public byte[] putIfAbsent(String tableName,byte[] dictionary) throws IOException{
+        try{
+            ZkUtils.recursiveSafeCreate(path(tableName),dictionary,ZooDefs.Ids.OPEN_ACL_UNSAFE,CreateMode.PERSISTENT);
+        }catch(KeeperException e){
+            throw new IOException(e);
+        }catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+        // the node is left as is when it exists already, so read back which dictionary won
+        byte[] published = get(tableName);
+        return published!=null?published:dictionary;
+    }
+
+    @Override
+    public void remove(String tableName) throws IOException{
+        try{
+            ZkUtils.safeDelete(path(tableName),-1);
+        }catch(KeeperException e){
+            throw new IOException(e);
+        }catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+    }
+
+    private String path(String tableName){
+        return rootPath+"/"+tableName;
+    }
+}
@@ -22,6 +22,7 @@ import com.splicemachine.coprocessor.SpliceMessage;
 import com.splicemachine.ipc.RpcChannelFactory;
 import com.splicemachine.pipeline.api.PipelineExceptionFactory;
 import com.splicemachine.pipeline.utils.PipelineCompressor;
+import com.splicemachine.si.impl.hlc.HLCTimestampSource;
 import com.splicemachine.storage.PartitionInfoCache;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import org.apache.hadoop.hbase.NotServingRegionException;
@@ -72,7 +73,7 @@ public class BulkWriteChannelInvoker {
         try {
             SpliceMessage.SpliceIndexService service = ProtobufUtil.newServiceStub(SpliceMessage.SpliceIndexService.class, channel);
             SpliceMessage.BulkWriteRequest.Builder builder = SpliceMessage.BulkWriteRequest.newBuilder();
-            byte[] requestBytes = compressor.compress(write);
+            byte[] requestBytes = compressor.compress(write,tableName.getNameAsString());
             builder.setBytes(ZeroCopyLiteralByteString.wrap(requestBytes));
             SpliceMessage.BulkWriteRequest bwr = builder.build();
 
@@ -81,7 +82,7 @@ public class BulkWriteChannelInvoker {
             service.bulkWrite(controller, bwr, doneCallback);
             if (controller.failed()){
                 IOException error=controller.getFailedOn();
-                clearCacheIfNeeded(error);
+                clearCacheIfNeeded(error,write.getRegionKey());
                 cacheCheck=true;
                 if(error!=null)
                     throw pef.processRemoteException(error);
@@ -89,24 +90,33 @@ public class BulkWriteChannelInvoker {
                     throw pef.fromErrorString(controller.errorText());
             }
             SpliceMessage.BulkWriteResponse bulkWriteResponse = doneCallback.get();
+            if(bulkWriteResponse.hasObservedTs())
+                HLCTimestampSource.observe(bulkWriteResponse.getObservedTs());
             byte[] bytes = bulkWriteResponse.getBytes().toByteArray();
             if(bytes==null || bytes.length<=0){
                 Logger logger=Logger.getLogger(BulkWriteChannelInvoker.class);
                 logger.error("zero-length bytes returned with a null error for encodedString: "+write.getBulkWrites().iterator().next().getEncodedStringName());
             }
 
-            return compressor.decompress(bytes,BulkWritesResult.class);
+            return compressor.decompress(bytes,BulkWritesResult.class,tableName.getNameAsString());
         } catch (Exception e) {
-        	if (!cacheCheck) clearCacheIfNeeded(e);
+        	if (!cacheCheck) clearCacheIfNeeded(e,write.getRegionKey());
             throw pef.processRemoteException(e);
         }
     }
 
-    private boolean clearCacheIfNeeded(Throwable e) throws IOException{
-        if (e==null ||
-                e instanceof WrongPartitionException ||
+    private boolean clearCacheIfNeeded(Throwable e,byte[] regionKey) throws IOException{
+        if (e instanceof WrongPartitionException ||
                 e instanceof NotServingRegionException ||
-                e instanceof NotServingPartitionException ||
+                e instanceof NotServingPartitionException) {
+            /*
+             * Only this region has moved or split, so we only drop its location from the cache and
+             * keep the locations of the rest of the table
+             */
+            partitionInfoCache.invalidate(this.tableName,regionKey);
+            return true;
+        }
+        if (e==null ||
                 e instanceof ConnectException ||
                 e instanceof ConnectionClosingException ||
                 e instanceof NoServerForRegionException ||
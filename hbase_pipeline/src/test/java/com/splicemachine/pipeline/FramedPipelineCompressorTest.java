@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.pipeline;
+
+import com.splicemachine.pipeline.utils.CompressionPathStats;
+import com.splicemachine.pipeline.utils.PipelineCompressor;
+import com.splicemachine.primitives.Bytes;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class FramedPipelineCompressorTest{
+    private static final String TABLE = "splice:1568";
+
+    @Test
+    public void roundTripsEveryCodec() throws Exception{
+        byte[] payload = payload(new Random(0L),4096);
+        for(String codec:new String[]{"none","lz4","zstd"}){
+            FramedPipelineCompressor compressor = compressor(codec,new MemoryStore(),0);
+            byte[] compressed = compressor.compress(payload,TABLE);
+            Assert.assertArrayEquals("Incorrect round trip for "+codec,payload,compressor.decompress(compressed,byte[].class,TABLE));
+            if(!"none".equals(codec))
+                Assert.assertTrue(codec+" did not compress",compressed.length<payload.length);
+        }
+    }
+
+    @Test
+    public void decodesPayloadsOfOtherCodecs() throws Exception{
+        byte[] payload = payload(new Random(1L),4096);
+        byte[] compressed = compressor("lz4",new MemoryStore(),0).compress(payload,TABLE);
+        Assert.assertArrayEquals(payload,compressor("zstd",new MemoryStore(),0).decompress(compressed,byte[].class,TABLE));
+    }
+
+    @Test
+    public void smallPayloadsAreNotCompressed() throws Exception{
+        FramedPipelineCompressor compressor = compressor("zstd",new MemoryStore(),0);
+        byte[] payload = payload(new Random(2L),100);
+        byte[] compressed = compressor.compress(payload,TABLE);
+        Assert.assertEquals(FramedPipelineCompressor.UNCOMPRESSED,compressed[0]);
+        Assert.assertEquals(payload.length+1,compressed.length);
+        Assert.assertArrayEquals(payload,compressor.decompress(compressed,byte[].class,TABLE));
+
+        List<CompressionPathStats> stats = compressor.getPathStats();
+        Assert.assertEquals(1,stats.size());
+        Assert.assertEquals(TABLE,stats.get(0).getPath());
+        Assert.assertEquals(0L,stats.get(0).getCompressedPayloads());
+        Assert.assertEquals(1L,stats.get(0).getUncompressedPayloads());
+        Assert.assertEquals(1L,stats.get(0).getDecompressedPayloads());
+    }
+
+    @Test
+    public void trainsAndSharesTableDictionaries() throws Exception{
+        MemoryStore store = new MemoryStore();
+        FramedPipelineCompressor writer = compressor("zstd",store,4096);
+        Random random = new Random(3L);
+        for(int i=0;i<=PipelineDictionaries.SAMPLES;i++){
+            writer.compress(payload(random,1024),TABLE);
+        }
+        Assert.assertNotNull("No dictionary was published",store.get(TABLE));
+
+        byte[] payload = payload(random,1024);
+        byte[] compressed = writer.compress(payload,TABLE);
+        Assert.assertEquals(FramedPipelineCompressor.ZSTD_DICTIONARY,compressed[0]);
+        Assert.assertTrue("The dictionary did not improve compression",
+                compressed.length<compressor("zstd",new MemoryStore(),0).compress(payload,TABLE).length);
+
+        FramedPipelineCompressor reader = compressor("lz4",store,0);
+        Assert.assertArrayEquals(payload,reader.decompress(compressed,byte[].class,null));
+    }
+
+    @Test(expected = IOException.class)
+    public void missingDictionaryFailsDecompression() throws Exception{
+        MemoryStore store = new MemoryStore();
+        FramedPipelineCompressor writer = compressor("zstd",store,4096);
+        Random random = new Random(4L);
+        for(int i=0;i<=PipelineDictionaries.SAMPLES;i++){
+            writer.compress(payload(random,1024),TABLE);
+        }
+        byte[] compressed = writer.compress(payload(random,1024),TABLE);
+        compressor("zstd",new MemoryStore(),0).decompress(compressed,byte[].class,null);
+    }
+
+    @Test(expected = IOException.class)
+    public void unknownCodecFailsDecompression() throws Exception{
+        compressor("lz4",new MemoryStore(),0).decompress(new byte[]{42,1,2,3},byte[].class,TABLE);
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+    private static FramedPipelineCompressor compressor(String codec,PipelineDictionaries.Store store,int dictionarySize){
+        PipelineDictionaries dictionaries = new PipelineDictionaries(store,dictionarySize,3,Runnable::run);
+        return new FramedPipelineCompressor(new PassThrough(),codec,512,3,dictionaries,dictionarySize>0);
+    }
+
+    /*
+     * Rows of a narrow table: a mostly constant header and a few small, random columns
+     */
+    private static byte[] payload(Random random,int size){
+        byte[] payload = new byte[size];
+        for(int offset=0;offset<size;offset+=32){
+            byte[] row = Bytes.toBytes("ROW|SPLICE|CUSTOMER|"+random.nextInt(1000)+"|"+(random.nextBoolean()?"Y":"N")+"|");
+            System.arraycopy(row,0,payload,offset,Math.min(Math.min(row.length,32),size-offset));
+        }
+        return payload;
+    }
+
+    private static class PassThrough implements PipelineCompressor{
+        @Override
+        public byte[] compress(Object o){
+            return (byte[])o;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T decompress(byte[] bytes,Class<T> clazz){
+            return (T)bytes;
+        }
+    }
+
+    private static class MemoryStore implements PipelineDictionaries.Store{
+        private final Map<String, byte[]> dictionaries = new ConcurrentHashMap<>();
+
+        @Override
+        public byte[] get(String tableName){
+            return dictionaries.get(tableName);
+        }
+
+        @Override
+        public byte[] putIfAbsent(String tableName,byte[] dictionary){
+            byte[] published = dictionaries.putIfAbsent(tableName,dictionary);
+            return published!=null?published:dictionary;
+        }
+
+        @Override
+        public void remove(String tableName){
+            dictionaries.remove(tableName);
+        }
+    }
+}
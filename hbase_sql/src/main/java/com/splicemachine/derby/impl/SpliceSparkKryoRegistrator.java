@@ -67,6 +67,7 @@ import com.splicemachine.derby.utils.kryo.ListDataTypeSerializer;
 import com.splicemachine.derby.utils.kryo.SimpleObjectSerializer;
 import com.splicemachine.kvpair.KVPair;
 import com.splicemachine.pipeline.client.BulkWrite;
+import com.splicemachine.stream.ColumnarBatch;
 import com.splicemachine.stream.ResultStreamer;
 import com.splicemachine.stream.StreamProtocol;
 import com.splicemachine.utils.ByteSlice;
@@ -743,6 +744,7 @@ public class SpliceSparkKryoRegistrator implements KryoRegistrator, KryoPool.Kry
         instance.register(StreamProtocol.InitOlapStream.class,EXTERNALIZABLE_SERIALIZER);
         instance.register(StreamProtocol.PauseStream.class,EXTERNALIZABLE_SERIALIZER);
         instance.register(StreamProtocol.ContinueStream.class,EXTERNALIZABLE_SERIALIZER);
+        instance.register(ColumnarBatch.class,EXTERNALIZABLE_SERIALIZER);
         instance.register(SparkSpliceFunctionWrapper.class,EXTERNALIZABLE_SERIALIZER);
         instance.register(SparkSpliceFunctionWrapper2.class,EXTERNALIZABLE_SERIALIZER);
         instance.register(ResultStreamer.class,EXTERNALIZABLE_SERIALIZER);
@@ -100,4 +100,9 @@ public class HregionDataSetProcessor extends ControlDataSetProcessor {
         };
     }
 
+    @Override
+    public boolean supportsScanAggregation() {
+        // the scans built above return the rows of the table as they are, ignoring any requested aggregation
+        return false;
+    }
 }
@@ -25,6 +25,7 @@ import com.splicemachine.derby.impl.SpliceSpark;
 import com.splicemachine.derby.impl.sql.execute.operations.DMLWriteOperation;
 import com.splicemachine.derby.impl.sql.execute.operations.MultiProbeTableScanOperation;
 import com.splicemachine.derby.impl.sql.execute.operations.export.ExportExecRowWriter;
+import com.splicemachine.derby.impl.sql.execute.operations.export.ExportFile;
 import com.splicemachine.derby.impl.sql.execute.operations.export.ExportFile.COMPRESSION;
 import com.splicemachine.derby.impl.sql.execute.operations.export.ExportOperation;
 import com.splicemachine.derby.impl.sql.execute.operations.framework.SpliceGenericAggregator;
@@ -57,7 +58,6 @@ import org.apache.commons.codec.binary.Base64;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
-import org.apache.hadoop.io.compress.*;
 import org.apache.hadoop.mapred.FileAlreadyExistsException;
 import org.apache.hadoop.mapred.InvalidJobConfException;
 import org.apache.hadoop.mapreduce.JobContext;
@@ -78,7 +78,6 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.util.*;
 import java.util.concurrent.Future;
-import java.util.zip.GZIPOutputStream;
 
 /**
  *
@@ -578,26 +577,11 @@ public class SparkDataSet<V> implements DataSet<V> {
             }
 
             final ExportOperation op = exportFunction.getOperation();
-            CompressionCodec codec = null;
-            String extension = ".csv";
             COMPRESSION compression = op.getExportParams().getCompression();
-            if (compression == COMPRESSION.BZ2) {
-                extension += ".bz2";
-            }
-            else if (compression == COMPRESSION.GZ) {
-                extension += ".gz";
-            }
+            String extension = ".csv" + ExportFile.getFileExtension(compression);
             Path file = getDefaultWorkFile(taskAttemptContext, extension);
             FileSystem fs = file.getFileSystem(conf);
-            OutputStream fileOut = fs.create(file, false);
-            if (compression == COMPRESSION.BZ2) {
-                CompressionCodecFactory factory = new CompressionCodecFactory(conf);
-                codec = factory.getCodecByClassName("org.apache.hadoop.io.compress.BZip2Codec");
-                fileOut = codec.createOutputStream(fileOut);
-            }
-            else if (compression == COMPRESSION.GZ) {
-                fileOut = new GZIPOutputStream(fileOut);
-            }
+            OutputStream fileOut = ExportFile.compressedOutputStream(fs.create(file, false), compression);
             final ExportExecRowWriter rowWriter = ExportFunction.initializeRowWriter(fileOut, op.getExportParams(), op.getSourceResultColumnDescriptors());
             return new RecordWriter<Void, ExecRow>() {
                 @Override
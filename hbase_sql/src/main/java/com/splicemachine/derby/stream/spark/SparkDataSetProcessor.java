@@ -63,6 +63,7 @@ import org.apache.kafka.common.serialization.IntegerDeserializer;
 import org.apache.log4j.Logger;
 import org.apache.spark.api.java.JavaPairRDD;
 import org.apache.spark.api.java.JavaRDD;
+import org.apache.spark.api.java.JavaSparkContext;
 import org.apache.spark.api.java.function.Function;
 import org.apache.spark.sql.*;
 import org.apache.spark.sql.types.DataTypes;
@@ -93,6 +94,11 @@ public class SparkDataSetProcessor implements DistributedDataSetProcessor, Seria
     private String importFileName;
     private static final Joiner CSV_JOINER = Joiner.on(",").skipNulls();
     private static final String TEMP_DIR_PREFIX = "_temp";
+    /**
+     * Local property holding the fair scheduler pool of the tenant the current OLAP job runs for, which
+     * takes precedence over the pool requested by operations.
+     */
+    public static final String TENANT_POOL_PROPERTY = "splice.olap.tenantPool";
 
     private static final Logger LOG = Logger.getLogger(SparkDataSetProcessor.class);
 
@@ -213,7 +219,9 @@ public class SparkDataSetProcessor implements DistributedDataSetProcessor, Seria
     }
 
     public void setSchedulerPool(String pool) {
-        SpliceSpark.getContext().setLocalProperty("spark.scheduler.pool",pool);
+        JavaSparkContext context = SpliceSpark.getContext();
+        String tenantPool = context.getLocalProperty(TENANT_POOL_PROPERTY);
+        context.setLocalProperty("spark.scheduler.pool",tenantPool != null ? tenantPool : pool);
     }
 
     @Override
@@ -985,6 +993,11 @@ public class SparkDataSetProcessor implements DistributedDataSetProcessor, Seria
         return broadcastedActivation.isDB2VarcharCompatibilityMode();
     }
 
+    @Override
+    public boolean supportsScanAggregation() {
+        return false;
+    }
+
     @Override
     public void setTempTriggerConglomerate(long conglomID) {
         if (broadcastedActivation != null)
@@ -144,6 +144,11 @@ public class SparkTableChecker implements TableChecker {
         this.baseTable = tableDataSet;
     }
 
+    @Override
+    public void setTableSegments(List<TableSegment> segments) {
+        // the base table is checked as a single distributed data set
+    }
+
     /**
      * Check for duplicate indexes
      * @param index
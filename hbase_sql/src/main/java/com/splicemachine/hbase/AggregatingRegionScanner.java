@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.hbase;
+
+import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.db.iapi.sql.execute.ExecRow;
+import com.splicemachine.derby.impl.sql.execute.operations.scanner.SITableScanner;
+import com.splicemachine.derby.impl.sql.execute.operations.scanner.ScanAggregation;
+import com.splicemachine.derby.impl.sql.execute.operations.scanner.TableScannerBuilder;
+import com.splicemachine.derby.stream.iapi.DataSet;
+import com.splicemachine.metrics.Metrics;
+import com.splicemachine.si.constants.SIConstants;
+import com.splicemachine.si.impl.driver.SIDriver;
+import com.splicemachine.storage.RegionDataScanner;
+import com.splicemachine.storage.RegionPartition;
+import com.splicemachine.utils.SpliceLogUtils;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.HRegionInfo;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.regionserver.HBasePlatformUtils;
+import org.apache.hadoop.hbase.regionserver.HRegion;
+import org.apache.hadoop.hbase.regionserver.RegionScanner;
+import org.apache.hadoop.hbase.regionserver.ScannerContext;
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.util.List;
+
+/**
+ * Aggregates the rows of a region scan carrying the {@link ScanAggregation#SCAN_ATTRIBUTE}, returning
+ * partial aggregates rather than the rows themselves.
+ *
+ * Rows are read and filtered transactionally here, as the client would read them, and aggregated until the
+ * aggregation is full, a second has passed, the scan runs out of time or the region is exhausted. The partial
+ * rows are then returned in a single cell keyed by the last row aggregated, so that a scan restarted after that
+ * row (when the region moves, or the scanner lease expires) neither misses nor repeats any row. Each such cell
+ * counts towards the size limit of the scan as a row of its own.
+ */
+public class AggregatingRegionScanner implements RegionScanner {
+    private static final Logger LOG = Logger.getLogger(AggregatingRegionScanner.class);
+    private static final long FLUSH_INTERVAL_MILLIS = 1000L;
+    private static final int ROWS_PER_CLOCK_CHECK = 1024;
+
+    private final RegionScanner delegate;
+    private final SITableScanner rows;
+    private final ScanAggregation.Accumulator accumulator;
+    private boolean exhausted;
+
+    AggregatingRegionScanner(RegionScanner delegate, SITableScanner rows, ScanAggregation.Accumulator accumulator) {
+        this.delegate = delegate;
+        this.rows = rows;
+        this.accumulator = accumulator;
+    }
+
+    /**
+     * @return a scanner aggregating the rows of {@code delegate}, or {@code delegate} itself if {@code scan}
+     * should not be aggregated
+     */
+    public static RegionScanner wrap(HRegion region, Scan scan, RegionScanner delegate) throws IOException {
+        byte[] attribute = scan.getAttribute(ScanAggregation.SCAN_ATTRIBUTE);
+        SIDriver driver = SIDriver.driver();
+        if (attribute == null || driver == null)
+            return delegate;
+        long conglomId;
+        try {
+            conglomId = Long.parseLong(region.getTableDescriptor().getTableName().getQualifierAsString());
+        } catch (NumberFormatException e) {
+            return delegate;
+        }
+        RegionScanBuilder builder = new RegionScanBuilder();
+        ScanAggregation aggregation;
+        try {
+            aggregation = ScanAggregation.fromScanAttribute(attribute, builder);
+        } catch (InvalidClassException e) {
+            // the client merges the rows themselves just as well, so refuse to aggregate rather than fail the scan
+            SpliceLogUtils.warn(LOG, "Not aggregating scan of region %s: %s",
+                    region.getRegionInfo().getRegionNameAsString(), e.getMessage());
+            return delegate;
+        }
+        RegionPartition partition = new RegionPartition(region);
+        builder.region(driver.transactionalPartition(conglomId, partition));
+        SITableScanner rows = builder.build(new RegionDataScanner(partition, delegate, Metrics.noOpMetricFactory()),
+                builder.getTemplate());
+        return new AggregatingRegionScanner(delegate, rows, aggregation.newAccumulator());
+    }
+
+    @Override
+    public HRegionInfo getRegionInfo() {
+        return (HRegionInfo) delegate.getRegionInfo();
+    }
+
+    @Override
+    public boolean isFilterDone() throws IOException {
+        return delegate.isFilterDone();
+    }
+
+    /**
+     * Skips the rows before {@code row}. The rows already aggregated stay aggregated, and are returned keyed by
+     * the last of them as usual.
+     */
+    @Override
+    public boolean reseek(byte[] row) throws IOException {
+        return delegate.reseek(row);
+    }
+
+    @Override
+    public long getMaxResultSize() {
+        return delegate.getMaxResultSize();
+    }
+
+    @Override
+    public long getMvccReadPoint() {
+        return delegate.getMvccReadPoint();
+    }
+
+    @Override
+    public int getBatch() {
+        return delegate.getBatch();
+    }
+
+    @Override
+    public boolean nextRaw(List<Cell> result) throws IOException {
+        return aggregate(result, null);
+    }
+
+    @Override
+    public boolean nextRaw(List<Cell> result, ScannerContext scannerContext) throws IOException {
+        return aggregate(result, scannerContext);
+    }
+
+    @Override
+    public boolean next(List<Cell> results) throws IOException {
+        return aggregate(results, null);
+    }
+
+    @Override
+    public boolean next(List<Cell> result, ScannerContext scannerContext) throws IOException {
+        return aggregate(result, scannerContext);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            rows.close(); // closes the delegate
+        } catch (StandardException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+
+    private boolean aggregate(List<Cell> result, ScannerContext scannerContext) throws IOException {
+        if (exhausted)
+            return false;
+        try {
+            long flushTime = System.currentTimeMillis() + FLUSH_INTERVAL_MILLIS;
+            int count = 0;
+            while (!accumulator.hasFlushed()) {
+                ExecRow row = rows.next();
+                if (row == null) {
+                    exhausted = true;
+                    accumulator.flush();
+                    break;
+                }
+                accumulator.accumulate(row);
+                if (++count % ROWS_PER_CLOCK_CHECK == 0 && (System.currentTimeMillis() >= flushTime
+                        || scannerContext != null && HBasePlatformUtils.scannerTimeLimitReached(scannerContext)))
+                    accumulator.flush();
+            }
+        } catch (StandardException e) {
+            throw new IOException(e);
+        }
+        List<ExecRow> partialRows = accumulator.takeFlushed();
+        if (!partialRows.isEmpty()) {
+            KeyValue cell = new KeyValue(partialRows.get(0).getKey(),
+                    SIConstants.DEFAULT_FAMILY_BYTES,
+                    ScanAggregation.PARTIAL_COLUMN,
+                    ScanAggregation.encodePartialRows(partialRows));
+            result.add(cell);
+            if (scannerContext != null)
+                HBasePlatformUtils.scannerRowProduced(scannerContext, cell);
+        }
+        return !exhausted;
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper classes*/
+
+    private static class RegionScanBuilder extends TableScannerBuilder<ExecRow> {
+        @Override
+        public DataSet<ExecRow> buildDataSet() throws StandardException {
+            throw new UnsupportedOperationException("We do not build data sets in this context.");
+        }
+    }
+}
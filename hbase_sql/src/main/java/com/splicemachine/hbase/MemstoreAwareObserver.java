@@ -18,6 +18,7 @@ import com.splicemachine.access.client.ClientRegionConstants;
 import com.splicemachine.access.client.MemStoreFlushAwareScanner;
 import com.splicemachine.access.client.MemstoreAware;
 import com.splicemachine.compactions.SpliceCompactionRequest;
+import com.splicemachine.derby.impl.sql.execute.operations.scanner.ScanAggregation;
 import com.splicemachine.mrio.MRConstants;
 import com.splicemachine.primitives.Bytes;
 import com.splicemachine.si.constants.SIConstants;
@@ -156,6 +157,9 @@ public class MemstoreAwareObserver implements RegionCoprocessor, RegionObserver,
             HStore store = region.getStore(SIConstants.DEFAULT_FAMILY_BYTES);
             return postScannerOpenAction(c, store, scan, null, s);
         }
+        if (scan.getAttribute(ScanAggregation.SCAN_ATTRIBUTE) != null) {
+            return AggregatingRegionScanner.wrap((HRegion) c.getEnvironment().getRegion(), scan, s);
+        }
         return s;
     }
 
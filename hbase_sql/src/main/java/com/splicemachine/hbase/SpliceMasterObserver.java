@@ -26,6 +26,7 @@ import com.splicemachine.olap.OlapServer;
 import com.splicemachine.olap.OlapServerMaster;
 import com.splicemachine.olap.OlapServerSubmitter;
 import com.splicemachine.pipeline.InitializationCompleted;
+import com.splicemachine.pipeline.ZkPipelineDictionaryStore;
 import com.splicemachine.si.constants.SIConstants;
 import com.splicemachine.si.data.hbase.coprocessor.CoprocessorUtils;
 import com.splicemachine.si.data.hbase.coprocessor.HBaseSIEnvironment;
@@ -169,6 +170,16 @@ public class SpliceMasterObserver implements MasterCoprocessor, MasterObserver,
         }
     }
 
+    @Override
+    public void postDeleteTable(ObserverContext<MasterCoprocessorEnvironment> ctx, TableName tableName) throws IOException {
+        // the pipeline compression dictionary of the table, if it had one, is of no use anymore
+        try {
+            new ZkPipelineDictionaryStore().remove(tableName.getNameAsString());
+        } catch (IOException e) {
+            LOG.warn("Unable to remove the pipeline compression dictionary of table " + tableName, e);
+        }
+    }
+
     @Override
     @SuppressFBWarnings(value = "RV_RETURN_VALUE_IGNORED_BAD_PRACTICE", justification = "DB-9405")
     public void postStartMaster(ObserverContext<MasterCoprocessorEnvironment> ctx) throws IOException {
@@ -554,6 +554,8 @@ public class AsyncOlapNIOLayer implements JobExecutor{
                 SubmittedResult submittedResult = ((SubmittedResult) or);
                 future.tickTimeNanos = TimeUnit.MILLISECONDS.toNanos(submittedResult.getTickTime());
                 future.lastStatus = System.currentTimeMillis();
+                if (LOG.isTraceEnabled() && submittedResult.getQueueWaitMillis() > 0)
+                    LOG.trace("Job " + future.job.getUniqueName() + " queued for " + submittedResult.getQueueWaitMillis() + " ms");
                 future.job.notify(submittedResult.getProgressStr());
             } else if(future.submitted && !future.isDone() && or instanceof NotSubmittedResult) {
                 // Server says the job is no longer submitted, give it a couple of tries in case messages are out of order
@@ -0,0 +1,314 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.olap;
+
+import com.splicemachine.access.api.SConfiguration;
+import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.db.iapi.reference.SQLState;
+import org.apache.log4j.Logger;
+import splice.com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission control and weighted fair scheduling of the jobs run by an OLAP server.
+ *
+ * Jobs submitted on behalf of a tenant wait in their tenant's queue until both the server and the tenant are under
+ * their limit of running jobs. Whenever a job can start, it is taken from the tenant running the fewest jobs relative
+ * to its weight, so that under contention each tenant gets a share of the server proportional to its weight, however
+ * many jobs it submits. Jobs which waited longer than the queue timeout are failed, and jobs which were cancelled
+ * or abandoned by their client while waiting are dropped.
+ *
+ * Jobs without a tenant are run on behalf of the system (e.g. compactions) and start right away.
+ */
+class OlapJobScheduler{
+    private static final Logger LOG=Logger.getLogger(OlapJobScheduler.class);
+
+    private final ExecutorService executionPool;
+    private final int maxRunning;
+    private final Map<String, Integer> weights;
+    private final Map<String, Integer> limits;
+    private final int defaultLimit;
+    private final long queueTimeoutMillis;
+    private final ScheduledExecutorService expirationThread;
+
+    //guarded by this
+    private final Map<String, Tenant> tenants=new HashMap<>();
+    private int running;
+
+    OlapJobScheduler(SConfiguration config,ExecutorService executionPool){
+        this(executionPool,
+                config.getOlapSchedulerMaxRunningJobs(),
+                config.getOlapSchedulerTenantWeights(),
+                config.getOlapSchedulerTenantLimits(),
+                config.getOlapSchedulerDefaultTenantLimit(),
+                config.getOlapSchedulerQueueTimeout());
+    }
+
+    OlapJobScheduler(ExecutorService executionPool,
+                     int maxRunning,
+                     Map<String, Integer> weights,
+                     Map<String, Integer> limits,
+                     int defaultLimit,
+                     long queueTimeoutMillis){
+        this.executionPool=executionPool;
+        this.maxRunning=maxRunning;
+        this.weights=weights==null?Collections.<String, Integer>emptyMap():weights;
+        this.limits=limits==null?Collections.<String, Integer>emptyMap():limits;
+        this.defaultLimit=defaultLimit;
+        this.queueTimeoutMillis=queueTimeoutMillis;
+        if(maxRunning>0 || defaultLimit>0 || !this.limits.isEmpty()){
+            //jobs may have to wait, so look for the ones which should stop waiting now and then
+            long period=queueTimeoutMillis>0?Math.max(10L,Math.min(1000L,queueTimeoutMillis/4)):1000L;
+            expirationThread=Executors.newSingleThreadScheduledExecutor(
+                    new ThreadFactoryBuilder().setDaemon(true).setNameFormat("olap-scheduler").build());
+            expirationThread.scheduleWithFixedDelay(new Runnable(){
+                @Override
+                public void run(){
+                    expire();
+                }
+            },period,period,TimeUnit.MILLISECONDS);
+        }else
+            expirationThread=null;
+    }
+
+    /**
+     * Runs {@code job} once {@code tenant} may run one more job, or right away if the job runs on behalf of
+     * the system ({@code tenant} is null).
+     */
+    void submit(String tenant,OlapJobStatus status,Runnable job){
+        if(tenant==null){
+            executionPool.execute(job);
+            return;
+        }
+        long now=System.currentTimeMillis();
+        status.markQueued(now);
+        synchronized(this){
+            Tenant t=tenants.get(tenant);
+            if(t==null){
+                t=new Tenant(tenant,weightOf(tenant),limitOf(tenant));
+                tenants.put(tenant,t);
+            }
+            t.queue.add(new QueuedJob(status,job,now));
+        }
+        dispatch();
+    }
+
+    synchronized int getRunningJobs(){
+        return running;
+    }
+
+    synchronized int getQueuedJobs(){
+        int queued=0;
+        for(Tenant t:tenants.values()){
+            queued+=t.queue.size();
+        }
+        return queued;
+    }
+
+    /**
+     * Fails the queued jobs which waited past the queue timeout and drops the ones which no longer need to run,
+     * wherever they are in their queue.
+     */
+    void expire(){
+        long now=System.currentTimeMillis();
+        List<QueuedJob> expired=new ArrayList<>();
+        synchronized(this){
+            for(Iterator<Tenant> it=tenants.values().iterator();it.hasNext();){
+                Tenant t=it.next();
+                for(Iterator<QueuedJob> jobs=t.queue.iterator();jobs.hasNext();){
+                    QueuedJob job=jobs.next();
+                    if(!isWaiting(job)){
+                        jobs.remove();
+                    }else if(isExpired(job,now)){
+                        jobs.remove();
+                        expired.add(job);
+                    }
+                }
+                if(t.isIdle())
+                    it.remove();
+            }
+        }
+        fail(expired,now);
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+
+    private void dispatch(){
+        long now=System.currentTimeMillis();
+        List<QueuedJob> expired=null;
+        List<QueuedJob> started=null;
+        synchronized(this){
+            while(maxRunning<=0 || running<maxRunning){
+                Tenant next=null;
+                for(Tenant t:tenants.values()){
+                    expired=dropFinished(t,now,expired);
+                    if(t.queue.isEmpty() || (t.limit>0 && t.running>=t.limit))
+                        continue;
+                    if(next==null || t.isBehind(next))
+                        next=t;
+                }
+                if(next==null)
+                    break;
+                QueuedJob job=next.queue.poll();
+                job.tenant=next;
+                next.running++;
+                running++;
+                if(started==null)
+                    started=new ArrayList<>();
+                started.add(job);
+            }
+        }
+        if(expired!=null)
+            fail(expired,now);
+        if(started!=null){
+            for(QueuedJob job:started){
+                start(job,now);
+            }
+        }
+    }
+
+    private void start(final QueuedJob job,long now){
+        job.status.markDequeued(now);
+        if(LOG.isDebugEnabled())
+            LOG.debug("Starting job of tenant "+job.tenant.name+" after "+(now-job.queuedMillis)+" ms in queue");
+        try{
+            executionPool.execute(new Runnable(){
+                @Override
+                public void run(){
+                    try{
+                        job.job.run();
+                    }finally{
+                        finished(job.tenant);
+                    }
+                }
+            });
+        }catch(RejectedExecutionException ree){
+            LOG.warn("Unable to start job of tenant "+job.tenant.name,ree);
+            finished(job.tenant);
+        }
+    }
+
+    private void finished(Tenant tenant){
+        synchronized(this){
+            tenant.running--;
+            running--;
+            if(tenant.isIdle())
+                tenants.remove(tenant.name);
+        }
+        dispatch();
+    }
+
+    /*
+     * Drops the jobs at the head of the tenant's queue which should not be started anymore. Must be called
+     * holding the lock.
+     */
+    private List<QueuedJob> dropFinished(Tenant t,long now,List<QueuedJob> expired){
+        QueuedJob head;
+        while((head=t.queue.peek())!=null){
+            if(isWaiting(head) && !isExpired(head,now))
+                break;
+            t.queue.poll();
+            if(isWaiting(head)){
+                if(expired==null)
+                    expired=new ArrayList<>();
+                expired.add(head);
+            }
+        }
+        return expired;
+    }
+
+    private void fail(List<QueuedJob> expired,long now){
+        for(QueuedJob job:expired){
+            job.status.markDequeued(now);
+            LOG.warn("Failing job which waited "+(now-job.queuedMillis)+" ms in the OLAP server queue");
+            job.status.markCompleted(new FailedOlapResult(
+                    StandardException.newException(SQLState.LANG_STATEMENT_CANCELLED_OR_TIMED_OUT)));
+        }
+    }
+
+    private boolean isWaiting(QueuedJob job){
+        return job.status.currentState()==OlapJobStatus.State.SUBMITTED;
+    }
+
+    private boolean isExpired(QueuedJob job,long now){
+        return queueTimeoutMillis>0 && now-job.queuedMillis>queueTimeoutMillis;
+    }
+
+    private int weightOf(String tenant){
+        Integer weight=weights.get(tenant);
+        return weight==null || weight<=0?1:weight;
+    }
+
+    private int limitOf(String tenant){
+        Integer limit=limits.get(tenant);
+        return limit==null?defaultLimit:limit;
+    }
+
+    private static class Tenant{
+        private final String name;
+        private final int weight;
+        private final int limit;
+        private final ArrayDeque<QueuedJob> queue=new ArrayDeque<>();
+        private int running;
+
+        Tenant(String name,int weight,int limit){
+            this.name=name;
+            this.weight=weight;
+            this.limit=limit;
+        }
+
+        /*
+         * Whether this tenant has the smaller share of running jobs for its weight, breaking ties in favour of
+         * the tenant whose next job has been waiting the longest.
+         */
+        boolean isBehind(Tenant other){
+            long share=(long)running*other.weight;
+            long otherShare=(long)other.running*weight;
+            if(share!=otherShare)
+                return share<otherShare;
+            return queue.peek().queuedMillis<other.queue.peek().queuedMillis;
+        }
+
+        boolean isIdle(){
+            return running==0 && queue.isEmpty();
+        }
+    }
+
+    private static class QueuedJob{
+        private final OlapJobStatus status;
+        private final Runnable job;
+        private final long queuedMillis;
+        private Tenant tenant;
+
+        QueuedJob(OlapJobStatus status,Runnable job,long queuedMillis){
+            this.status=status;
+            this.job=job;
+            this.queuedMillis=queuedMillis;
+        }
+    }
+}
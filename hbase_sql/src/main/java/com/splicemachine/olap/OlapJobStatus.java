@@ -44,6 +44,8 @@ public class OlapJobStatus implements OlapStatus{
     private ArrayBlockingQueue<OlapResult> results;
     private volatile OlapResult cachedResult;
     private ProgressInfo progressInfo;
+    private volatile long queuedMillis = -1L;
+    private volatile long dequeuedMillis = -1L;
 
     public OlapJobStatus(long tickTime,int numTicks){
         //TODO -sf- remove the constants
@@ -184,8 +186,25 @@ public class OlapJobStatus implements OlapStatus{
         return cachedResult != null;
     }
 
+    @Override
+    public long getQueueWaitMillis(){
+        long queued = queuedMillis;
+        if(queued<0)
+            return 0L;
+        long dequeued = dequeuedMillis;
+        return (dequeued<0 ? System.currentTimeMillis() : dequeued)-queued;
+    }
+
     /*package-private methods*/
     /* ****************************************************************************************************************/
+    void markQueued(long time){
+        queuedMillis = time;
+    }
+
+    void markDequeued(long time){
+        dequeuedMillis = time;
+    }
+
     State currentState(){
         /*
          * Get the current state of the job. If the job has timed out because the waiting client has died (or
@@ -203,10 +222,10 @@ public class OlapJobStatus implements OlapStatus{
          * if the client has timed out or not.
          */
         State curState = currentState.get();
-        if(curState==State.RUNNING){
+        if(curState==State.RUNNING || curState==State.SUBMITTED){
             /*
-             * This task is still running, so we need to check to see if the responsible client has died
-             * or not.
+             * This task is still running (or waiting in the scheduler's queue), so we need to check to see if the
+             * responsible client has died or not.
              */
             if(!failureDetector.isAvailable()){
                 results.offer(new FailedOlapResult(new TimeoutException("Client timed out response, assuming it died")));
@@ -19,8 +19,11 @@ import splice.com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.splicemachine.access.api.SConfiguration;
 import com.splicemachine.concurrent.Clock;
 import com.splicemachine.derby.iapi.sql.olap.DistributedJob;
+import com.splicemachine.derby.impl.SpliceSpark;
+import com.splicemachine.derby.stream.spark.SparkDataSetProcessor;
 import io.netty.channel.ChannelHandlerContext;
 import org.apache.log4j.Logger;
+import org.apache.spark.api.java.JavaSparkContext;
 
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
@@ -34,7 +37,8 @@ import java.util.concurrent.ThreadFactory;
 class OlapRequestHandler extends AbstractOlapHandler{
     private static final Logger LOG =Logger.getLogger(OlapRequestHandler.class);
 
-    private final ExecutorService executionPool;
+    private final OlapJobScheduler scheduler;
+    private final boolean tenantPools;
     private final Clock clock;
     private final long clientCheckTimeMs;
 
@@ -43,7 +47,8 @@ class OlapRequestHandler extends AbstractOlapHandler{
                        Clock clock,
                        long clientCheckTimeMs){
         super(jobRegistry);
-        this.executionPool=configureThreadPool(config);
+        this.scheduler=new OlapJobScheduler(config,configureThreadPool(config));
+        this.tenantPools=config.getOlapSchedulerTenantPools();
         this.clock=clock;
         this.clientCheckTimeMs=clientCheckTimeMs;
     }
@@ -96,18 +101,27 @@ class OlapRequestHandler extends AbstractOlapHandler{
             LOG.trace("Job "+ jobRequest.getUniqueName()+" successfully submitted");
         writeResponse(ctx.channel(),jr.getUniqueName(),jobStatus);
 
-        executionPool.submit(new Callable<Void>() {
+        final String tenant=jr.getTenant();
+        final String tenantPool=tenantPools ? tenant : null;
+        scheduler.submit(tenant, jobStatus, new Runnable() {
             @Override
-            public Void call() throws Exception {
+            public void run() {
+                JavaSparkContext context = null;
                 try {
-                    return job.call();
+                    if (tenantPool != null) {
+                        context = SpliceSpark.getContext();
+                        context.setLocalProperty(SparkDataSetProcessor.TENANT_POOL_PROPERTY, tenantPool);
+                    }
+                    job.call();
                 } catch (Throwable t) {
                     LOG.error("Uncaught exception", t);
                     if (jobStatus.isRunning()) {
                         jobStatus.markCompleted(new FailedOlapResult(t));
                     }
+                } finally {
+                    if (context != null)
+                        context.setLocalProperty(SparkDataSetProcessor.TENANT_POOL_PROPERTY, null);
                 }
-                return null;
             }
         });
     }
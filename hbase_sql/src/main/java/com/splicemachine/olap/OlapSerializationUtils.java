@@ -72,7 +72,8 @@ class OlapSerializationUtils{
                 case RUNNING:
                     response.setType(OlapMessage.Response.Type.IN_PROGRESS);
                     OlapMessage.ProgressResponse build=OlapMessage.ProgressResponse.newBuilder().setTickTimeMillis(tickTime).
-                            setProgressStr(status.getProgressString()).build();
+                            setProgressStr(status.getProgressString()).
+                            setQueueWaitMillis(status.getQueueWaitMillis()).build();
                     response.setExtension(OlapMessage.ProgressResponse.response,build);
                     break;
                 case CANCELED:
@@ -59,7 +59,7 @@ public class OlapStatusHandler extends AbstractOlapHandler{
         writeResponse(ctx.channel(),cmd.getUniqueName(),status);
 
         if (LOG.isTraceEnabled()) {
-            LOG.trace("Status " + status);
+            LOG.trace("Status " + status + (status == null ? "" : ", queued for " + status.getQueueWaitMillis() + " ms"));
         }
 
     }
@@ -25,6 +25,7 @@ public class SubmittedResult implements OlapResult{
     private static final long serialVersionUID = 1l;
     private long tickTime;
     private String progressStr = "";
+    private long queueWaitMillis;
 
     public SubmittedResult(){
     }
@@ -35,6 +36,7 @@ public class SubmittedResult implements OlapResult{
     public SubmittedResult(OlapMessage.ProgressResponse response){
         this.tickTime = response.getTickTimeMillis();
         this.progressStr = response.getProgressStr();
+        this.queueWaitMillis = response.getQueueWaitMillis();
     }
 
     public long getTickTime(){
@@ -44,6 +46,13 @@ public class SubmittedResult implements OlapResult{
         return progressStr;
     }
 
+    /**
+     * @return how long the job has waited in the OLAP server queue, as of this result
+     */
+    public long getQueueWaitMillis(){
+        return queueWaitMillis;
+    }
+
     @Override public boolean isSuccess(){ return false; }
 
     @Override
@@ -0,0 +1,558 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.stream;
+
+import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.db.iapi.services.io.StoredFormatIds;
+import com.splicemachine.db.iapi.sql.execute.ExecRow;
+import com.splicemachine.db.iapi.types.DataValueDescriptor;
+import com.splicemachine.db.iapi.types.DataValueFactoryImpl;
+import com.splicemachine.db.impl.sql.execute.ValueRow;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * A batch of rows streamed by a {@link ResultStreamer} to a {@link StreamListener}, laid out by column.
+ *
+ * Each column is sent as a vector of values of a single type preceded by a null bitmap, strings are dictionary
+ * encoded when they repeat, and the types of the columns are sent once per batch rather than once per row.
+ * Only rows of the common scalar types can be batched, see {@link Builder#add(Object)}; anything else is sent
+ * through the row by row format.
+ */
+public class ColumnarBatch implements Externalizable {
+    private static final byte INT = 1;
+    private static final byte SMALLINT = 2;
+    private static final byte TINYINT = 3;
+    private static final byte LONG = 4;
+    private static final byte DOUBLE = 5;
+    private static final byte REAL = 6;
+    private static final byte BOOLEAN = 7;
+    private static final byte STRING = 8;
+
+    private int rowCount;
+    private byte[] payload;
+
+    // Serialization
+    public ColumnarBatch() {
+    }
+
+    ColumnarBatch(int rowCount, byte[] payload) {
+        this.rowCount = rowCount;
+        this.payload = payload;
+    }
+
+    public int size() {
+        return rowCount;
+    }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        out.writeInt(rowCount);
+        out.writeInt(payload.length);
+        out.write(payload);
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+        rowCount = in.readInt();
+        payload = new byte[in.readInt()];
+        in.readFully(payload);
+    }
+
+    @Override
+    public String toString() {
+        return "ColumnarBatch{" +
+                "rowCount=" + rowCount +
+                ", bytes=" + payload.length +
+                '}';
+    }
+
+    private static byte kindOf(int formatId) {
+        switch (formatId) {
+            case StoredFormatIds.SQL_INTEGER_ID:
+                return INT;
+            case StoredFormatIds.SQL_SMALLINT_ID:
+                return SMALLINT;
+            case StoredFormatIds.SQL_TINYINT_ID:
+                return TINYINT;
+            case StoredFormatIds.SQL_LONGINT_ID:
+                return LONG;
+            case StoredFormatIds.SQL_DOUBLE_ID:
+                return DOUBLE;
+            case StoredFormatIds.SQL_REAL_ID:
+                return REAL;
+            case StoredFormatIds.SQL_BOOLEAN_ID:
+                return BOOLEAN;
+            case StoredFormatIds.SQL_CHAR_ID:
+            case StoredFormatIds.SQL_VARCHAR_ID:
+            case StoredFormatIds.SQL_LONGVARCHAR_ID:
+                return STRING;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Accumulates the rows of a batch on the Spark side. A builder is reused for all the batches of a partition.
+     */
+    public static class Builder {
+        private int[] formatIds;
+        private BuilderColumn[] columns;
+        private final List<byte[]> keys = new ArrayList<>();
+        private boolean hasKeys;
+        private int rows;
+
+        /**
+         * Adds a row to the batch. A row can be added if it is a plain {@link ValueRow} without base row columns,
+         * all of its columns are of a type the columnar format can carry and, after the first row, its columns are
+         * of the same types as the first row's.
+         *
+         * @return false if the row was not added and has to be sent on its own
+         */
+        public boolean add(Object row) throws StandardException {
+            if (row == null || row.getClass() != ValueRow.class)
+                return false;
+            ExecRow execRow = (ExecRow) row;
+            if (execRow.getBaseRowCols() != null)
+                return false;
+            DataValueDescriptor[] dvds = execRow.getRowArray();
+            if (columns == null && !init(dvds))
+                return false;
+            if (dvds.length != formatIds.length)
+                return false;
+            for (int i = 0; i < dvds.length; i++) {
+                if (dvds[i] == null || dvds[i].getTypeFormatId() != formatIds[i])
+                    return false;
+            }
+            for (int i = 0; i < dvds.length; i++) {
+                columns[i].add(rows, dvds[i]);
+            }
+            byte[] key = execRow.getKey();
+            hasKeys |= key != null;
+            keys.add(key);
+            rows++;
+            return true;
+        }
+
+        public boolean isEmpty() {
+            return rows == 0;
+        }
+
+        /**
+         * Encodes the rows added since the last call and resets the builder for the next batch.
+         */
+        public ColumnarBatch build() throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(columns.length);
+            for (int i = 0; i < columns.length; i++) {
+                out.writeInt(formatIds[i]);
+                columns[i].write(out, rows);
+            }
+            out.writeBoolean(hasKeys);
+            if (hasKeys) {
+                for (byte[] key : keys) {
+                    writeBytes(out, key);
+                }
+            }
+            out.flush();
+            ColumnarBatch batch = new ColumnarBatch(rows, bytes.toByteArray());
+
+            for (BuilderColumn column : columns) {
+                column.clear();
+            }
+            keys.clear();
+            hasKeys = false;
+            rows = 0;
+            return batch;
+        }
+
+        private boolean init(DataValueDescriptor[] dvds) {
+            int[] ids = new int[dvds.length];
+            BuilderColumn[] cols = new BuilderColumn[dvds.length];
+            for (int i = 0; i < dvds.length; i++) {
+                if (dvds[i] == null)
+                    return false;
+                ids[i] = dvds[i].getTypeFormatId();
+                byte kind = kindOf(ids[i]);
+                if (kind == 0)
+                    return false;
+                cols[i] = new BuilderColumn(kind);
+            }
+            this.formatIds = ids;
+            this.columns = cols;
+            return true;
+        }
+    }
+
+    /**
+     * Returns the rows of the batches received by the {@link StreamListener}, one at a time.
+     *
+     * Rows are decoded into row objects owned by the reader. Since the listener decodes a row ahead of the one it
+     * returns, two of them are used in turn, so a row stays valid until the row after it is returned.
+     */
+    public static class Reader implements Iterator<ExecRow> {
+        private int[] formatIds = new int[0];
+        private ReaderColumn[] columns = new ReaderColumn[0];
+        private final ExecRow[] rows = new ExecRow[2];
+        private byte[][] keys;
+        private int rowCount;
+        private int position;
+        private int current;
+
+        public void reset(ColumnarBatch batch) throws IOException {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(batch.payload));
+            int columnCount = in.readInt();
+            if (columns.length != columnCount)
+                columns = Arrays.copyOf(columns, columnCount);
+            int[] ids = new int[columnCount];
+            for (int i = 0; i < columnCount; i++) {
+                ids[i] = in.readInt();
+                if (columns[i] == null || columns[i].formatId != ids[i])
+                    columns[i] = new ReaderColumn(ids[i]);
+                columns[i].read(in, batch.rowCount);
+            }
+            if (!Arrays.equals(ids, formatIds)) {
+                // new row templates are only needed when the types change, i.e. hardly ever
+                formatIds = ids;
+                rows[0] = template(ids);
+                rows[1] = template(ids);
+            }
+            if (in.readBoolean()) {
+                if (keys == null || keys.length < batch.rowCount)
+                    keys = new byte[batch.rowCount][];
+                for (int i = 0; i < batch.rowCount; i++) {
+                    keys[i] = readBytes(in);
+                }
+            } else if (keys != null) {
+                Arrays.fill(keys, null);
+            }
+            rowCount = batch.rowCount;
+            position = 0;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return position < rowCount;
+        }
+
+        @Override
+        public ExecRow next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            current ^= 1;
+            ExecRow row = rows[current];
+            DataValueDescriptor[] dvds = row.getRowArray();
+            try {
+                for (int i = 0; i < formatIds.length; i++) {
+                    columns[i].set(position, dvds[i]);
+                }
+            } catch (StandardException e) {
+                throw new RuntimeException(e);
+            }
+            row.setKey(keys == null ? null : keys[position]);
+            position++;
+            return row;
+        }
+
+        private static ExecRow template(int[] formatIds) {
+            ExecRow row = new ValueRow(formatIds.length);
+            DataValueDescriptor[] dvds = row.getRowArray();
+            for (int i = 0; i < formatIds.length; i++) {
+                dvds[i] = DataValueFactoryImpl.getNullDVDWithUCS_BASICcollation(formatIds[i]);
+            }
+            return row;
+        }
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper classes and methods*/
+
+    private static class BuilderColumn {
+        private final byte kind;
+        private final BitSet nulls = new BitSet();
+        private long[] longs;
+        private double[] doubles;
+        private int[] codes;
+        private Map<String, Integer> dictionary;
+        private List<String> strings;
+
+        BuilderColumn(byte kind) {
+            this.kind = kind;
+            switch (kind) {
+                case DOUBLE:
+                case REAL:
+                    doubles = new double[16];
+                    break;
+                case STRING:
+                    codes = new int[16];
+                    dictionary = new HashMap<>();
+                    strings = new ArrayList<>();
+                    break;
+                default:
+                    longs = new long[16];
+            }
+        }
+
+        void add(int row, DataValueDescriptor dvd) throws StandardException {
+            if (dvd.isNull()) {
+                nulls.set(row);
+                return;
+            }
+            switch (kind) {
+                case INT:
+                case SMALLINT:
+                case TINYINT:
+                    longs = ensure(longs, row);
+                    longs[row] = dvd.getInt();
+                    break;
+                case LONG:
+                    longs = ensure(longs, row);
+                    longs[row] = dvd.getLong();
+                    break;
+                case BOOLEAN:
+                    longs = ensure(longs, row);
+                    longs[row] = dvd.getBoolean() ? 1 : 0;
+                    break;
+                case DOUBLE:
+                    doubles = ensure(doubles, row);
+                    doubles[row] = dvd.getDouble();
+                    break;
+                case REAL:
+                    doubles = ensure(doubles, row);
+                    doubles[row] = dvd.getFloat();
+                    break;
+                case STRING:
+                    String value = dvd.getString();
+                    Integer code = dictionary.get(value);
+                    if (code == null) {
+                        code = strings.size();
+                        dictionary.put(value, code);
+                        strings.add(value);
+                    }
+                    if (row >= codes.length)
+                        codes = Arrays.copyOf(codes, Math.max(row + 1, codes.length * 2));
+                    codes[row] = code;
+                    break;
+                default:
+                    throw new IllegalStateException("Unexpected column kind " + kind);
+            }
+        }
+
+        void write(DataOutputStream out, int rows) throws IOException {
+            int nullCount = nulls.cardinality();
+            out.writeBoolean(nullCount > 0);
+            if (nullCount > 0)
+                writeBytes(out, nulls.toByteArray());
+            if (kind == STRING) {
+                // a dictionary only pays off if values repeat
+                boolean useDictionary = strings.size() * 2 <= rows - nullCount;
+                out.writeBoolean(useDictionary);
+                if (useDictionary) {
+                    out.writeInt(strings.size());
+                    for (String s : strings) {
+                        writeBytes(out, s.getBytes(StandardCharsets.UTF_8));
+                    }
+                }
+                for (int i = 0; i < rows; i++) {
+                    if (nulls.get(i))
+                        continue;
+                    if (useDictionary)
+                        out.writeInt(codes[i]);
+                    else
+                        writeBytes(out, strings.get(codes[i]).getBytes(StandardCharsets.UTF_8));
+                }
+                return;
+            }
+            for (int i = 0; i < rows; i++) {
+                if (nulls.get(i))
+                    continue;
+                switch (kind) {
+                    case INT:
+                        out.writeInt((int) longs[i]);
+                        break;
+                    case SMALLINT:
+                        out.writeShort((int) longs[i]);
+                        break;
+                    case TINYINT:
+                        out.writeByte((int) longs[i]);
+                        break;
+                    case LONG:
+                        out.writeLong(longs[i]);
+                        break;
+                    case BOOLEAN:
+                        out.writeBoolean(longs[i] != 0);
+                        break;
+                    case DOUBLE:
+                        out.writeDouble(doubles[i]);
+                        break;
+                    case REAL:
+                        out.writeFloat((float) doubles[i]);
+                        break;
+                    default:
+                        throw new IllegalStateException("Unexpected column kind " + kind);
+                }
+            }
+        }
+
+        void clear() {
+            nulls.clear();
+            if (dictionary != null) {
+                dictionary.clear();
+                strings.clear();
+            }
+        }
+    }
+
+    private static class ReaderColumn {
+        private final int formatId;
+        private final byte kind;
+        private final BitSet nulls = new BitSet();
+        private long[] longs;
+        private double[] doubles;
+        private String[] strings;
+
+        ReaderColumn(int formatId) {
+            this.formatId = formatId;
+            this.kind = kindOf(formatId);
+            if (kind == 0)
+                throw new IllegalStateException("Unexpected column type " + formatId);
+        }
+
+        void read(DataInputStream in, int rows) throws IOException {
+            nulls.clear();
+            if (in.readBoolean())
+                nulls.or(BitSet.valueOf(readBytes(in)));
+            if (kind == STRING) {
+                String[] dictionary = null;
+                if (in.readBoolean()) {
+                    dictionary = new String[in.readInt()];
+                    for (int i = 0; i < dictionary.length; i++) {
+                        dictionary[i] = new String(readBytes(in), StandardCharsets.UTF_8);
+                    }
+                }
+                if (strings == null || strings.length < rows)
+                    strings = new String[rows];
+                for (int i = 0; i < rows; i++) {
+                    if (nulls.get(i))
+                        strings[i] = null;
+                    else if (dictionary != null)
+                        strings[i] = dictionary[in.readInt()];
+                    else
+                        strings[i] = new String(readBytes(in), StandardCharsets.UTF_8);
+                }
+                return;
+            }
+            if (kind == DOUBLE || kind == REAL) {
+                if (doubles == null || doubles.length < rows)
+                    doubles = new double[rows];
+            } else if (longs == null || longs.length < rows) {
+                longs = new long[rows];
+            }
+            for (int i = 0; i < rows; i++) {
+                if (nulls.get(i))
+                    continue;
+                switch (kind) {
+                    case INT:
+                        longs[i] = in.readInt();
+                        break;
+                    case SMALLINT:
+                        longs[i] = in.readShort();
+                        break;
+                    case TINYINT:
+                        longs[i] = in.readByte();
+                        break;
+                    case LONG:
+                        longs[i] = in.readLong();
+                        break;
+                    case BOOLEAN:
+                        longs[i] = in.readBoolean() ? 1 : 0;
+                        break;
+                    case DOUBLE:
+                        doubles[i] = in.readDouble();
+                        break;
+                    case REAL:
+                        doubles[i] = in.readFloat();
+                        break;
+                    default:
+                        throw new IllegalStateException("Unexpected column kind " + kind);
+                }
+            }
+        }
+
+        void set(int row, DataValueDescriptor dvd) throws StandardException {
+            if (nulls.get(row)) {
+                dvd.setToNull();
+                return;
+            }
+            switch (kind) {
+                case INT:
+                    dvd.setValue((int) longs[row]);
+                    break;
+                case SMALLINT:
+                    dvd.setValue((short) longs[row]);
+                    break;
+                case TINYINT:
+                    dvd.setValue((byte) longs[row]);
+                    break;
+                case LONG:
+                    dvd.setValue(longs[row]);
+                    break;
+                case BOOLEAN:
+                    dvd.setValue(longs[row] != 0);
+                    break;
+                case DOUBLE:
+                    dvd.setValue(doubles[row]);
+                    break;
+                case REAL:
+                    dvd.setValue((float) doubles[row]);
+                    break;
+                case STRING:
+                    dvd.setValue(strings[row]);
+                    break;
+                default:
+                    throw new IllegalStateException("Unexpected column kind " + kind);
+            }
+        }
+    }
+
+    private static long[] ensure(long[] array, int index) {
+        return index < array.length ? array : Arrays.copyOf(array, Math.max(index + 1, array.length * 2));
+    }
+
+    private static double[] ensure(double[] array, int index) {
+        return index < array.length ? array : Arrays.copyOf(array, Math.max(index + 1, array.length * 2));
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        if (bytes == null) {
+            out.writeInt(-1);
+        } else {
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0)
+            return null;
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+}
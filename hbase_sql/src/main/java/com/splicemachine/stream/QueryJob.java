@@ -158,6 +158,7 @@ public class QueryJob implements Callable<Void>{
                         queryRequest.streamingBatches, queryRequest.streamingBatchSize,
                     queryRequest.parallelPartitions, queryRequest.partitionExecutorThreads);
                 streamableRDD.setJobStatus(status);
+                streamableRDD.setColumnar(queryRequest.columnarStreaming);
                 streamableRDD.submit();
 
                 status.markCompleted(new QueryResult(numPartitions));
@@ -123,11 +123,13 @@ public class RemoteQueryClientImpl implements RemoteQueryClient {
                     .getProperty(SessionProperties.PROPERTYNAME.OLAPSHUFFLEPARTITIONS);
             String opUuid = root.getUuid() != null ? "," + root.getUuid().toString() : "";
             String session = hostname + ":" + localPort + "," + sessionNumber + opUuid;
+            String tenant = chooseTenant(activation, userId, config);
 
             RemoteQueryJob jobRequest = new RemoteQueryJob(ah, root.getResultSetNumber(),
-                    streamListenerUuid, host, port, session, userId, sql,
+                    streamListenerUuid, host, port, session, userId, tenant, sql,
                     streamingBatches, streamingBatchSize, parallelPartitions,
-                    shufflePartitionsProperty, runningOperationUUID, config.getSparkResultStreamingThreads());
+                    shufflePartitionsProperty, runningOperationUUID, config.getSparkResultStreamingThreads(),
+                    config.getSparkResultStreamingColumnarEnabled() && !hasLOBs);
 
             String requestedQueue = (String) lcc.getSessionProperties().getProperty(SessionProperties.PROPERTYNAME.OLAPQUEUE);
             String queue = chooseQueue(activation, requestedQueue, config.getOlapServerIsolatedRoles());
@@ -244,6 +246,25 @@ public class RemoteQueryClientImpl implements RemoteQueryClient {
         return SIConstants.OLAP_DEFAULT_QUEUE_NAME;
     }
 
+    /**
+     * The tenant the OLAP server schedules the query for: the first of the user's current roles which has a weight
+     * or a limit of its own, or else the user.
+     */
+    private String chooseTenant(Activation activation, String userId, SConfiguration config) throws StandardException {
+        Map<String, Integer> weights = config.getOlapSchedulerTenantWeights();
+        Map<String, Integer> limits = config.getOlapSchedulerTenantLimits();
+        if (weights.isEmpty() && limits.isEmpty())
+            return userId;
+        List<String> roles = activation.getLanguageConnectionContext().getCurrentRoles(activation);
+        if (roles != null) {
+            for (String role : roles) {
+                if (weights.containsKey(role) || limits.containsKey(role))
+                    return role;
+            }
+        }
+        return userId;
+    }
+
     private void updateLimitOffset() throws StandardException {
         if (root instanceof ScrollInsensitiveOperation
                 || root instanceof AnyOperation
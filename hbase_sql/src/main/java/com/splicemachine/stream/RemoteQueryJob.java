@@ -37,6 +37,7 @@ public class RemoteQueryJob extends DistributedJob implements Serializable {
     int port;
     String session;
     String userId;
+    String tenant;
     String sql;
     int streamingBatches;
     int streamingBatchSize;
@@ -44,13 +45,14 @@ public class RemoteQueryJob extends DistributedJob implements Serializable {
     Integer shufflePartitions;
     transient RunningOperation runningOperation = null;
     int partitionExecutorThreads;
+    boolean columnarStreaming;
 
 
     public RemoteQueryJob(ActivationHolder ah, int rootResultSetNumber, UUID uuid, String host, int port,
-                          String session, String userId, String sql,
+                          String session, String userId, String tenant, String sql,
                           int streamingBatches, int streamingBatchSize, int parallelPartitions,
                           Integer shufflePartitionsProperty, UUID runningOperationUUID,
-                          int partitionExecutorThreads) {
+                          int partitionExecutorThreads, boolean columnarStreaming) {
         this.ah = ah;
         this.rootResultSetNumber = rootResultSetNumber;
         this.uuid = uuid;
@@ -58,6 +60,7 @@ public class RemoteQueryJob extends DistributedJob implements Serializable {
         this.port = port;
         this.session = session;
         this.userId = userId;
+        this.tenant = tenant;
         this.sql = sql;
         this.streamingBatches = streamingBatches;
         this.streamingBatchSize = streamingBatchSize;
@@ -65,6 +68,7 @@ public class RemoteQueryJob extends DistributedJob implements Serializable {
         this.shufflePartitions = shufflePartitionsProperty;
 
         this.partitionExecutorThreads = partitionExecutorThreads;
+        this.columnarStreaming = columnarStreaming;
         RunningOperation runningOperation = null;
         if( runningOperationUUID != null )
             runningOperation = EngineDriver.driver().getOperationManager().getRunningOperation(runningOperationUUID);
@@ -81,6 +85,11 @@ public class RemoteQueryJob extends DistributedJob implements Serializable {
         return "query-"+uuid;
     }
 
+    @Override
+    public String getTenant() {
+        return tenant;
+    }
+
     @Override
     public void notify(String str) {
         if( runningOperation != null )
@@ -16,6 +16,7 @@ package com.splicemachine.stream;
 
 
 import splice.com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.splicemachine.db.iapi.error.StandardException;
 import com.splicemachine.derby.stream.ActivationHolder;
 import com.splicemachine.derby.stream.iapi.OperationContext;
 import com.splicemachine.stream.handlers.OpenHandler;
@@ -60,6 +61,7 @@ public class ResultStreamer<T> extends ChannelInboundHandlerAdapter implements F
     private transient NioEventLoopGroup workerGroup;
     private transient CountDownLatch active;
     private int batches;
+    private boolean columnar;
     private volatile TaskContext taskContext;
 
     // Serialization
@@ -67,6 +69,14 @@ public class ResultStreamer<T> extends ChannelInboundHandlerAdapter implements F
     }
 
     public ResultStreamer(OperationContext<?> context, UUID uuid, String host, int port, int numPartitions, int batches, int batchSize) {
+        this(context, uuid, host, port, numPartitions, batches, batchSize, false);
+    }
+
+    /**
+     * @param columnar whether rows may be sent in {@link ColumnarBatch columnar batches} of {@code batchSize} rows
+     */
+    public ResultStreamer(OperationContext<?> context, UUID uuid, String host, int port, int numPartitions, int batches, int batchSize,
+                          boolean columnar) {
         this.context = context;
         this.uuid = uuid;
         this.host = host;
@@ -74,6 +84,7 @@ public class ResultStreamer<T> extends ChannelInboundHandlerAdapter implements F
         this.numPartitions = numPartitions;
         this.batches = batches;
         this.batchSize = batchSize;
+        this.columnar = columnar;
         this.permits = new Semaphore(batches - 1); // we start with one permit taken
     }
 
@@ -87,9 +98,10 @@ public class ResultStreamer<T> extends ChannelInboundHandlerAdapter implements F
             private long consumed;
             private long sent;
             private int currentBatch;
+            private ColumnarBatch.Builder batch = columnar ? new ColumnarBatch.Builder() : null;
 
             @Override
-            public Long call() throws InterruptedException {
+            public Long call() throws Exception {
                 org.apache.spark.TaskContext$.MODULE$.setTaskContext(taskContext);
                 boolean prepared = false;
                 ActivationHolder ah = null;
@@ -104,7 +116,7 @@ public class ResultStreamer<T> extends ChannelInboundHandlerAdapter implements F
                         consumed++;
 
 
-                        ctx.write(lr, ctx.voidPromise());
+                        write(lr);
                         currentBatch++;
                         sent++;
 
@@ -117,6 +129,7 @@ public class ResultStreamer<T> extends ChannelInboundHandlerAdapter implements F
                         consumeOffset();
                     }
                     // Data has been written, request close
+                    writeBatch();
                     ctx.writeAndFlush(new StreamProtocol.RequestClose());
 
                     return consumed;
@@ -126,12 +139,35 @@ public class ResultStreamer<T> extends ChannelInboundHandlerAdapter implements F
                 }
             }
 
+            /**
+             * Add the row to the columnar batch being built, or write it on its own if it can't be batched. Once a row
+             * can't be batched, the rest of the partition is written row by row.
+             */
+            private void write(T row) throws IOException, StandardException {
+                if (batch != null) {
+                    if (batch.add(row))
+                        return;
+                    writeBatch();
+                    batch = null;
+                }
+                ctx.write(row, ctx.voidPromise());
+            }
+
+            /**
+             * Write the rows batched so far, which have to reach the client ahead of any message that follows them
+             */
+            private void writeBatch() throws IOException {
+                if (batch != null && !batch.isEmpty())
+                    ctx.write(batch.build(), ctx.voidPromise());
+            }
+
             /**
              * If the current batch exceeds the batch size, flush the connection and take a new permit, blocking if the client
              * hasn't had time yet to process previous messages
              */
-            private void flushAndGetPermit() throws InterruptedException {
+            private void flushAndGetPermit() throws InterruptedException, IOException {
                 if (currentBatch >= batchSize) {
+                    writeBatch();
                     ctx.flush();
                     currentBatch = 0;
                     permits.acquire();
@@ -144,8 +180,9 @@ public class ResultStreamer<T> extends ChannelInboundHandlerAdapter implements F
              * If the client hast told us to ignore up to 'offset' messages, consume them here. The client request can
              * arrive after we've already sent some messages.
              */
-            private void consumeOffset() {
+            private void consumeOffset() throws IOException {
                 if (consumed < offset) {
+                    writeBatch();
                     long count = 0;
                     while (locatedRowIterator.hasNext() && consumed < offset) {
                         locatedRowIterator.next();
@@ -160,8 +197,9 @@ public class ResultStreamer<T> extends ChannelInboundHandlerAdapter implements F
              * If the client told us to send no more than 'limit' messages, check it here
              * @return true if there's a limit and we reached it, false otherwise
              */
-            private boolean checkLimit() {
+            private boolean checkLimit() throws IOException {
                 if (consumed > limit) {
+                    writeBatch();
                     ctx.flush();
                     if (LOG.isTraceEnabled())
                         LOG.trace("Reached limit, stopping. consumed " + consumed + " sent " + sent + " limit " + limit);
@@ -257,6 +295,7 @@ public class ResultStreamer<T> extends ChannelInboundHandlerAdapter implements F
                 ", limit=" + limit +
                 ", partition=" + partition +
                 ", batches=" + batches +
+                ", columnar=" + columnar +
                 '}';
     }
 
@@ -271,6 +310,7 @@ public class ResultStreamer<T> extends ChannelInboundHandlerAdapter implements F
         out.writeInt(numPartitions);
         out.writeInt(batches);
         out.writeInt(batchSize);
+        out.writeBoolean(columnar);
         out.writeObject(permits); // WTF is this?
     }
 
@@ -283,6 +323,7 @@ public class ResultStreamer<T> extends ChannelInboundHandlerAdapter implements F
         numPartitions = in.readInt();
         batches = in.readInt();
         batchSize = in.readInt();
+        columnar = in.readBoolean();
         permits = (Semaphore) in.readObject();
     }
 }
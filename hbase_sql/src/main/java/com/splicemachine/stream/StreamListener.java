@@ -22,6 +22,7 @@ import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
 import org.apache.log4j.Logger;
 
+import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
@@ -63,6 +64,8 @@ public class StreamListener<T> extends ChannelInboundHandlerAdapter implements I
     private Channel olapChannel;
     private volatile boolean paused = false;
     private boolean throttleEnabled;
+    // rows of the columnar batch being returned, if any
+    private final ColumnarBatch.Reader batchReader = new ColumnarBatch.Reader();
 
     StreamListener() {
         this(-1, 0);
@@ -176,8 +179,14 @@ public class StreamListener<T> extends ChannelInboundHandlerAdapter implements I
         try {
             while (next == null) {
                 PartitionState state = partitionStateMap.get(currentQueue);
-                // We take a message first to make sure we have a connection
-                Object msg = canBlock ? state.messages.take() : state.messages.remove();
+                Object msg;
+                if (!stopped && batchReader.hasNext()) {
+                    // Rows of a batch are handled as if they had been received one by one
+                    msg = batchReader.next();
+                } else {
+                    // We take a message first to make sure we have a connection
+                    msg = canBlock ? state.messages.take() : state.messages.remove();
+                }
                 if (msg == FAILURE) {
                     // The olap job failed, return right away
                     currentResult = null;
@@ -191,7 +200,9 @@ public class StreamListener<T> extends ChannelInboundHandlerAdapter implements I
                     state.channel.writeAndFlush(new StreamProtocol.Skip(serverLimit, offset));
                 }
                 state.initialized = true;
-                if (msg == RETRY) {
+                if (msg instanceof ColumnarBatch) {
+                    batchReader.reset((ColumnarBatch) msg);
+                } else if (msg == RETRY) {
                     // There was a retried task
                     long currentRead = state.readTotal;
                     long currentOffset = offset + currentRead;
@@ -264,7 +275,7 @@ public class StreamListener<T> extends ChannelInboundHandlerAdapter implements I
                 }
             }
             currentResult = next;
-        } catch (InterruptedException e) {
+        } catch (InterruptedException | IOException e) {
             throw new RuntimeException(e);
         }
     }
@@ -65,6 +65,7 @@ public class StreamableRDD<T> {
     private OlapStatus jobStatus;
     private OlapStreamListener olapStreamListener;
     private final int streamerThreads;
+    private boolean columnar;
 
 
     /**
@@ -106,7 +107,7 @@ public class StreamableRDD<T> {
         Exception error = null;
         olapStreamListener.createChannelToStreamListener();
         try {
-            final JavaRDD<String> streamed = rdd.mapPartitionsWithIndex(new ResultStreamer(context, uuid, host, port, rdd.getNumPartitions(), clientBatches, clientBatchSize), true);
+            final JavaRDD<String> streamed = rdd.mapPartitionsWithIndex(new ResultStreamer(context, uuid, host, port, rdd.getNumPartitions(), clientBatches, clientBatchSize, columnar), true);
             int numPartitions = streamed.getNumPartitions();
             int partitionsBatchSize = (int) ceil((float)parallelPartitions / streamerThreads);
             int partitionBatches = (int) ceil((float)numPartitions / partitionsBatchSize);
@@ -225,4 +226,11 @@ public class StreamableRDD<T> {
     public void setJobStatus(OlapStatus jobStatus) {
         this.jobStatus = jobStatus;
     }
+
+    /**
+     * @param columnar whether the client accepts results in {@link ColumnarBatch columnar batches}
+     */
+    public void setColumnar(boolean columnar) {
+        this.columnar = columnar;
+    }
 }
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.hbase;
+
+import com.splicemachine.db.iapi.sql.execute.ExecAggregator;
+import com.splicemachine.db.iapi.sql.execute.ExecRow;
+import com.splicemachine.db.iapi.types.DataValueDescriptor;
+import com.splicemachine.db.iapi.types.SQLInteger;
+import com.splicemachine.db.iapi.types.SQLLongint;
+import com.splicemachine.db.iapi.types.UserType;
+import com.splicemachine.db.impl.sql.execute.CountAggregator;
+import com.splicemachine.db.impl.sql.execute.ValueRow;
+import com.splicemachine.derby.impl.sql.execute.operations.framework.SpliceGenericAggregator;
+import com.splicemachine.derby.impl.sql.execute.operations.scanner.SITableScanner;
+import com.splicemachine.derby.impl.sql.execute.operations.scanner.ScanAggregation;
+import com.splicemachine.primitives.Bytes;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.regionserver.RegionScanner;
+import org.apache.hadoop.hbase.regionserver.ScannerContext;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AggregatingRegionScannerTest {
+    /* the source row of the aggregate: COUNT(*) as (result, input, aggregator) */
+    private static final int COUNT_AGGREGATOR = 3;
+
+    @Test
+    public void returnsTheRowsOfTheRegionAsOnePartialRow() throws Exception {
+        AggregatingRegionScanner scanner = scanner(mock(RegionScanner.class), 10);
+        List<Cell> cells = new ArrayList<>();
+        Assert.assertFalse("The region should be exhausted", scanner.nextRaw(cells));
+        Assert.assertEquals(1, cells.size());
+        Cell cell = cells.get(0);
+        Assert.assertArrayEquals("Partial rows should carry the key of the last row", Bytes.toBytes(9), CellUtil.cloneRow(cell));
+        Assert.assertArrayEquals(ScanAggregation.PARTIAL_COLUMN, CellUtil.cloneQualifier(cell));
+        Assert.assertEquals(10L, count(cell));
+
+        cells.clear();
+        Assert.assertFalse(scanner.nextRaw(cells));
+        Assert.assertTrue(cells.isEmpty());
+    }
+
+    @Test
+    public void returnsOnceTheScanRunsOutOfTime() throws Exception {
+        AggregatingRegionScanner scanner = scanner(mock(RegionScanner.class), 3000);
+        // a time limit long past, as the region server sets when the client should hear from the scan
+        ScannerContext expired = ScannerContext.newBuilder().setTimeLimit(ScannerContext.LimitScope.BETWEEN_ROWS, 1L).build();
+        List<Cell> cells = new ArrayList<>();
+        long count = 0;
+        int calls = 0;
+        boolean more = true;
+        while (more) {
+            cells.clear();
+            more = scanner.nextRaw(cells, expired);
+            calls++;
+            for (Cell cell : cells)
+                count += count(cell);
+        }
+        Assert.assertTrue("The scan should have returned before the region was exhausted", calls > 1);
+        Assert.assertEquals("No row should be missed or repeated", 3000L, count);
+    }
+
+    @Test
+    public void reseeksTheRegion() throws Exception {
+        RegionScanner delegate = mock(RegionScanner.class);
+        byte[] row = Bytes.toBytes(5);
+        when(delegate.reseek(row)).thenReturn(true);
+        Assert.assertTrue(scanner(delegate, 10).reseek(row));
+        verify(delegate).reseek(row);
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+
+    /* a scanner aggregating COUNT(*) over a region of {@code rows} rows, keyed 0 to rows - 1 */
+    private static AggregatingRegionScanner scanner(RegionScanner delegate, int rows) throws Exception {
+        ExecRow template = new ValueRow(new DataValueDescriptor[]{
+                new SQLLongint(), new SQLInteger(), new UserType()});
+        ExecAggregator count = new CountAggregator().setup(null, "COUNT(*)", null);
+        SpliceGenericAggregator[] aggregators = new SpliceGenericAggregator[]{
+                new SpliceGenericAggregator(count, COUNT_AGGREGATOR, 2, 1)};
+        ScanAggregation aggregation = new ScanAggregation(template, new int[0], new int[0], aggregators,
+                new int[]{0}, Integer.MAX_VALUE);
+
+        SITableScanner regionRows = mock(SITableScanner.class);
+        int[] next = {0};
+        when(regionRows.next()).thenAnswer(invocation -> {
+            if (next[0] >= rows)
+                return null;
+            ExecRow row = new ValueRow(new DataValueDescriptor[]{new SQLInteger(next[0])});
+            row.setKey(Bytes.toBytes(next[0]++));
+            return row;
+        });
+        return new AggregatingRegionScanner(delegate, regionRows, aggregation.newAccumulator());
+    }
+
+    private static long count(Cell cell) throws Exception {
+        long count = 0;
+        for (ExecRow row : ScanAggregation.decodePartialRows(CellUtil.cloneValue(cell)))
+            count += ((ExecAggregator) row.getColumn(COUNT_AGGREGATOR).getObject()).getResult().getLong();
+        return count;
+    }
+}
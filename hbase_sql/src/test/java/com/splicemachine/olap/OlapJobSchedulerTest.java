@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.olap;
+
+import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.derby.iapi.sql.olap.OlapResult;
+import com.splicemachine.derby.iapi.sql.olap.OlapStatus;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class OlapJobSchedulerTest {
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool();
+
+    private final List<String> started = Collections.synchronizedList(new ArrayList<>());
+
+    @AfterClass
+    public static void shutdown() {
+        EXECUTOR.shutdownNow();
+    }
+
+    @Test
+    public void sharesTheServerByWeight() throws Exception {
+        Map<String, Integer> weights = new HashMap<>();
+        weights.put("A", 2);
+        OlapJobScheduler scheduler = new OlapJobScheduler(EXECUTOR, 3, weights, null, 0, 0L);
+        CountDownLatch blockers = new CountDownLatch(1);
+        for (int i = 0; i < 3; i++)
+            submit(scheduler, "X", blockers);
+        CountDownLatch jobs = new CountDownLatch(1);
+        for (int i = 0; i < 6; i++)
+            submit(scheduler, "A", jobs);
+        for (int i = 0; i < 6; i++)
+            submit(scheduler, "B", jobs);
+        Assert.assertEquals(3, scheduler.getRunningJobs());
+        Assert.assertEquals(12, scheduler.getQueuedJobs());
+
+        blockers.countDown();
+        awaitStarted(6);
+        Assert.assertEquals("A should get twice the share of B", 2, Collections.frequency(started, "A"));
+        Assert.assertEquals(1, Collections.frequency(started, "B"));
+        jobs.countDown();
+        awaitStarted(15);
+    }
+
+    @Test
+    public void limitsTheJobsOfATenant() throws Exception {
+        Map<String, Integer> limits = new HashMap<>();
+        limits.put("A", 1);
+        OlapJobScheduler scheduler = new OlapJobScheduler(EXECUTOR, 0, null, limits, 0, 0L);
+        CountDownLatch jobs = new CountDownLatch(1);
+        List<OlapJobStatus> statuses = new ArrayList<>();
+        for (int i = 0; i < 3; i++)
+            statuses.add(submit(scheduler, "A", jobs));
+        submit(scheduler, "B", jobs);
+        awaitStarted(2);
+        Assert.assertEquals(2, scheduler.getRunningJobs());
+        Assert.assertEquals(2, scheduler.getQueuedJobs());
+        Assert.assertTrue("Queued jobs should report their wait", statuses.get(2).getQueueWaitMillis() >= 0);
+
+        jobs.countDown();
+        awaitStarted(4);
+    }
+
+    @Test
+    public void failsJobsWaitingPastTheQueueTimeout() throws Exception {
+        OlapJobScheduler scheduler = new OlapJobScheduler(EXECUTOR, 1, null, null, 0, 50L);
+        CountDownLatch blocker = new CountDownLatch(1);
+        submit(scheduler, "A", blocker);
+        OlapJobStatus queued = submit(scheduler, "B", new CountDownLatch(0));
+        for (int i = 0; i < 100 && queued.checkState() != OlapStatus.State.COMPLETE; i++)
+            Thread.sleep(20);
+        Assert.assertEquals(OlapStatus.State.COMPLETE, queued.checkState());
+        OlapResult result = queued.getResult();
+        Assert.assertFalse(result.isSuccess());
+        Assert.assertTrue(result.getThrowable() instanceof StandardException);
+        Assert.assertTrue(queued.getQueueWaitMillis() >= 50L);
+        Assert.assertEquals(0, scheduler.getQueuedJobs());
+
+        blocker.countDown();
+        Thread.sleep(50);
+        Assert.assertEquals("The timed out job should never run", 1, started.size());
+    }
+
+    @Test
+    public void dropsCancelledJobs() throws Exception {
+        OlapJobScheduler scheduler = new OlapJobScheduler(EXECUTOR, 1, null, null, 0, 0L);
+        CountDownLatch blocker = new CountDownLatch(1);
+        submit(scheduler, "A", blocker);
+        submit(scheduler, "B", new CountDownLatch(0)).cancel();
+        submit(scheduler, "C", new CountDownLatch(0));
+        blocker.countDown();
+        awaitStarted(2);
+        Thread.sleep(50);
+        Assert.assertEquals(2, started.size());
+        Assert.assertFalse(started.contains("B"));
+    }
+
+    @Test
+    public void runsSystemJobsRightAway() throws Exception {
+        OlapJobScheduler scheduler = new OlapJobScheduler(EXECUTOR, 1, null, null, 0, 0L);
+        CountDownLatch blocker = new CountDownLatch(1);
+        submit(scheduler, "A", blocker);
+        OlapJobStatus system = submit(scheduler, null, new CountDownLatch(0));
+        awaitStarted(2);
+        Assert.assertEquals(0L, system.getQueueWaitMillis());
+        blocker.countDown();
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+
+    private OlapJobStatus submit(OlapJobScheduler scheduler, String tenant, CountDownLatch release) {
+        OlapJobStatus status = new OlapJobStatus(1000L, 10);
+        Assert.assertTrue(status.markSubmitted());
+        scheduler.submit(tenant, status, () -> {
+            started.add(String.valueOf(tenant));
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        return status;
+    }
+
+    private void awaitStarted(int count) throws InterruptedException {
+        for (int i = 0; i < 100 && started.size() < count; i++)
+            Thread.sleep(20);
+        Assert.assertEquals(count, started.size());
+    }
+}
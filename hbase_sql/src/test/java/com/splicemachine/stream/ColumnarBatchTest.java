@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.stream;
+
+import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.db.iapi.sql.execute.ExecRow;
+import com.splicemachine.db.iapi.types.*;
+import com.splicemachine.db.impl.sql.execute.ValueRow;
+import org.junit.Test;
+
+import java.io.*;
+import java.math.BigDecimal;
+
+import static org.junit.Assert.*;
+
+public class ColumnarBatchTest {
+
+    @Test
+    public void roundTripsValuesNullsAndKeys() throws Exception {
+        ColumnarBatch.Builder builder = new ColumnarBatch.Builder();
+        for (int i = 0; i < 100; i++) {
+            assertTrue(builder.add(row(i)));
+        }
+        ColumnarBatch batch = serialize(builder.build());
+        assertEquals(100, batch.size());
+        assertTrue("The builder should be empty once built", builder.isEmpty());
+
+        ColumnarBatch.Reader reader = new ColumnarBatch.Reader();
+        reader.reset(batch);
+        for (int i = 0; i < 100; i++) {
+            assertTrue(reader.hasNext());
+            assertRow(i, reader.next());
+        }
+        assertFalse(reader.hasNext());
+    }
+
+    @Test
+    public void encodesRepeatedStringsOnce() throws Exception {
+        ColumnarBatch.Builder builder = new ColumnarBatch.Builder();
+        for (int i = 0; i < 1000; i++) {
+            builder.add(new ValueRow(new DataValueDescriptor[]{new SQLVarchar("a repeated string value " + (i % 4))}));
+        }
+        ColumnarBatch repeated = serialize(builder.build());
+        for (int i = 0; i < 1000; i++) {
+            builder.add(new ValueRow(new DataValueDescriptor[]{new SQLVarchar("a distinct string value " + i)}));
+        }
+        ColumnarBatch distinct = serialize(builder.build());
+        assertTrue("Repeated strings should be dictionary encoded", size(repeated) * 4 < size(distinct));
+
+        ColumnarBatch.Reader reader = new ColumnarBatch.Reader();
+        reader.reset(repeated);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("a repeated string value " + (i % 4), reader.next().getColumn(1).getString());
+        }
+        reader.reset(distinct);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("a distinct string value " + i, reader.next().getColumn(1).getString());
+        }
+    }
+
+    @Test
+    public void reusesTwoRowsInTurn() throws Exception {
+        ColumnarBatch.Builder builder = new ColumnarBatch.Builder();
+        for (int i = 0; i < 10; i++) {
+            builder.add(row(i));
+        }
+        ColumnarBatch.Reader reader = new ColumnarBatch.Reader();
+        reader.reset(serialize(builder.build()));
+        ExecRow first = reader.next();
+        ExecRow second = reader.next();
+        assertNotSame(first, second);
+        assertRow(0, first);
+        assertSame(first, reader.next());
+
+        for (int i = 0; i < 10; i++) {
+            builder.add(row(i));
+        }
+        reader.reset(serialize(builder.build()));
+        ExecRow next = reader.next();
+        assertTrue("Rows should be reused across batches", next == first || next == second);
+    }
+
+    @Test
+    public void rejectsRowsItCannotCarry() throws Exception {
+        ColumnarBatch.Builder builder = new ColumnarBatch.Builder();
+        assertFalse("Decimals are sent row by row",
+                builder.add(new ValueRow(new DataValueDescriptor[]{new SQLDecimal(BigDecimal.ONE)})));
+        assertTrue(builder.isEmpty());
+
+        builder = new ColumnarBatch.Builder();
+        assertTrue(builder.add(row(0)));
+        ValueRow other = new ValueRow(new DataValueDescriptor[]{new SQLLongint(1), new SQLVarchar("x")});
+        assertFalse("Rows of a batch should have the same types", builder.add(other));
+        ExecRow withBaseRow = row(1);
+        withBaseRow.setBaseRowCols(new DataValueDescriptor[]{new SQLInteger(1)});
+        assertFalse("Rows with base row columns are sent row by row", builder.add(withBaseRow));
+        assertEquals(1, serialize(builder.build()).size());
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+
+    private static ExecRow row(int i) throws StandardException {
+        ValueRow row = new ValueRow(new DataValueDescriptor[]{
+                i % 7 == 0 ? new SQLInteger() : new SQLInteger(i),
+                new SQLLongint((long) i << 33),
+                new SQLDouble(i / 4.0),
+                i % 5 == 0 ? new SQLVarchar() : new SQLVarchar("value " + (i % 3)),
+                new SQLBoolean(i % 2 == 0),
+                new SQLSmallint(i),
+                new SQLReal(i / 2.0f)
+        });
+        if (i % 3 != 0)
+            row.setKey(new byte[]{(byte) i, 1});
+        return row;
+    }
+
+    private static void assertRow(int i, ExecRow row) throws StandardException {
+        DataValueDescriptor[] dvds = row.getRowArray();
+        if (i % 7 == 0)
+            assertTrue(dvds[0].isNull());
+        else
+            assertEquals(i, dvds[0].getInt());
+        assertEquals((long) i << 33, dvds[1].getLong());
+        assertEquals(i / 4.0, dvds[2].getDouble(), 0.0);
+        if (i % 5 == 0)
+            assertTrue(dvds[3].isNull());
+        else
+            assertEquals("value " + (i % 3), dvds[3].getString());
+        assertEquals(i % 2 == 0, dvds[4].getBoolean());
+        assertEquals(i, dvds[5].getShort());
+        assertEquals(i / 2.0f, dvds[6].getFloat(), 0.0f);
+        if (i % 3 != 0)
+            assertArrayEquals(new byte[]{(byte) i, 1}, row.getKey());
+        else
+            assertNull(row.getKey());
+    }
+
+    private static ColumnarBatch serialize(ColumnarBatch batch) throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            batch.writeExternal(out);
+        }
+        ColumnarBatch read = new ColumnarBatch();
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            read.readExternal(in);
+        }
+        return read;
+    }
+
+    private static int size(ColumnarBatch batch) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            batch.writeExternal(out);
+        }
+        return bytes.size();
+    }
+}
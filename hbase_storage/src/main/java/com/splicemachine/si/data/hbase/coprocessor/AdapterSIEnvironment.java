@@ -45,6 +45,7 @@ import com.splicemachine.si.impl.SimpleTxnOperationFactory;
 import com.splicemachine.si.impl.TxnNetworkLayerFactory;
 import com.splicemachine.si.impl.driver.SIDriver;
 import com.splicemachine.si.impl.driver.SIEnvironment;
+import com.splicemachine.si.impl.hlc.HLCTimestampSource;
 import com.splicemachine.si.impl.readresolve.SynchronousReadResolver;
 import com.splicemachine.si.impl.rollforward.NoopRollForward;
 import com.splicemachine.si.impl.store.CompletedTxnCacheSupplier;
@@ -149,7 +150,7 @@ public class AdapterSIEnvironment implements SIEnvironment{
         ByteComparisons.setComparator(HBaseComparator.INSTANCE);
         this.config=HConfiguration.getConfiguration();
 
-        this.timestampSource =new ZkTimestampSource(config,rzk);
+        this.timestampSource = HLCTimestampSource.select(config,new ZkTimestampSource(config,rzk));
         this.partitionCache = PartitionCacheService.loadPartitionCache(config);
         this.partitionFactory = new AdapterTableFactory(connectionPool);
         this.partitionFactory.initialize(clock, this.config, partitionCache);
@@ -55,6 +55,7 @@ import com.splicemachine.si.impl.SimpleTxnOperationFactory;
 import com.splicemachine.si.impl.TxnNetworkLayerFactory;
 import com.splicemachine.si.impl.driver.SIDriver;
 import com.splicemachine.si.impl.driver.SIEnvironment;
+import com.splicemachine.si.impl.hlc.HLCTimestampSource;
 import com.splicemachine.si.impl.readresolve.SynchronousReadResolver;
 import com.splicemachine.si.impl.store.CompletedTxnCacheSupplier;
 import com.splicemachine.storage.DataFilterFactory;
@@ -148,7 +149,7 @@ public class HBaseSIEnvironment implements SIEnvironment{
         ByteComparisons.setComparator(HBaseComparator.INSTANCE);
         this.config=HConfiguration.getConfiguration();
 
-        this.timestampSource = new ZkTimestampSource(config,rzk);
+        this.timestampSource = HLCTimestampSource.select(config,new ZkTimestampSource(config,rzk));
         this.partitionCache = PartitionCacheService.loadPartitionCache(config);
         this.partitionFactory = TableFactoryService.loadTableFactory(clock, this.config,partitionCache);
         this.oldestActiveTransactionTaskFactory = new HOldestActiveTransactionTaskFactory();
@@ -94,6 +94,7 @@ public class SIObserver implements RegionObserver, Coprocessor, RegionCoprocesso
     protected TxnOperationFactory txnOperationFactory;
     protected OperationStatusFactory operationStatusFactory;
     protected TransactionalRegion region;
+    private PartitionKeySampler keySampler;
     protected TableAuthManager authManager = null;
     protected boolean authTokenEnabled;
     protected Optional<RegionObserver> optionalRegionObserver = Optional.empty();
@@ -167,6 +168,8 @@ public class SIObserver implements RegionObserver, Coprocessor, RegionCoprocesso
                         driver.getOperationFactory()
                 );
                 Tracer.traceRegion(region.getTableName(), rce.getRegion());
+                if(driver.getConfiguration().getSplitAdvisorInterval()>0)
+                    keySampler = PartitionKeySampler.register(regionPartition);
             }
 
             ZKWatcher zk = ((RegionServerServices)((RegionCoprocessorEnvironment)e).getOnlineRegions()).getZooKeeper();
@@ -183,6 +186,8 @@ public class SIObserver implements RegionObserver, Coprocessor, RegionCoprocesso
         try {
             SpliceLogUtils.trace(LOG,"stopping %s",SIObserver.class);
             optionalRegionObserver = Optional.empty();
+            if(keySampler!=null)
+                PartitionKeySampler.deregister(keySampler.getPartition());
         } catch (Throwable t) {
             throw CoprocessorUtils.getIOException(t);
         }
@@ -198,6 +203,8 @@ public class SIObserver implements RegionObserver, Coprocessor, RegionCoprocesso
                 assert (scan.getMaxVersions()==Integer.MAX_VALUE);
                 addSIFilterToScan(scan);
             }
+            if(keySampler!=null)
+                keySampler.recordRead(scan.getStartRow());
             if (tableEnvMatch && hasToken(scan)) {
                 aclCheck(scan);
             } else {
@@ -461,6 +468,8 @@ public class SIObserver implements RegionObserver, Coprocessor, RegionCoprocesso
                 assert (get.getMaxVersions()==Integer.MAX_VALUE);
                 addSIFilterToGet(get);
             }
+            if(keySampler!=null)
+                keySampler.recordRead(get.getRow());
             if(tableEnvMatch && shouldReadAllVersions(get)) {
                 get.setMaxVersions();
                 get.setTimeRange(0L,Long.MAX_VALUE);
@@ -29,6 +29,7 @@ import com.splicemachine.si.api.txn.lifecycle.TxnPartition;
 import com.splicemachine.si.coprocessor.TxnMessage;
 import com.splicemachine.si.impl.data.StripedTxnLifecycleStore;
 import com.splicemachine.si.impl.driver.SIDriver;
+import com.splicemachine.si.impl.hlc.HLCTimestampSource;
 import com.splicemachine.si.impl.region.RegionServerControl;
 import com.splicemachine.si.impl.region.RegionTxnStore;
 import com.splicemachine.si.impl.region.TransactionResolver;
@@ -140,6 +141,8 @@ public class TxnLifecycleEndpoint extends TxnMessage.TxnLifecycleService impleme
             return;
         }
         try (RpcUtils.RootEnv env = RpcUtils.getRootEnv()) {
+            if(request.hasObservedTs())
+                HLCTimestampSource.observe(request.getObservedTs());
             lifecycleStore.elevateTransaction(request.getTxnId(),request.getNewDestinationTable().toByteArray());
             done.run(TxnMessage.VoidResponse.getDefaultInstance());
         }catch(IOException ioe){
@@ -156,6 +159,8 @@ public class TxnLifecycleEndpoint extends TxnMessage.TxnLifecycleService impleme
     @SuppressFBWarnings(value = "SF_SWITCH_NO_DEFAULT",justification = "Intentional")
     public void lifecycleAction(RpcController controller,TxnMessage.TxnLifecycleMessage request,RpcCallback<TxnMessage.ActionResponse> done){
         try (RpcUtils.RootEnv env = RpcUtils.getRootEnv()) {
+            if(request.hasObservedTs())
+                HLCTimestampSource.observe(request.getObservedTs());
             TxnMessage.ActionResponse response=null;
             switch(request.getAction()){
                 case COMMIT:
@@ -187,6 +192,8 @@ public class TxnLifecycleEndpoint extends TxnMessage.TxnLifecycleService impleme
         try (RpcUtils.RootEnv env = RpcUtils.getRootEnv()) {
             long txnId=request.getTxnId();
             boolean isOld = request.hasIsOld() && request.getIsOld();
+            if(request.hasObservedTs())
+                HLCTimestampSource.observe(request.getObservedTs());
             TxnMessage.Txn transaction;
             if (isOld) {
                 transaction = lifecycleStore.getOldTransaction(txnId);
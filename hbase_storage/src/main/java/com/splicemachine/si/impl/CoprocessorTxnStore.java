@@ -21,6 +21,7 @@ import com.splicemachine.si.api.txn.TaskId;
 import com.splicemachine.si.api.txn.TransactionMissing;
 import com.splicemachine.si.constants.SIConstants;
 import com.splicemachine.si.impl.driver.SIDriver;
+import com.splicemachine.si.impl.hlc.HLCTimestampSource;
 import com.splicemachine.si.impl.region.V2TxnDecoder;
 import org.apache.hadoop.hbase.ipc.ServerRpcController;
 import splice.com.google.common.collect.Iterators;
@@ -84,6 +85,15 @@ public class CoprocessorTxnStore implements TxnStore {
 
     @Override
     public void recordNewTransaction(Txn txn) throws IOException {
+        recordNewTransaction(txn,false);
+    }
+
+    @Override
+    public void recordNewTransactionIfAbsent(Txn txn) throws IOException {
+        recordNewTransaction(txn,true);
+    }
+
+    private void recordNewTransaction(Txn txn,boolean onlyIfAbsent) throws IOException {
         byte[] rowKey=getTransactionRowKey(txn.getTxnId());
 
 
@@ -93,6 +103,8 @@ public class CoprocessorTxnStore implements TxnStore {
                 .setIsAdditive(txn.isAdditive())
                 .setBeginTs(txn.getBeginTimestamp())
                 .setIsolationLevel(txn.getIsolationLevel().encode());
+        if(onlyIfAbsent)
+            request.setOnlyIfAbsent(true);
 
         TaskId taskId = txn.getTaskId();
         if (taskId != null) {
@@ -170,11 +182,18 @@ public class CoprocessorTxnStore implements TxnStore {
     @Override
     public long commit(long txnId) throws IOException{
         byte[] rowKey=getTransactionRowKey(txnId);
-        TxnMessage.TxnLifecycleMessage lifecycle=TxnMessage.TxnLifecycleMessage.newBuilder()
-                .setTxnId(txnId).setAction(TxnMessage.LifecycleAction.COMMIT).build();
+        TxnMessage.TxnLifecycleMessage.Builder lifecycle=TxnMessage.TxnLifecycleMessage.newBuilder()
+                .setTxnId(txnId).setAction(TxnMessage.LifecycleAction.COMMIT);
+        if(HLCTimestampSource.isActive()){
+            /*
+             * Our clock is past the clocks of the regions the transaction wrote to, which are past the begin
+             * timestamps of the transactions which read them, so the commit timestamp must be past it too
+             */
+            lifecycle.setObservedTs(timestampSource.currentTimestamp());
+        }
 
         try(TxnNetworkLayer table = tableFactory.accessTxnNetwork()){
-            TxnMessage.ActionResponse response = table.lifecycleAction(rowKey,lifecycle);
+            TxnMessage.ActionResponse response = table.lifecycleAction(rowKey,lifecycle.build());
             commits.incrementAndGet();
             return response.getCommitTs();
         }
@@ -195,9 +214,11 @@ public class CoprocessorTxnStore implements TxnStore {
     @Override
     public void elevateTransaction(Txn txn,byte[] newDestinationTable) throws IOException{
         byte[] rowKey=getTransactionRowKey(txn.getTxnId());
-        TxnMessage.ElevateRequest elevateRequest=TxnMessage.ElevateRequest.newBuilder()
+        TxnMessage.ElevateRequest.Builder elevateRequest=TxnMessage.ElevateRequest.newBuilder()
                 .setTxnId(txn.getTxnId())
-                .setNewDestinationTable(ZeroCopyLiteralByteString.wrap(Encoding.encodeBytesUnsorted(newDestinationTable))).build();
+                .setNewDestinationTable(ZeroCopyLiteralByteString.wrap(Encoding.encodeBytesUnsorted(newDestinationTable)));
+        if(HLCTimestampSource.isActive())
+            elevateRequest.setObservedTs(timestampSource.currentTimestamp());
 
         try(TxnNetworkLayer table = tableFactory.accessTxnNetwork()){
 //            TxnMessage.TxnLifecycleService service=getLifecycleService(table,rowKey);
@@ -205,7 +226,7 @@ public class CoprocessorTxnStore implements TxnStore {
 //            SpliceRpcController controller=new SpliceRpcController();
 //            service.elevateTransaction(controller,elevateRequest,new BlockingRpcCallback<TxnMessage.VoidResponse>());
 //            dealWithError(controller);
-            table.elevate(rowKey,elevateRequest);
+            table.elevate(rowKey,elevateRequest.build());
             elevations.incrementAndGet();
         }
     }
@@ -290,11 +311,18 @@ public class CoprocessorTxnStore implements TxnStore {
         }
 
         byte[] rowKey=getTransactionRowKey(txnId );
-        TxnMessage.TxnRequest request=TxnMessage.TxnRequest.newBuilder().setTxnId(txnId).build();
+        TxnMessage.TxnRequest.Builder request=TxnMessage.TxnRequest.newBuilder().setTxnId(txnId);
+        if(HLCTimestampSource.isActive()){
+            /*
+             * If the transaction is still active, it must commit after any transaction which could see it active
+             * here, so hand our clock over to the server which will assign its commit timestamp
+             */
+            request.setObservedTs(timestampSource.currentTimestamp());
+        }
 
         try (TxnNetworkLayer table = tableFactory.accessTxnNetwork()) {
 
-            TxnMessage.Txn messageTxn = table.getTxn(rowKey, request);
+            TxnMessage.Txn messageTxn = table.getTxn(rowKey, request.build());
             return decode(txnId, messageTxn);
         } catch (IOException e) {
             throw e;
@@ -66,6 +66,13 @@ public class QueuedKeepAliveScheduler implements KeepAliveScheduler{
         threadPool.schedule(new KeepAlive(txn),random.nextLong(maxWaitIntervalMs),TimeUnit.MILLISECONDS);
     }
 
+    @Override
+    public void scheduleKeepAlive(Txn txn,long initialDelayMillis){
+        if(shutdown) return;
+
+        threadPool.schedule(new KeepAlive(txn),initialDelayMillis,TimeUnit.MILLISECONDS);
+    }
+
     @Override
     public void start(){
     }
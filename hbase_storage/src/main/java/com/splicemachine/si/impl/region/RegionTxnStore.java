@@ -228,7 +228,7 @@ public class RegionTxnStore implements TxnPartition{
         get.addColumn(FAMILY,V2TxnDecoder.KEEP_ALIVE_QUALIFIER_BYTES);
         //add the columns for the new encoding
         Result result=region.get(get);
-        if(result==null)
+        if(result==null||result.isEmpty())
             return null; //indicates that the transaction was probably read only--external callers can figure out what that means
 
         Cell keepAliveKv;
@@ -218,6 +218,16 @@ public class ClientPartition extends SkeletonHBaseClientPartition{
 
     @Override
     public List<Partition> subPartitions(byte[] startRow,byte[] stopRow, boolean refresh) {
+        if (!refresh) {
+            try {
+                List<Partition> partitions = partitionInfoCache.getIfPresent(tableName, startRow, stopRow);
+                if (partitions != null) {
+                    return partitions;
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
         return ImmutableList.copyOf(Iterables.filter(subPartitions(refresh),new PartitionInRangePredicate(startRow,stopRow)));
     }
 
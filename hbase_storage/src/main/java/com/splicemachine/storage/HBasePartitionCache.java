@@ -15,33 +15,54 @@
 package com.splicemachine.storage;
 
 import com.splicemachine.access.hbase.HBaseConnectionFactory;
+import com.splicemachine.utils.SpliceLogUtils;
+import org.apache.hadoop.hbase.HRegionLocation;
 import org.apache.hadoop.hbase.client.ClusterConnection;
+import org.apache.log4j.Logger;
 import splice.com.google.common.cache.Cache;
 import splice.com.google.common.cache.CacheBuilder;
+import splice.com.google.common.cache.Weigher;
 import com.splicemachine.access.api.SConfiguration;
 import com.splicemachine.access.hbase.HBaseTableInfoFactory;
 import org.apache.hadoop.hbase.TableName;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.ObjectName;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
+ * Caches the partitions of each table indexed by start key (see {@link PartitionLocations}), bounded by an
+ * estimate of the heap they use rather than by a number of tables.
+ *
  * @author Scott Fines
  *         Date: 12/29/15
  */
-public class HBasePartitionCache implements PartitionInfoCache<TableName>{
+public class HBasePartitionCache implements PartitionInfoCache<TableName>, PartitionCacheManagement{
+    private static final Logger LOG = Logger.getLogger(HBasePartitionCache.class);
+
     private SConfiguration config;
     private HBaseTableInfoFactory tableInfoFactory;
-    private Cache<TableName, List<Partition>> partitionCache = CacheBuilder.newBuilder().maximumSize(100).build();
-    private Cache<TableName, List<Partition>> partitionAdapterCache = CacheBuilder.newBuilder().maximumSize(100).build();
+    private Cache<TableName, PartitionLocations> partitionCache;
+    private Cache<TableName, PartitionLocations> partitionAdapterCache;
+    private long maxHeapSize;
+
+    private final AtomicLong hits = new AtomicLong(0L);
+    private final AtomicLong misses = new AtomicLong(0L);
+    private final AtomicLong tableInvalidations = new AtomicLong(0L);
+    private final AtomicLong partitionInvalidations = new AtomicLong(0L);
 
     //must be a no-args to support the PartitionCacheService--use configure() instead
     public HBasePartitionCache(){ }
 
     @Override
     public void invalidate(TableName tableName) throws IOException{
+        tableInvalidations.incrementAndGet();
         partitionCache.invalidate(tableName);
-        ((ClusterConnection) HBaseConnectionFactory.getInstance(config).getConnection()).clearRegionCache(tableName);
-        ((ClusterConnection) HBaseConnectionFactory.getInstance(config).getNoRetryConnection()).clearRegionCache(tableName);
+        clearRegionCache(tableName);
     }
 
     @Override
@@ -49,27 +70,65 @@ public class HBasePartitionCache implements PartitionInfoCache<TableName>{
         invalidate(tableInfoFactory.getTableInfo(tableName));
     }
 
+    @Override
+    public void invalidate(TableName tableName,byte[] rowKey) throws IOException{
+        partitionInvalidations.incrementAndGet();
+        Partition removed = remove(partitionCache,tableName,rowKey);
+        remove(partitionAdapterCache,tableName,rowKey);
+        if(removed==null)
+            return; // already invalidated, along with the connection's cached location
+        if(removed instanceof RangedClientPartition && removed.owningServer() instanceof RLServer){
+            HRegionLocation location = ((RLServer)removed.owningServer()).getRegionLocation();
+            ((ClusterConnection) HBaseConnectionFactory.getInstance(config).getConnection()).deleteCachedRegionLocation(location);
+            ((ClusterConnection) HBaseConnectionFactory.getInstance(config).getNoRetryConnection()).deleteCachedRegionLocation(location);
+        }else{
+            clearRegionCache(tableName);
+        }
+    }
+
+    @Override
+    public void invalidate(byte[] tableName,byte[] rowKey) throws IOException{
+        invalidate(tableInfoFactory.getTableInfo(tableName),rowKey);
+    }
+
     @Override
     public void configure(SConfiguration configuration){
         this.config=configuration;
         this.tableInfoFactory = HBaseTableInfoFactory.getInstance(config);
+        this.maxHeapSize = configuration.getPartitionLocationCacheMaxSize();
+        this.partitionCache = newCache(maxHeapSize);
+        this.partitionAdapterCache = newCache(maxHeapSize);
+        try{
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this,new ObjectName("com.splicemachine.storage:type=PartitionCache"));
+        }catch(InstanceAlreadyExistsException ignored){
+            // a regionserver and master booted in the same JVM share the cache
+        }catch(Exception e){
+            SpliceLogUtils.warn(LOG,"Unable to register the partition cache with JMX",e);
+        }
     }
 
     @Override
     public List<Partition> getIfPresent(TableName tableName) throws IOException {
-        return partitionCache.getIfPresent(tableName);
+        PartitionLocations locations = partitionCache.getIfPresent(tableName);
+        return record(locations==null?null:locations.all());
+    }
+
+    @Override
+    public List<Partition> getIfPresent(TableName tableName,byte[] startRow,byte[] stopRow) throws IOException{
+        PartitionLocations locations = partitionCache.getIfPresent(tableName);
+        return record(locations==null?null:locations.overlapping(startRow,stopRow));
     }
 
     @Override
     public void put(TableName tableName, List<Partition> partitions) throws IOException {
-        partitionCache.put(tableName,partitions);
+        partitionCache.put(tableName,PartitionLocations.of(partitions));
     }
 
     @Override
     public void invalidateAdapter(TableName tableName) throws IOException {
+        tableInvalidations.incrementAndGet();
         partitionAdapterCache.invalidate(tableName);
-        ((ClusterConnection) HBaseConnectionFactory.getInstance(config).getConnection()).clearRegionCache(tableName);
-        ((ClusterConnection) HBaseConnectionFactory.getInstance(config).getNoRetryConnection()).clearRegionCache(tableName);
+        clearRegionCache(tableName);
     }
 
     @Override
@@ -79,12 +138,112 @@ public class HBasePartitionCache implements PartitionInfoCache<TableName>{
 
     @Override
     public List<Partition> getAdapterIfPresent(TableName tableName) throws IOException {
-        return partitionAdapterCache.getIfPresent(tableName);
+        PartitionLocations locations = partitionAdapterCache.getIfPresent(tableName);
+        return record(locations==null?null:locations.all());
     }
 
     @Override
     public void putAdapter(TableName tableName, List<Partition> partitions) throws IOException {
-        partitionAdapterCache.put(tableName,partitions);
+        partitionAdapterCache.put(tableName,PartitionLocations.of(partitions));
+    }
+
+    @Override
+    public long getHitCount(){
+        return hits.get();
     }
-}
 
+    @Override
+    public long getMissCount(){
+        return misses.get();
+    }
+
+    @Override
+    public long getTableInvalidationCount(){
+        return tableInvalidations.get();
+    }
+
+    @Override
+    public long getPartitionInvalidationCount(){
+        return partitionInvalidations.get();
+    }
+
+    @Override
+    public long getMaxHeapSize(){
+        return maxHeapSize;
+    }
+
+    @Override
+    public long getEvictionCount(){
+        return partitionCache.stats().evictionCount()+partitionAdapterCache.stats().evictionCount();
+    }
+
+    @Override
+    public int getCachedTableCount(){
+        return (int)(partitionCache.size()+partitionAdapterCache.size());
+    }
+
+    @Override
+    public int getCachedPartitionCount(){
+        int count = 0;
+        for(PartitionLocations locations:partitionCache.asMap().values())
+            count+=locations.size();
+        for(PartitionLocations locations:partitionAdapterCache.asMap().values())
+            count+=locations.size();
+        return count;
+    }
+
+    @Override
+    public long getEstimatedHeapSize(){
+        long size = 0L;
+        for(PartitionLocations locations:partitionCache.asMap().values())
+            size+=locations.heapSize();
+        for(PartitionLocations locations:partitionAdapterCache.asMap().values())
+            size+=locations.heapSize();
+        return size;
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+    private static Cache<TableName, PartitionLocations> newCache(long maxHeapSize){
+        return CacheBuilder.newBuilder()
+                .maximumWeight(maxHeapSize)
+                .weigher(new Weigher<TableName, PartitionLocations>(){
+                    @Override
+                    public int weigh(TableName key,PartitionLocations value){
+                        return (int)Math.min(Integer.MAX_VALUE,value.heapSize());
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    private List<Partition> record(List<Partition> partitions){
+        if(partitions==null)
+            misses.incrementAndGet();
+        else
+            hits.incrementAndGet();
+        return partitions;
+    }
+
+    /*
+     * Replaces the cached locations of the table with a copy missing the partition owning rowKey, and returns
+     * that partition, or null if it wasn't cached
+     */
+    private static Partition remove(Cache<TableName, PartitionLocations> cache,TableName tableName,byte[] rowKey){
+        ConcurrentMap<TableName, PartitionLocations> map = cache.asMap();
+        PartitionLocations locations;
+        while((locations = map.get(tableName))!=null){
+            Partition p = locations.containing(rowKey);
+            if(p==null)
+                return null;
+            if(map.replace(tableName,locations,locations.without(rowKey)))
+                return p;
+        }
+        return null;
+    }
+
+    private void clearRegionCache(TableName tableName) throws IOException{
+        ((ClusterConnection) HBaseConnectionFactory.getInstance(config).getConnection()).clearRegionCache(tableName);
+        ((ClusterConnection) HBaseConnectionFactory.getInstance(config).getNoRetryConnection()).clearRegionCache(tableName);
+    }
+}
@@ -226,6 +226,11 @@ public class HScan implements DataScan {
         return this;
     }
 
+    @Override
+    public DataScan copy() throws IOException{
+        return new HScan(new Scan(scan));
+    }
+
     @Override
     public DataScan cacheRows(int rowsToCache){
         scan.setCaching(rowsToCache);
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.storage;
+
+import javax.management.MXBean;
+
+/**
+ * JMX Hook for monitoring the client-side cache of table partition locations.
+ */
+@MXBean
+public interface PartitionCacheManagement{
+
+    /**
+     * @return the number of lookups which could be served from cache
+     */
+    long getHitCount();
+
+    /**
+     * @return the number of lookups which could <em>not</em> be served from cache, either because the table
+     * was not cached or because the requested range had been invalidated
+     */
+    long getMissCount();
+
+    /**
+     * @return the number of tables evicted to stay within the configured memory budget
+     */
+    long getEvictionCount();
+
+    /**
+     * @return the number of times all the cached partitions of a table were invalidated
+     */
+    long getTableInvalidationCount();
+
+    /**
+     * @return the number of times a single cached partition was invalidated
+     */
+    long getPartitionInvalidationCount();
+
+    int getCachedTableCount();
+
+    int getCachedPartitionCount();
+
+    /**
+     * @return an estimate of the heap used by the cached locations, in bytes
+     */
+    long getEstimatedHeapSize();
+
+    long getMaxHeapSize();
+}
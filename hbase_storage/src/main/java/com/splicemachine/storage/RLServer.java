@@ -32,6 +32,10 @@ public class RLServer implements PartitionServer{
         this.regionLocation=regionLocation;
     }
 
+    HRegionLocation getRegionLocation(){
+        return regionLocation;
+    }
+
     @Override
     public String getHostname(){
         return regionLocation.getHostname();
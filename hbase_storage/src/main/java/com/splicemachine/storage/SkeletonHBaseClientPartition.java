@@ -19,6 +19,7 @@ import com.splicemachine.metrics.MetricFactory;
 import com.splicemachine.metrics.Metrics;
 import com.splicemachine.si.constants.SIConstants;
 import com.splicemachine.storage.util.MeasuredResultScanner;
+import com.splicemachine.storage.util.PrefetchingResultScanner;
 import org.apache.hadoop.hbase.HConstants;
 import org.apache.hadoop.hbase.client.*;
 import org.apache.hadoop.hbase.client.coprocessor.Batch;
@@ -117,17 +118,28 @@ public abstract class SkeletonHBaseClientPartition implements Partition{
 
     @Override
     public DataScanner openScanner(DataScan scan,MetricFactory metricFactory) throws IOException{
-        MeasuredResultScanner scanner=new MeasuredResultScanner(getScanner(((HScan)scan).unwrapDelegate()),metricFactory);
+        MeasuredResultScanner scanner=new MeasuredResultScanner(openPrefetchingScanner(((HScan)scan).unwrapDelegate()),metricFactory);
         return new ListingResultScanner(this,scanner);
     }
 
 
     @Override
     public DataResultScanner openResultScanner(DataScan scan,MetricFactory metricFactory) throws IOException{
-        MeasuredResultScanner scanner=new MeasuredResultScanner(getScanner(((HScan)scan).unwrapDelegate()),metricFactory);
+        MeasuredResultScanner scanner=new MeasuredResultScanner(openPrefetchingScanner(((HScan)scan).unwrapDelegate()),metricFactory);
         return new ResultDataScanner(scanner);
     }
 
+    /*
+     * Small scans are answered in a single round trip, so there is nothing to overlap their processing with.
+     */
+    @SuppressWarnings("deprecation")
+    private ResultScanner openPrefetchingScanner(Scan scan) throws IOException{
+        ResultScanner scanner=getScanner(scan);
+        if(scan.isSmall())
+            return scanner;
+        return PrefetchingResultScanner.wrap(scanner);
+    }
+
 
     /*Data Mutation methods*/
     @Override
@@ -0,0 +1,324 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.storage.util;
+
+import com.splicemachine.access.HConfiguration;
+import com.splicemachine.access.api.SConfiguration;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.client.metrics.ScanMetrics;
+import org.apache.log4j.Logger;
+import splice.com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client-side scanner which keeps the next batch of rows in flight while the current batch is consumed,
+ * so that decoding, SI filtering and operator work on one batch overlap the network wait for the next.
+ *
+ * At most one batch is fetched at a time, so the underlying scanner is only ever used by one thread at a time.
+ * Batches start at {@link #INITIAL_BATCH_ROWS} rows and are resized after every batch: they double while
+ * the consumer has to wait for them, and shrink while they arrive long before they are needed. They never
+ * exceed {@code maxBatchBytes}, as estimated from the average size of the rows read so far.
+ *
+ * The time the consumer spends waiting on the network, and processing rows between calls, is tracked per scan,
+ * and logged at debug level when the scanner is closed.
+ */
+@NotThreadSafe
+public class PrefetchingResultScanner implements ResultScanner{
+    private static final Logger LOG=Logger.getLogger(PrefetchingResultScanner.class);
+    static final int INITIAL_BATCH_ROWS = 64;
+    static final int MIN_BATCH_ROWS = 16;
+    private static final Result[] NO_RESULTS = new Result[0];
+
+    private final ResultScanner delegate;
+    private final Executor executor;
+    private final long maxBatchBytes;
+
+    private int batchRows = INITIAL_BATCH_ROWS;
+    private double avgRowBytes = 0d;
+    private CompletableFuture<Batch> inFlight;
+    private Result[] current = NO_RESULTS;
+    private int position;
+    private boolean exhausted;
+    private volatile boolean closed;
+
+    /*metrics*/
+    private long lastReturned;  // when the consumer was last handed a row, or 0 if it is not processing one
+    private long batchCpuNanos; // consumer time spent on the rows of the current batch
+    private long ioWaitNanos;
+    private long cpuNanos;
+    private long fetchNanos;
+    private long rows;
+    private long bytes;
+    private long batches;
+
+    public PrefetchingResultScanner(ResultScanner delegate,long maxBatchBytes){
+        this(delegate,maxBatchBytes,Fetchers.EXECUTOR);
+    }
+
+    PrefetchingResultScanner(ResultScanner delegate,long maxBatchBytes,Executor executor){
+        this.delegate=delegate;
+        this.maxBatchBytes=maxBatchBytes;
+        this.executor=executor;
+        this.inFlight=fetch(batchRows);
+    }
+
+    /**
+     * @return {@code scanner}, prefetching if prefetching is enabled
+     */
+    public static ResultScanner wrap(ResultScanner scanner){
+        SConfiguration config=HConfiguration.getConfiguration();
+        if(!config.getScannerPrefetchEnabled())
+            return scanner;
+        return new PrefetchingResultScanner(scanner,config.getScannerPrefetchMaxBytes());
+    }
+
+    @Override
+    public Result next() throws IOException{
+        long now=System.nanoTime();
+        if(lastReturned>0){
+            batchCpuNanos+=now-lastReturned;
+            lastReturned=0;
+        }
+        if(position==current.length){
+            if(exhausted || closed)
+                return null;
+            nextBatch(now);
+            if(position==current.length)
+                return null;
+        }
+        Result r=current[position];
+        current[position++]=null;
+        lastReturned=System.nanoTime();
+        return r;
+    }
+
+    @Override
+    public Result[] next(int nbRows) throws IOException{
+        Result[] results=new Result[nbRows];
+        int n=0;
+        Result r;
+        while(n<nbRows && (r=next())!=null)
+            results[n++]=r;
+        if(n<nbRows){
+            Result[] trimmed=new Result[n];
+            System.arraycopy(results,0,trimmed,0,n);
+            return trimmed;
+        }
+        return results;
+    }
+
+    @Override
+    public void close(){
+        if(closed)
+            return;
+        closed=true;
+        current=NO_RESULTS;
+        /*
+         * the underlying scanner cannot be closed while a batch is being fetched from it, so leave it to
+         * whichever of the fetcher or this thread gets to it last
+         */
+        inFlight.whenComplete((batch,error)->delegate.close());
+        if(LOG.isDebugEnabled())
+            LOG.debug(String.format("Scan closed: rows=%d, bytes=%d, batches=%d, ioWaitMillis=%d, cpuMillis=%d, fetchMillis=%d",
+                    rows,bytes,batches,
+                    TimeUnit.NANOSECONDS.toMillis(ioWaitNanos),
+                    TimeUnit.NANOSECONDS.toMillis(cpuNanos),
+                    TimeUnit.NANOSECONDS.toMillis(fetchNanos)));
+    }
+
+    public boolean renewLease(){
+        return false;
+    }
+
+    public ScanMetrics getScanMetrics(){
+        return delegate.getScanMetrics();
+    }
+
+    @Override
+    public Iterator<Result> iterator(){
+        return new Iterator<Result>(){
+            private Result next;
+
+            @Override
+            public boolean hasNext(){
+                if(next==null){
+                    try{
+                        next=PrefetchingResultScanner.this.next();
+                    }catch(IOException e){
+                        throw new RuntimeException(e);
+                    }
+                }
+                return next!=null;
+            }
+
+            @Override
+            public Result next(){
+                if(!hasNext()) throw new NoSuchElementException();
+                Result r=next;
+                next=null;
+                return r;
+            }
+        };
+    }
+
+    /**
+     * @return the time the consumer spent waiting for batches to be fetched, in nanoseconds
+     */
+    public long getIoWaitNanos(){
+        return ioWaitNanos;
+    }
+
+    /**
+     * @return the time the consumer spent processing rows, between calls to {@link #next()}, in nanoseconds
+     */
+    public long getCpuNanos(){
+        return cpuNanos;
+    }
+
+    /**
+     * @return the time spent fetching batches, in the background or not, in nanoseconds
+     */
+    public long getFetchNanos(){
+        return fetchNanos;
+    }
+
+    public long getRows(){
+        return rows;
+    }
+
+    public long getBatches(){
+        return batches;
+    }
+
+    int getBatchRows(){
+        return batchRows;
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+
+    private void nextBatch(long now) throws IOException{
+        Batch batch;
+        try{
+            batch=inFlight.get();
+        }catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the next batch of the scan");
+        }catch(ExecutionException e){
+            Throwable cause=e.getCause();
+            if(cause instanceof UncheckedIOException)
+                throw ((UncheckedIOException)cause).getCause();
+            throw new IOException(cause);
+        }
+        long waited=System.nanoTime()-now;
+        ioWaitNanos+=waited;
+        cpuNanos+=batchCpuNanos;
+        fetchNanos+=batch.fetchNanos;
+        batches++;
+        rows+=batch.results.length;
+        bytes+=batch.bytes;
+        if(batch.results.length>0)
+            avgRowBytes=(double)bytes/rows;
+
+        if(batches>1)
+            resize(waited,batch); // the consumer has done nothing yet when the first batch arrives
+        batchCpuNanos=0;
+        current=batch.results;
+        position=0;
+        if(current.length==0)
+            exhausted=true;
+        else
+            inFlight=fetch(batchRows);
+    }
+
+    /*
+     * Sizes the next batch from how the one just consumed compared with the one just fetched: the consumer
+     * waiting means batches are consumed faster than they are fetched, so fetch more rows per round trip;
+     * a batch fetched in a fraction of the time its predecessor took to consume is needlessly large.
+     */
+    private void resize(long waited,Batch batch){
+        if(waited>batchCpuNanos/8){
+            batchRows=batchRows*2;
+        }else if(batch.fetchNanos<batchCpuNanos/4){
+            batchRows=batchRows-batchRows/4;
+        }
+        int maxRows=avgRowBytes<=0d?Integer.MAX_VALUE:(int)Math.min(Integer.MAX_VALUE,(long)(maxBatchBytes/avgRowBytes));
+        batchRows=Math.max(MIN_BATCH_ROWS,Math.min(batchRows,maxRows));
+    }
+
+    private CompletableFuture<Batch> fetch(int nbRows){
+        return CompletableFuture.supplyAsync(()->{
+            long start=System.nanoTime();
+            if(closed)
+                return new Batch(NO_RESULTS,0L,0L);
+            try{
+                Result[] results=delegate.next(nbRows);
+                long size=0L;
+                for(Result r:results){
+                    size+=Result.getTotalSizeOfCells(r);
+                }
+                return new Batch(results,size,System.nanoTime()-start);
+            }catch(IOException e){
+                throw new UncheckedIOException(e);
+            }
+        },executor);
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper classes*/
+
+    private static class Batch{
+        private final Result[] results;
+        private final long bytes;
+        private final long fetchNanos;
+
+        Batch(Result[] results,long bytes,long fetchNanos){
+            this.results=results;
+            this.bytes=bytes;
+            this.fetchNanos=fetchNanos;
+        }
+    }
+
+    /*
+     * Fetches only ever do a bounded amount of work, so a fixed pool with an unbounded queue cannot deadlock;
+     * a busy pool just means fetches overlap less with processing.
+     */
+    private static class Fetchers{
+        private static final Executor EXECUTOR;
+
+        static{
+            int threads=Math.max(1,HConfiguration.getConfiguration().getScannerPrefetchThreads());
+            ThreadPoolExecutor tpe=new ThreadPoolExecutor(threads,threads,
+                    60L,TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(),
+                    new ThreadFactoryBuilder().setNameFormat("ScannerPrefetch-%d").setDaemon(true).build());
+            tpe.allowCoreThreadTimeOut(true);
+            EXECUTOR=tpe;
+        }
+    }
+}
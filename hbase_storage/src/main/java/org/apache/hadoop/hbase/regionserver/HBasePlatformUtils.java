@@ -53,6 +53,22 @@ public class HBasePlatformUtils{
         return scannerContext.setScannerState(ScannerContext.NextState.BATCH_LIMIT_REACHED).hasMoreValues();
     }
 
+    /**
+     * @return whether a scanner should stop reading rows and return, as its scan has run out of time
+     */
+    public static boolean scannerTimeLimitReached(ScannerContext scannerContext) {
+        return scannerContext.checkTimeLimit(ScannerContext.LimitScope.BETWEEN_ROWS);
+    }
+
+    /**
+     * Accounts for a row produced by a scanner rather than read through the region, so that its scan stops
+     * once the rows returned reach the size limit of the scan.
+     */
+    public static void scannerRowProduced(ScannerContext scannerContext, KeyValue cell) {
+        scannerContext.incrementBatchProgress(1);
+        scannerContext.incrementSizeProgress(cell.getLength(), cell.heapSize());
+    }
+
     public static void bulkLoad(Configuration conf, LoadIncrementalHFiles loader,
                                 Path path, String fullTableName) throws IOException {
         SConfiguration configuration = HConfiguration.getConfiguration();
@@ -59,7 +59,7 @@ public class MockRegionUtils{
             public Result answer(InvocationOnMock invocationOnMock) throws Throwable{
                 final Get get=(Get)invocationOnMock.getArguments()[0];
                 Set<Cell> keyValues=rowMap.get(get.getRow());
-                if(get.hasFamilies()){
+                if(keyValues!=null && get.hasFamilies()){
                     Set<Cell> filtered=Sets.filter(keyValues,new Predicate<Cell>(){
                         @Override
                         public boolean apply(@Nullable Cell input){
@@ -15,6 +15,7 @@
 package com.splicemachine.si.impl;
 
 import com.carrotsearch.hppc.LongArrayList;
+import com.splicemachine.access.api.ServerControl;
 import com.google.protobuf.ByteString;
 import com.splicemachine.concurrent.Clock;
 import com.splicemachine.concurrent.IncrementingClock;
@@ -25,6 +26,7 @@ import com.splicemachine.si.api.txn.TxnSupplier;
 import com.splicemachine.si.api.txn.lifecycle.TxnPartition;
 import com.splicemachine.si.constants.SIConstants;
 import com.splicemachine.si.coprocessor.TxnMessage;
+import com.splicemachine.si.impl.data.StripedTxnLifecycleStore;
 import com.splicemachine.si.impl.region.RegionTxnStore;
 import com.splicemachine.si.impl.region.TransactionResolver;
 import com.splicemachine.si.impl.store.TestingTimestampSource;
@@ -143,6 +145,33 @@ public class RegionTxnStoreTest{
         assertEquals("Incorrect current state!",Txn.State.ROLLEDBACK,currentState);
     }
 
+    @Test
+    public void lateRegistrationDoesNotReviveAFinishedTransaction() throws Exception{
+        HRegion region=MockRegionUtils.getMockRegion();
+        RegionTxnStore store=new RegionTxnStore(region,txnSupplier, getNullTransactionResolver(),Long.MAX_VALUE,clock);
+        StripedTxnLifecycleStore lifecycleStore=new StripedTxnLifecycleStore(1,store,mock(ServerControl.class),new TestingTimestampSource());
+
+        TxnMessage.TxnInfo.Builder registration=TxnMessage.TxnInfo.newBuilder()
+                .setBeginTs(1)
+                .setAllowsWrites(true)
+                .setIsAdditive(true)
+                .setIsolationLevel(Txn.IsolationLevel.SNAPSHOT_ISOLATION.getLevel())
+                .setDestinationTables(ByteString.copyFrom(Bytes.toBytes("1234")))
+                .setOnlyIfAbsent(true);
+        lifecycleStore.beginTransaction(registration.setTxnId(1).build());
+        assertEquals("The first registration should be recorded",Txn.State.ACTIVE,store.getState(1));
+        long commitTs=lifecycleStore.commitTransaction(1);
+
+        lifecycleStore.beginTransaction(registration.setTxnId(1).build()); // a retried write delivered after the commit
+        assertEquals("A late registration should not reset the transaction",Txn.State.COMMITTED,store.getState(1));
+        assertEquals(commitTs,store.getCommitTimestamp(1));
+
+        lifecycleStore.beginTransaction(registration.setTxnId(2).setBeginTs(2).build());
+        lifecycleStore.rollbackTransaction(2);
+        lifecycleStore.beginTransaction(registration.setTxnId(2).build());
+        assertEquals("A late registration should not reset the transaction",Txn.State.ROLLEDBACK,store.getState(2));
+    }
+
     @Test
     public void testCanGetActiveTransactions() throws Exception{
         HRegion region=MockRegionUtils.getMockRegion();
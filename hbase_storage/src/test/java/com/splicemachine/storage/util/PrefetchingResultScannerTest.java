@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.storage.util;
+
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.client.metrics.ScanMetrics;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class PrefetchingResultScannerTest {
+    private static final byte[] FAMILY = Bytes.toBytes("V");
+    private static final byte[] QUALIFIER = Bytes.toBytes("7");
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool();
+
+    @AfterClass
+    public static void shutdown() {
+        EXECUTOR.shutdownNow();
+    }
+
+    @Test
+    public void returnsEveryRowInOrder() throws Exception {
+        FakeScanner delegate = new FakeScanner(1000, 10, 0L);
+        PrefetchingResultScanner scanner = new PrefetchingResultScanner(delegate, 1024 * 1024, EXECUTOR);
+        for (int i = 0; i < 1000; i++) {
+            Result r = scanner.next();
+            Assert.assertNotNull("Missing row " + i, r);
+            Assert.assertEquals(i, Bytes.toInt(r.getRow()));
+        }
+        Assert.assertNull(scanner.next());
+        Assert.assertNull("The end of the scan should be sticky", scanner.next());
+        Assert.assertEquals(1000, scanner.getRows());
+        scanner.close();
+        Assert.assertEquals("The underlying scanner should be closed once", 1, delegate.closed.get());
+    }
+
+    @Test
+    public void growsBatchesWhileTheConsumerWaits() throws Exception {
+        FakeScanner delegate = new FakeScanner(5000, 10, 5L);
+        PrefetchingResultScanner scanner = new PrefetchingResultScanner(delegate, 1024 * 1024, EXECUTOR);
+        int rows = drain(scanner);
+        Assert.assertEquals(5000, rows);
+        Assert.assertTrue("Batches should grow when fetching is the bottleneck",
+                scanner.getBatchRows() > PrefetchingResultScanner.INITIAL_BATCH_ROWS);
+        Assert.assertTrue("The consumer should have been waiting on I/O", scanner.getIoWaitNanos() > 0);
+    }
+
+    @Test
+    public void shrinksBatchesWhileTheConsumerIsBusy() throws Exception {
+        FakeScanner delegate = new FakeScanner(3000, 10, 0L);
+        PrefetchingResultScanner scanner = new PrefetchingResultScanner(delegate, 1024 * 1024, EXECUTOR);
+        while (scanner.next() != null) {
+            long until = System.nanoTime() + 100_000L;
+            while (System.nanoTime() < until) {
+                // simulate processing the row
+            }
+        }
+        scanner.close();
+        Assert.assertTrue("Batches should shrink when processing is the bottleneck",
+                scanner.getBatchRows() < PrefetchingResultScanner.INITIAL_BATCH_ROWS);
+        Assert.assertTrue("The consumer should have been busy", scanner.getCpuNanos() > 0);
+    }
+
+    @Test
+    public void capsBatchesBySize() throws Exception {
+        FakeScanner delegate = new FakeScanner(3000, 1000, 2L);
+        PrefetchingResultScanner scanner = new PrefetchingResultScanner(delegate, 32 * 1024, EXECUTOR);
+        Assert.assertEquals(3000, drain(scanner));
+        Assert.assertTrue("Batches of 1KB rows should be capped at 32KB", scanner.getBatchRows() <= 32);
+        Assert.assertTrue("No batch larger than the cap should have been requested", delegate.maxRequested.get() <= 64);
+    }
+
+    @Test
+    public void propagatesFetchFailures() throws Exception {
+        FakeScanner delegate = new FakeScanner(1000, 10, 0L);
+        delegate.failAfter = 100;
+        PrefetchingResultScanner scanner = new PrefetchingResultScanner(delegate, 1024 * 1024, EXECUTOR);
+        try {
+            drain(scanner);
+            Assert.fail("Expected the failure of the underlying scanner");
+        } catch (IOException expected) {
+            Assert.assertEquals("region moved", expected.getMessage());
+        }
+    }
+
+    @Test
+    public void closeWaitsForTheBatchInFlight() throws Exception {
+        FakeScanner delegate = new FakeScanner(1000, 10, 200L);
+        PrefetchingResultScanner scanner = new PrefetchingResultScanner(delegate, 1024 * 1024, EXECUTOR);
+        for (int i = 0; i < 100 && !delegate.fetching; i++)
+            Thread.sleep(1);
+        scanner.close();
+        Assert.assertEquals("The scanner cannot be closed while fetching", 0, delegate.closed.get());
+        for (int i = 0; i < 100 && delegate.closed.get() == 0; i++)
+            Thread.sleep(20);
+        Assert.assertEquals(1, delegate.closed.get());
+        Assert.assertNull(scanner.next());
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+
+    private static int drain(PrefetchingResultScanner scanner) throws IOException {
+        int rows = 0;
+        try {
+            while (scanner.next() != null)
+                rows++;
+        } finally {
+            scanner.close();
+        }
+        return rows;
+    }
+
+    private static class FakeScanner implements ResultScanner {
+        private final Result[] rows;
+        private final long fetchMillis;
+        private final AtomicInteger closed = new AtomicInteger();
+        private final AtomicInteger maxRequested = new AtomicInteger();
+        private volatile boolean fetching;
+        private int position;
+        private int failAfter = Integer.MAX_VALUE;
+
+        FakeScanner(int count, int valueSize, long fetchMillis) {
+            this.rows = new Result[count];
+            for (int i = 0; i < count; i++) {
+                KeyValue kv = new KeyValue(Bytes.toBytes(i), FAMILY, QUALIFIER, new byte[valueSize]);
+                rows[i] = Result.create(new KeyValue[]{kv});
+            }
+            this.fetchMillis = fetchMillis;
+        }
+
+        @Override
+        public Result next() throws IOException {
+            Result[] next = next(1);
+            return next.length == 0 ? null : next[0];
+        }
+
+        @Override
+        public Result[] next(int nbRows) throws IOException {
+            Assert.assertFalse("Batches should be fetched one at a time", fetching);
+            Assert.assertEquals("The scanner should not be used once closed", 0, closed.get());
+            fetching = true;
+            try {
+                maxRequested.accumulateAndGet(nbRows, Math::max);
+                if (fetchMillis > 0)
+                    Thread.sleep(fetchMillis);
+                if (position >= failAfter)
+                    throw new IOException("region moved");
+                int n = Math.min(nbRows, rows.length - position);
+                Result[] batch = Arrays.copyOfRange(rows, position, position + n);
+                position += n;
+                return batch;
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            } finally {
+                fetching = false;
+            }
+        }
+
+        @Override
+        public void close() {
+            closed.incrementAndGet();
+        }
+
+        public boolean renewLease() {
+            return false;
+        }
+
+        public ScanMetrics getScanMetrics() {
+            return null;
+        }
+
+        @Override
+        public Iterator<Result> iterator() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -143,6 +143,18 @@ public class MemTxnStore implements TxnStore{
         }
     }
 
+    @Override
+    public void recordNewTransactionIfAbsent(Txn txn) throws IOException{
+        ReadWriteLock readWriteLock=lockStriper.get(txn.getTxnId());
+        Lock wl=readWriteLock.writeLock();
+        wl.lock();
+        try{
+            txnMap.putIfAbsent(txn.getTxnId(),new TxnHolder(txn,clock.currentTimeMillis()));
+        }finally{
+            wl.unlock();
+        }
+    }
+
     @Override
     public void registerActiveTransaction(Txn txn) {
         activeTransactions.registerActiveTxn(txn.getBeginTimestamp());
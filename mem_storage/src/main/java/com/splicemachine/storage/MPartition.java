@@ -14,6 +14,7 @@
 
 package com.splicemachine.storage;
 
+import com.splicemachine.access.configuration.StorageConfiguration;
 import com.splicemachine.access.util.ByteComparisons;
 import com.splicemachine.si.api.filter.TxnFilter;
 import com.splicemachine.si.api.txn.Txn;
@@ -22,11 +23,8 @@ import com.splicemachine.si.api.txn.TxnSupplier;
 import com.splicemachine.si.api.txn.TxnView;
 import com.splicemachine.si.impl.driver.SIDriver;
 import com.splicemachine.si.impl.server.ConflictRollForward;
-import splice.com.google.common.base.Predicate;
 import splice.com.google.common.collect.BiMap;
 import splice.com.google.common.collect.HashBiMap;
-import splice.com.google.common.collect.Sets;
-import com.splicemachine.collections.EmptyNavigableSet;
 import com.splicemachine.kvpair.KVPair;
 import com.splicemachine.metrics.MetricFactory;
 import com.splicemachine.metrics.Metrics;
@@ -39,7 +37,6 @@ import javax.annotation.concurrent.ThreadSafe;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.*;
-import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Condition;
@@ -47,6 +44,11 @@ import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
+ * A partition held in memory.
+ *
+ * Cells are kept in an {@link MStore}, which can optionally flush them into immutable, block-indexed
+ * store files and compact those, to model the read behavior of an HBase region.
+ *
  * @author Scott Fines
  *         Date: 12/16/15
  */
@@ -55,16 +57,26 @@ public class MPartition implements Partition{
     private final String partitionName;
     private final String tableName;
     private final PartitionServer owner;
-    private final ConcurrentSkipListSet<DataCell> memstore=new ConcurrentSkipListSet<>();
+    private final MStore store;
     private final BiMap<ByteBuffer, Lock> lockMap=HashBiMap.create();
     private AtomicLong writes=new AtomicLong(0l);
     private AtomicLong reads=new AtomicLong(0l);
     private AtomicLong sequenceGen = new AtomicLong(0l);
 
     public MPartition(String tableName,String partitionName){
+        this(tableName,partitionName,0l,StorageConfiguration.DEFAULT_MEM_STORAGE_BLOCK_SIZE,0);
+    }
+
+    /**
+     * @param flushSize the memstore size, in bytes, that triggers a flush, or 0 to only flush explicitly
+     * @param blockSize the size, in bytes, of the blocks of a store file
+     * @param compactionThreshold the number of store files that triggers a compaction, or 0 to only compact explicitly
+     */
+    public MPartition(String tableName,String partitionName,long flushSize,int blockSize,int compactionThreshold){
         this.partitionName=partitionName;
         this.tableName=tableName;
         this.owner=new MPartitionServer();
+        this.store=new MStore(flushSize,blockSize,compactionThreshold);
     }
 
     @Override
@@ -97,14 +109,9 @@ public class MPartition implements Partition{
     @Override
     public DataResult get(final DataGet get,DataResult previous) throws IOException{
         DataCell start=new MCell(get.key(),new byte[]{},new byte[]{},get.highTimestamp(),new byte[]{},CellType.USER_DATA);
+        DataCell end=new MCell(nextRow(get.key()),new byte[]{},new byte[]{},Long.MAX_VALUE,new byte[]{},CellType.USER_DATA);
 
-        Set<DataCell> data=Sets.filter(memstore.tailSet(start,true),new Predicate<DataCell>(){
-            @Override
-            public boolean apply(DataCell dataCell){
-                byte[] key=get.key();
-                return Bytes.equals(dataCell.keyArray(),dataCell.keyOffset(),dataCell.keyLength(),key,0,key.length);
-            }
-        });
+        Iterator<DataCell> data=store.iterator(start,true,end,false,false);
         long curSeq = sequenceGen.get();
         DataFilter dataFilter = get.filter();
         TxnFilter txnFilter = null;
@@ -112,7 +119,7 @@ public class MPartition implements Partition{
             txnFilter = (TxnFilter) dataFilter;
             dataFilter = null;
         }
-        try(SetScanner ss=new SetScanner(curSeq,data.iterator(),get.lowTimestamp(),get.highTimestamp(),dataFilter,this,Metrics.noOpMetricFactory())){
+        try(SetScanner ss=new SetScanner(curSeq,data,get.lowTimestamp(),get.highTimestamp(),dataFilter,this,Metrics.noOpMetricFactory())){
             List<DataCell> toReturn=ss.next(-1);
             if(toReturn.size()<=0) return null;
 
@@ -138,7 +145,17 @@ public class MPartition implements Partition{
 
     @Override
     public Iterator<DataResult> batchGet(Attributable attributes,List<byte[]> rowKeys) throws IOException{
-        throw new UnsupportedOperationException("IMPLEMENT");
+        MGet get=new MGet();
+        if(attributes!=null && attributes.allAttributes()!=null)
+            get.setAllAttributes(attributes.allAttributes());
+
+        List<DataResult> results=new ArrayList<>(rowKeys.size());
+        for(byte[] key : rowKeys){
+            get.setKey(key);
+            DataResult result=get(get,null);
+            results.add(result==null?new MResult():result);
+        }
+        return results.iterator();
     }
 
     @Override
@@ -146,7 +163,7 @@ public class MPartition implements Partition{
         DataCell start=new MCell(rowKey,family,new byte[]{},Long.MAX_VALUE,new byte[]{},CellType.USER_DATA);
         DataCell end=new MCell(rowKey,family,SIConstants.FK_COUNTER_COLUMN_BYTES,0l,new byte[]{},CellType.USER_DATA);
 
-        Set<DataCell> data=memstore.subSet(start,true,end,true);
+        List<DataCell> data=latestVersions(start,end,null);
         List<DataCell> toReturn=new ArrayList<>(data.size());
         DataCell last=null;
         for(DataCell d : data){
@@ -173,8 +190,7 @@ public class MPartition implements Partition{
 
     @Override
     public DataScanner openScanner(DataScan scan,MetricFactory metricFactory) throws IOException{
-        NavigableSet<DataCell> dataCells=getAscendingScanSet(scan);
-        Iterator<DataCell> iter = scan.isDescendingScan()? dataCells.descendingIterator(): dataCells.iterator();
+        Iterator<DataCell> iter=scanIterator(scan);
 
         long curSeq = sequenceGen.get();
         return new SetScanner(curSeq,iter,scan.lowVersion(),scan.highVersion(),scan.getFilter(),this,metricFactory);
@@ -273,18 +289,7 @@ public class MPartition implements Partition{
         DataCell s=new MCell(key,SIConstants.DEFAULT_FAMILY_BYTES,SIConstants.FK_COUNTER_COLUMN_BYTES,Long.MAX_VALUE,new byte[]{},CellType.FOREIGN_KEY_COUNTER);
         DataCell e=new MCell(key,SIConstants.DEFAULT_FAMILY_BYTES,SIConstants.FK_COUNTER_COLUMN_BYTES,0l,new byte[]{},CellType.FOREIGN_KEY_COUNTER);
 
-        NavigableSet<DataCell> dataCells=memstore.subSet(s,true,e,true);
-        List<DataCell> results=new ArrayList<>(dataCells.size());
-        DataCell lastResult=null;
-        for(DataCell dc : dataCells){
-            if(lastResult==null){
-                results.add(dc);
-                lastResult=dc;
-            }else if(!dc.matchesQualifier(lastResult.family(),lastResult.qualifier())){
-                results.add(dc);
-                lastResult=dc;
-            }
-        }
+        List<DataCell> results=latestVersions(s,e,null);
 //        if(results.size()<=0)
 //            results.add(new MCell(key,SIConstants.DEFAULT_FAMILY_BYTES,SIConstants.SNAPSHOT_ISOLATION_FK_COUNTER_COLUMN_BYTES,Long.MAX_VALUE,Bytes.toBytes(0l),CellType.FOREIGN_KEY_COUNTER));
         return new MResult(results);
@@ -296,28 +301,12 @@ public class MPartition implements Partition{
         DataCell s=new MCell(key,new byte[]{},new byte[]{},Long.MAX_VALUE,new byte[]{},CellType.USER_DATA);
         DataCell e=new MCell(key,SIConstants.DEFAULT_FAMILY_BYTES,SIConstants.FK_COUNTER_COLUMN_BYTES,0l,new byte[]{},CellType.USER_DATA);
 
-        NavigableSet<DataCell> dataCells=memstore.subSet(s,true,e,true);
-        List<DataCell> results=new ArrayList<>(dataCells.size());
-        DataCell lastResult=null;
-        for(DataCell dc : dataCells){
-            long version = dc.version();
-            if (obj != null) {
-                assert obj instanceof ConflictRollForward;
-                TxnSupplier txnSupplier = ((ConflictRollForward)obj).getTxnSupplier();
-                TxnView txn = txnSupplier.getTransaction(version);
-                if (txn != null && txn.getEffectiveState() == Txn.State.ROLLEDBACK) {
-                    continue;
-                }
-            }
-            if(lastResult==null){
-                results.add(dc);
-                lastResult=dc;
-            }else if(!dc.matchesQualifier(lastResult.family(),lastResult.qualifier())){
-                results.add(dc);
-                lastResult=dc;
-            }
+        TxnSupplier txnSupplier=null;
+        if (obj != null) {
+            assert obj instanceof ConflictRollForward;
+            txnSupplier = ((ConflictRollForward)obj).getTxnSupplier();
         }
-        return new MResult(results);
+        return new MResult(latestVersions(s,e,txnSupplier));
     }
 
     @Override
@@ -446,12 +435,31 @@ public class MPartition implements Partition{
 
     @Override
     public void compact(boolean isMajor) throws IOException{
-        //no-op--memory does not perform compactions
+        store.compact(isMajor);
     }
 
     @Override
     public void flush() throws IOException{
-        //no-op--memory does not perform flush
+        store.flush(true);
+    }
+
+    public long getMemStoreSize(){
+        return store.memstoreSize();
+    }
+
+    public long getStoreFileSize(){
+        return store.storeFileSize();
+    }
+
+    public int getStoreFileCount(){
+        return store.numStoreFiles();
+    }
+
+    /**
+     * @return the number of store file blocks read so far, the equivalent of HBase block cache accesses
+     */
+    public long getBlockReads(){
+        return store.blockReads();
     }
 
     /* ****************************************************************************************************************/
@@ -519,12 +527,9 @@ public class MPartition implements Partition{
         try{
             Iterable<DataCell> cells=mPut.cells();
             for(DataCell dc : cells){
-                if(memstore.contains(dc)){
-                    memstore.remove(dc);
-                }
                 DataCell clone=dc.getClone();
                 ((MCell)clone).sequence(seq);
-                memstore.add(clone);
+                store.add(clone);
             }
         }finally{
             lock.unlock();
@@ -537,7 +542,7 @@ public class MPartition implements Partition{
         try{
             Iterable<DataCell> exactCellsToDelete=mDelete.cells();
             for(DataCell dc : exactCellsToDelete){
-                memstore.remove(dc);
+                store.remove(dc);
             }
             //TODO -sf- make this also remove entire families and columns
         }finally{
@@ -545,40 +550,60 @@ public class MPartition implements Partition{
         }
     }
 
-    private NavigableSet<DataCell> getAscendingScanSet(DataScan scan){
-        NavigableSet<DataCell> dataCells;
-        if(memstore.size()<=0)
-            dataCells = EmptyNavigableSet.instance();
-        else{
-            byte[] startKey=scan.getStartKey();
-            byte[] stopKey=scan.getStopKey();
-            DataCell start;
-            DataCell stop;
-            if(startKey==null|| startKey.length==0) {
-                if(stopKey==null||stopKey.length==0){
-                    return memstore;
-                }else{
-                    start = memstore.first();
+    private Iterator<DataCell> scanIterator(DataScan scan){
+        byte[] startKey=scan.getStartKey();
+        byte[] stopKey=scan.getStopKey();
+        DataCell start=null;
+        DataCell stop=null;
+        if(startKey!=null && startKey.length>0)
+            start=new MCell(startKey,new byte[]{},new byte[]{},scan.highVersion(),new byte[]{},CellType.COMMIT_TIMESTAMP);
+        if(stopKey!=null && stopKey.length>0)
+            stop=new MCell(stopKey,SIConstants.DEFAULT_FAMILY_BYTES,SIConstants.FK_COUNTER_COLUMN_BYTES,scan.lowVersion(),new byte[]{},CellType.FOREIGN_KEY_COUNTER);
+
+        /*
+         * It is possible that the stop value compares to less than the start key, and that is a
+         * reasonable situation. In that case the store returns no cells.
+         */
+        return store.iterator(start,true,stop,false,scan.isDescendingScan());
+    }
+
+    /**
+     * @return the latest version of each column between {@code start} and {@code end}, skipping
+     * versions written by rolled back transactions when {@code txnSupplier} is not null. Rather
+     * than iterating over all the versions of a column, this seeks past a column once its latest
+     * version has been found.
+     */
+    private List<DataCell> latestVersions(DataCell start,DataCell end,TxnSupplier txnSupplier) throws IOException{
+        List<DataCell> results=new ArrayList<>();
+        DataCell from=start;
+        boolean fromInclusive=true;
+        while(true){
+            Iterator<DataCell> cells=store.iterator(from,fromInclusive,end,true,false);
+            DataCell latest=null;
+            while(cells.hasNext()){
+                DataCell dc=cells.next();
+                if(txnSupplier!=null){
+                    TxnView txn=txnSupplier.getTransaction(dc.version());
+                    if(txn!=null && txn.getEffectiveState()==Txn.State.ROLLEDBACK)
+                        continue;
                 }
-            }else
-                start=new MCell(startKey,new byte[]{},new byte[]{},scan.highVersion(),new byte[]{},CellType.COMMIT_TIMESTAMP);
-
-            if(stopKey==null||stopKey.length==0){
-                return memstore.tailSet(start,true);
-            }else
-                stop=new MCell(stopKey,SIConstants.DEFAULT_FAMILY_BYTES,SIConstants.FK_COUNTER_COLUMN_BYTES,scan.lowVersion(),new byte[]{},CellType.FOREIGN_KEY_COUNTER);
-
-            /*
-             * It is possible (particularly if the start key is null) that the stop value compares to less than
-             * the start key, and that is a reasonable situation. In that case, we know that the end results
-             * are empty, so bypass creating a new Set object in this case.
-             */
-            if(stop.compareTo(start)<0) return EmptyNavigableSet.instance();
-            dataCells=memstore.subSet(start,true,stop,false);
+                latest=dc;
+                break;
+            }
+            if(latest==null)
+                return results;
+            results.add(latest);
+            //versions sort in descending order, so this sorts after every version of the column
+            from=new MCell(latest.key(),latest.family(),latest.qualifier(),Long.MIN_VALUE,new byte[]{},latest.dataType());
+            fromInclusive=false;
         }
-        return dataCells;
     }
 
+    private static byte[] nextRow(byte[] key){
+        byte[] next=new byte[key.length+1];
+        System.arraycopy(key,0,next,0,key.length);
+        return next;
+    }
 
     private void filterByFamilies(List<DataCell> toReturn,Map<byte[], ? extends Set<byte[]>> familyQualifierMap){
         if(familyQualifierMap==null||familyQualifierMap.size()<=0) return;
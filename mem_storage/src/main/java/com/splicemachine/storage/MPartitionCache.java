@@ -18,6 +18,9 @@ import splice.com.google.common.cache.Cache;
 import splice.com.google.common.cache.CacheBuilder;
 import com.splicemachine.access.api.SConfiguration;
 import com.splicemachine.primitives.Bytes;
+import com.splicemachine.storage.util.PartitionInRangePredicate;
+import splice.com.google.common.collect.ImmutableList;
+import splice.com.google.common.collect.Iterables;
 
 import java.io.IOException;
 import java.util.List;
@@ -41,6 +44,24 @@ public class MPartitionCache implements PartitionInfoCache<String> {
             invalidate(Bytes.toString(tableName));
         }
 
+        @Override
+        public void invalidate(String tableName,byte[] rowKey) throws IOException{
+            invalidate(tableName);
+        }
+
+        @Override
+        public void invalidate(byte[] tableName,byte[] rowKey) throws IOException{
+            invalidate(tableName);
+        }
+
+        @Override
+        public List<Partition> getIfPresent(String tableName,byte[] startRow,byte[] stopRow) throws IOException{
+            List<Partition> partitions = partitionCache.getIfPresent(tableName);
+            if(partitions==null)
+                return null;
+            return ImmutableList.copyOf(Iterables.filter(partitions,new PartitionInRangePredicate(startRow,stopRow)));
+        }
+
         @Override
         public void configure(SConfiguration configuration){
         }
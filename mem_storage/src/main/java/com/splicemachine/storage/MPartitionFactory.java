@@ -37,10 +37,11 @@ import java.util.concurrent.Future;
  */
 public class MPartitionFactory implements PartitionFactory<Object>{
     private final Map<String, Partition> partitionMap=new ConcurrentHashMap<>();
+    private volatile SConfiguration configuration;
 
     @Override
     public void initialize(Clock clock,SConfiguration configuration,PartitionInfoCache partitionInfoCache) throws IOException{
-        //no-op
+        this.configuration=configuration;
     }
 
     @Override
@@ -117,7 +118,15 @@ public class MPartitionFactory implements PartitionFactory<Object>{
         @Override
         public Partition create() throws IOException{
             assert name!=null:"No name specified!";
-            final MPartition p=new MPartition(name,name);
+            final MPartition p;
+            SConfiguration config=configuration;
+            if(config==null)
+                p=new MPartition(name,name);
+            else
+                p=new MPartition(name,name,
+                        config.getMemStorageFlushSize(),
+                        config.getMemStorageBlockSize(),
+                        config.getMemStorageCompactionThreshold());
             partitionMap.put(name,p);
             return p;
         }
@@ -86,6 +86,19 @@ public class MScan implements DataScan{
         return descending;
     }
 
+    @Override
+    public DataScan copy(){
+        MScan copy = new MScan();
+        copy.startKey = startKey;
+        copy.stopKey = stopKey;
+        copy.filter = filter;
+        copy.attrs.putAll(attrs);
+        copy.highTs = highTs;
+        copy.lowTs = lowTs;
+        copy.descending = descending;
+        return copy;
+    }
+
     @Override
     public DataScan cacheRows(int rowsToCache){
         //there is no caching in the in-memory version
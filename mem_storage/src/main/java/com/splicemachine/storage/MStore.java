@@ -0,0 +1,316 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.storage;
+
+import splice.com.google.common.collect.AbstractIterator;
+import splice.com.google.common.collect.Iterators;
+import splice.com.google.common.collect.PeekingIterator;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The cells of an {@link MPartition}, organized like an HBase store: writes go to a sorted
+ * memstore, which is flushed into immutable {@link MStoreFile}s either explicitly or once it
+ * reaches the flush size, and store files are compacted into one once there are too many of them.
+ *
+ * Reads merge the memstore and the store files. When several of them hold the same cell, the
+ * most recently written one wins. Cells deleted after they were flushed are remembered until the
+ * next compaction rewrites their store file.
+ *
+ * With no flush size, and no explicit flushes, all cells stay in the memstore and reads go
+ * straight to it.
+ */
+@ThreadSafe
+class MStore{
+    private final long flushSize;
+    private final int blockSize;
+    private final int compactionThreshold;
+
+    /*
+     * Writers share the read lock, so that flushes and compactions, which take the write lock,
+     * never miss a concurrent write. Readers take no lock, they just read the current state.
+     */
+    private final ReentrantReadWriteLock lock=new ReentrantReadWriteLock();
+    private volatile State state=new State(new ConcurrentSkipListSet<DataCell>(),Collections.<MStoreFile>emptyList());
+    private final ConcurrentSkipListSet<DataCell> deletedFromFiles=new ConcurrentSkipListSet<>();
+    private final AtomicLong memstoreSize=new AtomicLong(0l);
+    private final AtomicLong retiredBlockReads=new AtomicLong(0l);
+    private final AtomicLong flushCount=new AtomicLong(0l);
+    private final AtomicLong compactionCount=new AtomicLong(0l);
+
+    /**
+     * @param flushSize the memstore size, in bytes, that triggers a flush, or 0 to only flush explicitly
+     * @param blockSize the size, in bytes, of the blocks of a store file
+     * @param compactionThreshold the number of store files that triggers a compaction, or 0 to only compact explicitly
+     */
+    MStore(long flushSize,int blockSize,int compactionThreshold){
+        this.flushSize=flushSize;
+        this.blockSize=blockSize;
+        this.compactionThreshold=compactionThreshold;
+    }
+
+    /**
+     * Write {@code cell}, replacing any equal cell.
+     */
+    void add(DataCell cell){
+        lock.readLock().lock();
+        try{
+            State s=state;
+            if(s.memstore.remove(cell))
+                memstoreSize.addAndGet(-cell.encodedLength());
+            s.memstore.add(cell);
+            memstoreSize.addAndGet(cell.encodedLength());
+            if(!s.files.isEmpty())
+                deletedFromFiles.remove(cell);
+        }finally{
+            lock.readLock().unlock();
+        }
+        if(flushSize>0 && memstoreSize.get()>=flushSize)
+            flush(false);
+    }
+
+    /**
+     * Delete the cell equal to {@code cell}, if there is one.
+     */
+    void remove(DataCell cell){
+        lock.readLock().lock();
+        try{
+            State s=state;
+            if(s.memstore.remove(cell))
+                memstoreSize.addAndGet(-cell.encodedLength());
+            for(MStoreFile file : s.files){
+                if(file.contains(cell)){
+                    deletedFromFiles.add(cell);
+                    break;
+                }
+            }
+        }finally{
+            lock.readLock().unlock();
+        }
+    }
+
+    boolean isEmpty(){
+        State s=state;
+        if(!s.memstore.isEmpty()) return false;
+        return !iterator(null,true,null,true,false).hasNext();
+    }
+
+    /**
+     * @return the cells between {@code from} and {@code to}, either of which may be null for an
+     * unbounded range, in ascending or descending order. The iterator reflects the cells as of its
+     * creation, plus possibly some later writes to the memstore.
+     */
+    Iterator<DataCell> iterator(DataCell from,boolean fromInclusive,DataCell to,boolean toInclusive,boolean descending){
+        if(from!=null && to!=null && from.compareTo(to)>0)
+            return Collections.emptyIterator();
+        State s=state;
+        Iterator<DataCell> memstoreCells=memstoreRange(s.memstore,from,fromInclusive,to,toInclusive,descending);
+        if(s.files.isEmpty())
+            return memstoreCells;
+        List<Iterator<DataCell>> sources=new ArrayList<>(s.files.size()+1);
+        sources.add(memstoreCells);
+        for(MStoreFile file : s.files){
+            sources.add(file.iterator(from,fromInclusive,to,toInclusive,descending));
+        }
+        return new MergingIterator(sources,descending,1);
+    }
+
+    /**
+     * Flush the memstore into a new store file.
+     *
+     * @param force whether to flush even if the memstore has not reached the flush size
+     */
+    void flush(boolean force){
+        boolean compact;
+        lock.writeLock().lock();
+        try{
+            State s=state;
+            if(s.memstore.isEmpty() || (!force && memstoreSize.get()<flushSize))
+                return;
+            List<MStoreFile> files=new ArrayList<>(s.files.size()+1);
+            files.add(new MStoreFile(s.memstore,blockSize));
+            files.addAll(s.files);
+            state=new State(new ConcurrentSkipListSet<DataCell>(),files);
+            memstoreSize.set(0l);
+            flushCount.incrementAndGet();
+            compact=compactionThreshold>0 && files.size()>=compactionThreshold;
+        }finally{
+            lock.writeLock().unlock();
+        }
+        if(compact)
+            compact(false);
+    }
+
+    /**
+     * Rewrite the store files as a single file without the cells deleted since they were written.
+     *
+     * @param major whether to rewrite a single store file
+     */
+    void compact(boolean major){
+        lock.writeLock().lock();
+        try{
+            State s=state;
+            if(s.files.isEmpty() || (s.files.size()==1 && (!major || deletedFromFiles.isEmpty())))
+                return;
+            List<Iterator<DataCell>> sources=new ArrayList<>(s.files.size());
+            long blockReads=0l;
+            for(MStoreFile file : s.files){
+                sources.add(file.iterator(null,true,null,true,false));
+                blockReads+=file.blockReads();
+            }
+            List<DataCell> cells=new ArrayList<>();
+            Iterators.addAll(cells,new MergingIterator(sources,false,0));
+            // writers are excluded, so every remembered deletion refers to a rewritten file
+            deletedFromFiles.clear();
+            retiredBlockReads.addAndGet(blockReads);
+            List<MStoreFile> files=cells.isEmpty()
+                    ?Collections.<MStoreFile>emptyList()
+                    :Collections.singletonList(new MStoreFile(cells,blockSize));
+            state=new State(s.memstore,files);
+            compactionCount.incrementAndGet();
+        }finally{
+            lock.writeLock().unlock();
+        }
+    }
+
+    long memstoreSize(){
+        return memstoreSize.get();
+    }
+
+    long storeFileSize(){
+        long size=0l;
+        for(MStoreFile file : state.files){
+            size+=file.size();
+        }
+        return size;
+    }
+
+    int numStoreFiles(){
+        return state.files.size();
+    }
+
+    long blockReads(){
+        long reads=retiredBlockReads.get();
+        for(MStoreFile file : state.files){
+            reads+=file.blockReads();
+        }
+        return reads;
+    }
+
+    long flushCount(){
+        return flushCount.get();
+    }
+
+    long compactionCount(){
+        return compactionCount.get();
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+    private static Iterator<DataCell> memstoreRange(NavigableSet<DataCell> memstore,
+                                                    DataCell from,boolean fromInclusive,
+                                                    DataCell to,boolean toInclusive,
+                                                    boolean descending){
+        NavigableSet<DataCell> range;
+        if(from!=null && to!=null){
+            range=memstore.subSet(from,fromInclusive,to,toInclusive);
+        }else if(from!=null){
+            range=memstore.tailSet(from,fromInclusive);
+        }else if(to!=null){
+            range=memstore.headSet(to,toInclusive);
+        }else{
+            range=memstore;
+        }
+        return descending?range.descendingIterator():range.iterator();
+    }
+
+    private static class State{
+        final ConcurrentSkipListSet<DataCell> memstore;
+        // newest first
+        final List<MStoreFile> files;
+
+        State(ConcurrentSkipListSet<DataCell> memstore,List<MStoreFile> files){
+            this.memstore=memstore;
+            this.files=files;
+        }
+    }
+
+    /**
+     * Merges sorted sources, ordered from newest to oldest, returning only the newest of equal cells
+     * and hiding the cells deleted from the sources that are store files.
+     */
+    private class MergingIterator extends AbstractIterator<DataCell>{
+        private final PriorityQueue<Source> queue;
+        private final int firstFile;
+
+        MergingIterator(List<Iterator<DataCell>> sources,final boolean descending,int firstFile){
+            this.firstFile=firstFile;
+            this.queue=new PriorityQueue<>(Math.max(1,sources.size()),new Comparator<Source>(){
+                @Override
+                public int compare(Source o1,Source o2){
+                    int c=o1.cells.peek().compareTo(o2.cells.peek());
+                    if(descending) c=-c;
+                    return c!=0?c:Integer.compare(o1.rank,o2.rank);
+                }
+            });
+            for(int i=0;i<sources.size();i++){
+                Iterator<DataCell> cells=sources.get(i);
+                if(cells.hasNext())
+                    queue.add(new Source(Iterators.peekingIterator(cells),i));
+            }
+        }
+
+        @Override
+        protected DataCell computeNext(){
+            while(!queue.isEmpty()){
+                Source source=queue.poll();
+                DataCell cell=source.cells.next();
+                if(source.cells.hasNext())
+                    queue.add(source);
+                // skip older copies of the same cell
+                while(!queue.isEmpty() && queue.peek().cells.peek().compareTo(cell)==0){
+                    Source older=queue.poll();
+                    older.cells.next();
+                    if(older.cells.hasNext())
+                        queue.add(older);
+                }
+                if(source.rank>=firstFile && !deletedFromFiles.isEmpty() && deletedFromFiles.contains(cell))
+                    continue;
+                return cell;
+            }
+            return endOfData();
+        }
+    }
+
+    private static class Source{
+        final PeekingIterator<DataCell> cells;
+        final int rank;
+
+        Source(PeekingIterator<DataCell> cells,int rank){
+            this.cells=cells;
+            this.rank=rank;
+        }
+    }
+}
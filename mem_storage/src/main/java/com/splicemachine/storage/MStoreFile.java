@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.storage;
+
+import javax.annotation.concurrent.Immutable;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An immutable, sorted run of cells produced by flushing or compacting the memstore of an
+ * {@link MPartition}, modeled after an HBase store file.
+ *
+ * The cells are divided into blocks of roughly the configured size, and a block index holding the
+ * first cell of each block is used to seek: first to the block that may contain a cell, then
+ * within that block. Every block an iterator enters counts as a block read.
+ */
+@Immutable
+class MStoreFile{
+    private final DataCell[] cells;
+    private final int[] blockStarts;
+    private final DataCell[] blockIndex;
+    private final long size;
+    private final AtomicLong blockReads=new AtomicLong(0l);
+
+    /**
+     * @param sortedCells the cells of the file, in ascending order and without duplicates
+     * @param blockSize the target size of a block, in bytes
+     */
+    MStoreFile(Collection<DataCell> sortedCells,int blockSize){
+        this.cells=sortedCells.toArray(new DataCell[sortedCells.size()]);
+        int[] starts=new int[Math.max(1,cells.length)];
+        int numBlocks=0;
+        long blockBytes=0l;
+        long totalBytes=0l;
+        for(int i=0;i<cells.length;i++){
+            if(i==0 || blockBytes>=blockSize){
+                starts[numBlocks++]=i;
+                blockBytes=0l;
+            }
+            int cellSize=cells[i].encodedLength();
+            blockBytes+=cellSize;
+            totalBytes+=cellSize;
+        }
+        this.blockStarts=Arrays.copyOf(starts,numBlocks);
+        this.blockIndex=new DataCell[numBlocks];
+        for(int i=0;i<numBlocks;i++){
+            blockIndex[i]=cells[blockStarts[i]];
+        }
+        this.size=totalBytes;
+    }
+
+    int numCells(){
+        return cells.length;
+    }
+
+    int numBlocks(){
+        return blockStarts.length;
+    }
+
+    long size(){
+        return size;
+    }
+
+    long blockReads(){
+        return blockReads.get();
+    }
+
+    boolean contains(DataCell cell){
+        int pos=seek(cell);
+        return pos<cells.length && cells[pos].compareTo(cell)==0;
+    }
+
+    /**
+     * @return the cells between {@code from} and {@code to}, either of which may be null for an
+     * unbounded range, in ascending or descending order
+     */
+    Iterator<DataCell> iterator(DataCell from,boolean fromInclusive,DataCell to,boolean toInclusive,boolean descending){
+        int start=0;
+        if(from!=null){
+            start=seek(from);
+            if(!fromInclusive && start<cells.length && cells[start].compareTo(from)==0)
+                start++;
+        }
+        int stop=cells.length;
+        if(to!=null){
+            stop=seek(to);
+            if(toInclusive && stop<cells.length && cells[stop].compareTo(to)==0)
+                stop++;
+        }
+        if(stop<=start)
+            return new BlockIterator(0,0,false);
+        return new BlockIterator(start,stop,descending);
+    }
+
+    /**
+     * @return the position of the first cell that is greater than or equal to {@code cell}
+     */
+    private int seek(DataCell cell){
+        if(cells.length==0) return 0;
+        int block=Arrays.binarySearch(blockIndex,cell);
+        if(block>=0)
+            return blockStarts[block];
+        // the cell falls before the first cell of block (-block-1), so into the block before it
+        block=-block-2;
+        if(block<0)
+            return 0;
+        int blockEnd=block+1<blockStarts.length?blockStarts[block+1]:cells.length;
+        int pos=Arrays.binarySearch(cells,blockStarts[block],blockEnd,cell);
+        return pos>=0?pos:-pos-1;
+    }
+
+    private int blockOf(int pos){
+        int block=Arrays.binarySearch(blockStarts,pos);
+        return block>=0?block:-block-2;
+    }
+
+    private class BlockIterator implements Iterator<DataCell>{
+        private final int start;
+        private final int stop;
+        private final boolean descending;
+        private int next;
+        private int currentBlock=-1;
+
+        BlockIterator(int start,int stop,boolean descending){
+            this.start=start;
+            this.stop=stop;
+            this.descending=descending;
+            this.next=descending?stop-1:start;
+        }
+
+        @Override
+        public boolean hasNext(){
+            return descending?next>=start:next<stop;
+        }
+
+        @Override
+        public DataCell next(){
+            if(!hasNext()) throw new NoSuchElementException();
+            int pos=descending?next--:next++;
+            if(currentBlock<0
+                    || (!descending && currentBlock+1<blockStarts.length && pos>=blockStarts[currentBlock+1])
+                    || (descending && pos<blockStarts[currentBlock])){
+                currentBlock=blockOf(pos);
+                blockReads.incrementAndGet();
+            }
+            return cells[pos];
+        }
+
+        @Override
+        public void remove(){
+            throw new UnsupportedOperationException("Store files are immutable");
+        }
+    }
+}
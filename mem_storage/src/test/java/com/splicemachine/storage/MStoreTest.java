@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.storage;
+
+import com.splicemachine.primitives.Bytes;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class MStoreTest{
+    private static final byte[] FAMILY=Bytes.toBytes("V");
+    private static final byte[] QUALIFIER=Bytes.toBytes("7");
+
+    private static DataCell cell(String key,long version,String value){
+        return new MCell(Bytes.toBytes(key),FAMILY,QUALIFIER,version,Bytes.toBytes(value),CellType.USER_DATA);
+    }
+
+    private static List<String> values(Iterator<DataCell> cells){
+        List<String> values=new ArrayList<>();
+        while(cells.hasNext()){
+            DataCell dc=cells.next();
+            values.add(Bytes.toString(dc.key())+"@"+dc.version()+"="+Bytes.toString(dc.value()));
+        }
+        return values;
+    }
+
+    private static List<String> all(MStore store,boolean descending){
+        return values(store.iterator(null,true,null,true,descending));
+    }
+
+    @Test
+    public void readsMergeMemstoreAndStoreFiles() throws Exception{
+        MStore store=new MStore(0l,64,0);
+        store.add(cell("a",1,"a1"));
+        store.add(cell("c",1,"c1"));
+        store.flush(true);
+        store.add(cell("b",1,"b1"));
+        store.add(cell("a",2,"a2"));
+
+        assertEquals(1,store.numStoreFiles());
+        assertEquals("[a@2=a2, a@1=a1, b@1=b1, c@1=c1]",all(store,false).toString());
+        assertEquals("[c@1=c1, b@1=b1, a@1=a1, a@2=a2]",all(store,true).toString());
+    }
+
+    @Test
+    public void rangesAreBoundedAcrossBlocks() throws Exception{
+        MStore store=new MStore(0l,16,0);
+        for(char c='a';c<='z';c++){
+            store.add(cell(String.valueOf(c),1,"v"));
+        }
+        store.flush(true);
+
+        Iterator<DataCell> range=store.iterator(cell("d",Long.MAX_VALUE,""),true,cell("g",Long.MAX_VALUE,""),false,false);
+        assertEquals("[d@1=v, e@1=v, f@1=v]",values(range).toString());
+        assertTrue(store.blockReads()>0);
+        assertFalse(store.iterator(cell("g",1,""),true,cell("d",1,""),true,false).hasNext());
+    }
+
+    @Test
+    public void newestCopyOfACellWins() throws Exception{
+        MStore store=new MStore(0l,64,0);
+        store.add(cell("a",1,"old"));
+        store.flush(true);
+        store.add(cell("a",1,"new"));
+
+        assertEquals("[a@1=new]",all(store,false).toString());
+    }
+
+    @Test
+    public void deletesHideFlushedCellsUntilCompacted() throws Exception{
+        MStore store=new MStore(0l,64,0);
+        store.add(cell("a",1,"a1"));
+        store.add(cell("b",1,"b1"));
+        store.flush(true);
+        store.remove(cell("a",1,""));
+        assertEquals("[b@1=b1]",all(store,false).toString());
+
+        store.add(cell("a",1,"again"));
+        assertEquals("[a@1=again, b@1=b1]",all(store,false).toString());
+
+        store.remove(cell("a",1,""));
+        store.compact(true);
+        assertEquals(1,store.numStoreFiles());
+        assertEquals("[b@1=b1]",all(store,false).toString());
+
+        store.remove(cell("b",1,""));
+        store.compact(true);
+        assertEquals(0,store.numStoreFiles());
+        assertTrue(store.isEmpty());
+    }
+
+    @Test
+    public void flushesAndCompactsAutomatically() throws Exception{
+        MStore store=new MStore(100l,64,3);
+        for(int i=0;i<100;i++){
+            store.add(cell(String.format("%03d",i),1,"value"));
+        }
+
+        assertTrue(store.flushCount()>0);
+        assertTrue(store.compactionCount()>0);
+        assertTrue(store.numStoreFiles()<3);
+        assertTrue(store.memstoreSize()<100);
+        assertEquals(100,all(store,false).size());
+    }
+}
@@ -41,6 +41,8 @@ public abstract class PipelineEnvironmentLoadService implements DatabaseLifecycl
 
     @Override
     public void shutdown() throws Exception{
+        if(pipelineEnv!=null)
+            pipelineEnv.getPipelineDriver().splitAdvisor().shutdown();
     }
 
     protected abstract PipelineEnvironment loadPipelineEnvironment(ContextFactoryDriver cfDriver) throws IOException;
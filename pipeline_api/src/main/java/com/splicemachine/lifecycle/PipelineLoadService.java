@@ -26,6 +26,7 @@ import com.splicemachine.pipeline.utils.PipelineCompressor;
 import com.splicemachine.si.api.server.TransactionalRegion;
 import com.splicemachine.si.impl.driver.SIDriver;
 import com.splicemachine.storage.Partition;
+import com.splicemachine.storage.PartitionKeySampler;
 import javax.management.MBeanServer;
 import java.io.IOException;
 
@@ -73,7 +74,8 @@ public abstract class PipelineLoadService<TableNameInfo> implements DatabaseLife
                 basePartition,
                 factory,
                 txnRegion,
-                pipelineDriver.meter(),pipelineDriver.exceptionFactory());
+                pipelineDriver.meter(),pipelineDriver.exceptionFactory(),
+                SplitAdvisor.isEnabled(pipelineEnv.configuration())?PartitionKeySampler.register(basePartition):null);
         pipelineDriver.registerPipeline(basePartition.getName(),writePipeline);
     }
 
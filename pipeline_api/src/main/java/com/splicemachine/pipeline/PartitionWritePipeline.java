@@ -32,6 +32,7 @@ import com.splicemachine.pipeline.writehandler.SharedCallBufferFactory;
 import com.splicemachine.si.api.server.TransactionalRegion;
 import com.splicemachine.si.api.txn.TxnView;
 import com.splicemachine.storage.Partition;
+import com.splicemachine.storage.PartitionKeySampler;
 
 import java.io.IOException;
 import java.util.Collection;
@@ -55,6 +56,7 @@ public class PartitionWritePipeline{
     private final PipelineMeter pipelineMeters;
     private final ServerControl rce;
     private final PipelineExceptionFactory exceptionFactory;
+    private final PartitionKeySampler keySampler;
 
     public PartitionWritePipeline(ServerControl rce,
                                   Partition region,
@@ -62,6 +64,21 @@ public class PartitionWritePipeline{
                                   TransactionalRegion txnRegion,
                                   PipelineMeter pipelineMeters,
                                   PipelineExceptionFactory exceptionFactory){
+        this(rce,region,ctxFactory,txnRegion,pipelineMeters,exceptionFactory,null);
+    }
+
+    /**
+     * @param keySampler the sampler the written row keys are recorded into for the {@link SplitAdvisor}, or null
+     *                   if they should not be sampled
+     */
+    public PartitionWritePipeline(ServerControl rce,
+                                  Partition region,
+                                  WriteContextFactory<TransactionalRegion> ctxFactory,
+                                  TransactionalRegion txnRegion,
+                                  PipelineMeter pipelineMeters,
+                                  PipelineExceptionFactory exceptionFactory,
+                                  PartitionKeySampler keySampler){
+        this.keySampler=keySampler;
         this.rce=rce;
         this.region=region;
         this.ctxFactory=ctxFactory;
@@ -75,6 +92,8 @@ public class PartitionWritePipeline{
     }
 
     public void close(){
+        if(keySampler!=null)
+            PartitionKeySampler.deregister(region);
         ctxFactory.close();
         txnRegion.close();
     }
@@ -108,6 +127,8 @@ public class PartitionWritePipeline{
         }
         Collection<KVPair> kvPairs=toWrite.getMutations();
         for(KVPair kvPair : kvPairs){
+            if(keySampler!=null)
+                keySampler.recordWrite(kvPair.getRowKey());
             context.sendUpstream(kvPair);
         }
         return new BulkWriteResult(context,WriteResult.success());
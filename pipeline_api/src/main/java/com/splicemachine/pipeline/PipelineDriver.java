@@ -38,6 +38,7 @@ import com.splicemachine.pipeline.security.AclChecker;
 import com.splicemachine.pipeline.traffic.AtomicSpliceWriteControl;
 import com.splicemachine.pipeline.traffic.SpliceWriteControl;
 import com.splicemachine.pipeline.traffic.SynchronousWriteControl;
+import com.splicemachine.pipeline.utils.PipelineCompressionManagement;
 import com.splicemachine.pipeline.utils.PipelineCompressor;
 
 /**
@@ -58,6 +59,7 @@ public class PipelineDriver{
     private final PipelineExceptionFactory pef;
     private final ContextFactoryDriver ctxFactoryDriver;
     private final AtomicBoolean jmxRegistered = new AtomicBoolean(false);
+    private final SplitAdvisor splitAdvisor;
 
     public static void loadDriver(PipelineEnvironment env){
         SConfiguration config = env.configuration();
@@ -95,6 +97,7 @@ public class PipelineDriver{
                 config.getMaxIndependentWrites(),
                 config.getMaxDependentWrites());
         this.pipelineWriter = new PipelineWriter(pef, writePipelineFactory,writeControl,pipelineMeter);
+        this.splitAdvisor = new SplitAdvisor(config,partitionFactory,clock);
         channelFactory.setWriter(pipelineWriter);
         channelFactory.setPipeline(writePipelineFactory);
         try{
@@ -117,6 +120,10 @@ public class PipelineDriver{
         return pipelineMeter;
     }
 
+    public SpliceWriteControl writeControl(){
+        return writeControl;
+    }
+
     public WriteCoordinator writeCoordinator(){
         return writeCoordinator;
     }
@@ -133,11 +140,23 @@ public class PipelineDriver{
         if(jmxRegistered.compareAndSet(false,true)){
             ObjectName coordinatorName=new ObjectName("com.splicemachine.derby.hbase:type=ActiveWriteHandlers");
             mbs.registerMBean(handlerMeter,coordinatorName);
+            ObjectName splitAdvisorName=new ObjectName("com.splicemachine.pipeline:type=SplitAdvisor");
+            mbs.registerMBean(splitAdvisor,splitAdvisorName);
+            if(compressor instanceof PipelineCompressionManagement){
+                ObjectName compressionName=new ObjectName("com.splicemachine.pipeline:type=PipelineCompression");
+                mbs.registerMBean(compressor,compressionName);
+            }
         }
     }
 
     public void registerPipeline(String name,PartitionWritePipeline writePipeline){
         writePipelineFactory.registerPipeline(name,writePipeline);
+        //only servers host partitions, so this is where hot partitions can be found
+        splitAdvisor.start();
+    }
+
+    public SplitAdvisor splitAdvisor(){
+        return splitAdvisor;
     }
 
     public void deregisterPipeline(String partitionName){
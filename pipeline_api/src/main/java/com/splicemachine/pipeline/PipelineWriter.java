@@ -25,6 +25,9 @@ import com.splicemachine.pipeline.client.*;
 import com.splicemachine.pipeline.exception.IndexNotSetUpException;
 import com.splicemachine.pipeline.traffic.SpliceWriteControl;
 import com.splicemachine.pipeline.writehandler.SharedCallBufferFactory;
+import com.splicemachine.si.api.txn.Txn;
+import com.splicemachine.si.api.txn.TxnStore;
+import com.splicemachine.si.impl.driver.SIDriver;
 import com.splicemachine.utils.Pair;
 import org.apache.log4j.Logger;
 import splice.com.google.common.primitives.Ints;
@@ -73,6 +76,20 @@ public class PipelineWriter{
             throw exceptionFactory.doNotRetry("Should Never Send Empty Call to Endpoint");
         }
 
+        /*
+         * Record the transactions whose registration was deferred to their first write before anything else,
+         * even if the writes end up rejected: the client takes a response as proof they are recorded. This
+         * request may be a late or repeated delivery, by which time the transaction may be committed, so
+         * only record those which are not on the transaction table yet.
+         */
+        List<Txn> registrations = bulkWrites.getRegistrations();
+        if (registrations!=null) {
+            TxnStore txnStore = SIDriver.driver().getTxnStore();
+            for (Txn registration : registrations) {
+                txnStore.recordNewTransactionIfAbsent(registration);
+            }
+        }
+
         // Determine whether or not this write is dependent or independent.  Dependent writes are writes to a table with indexes.
         boolean dependent;
         try {
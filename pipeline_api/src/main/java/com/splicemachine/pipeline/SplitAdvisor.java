@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.pipeline;
+
+import com.splicemachine.access.api.PartitionAdmin;
+import com.splicemachine.access.api.PartitionFactory;
+import com.splicemachine.access.api.SConfiguration;
+import com.splicemachine.access.util.ByteComparisons;
+import com.splicemachine.concurrent.Clock;
+import com.splicemachine.concurrent.MoreExecutors;
+import com.splicemachine.primitives.Bytes;
+import com.splicemachine.storage.Partition;
+import com.splicemachine.storage.PartitionKeySampler;
+import com.splicemachine.utils.SpliceLogUtils;
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Looks for regions of this server which stay hot, based on the write and read keys sampled for them by
+ * {@link PartitionKeySampler}s, and splits them at their sampled median key.
+ *
+ * A split only helps when the load is spread over the keys of the region. When one key gets most of the
+ * samples, or when writes keep landing past the largest key seen so far (monotonically increasing keys),
+ * the hotspot would follow the split, so salting the table's keys is recommended instead. Splits are
+ * throttled per server, and every decision is kept so that it can be looked at through JMX.
+ */
+public class SplitAdvisor implements SplitAdvisorManagement{
+    private static final Logger LOG=Logger.getLogger(SplitAdvisor.class);
+    private static final int MAX_DECISIONS = 100;
+    /* the fraction of writes past the previous maximum key above which keys are considered increasing */
+    private static final double MONOTONIC_FRACTION = 0.9d;
+    /* the minimum number of sampled writes needed to tell whether keys are increasing */
+    private static final int MIN_MONOTONIC_SAMPLES = 16;
+
+    private final SConfiguration config;
+    private final PartitionFactory partitionFactory;
+    private final Clock clock;
+    private final Map<String, RegionState> regionStates = new HashMap<>();
+    private final LinkedList<SplitDecision> decisions = new LinkedList<>();
+    private final AtomicLong splitsRequested = new AtomicLong(0L);
+    private long lastSplitTime = Long.MIN_VALUE;
+    private ScheduledExecutorService executor;
+
+    public SplitAdvisor(SConfiguration config,PartitionFactory partitionFactory,Clock clock){
+        this.config=config;
+        this.partitionFactory=partitionFactory;
+        this.clock=clock;
+    }
+
+    public static boolean isEnabled(SConfiguration config){
+        return config.getSplitAdvisorInterval()>0;
+    }
+
+    public synchronized void start(){
+        if(executor!=null || !isEnabled(config))
+            return;
+        long interval = config.getSplitAdvisorInterval();
+        executor = MoreExecutors.namedSingleThreadScheduledExecutor("split-advisor-%d");
+        executor.scheduleWithFixedDelay(new Runnable(){
+            @Override
+            public void run(){
+                try{
+                    advise();
+                }catch(Throwable t){
+                    SpliceLogUtils.error(LOG,"Unexpected error looking for hot regions",t);
+                }
+            }
+        },interval,interval,TimeUnit.SECONDS);
+    }
+
+    public synchronized void shutdown(){
+        if(executor!=null){
+            executor.shutdownNow();
+            executor=null;
+        }
+    }
+
+    @Override
+    public List<SplitDecision> getRecentDecisions(){
+        synchronized(decisions){
+            return new ArrayList<>(decisions);
+        }
+    }
+
+    @Override
+    public long getSplitsRequested(){
+        return splitsRequested.get();
+    }
+
+    void advise(){
+        Set<String> seen = new HashSet<>();
+        for(PartitionKeySampler sampler:PartitionKeySampler.registered()){
+            Partition partition = sampler.getPartition();
+            seen.add(partition.getEncodedName());
+            PartitionKeySampler.Sample sample = sampler.roll();
+            SplitDecision decision = evaluate(partition,sample,clock.currentTimeMillis());
+            if(decision==null)
+                continue;
+            if(SplitDecision.Action.SPLIT.name().equals(decision.getAction()))
+                decision = split(partition,decision);
+            record(decision);
+        }
+        regionStates.keySet().retainAll(seen);
+    }
+
+    /**
+     * @return the decision to take about the partition given what was sampled for it, or null if it is not hot
+     */
+    SplitDecision evaluate(Partition partition,PartitionKeySampler.Sample sample,long now){
+        if(sample.getDurationMillis()<=0)
+            return null;
+        RegionState state = regionStates.get(partition.getEncodedName());
+        if(state==null){
+            state = new RegionState();
+            regionStates.put(partition.getEncodedName(),state);
+        }
+        List<byte[]> writeKeys = sample.getWriteKeys();
+        boolean monotonic = isMonotonic(state.maxWriteKey,writeKeys);
+        if(!writeKeys.isEmpty())
+            state.maxWriteKey = writeKeys.get(writeKeys.size()-1);
+
+        double writesPerSecond = sample.getWriteCount()*1000d/sample.getDurationMillis();
+        double readsPerSecond = sample.getReadCount()*1000d/sample.getDurationMillis();
+        if(writesPerSecond+readsPerSecond<config.getSplitAdvisorHotRegionThreshold()){
+            state.hotIntervals = 0;
+            return null;
+        }
+        if(++state.hotIntervals<config.getSplitAdvisorSustainedIntervals())
+            return null;
+        state.hotIntervals = 0;
+
+        SplitDecision.Action action;
+        String reason;
+        byte[] splitKey = null;
+        List<byte[]> keys = sample.getWriteCount()>=sample.getReadCount()?writeKeys:sample.getReadKeys();
+        if(monotonic){
+            action = SplitDecision.Action.RECOMMEND_SALTING;
+            reason = "writes keep going past the largest key seen so far, a split would only move the hotspot";
+        }else if(keys.isEmpty()){
+            return null;
+        }else{
+            byte[] median = keys.get(keys.size()/2);
+            if(!isValidSplitKey(partition,median) || isDominant(median,keys)){
+                action = SplitDecision.Action.RECOMMEND_SALTING;
+                reason = "most of the load goes to a single key, a split cannot spread it";
+            }else{
+                splitKey = median;
+                if(!config.getSplitAdvisorAutoSplit()){
+                    action = SplitDecision.Action.RECOMMEND_SPLIT;
+                    reason = "automatic splits are disabled";
+                }else if(lastSplitTime!=Long.MIN_VALUE && now-lastSplitTime<config.getSplitAdvisorMinSplitInterval()){
+                    action = SplitDecision.Action.THROTTLED;
+                    reason = "another split was requested "+(now-lastSplitTime)+" ms ago";
+                }else{
+                    lastSplitTime = now;
+                    action = SplitDecision.Action.SPLIT;
+                    reason = "hot for "+config.getSplitAdvisorSustainedIntervals()+" consecutive intervals";
+                }
+            }
+        }
+        SplitDecision decision = new SplitDecision(now,partition.getTableName(),partition.getName(),action.name(),
+                writesPerSecond,readsPerSecond,splitKey==null?null:Bytes.toStringBinary(splitKey),reason);
+        decision.rawSplitKey = splitKey;
+        return decision;
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+    private SplitDecision split(Partition partition,SplitDecision decision){
+        try(PartitionAdmin admin = partitionFactory.getAdmin()){
+            admin.splitRegion(Bytes.toBytes(partition.getName()),decision.rawSplitKey);
+            splitsRequested.incrementAndGet();
+            SpliceLogUtils.info(LOG,"Splitting hot region %s at %s",partition.getName(),decision.getSplitKey());
+            return decision;
+        }catch(IOException e){
+            SpliceLogUtils.warn(LOG,"Unable to split hot region "+partition.getName(),e);
+            return decision.withFailure(e.getMessage());
+        }
+    }
+
+    private void record(SplitDecision decision){
+        if(LOG.isDebugEnabled())
+            SpliceLogUtils.debug(LOG,"Split advisor decision: %s",decision);
+        synchronized(decisions){
+            decisions.addFirst(decision);
+            if(decisions.size()>MAX_DECISIONS)
+                decisions.removeLast();
+        }
+    }
+
+    private static boolean isMonotonic(byte[] previousMax,List<byte[]> sortedKeys){
+        if(previousMax==null || sortedKeys.size()<MIN_MONOTONIC_SAMPLES)
+            return false;
+        int past = 0;
+        for(byte[] key:sortedKeys){
+            if(ByteComparisons.comparator().compare(key,previousMax)>0)
+                past++;
+        }
+        return past>=MONOTONIC_FRACTION*sortedKeys.size();
+    }
+
+    private static boolean isValidSplitKey(Partition partition,byte[] key){
+        byte[] start = partition.getStartKey();
+        byte[] end = partition.getEndKey();
+        return ByteComparisons.comparator().compare(key,start)>0
+                && (end.length==0 || ByteComparisons.comparator().compare(key,end)<0);
+    }
+
+    private static boolean isDominant(byte[] key,List<byte[]> keys){
+        int equal = 0;
+        for(byte[] k:keys){
+            if(ByteComparisons.comparator().compare(k,key)==0)
+                equal++;
+        }
+        return equal*2>keys.size();
+    }
+
+    private static class RegionState{
+        private int hotIntervals;
+        private byte[] maxWriteKey;
+    }
+}
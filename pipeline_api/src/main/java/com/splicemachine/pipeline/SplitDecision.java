@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.pipeline;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * A decision taken by the {@link SplitAdvisor} about a region found to be hot.
+ */
+public class SplitDecision{
+    public enum Action{
+        /** The region was split at the sampled median key */
+        SPLIT,
+        /** The region should be split at the sampled median key, but automatic splits are disabled */
+        RECOMMEND_SPLIT,
+        /** The region should be split, but another split was requested too recently */
+        THROTTLED,
+        /** Splitting would not spread the load, the table's keys should be salted instead */
+        RECOMMEND_SALTING,
+        /** The split was requested, but failed */
+        FAILED
+    }
+
+    private final long timestamp;
+    private final String tableName;
+    private final String regionName;
+    private final String action;
+    private final double writesPerSecond;
+    private final double readsPerSecond;
+    private final String splitKey;
+    private final String reason;
+    /* the split key itself, which is not exposed through JMX */
+    byte[] rawSplitKey;
+
+    @ConstructorProperties({"timestamp","tableName","regionName","action","writesPerSecond","readsPerSecond","splitKey","reason"})
+    public SplitDecision(long timestamp,String tableName,String regionName,String action,
+                         double writesPerSecond,double readsPerSecond,String splitKey,String reason){
+        this.timestamp=timestamp;
+        this.tableName=tableName;
+        this.regionName=regionName;
+        this.action=action;
+        this.writesPerSecond=writesPerSecond;
+        this.readsPerSecond=readsPerSecond;
+        this.splitKey=splitKey;
+        this.reason=reason;
+    }
+
+    public long getTimestamp(){
+        return timestamp;
+    }
+
+    public String getTableName(){
+        return tableName;
+    }
+
+    public String getRegionName(){
+        return regionName;
+    }
+
+    public String getAction(){
+        return action;
+    }
+
+    public double getWritesPerSecond(){
+        return writesPerSecond;
+    }
+
+    public double getReadsPerSecond(){
+        return readsPerSecond;
+    }
+
+    /**
+     * @return the key the region was, or should be, split at, printed as with Bytes.toStringBinary,
+     * or null if it should not be split
+     */
+    public String getSplitKey(){
+        return splitKey;
+    }
+
+    public String getReason(){
+        return reason;
+    }
+
+    SplitDecision withFailure(String failure){
+        SplitDecision failed = new SplitDecision(timestamp,tableName,regionName,Action.FAILED.name(),writesPerSecond,readsPerSecond,splitKey,failure);
+        failed.rawSplitKey = rawSplitKey;
+        return failed;
+    }
+
+    @Override
+    public String toString(){
+        return action+" "+regionName+" ("+reason+")";
+    }
+}
@@ -19,6 +19,7 @@ import com.splicemachine.pipeline.config.WriteConfiguration;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 
@@ -96,6 +97,23 @@ public class BulkWrite {
         return new ArrayList<>(mutations);
     }
 
+    /**
+     * Orders the mutations by row key, keeping the mutations of a same row in the order they were added.
+     * The results of a write refer to its mutations by position, so this must be done before it is sent.
+     */
+    void sortMutations(){
+        KVPair previous = null;
+        for(KVPair kvPair:mutations){
+            if(previous!=null && previous.compareTo(kvPair)>0){
+                List<KVPair> sorted = new ArrayList<>(mutations);
+                Collections.sort(sorted); // stable, so the mutations of a row keep their order
+                mutations = sorted;
+                return;
+            }
+            previous = kvPair;
+        }
+    }
+
     public String getEncodedStringName() {
         return encodedStringName;
     }
@@ -30,6 +30,7 @@ import com.splicemachine.pipeline.config.WriteConfiguration;
 import com.splicemachine.primitives.Bytes;
 import com.splicemachine.si.api.txn.TxnView;
 import com.splicemachine.si.api.txn.WriteConflict;
+import com.splicemachine.si.impl.txn.WritableTxn;
 import com.splicemachine.utils.SpliceLogUtils;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import org.apache.log4j.Logger;
@@ -207,10 +208,22 @@ public class BulkWriteAction implements Callable<WriteStats>{
             SpliceLogUtils.trace(LOG,"Getting next BulkWrites in loop: id=%d, nextBulkWrites=%s",id,nextWrite);
 
         try {
+            /*
+             * transactions which are not on the transaction table yet are recorded by the server along with
+             * their first write, saving a round trip to the transaction table
+             */
+            List<WritableTxn> registrations = WritableTxn.unregisteredChain(nextWrite.getTxn());
+            if (!registrations.isEmpty()) {
+                nextWrite.setRegistrations(new ArrayList<>(registrations));
+                for (WritableTxn registration : registrations)
+                    registration.markRegistrationSent();
+            }
             BulkWriter writer = writerFactory.newWriter(tableName);
             writeTimer.startTiming();
             BulkWritesResult bulkWritesResult = writer.write(nextWrite, ctx.refreshCache, writeConfiguration.loadReplaceMode());
             writeTimer.stopTiming();
+            if (!registrations.isEmpty())
+                registrations.get(registrations.size() - 1).register(true);
             processWriteResult(nextWrite.getBulkWrites(), bulkWritesResult.getBulkWriteResults(), ctx);
         } catch (Throwable e) {
             if (LOG.isTraceEnabled())
@@ -15,6 +15,7 @@
 package com.splicemachine.pipeline.client;
 
 import com.splicemachine.kvpair.KVPair;
+import com.splicemachine.si.api.txn.Txn;
 import com.splicemachine.si.api.txn.TxnView;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
@@ -40,6 +41,11 @@ public class BulkWrites{
      */
     private transient byte[] regionKey;
     private byte[] token;
+    /*
+     * transactions of the family of txn which are not yet on the transaction table, and are to be recorded
+     * by the receiving server before it applies the writes, from the oldest ancestor down
+     */
+    private List<Txn> registrations;
 
     public BulkWrites(){
         bulkWrites=new ArrayList<>(0);
@@ -135,6 +141,14 @@ public class BulkWrites{
         this.token = token;
     }
 
+    public List<Txn> getRegistrations() {
+        return registrations;
+    }
+
+    public void setRegistrations(List<Txn> registrations) {
+        this.registrations = registrations;
+    }
+
     public Set<KVPair.Type> getTypes() {
         Set<KVPair.Type> result = new HashSet<>();
         for (BulkWrite bw : bulkWrites) {
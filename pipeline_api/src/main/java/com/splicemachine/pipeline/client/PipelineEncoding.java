@@ -14,11 +14,19 @@
 
 package com.splicemachine.pipeline.client;
 
+import com.splicemachine.access.configuration.PipelineConfiguration;
 import com.splicemachine.encoding.ExpandedDecoder;
 import com.splicemachine.encoding.ExpandingEncoder;
+import com.splicemachine.encoding.MultiFieldDecoder;
+import com.splicemachine.encoding.MultiFieldEncoder;
 import com.splicemachine.kvpair.KVPair;
 import com.splicemachine.si.api.data.TxnOperationFactory;
+import com.splicemachine.si.api.txn.TaskId;
+import com.splicemachine.si.api.txn.Txn;
 import com.splicemachine.si.api.txn.TxnView;
+import com.splicemachine.si.impl.driver.SIDriver;
+import com.splicemachine.si.impl.txn.ActiveWriteTxn;
+import com.splicemachine.si.impl.txn.WritableTxn;
 import com.splicemachine.utils.ByteSlice;
 import splice.com.google.common.collect.Iterators;
 
@@ -32,11 +40,41 @@ import java.util.*;
  *         Date: 1/19/15
  */
 public class PipelineEncoding {
+    /*
+     * Marks the compact encoding. The legacy encoding starts with the length of the transaction, which
+     * is a positive encoded int, and so always has its high bit set.
+     */
+    static final byte COMPACT_KEYS = 0x01;
+    /*
+     * Marks a request carrying the registrations of transactions which are not yet on the transaction table
+     */
+    static final byte REGISTRATIONS = 0x02;
 
     public static byte[] encode(TxnOperationFactory operationFactory,BulkWrites bulkWrites){
+        return encode(operationFactory,bulkWrites,configuredCompactKeys());
+    }
+
+    /**
+     * @return whether the configuration asks for the compact encoding, which older servers cannot decode
+     */
+    public static boolean configuredCompactKeys(){
+        SIDriver driver = SIDriver.driver();
+        if(driver==null)
+            return PipelineConfiguration.DEFAULT_PIPELINE_ENCODING_COMPACT_KEYS;
+        return driver.getConfiguration().getPipelineEncodingCompactKeys();
+    }
+
+    /**
+     * @param compactKeys whether to use the compact encoding, which sorts the mutations of each BulkWrite,
+     *                    prefix-compresses their row keys and run-length encodes their types, or the legacy one
+     */
+    public static byte[] encode(TxnOperationFactory operationFactory,BulkWrites bulkWrites,boolean compactKeys){
         /*
          * The encoding for a BulkWrites is as follows:
+         * marker (COMPACT_KEYS | REGISTRATIONS), if either is used
          * Txn (1-N bytes)
+         * token (1-N bytes)
+         * # of registrations, then for each: the registered transaction (1-N bytes), if REGISTRATIONS is set
          * # of BulkWrites (1-N bytes)
          * for 1...# of BulkWrites:
          *  encodedStringName
@@ -57,9 +95,23 @@ public class PipelineEncoding {
             token = new byte[0];
 
         int heapSize = bulkWrites.getBufferHeapSize();
-        ExpandingEncoder buffer = new ExpandingEncoder(heapSize+txnBytes.length+token.length);
+        ExpandingEncoder buffer = new ExpandingEncoder(heapSize+txnBytes.length+token.length+1);
+        List<Txn> registrations = bulkWrites.getRegistrations();
+        byte marker = 0;
+        if(compactKeys)
+            marker|=COMPACT_KEYS;
+        if(registrations!=null && !registrations.isEmpty())
+            marker|=REGISTRATIONS;
+        if(marker!=0)
+            buffer.rawEncode(marker);
         buffer.rawEncode(txnBytes);
         buffer.rawEncode(token);
+        if((marker&REGISTRATIONS)!=0){
+            buffer.encode(registrations.size());
+            for(Txn registration:registrations){
+                buffer.rawEncode(encodeRegistration(registration));
+            }
+        }
 
         //encode BulkWrite metadata
         Collection<BulkWrite> bws = bulkWrites.getBulkWrites();
@@ -73,13 +125,17 @@ public class PipelineEncoding {
         }
 
         for(BulkWrite bw:bws){
-            Collection<KVPair> mutations = bw.getMutations();
-            buffer.encode(mutations.size());
-            for(KVPair kvPair:mutations){
-                //TODO -sf- use a run-length encoding for type information here?
-                buffer.rawEncode(kvPair.getType().asByte());
-                buffer.rawEncode(kvPair.rowKeySlice());
-                buffer.rawEncode(kvPair.valueSlice());
+            if(compactKeys){
+                bw.sortMutations();
+                encodeCompact(bw.getMutations(),buffer);
+            }else{
+                Collection<KVPair> mutations = bw.getMutations();
+                buffer.encode(mutations.size());
+                for(KVPair kvPair:mutations){
+                    buffer.rawEncode(kvPair.getType().asByte());
+                    buffer.rawEncode(kvPair.rowKeySlice());
+                    buffer.rawEncode(kvPair.valueSlice());
+                }
             }
         }
         return buffer.getBuffer();
@@ -87,10 +143,20 @@ public class PipelineEncoding {
 
 
     public static BulkWrites decode(TxnOperationFactory operationFactory,byte[] data){
-        ExpandedDecoder decoder = new ExpandedDecoder(data);
+        byte marker = data.length>0 && (data[0]&0x80)==0 ? data[0] : 0;
+        boolean compactKeys = (marker&COMPACT_KEYS)!=0;
+        ExpandedDecoder decoder = new ExpandedDecoder(data,marker!=0?1:0);
         byte[] txnBytes = decoder.rawBytes();
         byte[] token = decoder.rawBytes();
         TxnView txn = operationFactory.decode(txnBytes,0,txnBytes.length);
+        List<Txn> registrations = null;
+        if((marker&REGISTRATIONS)!=0){
+            int count = decoder.decodeInt();
+            registrations = new ArrayList<>(count);
+            for(int i=0;i<count;i++){
+                registrations.add(decodeRegistration(decoder.rawBytes(),registrations));
+            }
+        }
         int bwSize = decoder.decodeInt();
         List<String> stringNames = new ArrayList<>(bwSize);
         for(int i=0;i<bwSize;i++) {
@@ -101,7 +167,139 @@ public class PipelineEncoding {
             flags[i] = decoder.decodeByte();
         }
 
-        return new BulkWrites(new BulkWriteCol(flags,data,decoder.currentOffset(),stringNames),txn,null,token);
+        BulkWrites bulkWrites = new BulkWrites(new BulkWriteCol(flags,data,decoder.currentOffset(),stringNames,compactKeys),txn,null,token);
+        bulkWrites.setRegistrations(registrations);
+        return bulkWrites;
+    }
+
+    /*
+     * A registration holds what the transaction table records of a transaction: its id, begin timestamp,
+     * parent id (-1 for a top-level transaction), additivity, isolation level, task id (-1s if none) and
+     * destination tables.
+     */
+    private static byte[] encodeRegistration(Txn txn){
+        TxnView parent = txn.getParentTxnView();
+        MultiFieldEncoder encoder = MultiFieldEncoder.create(8)
+                .encodeNext(txn.getTxnId())
+                .encodeNext(txn.getBeginTimestamp())
+                .encodeNext(Txn.ROOT_TRANSACTION.equals(parent)?-1L:parent.getTxnId())
+                .encodeNext(txn.isAdditive())
+                .encodeNext(txn.getIsolationLevel().encode());
+        TaskId taskId = txn.getTaskId();
+        if(taskId!=null)
+            encoder.encodeNext(taskId.getStageId()).encodeNext(taskId.getPartitionId()).encodeNext(taskId.getTaskAttemptNumber());
+        else
+            encoder.encodeNext(-1).encodeNext(-1).encodeNext(-1);
+        byte[] header = encoder.build();
+        List<byte[]> tables = new ArrayList<>(1);
+        Iterator<ByteSlice> destinationTables = txn.getDestinationTables();
+        while(destinationTables.hasNext()){
+            tables.add(destinationTables.next().getByteCopy());
+        }
+        ExpandingEncoder buffer = new ExpandingEncoder(header.length+16);
+        buffer.rawEncode(header);
+        buffer.encode(tables.size());
+        for(byte[] table:tables){
+            buffer.rawEncode(table);
+        }
+        return buffer.getBuffer();
+    }
+
+    private static Txn decodeRegistration(byte[] data,List<Txn> decoded){
+        ExpandedDecoder buffer = new ExpandedDecoder(data);
+        MultiFieldDecoder decoder = MultiFieldDecoder.wrap(buffer.rawBytes());
+        long txnId = decoder.decodeNextLong();
+        long beginTs = decoder.decodeNextLong();
+        long parentTxnId = decoder.decodeNextLong();
+        boolean additive = decoder.decodeNextBoolean();
+        Txn.IsolationLevel level = Txn.IsolationLevel.fromByte(decoder.decodeNextByte());
+        TaskId taskId = new TaskId(decoder.decodeNextInt(),decoder.decodeNextInt(),decoder.decodeNextInt());
+        if(taskId.getStageId()==-1 && taskId.getPartitionId()==-1 && taskId.getTaskAttemptNumber()==-1)
+            taskId = null;
+        int tableCount = buffer.decodeInt();
+        List<byte[]> tables = new ArrayList<>(tableCount);
+        for(int i=0;i<tableCount;i++){
+            tables.add(buffer.rawBytes());
+        }
+        TxnView parent = Txn.ROOT_TRANSACTION;
+        if(parentTxnId>=0){
+            // registrations come from the oldest ancestor down, so the parent is either one of them or recorded
+            parent = null;
+            for(Txn d:decoded){
+                if(d.getTxnId()==parentTxnId)
+                    parent = d;
+            }
+            if(parent==null)
+                parent = new ActiveWriteTxn(parentTxnId,parentTxnId,Txn.ROOT_TRANSACTION,additive,level);
+        }
+        return WritableTxn.recordOf(txnId,beginTs,level,parent,additive,tables,taskId);
+    }
+
+    /*
+     * The mutations of a BulkWrite in the compact encoding are, in key order:
+     * # of mutations
+     * # of type runs, then for each run: type, # of mutations in the run
+     * the total length of the row keys
+     * for each mutation: the length of the prefix its key shares with the previous key, then the rest of the key
+     * for each mutation: the value
+     *
+     * Keeping keys apart from values lets the decoder rebuild all the keys into a single array, while the
+     * values are left where they are in the payload.
+     */
+    private static void encodeCompact(Collection<KVPair> mutations,ExpandingEncoder buffer){
+        buffer.encode(mutations.size());
+
+        int runs = 0;
+        KVPair.Type runType = null;
+        int keysLength = 0;
+        for(KVPair kvPair:mutations){
+            if(kvPair.getType()!=runType){
+                runs++;
+                runType = kvPair.getType();
+            }
+            keysLength+=kvPair.rowKeySlice().length();
+        }
+        buffer.encode(runs);
+        runType = null;
+        int runLength = 0;
+        for(KVPair kvPair:mutations){
+            if(kvPair.getType()!=runType){
+                if(runType!=null)
+                    buffer.encode(runLength);
+                runType = kvPair.getType();
+                buffer.rawEncode(runType.asByte());
+                runLength = 0;
+            }
+            runLength++;
+        }
+        if(runType!=null)
+            buffer.encode(runLength);
+
+        buffer.encode(keysLength);
+        ByteSlice previous = null;
+        for(KVPair kvPair:mutations){
+            ByteSlice key = kvPair.rowKeySlice();
+            int shared = previous==null?0:sharedPrefixLength(previous,key);
+            buffer.encode(shared);
+            buffer.rawEncode(key.array(),key.offset()+shared,key.length()-shared);
+            previous = key;
+        }
+
+        for(KVPair kvPair:mutations){
+            buffer.rawEncode(kvPair.valueSlice());
+        }
+    }
+
+    private static int sharedPrefixLength(ByteSlice left,ByteSlice right){
+        byte[] l = left.array();
+        byte[] r = right.array();
+        int lOffset = left.offset();
+        int rOffset = right.offset();
+        int max = Math.min(left.length(),right.length());
+        int shared = 0;
+        while(shared<max && l[lOffset+shared]==r[rOffset+shared])
+            shared++;
+        return shared;
     }
 
 
@@ -112,6 +310,7 @@ public class PipelineEncoding {
         private final List<String> encodedStringNames;
         private final byte[] flags;
         private final byte[] buffer;
+        private final boolean compactKeys;
         /*
          * we keep a cache of previously created BulkWrites, so that we can have
          * deterministic iteration (i.e. returning the same objects instead of
@@ -121,11 +320,12 @@ public class PipelineEncoding {
         private transient ExpandedDecoder decoder;
         private transient int lastIndex = 0;
 
-        public BulkWriteCol(byte[] flags, byte[] buffer,int kvOffset, List<String> encodedStringNames) {
+        public BulkWriteCol(byte[] flags, byte[] buffer,int kvOffset, List<String> encodedStringNames,boolean compactKeys) {
             this.kvOffset = kvOffset;
             this.encodedStringNames = encodedStringNames;
             this.buffer = buffer;
             this.flags = flags;
+            this.compactKeys = compactKeys;
         }
 
         @Override
@@ -169,6 +369,16 @@ public class PipelineEncoding {
                 String esN = encodedStrings.next();
                 byte elementFlags = flags[index++];
                 int size = decoder.decodeInt();
+                Collection<KVPair> kvPairs = compactKeys?decodeCompact(size):decode(size);
+
+
+                BulkWrite bulkWrite = new BulkWrite(kvPairs, esN, elementFlags);
+                cache.add(bulkWrite);
+                lastIndex=index;
+                return bulkWrite;
+            }
+
+            private Collection<KVPair> decode(int size){
                 Collection<KVPair> kvPairs = new ArrayList<>(size);
                 KVPair template = new KVPair();
                 ByteSlice rowKeySlice = template.rowKeySlice();
@@ -179,12 +389,44 @@ public class PipelineEncoding {
                     decoder.sliceNext(valueSlice);
                     kvPairs.add(template.shallowClone());
                 }
+                return kvPairs;
+            }
 
+            private Collection<KVPair> decodeCompact(int size){
+                List<KVPair> kvPairs = new ArrayList<>(size);
+                int runs = decoder.decodeInt();
+                for(int r=0;r<runs;r++){
+                    KVPair.Type type = KVPair.Type.decode(decoder.rawByte());
+                    int runLength = decoder.decodeInt();
+                    for(int i=0;i<runLength;i++){
+                        KVPair kvPair = new KVPair();
+                        kvPair.setType(type);
+                        kvPairs.add(kvPair);
+                    }
+                }
 
-                BulkWrite bulkWrite = new BulkWrite(kvPairs, esN, elementFlags);
-                cache.add(bulkWrite);
-                lastIndex=index;
-                return bulkWrite;
+                /*
+                 * Rebuild the keys into a single array, each one starting with the prefix it shares with
+                 * the one before it
+                 */
+                byte[] keys = new byte[decoder.decodeInt()];
+                ByteSlice suffix = new ByteSlice();
+                int keyOffset = 0;
+                int previousOffset = 0;
+                for(KVPair kvPair:kvPairs){
+                    int shared = decoder.decodeInt();
+                    decoder.sliceNext(suffix);
+                    System.arraycopy(keys,previousOffset,keys,keyOffset,shared);
+                    System.arraycopy(suffix.array(),suffix.offset(),keys,keyOffset+shared,suffix.length());
+                    kvPair.rowKeySlice().set(keys,keyOffset,shared+suffix.length());
+                    previousOffset = keyOffset;
+                    keyOffset+=shared+suffix.length();
+                }
+
+                for(KVPair kvPair:kvPairs){
+                    decoder.sliceNext(kvPair.valueSlice());
+                }
+                return kvPairs;
             }
         }
     }
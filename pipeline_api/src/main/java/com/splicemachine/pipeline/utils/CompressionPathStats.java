@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.pipeline.utils;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * Compression statistics of a single write path, as seen over JMX.
+ */
+public class CompressionPathStats{
+    private final String path;
+    private final long compressedPayloads;
+    private final long uncompressedPayloads;
+    private final long rawBytes;
+    private final long wireBytes;
+    private final long compressMicros;
+    private final long decompressedPayloads;
+    private final long decompressMicros;
+
+    @ConstructorProperties({"path","compressedPayloads","uncompressedPayloads","rawBytes","wireBytes",
+            "compressMicros","decompressedPayloads","decompressMicros"})
+    public CompressionPathStats(String path,
+                                long compressedPayloads,
+                                long uncompressedPayloads,
+                                long rawBytes,
+                                long wireBytes,
+                                long compressMicros,
+                                long decompressedPayloads,
+                                long decompressMicros){
+        this.path=path;
+        this.compressedPayloads=compressedPayloads;
+        this.uncompressedPayloads=uncompressedPayloads;
+        this.rawBytes=rawBytes;
+        this.wireBytes=wireBytes;
+        this.compressMicros=compressMicros;
+        this.decompressedPayloads=decompressedPayloads;
+        this.decompressMicros=decompressMicros;
+    }
+
+    public String getPath(){
+        return path;
+    }
+
+    /**
+     * @return the number of payloads sent compressed
+     */
+    public long getCompressedPayloads(){
+        return compressedPayloads;
+    }
+
+    /**
+     * @return the number of payloads sent uncompressed, for being under the compression threshold
+     */
+    public long getUncompressedPayloads(){
+        return uncompressedPayloads;
+    }
+
+    /**
+     * @return the size of the payloads sent, before compression
+     */
+    public long getRawBytes(){
+        return rawBytes;
+    }
+
+    /**
+     * @return the size of the payloads sent, as written on the wire
+     */
+    public long getWireBytes(){
+        return wireBytes;
+    }
+
+    public double getCompressionRatio(){
+        return wireBytes==0?1d:((double)rawBytes)/wireBytes;
+    }
+
+    public long getCompressMicros(){
+        return compressMicros;
+    }
+
+    public long getDecompressedPayloads(){
+        return decompressedPayloads;
+    }
+
+    public long getDecompressMicros(){
+        return decompressMicros;
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.pipeline.utils;
+
+import javax.management.MXBean;
+import java.util.List;
+
+/**
+ * JMX Hook for the compression of pipeline payloads, to compare the ratio and CPU cost of codecs
+ * on a given workload.
+ */
+@MXBean
+public interface PipelineCompressionManagement{
+
+    /**
+     * @return the codec payloads are compressed with
+     */
+    String getCodec();
+
+    /**
+     * @return the size, in bytes, under which payloads are sent uncompressed
+     */
+    int getCompressionThreshold();
+
+    /**
+     * @return the compression statistics of every write path seen since the last reset: one per table
+     * written to by this server, and one for the payloads served by its write endpoint
+     */
+    List<CompressionPathStats> getPathStats();
+
+    void resetStats();
+}
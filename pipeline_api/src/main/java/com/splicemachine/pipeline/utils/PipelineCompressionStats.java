@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.pipeline.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Accumulates the compression statistics of pipeline payloads, per write path.
+ *
+ * A write path is the table written to when compressing writes and decompressing their results, or
+ * {@link #ENDPOINT} for the payloads received and returned by the write endpoint of a server.
+ */
+public class PipelineCompressionStats{
+    public static final String ENDPOINT = "endpoint";
+
+    private final ConcurrentMap<String, PathCounters> paths = new ConcurrentHashMap<>();
+
+    public void compressed(String tableName,int rawBytes,int wireBytes,boolean compressed,long nanos){
+        PathCounters counters = counters(tableName);
+        if(compressed)
+            counters.compressedPayloads.increment();
+        else
+            counters.uncompressedPayloads.increment();
+        counters.rawBytes.add(rawBytes);
+        counters.wireBytes.add(wireBytes);
+        counters.compressNanos.add(nanos);
+    }
+
+    public void decompressed(String tableName,long nanos){
+        PathCounters counters = counters(tableName);
+        counters.decompressedPayloads.increment();
+        counters.decompressNanos.add(nanos);
+    }
+
+    public List<CompressionPathStats> snapshot(){
+        List<CompressionPathStats> stats = new ArrayList<>(paths.size());
+        for(Map.Entry<String, PathCounters> entry:paths.entrySet()){
+            PathCounters c = entry.getValue();
+            stats.add(new CompressionPathStats(entry.getKey(),
+                    c.compressedPayloads.sum(),
+                    c.uncompressedPayloads.sum(),
+                    c.rawBytes.sum(),
+                    c.wireBytes.sum(),
+                    TimeUnit.NANOSECONDS.toMicros(c.compressNanos.sum()),
+                    c.decompressedPayloads.sum(),
+                    TimeUnit.NANOSECONDS.toMicros(c.decompressNanos.sum())));
+        }
+        return stats;
+    }
+
+    public void reset(){
+        paths.clear();
+    }
+
+    private PathCounters counters(String tableName){
+        String path = tableName==null?ENDPOINT:tableName;
+        PathCounters counters = paths.get(path);
+        if(counters==null){
+            PathCounters newCounters = new PathCounters();
+            counters = paths.putIfAbsent(path,newCounters);
+            if(counters==null)
+                counters = newCounters;
+        }
+        return counters;
+    }
+
+    private static class PathCounters{
+        private final LongAdder compressedPayloads = new LongAdder();
+        private final LongAdder uncompressedPayloads = new LongAdder();
+        private final LongAdder rawBytes = new LongAdder();
+        private final LongAdder wireBytes = new LongAdder();
+        private final LongAdder compressNanos = new LongAdder();
+        private final LongAdder decompressedPayloads = new LongAdder();
+        private final LongAdder decompressNanos = new LongAdder();
+    }
+}
@@ -25,4 +25,19 @@ public interface PipelineCompressor{
    byte[] compress(Object o) throws IOException;
 
    <T> T decompress(byte[] bytes, Class<T> clazz) throws IOException;
+
+   /**
+    * Compresses a payload written to {@code tableName}, which lets compressors keep statistics and
+    * dictionaries per table.
+    */
+   default byte[] compress(Object o, String tableName) throws IOException{
+      return compress(o);
+   }
+
+   /**
+    * Decompresses a payload received in response to a write to {@code tableName}.
+    */
+   default <T> T decompress(byte[] bytes, Class<T> clazz, String tableName) throws IOException{
+      return decompress(bytes,clazz);
+   }
 }
@@ -31,17 +31,26 @@ import java.io.IOException;
 public class SimplePipelineCompressor implements PipelineCompressor{
     private final TxnOperationFactory txnOperationFactory;
     private final KryoPool kp;
+    private final boolean compactKeys;
 
     public SimplePipelineCompressor(KryoPool kp,TxnOperationFactory txnOperationFactory){
+        this(kp,txnOperationFactory,PipelineEncoding.configuredCompactKeys());
+    }
+
+    /**
+     * @param compactKeys whether BulkWrites are encoded with the compact encoding of {@link PipelineEncoding}
+     */
+    public SimplePipelineCompressor(KryoPool kp,TxnOperationFactory txnOperationFactory,boolean compactKeys){
         this.txnOperationFactory = txnOperationFactory;
         this.kp = kp;
+        this.compactKeys = compactKeys;
     }
 
     @Override
     public byte[] compress(Object o) throws IOException{
         if(o instanceof BulkWrites){
             BulkWrites bw = (BulkWrites)o;
-            return PipelineEncoding.encode(txnOperationFactory,bw);
+            return PipelineEncoding.encode(txnOperationFactory,bw,compactKeys);
         }else {
             Output out = new Output(128,-1);
             Kryo kryo = kp.get();
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.pipeline;
+
+import com.splicemachine.access.api.SConfiguration;
+import com.splicemachine.primitives.Bytes;
+import com.splicemachine.storage.Partition;
+import com.splicemachine.storage.PartitionKeySampler;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class SplitAdvisorTest{
+    private SConfiguration config;
+    private Partition partition;
+
+    @Before
+    public void setUp(){
+        config = Mockito.mock(SConfiguration.class);
+        Mockito.when(config.getSplitAdvisorHotRegionThreshold()).thenReturn(1000L);
+        Mockito.when(config.getSplitAdvisorSustainedIntervals()).thenReturn(2);
+        Mockito.when(config.getSplitAdvisorMinSplitInterval()).thenReturn(60000L);
+        Mockito.when(config.getSplitAdvisorAutoSplit()).thenReturn(true);
+
+        partition = Mockito.mock(Partition.class);
+        Mockito.when(partition.getEncodedName()).thenReturn("abc");
+        Mockito.when(partition.getName()).thenReturn("splice:1568,,1.abc.");
+        Mockito.when(partition.getTableName()).thenReturn("splice:1568");
+        Mockito.when(partition.getStartKey()).thenReturn(new byte[0]);
+        Mockito.when(partition.getEndKey()).thenReturn(new byte[0]);
+    }
+
+    @Test
+    public void splitsSustainedHotRegionAtMedian() throws Exception{
+        SplitAdvisor advisor = new SplitAdvisor(config,null,null);
+        assertNull(advisor.evaluate(partition,writes(5000,keys(0,100)),0L));
+        SplitDecision decision = advisor.evaluate(partition,writes(5000,keys(0,100)),1000L);
+        assertEquals(SplitDecision.Action.SPLIT.name(),decision.getAction());
+        assertEquals(Bytes.toStringBinary(Bytes.toBytes(50)),decision.getSplitKey());
+
+        // the region stays hot, but splits are throttled
+        assertNull(advisor.evaluate(partition,writes(5000,keys(0,100)),2000L));
+        decision = advisor.evaluate(partition,writes(5000,keys(0,100)),3000L);
+        assertEquals(SplitDecision.Action.THROTTLED.name(),decision.getAction());
+    }
+
+    @Test
+    public void ignoresShortBursts() throws Exception{
+        SplitAdvisor advisor = new SplitAdvisor(config,null,null);
+        assertNull(advisor.evaluate(partition,writes(5000,keys(0,100)),0L));
+        assertNull(advisor.evaluate(partition,writes(10,keys(0,100)),1000L));
+        assertNull(advisor.evaluate(partition,writes(5000,keys(0,100)),2000L));
+    }
+
+    @Test
+    public void recommendsSaltingForIncreasingKeys() throws Exception{
+        SplitAdvisor advisor = new SplitAdvisor(config,null,null);
+        assertNull(advisor.evaluate(partition,writes(5000,keys(0,100)),0L));
+        SplitDecision decision = advisor.evaluate(partition,writes(5000,keys(100,200)),1000L);
+        assertEquals(SplitDecision.Action.RECOMMEND_SALTING.name(),decision.getAction());
+        assertNull(decision.getSplitKey());
+    }
+
+    @Test
+    public void recommendsSaltingForSingleHotKey() throws Exception{
+        SplitAdvisor advisor = new SplitAdvisor(config,null,null);
+        List<byte[]> keys = new ArrayList<>(Collections.nCopies(90,Bytes.toBytes(7)));
+        keys.addAll(keys(0,10));
+        assertNull(advisor.evaluate(partition,reads(5000,keys),0L));
+        SplitDecision decision = advisor.evaluate(partition,reads(5000,keys),1000L);
+        assertEquals(SplitDecision.Action.RECOMMEND_SALTING.name(),decision.getAction());
+    }
+
+    @Test
+    public void onlyRecommendsWhenAutoSplitIsDisabled() throws Exception{
+        Mockito.when(config.getSplitAdvisorAutoSplit()).thenReturn(false);
+        SplitAdvisor advisor = new SplitAdvisor(config,null,null);
+        assertNull(advisor.evaluate(partition,writes(5000,keys(0,100)),0L));
+        assertEquals(SplitDecision.Action.RECOMMEND_SPLIT.name(),advisor.evaluate(partition,writes(5000,keys(0,100)),1000L).getAction());
+    }
+
+    private static PartitionKeySampler.Sample writes(long count,List<byte[]> keys){
+        return new PartitionKeySampler.Sample(1000L,count,keys,0L,Collections.<byte[]>emptyList());
+    }
+
+    private static PartitionKeySampler.Sample reads(long count,List<byte[]> keys){
+        return new PartitionKeySampler.Sample(1000L,0L,Collections.<byte[]>emptyList(),count,keys);
+    }
+
+    private static List<byte[]> keys(int from,int to){
+        List<byte[]> keys = new ArrayList<>(to-from);
+        for(int i=from;i<to;i++)
+            keys.add(Bytes.toBytes(i));
+        return keys;
+    }
+}
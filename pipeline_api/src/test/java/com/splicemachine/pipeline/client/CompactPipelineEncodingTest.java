@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.pipeline.client;
+
+import com.splicemachine.kvpair.KVPair;
+import com.splicemachine.primitives.Bytes;
+import com.splicemachine.si.api.data.TxnOperationFactory;
+import com.splicemachine.si.api.txn.TxnView;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CompactPipelineEncodingTest{
+    private static final byte[] TXN = new byte[]{1,2,3};
+
+    private TxnOperationFactory operationFactory;
+    private TxnView txn;
+
+    @Before
+    public void setUp(){
+        txn = mock(TxnView.class);
+        operationFactory = mock(TxnOperationFactory.class);
+        when(operationFactory.encode(any(TxnView.class))).thenReturn(TXN);
+        when(operationFactory.decode(any(byte[].class),anyInt(),anyInt())).thenReturn(txn);
+    }
+
+    @Test
+    public void sortsAndRoundTripsMutations() throws Exception{
+        List<KVPair> mutations = new ArrayList<>(Arrays.asList(
+                kv("TENANT-7|2020-06-02|0003","c",KVPair.Type.INSERT),
+                kv("TENANT-7|2020-06-01|0001","a",KVPair.Type.INSERT),
+                kv("TENANT-7|2020-06-01|0002","b",KVPair.Type.DELETE),
+                kv("TENANT-7|2020-06-01|0001","a2",KVPair.Type.UPDATE),
+                kv("TENANT-8","d",KVPair.Type.UPSERT)));
+        BulkWrite write = new BulkWrite(mutations,"region1");
+        BulkWrites writes = new BulkWrites(Arrays.asList(write,new BulkWrite(new ArrayList<KVPair>(),"region2")),txn);
+
+        BulkWrites decoded = PipelineEncoding.decode(operationFactory,PipelineEncoding.encode(operationFactory,writes,true));
+
+        List<KVPair> expected = Arrays.asList(
+                kv("TENANT-7|2020-06-01|0001","a",KVPair.Type.INSERT),
+                kv("TENANT-7|2020-06-01|0001","a2",KVPair.Type.UPDATE),
+                kv("TENANT-7|2020-06-01|0002","b",KVPair.Type.DELETE),
+                kv("TENANT-7|2020-06-02|0003","c",KVPair.Type.INSERT),
+                kv("TENANT-8","d",KVPair.Type.UPSERT));
+        Assert.assertEquals("The sent write must be in the order the server sees",expected.size(),write.getSize());
+        assertMatches(expected,write.getMutations());
+
+        Assert.assertEquals(2,decoded.getBulkWrites().size());
+        Iterator<BulkWrite> decodedWrites = decoded.getBulkWrites().iterator();
+        BulkWrite first = decodedWrites.next();
+        Assert.assertEquals("region1",first.getEncodedStringName());
+        assertMatches(expected,first.getMutations());
+        BulkWrite second = decodedWrites.next();
+        Assert.assertEquals("region2",second.getEncodedStringName());
+        Assert.assertEquals(0,second.getSize());
+    }
+
+    @Test
+    public void decodesLegacyEncoding() throws Exception{
+        List<KVPair> mutations = Arrays.asList(
+                kv("b","1",KVPair.Type.INSERT),
+                kv("a","2",KVPair.Type.DELETE));
+        BulkWrites writes = new BulkWrites(Arrays.asList(new BulkWrite(mutations,"region1")),txn);
+
+        BulkWrites decoded = PipelineEncoding.decode(operationFactory,PipelineEncoding.encode(operationFactory,writes,false));
+
+        assertMatches(mutations,decoded.getBulkWrites().iterator().next().getMutations());
+    }
+
+    @Test
+    public void compactEncodingIsSmaller() throws Exception{
+        List<KVPair> mutations = new ArrayList<>();
+        for(int i=0;i<1000;i++){
+            mutations.add(kv(String.format("SALT-3|TENANT-42|2020-06-01|%08d",i*7919%1000),"v",KVPair.Type.INSERT));
+        }
+        BulkWrites legacy = new BulkWrites(Arrays.asList(new BulkWrite(new ArrayList<>(mutations),"region1")),txn);
+        BulkWrites compact = new BulkWrites(Arrays.asList(new BulkWrite(new ArrayList<>(mutations),"region1")),txn);
+
+        int legacySize = PipelineEncoding.encode(operationFactory,legacy,false).length;
+        int compactSize = PipelineEncoding.encode(operationFactory,compact,true).length;
+        Assert.assertTrue("Compact encoding of "+compactSize+" bytes is not much smaller than "+legacySize,
+                compactSize<legacySize/2);
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+    private static KVPair kv(String key,String value,KVPair.Type type){
+        return new KVPair(Bytes.toBytes(key),Bytes.toBytes(value),type);
+    }
+
+    private static void assertMatches(List<KVPair> expected,Collection<KVPair> actual){
+        Assert.assertEquals("Incorrect number of mutations",expected.size(),actual.size());
+        Iterator<KVPair> actualIter = actual.iterator();
+        for(KVPair e:expected){
+            KVPair a = actualIter.next();
+            Assert.assertArrayEquals("Incorrect row key",e.getRowKey(),a.getRowKey());
+            Assert.assertArrayEquals("Incorrect value",e.getValue(),a.getValue());
+            Assert.assertEquals("Incorrect type",e.getType(),a.getType());
+        }
+    }
+}
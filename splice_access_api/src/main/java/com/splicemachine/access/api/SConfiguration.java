@@ -92,6 +92,18 @@ public interface SConfiguration {
 
     long getMergeRegionTimeout();
 
+    boolean getIndexBackfillThrottled();
+
+    long getIndexBackfillMaxRowsPerSecond();
+
+    long getIndexBackfillMinRowsPerSecond();
+
+    double getIndexBackfillLatencyFactor();
+
+    double getIndexBackfillWriteSaturation();
+
+    long getIndexBackfillCheckpointRows();
+
     // HConfiguration
     int getRegionServerHandlerCount();
 
@@ -150,6 +162,16 @@ public interface SConfiguration {
 
     int getThreadPoolMaxSize();
 
+    int getControlParallelScanMaxThreads();
+
+    int getControlParallelScanMaxConcurrency();
+
+    int getControlParallelScanBufferSize();
+
+    boolean getControlAggregationPushdown();
+
+    int getControlAggregationPushdownMaxGroups();
+
     // PipelineConfiguration
     int getCoreWriterThreads();
 
@@ -184,6 +206,7 @@ public interface SConfiguration {
     int getSparkResultStreamingBatches();
     int getSparkResultStreamingBatchSize();
     boolean getSparkResultStreamingThrottleEnabled();
+    boolean getSparkResultStreamingColumnarEnabled();
 
     int getSparkSlowResultStreamingBatches();
     int getSparkSlowResultStreamingBatchSize();
@@ -202,6 +225,26 @@ public interface SConfiguration {
 
     int getRegionToLoadPerTask();
 
+    long getSplitAdvisorInterval();
+
+    long getSplitAdvisorHotRegionThreshold();
+
+    int getSplitAdvisorSustainedIntervals();
+
+    boolean getSplitAdvisorAutoSplit();
+
+    long getSplitAdvisorMinSplitInterval();
+
+    String getPipelineCompressionCodec();
+
+    int getPipelineCompressionThreshold();
+
+    int getPipelineCompressionZstdLevel();
+
+    int getPipelineCompressionDictionarySize();
+
+    boolean getPipelineEncodingCompactKeys();
+
     // SIConfigurations
     int getActiveTransactionMaxCacheSize();
     int getActiveTransactionInitialCacheSize();
@@ -214,6 +257,10 @@ public interface SConfiguration {
 
     int getReadResolverThreads();
 
+    int getReadResolverBatchSize();
+
+    long getReadResolverLingerMillis();
+
     int getRollforwardQueueSize();
     int getRollforwardFirstWait();
     int getRollforwardSecondWait();
@@ -236,6 +283,12 @@ public interface SConfiguration {
 
     boolean getIgnoreMissingTxns();
 
+    boolean getTransactionLazyRegistration();
+
+    String getTimestampMode();
+
+    long getTimestampMaxClockOffset();
+
     long getSystablesMinRetentionPeriod();
 
     Durability getDurability();
@@ -327,6 +380,20 @@ public interface SConfiguration {
 
     int getNestedLoopJoinBatchSize();
 
+    long getSubqueryCacheMaxMemory();
+
+    String getStatementCacheSnapshotPath();
+
+    long getStatementCacheSnapshotInterval();
+
+    int getStatementCacheSnapshotMaxStatements();
+
+    long getStatementCacheWarmupTimeout();
+
+    int getExportControlParallelism();
+
+    long getExportTargetFileSize();
+
     String getForeignKeyChecker();
 
     // StatsConfiguration
@@ -365,6 +432,20 @@ public interface SConfiguration {
 
     int getSplitsPerRegionMin();
 
+    long getMemStorageFlushSize();
+
+    int getMemStorageBlockSize();
+
+    int getMemStorageCompactionThreshold();
+
+    long getPartitionLocationCacheMaxSize();
+
+    boolean getScannerPrefetchEnabled();
+
+    long getScannerPrefetchMaxBytes();
+
+    int getScannerPrefetchThreads();
+
     /**
      * Dump splice configuration, including hadoop config, to the log.
      */
@@ -402,12 +483,32 @@ public interface SConfiguration {
     
     Map<String, String> getOlapServerYarnQueues();
 
+    int getOlapSchedulerMaxRunningJobs();
+
+    Map<String, Integer> getOlapSchedulerTenantWeights();
+
+    Map<String, Integer> getOlapSchedulerTenantLimits();
+
+    int getOlapSchedulerDefaultTenantLimit();
+
+    long getOlapSchedulerQueueTimeout();
+
+    boolean getOlapSchedulerTenantPools();
+
     boolean getOlapServerIsolatedCompaction();
 
     String getOlapServerIsolatedCompactionQueueName();
 
     int getMaxCheckTableErrors();
 
+    int getCheckTableSortBufferRows();
+
+    int getCheckTableParallelism();
+
+    boolean getCardinalityFeedbackEnabled();
+
+    int getCardinalityFeedbackMaxEntries();
+
     int getRecursiveQueryIterationLimit();
 
     void setNativeSparkAggregationMode(CompilerContext.NativeSparkModeType newValue);
@@ -38,6 +38,8 @@ public class ConfigurationBuilder {
     public int completedTxnConcurrency;
     public int readResolverQueueSize;
     public int readResolverThreads;
+    public int readResolverBatchSize;
+    public long readResolverLingerMillis;
     public int timestampClientWaitTime;
     public int timestampClientQueues;
     public boolean timestampClientBatched;
@@ -47,11 +49,19 @@ public class ConfigurationBuilder {
     public long transactionKeepAliveInterval;
     public long transactionTimeout;
     public boolean ignoreMissingTxns;
+    public boolean transactionLazyRegistration;
+    public String timestampMode;
+    public long timestampMaxClockOffset;
     public long systablesMinRetentionPeriod;
 
     // OperationConfiguration
     public int sequenceBlockSize;
     public int threadPoolMaxSize;
+    public int controlParallelScanMaxThreads;
+    public int controlParallelScanMaxConcurrency;
+    public int controlParallelScanBufferSize;
+    public boolean controlAggregationPushdown;
+    public int controlAggregationPushdownMaxGroups;
 
     // DDLConfiguration
     public long ddlDrainingInitialWait;
@@ -59,6 +69,12 @@ public class ConfigurationBuilder {
     public long ddlRefreshInterval;
     public long maxDdlWait;
     public long mergeRegionTimeout;
+    public boolean indexBackfillThrottled;
+    public long indexBackfillMaxRowsPerSecond;
+    public long indexBackfillMinRowsPerSecond;
+    public double indexBackfillLatencyFactor;
+    public double indexBackfillWriteSaturation;
+    public long indexBackfillCheckpointRows;
 
     // AuthenticationConfiguration
     public boolean authenticationNativeCreateCredentialsDatabase;
@@ -177,7 +193,18 @@ public class ConfigurationBuilder {
     public String upgradeForcedFrom;
     public String storageFactoryHome;
     public int nestedLoopJoinBatchSize;
+    public long subqueryCacheMaxMemory;
+    public String statementCacheSnapshotPath;
+    public long statementCacheSnapshotInterval;
+    public int statementCacheSnapshotMaxStatements;
+    public long statementCacheWarmupTimeout;
+    public int exportControlParallelism;
+    public long exportTargetFileSize;
     public int maxCheckTableErrors;
+    public int checkTableSortBufferRows;
+    public int checkTableParallelism;
+    public boolean cardinalityFeedbackEnabled;
+    public int cardinalityFeedbackMaxEntries;
     public int rollForwardQueueSize;
     public int rollForwardFirstWait;
     public int rollForwardSecondWait;
@@ -186,6 +213,13 @@ public class ConfigurationBuilder {
     public CompilerContext.NativeSparkModeType nativeSparkAggregationMode;
     public CompilerContext.NewMergeJoinExecutionType newMergeJoin;
     public int splitsPerRegionMin;
+    public long memStorageFlushSize;
+    public int memStorageBlockSize;
+    public int memStorageCompactionThreshold;
+    public long partitionLocationCacheMaxSize;
+    public boolean scannerPrefetchEnabled;
+    public long scannerPrefetchMaxBytes;
+    public int scannerPrefetchThreads;
     public String foreignKeyChecker;
 
     // PipelineConfiguration
@@ -207,6 +241,7 @@ public class ConfigurationBuilder {
     public int sparkResultStreamingBatchSize;
     public int sparkResultStreamingBatches;
     public boolean sparkResultStreamingThrottleEnabled;
+    public boolean sparkResultStreamingColumnarEnabled;
     public int sparkSlowResultStreamingBatchSize;
     public int sparkSlowResultStreamingBatches;
     public int sparkResultStreamingThreads;
@@ -222,12 +257,28 @@ public class ConfigurationBuilder {
     public double bulkImportSampleFraction;
     public int bulkImportTasksPerRegion;
     public int regionToLoadPerTask;
+    public long splitAdvisorInterval;
+    public long splitAdvisorHotRegionThreshold;
+    public int splitAdvisorSustainedIntervals;
+    public boolean splitAdvisorAutoSplit;
+    public long splitAdvisorMinSplitInterval;
+    public String pipelineCompressionCodec;
+    public int pipelineCompressionThreshold;
+    public int pipelineCompressionZstdLevel;
+    public int pipelineCompressionDictionarySize;
+    public boolean pipelineEncodingCompactKeys;
     public long controlExecutionRowLimit;
     public int olapShufflePartitions;
     public boolean sparkAccumulatorsEnabled;
     public String olapLog4jConfig;
     public Map<String,String> olapServerIsolatedRoles;
     public Map<String,String> olapServerYarnQueues;
+    public int olapSchedulerMaxRunningJobs;
+    public Map<String,Integer> olapSchedulerTenantWeights;
+    public Map<String,Integer> olapSchedulerTenantLimits;
+    public int olapSchedulerDefaultTenantLimit;
+    public long olapSchedulerQueueTimeout;
+    public boolean olapSchedulerTenantPools;
     public boolean olapServerIsolatedCompaction;
     public String olapServerIsolatedCompactionQueueName;
     public boolean olapCompactionAutomaticallyPurgeDeletedRows;
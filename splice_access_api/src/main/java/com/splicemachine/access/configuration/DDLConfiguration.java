@@ -54,6 +54,63 @@ public class DDLConfiguration implements ConfigurationDefault {
     public static final String MERGE_REGION_WAIT_TIMEOUT = "splice.merge.region.wait.timeout";
     private static final long DEFAULT_MERGE_REGION_WAIT_TIMEOUT = 120000;
 
+    /**
+     * Whether index backfills run on the control side at a rate adapted to foreground traffic, instead of as
+     * a single bulk job. A throttled backfill slows down when its own writes get slower than they were when
+     * the table was quiet, pauses while the write pipeline of this server is saturated, and commits its
+     * progress every {@link #INDEX_BACKFILL_CHECKPOINT_ROWS} rows so that a failure is retried from the last
+     * checkpoint rather than from the start of the table.
+     *
+     * Bulk loaded indexes (with an hfile path) are never throttled.
+     *
+     * Defaults to false
+     */
+    public static final String INDEX_BACKFILL_THROTTLED = "splice.ddl.index.backfill.throttled";
+    private static final boolean DEFAULT_INDEX_BACKFILL_THROTTLED = false;
+
+    /**
+     * The highest rate, in base rows per second, a throttled index backfill may reach.
+     *
+     * Defaults to 50000
+     */
+    public static final String INDEX_BACKFILL_MAX_ROWS_PER_SECOND = "splice.ddl.index.backfill.maxRowsPerSecond";
+    private static final long DEFAULT_INDEX_BACKFILL_MAX_ROWS_PER_SECOND = 50000;
+
+    /**
+     * The rate, in base rows per second, a throttled index backfill starts at and never goes below (unless
+     * paused).
+     *
+     * Defaults to 500
+     */
+    public static final String INDEX_BACKFILL_MIN_ROWS_PER_SECOND = "splice.ddl.index.backfill.minRowsPerSecond";
+    private static final long DEFAULT_INDEX_BACKFILL_MIN_ROWS_PER_SECOND = 500;
+
+    /**
+     * How many times slower than its baseline the per-row write latency of a throttled index backfill may get
+     * before its rate is halved.
+     *
+     * Defaults to 2.0
+     */
+    public static final String INDEX_BACKFILL_LATENCY_FACTOR = "splice.ddl.index.backfill.latencyFactor";
+    private static final double DEFAULT_INDEX_BACKFILL_LATENCY_FACTOR = 2.0d;
+
+    /**
+     * The fraction of the write threads or write count allowed by the write control of this server above which
+     * a throttled index backfill pauses.
+     *
+     * Defaults to 0.75
+     */
+    public static final String INDEX_BACKFILL_WRITE_SATURATION = "splice.ddl.index.backfill.writeSaturation";
+    private static final double DEFAULT_INDEX_BACKFILL_WRITE_SATURATION = 0.75d;
+
+    /**
+     * The number of base rows a throttled index backfill writes between two checkpoints.
+     *
+     * Defaults to 1000000
+     */
+    public static final String INDEX_BACKFILL_CHECKPOINT_ROWS = "splice.ddl.index.backfill.checkpointRows";
+    private static final long DEFAULT_INDEX_BACKFILL_CHECKPOINT_ROWS = 1000000;
+
     @Override
     public void setDefaults(ConfigurationBuilder builder, ConfigurationSource configurationSource) {
         builder.maxDdlWait = configurationSource.getLong(MAX_DDL_WAIT, DEFAULT_MAX_DDL_WAIT);
@@ -61,6 +118,12 @@ public class DDLConfiguration implements ConfigurationDefault {
         builder.ddlDrainingInitialWait = configurationSource.getLong(DDL_DRAINING_INITIAL_WAIT, DEFAULT_DDL_DRAINING_INITIAL_WAIT);
         builder.ddlDrainingMaximumWait = configurationSource.getLong(DDL_DRAINING_MAXIMUM_WAIT, DEFAULT_DDL_DRAINING_MAXIMUM_WAIT);
         builder.mergeRegionTimeout = configurationSource.getLong(MERGE_REGION_WAIT_TIMEOUT, DEFAULT_MERGE_REGION_WAIT_TIMEOUT);
+        builder.indexBackfillThrottled = configurationSource.getBoolean(INDEX_BACKFILL_THROTTLED, DEFAULT_INDEX_BACKFILL_THROTTLED);
+        builder.indexBackfillMaxRowsPerSecond = configurationSource.getLong(INDEX_BACKFILL_MAX_ROWS_PER_SECOND, DEFAULT_INDEX_BACKFILL_MAX_ROWS_PER_SECOND);
+        builder.indexBackfillMinRowsPerSecond = configurationSource.getLong(INDEX_BACKFILL_MIN_ROWS_PER_SECOND, DEFAULT_INDEX_BACKFILL_MIN_ROWS_PER_SECOND);
+        builder.indexBackfillLatencyFactor = configurationSource.getDouble(INDEX_BACKFILL_LATENCY_FACTOR, DEFAULT_INDEX_BACKFILL_LATENCY_FACTOR);
+        builder.indexBackfillWriteSaturation = configurationSource.getDouble(INDEX_BACKFILL_WRITE_SATURATION, DEFAULT_INDEX_BACKFILL_WRITE_SATURATION);
+        builder.indexBackfillCheckpointRows = configurationSource.getLong(INDEX_BACKFILL_CHECKPOINT_ROWS, DEFAULT_INDEX_BACKFILL_CHECKPOINT_ROWS);
     }
 
 }
@@ -149,6 +149,12 @@ public class HBaseConfiguration implements ConfigurationDefault {
      */
     public static final String STARTUP_PATH = "/startupPath";
 
+    /**
+     * Path in ZooKeeper under which the dictionaries used to compress pipeline payloads are shared,
+     * one node per table.
+     */
+    public static final String PIPELINE_DICTIONARY_PATH = "/pipelineDictionaries";
+
     /**
      * Location of Leader Election path in ZooKeeper.
      * Defaults to /leaderElection
@@ -239,7 +245,8 @@ public class HBaseConfiguration implements ConfigurationDefault {
             BOOKINGS_PATH,
             DEFAULT_BACKUP_PATH,
             DEFAULT_BACKUP_LOCK_PATH,
-            DEFAULT_REPLICATION_PATH
+            DEFAULT_REPLICATION_PATH,
+            PIPELINE_DICTIONARY_PATH
     ));
 
     // Splice Internal Tables
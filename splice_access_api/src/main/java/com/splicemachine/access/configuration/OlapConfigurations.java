@@ -16,9 +16,13 @@
 package com.splicemachine.access.configuration;
 
 
+import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.db.iapi.util.IdUtil;
 import splice.com.google.common.base.Splitter;
 
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -149,6 +153,44 @@ public class OlapConfigurations implements ConfigurationDefault {
     public static final String OLAP_SERVER_ISOLATED_COMPACTION_QUEUE_NAME = "splice.olap_server.isolated.compaction.queue_name";
     public static final String DEFAULT_OLAP_SERVER_ISOLATED_COMPACTION_QUEUE_NAME = "compaction";
 
+    /*
+     * Scheduling of the queries submitted to an OLAP server. Each query is run on behalf of a tenant: the first of the
+     * user's current roles which has a weight or limit configured below, or else the user itself.
+     */
+
+    // Maximum number of queries an OLAP server runs at once, further queries wait in their tenant's queue. 0 means no limit
+    public static final String OLAP_SCHEDULER_MAX_RUNNING_JOBS = "splice.olap.scheduler.maxRunningJobs";
+    public static final int DEFAULT_OLAP_SCHEDULER_MAX_RUNNING_JOBS = 0;
+
+    /* Share of the running queries given to each tenant when queries are waiting, tenants not listed have a weight of 1.
+    Roles are SQL identifiers: unquoted names are case insensitive, quoted names are matched as written.
+
+    Examples:
+        BI_ROLE=4,ETL_ROLE=1
+        bi_role=4, "Etl Role"=1
+     */
+    public static final String OLAP_SCHEDULER_TENANT_WEIGHTS = "splice.olap.scheduler.tenantWeights";
+    public static final String DEFAULT_OLAP_SCHEDULER_TENANT_WEIGHTS = "";
+
+    // Maximum number of queries run at once for each tenant, in the same format as the weights
+    public static final String OLAP_SCHEDULER_TENANT_LIMITS = "splice.olap.scheduler.tenantLimits";
+    public static final String DEFAULT_OLAP_SCHEDULER_TENANT_LIMITS = "";
+
+    // Maximum number of queries run at once for tenants without a limit of their own. 0 means no limit
+    public static final String OLAP_SCHEDULER_DEFAULT_TENANT_LIMIT = "splice.olap.scheduler.defaultTenantLimit";
+    public static final int DEFAULT_OLAP_SCHEDULER_DEFAULT_TENANT_LIMIT = 0;
+
+    // How long (in ms) a query may wait in its queue before it is failed as timed out. 0 means forever
+    public static final String OLAP_SCHEDULER_QUEUE_TIMEOUT = "splice.olap.scheduler.queueTimeout";
+    public static final long DEFAULT_OLAP_SCHEDULER_QUEUE_TIMEOUT = 0L;
+
+    /*
+     * Whether the Spark jobs of a query run in a fair scheduler pool named after its tenant rather than in the "query",
+     * "import" or "admin" pools. Tenant pools can be given a weight and a minimum share in the allocation file.
+     */
+    public static final String OLAP_SCHEDULER_TENANT_POOLS = "splice.olap.scheduler.tenantPools";
+    public static final boolean DEFAULT_OLAP_SCHEDULER_TENANT_POOLS = false;
+
     // Whether we should purge deleted rows during flush & compaction
     public static final String OLAP_COMPACTION_AUTOMATICALLY_PURGE_DELETED_ROWS = "splice.olap.compaction.automaticallyPurgeDeletedRows";
     public static final boolean DEFAULT_OLAP_COMPACTION_AUTOMATICALLY_PURGE_DELETED_ROWS = true;
@@ -193,6 +235,11 @@ public class OlapConfigurations implements ConfigurationDefault {
     public static final String SPARK_RESULT_STREAMING_THROTTLE_ENABLED = "spark.result.streaming.throttle.enabled";
     public static final boolean DEFAULT_SPARK_RESULT_STREAMING_THROTTLE_ENABLED = true;
 
+    // Whether query results may be streamed from Spark as columnar batches rather than row by row. Tasks fall back
+    // to sending rows one by one for results the columnar format cannot carry.
+    public static final String SPARK_RESULT_STREAMING_COLUMNAR_ENABLED = "spark.result.streaming.columnar.enabled";
+    public static final boolean DEFAULT_SPARK_RESULT_STREAMING_COLUMNAR_ENABLED = true;
+
     public static final String SPARK_RESULT_STREAMING_THREADS = "spark.result.streaming.threads";
     public static final int DEFAULT_SPARK_RESULT_STREAMING_THREADS = 2;
 
@@ -224,6 +271,15 @@ public class OlapConfigurations implements ConfigurationDefault {
                 .withKeyValueSeparator("=")
                 .split(isolatedRoles);
 
+        builder.olapSchedulerMaxRunningJobs = configurationSource.getInt(OLAP_SCHEDULER_MAX_RUNNING_JOBS, DEFAULT_OLAP_SCHEDULER_MAX_RUNNING_JOBS);
+        builder.olapSchedulerTenantWeights = parseTenantValues(OLAP_SCHEDULER_TENANT_WEIGHTS,
+                configurationSource.getString(OLAP_SCHEDULER_TENANT_WEIGHTS, DEFAULT_OLAP_SCHEDULER_TENANT_WEIGHTS));
+        builder.olapSchedulerTenantLimits = parseTenantValues(OLAP_SCHEDULER_TENANT_LIMITS,
+                configurationSource.getString(OLAP_SCHEDULER_TENANT_LIMITS, DEFAULT_OLAP_SCHEDULER_TENANT_LIMITS));
+        builder.olapSchedulerDefaultTenantLimit = configurationSource.getInt(OLAP_SCHEDULER_DEFAULT_TENANT_LIMIT, DEFAULT_OLAP_SCHEDULER_DEFAULT_TENANT_LIMIT);
+        builder.olapSchedulerQueueTimeout = configurationSource.getLong(OLAP_SCHEDULER_QUEUE_TIMEOUT, DEFAULT_OLAP_SCHEDULER_QUEUE_TIMEOUT);
+        builder.olapSchedulerTenantPools = configurationSource.getBoolean(OLAP_SCHEDULER_TENANT_POOLS, DEFAULT_OLAP_SCHEDULER_TENANT_POOLS);
+
         builder.olapServerIsolatedCompaction = configurationSource.getBoolean(OLAP_SERVER_ISOLATED_COMPACTION, DEFAULT_OLAP_SERVER_ISOLATED_COMPACTION);
         builder.olapServerIsolatedCompactionQueueName = configurationSource.getString(OLAP_SERVER_ISOLATED_COMPACTION_QUEUE_NAME, DEFAULT_OLAP_SERVER_ISOLATED_COMPACTION_QUEUE_NAME);
 
@@ -243,6 +299,7 @@ public class OlapConfigurations implements ConfigurationDefault {
         builder.sparkResultStreamingBatches = configurationSource.getInt(SPARK_RESULT_STREAMING_BATCHES, DEFAULT_SPARK_RESULT_STREAMING_BATCHES);
         builder.sparkResultStreamingBatchSize = configurationSource.getInt(SPARK_RESULT_STREAMING_BATCH_SIZE, DEFAULT_SPARK_RESULT_STREAMING_BATCH_SIZE);
         builder.sparkResultStreamingThrottleEnabled = configurationSource.getBoolean(SPARK_RESULT_STREAMING_THROTTLE_ENABLED, DEFAULT_SPARK_RESULT_STREAMING_THROTTLE_ENABLED);
+        builder.sparkResultStreamingColumnarEnabled = configurationSource.getBoolean(SPARK_RESULT_STREAMING_COLUMNAR_ENABLED, DEFAULT_SPARK_RESULT_STREAMING_COLUMNAR_ENABLED);
         builder.sparkSlowResultStreamingBatches = configurationSource.getInt(SPARK_SLOW_RESULT_STREAMING_BATCHES, DEFAULT_SPARK_SLOW_RESULT_STREAMING_BATCHES);
         builder.sparkSlowResultStreamingBatchSize = configurationSource.getInt(SPARK_SLOW_RESULT_STREAMING_BATCH_SIZE, DEFAULT_SPARK_SLOW_RESULT_STREAMING_BATCH_SIZE);
         builder.sparkResultStreamingThreads = configurationSource.getInt(SPARK_RESULT_STREAMING_THREADS, DEFAULT_SPARK_RESULT_STREAMING_THREADS);
@@ -251,4 +308,31 @@ public class OlapConfigurations implements ConfigurationDefault {
         builder.olapServerMode = configurationSource.getString(OLAP_SERVER_MODE, DEFAULT_OLAP_SERVER_MODE);
         builder.sparkAccumulatorsEnabled = configurationSource.getBoolean(SPARK_ACCUMULATORS_ENABLED, DEFAULT_SPARK_ACCUMULATORS_ENABLED);
     }
+
+    /**
+     * Parses a list of ROLE=value entries, the roles being SQL identifiers which are matched in their normal form
+     * against the names of the user's roles, e.g. {@code bi_role} is BI_ROLE while {@code "bi_role"} is bi_role.
+     *
+     * @throws IllegalArgumentException if an entry is not a role and an integer
+     */
+    static Map<String, Integer> parseTenantValues(String property, String values){
+        Map<String, Integer> tenantValues = new HashMap<>();
+        for(String entry : Splitter.on(",").trimResults().omitEmptyStrings().split(values)){
+            int separator = entry.indexOf('=');
+            if(separator < 0)
+                throw invalidTenantValue(property, entry, null);
+            try{
+                String tenant = IdUtil.parseSQLIdentifier(entry.substring(0, separator).trim());
+                tenantValues.put(tenant, Integer.parseInt(entry.substring(separator + 1).trim()));
+            }catch(StandardException | NumberFormatException e){
+                throw invalidTenantValue(property, entry, e);
+            }
+        }
+        return tenantValues.isEmpty() ? Collections.emptyMap() : Collections.unmodifiableMap(tenantValues);
+    }
+
+    private static IllegalArgumentException invalidTenantValue(String property, String entry, Exception cause){
+        return new IllegalArgumentException("Invalid value for " + property + ": '" + entry +
+                "' is not of the form ROLE=<integer>", cause);
+    }
 }
@@ -51,9 +51,60 @@ public class OperationConfiguration implements ConfigurationDefault {
     public static final String THREAD_POOL_MAX_SIZE = "splice.threadPool.maxSize";
     private static final int DEFAULT_THREAD_POOL_MAX_SIZE = 256;
 
+    /**
+     * The maximum number of threads, across all queries on this server, which may scan partitions in parallel
+     * for control-side (OLTP) queries. When every thread is busy, further partition scans are run on the thread
+     * of the query which issued them, as if parallel scans were disabled.
+     *
+     * Set to 0 to disable parallel control scans. Defaults to 32
+     */
+    public static final String CONTROL_PARALLEL_SCAN_MAX_THREADS = "splice.control.parallelScan.maxThreads";
+    private static final int DEFAULT_CONTROL_PARALLEL_SCAN_MAX_THREADS = 32;
+
+    /**
+     * The maximum number of partitions a single control-side scan reads concurrently. Scans which cover
+     * a single partition are never split.
+     *
+     * Set to 1 to disable parallel control scans. Defaults to 4
+     */
+    public static final String CONTROL_PARALLEL_SCAN_MAX_CONCURRENCY = "splice.control.parallelScan.maxConcurrency";
+    private static final int DEFAULT_CONTROL_PARALLEL_SCAN_MAX_CONCURRENCY = 4;
+
+    /**
+     * The number of rows each partition scanner of a parallel control scan reads ahead of the query, before
+     * waiting for the query to consume them.
+     *
+     * Defaults to 1024
+     */
+    public static final String CONTROL_PARALLEL_SCAN_BUFFER_SIZE = "splice.control.parallelScan.bufferSize";
+    private static final int DEFAULT_CONTROL_PARALLEL_SCAN_BUFFER_SIZE = 1024;
+
+    /**
+     * Whether control-side aggregates over a single table scan are computed partially by the region servers
+     * serving the scan, which then return one row per group rather than every row of the table.
+     *
+     * Defaults to true
+     */
+    public static final String CONTROL_AGGREGATION_PUSHDOWN = "splice.control.aggregationPushdown";
+    private static final boolean DEFAULT_CONTROL_AGGREGATION_PUSHDOWN = true;
+
+    /**
+     * The number of groups a region scan aggregates before returning its partial results and starting over.
+     * Grouped aggregates expected to produce more groups than this are not pushed down at all.
+     *
+     * Defaults to 1024
+     */
+    public static final String CONTROL_AGGREGATION_PUSHDOWN_MAX_GROUPS = "splice.control.aggregationPushdown.maxGroups";
+    private static final int DEFAULT_CONTROL_AGGREGATION_PUSHDOWN_MAX_GROUPS = 1024;
+
     @Override
     public void setDefaults(ConfigurationBuilder builder, ConfigurationSource configurationSource) {
         builder.sequenceBlockSize = configurationSource.getInt(SEQUENCE_BLOCK_SIZE, DEFAULT_SEQUENCE_BLOCK_SIZE);
         builder.threadPoolMaxSize = configurationSource.getInt(THREAD_POOL_MAX_SIZE, DEFAULT_THREAD_POOL_MAX_SIZE);
+        builder.controlParallelScanMaxThreads = configurationSource.getInt(CONTROL_PARALLEL_SCAN_MAX_THREADS, DEFAULT_CONTROL_PARALLEL_SCAN_MAX_THREADS);
+        builder.controlParallelScanMaxConcurrency = configurationSource.getInt(CONTROL_PARALLEL_SCAN_MAX_CONCURRENCY, DEFAULT_CONTROL_PARALLEL_SCAN_MAX_CONCURRENCY);
+        builder.controlParallelScanBufferSize = configurationSource.getInt(CONTROL_PARALLEL_SCAN_BUFFER_SIZE, DEFAULT_CONTROL_PARALLEL_SCAN_BUFFER_SIZE);
+        builder.controlAggregationPushdown = configurationSource.getBoolean(CONTROL_AGGREGATION_PUSHDOWN, DEFAULT_CONTROL_AGGREGATION_PUSHDOWN);
+        builder.controlAggregationPushdownMaxGroups = configurationSource.getInt(CONTROL_AGGREGATION_PUSHDOWN_MAX_GROUPS, DEFAULT_CONTROL_AGGREGATION_PUSHDOWN_MAX_GROUPS);
     }
 }
@@ -148,6 +148,107 @@ public class PipelineConfiguration implements ConfigurationDefault {
     public static final String REGION_TOLOAD_PER_TASK = "splice.region.toLoad.perTask";
     private static final int DEFAULT_REGION_TOLOAD_PER_TASK = 30;
 
+    /**
+     * The interval, in seconds, at which each region server looks at the write and read keys sampled for its
+     * regions to find hot regions. A value of 0 disables key sampling and the split advisor.
+     *
+     * Defaults to 60 seconds
+     */
+    public static final String SPLIT_ADVISOR_INTERVAL = "splice.splitAdvisor.interval";
+    public static final long DEFAULT_SPLIT_ADVISOR_INTERVAL = 60;
+
+    /**
+     * The rate of writes plus reads, per second, above which a region is considered hot.
+     *
+     * Defaults to 10000
+     */
+    public static final String SPLIT_ADVISOR_HOT_REGION_THRESHOLD = "splice.splitAdvisor.hotRegionThreshold";
+    public static final long DEFAULT_SPLIT_ADVISOR_HOT_REGION_THRESHOLD = 10000;
+
+    /**
+     * The number of consecutive intervals a region must stay hot before the advisor acts on it, so that
+     * short bursts do not cause splits.
+     *
+     * Defaults to 3
+     */
+    public static final String SPLIT_ADVISOR_SUSTAINED_INTERVALS = "splice.splitAdvisor.sustainedIntervals";
+    public static final int DEFAULT_SPLIT_ADVISOR_SUSTAINED_INTERVALS = 3;
+
+    /**
+     * Whether the advisor splits hot regions at their sampled median key. When false, it only records its
+     * recommendations, which can be seen with SYSCS_UTIL.SYSCS_GET_SPLIT_ADVICE().
+     *
+     * Defaults to false
+     */
+    public static final String SPLIT_ADVISOR_AUTO_SPLIT = "splice.splitAdvisor.autoSplit";
+    public static final boolean DEFAULT_SPLIT_ADVISOR_AUTO_SPLIT = false;
+
+    /**
+     * The minimum time, in milliseconds, between two splits requested by the advisor of a region server,
+     * to avoid split storms.
+     *
+     * Defaults to 5 minutes
+     */
+    public static final String SPLIT_ADVISOR_MIN_SPLIT_INTERVAL = "splice.splitAdvisor.minSplitInterval";
+    public static final long DEFAULT_SPLIT_ADVISOR_MIN_SPLIT_INTERVAL = 5*60*1000L;
+
+    /**
+     * The codec used to compress pipeline payloads (bulk writes and their results) on the wire. One of:
+     *
+     * snappy: Snappy when native Snappy is installed, otherwise none. This is the unframed format of earlier
+     * versions, so it is the setting to keep while any server of the cluster runs one of them.
+     * none: no compression.
+     * lz4: LZ4, favoring speed over ratio.
+     * zstd: Zstandard, using dictionaries trained per table when splice.pipeline.compression.dictionarySize
+     * is above 0. Suited to narrow, repetitive rows.
+     *
+     * Every codec but snappy writes a header naming the codec of each payload, so servers with different
+     * settings among none, lz4 and zstd can talk to each other, but not with servers using snappy.
+     *
+     * Defaults to snappy
+     */
+    public static final String PIPELINE_COMPRESSION_CODEC = "splice.pipeline.compression.codec";
+    public static final String DEFAULT_PIPELINE_COMPRESSION_CODEC = "snappy";
+
+    /**
+     * The size, in bytes, under which payloads are sent uncompressed, since compressing them costs more CPU
+     * than it saves network. Ignored by the snappy codec.
+     *
+     * Defaults to 512 bytes
+     */
+    public static final String PIPELINE_COMPRESSION_THRESHOLD = "splice.pipeline.compression.threshold";
+    public static final int DEFAULT_PIPELINE_COMPRESSION_THRESHOLD = 512;
+
+    /**
+     * The compression level of the zstd codec, from 1 (fastest) to 22 (smallest).
+     *
+     * Defaults to 3
+     */
+    public static final String PIPELINE_COMPRESSION_ZSTD_LEVEL = "splice.pipeline.compression.zstdLevel";
+    public static final int DEFAULT_PIPELINE_COMPRESSION_ZSTD_LEVEL = 3;
+
+    /**
+     * The size, in bytes, of the dictionaries the zstd codec trains from the first payloads written to each
+     * table. Dictionaries are shared through ZooKeeper so that the servers receiving the writes can use them.
+     * A value of 0 disables dictionaries.
+     *
+     * Defaults to 16 KB
+     */
+    public static final String PIPELINE_COMPRESSION_DICTIONARY_SIZE = "splice.pipeline.compression.dictionarySize";
+    public static final int DEFAULT_PIPELINE_COMPRESSION_DICTIONARY_SIZE = 16*1024;
+
+    /**
+     * Whether bulk writes are sent in the compact encoding, which orders the rows of each region by key,
+     * writes each row key as the suffix it does not share with the previous one, and run-length encodes the
+     * mutation types. Servers decode both encodings, but versions without the compact encoding cannot
+     * read it, so it must only be turned on once every server in the cluster has been upgraded.
+     *
+     * Defaults to false
+     */
+    public static final String PIPELINE_ENCODING_COMPACT_KEYS = "splice.pipeline.encoding.compactKeys";
+    public static final boolean DEFAULT_PIPELINE_ENCODING_COMPACT_KEYS = false;
+
+
 
     @Override
     public void setDefaults(ConfigurationBuilder builder, ConfigurationSource configurationSource) {
@@ -171,5 +272,17 @@ public class PipelineConfiguration implements ConfigurationDefault {
         builder.bulkImportSampleFraction = configurationSource.getDouble(BULK_IMPORT_SAMPLE_FRACTION, DEFAULT_BULK_IMPORT_SAMPLE_FRACTION);
         builder.bulkImportTasksPerRegion = configurationSource.getInt(BULK_IMPORT_TASKS_PER_REGION, DEFAULT_BULK_IMPORT_TASKS_PER_REGION);
         builder.regionToLoadPerTask = configurationSource.getInt(REGION_TOLOAD_PER_TASK, DEFAULT_REGION_TOLOAD_PER_TASK);
+
+        builder.splitAdvisorInterval = configurationSource.getLong(SPLIT_ADVISOR_INTERVAL, DEFAULT_SPLIT_ADVISOR_INTERVAL);
+        builder.splitAdvisorHotRegionThreshold = configurationSource.getLong(SPLIT_ADVISOR_HOT_REGION_THRESHOLD, DEFAULT_SPLIT_ADVISOR_HOT_REGION_THRESHOLD);
+        builder.splitAdvisorSustainedIntervals = configurationSource.getInt(SPLIT_ADVISOR_SUSTAINED_INTERVALS, DEFAULT_SPLIT_ADVISOR_SUSTAINED_INTERVALS);
+        builder.splitAdvisorAutoSplit = configurationSource.getBoolean(SPLIT_ADVISOR_AUTO_SPLIT, DEFAULT_SPLIT_ADVISOR_AUTO_SPLIT);
+        builder.splitAdvisorMinSplitInterval = configurationSource.getLong(SPLIT_ADVISOR_MIN_SPLIT_INTERVAL, DEFAULT_SPLIT_ADVISOR_MIN_SPLIT_INTERVAL);
+
+        builder.pipelineCompressionCodec = configurationSource.getString(PIPELINE_COMPRESSION_CODEC, DEFAULT_PIPELINE_COMPRESSION_CODEC);
+        builder.pipelineCompressionThreshold = configurationSource.getInt(PIPELINE_COMPRESSION_THRESHOLD, DEFAULT_PIPELINE_COMPRESSION_THRESHOLD);
+        builder.pipelineCompressionZstdLevel = configurationSource.getInt(PIPELINE_COMPRESSION_ZSTD_LEVEL, DEFAULT_PIPELINE_COMPRESSION_ZSTD_LEVEL);
+        builder.pipelineCompressionDictionarySize = configurationSource.getInt(PIPELINE_COMPRESSION_DICTIONARY_SIZE, DEFAULT_PIPELINE_COMPRESSION_DICTIONARY_SIZE);
+        builder.pipelineEncodingCompactKeys = configurationSource.getBoolean(PIPELINE_ENCODING_COMPACT_KEYS, DEFAULT_PIPELINE_ENCODING_COMPACT_KEYS);
     }
 }
@@ -81,6 +81,12 @@ public final class SConfigurationImpl implements SConfiguration {
     private final  long ddlRefreshInterval;
     private final  long maxDdlWait;
     private final long mergeRegionTimeout;
+    private final boolean indexBackfillThrottled;
+    private final long indexBackfillMaxRowsPerSecond;
+    private final long indexBackfillMinRowsPerSecond;
+    private final double indexBackfillLatencyFactor;
+    private final double indexBackfillWriteSaturation;
+    private final long indexBackfillCheckpointRows;
 
     // HConfiguration
     private final  int regionServerHandlerCount;
@@ -113,6 +119,11 @@ public final class SConfigurationImpl implements SConfiguration {
     // OperationConfiguration
     private final  int sequenceBlockSize;
     private final  int threadPoolMaxSize;
+    private final  int controlParallelScanMaxThreads;
+    private final  int controlParallelScanMaxConcurrency;
+    private final  int controlParallelScanBufferSize;
+    private final  boolean controlAggregationPushdown;
+    private final  int controlAggregationPushdownMaxGroups;
 
     // PipelineConfiguration
     private final  int coreWriterThreads;
@@ -133,6 +144,7 @@ public final class SConfigurationImpl implements SConfiguration {
     private final int sparkResultStreamingBatches;
     private final int sparkResultStreamingBatchSize;
     private final boolean sparkResultStreamingThrottleEnabled;
+    private final boolean sparkResultStreamingColumnarEnabled;
     private final int sparkSlowResultStreamingBatches;
     private final int sparkSlowResultStreamingBatchSize;
     private final int sparkResultStreamingThreads;
@@ -147,6 +159,16 @@ public final class SConfigurationImpl implements SConfiguration {
     private final double bulkImportSampleFraction;
     private final int bulkImportTasksPerRegion;
     private final int regionToLoadPerTask;
+    private final long splitAdvisorInterval;
+    private final long splitAdvisorHotRegionThreshold;
+    private final int splitAdvisorSustainedIntervals;
+    private final boolean splitAdvisorAutoSplit;
+    private final long splitAdvisorMinSplitInterval;
+    private final String pipelineCompressionCodec;
+    private final int pipelineCompressionThreshold;
+    private final int pipelineCompressionZstdLevel;
+    private final int pipelineCompressionDictionarySize;
+    private final boolean pipelineEncodingCompactKeys;
     private final int rollForwardQueueSize;
     private final int rollForwardFirstWait;
     private final int rollForwardSecondWait;
@@ -174,6 +196,12 @@ public final class SConfigurationImpl implements SConfiguration {
     private final String olapLog4jConfig;
     private final Map<String, String> olapServerIsolatedRoles;
     private final Map<String, String> olapServerYarnQueues;
+    private final int olapSchedulerMaxRunningJobs;
+    private final Map<String, Integer> olapSchedulerTenantWeights;
+    private final Map<String, Integer> olapSchedulerTenantLimits;
+    private final int olapSchedulerDefaultTenantLimit;
+    private final long olapSchedulerQueueTimeout;
+    private final boolean olapSchedulerTenantPools;
     private final boolean olapServerIsolatedCompaction;
     private final String olapServerIsolatedCompactionQueueName;
     private final boolean olapCompactionAutomaticallyPurgeDeletedRows;
@@ -186,6 +214,8 @@ public final class SConfigurationImpl implements SConfiguration {
     private final  int completedTxnConcurrency;
     private final  int readResolverQueueSize;
     private final  int readResolverThreads;
+    private final  int readResolverBatchSize;
+    private final  long readResolverLingerMillis;
     private final  int timestampClientWaitTime;
     private final  int timestampClientQueues;
     private final  boolean timestampClientBatched;
@@ -195,6 +225,9 @@ public final class SConfigurationImpl implements SConfiguration {
     private final  long transactionKeepAliveInterval;
     private final  long transactionTimeout;
     private final boolean ignoreMissingTxns;
+    private final boolean transactionLazyRegistration;
+    private final String timestampMode;
+    private final long timestampMaxClockOffset;
     private final long systablesMinRetentionPeriod;
     private final Durability durability;
 
@@ -225,8 +258,19 @@ public final class SConfigurationImpl implements SConfiguration {
     private final  String upgradeForcedFrom;
     private final String storageFactoryHome;
     private final int nestedLoopJoinBatchSize;
+    private final long subqueryCacheMaxMemory;
+    private final String statementCacheSnapshotPath;
+    private final long statementCacheSnapshotInterval;
+    private final int statementCacheSnapshotMaxStatements;
+    private final long statementCacheWarmupTimeout;
+    private final int exportControlParallelism;
+    private final long exportTargetFileSize;
     private final long controlExecutionRowLimit;
     private final int maxCheckTableErrors;
+    private final int checkTableSortBufferRows;
+    private final int checkTableParallelism;
+    private final boolean cardinalityFeedbackEnabled;
+    private final int cardinalityFeedbackMaxEntries;
     private final int recursiveQueryIterationLimit;
     private String metadataRestrictionEnabled;
     private CompilerContext.NativeSparkModeType nativeSparkAggregationMode;
@@ -253,6 +297,13 @@ public final class SConfigurationImpl implements SConfiguration {
     private final  long regionMaxFileSize;
     private final  long tableSplitSleepInterval;
     private final  int splitsPerRegionMin;
+    private final  long memStorageFlushSize;
+    private final  int memStorageBlockSize;
+    private final  int memStorageCompactionThreshold;
+    private final  long partitionLocationCacheMaxSize;
+    private final  boolean scannerPrefetchEnabled;
+    private final  long scannerPrefetchMaxBytes;
+    private final  int scannerPrefetchThreads;
 
     // Gateway to hadoop config
     private final ConfigurationSource configSource;
@@ -370,6 +421,30 @@ public final class SConfigurationImpl implements SConfiguration {
     public long getMergeRegionTimeout() {
         return mergeRegionTimeout;
     }
+    @Override
+    public boolean getIndexBackfillThrottled() {
+        return indexBackfillThrottled;
+    }
+    @Override
+    public long getIndexBackfillMaxRowsPerSecond() {
+        return indexBackfillMaxRowsPerSecond;
+    }
+    @Override
+    public long getIndexBackfillMinRowsPerSecond() {
+        return indexBackfillMinRowsPerSecond;
+    }
+    @Override
+    public double getIndexBackfillLatencyFactor() {
+        return indexBackfillLatencyFactor;
+    }
+    @Override
+    public double getIndexBackfillWriteSaturation() {
+        return indexBackfillWriteSaturation;
+    }
+    @Override
+    public long getIndexBackfillCheckpointRows() {
+        return indexBackfillCheckpointRows;
+    }
 
     // HConfiguration
     @Override
@@ -489,6 +564,31 @@ public final class SConfigurationImpl implements SConfiguration {
          return threadPoolMaxSize;
     }
 
+    @Override
+    public int getControlParallelScanMaxThreads() {
+        return controlParallelScanMaxThreads;
+    }
+
+    @Override
+    public int getControlParallelScanMaxConcurrency() {
+        return controlParallelScanMaxConcurrency;
+    }
+
+    @Override
+    public int getControlParallelScanBufferSize() {
+        return controlParallelScanBufferSize;
+    }
+
+    @Override
+    public boolean getControlAggregationPushdown() {
+        return controlAggregationPushdown;
+    }
+
+    @Override
+    public int getControlAggregationPushdownMaxGroups() {
+        return controlAggregationPushdownMaxGroups;
+    }
+
     // PipelineConfiguration
     @Override
     public int getCollectSchemaStatisticsMaximumConcurrent() {
@@ -571,6 +671,56 @@ public final class SConfigurationImpl implements SConfiguration {
         return regionToLoadPerTask;
     }
 
+    @Override
+    public long getSplitAdvisorInterval() {
+        return splitAdvisorInterval;
+    }
+
+    @Override
+    public long getSplitAdvisorHotRegionThreshold() {
+        return splitAdvisorHotRegionThreshold;
+    }
+
+    @Override
+    public int getSplitAdvisorSustainedIntervals() {
+        return splitAdvisorSustainedIntervals;
+    }
+
+    @Override
+    public boolean getSplitAdvisorAutoSplit() {
+        return splitAdvisorAutoSplit;
+    }
+
+    @Override
+    public long getSplitAdvisorMinSplitInterval() {
+        return splitAdvisorMinSplitInterval;
+    }
+
+    @Override
+    public String getPipelineCompressionCodec() {
+        return pipelineCompressionCodec;
+    }
+
+    @Override
+    public int getPipelineCompressionThreshold() {
+        return pipelineCompressionThreshold;
+    }
+
+    @Override
+    public int getPipelineCompressionZstdLevel() {
+        return pipelineCompressionZstdLevel;
+    }
+
+    @Override
+    public int getPipelineCompressionDictionarySize() {
+        return pipelineCompressionDictionarySize;
+    }
+
+    @Override
+    public boolean getPipelineEncodingCompactKeys() {
+        return pipelineEncodingCompactKeys;
+    }
+
     @Override
     public int getSparkResultStreamingBatches() {
         return sparkResultStreamingBatches;
@@ -586,6 +736,11 @@ public final class SConfigurationImpl implements SConfiguration {
         return sparkResultStreamingThrottleEnabled;
     }
 
+    @Override
+    public boolean getSparkResultStreamingColumnarEnabled() {
+        return sparkResultStreamingColumnarEnabled;
+    }
+
     @Override
     public int getSparkSlowResultStreamingBatches() {
         return sparkSlowResultStreamingBatches;
@@ -626,6 +781,14 @@ public final class SConfigurationImpl implements SConfiguration {
     public int getReadResolverThreads() {
         return readResolverThreads;
     }
+    @Override
+    public int getReadResolverBatchSize() {
+        return readResolverBatchSize;
+    }
+    @Override
+    public long getReadResolverLingerMillis() {
+        return readResolverLingerMillis;
+    }
 
     @Override
     public int getRollforwardQueueSize() {
@@ -784,6 +947,18 @@ public final class SConfigurationImpl implements SConfiguration {
         return ignoreMissingTxns;
     }
     @Override
+    public boolean getTransactionLazyRegistration() {
+        return transactionLazyRegistration;
+    }
+    @Override
+    public String getTimestampMode() {
+        return timestampMode;
+    }
+    @Override
+    public long getTimestampMaxClockOffset() {
+        return timestampMaxClockOffset;
+    }
+    @Override
     public long getSystablesMinRetentionPeriod() {
         return systablesMinRetentionPeriod;
     }
@@ -891,6 +1066,34 @@ public final class SConfigurationImpl implements SConfiguration {
         return nestedLoopJoinBatchSize;
     }
     @Override
+    public long getSubqueryCacheMaxMemory() {
+        return subqueryCacheMaxMemory;
+    }
+    @Override
+    public String getStatementCacheSnapshotPath() {
+        return statementCacheSnapshotPath;
+    }
+    @Override
+    public long getStatementCacheSnapshotInterval() {
+        return statementCacheSnapshotInterval;
+    }
+    @Override
+    public int getStatementCacheSnapshotMaxStatements() {
+        return statementCacheSnapshotMaxStatements;
+    }
+    @Override
+    public long getStatementCacheWarmupTimeout() {
+        return statementCacheWarmupTimeout;
+    }
+    @Override
+    public int getExportControlParallelism() {
+        return exportControlParallelism;
+    }
+    @Override
+    public long getExportTargetFileSize() {
+        return exportTargetFileSize;
+    }
+    @Override
     public String getForeignKeyChecker() {
         return foreignKeyChecker;
     }
@@ -972,6 +1175,34 @@ public final class SConfigurationImpl implements SConfiguration {
     public int getSplitsPerRegionMin() {
         return splitsPerRegionMin;
     }
+    @Override
+    public long getMemStorageFlushSize() {
+        return memStorageFlushSize;
+    }
+    @Override
+    public int getMemStorageBlockSize() {
+        return memStorageBlockSize;
+    }
+    @Override
+    public int getMemStorageCompactionThreshold() {
+        return memStorageCompactionThreshold;
+    }
+    @Override
+    public long getPartitionLocationCacheMaxSize() {
+        return partitionLocationCacheMaxSize;
+    }
+    @Override
+    public boolean getScannerPrefetchEnabled() {
+        return scannerPrefetchEnabled;
+    }
+    @Override
+    public long getScannerPrefetchMaxBytes() {
+        return scannerPrefetchMaxBytes;
+    }
+    @Override
+    public int getScannerPrefetchThreads() {
+        return scannerPrefetchThreads;
+    }
 
     // ===========
 
@@ -995,6 +1226,8 @@ public final class SConfigurationImpl implements SConfiguration {
         completedTxnConcurrency = builder.completedTxnConcurrency;
         readResolverQueueSize = builder.readResolverQueueSize;
         readResolverThreads = builder.readResolverThreads;
+        readResolverBatchSize = builder.readResolverBatchSize;
+        readResolverLingerMillis = builder.readResolverLingerMillis;
         timestampClientWaitTime = builder.timestampClientWaitTime;
         timestampClientQueues = builder.timestampClientQueues;
         timestampClientBatched = builder.timestampClientBatched;
@@ -1005,11 +1238,22 @@ public final class SConfigurationImpl implements SConfiguration {
         transactionTimeout = builder.transactionTimeout;
         sequenceBlockSize = builder.sequenceBlockSize;
         threadPoolMaxSize = builder.threadPoolMaxSize;
+        controlParallelScanMaxThreads = builder.controlParallelScanMaxThreads;
+        controlParallelScanMaxConcurrency = builder.controlParallelScanMaxConcurrency;
+        controlParallelScanBufferSize = builder.controlParallelScanBufferSize;
+        controlAggregationPushdown = builder.controlAggregationPushdown;
+        controlAggregationPushdownMaxGroups = builder.controlAggregationPushdownMaxGroups;
         ddlDrainingInitialWait = builder.ddlDrainingInitialWait;
         ddlDrainingMaximumWait = builder.ddlDrainingMaximumWait;
         ddlRefreshInterval = builder.ddlRefreshInterval;
         maxDdlWait = builder.maxDdlWait;
         mergeRegionTimeout = builder.mergeRegionTimeout;
+        indexBackfillThrottled = builder.indexBackfillThrottled;
+        indexBackfillMaxRowsPerSecond = builder.indexBackfillMaxRowsPerSecond;
+        indexBackfillMinRowsPerSecond = builder.indexBackfillMinRowsPerSecond;
+        indexBackfillLatencyFactor = builder.indexBackfillLatencyFactor;
+        indexBackfillWriteSaturation = builder.indexBackfillWriteSaturation;
+        indexBackfillCheckpointRows = builder.indexBackfillCheckpointRows;
         authenticationNativeCreateCredentialsDatabase = builder.authenticationNativeCreateCredentialsDatabase;
         authentication = builder.authentication;
         authenticationCustomProvider = builder.authenticationCustomProvider;
@@ -1048,6 +1292,13 @@ public final class SConfigurationImpl implements SConfiguration {
         regionMaxFileSize = builder.regionMaxFileSize;
         tableSplitSleepInterval = builder.tableSplitSleepInterval;
         splitsPerRegionMin = builder.splitsPerRegionMin;
+        memStorageFlushSize = builder.memStorageFlushSize;
+        memStorageBlockSize = builder.memStorageBlockSize;
+        memStorageCompactionThreshold = builder.memStorageCompactionThreshold;
+        partitionLocationCacheMaxSize = builder.partitionLocationCacheMaxSize;
+        scannerPrefetchEnabled = builder.scannerPrefetchEnabled;
+        scannerPrefetchMaxBytes = builder.scannerPrefetchMaxBytes;
+        scannerPrefetchThreads = builder.scannerPrefetchThreads;
         regionServerHandlerCount = builder.regionServerHandlerCount;
         timestampBlockSize = builder.timestampBlockSize;
         regionLoadUpdateInterval = builder.regionLoadUpdateInterval;
@@ -1136,6 +1387,7 @@ public final class SConfigurationImpl implements SConfiguration {
         sparkResultStreamingBatches = builder.sparkResultStreamingBatches;
         sparkResultStreamingBatchSize = builder.sparkResultStreamingBatchSize;
         sparkResultStreamingThrottleEnabled = builder.sparkResultStreamingThrottleEnabled;
+        sparkResultStreamingColumnarEnabled = builder.sparkResultStreamingColumnarEnabled;
         sparkSlowResultStreamingBatches = builder.sparkSlowResultStreamingBatches;
         sparkSlowResultStreamingBatchSize = builder.sparkSlowResultStreamingBatchSize;
         sparkResultStreamingThreads = builder.sparkResultStreamingThreads;
@@ -1149,6 +1401,12 @@ public final class SConfigurationImpl implements SConfiguration {
         olapLog4jConfig = builder.olapLog4jConfig;
         olapServerIsolatedRoles = builder.olapServerIsolatedRoles;
         olapServerYarnQueues = builder.olapServerYarnQueues;
+        olapSchedulerMaxRunningJobs = builder.olapSchedulerMaxRunningJobs;
+        olapSchedulerTenantWeights = builder.olapSchedulerTenantWeights;
+        olapSchedulerTenantLimits = builder.olapSchedulerTenantLimits;
+        olapSchedulerDefaultTenantLimit = builder.olapSchedulerDefaultTenantLimit;
+        olapSchedulerQueueTimeout = builder.olapSchedulerQueueTimeout;
+        olapSchedulerTenantPools = builder.olapSchedulerTenantPools;
         olapServerIsolatedCompaction = builder.olapServerIsolatedCompaction;
         olapServerIsolatedCompactionQueueName = builder.olapServerIsolatedCompactionQueueName;
         olapCompactionAutomaticallyPurgeDeletedRows = builder.olapCompactionAutomaticallyPurgeDeletedRows;
@@ -1156,14 +1414,38 @@ public final class SConfigurationImpl implements SConfiguration {
         resolutionOnFlushes = builder.resolutionOnFlushes;
         storageFactoryHome = builder.storageFactoryHome;
         nestedLoopJoinBatchSize = builder.nestedLoopJoinBatchSize;
+        subqueryCacheMaxMemory = builder.subqueryCacheMaxMemory;
+        statementCacheSnapshotPath = builder.statementCacheSnapshotPath;
+        statementCacheSnapshotInterval = builder.statementCacheSnapshotInterval;
+        statementCacheSnapshotMaxStatements = builder.statementCacheSnapshotMaxStatements;
+        statementCacheWarmupTimeout = builder.statementCacheWarmupTimeout;
+        exportControlParallelism = builder.exportControlParallelism;
+        exportTargetFileSize = builder.exportTargetFileSize;
         controlExecutionRowLimit = builder.controlExecutionRowLimit;
         bulkImportSampleFraction = builder.bulkImportSampleFraction;
         bulkImportTasksPerRegion = builder.bulkImportTasksPerRegion;
         regionToLoadPerTask = builder.regionToLoadPerTask;
+        splitAdvisorInterval = builder.splitAdvisorInterval;
+        splitAdvisorHotRegionThreshold = builder.splitAdvisorHotRegionThreshold;
+        splitAdvisorSustainedIntervals = builder.splitAdvisorSustainedIntervals;
+        splitAdvisorAutoSplit = builder.splitAdvisorAutoSplit;
+        splitAdvisorMinSplitInterval = builder.splitAdvisorMinSplitInterval;
+        pipelineCompressionCodec = builder.pipelineCompressionCodec;
+        pipelineCompressionThreshold = builder.pipelineCompressionThreshold;
+        pipelineCompressionZstdLevel = builder.pipelineCompressionZstdLevel;
+        pipelineCompressionDictionarySize = builder.pipelineCompressionDictionarySize;
+        pipelineEncodingCompactKeys = builder.pipelineEncodingCompactKeys;
         ignoreMissingTxns = builder.ignoreMissingTxns;
+        transactionLazyRegistration = builder.transactionLazyRegistration;
+        timestampMode = builder.timestampMode;
+        timestampMaxClockOffset = builder.timestampMaxClockOffset;
         durability = builder.durability;
         systablesMinRetentionPeriod = builder.systablesMinRetentionPeriod;
         maxCheckTableErrors = builder.maxCheckTableErrors;
+        checkTableSortBufferRows = builder.checkTableSortBufferRows;
+        checkTableParallelism = builder.checkTableParallelism;
+        cardinalityFeedbackEnabled = builder.cardinalityFeedbackEnabled;
+        cardinalityFeedbackMaxEntries = builder.cardinalityFeedbackMaxEntries;
         rollForwardQueueSize = builder.rollForwardQueueSize;
         rollForwardFirstWait = builder.rollForwardFirstWait;
         rollForwardSecondWait = builder.rollForwardSecondWait;
@@ -1261,6 +1543,36 @@ public final class SConfigurationImpl implements SConfiguration {
         return olapServerYarnQueues;
     }
 
+    @Override
+    public int getOlapSchedulerMaxRunningJobs() {
+        return olapSchedulerMaxRunningJobs;
+    }
+
+    @Override
+    public Map<String, Integer> getOlapSchedulerTenantWeights() {
+        return olapSchedulerTenantWeights;
+    }
+
+    @Override
+    public Map<String, Integer> getOlapSchedulerTenantLimits() {
+        return olapSchedulerTenantLimits;
+    }
+
+    @Override
+    public int getOlapSchedulerDefaultTenantLimit() {
+        return olapSchedulerDefaultTenantLimit;
+    }
+
+    @Override
+    public long getOlapSchedulerQueueTimeout() {
+        return olapSchedulerQueueTimeout;
+    }
+
+    @Override
+    public boolean getOlapSchedulerTenantPools() {
+        return olapSchedulerTenantPools;
+    }
+
     @Override
     public boolean getOlapServerIsolatedCompaction() {
         return olapServerIsolatedCompaction;
@@ -1291,6 +1603,26 @@ public final class SConfigurationImpl implements SConfiguration {
         return maxCheckTableErrors;
     }
 
+    @Override
+    public int getCheckTableSortBufferRows() {
+        return checkTableSortBufferRows;
+    }
+
+    @Override
+    public int getCheckTableParallelism() {
+        return checkTableParallelism;
+    }
+
+    @Override
+    public boolean getCardinalityFeedbackEnabled() {
+        return cardinalityFeedbackEnabled;
+    }
+
+    @Override
+    public int getCardinalityFeedbackMaxEntries() {
+        return cardinalityFeedbackMaxEntries;
+    }
+
     @Override
     public void setNativeSparkAggregationMode(CompilerContext.NativeSparkModeType newValue) {
         nativeSparkAggregationMode = newValue;
@@ -51,9 +51,51 @@ public class SIConfigurations implements ConfigurationDefault {
     public static final String READ_RESOLVER_QUEUE_SIZE = "splice.txn.readresolver.queueSize";
     private static final int DEFAULT_READ_RESOLVER_QUEUE_SIZE=1<<16;
 
+    /**
+     * The maximum number of rows of a single region and transaction which are resolved in one batched
+     * mutation by the asynchronous read resolver.
+     * Defaults to 1024
+     */
+    public static final String READ_RESOLVER_BATCH_SIZE = "splice.txn.readresolver.batchSize";
+    private static final int DEFAULT_READ_RESOLVER_BATCH_SIZE=1024;
+
+    /**
+     * How long (in ms) the asynchronous read resolver holds rows back, waiting for more rows of the same region
+     * and transaction to batch them with. 0 flushes whatever is pending as soon as the queue is drained.
+     * Defaults to 50
+     */
+    public static final String READ_RESOLVER_LINGER_MILLIS = "splice.txn.readresolver.lingerMillis";
+    private static final long DEFAULT_READ_RESOLVER_LINGER_MILLIS=50L;
+
     public static final String IGNORE_MISSING_TXN = "splice.ignore.missing.transactions";
     private static final boolean DEFAULT_IGNORE_MISSING_TXN=false;
 
+    /**
+     * When enabled, a writable transaction is not recorded on the transaction table when it begins, but along
+     * with its first write, in the same RPC; a transaction which never writes is never recorded at all.
+     * Defaults to false
+     */
+    public static final String TRANSACTION_LAZY_REGISTRATION = "splice.txn.lazyRegistration";
+    private static final boolean DEFAULT_TRANSACTION_LAZY_REGISTRATION=false;
+
+    /**
+     * Where transaction timestamps come from: "oracle", the timestamp server, or "hlc", the hybrid logical clock of
+     * each server. Changing the mode requires restarting the whole cluster, as servers in different modes cannot
+     * be mixed.
+     * Defaults to "oracle"
+     */
+    public static final String TIMESTAMP_MODE = "splice.timestamp.mode";
+    private static final String DEFAULT_TIMESTAMP_MODE="oracle";
+
+    /**
+     * In "hlc" timestamp mode, the maximum offset between the clocks of any two servers, in milliseconds. Commits
+     * are acknowledged only once this long has passed since their commit timestamp, so it should be set as low as
+     * clock synchronization allows.
+     * Defaults to 250
+     */
+    public static final String TIMESTAMP_MAX_CLOCK_OFFSET = "splice.timestamp.hlc.maxClockOffset";
+    private static final long DEFAULT_TIMESTAMP_MAX_CLOCK_OFFSET=250L;
+
     /**
      * The default minimum retention period for system tables in seconds.
      */
@@ -185,6 +227,8 @@ public class SIConfigurations implements ConfigurationDefault {
         builder.readResolverThreads  = configurationSource.getInt(READ_RESOLVER_THREADS, DEFAULT_READ_RESOLVER_THREADS);
         builder.readResolverQueueSize  = configurationSource.getInt(READ_RESOLVER_QUEUE_SIZE, -1); //TODO -sf- reset to DEFAULT once ReadResolution works
 //        builder.readResolverQueueSize  = configurationSource.getInt(READ_RESOLVER_QUEUE_SIZE, DEFAULT_READ_RESOLVER_QUEUE_SIZE);
+        builder.readResolverBatchSize  = configurationSource.getInt(READ_RESOLVER_BATCH_SIZE, DEFAULT_READ_RESOLVER_BATCH_SIZE);
+        builder.readResolverLingerMillis  = configurationSource.getLong(READ_RESOLVER_LINGER_MILLIS, DEFAULT_READ_RESOLVER_LINGER_MILLIS);
         builder.timestampClientWaitTime  = configurationSource.getInt(TIMESTAMP_CLIENT_WAIT_TIME, DEFAULT_TIMESTAMP_CLIENT_WAIT_TIME);
         builder.timestampClientQueues = configurationSource.getInt(TIMESTAMP_CLIENT_QUEUES, DEFAULT_TIMESTAMP_CLIENT_QUEUES);
         builder.timestampClientBatched = configurationSource.getBoolean(TIMESTAMP_CLIENT_BATCHED, DEFAULT_TIMESTAMP_CLIENT_BATCHED);
@@ -196,6 +240,9 @@ public class SIConfigurations implements ConfigurationDefault {
         builder.transactionKeepAliveInterval = configurationSource.getLong(TRANSACTION_KEEP_ALIVE_INTERVAL, DEFAULT_TRANSACTION_KEEP_ALIVE_INTERVAL);
 
         builder.ignoreMissingTxns = configurationSource.getBoolean(IGNORE_MISSING_TXN, DEFAULT_IGNORE_MISSING_TXN);
+        builder.transactionLazyRegistration = configurationSource.getBoolean(TRANSACTION_LAZY_REGISTRATION, DEFAULT_TRANSACTION_LAZY_REGISTRATION);
+        builder.timestampMode = configurationSource.getString(TIMESTAMP_MODE, DEFAULT_TIMESTAMP_MODE);
+        builder.timestampMaxClockOffset = configurationSource.getLong(TIMESTAMP_MAX_CLOCK_OFFSET, DEFAULT_TIMESTAMP_MAX_CLOCK_OFFSET);
 
         builder.systablesMinRetentionPeriod = configurationSource.getLong(SYS_TABLES_RETENTION_PERIOD, DEFAULT_SYS_TABLES_RETENTION_PERIOD);
 
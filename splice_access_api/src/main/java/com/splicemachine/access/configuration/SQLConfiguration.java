@@ -225,9 +225,107 @@ public class SQLConfiguration implements ConfigurationDefault {
     public static final String CONTROL_EXECUTION_ROWS_LIMIT = "splice.controlExecution.rowsLimit";
     private static final int DEFAULT_CONTROL_EXECUTION_ROWS_LIMIT = 1000000;
 
+    /**
+     * The maximum estimated memory, in bytes, that a memoized correlated subquery may use
+     * to cache its results per execution. Least recently used keys are evicted first.
+     *
+     * Defaults to 16 MB
+     */
+    public static final String SUBQUERY_CACHE_MAX_MEMORY = "splice.execution.subqueryCache.maxMemory";
+    private static final long DEFAULT_SUBQUERY_CACHE_MAX_MEMORY = 16 * 1024 * 1024L;
+
+    /**
+     * The local file to which the statements of the statement cache are saved, periodically and
+     * on shutdown, so that they are compiled again on startup before the server takes traffic.
+     *
+     * Defaults to none, which disables the statement cache snapshot
+     */
+    public static final String STATEMENT_CACHE_SNAPSHOT_PATH = "splice.statementCache.snapshot.path";
+
+    /**
+     * How often, in milliseconds, the statement cache snapshot is saved.
+     *
+     * Defaults to 5 minutes
+     */
+    public static final String STATEMENT_CACHE_SNAPSHOT_INTERVAL = "splice.statementCache.snapshot.interval";
+    private static final long DEFAULT_STATEMENT_CACHE_SNAPSHOT_INTERVAL = 5 * 60 * 1000L;
+
+    /**
+     * The maximum number of statements saved in the statement cache snapshot, most recently
+     * compiled first.
+     *
+     * Defaults to 1000
+     */
+    public static final String STATEMENT_CACHE_SNAPSHOT_MAX_STATEMENTS = "splice.statementCache.snapshot.maxStatements";
+    private static final int DEFAULT_STATEMENT_CACHE_SNAPSHOT_MAX_STATEMENTS = 1000;
+
+    /**
+     * How long, in milliseconds, startup waits for the statements of the snapshot to be compiled
+     * before the server takes traffic. Compilation goes on in the background afterwards.
+     *
+     * Defaults to 1 minute
+     */
+    public static final String STATEMENT_CACHE_WARMUP_TIMEOUT = "splice.statementCache.snapshot.warmupTimeout";
+    private static final long DEFAULT_STATEMENT_CACHE_WARMUP_TIMEOUT = 60 * 1000L;
+
+    /**
+     * The number of threads that format and compress rows for a CSV export on the control
+     * path. A value of 1 writes the export from the calling thread.
+     *
+     * Defaults to 4
+     */
+    public static final String EXPORT_CONTROL_PARALLELISM = "splice.export.control.parallelism";
+    private static final int DEFAULT_EXPORT_CONTROL_PARALLELISM = 4;
+
+    /**
+     * The size, in bytes, after which a CSV export on the control path starts a new part file.
+     * A value of 0 writes a single part file.
+     *
+     * Defaults to 0
+     */
+    public static final String EXPORT_TARGET_FILE_SIZE = "splice.export.targetFileSize";
+    private static final long DEFAULT_EXPORT_TARGET_FILE_SIZE = 0L;
+
     public static final String MAX_CHECK_TABLE_ERRORS="splice.max.checktable.error";
     private static final int DEFAULT_MAX_CHECK_TABLE_ERRORS = 1000;
 
+    /**
+     * The number of index rows CHECK_TABLE keeps in memory, on the control path, while sorting an index by
+     * base row id. Beyond that, sorted runs are spilled to local temporary files.
+     *
+     * Defaults to 100000
+     */
+    public static final String CHECK_TABLE_SORT_BUFFER_ROWS = "splice.checktable.sortBufferRows";
+    private static final int DEFAULT_CHECK_TABLE_SORT_BUFFER_ROWS = 100000;
+
+    /**
+     * The number of partitions of the base table CHECK_TABLE compares to an index concurrently, on the
+     * control path.
+     *
+     * Defaults to 4
+     */
+    public static final String CHECK_TABLE_PARALLELISM = "splice.checktable.parallelism";
+    private static final int DEFAULT_CHECK_TABLE_PARALLELISM = 4;
+
+    /**
+     * Whether the number of rows base-table scans actually return on the control path is fed back into
+     * the optimizer, to correct the estimates of later compilations restricting the same conglomerate in the
+     * same way. Corrections are kept in memory, on the server the statements run on.
+     *
+     * Defaults to true
+     */
+    public static final String CARDINALITY_FEEDBACK_ENABLED = "splice.optimizer.cardinalityFeedback.enabled";
+    private static final boolean DEFAULT_CARDINALITY_FEEDBACK_ENABLED = true;
+
+    /**
+     * The maximum number of (conglomerate, predicate shape) corrections kept by each server. Past that, the
+     * least recently observed is forgotten.
+     *
+     * Defaults to 10000
+     */
+    public static final String CARDINALITY_FEEDBACK_MAX_ENTRIES = "splice.optimizer.cardinalityFeedback.maxEntries";
+    private static final int DEFAULT_CARDINALITY_FEEDBACK_MAX_ENTRIES = 10000;
+
     /**
      * specify the maximal number of iterations recursive query should do to avoid infinite loop
      */
@@ -313,6 +411,13 @@ public class SQLConfiguration implements ConfigurationDefault {
         builder.partitionserverPort = configurationSource.getInt(PARTITIONSERVER_PORT, DEFAULT_PARTITIONSERVER_PORT);
         builder.nestedLoopJoinBatchSize = configurationSource.getInt(NESTEDLOOPJOIN_BATCH_SIZE, DEFAULT_NESTEDLOOPJOIN_BATCH_SIZE);
         builder.controlExecutionRowLimit = configurationSource.getLong(CONTROL_EXECUTION_ROWS_LIMIT, DEFAULT_CONTROL_EXECUTION_ROWS_LIMIT);
+        builder.subqueryCacheMaxMemory = configurationSource.getLong(SUBQUERY_CACHE_MAX_MEMORY, DEFAULT_SUBQUERY_CACHE_MAX_MEMORY);
+        builder.statementCacheSnapshotPath = configurationSource.getString(STATEMENT_CACHE_SNAPSHOT_PATH, null);
+        builder.statementCacheSnapshotInterval = configurationSource.getLong(STATEMENT_CACHE_SNAPSHOT_INTERVAL, DEFAULT_STATEMENT_CACHE_SNAPSHOT_INTERVAL);
+        builder.statementCacheSnapshotMaxStatements = configurationSource.getInt(STATEMENT_CACHE_SNAPSHOT_MAX_STATEMENTS, DEFAULT_STATEMENT_CACHE_SNAPSHOT_MAX_STATEMENTS);
+        builder.statementCacheWarmupTimeout = configurationSource.getLong(STATEMENT_CACHE_WARMUP_TIMEOUT, DEFAULT_STATEMENT_CACHE_WARMUP_TIMEOUT);
+        builder.exportControlParallelism = configurationSource.getInt(EXPORT_CONTROL_PARALLELISM, DEFAULT_EXPORT_CONTROL_PARALLELISM);
+        builder.exportTargetFileSize = configurationSource.getLong(EXPORT_TARGET_FILE_SIZE, DEFAULT_EXPORT_TARGET_FILE_SIZE);
 
         // Where to place jar files...
         String defaultStorageFactoryHome;
@@ -345,6 +450,10 @@ public class SQLConfiguration implements ConfigurationDefault {
 
         builder.networkBindAddress = configurationSource.getString(NETWORK_BIND_ADDRESS, DEFAULT_NETWORK_BIND_ADDRESS);
         builder.maxCheckTableErrors = configurationSource.getInt(MAX_CHECK_TABLE_ERRORS, DEFAULT_MAX_CHECK_TABLE_ERRORS);
+        builder.checkTableSortBufferRows = configurationSource.getInt(CHECK_TABLE_SORT_BUFFER_ROWS, DEFAULT_CHECK_TABLE_SORT_BUFFER_ROWS);
+        builder.checkTableParallelism = configurationSource.getInt(CHECK_TABLE_PARALLELISM, DEFAULT_CHECK_TABLE_PARALLELISM);
+        builder.cardinalityFeedbackEnabled = configurationSource.getBoolean(CARDINALITY_FEEDBACK_ENABLED, DEFAULT_CARDINALITY_FEEDBACK_ENABLED);
+        builder.cardinalityFeedbackMaxEntries = configurationSource.getInt(CARDINALITY_FEEDBACK_MAX_ENTRIES, DEFAULT_CARDINALITY_FEEDBACK_MAX_ENTRIES);
 
         String nativeSparkAggregationModeString =
             configurationSource.getString(NATIVE_SPARK_AGGREGATION_MODE,
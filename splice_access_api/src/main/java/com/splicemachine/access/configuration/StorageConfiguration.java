@@ -39,10 +39,80 @@ public class StorageConfiguration implements ConfigurationDefault {
     public static final String MINIMUM_SPLITS_PER_REGION = "splice.minimumSplitsPerRegion";
     public static final int DEFAULT_MINIMUM_SPLITS_PER_REGION = 8;
 
+    /**
+     * The memstore size, in bytes, at which a partition of the in-memory storage engine flushes its
+     * memstore into an immutable store file, as HBase would. A value of 0 disables automatic flushes,
+     * so data only moves to store files when a partition is explicitly flushed.
+     *
+     * Defaults to 0
+     */
+    public static final String MEM_STORAGE_FLUSH_SIZE = "splice.mem.storage.flushSize";
+    public static final long DEFAULT_MEM_STORAGE_FLUSH_SIZE = 0L;
+
+    /**
+     * The size, in bytes, of the blocks the in-memory storage engine divides its store files into.
+     *
+     * Defaults to 64 KB
+     */
+    public static final String MEM_STORAGE_BLOCK_SIZE = "splice.mem.storage.blockSize";
+    public static final int DEFAULT_MEM_STORAGE_BLOCK_SIZE = 64*1024;
+
+    /**
+     * The number of store files at which a partition of the in-memory storage engine compacts them
+     * into a single file. A value of 0 disables automatic compactions.
+     *
+     * Defaults to 3
+     */
+    public static final String MEM_STORAGE_COMPACTION_THRESHOLD = "splice.mem.storage.compactionThreshold";
+    public static final int DEFAULT_MEM_STORAGE_COMPACTION_THRESHOLD = 3;
+
+    /**
+     * The approximate amount of heap, in bytes, the client-side cache of table partition locations
+     * may use before it starts evicting the least recently used tables.
+     *
+     * Defaults to 64 MB
+     */
+    public static final String PARTITION_LOCATION_CACHE_MAX_SIZE = "splice.storage.partitionLocationCache.maxSize";
+    public static final long DEFAULT_PARTITION_LOCATION_CACHE_MAX_SIZE = 64*1024*1024L;
+
+    /**
+     * Whether client-side scanners fetch their next batch of rows in the background while the current
+     * batch is being processed. Small scans are never prefetched.
+     *
+     * Defaults to true
+     */
+    public static final String SCANNER_PREFETCH_ENABLED = "splice.storage.scannerPrefetch.enabled";
+    public static final boolean DEFAULT_SCANNER_PREFETCH_ENABLED = true;
+
+    /**
+     * The maximum size, in bytes, of a batch of rows prefetched by a client-side scanner. Batches grow and
+     * shrink with the rate at which rows are consumed, but never beyond this many bytes (estimated from the
+     * size of the rows already read).
+     *
+     * Defaults to 4 MB
+     */
+    public static final String SCANNER_PREFETCH_MAX_BYTES = "splice.storage.scannerPrefetch.maxBytes";
+    public static final long DEFAULT_SCANNER_PREFETCH_MAX_BYTES = 4*1024*1024L;
+
+    /**
+     * The number of threads fetching batches for client-side scanners, shared by all the scanners of the JVM.
+     *
+     * Defaults to 32
+     */
+    public static final String SCANNER_PREFETCH_THREADS = "splice.storage.scannerPrefetch.threads";
+    public static final int DEFAULT_SCANNER_PREFETCH_THREADS = 32;
+
     @Override
     public void setDefaults(ConfigurationBuilder builder, ConfigurationSource configurationSource) {
         builder.splitBlockSize = configurationSource.getInt(SPLIT_BLOCK_SIZE, DEFAULT_SPLIT_BLOCK_SIZE);
         builder.tableSplitSleepInterval = configurationSource.getLong(TABLE_SPLIT_SLEEP_INTERVAL, DEFAULT_SPLIT_WAIT_INTERVAL);
         builder.splitsPerRegionMin = configurationSource.getInt(MINIMUM_SPLITS_PER_REGION, DEFAULT_MINIMUM_SPLITS_PER_REGION);
+        builder.memStorageFlushSize = configurationSource.getLong(MEM_STORAGE_FLUSH_SIZE, DEFAULT_MEM_STORAGE_FLUSH_SIZE);
+        builder.memStorageBlockSize = configurationSource.getInt(MEM_STORAGE_BLOCK_SIZE, DEFAULT_MEM_STORAGE_BLOCK_SIZE);
+        builder.memStorageCompactionThreshold = configurationSource.getInt(MEM_STORAGE_COMPACTION_THRESHOLD, DEFAULT_MEM_STORAGE_COMPACTION_THRESHOLD);
+        builder.partitionLocationCacheMaxSize = configurationSource.getLong(PARTITION_LOCATION_CACHE_MAX_SIZE, DEFAULT_PARTITION_LOCATION_CACHE_MAX_SIZE);
+        builder.scannerPrefetchEnabled = configurationSource.getBoolean(SCANNER_PREFETCH_ENABLED, DEFAULT_SCANNER_PREFETCH_ENABLED);
+        builder.scannerPrefetchMaxBytes = configurationSource.getLong(SCANNER_PREFETCH_MAX_BYTES, DEFAULT_SCANNER_PREFETCH_MAX_BYTES);
+        builder.scannerPrefetchThreads = configurationSource.getInt(SCANNER_PREFETCH_THREADS, DEFAULT_SCANNER_PREFETCH_THREADS);
     }
 }
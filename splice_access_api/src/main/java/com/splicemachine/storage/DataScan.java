@@ -43,6 +43,12 @@ public interface DataScan extends Attributable{
 
     boolean isDescendingScan();
 
+    /**
+     * @return an independent copy of this scan, whose key range can be changed without affecting this one
+     * @throws IOException if the scan cannot be copied
+     */
+    DataScan copy() throws IOException;
+
     DataScan cacheRows(int rowsToCache);
 
     DataScan batchCells(int cellsToBatch);
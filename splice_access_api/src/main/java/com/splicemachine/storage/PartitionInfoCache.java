@@ -31,6 +31,19 @@ public interface PartitionInfoCache<TableInfo>{
     List<Partition> getIfPresent(TableInfo tableInfo) throws IOException;
     void put(TableInfo tableInfo, List<Partition> partitions) throws IOException;
 
+    /**
+     * Invalidate only the cached partition owning {@code rowKey}, e.g. because it has moved or split, while
+     * the locations of the other partitions of the table stay cached.
+     */
+    void invalidate(TableInfo tableInfo, byte[] rowKey) throws IOException;
+    void invalidate(byte[] tableName, byte[] rowKey) throws IOException;
+
+    /**
+     * @return the cached partitions overlapping [{@code startRow},{@code stopRow}), or null if the locations
+     * of that range are not all cached
+     */
+    List<Partition> getIfPresent(TableInfo tableInfo, byte[] startRow, byte[] stopRow) throws IOException;
+
     void invalidateAdapter(TableInfo tableInfo) throws IOException;
     void invalidateAdapter(byte[] tableName) throws IOException;
     List<Partition> getAdapterIfPresent(TableInfo tableInfo) throws IOException;
@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.storage;
+
+import com.splicemachine.access.util.ByteComparisons;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Samples the row keys written to and read from a partition served by this server, so that hot partitions
+ * and the keys they should be split at can be found.
+ *
+ * Keys are kept in fixed-size reservoirs (each key seen has the same chance of being sampled) over a window
+ * which is restarted every time it is {@link #roll() rolled}. Recording a key is lock-free and, once the
+ * reservoir is full, almost always a single counter increment.
+ *
+ * Samplers are registered per partition, by encoded name, by the components which see the partition's
+ * traffic on the server.
+ */
+public class PartitionKeySampler{
+    public static final int DEFAULT_CAPACITY = 128;
+
+    private static final ConcurrentMap<String, PartitionKeySampler> SAMPLERS = new ConcurrentHashMap<>();
+
+    private final Partition partition;
+    private final int capacity;
+    private final AtomicReference<Window> window;
+
+    public PartitionKeySampler(Partition partition,int capacity){
+        this.partition=partition;
+        this.capacity=capacity;
+        this.window=new AtomicReference<>(new Window(capacity,System.currentTimeMillis()));
+    }
+
+    /**
+     * @return the sampler of {@code partition}, registering one if there is none yet
+     */
+    public static PartitionKeySampler register(Partition partition){
+        String name = partition.getEncodedName();
+        PartitionKeySampler sampler = SAMPLERS.get(name);
+        if(sampler==null){
+            PartitionKeySampler newSampler = new PartitionKeySampler(partition,DEFAULT_CAPACITY);
+            sampler = SAMPLERS.putIfAbsent(name,newSampler);
+            if(sampler==null)
+                sampler = newSampler;
+        }
+        return sampler;
+    }
+
+    public static void deregister(Partition partition){
+        SAMPLERS.remove(partition.getEncodedName());
+    }
+
+    public static Collection<PartitionKeySampler> registered(){
+        return SAMPLERS.values();
+    }
+
+    public Partition getPartition(){
+        return partition;
+    }
+
+    public void recordWrite(byte[] rowKey){
+        window.get().writes.record(rowKey);
+    }
+
+    public void recordRead(byte[] rowKey){
+        window.get().reads.record(rowKey);
+    }
+
+    /**
+     * Ends the current window and starts a new one.
+     *
+     * @return what was sampled in the window which just ended
+     */
+    public Sample roll(){
+        long now = System.currentTimeMillis();
+        Window ended = window.getAndSet(new Window(capacity,now));
+        return new Sample(now-ended.startTime,
+                ended.writes.count.get(),ended.writes.sortedKeys(),
+                ended.reads.count.get(),ended.reads.sortedKeys());
+    }
+
+    /**
+     * The keys sampled for a partition over a window, in key order.
+     */
+    public static class Sample{
+        private final long durationMillis;
+        private final long writeCount;
+        private final List<byte[]> writeKeys;
+        private final long readCount;
+        private final List<byte[]> readKeys;
+
+        public Sample(long durationMillis,long writeCount,List<byte[]> writeKeys,long readCount,List<byte[]> readKeys){
+            this.durationMillis=durationMillis;
+            this.writeCount=writeCount;
+            this.writeKeys=writeKeys;
+            this.readCount=readCount;
+            this.readKeys=readKeys;
+        }
+
+        public long getDurationMillis(){
+            return durationMillis;
+        }
+
+        public long getWriteCount(){
+            return writeCount;
+        }
+
+        public List<byte[]> getWriteKeys(){
+            return writeKeys;
+        }
+
+        public long getReadCount(){
+            return readCount;
+        }
+
+        public List<byte[]> getReadKeys(){
+            return readKeys;
+        }
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper classes*/
+    private static class Window{
+        private final long startTime;
+        private final Reservoir writes;
+        private final Reservoir reads;
+
+        Window(int capacity,long startTime){
+            this.startTime=startTime;
+            this.writes=new Reservoir(capacity);
+            this.reads=new Reservoir(capacity);
+        }
+    }
+
+    private static class Reservoir{
+        private final AtomicLong count = new AtomicLong(0L);
+        private final AtomicReferenceArray<byte[]> keys;
+
+        Reservoir(int capacity){
+            this.keys=new AtomicReferenceArray<>(capacity);
+        }
+
+        void record(byte[] key){
+            long n = count.incrementAndGet();
+            if(key==null || key.length==0)
+                return; // e.g. a scan of the whole partition, which is counted but has no key to split at
+            if(n<=keys.length()){
+                keys.set((int)(n-1),key);
+            }else{
+                long slot = ThreadLocalRandom.current().nextLong(n);
+                if(slot<keys.length())
+                    keys.set((int)slot,key);
+            }
+        }
+
+        List<byte[]> sortedKeys(){
+            List<byte[]> sorted = new ArrayList<>(keys.length());
+            for(int i=0;i<keys.length();i++){
+                byte[] key = keys.get(i);
+                if(key!=null)
+                    sorted.add(key);
+            }
+            byte[][] array = sorted.toArray(new byte[sorted.size()][]);
+            Arrays.sort(array,ByteComparisons.comparator());
+            return Arrays.asList(array);
+        }
+    }
+}
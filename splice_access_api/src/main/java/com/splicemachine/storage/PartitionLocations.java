@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.storage;
+
+import com.splicemachine.access.util.ByteComparisons;
+import com.splicemachine.primitives.ByteComparator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Immutable, range-indexed view of the partitions of a single table, as held by a
+ * {@link PartitionInfoCache}.
+ *
+ * Partitions are indexed by their start key, so finding the partition owning a row, or the partitions
+ * overlapping a key range, costs a single {@code floorEntry} lookup rather than a scan of every partition
+ * of the table. A single partition can be dropped with {@link #without(byte[])} when it is found to have
+ * moved or split; lookups falling into the resulting hole return null, so that the caller reloads only
+ * what it needs while lookups elsewhere in the table keep being served from the cache.
+ */
+public final class PartitionLocations{
+    /*
+     * Rough per-partition overhead (map entry, partition wrapper, region info and server location)
+     * on top of the key bytes, used to weigh entries for memory-based eviction.
+     */
+    private static final int PARTITION_OVERHEAD = 512;
+
+    private final NavigableMap<byte[], Partition> byStartKey;
+    private final List<Partition> partitions;
+    private final long heapSize;
+
+    private PartitionLocations(NavigableMap<byte[], Partition> byStartKey,List<Partition> partitions){
+        this.byStartKey=byStartKey;
+        this.partitions=partitions;
+        long size = 0L;
+        for(Partition p:byStartKey.values()){
+            size+=PARTITION_OVERHEAD+p.getStartKey().length+p.getEndKey().length+2*p.getName().length();
+        }
+        this.heapSize=size;
+    }
+
+    public static PartitionLocations of(List<Partition> partitions){
+        NavigableMap<byte[], Partition> byStartKey = new TreeMap<>(ByteComparisons.comparator());
+        for(Partition p:partitions){
+            byStartKey.put(p.getStartKey(),p);
+        }
+        return new PartitionLocations(byStartKey,Collections.unmodifiableList(new ArrayList<>(partitions)));
+    }
+
+    /**
+     * @return all the partitions of the table, or null if one of them has been invalidated
+     */
+    public List<Partition> all(){
+        return partitions;
+    }
+
+    /**
+     * @return the partition owning {@code row}, or null if its location is not cached
+     */
+    public Partition containing(byte[] row){
+        Map.Entry<byte[], Partition> entry = byStartKey.floorEntry(row);
+        if(entry==null || !ends(entry.getValue(),row))
+            return null;
+        return entry.getValue();
+    }
+
+    /**
+     * @return the partitions overlapping [{@code startRow},{@code stopRow}) in key order, or null if the location
+     * of any part of that range is not cached. An empty row stands for the beginning or the end of the table.
+     */
+    public List<Partition> overlapping(byte[] startRow,byte[] stopRow){
+        ByteComparator comparator = ByteComparisons.comparator();
+        Map.Entry<byte[], Partition> first = byStartKey.floorEntry(startRow);
+        if(first==null || !ends(first.getValue(),startRow))
+            return null;
+        List<Partition> overlapping = new ArrayList<>();
+        byte[] expectedStart = first.getKey();
+        for(Partition p:byStartKey.tailMap(first.getKey(),true).values()){
+            if(stopRow.length>0 && comparator.compare(p.getStartKey(),stopRow)>=0)
+                break;
+            if(comparator.compare(p.getStartKey(),expectedStart)!=0)
+                return null; // a hole left by an invalidated partition
+            overlapping.add(p);
+            expectedStart = p.getEndKey();
+            if(expectedStart.length==0)
+                break;
+        }
+        if(expectedStart.length>0 && (stopRow.length==0 || comparator.compare(expectedStart,stopRow)<0))
+            return null; // the range extends past the last cached partition
+        return overlapping;
+    }
+
+    /**
+     * @return a copy of these locations without the partition owning {@code row}, or this instance if
+     * none does
+     */
+    public PartitionLocations without(byte[] row){
+        Partition p = containing(row);
+        if(p==null)
+            return this;
+        NavigableMap<byte[], Partition> remaining = new TreeMap<>(byStartKey);
+        remaining.remove(p.getStartKey());
+        return new PartitionLocations(remaining,null);
+    }
+
+    public int size(){
+        return byStartKey.size();
+    }
+
+    /**
+     * @return an estimate of the heap used by these locations, in bytes
+     */
+    public long heapSize(){
+        return heapSize;
+    }
+
+    private static boolean ends(Partition p,byte[] row){
+        byte[] endKey = p.getEndKey();
+        return endKey.length==0 || ByteComparisons.comparator().compare(row,endKey)<0;
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2012 - 2021 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.access.configuration;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.splicemachine.access.configuration.OlapConfigurations.OLAP_SCHEDULER_TENANT_WEIGHTS;
+import static com.splicemachine.access.configuration.OlapConfigurations.parseTenantValues;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class OlapConfigurationsTest {
+
+    @Test
+    public void tenantsAreNormalizedRoleNames() {
+        Map<String, Integer> expected = new HashMap<>();
+        expected.put("BI_ROLE", 4);
+        expected.put("ETL_ROLE", 1);
+        expected.put("Etl Role", 2);
+        assertEquals(expected, parseTenantValues(OLAP_SCHEDULER_TENANT_WEIGHTS, "BI_ROLE=4, etl_role = 1 ,\"Etl Role\"=2,"));
+    }
+
+    @Test
+    public void noTenants() {
+        assertTrue(parseTenantValues(OLAP_SCHEDULER_TENANT_WEIGHTS, "").isEmpty());
+        assertTrue(parseTenantValues(OLAP_SCHEDULER_TENANT_WEIGHTS, " , ").isEmpty());
+    }
+
+    @Test
+    public void malformedTenantsAreRejected() {
+        assertRejected("BI_ROLE");
+        assertRejected("=4");
+        assertRejected("BI_ROLE=four");
+        assertRejected("BI ROLE=4");
+    }
+
+    private static void assertRejected(String entry) {
+        try {
+            parseTenantValues(OLAP_SCHEDULER_TENANT_WEIGHTS, "ETL_ROLE=1," + entry);
+            fail("Expected '" + entry + "' to be rejected");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Invalid value for " + OLAP_SCHEDULER_TENANT_WEIGHTS + ": '" + entry +
+                    "' is not of the form ROLE=<integer>", e.getMessage());
+        }
+    }
+}
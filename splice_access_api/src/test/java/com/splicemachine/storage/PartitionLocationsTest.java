@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.storage;
+
+import com.splicemachine.primitives.Bytes;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class PartitionLocationsTest {
+    private final Partition first = partition("", "c");
+    private final Partition second = partition("c", "m");
+    private final Partition third = partition("m", "");
+    private final PartitionLocations locations = PartitionLocations.of(Arrays.asList(first, second, third));
+
+    @Test
+    public void findsOwningPartition() {
+        assertSame(first, locations.containing(Bytes.toBytes("a")));
+        assertSame(second, locations.containing(Bytes.toBytes("c")));
+        assertSame(second, locations.containing(Bytes.toBytes("lzz")));
+        assertSame(third, locations.containing(Bytes.toBytes("zzz")));
+        assertEquals(3, locations.all().size());
+    }
+
+    @Test
+    public void findsOverlappingPartitions() {
+        assertEquals(Arrays.asList(first, second, third), locations.overlapping(new byte[0], new byte[0]));
+        assertEquals(Arrays.asList(second), locations.overlapping(Bytes.toBytes("c"), Bytes.toBytes("m")));
+        assertEquals(Arrays.asList(first, second), locations.overlapping(Bytes.toBytes("b"), Bytes.toBytes("d")));
+        assertEquals(Arrays.asList(second, third), locations.overlapping(Bytes.toBytes("d"), new byte[0]));
+    }
+
+    @Test
+    public void invalidatesSinglePartition() {
+        PartitionLocations remaining = locations.without(Bytes.toBytes("d"));
+        assertNull(remaining.all());
+        assertEquals(2, remaining.size());
+        assertNull(remaining.containing(Bytes.toBytes("d")));
+        assertSame(first, remaining.containing(Bytes.toBytes("a")));
+        assertSame(third, remaining.containing(Bytes.toBytes("x")));
+
+        List<Partition> beforeHole = remaining.overlapping(new byte[0], Bytes.toBytes("c"));
+        assertEquals(Arrays.asList(first), beforeHole);
+        assertEquals(Arrays.asList(third), remaining.overlapping(Bytes.toBytes("n"), new byte[0]));
+        assertNull(remaining.overlapping(Bytes.toBytes("b"), Bytes.toBytes("n")));
+        assertNull(remaining.overlapping(Bytes.toBytes("d"), Bytes.toBytes("e")));
+
+        assertSame(remaining, remaining.without(Bytes.toBytes("d")));
+    }
+
+    private static Partition partition(String start, String end) {
+        Partition p = Mockito.mock(Partition.class);
+        Mockito.when(p.getStartKey()).thenReturn(Bytes.toBytes(start));
+        Mockito.when(p.getEndKey()).thenReturn(Bytes.toBytes(end));
+        Mockito.when(p.getName()).thenReturn(start + "-" + end);
+        return p;
+    }
+}
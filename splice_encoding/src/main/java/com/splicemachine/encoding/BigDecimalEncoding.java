@@ -105,6 +105,18 @@ class BigDecimalEncoding {
     private static final int ORDER_FLIP_MASK = 0xFF;
     private static final int ORDER_FLIP_EXCLUDE_HEADER_MASK = 0xFF >> HEADER_SIZE_BITS;
 
+    /*
+     * The number of digits that always fit in a long
+     */
+    private static final int MAX_COMPACT_DIGITS = 18;
+    private static final long[] POWERS_OF_TEN = new long[19];
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
     public static byte[] toBytes(BigDecimal value, boolean desc) {
         byte[] ascendingBytes = toBytes(value);
         if (desc) {
@@ -180,6 +192,130 @@ class BigDecimalEncoding {
         return data;
     }
 
+    /**
+     * Encode the decimal {@code unscaledValue * 10^-scale}. This produces the same bytes as
+     * {@link #toBytes(BigDecimal, boolean)} for the equivalent BigDecimal, without creating one.
+     */
+    public static byte[] toBytes(long unscaledValue, int scale, boolean desc) {
+        if (unscaledValue == Long.MIN_VALUE)
+            return toBytes(BigDecimal.valueOf(unscaledValue, scale), desc);
+
+        byte[] ascendingBytes = toBytes(unscaledValue, scale);
+        if (desc) {
+            for (int i = 0; i < ascendingBytes.length; i++) {
+                ascendingBytes[i] ^= ORDER_FLIP_MASK;
+            }
+        }
+        return ascendingBytes;
+    }
+
+    private static byte[] toBytes(long unscaledValue, int scale) {
+        if (unscaledValue == 0) {
+            return new byte[]{(byte) ((HEADER_ZERO << Byte.SIZE - HEADER_SIZE_BITS) & ORDER_FLIP_MASK)};
+        }
+
+        //strip trailing zeros, as toBytes(BigDecimal) does
+        while (unscaledValue % 10 == 0) {
+            unscaledValue /= 10;
+            scale--;
+        }
+        boolean negative = unscaledValue < 0;
+        long abs = negative ? -unscaledValue : unscaledValue;
+        int precision = digits(abs);
+        long exp = (long) precision - scale - 1;
+
+        byte[] expBytes = ScalarEncoding.writeLong(exp, negative ? HEADER_NEG : HEADER_POS, HEADER_SIZE_BITS);
+        int expLength = expBytes.length;
+        int length = (precision + 1) >>> 1;
+
+        byte[] data = new byte[expLength + length + 1];
+        System.arraycopy(expBytes, 0, data, 0, expLength);
+
+        long divisor = POWERS_OF_TEN[precision - 1];
+        for (int pos = 0; pos < length; pos++) {
+            byte bcd = (byte) (1 + abs / divisor << 4);
+            abs %= divisor;
+            divisor /= 10;
+            if (2 * pos + 1 < precision) {
+                bcd |= (byte) (1 + abs / divisor);
+                abs %= divisor;
+                divisor /= 10;
+            }
+            data[expLength + pos] = bcd;
+        }
+
+        data[data.length - 1] = 1;
+        if (negative) {
+            data[0] ^= ORDER_FLIP_EXCLUDE_HEADER_MASK;
+            for (int z = 1; z < data.length; z++) {
+                data[z] ^= ORDER_FLIP_MASK;
+            }
+        }
+        return data;
+    }
+
+    /**
+     * Decode an encoded decimal as an unscaled long and a scale, without creating a BigDecimal.
+     * A negative scale is normalized to zero.
+     *
+     * @param unscaledAndScale receives the unscaled value at index 0 and the scale at index 1
+     * @return false, leaving {@code unscaledAndScale} untouched, if the decimal is null or has more
+     * than 18 significant digits
+     */
+    public static boolean toUnscaledLong(byte[] data, int dataOffset, int dataLength, boolean desc, long[] unscaledAndScale) {
+        int mask = desc ? ORDER_FLIP_MASK : 0;
+        int h = ((data[dataOffset] ^ mask) & 0xff) >>> (Byte.SIZE - HEADER_SIZE_BITS);
+        if (h == HEADER_NULL) return false;
+        if (h == HEADER_ZERO) {
+            unscaledAndScale[0] = 0;
+            unscaledAndScale[1] = 0;
+            return true;
+        }
+
+        dataLength -= 1;    // skip trailing 1
+
+        boolean negative = (h == HEADER_NEG);
+        mask = desc ^ negative ? ORDER_FLIP_MASK : 0;
+
+        long[] expOffset = ScalarEncoding.readLong(data, dataOffset, desc ^ negative, HEADER_SIZE_BITS);
+        long exp = expOffset[0];
+        int offset = (int) expOffset[1];
+
+        int length = (dataLength - offset) * 2;
+        if (((data[dataOffset + dataLength - 1] ^ mask) & 0xf) == 0) {
+            length -= 1;
+        }
+        if (length > MAX_COMPACT_DIGITS)
+            return false;
+
+        long scale = length - 1 - exp;
+        if (scale < -MAX_COMPACT_DIGITS || scale > Integer.MAX_VALUE)
+            return false;
+
+        long longValue = 0;
+        for (int i = 0, shift = 4; i < length; ++i, shift = 4 - shift) {
+            int digit = ((data[dataOffset + offset + i/2] ^ mask) >>> shift) & 0xf;
+            longValue = longValue * 10 + digit - 1;
+        }
+        if (scale < 0) {
+            if (length - scale > MAX_COMPACT_DIGITS)
+                return false;
+            longValue *= POWERS_OF_TEN[(int) -scale];
+            scale = 0;
+        }
+        unscaledAndScale[0] = negative ? -longValue : longValue;
+        unscaledAndScale[1] = scale;
+        return true;
+    }
+
+    private static int digits(long abs) {
+        int digits = 1;
+        while (digits < POWERS_OF_TEN.length && abs >= POWERS_OF_TEN[digits]) {
+            digits++;
+        }
+        return digits;
+    }
+
     public static BigDecimal toBigDecimal(byte[] data, boolean desc) {
         return toBigDecimal(data, 0, data.length, desc);
     }
@@ -602,6 +602,25 @@ public final class Encoding {
         return BigDecimalEncoding.toBigDecimal(data, offset, length, desc);
     }
 
+    /**
+     * Encode the decimal {@code unscaledValue * 10^-scale} into the same order-preserving representation
+     * as {@link #encode(BigDecimal, boolean)}, without creating a BigDecimal.
+     */
+    public static byte[] encodeDecimal(long unscaledValue,int scale,boolean desc){
+        return BigDecimalEncoding.toBytes(unscaledValue, scale, desc);
+    }
+
+    /**
+     * Decode an order-preserving decimal representation into an unscaled long and a non-negative scale.
+     *
+     * @param unscaledAndScale receives the unscaled value at index 0 and the scale at index 1
+     * @return false if the decimal is null or does not fit in a long with at most 18 digits, in which
+     * case it must be decoded with {@link #decodeBigDecimal(byte[], int, int, boolean)}
+     */
+    public static boolean decodeUnscaledDecimal(byte[] data,int offset,int length,boolean desc,long[] unscaledAndScale){
+        return BigDecimalEncoding.toUnscaledLong(data, offset, length, desc, unscaledAndScale);
+    }
+
     /**
      * Encode a String into an ascending, order-preserving byte[].
      *
@@ -170,6 +170,28 @@ public class MultiFieldDecoder {
         return Encoding.decodeBigDecimal(data,oldOffset,currentOffset-oldOffset-1,desc);
     }
 
+    /**
+     * Decode the next field as an unscaled long and a scale, if it is a decimal with at most 18 digits.
+     * Otherwise, the field is not consumed and must be decoded with {@link #decodeNextBigDecimal(boolean)}.
+     *
+     * @param unscaledAndScale receives the unscaled value at index 0 and the scale at index 1
+     * @return true if the field was decoded
+     */
+    public boolean decodeNextUnscaledDecimal(boolean desc,long[] unscaledAndScale){
+        assert available();
+        if(currentOffset>=0 &&data[currentOffset]==0x00){
+            return false;
+        }
+
+        int oldOffset = currentOffset;
+        adjustOffset(-1);
+
+        if(Encoding.decodeUnscaledDecimal(data,oldOffset,currentOffset-oldOffset-1,desc,unscaledAndScale))
+            return true;
+        currentOffset = oldOffset;
+        return false;
+    }
+
     public String decodeNextString(){
        return decodeNextString(false);
     }
@@ -169,6 +169,17 @@ public class MultiFieldEncoder {
         return this;
     }
 
+    /**
+     * Encode the decimal {@code unscaledValue * 10^-scale}, in the same format as {@link #encodeNext(BigDecimal, boolean)}.
+     */
+    public MultiFieldEncoder encodeNextDecimal(long unscaledValue,int scale,boolean desc){
+        byte[] bytes = BigDecimalEncoding.toBytes(unscaledValue, scale, desc);
+        currentSize+=bytes.length;
+        fields[currentPos] = bytes;
+        currentPos++;
+        return this;
+    }
+
     public MultiFieldEncoder encodeNext(String value){
 //        assert currentPos<fields.length;
         byte[] bytes = StringEncoding.toBytes(value, false);
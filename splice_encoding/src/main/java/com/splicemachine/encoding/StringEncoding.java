@@ -119,6 +119,64 @@ public class StringEncoding {
         return getString(dataToCopy,desc);
     }
 
+    /**
+     * Returned by {@link #compareEncoded} when the encoded values cannot be compared as bytes.
+     */
+    public static final int NOT_COMPARABLE = Integer.MIN_VALUE;
+
+    private static final int ENCODED_SPACE = ' ' + 2;
+    private static final int ENCODED_EMPTY = 0x01;
+    /*
+     * UTF-8 lead bytes from here on start characters at or above U+E000, which are the only
+     * characters whose UTF-8 byte order differs from their UTF-16 (String) order.
+     */
+    private static final int ENCODED_SURROGATE_ORDER_LEAD = 0xEE + 2;
+
+    /**
+     * Compares two ascending-encoded strings without decoding them, the same way
+     * SQL compares string values in the UCS_BASIC collation: character by character and, if {@code padded}
+     * is set (as for two CHAR values), as if the shorter value were padded with blanks to the length of the
+     * longer one, otherwise with the shorter value sorting first (as for VARCHAR values).
+     *
+     * @return a negative value, zero or a positive value as {@code left} is less than, equal to or greater
+     * than {@code right}, or {@link #NOT_COMPARABLE} if the first difference is between characters
+     * which do not sort the same in UTF-8 and in UTF-16, in which case the caller must compare the decoded
+     * Strings instead.
+     */
+    public static int compareEncoded(byte[] left,int leftOffset,int leftLength,
+                                     byte[] right,int rightOffset,int rightLength,
+                                     boolean padded){
+        if(leftLength==1 && (left[leftOffset]&0xff)==ENCODED_EMPTY) leftLength=0;
+        if(rightLength==1 && (right[rightOffset]&0xff)==ENCODED_EMPTY) rightLength=0;
+
+        int shorterLength = Math.min(leftLength,rightLength);
+        for(int i=0;i<shorterLength;i++){
+            int l = left[leftOffset+i]&0xff;
+            int r = right[rightOffset+i]&0xff;
+            if(l!=r){
+                if(l>=ENCODED_SURROGATE_ORDER_LEAD || r>=ENCODED_SURROGATE_ORDER_LEAD)
+                    return NOT_COMPARABLE;
+                return l<r? -1: 1;
+            }
+        }
+        if(!padded)
+            return Integer.compare(leftLength,rightLength);
+        if(leftLength>rightLength)
+            return compareToBlanks(left,leftOffset+shorterLength,leftLength-shorterLength);
+        else if(rightLength>leftLength)
+            return -compareToBlanks(right,rightOffset+shorterLength,rightLength-shorterLength);
+        return 0;
+    }
+
+    private static int compareToBlanks(byte[] data,int offset,int length){
+        for(int i=offset;i<offset+length;i++){
+            int b = data[i]&0xff;
+            if(b!=ENCODED_SPACE)
+                return b<ENCODED_SPACE? -1: 1;
+        }
+        return 0;
+    }
+
     public static String getStringCopy(ByteBuffer buffer,boolean desc){
         byte[] dataToCopy = new byte[buffer.remaining()];
         buffer.get(dataToCopy);
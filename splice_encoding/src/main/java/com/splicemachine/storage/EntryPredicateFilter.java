@@ -26,9 +26,14 @@ import splice.com.google.common.base.Supplier;
  * Created on: 7/8/13
  */
 public class EntryPredicateFilter {
+    private static final StringPredicate[] NO_PREDICATES = new StringPredicate[0];
     public static final EntryPredicateFilter EMPTY_PREDICATE = new EntryPredicateFilter(new BitSet());
     private BitSet fieldsToReturn;
     private boolean returnIndex;
+    /*
+     * Evaluated against the encoded fields of the row, before they are accumulated
+     */
+    private StringPredicate[] predicates;
     public static EntryPredicateFilter emptyPredicate(){ return EMPTY_PREDICATE; }
 
     public EntryPredicateFilter(BitSet fieldsToReturn){
@@ -36,13 +41,33 @@ public class EntryPredicateFilter {
     }
 
     public EntryPredicateFilter(BitSet fieldsToReturn, boolean returnIndex){
+        this(fieldsToReturn, returnIndex, NO_PREDICATES);
+    }
+
+    public EntryPredicateFilter(BitSet fieldsToReturn, boolean returnIndex, StringPredicate[] predicates){
         this.fieldsToReturn = fieldsToReturn;
         this.returnIndex=returnIndex;
+        this.predicates = predicates==null? NO_PREDICATES: predicates;
     }
 
+    public StringPredicate[] getPredicates(){
+        return predicates;
+    }
+
+		/**
+		 * Accumulate the fields of the row key described by {@code index}. Predicates only apply
+		 * to the fields of the row value, so they are not evaluated here.
+		 */
 		public boolean match(Indexed index,
 												 Supplier<MultiFieldDecoder> decoderProvider,
 												 EntryAccumulator accumulator) throws IOException{
+				return match(index, decoderProvider, accumulator, false);
+		}
+
+		private boolean match(Indexed index,
+												 Supplier<MultiFieldDecoder> decoderProvider,
+												 EntryAccumulator accumulator,
+												 boolean applyPredicates) throws IOException{
 				BitSet remainingFields = accumulator.getRemainingFields();
 
 				MultiFieldDecoder decoder = decoderProvider.get();
@@ -82,6 +107,8 @@ public class EntryPredicateFilter {
 						}else if(offset+limit>array.length){
 								limit = array.length-offset;
 						}
+						if(applyPredicates && limit>0 && !matchPredicates(encodedPos, array, offset, limit))
+								return false;
 						accumulate(index, encodedPos, accumulator, array, offset, limit);
 				}
 				return true;
@@ -89,7 +116,15 @@ public class EntryPredicateFilter {
 
 
 		public boolean match(EntryDecoder entry,EntryAccumulator accumulator) throws IOException {
-				return match(entry.getCurrentIndex(),entry, accumulator);
+				return match(entry.getCurrentIndex(),entry, accumulator, predicates.length>0);
+    }
+
+    private boolean matchPredicates(int position, byte[] data, int offset, int length){
+        for(StringPredicate predicate:predicates){
+            if(predicate.getColumn()==position && !predicate.match(data,offset,length))
+                return false;
+        }
+        return true;
     }
 
     public void rowReturned(){
@@ -106,18 +141,40 @@ public class EntryPredicateFilter {
 
     public byte[] toBytes() {
         //if we dont have any distinguishing information, just send over an empty byte array
-        if(fieldsToReturn.isEmpty() && !returnIndex)
+        if(fieldsToReturn.isEmpty() && !returnIndex && predicates.length==0)
             return new byte[]{};
 
         /*
          * Format is as follows:
          * BitSet bytes
          * 1-byte returnIndex
+         * and, only if there are predicates:
+         * 4-byte number of predicates
+         * for each predicate, 4-byte length followed by the predicate bytes
          */
         byte[] bitSetBytes = Bytes.toByteArray(fieldsToReturn);
-        byte[] finalData = new byte[bitSetBytes.length+1];
+        byte[][] predicateBytes = new byte[predicates.length][];
+        int size = bitSetBytes.length+1;
+        if(predicates.length>0){
+            size+=4;
+            for(int i=0;i<predicates.length;i++){
+                predicateBytes[i] = predicates[i].toBytes();
+                size+=4+predicateBytes[i].length;
+            }
+        }
+        byte[] finalData = new byte[size];
         System.arraycopy(bitSetBytes,0,finalData,0,bitSetBytes.length);
         finalData[bitSetBytes.length] = returnIndex? (byte)0x01: 0x00;
+        if(predicates.length>0){
+            int pos = bitSetBytes.length+1;
+            Bytes.toBytes(predicates.length,finalData,pos);
+            pos+=4;
+            for(byte[] predicate:predicateBytes){
+                Bytes.toBytes(predicate.length,finalData,pos);
+                System.arraycopy(predicate,0,finalData,pos+4,predicate.length);
+                pos+=4+predicate.length;
+            }
+        }
         return finalData;
     }
 
@@ -125,8 +182,20 @@ public class EntryPredicateFilter {
         if(data==null||data.length==0) return EMPTY_PREDICATE;
 
         Pair<BitSet,Integer> fieldsToReturn = Bytes.fromByteArray(data, 0);
-        boolean returnIndex = data[fieldsToReturn.getSecond()] > 0;
-        return new EntryPredicateFilter(fieldsToReturn.getFirst(),returnIndex);
+        int pos = fieldsToReturn.getSecond();
+        boolean returnIndex = data[pos] > 0;
+        pos++;
+        if(pos>=data.length)
+            return new EntryPredicateFilter(fieldsToReturn.getFirst(),returnIndex);
+
+        StringPredicate[] predicates = new StringPredicate[Bytes.toInt(data,pos)];
+        pos+=4;
+        for(int i=0;i<predicates.length;i++){
+            int length = Bytes.toInt(data,pos);
+            predicates[i] = StringPredicate.fromBytes(data,pos+4,length);
+            pos+=4+length;
+        }
+        return new EntryPredicateFilter(fieldsToReturn.getFirst(),returnIndex,predicates);
     }
 
     private void skipField(MultiFieldDecoder decoder, int position, Indexed index) {
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.storage;
+
+import com.splicemachine.encoding.Encoding;
+import com.splicemachine.encoding.StringEncoding;
+import com.splicemachine.primitives.Bytes;
+
+import java.util.Arrays;
+
+/**
+ * A predicate on a single string column of a row which is evaluated against the encoded bytes
+ * of the column, so that rows can be filtered before their fields are decoded into Strings.
+ *
+ * Only the semantics of the UCS_BASIC collation can be evaluated this way. A predicate may let
+ * through a row which does not actually qualify (when the bytes alone can't decide), so it must
+ * only be used in front of the full evaluation of the same predicate, never in place of it.
+ * Null fields always match.
+ */
+public abstract class StringPredicate{
+    /*
+     * Comparison operators, with the same values as the ORDER_OP_* constants used by Qualifiers
+     */
+    public static final int LESS_THAN = 1;
+    public static final int EQUALS = 2;
+    public static final int LESS_OR_EQUALS = 3;
+    public static final int GREATER_THAN = 4;
+    public static final int GREATER_OR_EQUALS = 5;
+
+    private static final byte COMPARE = 0x01;
+
+    protected final int column;
+
+    StringPredicate(int column){
+        this.column=column;
+    }
+
+    public int getColumn(){
+        return column;
+    }
+
+    /**
+     * @param data the encoded field, which is never null nor empty
+     * @return false if the field is known not to satisfy the predicate
+     */
+    public abstract boolean match(byte[] data,int offset,int length);
+
+    public abstract byte[] toBytes();
+
+    /**
+     * A predicate on {@code column op value}, negated if {@code negate} is set. Values are compared as if
+     * blank padded to the same length when {@code padded} is set (CHAR compared to CHAR), otherwise exactly
+     * (when either side is a VARCHAR or LONG VARCHAR).
+     */
+    public static StringPredicate compare(int column,int operator,boolean negate,boolean padded,String value){
+        if(operator<LESS_THAN || operator>GREATER_OR_EQUALS)
+            throw new IllegalArgumentException("Unknown operator "+operator);
+        return new Compare(column,operator,negate,padded,Encoding.encode(value,false));
+    }
+
+    public static StringPredicate fromBytes(byte[] data,int offset,int length){
+        int column=Bytes.toInt(data,offset+1);
+        switch(data[offset]){
+            case COMPARE:
+                return new Compare(column,data[offset+5]&0x0f,(data[offset+5]&0x10)!=0,(data[offset+5]&0x20)!=0,
+                        Arrays.copyOfRange(data,offset+6,offset+length));
+            default:
+                throw new IllegalArgumentException("Unknown string predicate type "+data[offset]);
+        }
+    }
+
+    byte[] toBytes(byte type,int flags,byte[] value){
+        byte[] data=new byte[6+value.length];
+        data[0]=type;
+        Bytes.toBytes(column,data,1);
+        data[5]=(byte)flags;
+        System.arraycopy(value,0,data,6,value.length);
+        return data;
+    }
+
+    private static final class Compare extends StringPredicate{
+        private final int operator;
+        private final boolean negate;
+        private final boolean padded;
+        private final byte[] value;
+
+        Compare(int column,int operator,boolean negate,boolean padded,byte[] value){
+            super(column);
+            this.operator=operator;
+            this.negate=negate;
+            this.padded=padded;
+            this.value=value;
+        }
+
+        @Override
+        public boolean match(byte[] data,int offset,int length){
+            int compare=StringEncoding.compareEncoded(data,offset,length,value,0,value.length,padded);
+            if(compare==StringEncoding.NOT_COMPARABLE)
+                return true;
+            boolean result;
+            switch(operator){
+                case LESS_THAN: result = compare<0; break;
+                case EQUALS: result = compare==0; break;
+                case LESS_OR_EQUALS: result = compare<=0; break;
+                case GREATER_THAN: result = compare>0; break;
+                default: result = compare>=0;
+            }
+            return result!=negate;
+        }
+
+        @Override
+        public byte[] toBytes(){
+            return toBytes(COMPARE,operator|(negate? 0x10: 0)|(padded? 0x20: 0),value);
+        }
+
+        @Override
+        public String toString(){
+            return "Compare{column="+column+", operator="+operator+", negate="+negate+", padded="+padded+"}";
+        }
+    }
+}
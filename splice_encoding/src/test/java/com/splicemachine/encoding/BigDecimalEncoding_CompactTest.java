@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.encoding;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/*
+ * Test that the unscaled long encoding of BigDecimalEncoding matches the BigDecimal encoding.
+ */
+public class BigDecimalEncoding_CompactTest {
+
+    @Test
+    public void testFixedValues() {
+        long[][] values = {
+                {0, 0}, {0, 4}, {1, 0}, {-1, 0}, {1250, 2}, {-1250, 2}, {100, 0}, {100, -2},
+                {123456789012345678L, 2}, {-999999999999999999L, 18}, {5, 30},
+                {Long.MAX_VALUE, 0}, {Long.MIN_VALUE, 4}, {Long.MIN_VALUE + 1, 0}
+        };
+        for (long[] value : values) {
+            assertSameEncoding(value[0], (int) value[1]);
+        }
+    }
+
+    @Test
+    public void testRandomValues() {
+        Random random = new Random(0);
+        for (int i = 0; i < 10000; i++) {
+            long unscaled = random.nextLong() / (long) Math.pow(10, random.nextInt(19));
+            assertSameEncoding(unscaled, random.nextInt(20));
+        }
+    }
+
+    @Test
+    public void testDecodesToStrippedScale() {
+        long[] decoded = new long[2];
+        byte[] data = Encoding.encode(new BigDecimal("12.50"), false);
+        assertTrue(Encoding.decodeUnscaledDecimal(data, 0, data.length, false, decoded));
+        assertEquals(125, decoded[0]);
+        assertEquals(1, decoded[1]);
+
+        data = Encoding.encode(new BigDecimal("-2000.00"), true);
+        assertTrue(Encoding.decodeUnscaledDecimal(data, 0, data.length, true, decoded));
+        assertEquals(-2000, decoded[0]);
+        assertEquals(0, decoded[1]);
+    }
+
+    @Test
+    public void testDoesNotDecodeWideValues() {
+        long[] decoded = new long[2];
+        for (String value : new String[]{"1234567890123456789", "1e30", "0.1234567890123456789"}) {
+            byte[] data = Encoding.encode(new BigDecimal(value), false);
+            assertFalse(value, Encoding.decodeUnscaledDecimal(data, 0, data.length, false, decoded));
+        }
+    }
+
+    @Test
+    public void testMultiFieldDecoderLeavesWideValues() {
+        byte[] row = MultiFieldEncoder.create(3)
+                .encodeNextDecimal(1999, 2, false)
+                .encodeNext(new BigDecimal("12345678901234567890.5"), false)
+                .encodeNext(7)
+                .build();
+        long[] decoded = new long[2];
+        MultiFieldDecoder decoder = MultiFieldDecoder.wrap(row);
+        assertTrue(decoder.decodeNextUnscaledDecimal(false, decoded));
+        assertEquals(1999, decoded[0]);
+        assertEquals(2, decoded[1]);
+        assertFalse(decoder.decodeNextUnscaledDecimal(false, decoded));
+        assertEquals(new BigDecimal("12345678901234567890.5"), decoder.decodeNextBigDecimal(false));
+        assertEquals(7, decoder.decodeNextInt());
+    }
+
+    private static void assertSameEncoding(long unscaled, int scale) {
+        BigDecimal value = BigDecimal.valueOf(unscaled, scale);
+        for (boolean desc : new boolean[]{false, true}) {
+            byte[] expected = Encoding.encode(value, desc);
+            byte[] actual = Encoding.encodeDecimal(unscaled, scale, desc);
+            assertArrayEquals(value + " desc=" + desc, expected, actual);
+
+            long[] decoded = new long[2];
+            if (Encoding.decodeUnscaledDecimal(actual, 0, actual.length, desc, decoded)) {
+                assertEquals(value + " desc=" + desc, 0, value.compareTo(BigDecimal.valueOf(decoded[0], (int) decoded[1])));
+            } else {
+                BigDecimal stripped = value.stripTrailingZeros();
+                if (stripped.scale() < 0)
+                    stripped = stripped.setScale(0);
+                assertTrue(value + " desc=" + desc, stripped.precision() > 18);
+            }
+        }
+    }
+}
@@ -139,4 +139,33 @@ public class EntryPredicateFilterTest {
         Assert.assertEquals("Incorrect string returned!",testType1,decodedField);
         Assert.assertTrue("more than one field available in field decoder!",fieldDecoder.nextIsNull());
     }
+    @Test
+    public void testStringPredicatesFilterRowsBeforeAccumulation() throws Exception {
+        BitSet fieldsToReturn = new BitSet(2);
+        fieldsToReturn.set(0);
+        fieldsToReturn.set(1);
+        EntryPredicateFilter predicateFilter = EntryPredicateFilter.fromBytes(new EntryPredicateFilter(fieldsToReturn, true,
+                new StringPredicate[]{StringPredicate.compare(0, StringPredicate.EQUALS, false, true, "test"),
+                        StringPredicate.compare(1, StringPredicate.LESS_OR_EQUALS, false, false, "hello")}).toBytes());
+        Assert.assertEquals(2, predicateFilter.getPredicates().length);
+
+        Assert.assertTrue(matches(predicateFilter, "test  ", "hello"));
+        Assert.assertFalse(matches(predicateFilter, "tesT", "hello"));
+        Assert.assertFalse(matches(predicateFilter, "test", "help"));
+        Assert.assertTrue("null fields must match", matches(predicateFilter, "test", null));
+    }
+
+    private static boolean matches(EntryPredicateFilter predicateFilter, String first, String second) throws Exception {
+        BitSet setCols = new BitSet(2);
+        setCols.set(0);
+        setCols.set(1);
+        BitSet empty = new BitSet(2);
+        BitIndex index = BitIndexing.getBestIndex(setCols, empty, empty, empty);
+        EntryEncoder encoder = EntryEncoder.create(defaultPool, index);
+        encoder.getEntryEncoder().encodeNext(first).encodeNext(second);
+
+        EntryDecoder decoder = new EntryDecoder();
+        decoder.set(encoder.encode());
+        return predicateFilter.match(decoder, predicateFilter.newAccumulator());
+    }
 }
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.storage;
+
+import com.splicemachine.encoding.Encoding;
+import com.splicemachine.encoding.StringEncoding;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class StringPredicateTest {
+    private static final String[] VALUES = {"", " ", "a", "a ", "a  ", "ab", "abc", "abd", "b", "a\t", "été",
+            "中文", "", "￿", "😀", "x😀y", "%", "_"};
+
+    /*
+     * SQL comparison of CHAR values: the shorter value is padded with blanks
+     */
+    private static int paddedCompare(String left, String right) {
+        int length = Math.max(left.length(), right.length());
+        for (int i = 0; i < length; i++) {
+            char l = i < left.length() ? left.charAt(i) : ' ';
+            char r = i < right.length() ? right.charAt(i) : ' ';
+            if (l != r)
+                return l < r ? -1 : 1;
+        }
+        return 0;
+    }
+
+    private static int compare(String left, String right, boolean padded) {
+        return padded ? paddedCompare(left, right) : Integer.signum(left.compareTo(right));
+    }
+
+    @Test
+    public void testCompareEncodedMatchesStringCompare() {
+        Random random = new Random(0);
+        String[] values = new String[VALUES.length + 200];
+        System.arraycopy(VALUES, 0, values, 0, VALUES.length);
+        for (int i = VALUES.length; i < values.length; i++) {
+            StringBuilder sb = new StringBuilder();
+            int length = random.nextInt(5);
+            for (int j = 0; j < length; j++)
+                sb.append(VALUES[random.nextInt(VALUES.length)]);
+            values[i] = sb.toString();
+        }
+        for (boolean padded : new boolean[]{true, false}) {
+            for (String left : values) {
+                byte[] l = Encoding.encode(left, false);
+                for (String right : values) {
+                    byte[] r = Encoding.encode(right, false);
+                    int compare = StringEncoding.compareEncoded(l, 0, l.length, r, 0, r.length, padded);
+                    if (compare != StringEncoding.NOT_COMPARABLE)
+                        Assert.assertEquals("'" + left + "' vs '" + right + "'", compare(left, right, padded), Integer.signum(compare));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSupplementaryCharactersAreNotComparable() {
+        byte[] l = Encoding.encode("😀", false);
+        byte[] r = Encoding.encode("￿", false);
+        Assert.assertEquals(StringEncoding.NOT_COMPARABLE, StringEncoding.compareEncoded(l, 0, l.length, r, 0, r.length, false));
+    }
+
+    @Test
+    public void testComparePredicates() {
+        int[] operators = {StringPredicate.LESS_THAN, StringPredicate.EQUALS, StringPredicate.LESS_OR_EQUALS,
+                StringPredicate.GREATER_THAN, StringPredicate.GREATER_OR_EQUALS};
+        for (int operator : operators) {
+            for (int flags = 0; flags < 4; flags++) {
+                boolean negate = (flags & 1) != 0;
+                boolean padded = (flags & 2) != 0;
+                for (String constant : VALUES) {
+                    StringPredicate predicate = serde(StringPredicate.compare(3, operator, negate, padded, constant));
+                    Assert.assertEquals(3, predicate.getColumn());
+                    for (String value : VALUES) {
+                        byte[] data = Encoding.encode(value, false);
+                        int compare = compare(value, constant, padded);
+                        boolean expected;
+                        switch (operator) {
+                            case StringPredicate.LESS_THAN: expected = compare < 0; break;
+                            case StringPredicate.EQUALS: expected = compare == 0; break;
+                            case StringPredicate.LESS_OR_EQUALS: expected = compare <= 0; break;
+                            case StringPredicate.GREATER_THAN: expected = compare > 0; break;
+                            default: expected = compare >= 0;
+                        }
+                        if (expected != negate)
+                            Assert.assertTrue(value + " " + operator + " " + constant, predicate.match(data, 0, data.length));
+                    }
+                }
+            }
+        }
+    }
+
+    private static StringPredicate serde(StringPredicate predicate) {
+        byte[] bytes = predicate.toBytes();
+        return StringPredicate.fromBytes(bytes, 0, bytes.length);
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.microbenchmark;
+
+import com.carrotsearch.hppc.BitSet;
+import com.splicemachine.storage.index.BitIndex;
+import com.splicemachine.storage.index.BitIndexing;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds, encodes and decodes each kind of bit index over a row where every other column
+ * is set, and a third of the set columns are scalars.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations=3,time=1)
+@Measurement(iterations=5,time=1)
+@Fork(1)
+public class BitIndexingBenchmark{
+
+    public enum Kind{UNCOMPRESSED,SPARSE,COMPRESSED}
+
+    @Param({"UNCOMPRESSED","SPARSE","COMPRESSED"})
+    public Kind kind;
+
+    @Param({"16","256"})
+    public int columns;
+
+    private BitSet setCols;
+    private BitSet scalarFields;
+    private BitSet floatFields;
+    private BitSet doubleFields;
+    private byte[] encoded;
+
+    @Setup
+    public void setup(){
+        setCols=new BitSet(columns);
+        scalarFields=new BitSet(columns);
+        floatFields=new BitSet(columns);
+        doubleFields=new BitSet(columns);
+        for(int i=0;i<columns;i+=2){
+            setCols.set(i);
+            if(i%3==0) scalarFields.set(i);
+        }
+        encoded=encode();
+    }
+
+    @Benchmark
+    public byte[] encode(){
+        BitIndex index;
+        switch(kind){
+            case UNCOMPRESSED:
+                index=BitIndexing.uncompressedBitMap(setCols,scalarFields,floatFields,doubleFields);
+                break;
+            case SPARSE:
+                index=BitIndexing.sparseBitMap(setCols,scalarFields,floatFields,doubleFields);
+                break;
+            default:
+                index=BitIndexing.compressedBitMap(setCols,scalarFields,floatFields,doubleFields);
+        }
+        return index.encode();
+    }
+
+    @Benchmark
+    public void decode(Blackhole bh){
+        BitIndex index=BitIndexing.wrap(encoded,0,encoded.length);
+        for(int i=index.nextSetBit(0);i>=0;i=index.nextSetBit(i+1)){
+            bh.consume(index.isScalarType(i));
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.microbenchmark;
+
+import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.db.iapi.types.*;
+import com.splicemachine.derby.utils.marshall.dvd.DescriptorSerializer;
+import com.splicemachine.derby.utils.marshall.dvd.VersionedSerializers;
+import com.splicemachine.encoding.MultiFieldDecoder;
+import com.splicemachine.encoding.MultiFieldEncoder;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encodes and decodes a single value with the latest {@link DescriptorSerializer} for its type.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations=3,time=1)
+@Measurement(iterations=5,time=1)
+@Fork(1)
+public class DescriptorSerializerBenchmark{
+
+    public enum Type{INTEGER,BIGINT,DOUBLE,DECIMAL,VARCHAR,DATE,TIMESTAMP}
+
+    @Param({"INTEGER","BIGINT","DOUBLE","DECIMAL","VARCHAR","DATE","TIMESTAMP"})
+    public Type type;
+
+    @Param({"false","true"})
+    public boolean sparse;
+
+    private DataValueDescriptor value;
+    private DataValueDescriptor target;
+    private DescriptorSerializer serializer;
+    private MultiFieldEncoder encoder;
+    private MultiFieldDecoder decoder;
+    private byte[] encoded;
+
+    @Setup
+    public void setup() throws StandardException{
+        value=newValue(type);
+        target=value.getNewNull();
+        serializer=VersionedSerializers.latestVersion(sparse).getSerializers(new DataValueDescriptor[]{value})[0];
+        encoder=MultiFieldEncoder.create(1);
+        decoder=MultiFieldDecoder.create();
+        encoded=encode();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception{
+        serializer.close();
+    }
+
+    @Benchmark
+    public byte[] encode() throws StandardException{
+        encoder.reset();
+        serializer.encode(encoder,value,false);
+        return encoder.build();
+    }
+
+    @Benchmark
+    public DataValueDescriptor decode() throws StandardException{
+        decoder.set(encoded);
+        serializer.decode(decoder,target,false);
+        return target;
+    }
+
+    private static DataValueDescriptor newValue(Type type) throws StandardException{
+        switch(type){
+            case INTEGER:
+                return new SQLInteger(123456);
+            case BIGINT:
+                return new SQLLongint(1234567890123L);
+            case DOUBLE:
+                return new SQLDouble(12345.6789d);
+            case DECIMAL:
+                return new SQLDecimal(new BigDecimal("1234567.89"));
+            case VARCHAR:
+                return new SQLVarchar("the quick brown fox jumps over the lazy dog");
+            case DATE:
+                return new SQLDate(new Date(1500000000000L));
+            default:
+                return new SQLTimestamp(new Timestamp(1500000000123L));
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.microbenchmark;
+
+import com.carrotsearch.hppc.BitSet;
+import com.splicemachine.encoding.MultiFieldDecoder;
+import com.splicemachine.encoding.MultiFieldEncoder;
+import com.splicemachine.storage.EntryDecoder;
+import com.splicemachine.storage.EntryEncoder;
+import com.splicemachine.storage.index.BitIndex;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decodes a packed row of alternating integer, double and string columns, either reading
+ * every column or seeking to the last one, as a projection of a wide table does.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations=3,time=1)
+@Measurement(iterations=5,time=1)
+@Fork(1)
+public class EntryDecoderBenchmark{
+
+    @Param({"8","64"})
+    public int columns;
+
+    private byte[] row;
+    private EntryDecoder entryDecoder;
+
+    @Setup
+    public void setup(){
+        BitSet setCols=new BitSet(columns);
+        BitSet scalarFields=new BitSet(columns);
+        BitSet floatFields=new BitSet(columns);
+        BitSet doubleFields=new BitSet(columns);
+        for(int i=0;i<columns;i++){
+            setCols.set(i);
+            if(i%3==0) scalarFields.set(i);
+            else if(i%3==1) doubleFields.set(i);
+        }
+        EntryEncoder entryEncoder=EntryEncoder.create(null,columns,setCols,scalarFields,floatFields,doubleFields);
+        MultiFieldEncoder fields=entryEncoder.getEntryEncoder();
+        for(int i=0;i<columns;i++){
+            if(i%3==0) fields.encodeNext(i*1000L);
+            else if(i%3==1) fields.encodeNext(i*0.5d);
+            else fields.encodeNext("column "+i);
+        }
+        row=entryEncoder.encode();
+        entryDecoder=new EntryDecoder();
+    }
+
+    @Benchmark
+    public void decodeAll(Blackhole bh){
+        entryDecoder.set(row);
+        BitIndex index=entryDecoder.getCurrentIndex();
+        MultiFieldDecoder decoder=entryDecoder.getEntryDecoder();
+        for(int i=index.nextSetBit(0);i>=0;i=index.nextSetBit(i+1)){
+            if(index.isScalarType(i)) bh.consume(decoder.decodeNextLong());
+            else if(index.isDoubleType(i)) bh.consume(decoder.decodeNextDouble());
+            else bh.consume(decoder.decodeNextString());
+        }
+    }
+
+    @Benchmark
+    public String seekLastColumn(){
+        entryDecoder.set(row);
+        BitIndex index=entryDecoder.getCurrentIndex();
+        MultiFieldDecoder decoder=entryDecoder.getEntryDecoder();
+        int last=columns-1;
+        while(last%3!=2) last--;
+        for(int i=index.nextSetBit(0);i>=0 && i<last;i=index.nextSetBit(i+1)){
+            entryDecoder.seekForward(decoder,i);
+        }
+        return decoder.decodeNextString();
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.microbenchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the micro-benchmarks of this module. Accepts the usual JMH command line options,
+ * and always attaches the GC profiler, so that every result reports the allocation rate
+ * per operation next to its throughput.
+ */
+public class MicroBenchmarks{
+
+    public static void main(String... args) throws Exception{
+        CommandLineOptions commandLine=new CommandLineOptions(args);
+        OptionsBuilder builder=new OptionsBuilder();
+        builder.parent(commandLine);
+        if(commandLine.getIncludes().isEmpty())
+            builder.include(MicroBenchmarks.class.getPackage().getName()+"\\..*Benchmark");
+        Options options=builder.addProfiler(GCProfiler.class).build();
+        new Runner(options).run();
+    }
+}
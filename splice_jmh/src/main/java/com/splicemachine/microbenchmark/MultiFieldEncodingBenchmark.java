@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.microbenchmark;
+
+import com.splicemachine.encoding.MultiFieldDecoder;
+import com.splicemachine.encoding.MultiFieldEncoder;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encodes and decodes a typical row key of an int, a long, a string, a double and a decimal.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations=3,time=1)
+@Measurement(iterations=5,time=1)
+@Fork(1)
+public class MultiFieldEncodingBenchmark{
+    private static final BigDecimal DECIMAL=new BigDecimal("12345.6789");
+
+    @Param({"false","true"})
+    public boolean descending;
+
+    private MultiFieldEncoder encoder;
+    private MultiFieldDecoder decoder;
+    private byte[] encoded;
+
+    @Setup
+    public void setup(){
+        encoder=MultiFieldEncoder.create(5);
+        decoder=MultiFieldDecoder.create();
+        encoded=encode();
+    }
+
+    @Benchmark
+    public byte[] encode(){
+        encoder.reset();
+        return encoder.encodeNext(42,descending)
+                .encodeNext(1234567890123L,descending)
+                .encodeNext("splice machine",descending)
+                .encodeNext(3.14159d,descending)
+                .encodeNext(DECIMAL,descending)
+                .build();
+    }
+
+    @Benchmark
+    public void decode(Blackhole bh){
+        decoder.set(encoded);
+        bh.consume(decoder.decodeNextInt(descending));
+        bh.consume(decoder.decodeNextLong(descending));
+        bh.consume(decoder.decodeNextString(descending));
+        bh.consume(decoder.decodeNextDouble(descending));
+        bh.consume(decoder.decodeNextBigDecimal(descending));
+    }
+}
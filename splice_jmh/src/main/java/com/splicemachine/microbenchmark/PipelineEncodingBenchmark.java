@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.microbenchmark;
+
+import com.splicemachine.concurrent.IncrementingClock;
+import com.splicemachine.encoding.Encoding;
+import com.splicemachine.kvpair.KVPair;
+import com.splicemachine.pipeline.client.BulkWrite;
+import com.splicemachine.pipeline.client.BulkWrites;
+import com.splicemachine.pipeline.client.PipelineEncoding;
+import com.splicemachine.si.api.data.TxnOperationFactory;
+import com.splicemachine.si.api.txn.Txn;
+import com.splicemachine.si.impl.MOperationFactory;
+import com.splicemachine.si.impl.SimpleTxnOperationFactory;
+import com.splicemachine.si.impl.data.MExceptionFactory;
+import com.splicemachine.si.impl.txn.ActiveWriteTxn;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encodes and decodes the write pipeline payload of a single {@link BulkWrite} of inserts.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations=3,time=1)
+@Measurement(iterations=5,time=1)
+@Fork(1)
+public class PipelineEncodingBenchmark{
+
+    @Param({"100","1000"})
+    public int rows;
+
+    @Param({"64"})
+    public int valueSize;
+
+    @Param({"false","true"})
+    public boolean compactKeys;
+
+    private TxnOperationFactory operationFactory;
+    private BulkWrites bulkWrites;
+    private byte[] encoded;
+
+    @Setup
+    public void setup(){
+        operationFactory=new SimpleTxnOperationFactory(MExceptionFactory.INSTANCE,new MOperationFactory(new IncrementingClock()));
+        Random random=new Random(0);
+        List<KVPair> mutations=new ArrayList<>(rows);
+        for(int i=0;i<rows;i++){
+            byte[] value=new byte[valueSize];
+            random.nextBytes(value);
+            mutations.add(new KVPair(Encoding.encode(i*7L),value,KVPair.Type.INSERT));
+        }
+        BulkWrite write=new BulkWrite(mutations,"1184");
+        ActiveWriteTxn txn=new ActiveWriteTxn(0x300L,0x300L,Txn.ROOT_TRANSACTION,false,Txn.IsolationLevel.SNAPSHOT_ISOLATION);
+        bulkWrites=new BulkWrites(Collections.singletonList(write),txn);
+        encoded=encode();
+    }
+
+    @Benchmark
+    public byte[] encode(){
+        return PipelineEncoding.encode(operationFactory,bulkWrites,compactKeys);
+    }
+
+    @Benchmark
+    public void decode(Blackhole bh){
+        BulkWrites decoded=PipelineEncoding.decode(operationFactory,encoded);
+        for(BulkWrite write : decoded.getBulkWrites()){
+            for(KVPair mutation : write.getMutations()){
+                bh.consume(mutation);
+            }
+        }
+    }
+}
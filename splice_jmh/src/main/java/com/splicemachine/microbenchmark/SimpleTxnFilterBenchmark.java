@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.microbenchmark;
+
+import com.splicemachine.concurrent.IncrementingClock;
+import com.splicemachine.encoding.Encoding;
+import com.splicemachine.primitives.Bytes;
+import com.splicemachine.si.api.txn.Txn;
+import com.splicemachine.si.api.txn.TxnSupplier;
+import com.splicemachine.si.constants.SIConstants;
+import com.splicemachine.si.impl.MemTimestampSource;
+import com.splicemachine.si.impl.MemTxnStore;
+import com.splicemachine.si.impl.SimpleTxnFilter;
+import com.splicemachine.si.impl.data.MExceptionFactory;
+import com.splicemachine.si.impl.readresolve.NoOpReadResolver;
+import com.splicemachine.si.impl.store.CompletedTxnCacheSupplier;
+import com.splicemachine.si.impl.txn.CommittedTxn;
+import com.splicemachine.si.impl.txn.InheritingTxnView;
+import com.splicemachine.storage.CellType;
+import com.splicemachine.storage.DataCell;
+import com.splicemachine.storage.DataFilter;
+import com.splicemachine.storage.MCell;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the cells of committed rows through {@link SimpleTxnFilter#filterCell}, the way a
+ * transactional scan does.
+ *
+ * Rows written by a transaction that is in the completed transaction cache are resolved with
+ * a cache lookup, while rows that were already read-resolved carry a commit timestamp cell
+ * and need no lookup at all.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations=3,time=1)
+@Measurement(iterations=5,time=1)
+@Fork(1)
+public class SimpleTxnFilterBenchmark{
+    private static final int ROWS=1024;
+    private static final int WRITERS=64;
+
+    @Param({"false","true"})
+    public boolean resolved;
+
+    private DataCell[][] rows;
+    private SimpleTxnFilter filter;
+    private int next;
+
+    @Setup
+    public void setup(){
+        MemTxnStore txnStore=new MemTxnStore(new IncrementingClock(),new MemTimestampSource(),MExceptionFactory.INSTANCE,Long.MAX_VALUE);
+        TxnSupplier supplier=new CompletedTxnCacheSupplier(txnStore,ROWS,4);
+        rows=new DataCell[ROWS][];
+        for(int i=0;i<ROWS;i++){
+            long beginTs=0x100L+(i%WRITERS)*2;
+            long commitTs=beginTs+1;
+            supplier.cache(new CommittedTxn(beginTs,commitTs));
+            byte[] key=Encoding.encode((long)i);
+            DataCell user=new MCell(key,SIConstants.DEFAULT_FAMILY_BYTES,SIConstants.PACKED_COLUMN_BYTES,beginTs,Encoding.encode("row "+i),CellType.USER_DATA);
+            if(resolved){
+                DataCell commit=new MCell(key,SIConstants.DEFAULT_FAMILY_BYTES,SIConstants.COMMIT_TIMESTAMP_COLUMN_BYTES,beginTs,Bytes.toBytes(commitTs),CellType.COMMIT_TIMESTAMP);
+                rows[i]=new DataCell[]{commit,user};
+            }else
+                rows[i]=new DataCell[]{user};
+        }
+        InheritingTxnView myTxn=new InheritingTxnView(Txn.ROOT_TRANSACTION,0x10000L,0x10000L,Txn.IsolationLevel.SNAPSHOT_ISOLATION,Txn.State.ACTIVE);
+        filter=new SimpleTxnFilter(myTxn,NoOpReadResolver.INSTANCE,supplier);
+    }
+
+    @Benchmark
+    public DataFilter.ReturnCode filterRow() throws IOException{
+        DataCell[] row=rows[next];
+        next=(next+1)%ROWS;
+        DataFilter.ReturnCode code=null;
+        for(DataCell cell : row){
+            code=filter.filterCell(cell);
+        }
+        filter.nextRow();
+        return code;
+    }
+}
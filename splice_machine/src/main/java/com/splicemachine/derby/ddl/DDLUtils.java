@@ -41,6 +41,7 @@ import com.splicemachine.ddl.DDLMessage;
 import com.splicemachine.derby.DerbyMessage;
 import com.splicemachine.derby.impl.sql.execute.actions.ActiveTransactionReader;
 import com.splicemachine.derby.impl.sql.execute.actions.DropAliasConstantOperation;
+import com.splicemachine.derby.impl.stats.CardinalityFeedback;
 import com.splicemachine.derby.impl.store.access.SpliceTransactionManager;
 import com.splicemachine.derby.jdbc.SpliceTransactionResourceImpl;
 import com.splicemachine.pipeline.ErrorState;
@@ -84,6 +85,12 @@ public class DDLUtils {
     public static String notifyMetadataChange(DDLMessage.DDLChange ddlChange) throws StandardException {
         if (LOG.isDebugEnabled())
             SpliceLogUtils.trace(LOG,"notifyMetadataChange ddlChange=%s",ddlChange);
+        try {
+            // every server looks the DDL transaction up, so it cannot wait for a write to be recorded
+            SIDriver.driver().lifecycleManager().registerTransaction(ddlChange.getTxnId(), false);
+        } catch (IOException ioe) {
+            throw Exceptions.parseException(ioe);
+        }
         return DDLDriver.driver().ddlController().notifyMetadataChange(ddlChange);
     }
 
@@ -403,6 +410,9 @@ public class DDLUtils {
                 if(td==null) // Table Descriptor transaction never committed
                     return;
                 dm.invalidateFor(td,DependencyManager.DROP_STATISTICS,lcc);
+                // the corrections learnt were for estimates made from the statistics replaced
+                for(ConglomerateDescriptor cd : td.getConglomerateDescriptorList())
+                    CardinalityFeedback.forget(cd.getConglomerateNumber());
             }
         });
     }
@@ -59,4 +59,12 @@ public abstract class DistributedJob implements Serializable{
     public void notify(String info) {
         // nothing
     }
+
+    /**
+     * @return the tenant (a role or a user) on behalf of which the job runs, whose share of the OLAP server
+     * it is scheduled in; null for jobs run on behalf of the system, which are not queued
+     */
+    public String getTenant() {
+        return null;
+    }
 }
@@ -60,4 +60,11 @@ public interface OlapStatus{
 
     String getProgressString();
     void setProgress(ProgressInfo info);
+
+    /**
+     * @return how long the job waited (or has been waiting so far) in the OLAP server queue before running
+     */
+    default long getQueueWaitMillis() {
+        return 0L;
+    }
 }
@@ -20,6 +20,7 @@ import com.splicemachine.db.impl.sql.compile.FirstColumnOfIndexStats;
 import com.splicemachine.db.impl.sql.compile.JoinNode;
 import com.splicemachine.db.impl.sql.compile.Level2OptimizerImpl;
 import com.splicemachine.db.impl.sql.compile.PredicateList;
+import com.splicemachine.db.impl.sql.compile.ScanCardinalityEstimate;
 
 import java.text.DecimalFormat;
 
@@ -63,6 +64,7 @@ public class SimpleCostEstimate implements CostEstimate{
     private boolean disablePerParallelTaskJoinCosting = CompilerContext.DEFAULT_DISABLE_PARALLEL_TASKS_JOIN_COSTING;
     private boolean disablePerParallelTaskJoinCostingSet = false;
 	private FirstColumnOfIndexStats firstColumnStats;
+    private ScanCardinalityEstimate scanCardinality;
 
     public SimpleCostEstimate(){ }
 
@@ -115,6 +117,7 @@ public class SimpleCostEstimate implements CostEstimate{
         this.localCost = other.localCost();
         this.remoteCost = other.remoteCost();
         this.firstColumnStats = other.getFirstColumnStats();
+        this.scanCardinality = other.getScanCardinality();
         this.numPartitions =other.partitionCount();
         this.parallelism = other.getParallelism();
         this.optimizer = other.getOptimizer();
@@ -275,6 +278,14 @@ public class SimpleCostEstimate implements CostEstimate{
         return firstColumnStats;
     }
 
+    @Override public void setScanCardinality(ScanCardinalityEstimate scanCardinality) {
+        this.scanCardinality = scanCardinality;
+    }
+
+    @Override public ScanCardinalityEstimate getScanCardinality() {
+        return scanCardinality;
+    }
+
     @Override public void setParallelism(int numparallelTasks) {
         parallelism = numparallelTasks;
     }
@@ -358,6 +369,7 @@ public class SimpleCostEstimate implements CostEstimate{
         clone.setDisablePerParallelTaskJoinCostingSet(disablePerParallelTaskJoinCostingSet);
         clone.setOptimizer(optimizer);
         clone.setFirstColumnStats(firstColumnStats);
+        clone.setScanCardinality(scanCardinality);
         return clone;
     }
 
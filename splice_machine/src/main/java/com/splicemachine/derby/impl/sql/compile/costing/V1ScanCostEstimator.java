@@ -21,11 +21,16 @@ import com.splicemachine.db.iapi.sql.dictionary.ConglomerateDescriptor;
 import com.splicemachine.db.iapi.store.access.StoreCostController;
 import com.splicemachine.db.iapi.types.DataValueDescriptor;
 import com.splicemachine.db.impl.sql.compile.*;
+import com.splicemachine.derby.impl.stats.CardinalityFeedback;
 
+import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.HashSet;
+import java.util.List;
 
 public class V1ScanCostEstimator extends AbstractScanCostEstimator {
+    private final List<Predicate> predicates = new ArrayList<>();
+
     /**
      * <pre>
      *
@@ -55,6 +60,7 @@ public class V1ScanCostEstimator extends AbstractScanCostEstimator {
      * {@inheritDoc}
      */
     public void addPredicate(Predicate p, double defaultSelectivityFactor, Optimizer optimizer) throws StandardException{
+        predicates.add(p);
         if (p.isMultiProbeQualifier(indexColumns)) {// MultiProbeQualifier against keys (BASE)
             addSelectivity(new InListSelectivity(scc, p, isIndexOnExpression ? indexColumns : null, QualifierPhase.BASE, defaultSelectivityFactor), SCAN);
             collectNoStatsColumnsFromInListPred(p);
@@ -114,6 +120,17 @@ public class V1ScanCostEstimator extends AbstractScanCostEstimator {
         // Total Row Count from the Base Conglomerate
         double totalRowCount = scc.baseRowCount();
         assert totalRowCount >= 0 : "totalRowCount cannot be negative -> " + totalRowCount;
+
+        // Correct the rows returned by the scan by what was observed of earlier scans restricted the same way
+        ScanCardinalityEstimate cardinality = scanCardinality(Math.round(filterBaseTableSelectivity * totalRowCount));
+        scanCost.setScanCardinality(cardinality);
+        if (cardinality != null && cardinality.getCorrection() != 1.0d) {
+            double correction = cardinality.getCorrection();
+            filterBaseTableSelectivity = Math.min(1.0d, filterBaseTableSelectivity * correction);
+            totalSelectivity = Math.min(1.0d, totalSelectivity * correction);
+            // the scan cannot read fewer rows than it returns
+            baseTableSelectivity = Math.max(baseTableSelectivity, filterBaseTableSelectivity);
+        }
         // Rows Returned is always the totalSelectivity (Conglomerate Independent)
         scanCost.setEstimatedRowCount(Math.round(totalRowCount*totalSelectivity));
 
@@ -254,6 +271,7 @@ public class V1ScanCostEstimator extends AbstractScanCostEstimator {
      * {@inheritDoc}
      */
     public void generateOneRowCost() throws StandardException {
+        scanCost.setScanCardinality(null);
         // Total Row Count from the Base Conglomerate
         double totalRowCount = 1.0d;
         // Rows Returned is always the totalSelectivity (Conglomerate Independent)
@@ -338,4 +356,17 @@ public class V1ScanCostEstimator extends AbstractScanCostEstimator {
                                     scanCost.getLocalCost(), scc.getNumPartitions(), scanCost.getLocalCost() / scc.getNumPartitions()));
         }
     }
+
+    /**
+     * @return {@code estimatedRows}, the rows this scan is estimated to return from statistics alone, with the
+     * correction {@link CardinalityFeedback} learnt for its predicate shape, or null if cardinality feedback is disabled
+     */
+    private ScanCardinalityEstimate scanCardinality(double estimatedRows) throws StandardException {
+        if (!CardinalityFeedback.isEnabled())
+            return null;
+        long conglomerateId = cd.getConglomerateNumber();
+        String shape = ScanCardinalityEstimate.predicateShape(baseTable.getTableNumber(), predicates);
+        return new ScanCardinalityEstimate(conglomerateId, shape, estimatedRows,
+                CardinalityFeedback.correction(conglomerateId, shape));
+    }
 }
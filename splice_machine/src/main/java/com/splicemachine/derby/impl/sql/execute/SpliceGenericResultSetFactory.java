@@ -101,12 +101,23 @@ public class SpliceGenericResultSetFactory implements ResultSetFactory {
                                            int resultSetNumber, int subqueryNumber, int pointOfAttachment,
                                            double optimizerEstimatedRowCount, double optimizerEstimatedCost)
             throws StandardException {
+        return getOnceResultSet(source, emptyRowFun, cardinalityCheck, resultSetNumber, subqueryNumber,
+                pointOfAttachment, optimizerEstimatedRowCount, optimizerEstimatedCost, -1);
+    }
+
+    @Override
+    public NoPutResultSet getOnceResultSet(NoPutResultSet source,
+                                           GeneratedMethod emptyRowFun, int cardinalityCheck,
+                                           int resultSetNumber, int subqueryNumber, int pointOfAttachment,
+                                           double optimizerEstimatedRowCount, double optimizerEstimatedCost,
+                                           int memoizationKeyItem)
+            throws StandardException {
         try{
             SpliceLogUtils.trace(LOG, "getOnceResultSet");
             ConvertedResultSet below = (ConvertedResultSet)source;
             OnceOperation op = new OnceOperation(below.getOperation(), source.getActivation(), emptyRowFun, cardinalityCheck,
                     resultSetNumber, subqueryNumber, pointOfAttachment,
-                    optimizerEstimatedRowCount, optimizerEstimatedCost);
+                    optimizerEstimatedRowCount, optimizerEstimatedCost, memoizationKeyItem);
             op.markAsTopResultSet();
             return op;
         }catch(Exception e){
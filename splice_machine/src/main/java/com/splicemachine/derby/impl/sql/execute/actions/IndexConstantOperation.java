@@ -138,6 +138,10 @@ public abstract class IndexConstantOperation extends DDLSingleTableConstantOpera
         try {
             LanguageConnectionContext lcc = activation.getLanguageConnectionContext();
             Boolean sparkHint = (Boolean)lcc.getSessionProperties().getProperty(SessionProperties.PROPERTYNAME.USEOLAP);
+            // a throttled backfill paces itself against this server's write pipeline, so it stays on the control side
+            boolean throttled = hfilePath == null && EngineDriver.driver().getConfiguration().getIndexBackfillThrottled();
+            if (throttled)
+                sparkHint = Boolean.FALSE;
 
             childTxn = beginChildTransaction(indexTransaction, tentativeIndex.getIndex().getConglomerate());
             ScanSetBuilder<ExecRow> builder = getIndexScanBuilder(td, indexTransaction, demarcationPoint,
@@ -177,6 +181,9 @@ public abstract class IndexConstantOperation extends DDLSingleTableConstantOpera
                          */
                     }
                 }
+            } else if (throttled) {
+                new IndexBackfill(schemaName, tableName, indexName, tentativeIndex, builder, prefix, scope, childTxn,
+                        EngineDriver.driver().getConfiguration()).run();
             } else
                 PopulateIndexJob.populateIndex(tentativeIndex,builder,prefix,indexFormatIds,scope,childTxn);
             childTxn.commit();
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.impl.sql.execute.index;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Paces an index backfill so that it gets out of the way of foreground writes.
+ *
+ * The rate is adapted additive-increase/multiplicative-decrease style from the latency of the backfill's own
+ * writes: every batch written is compared to a baseline, the lowest per-row latency seen (drifting slowly
+ * upwards, so that a lasting change in the cluster does not throttle the backfill forever). While the
+ * latency stays within {@code latencyFactor} times the baseline the rate grows by a twentieth of the maximum
+ * rate; as soon as it gets above it the rate is halved. Independently of the rate, the backfill is paused for
+ * as long as the write pipeline of this server is saturated above {@code saturationThreshold}.
+ */
+public class BackfillThrottle{
+    static final long PAUSE_MILLIS = 100L;
+    private static final double LATENCY_SMOOTHING = 0.3d;
+    private static final double BASELINE_DRIFT = 0.01d;
+
+    private final double maxRate;
+    private final double minRate;
+    private final double latencyFactor;
+    private final double saturationThreshold;
+    private final DoubleSupplier saturation;
+
+    private volatile double rate;
+    private volatile boolean paused;
+    private double latency;
+    private double baseline;
+    private long nextFree;
+
+    /**
+     * @param saturation the current saturation of the write pipeline, as a fraction of what it allows
+     */
+    public BackfillThrottle(double maxRate,double minRate,double latencyFactor,double saturationThreshold,
+                            DoubleSupplier saturation){
+        this.maxRate=maxRate;
+        this.minRate=Math.min(minRate,maxRate);
+        this.latencyFactor=latencyFactor;
+        this.saturationThreshold=saturationThreshold;
+        this.saturation=saturation;
+        this.rate=this.minRate;
+    }
+
+    /**
+     * Waits until {@code rows} more rows can be written without going above the current rate, and until the
+     * write pipeline is no longer saturated.
+     */
+    public void acquire(int rows) throws InterruptedException{
+        while(saturation.getAsDouble()>=saturationThreshold){
+            paused=true;
+            Thread.sleep(PAUSE_MILLIS);
+        }
+        paused=false;
+        long now=System.nanoTime();
+        if(nextFree>now)
+            TimeUnit.NANOSECONDS.sleep(nextFree-now);
+        else
+            nextFree=now; // don't let an idle period be spent as a burst
+        nextFree+=(long)(rows*TimeUnit.SECONDS.toNanos(1)/rate);
+    }
+
+    /**
+     * Adapts the rate to how long writing {@code rows} rows took.
+     */
+    public void record(int rows,long nanos){
+        if(rows<=0)
+            return;
+        double perRow=(double)nanos/rows;
+        if(baseline==0d || perRow<baseline)
+            baseline=perRow;
+        else
+            baseline+=(perRow-baseline)*BASELINE_DRIFT;
+        latency=latency==0d ? perRow : latency+(perRow-latency)*LATENCY_SMOOTHING;
+
+        if(latency>latencyFactor*baseline){
+            rate=Math.max(minRate,rate/2);
+            latency=0d; // judge the new rate on its own writes
+        }else
+            rate=Math.min(maxRate,rate+maxRate/20);
+    }
+
+    public double getRate(){
+        return rate;
+    }
+
+    public boolean isPaused(){
+        return paused;
+    }
+}
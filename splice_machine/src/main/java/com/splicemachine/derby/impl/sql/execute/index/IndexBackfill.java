@@ -0,0 +1,312 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.impl.sql.execute.index;
+
+import com.splicemachine.EngineDriver;
+import com.splicemachine.access.api.SConfiguration;
+import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.db.iapi.sql.execute.ExecRow;
+import com.splicemachine.ddl.DDLMessage;
+import com.splicemachine.derby.stream.iapi.DataSetProcessor;
+import com.splicemachine.derby.stream.iapi.ScanSetBuilder;
+import com.splicemachine.pipeline.Exceptions;
+import com.splicemachine.pipeline.PipelineDriver;
+import com.splicemachine.pipeline.traffic.SpliceWriteControl;
+import com.splicemachine.pipeline.traffic.WriteStatus;
+import com.splicemachine.primitives.Bytes;
+import com.splicemachine.si.api.txn.Txn;
+import com.splicemachine.si.api.txn.TxnView;
+import com.splicemachine.si.impl.driver.SIDriver;
+import com.splicemachine.storage.DataScan;
+import com.splicemachine.utils.SpliceLogUtils;
+import org.apache.log4j.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Populates a new index from the control side, at a rate adapted to the foreground traffic by a
+ * {@link BackfillThrottle}.
+ *
+ * The base table is read in steps of {@link #STEP_ROWS} rows, each written as soon as the throttle lets it
+ * through. Steps are grouped in chunks of {@code checkpointRows} rows, each written in its own child
+ * transaction of the index transaction and committed as a checkpoint: if anything fails, the chunk in
+ * progress is rolled back and the backfill resumes from the row following the last checkpoint.
+ *
+ * Running backfills are registered on the server running them, so that their progress can be seen.
+ */
+public class IndexBackfill{
+    private static final Logger LOG = Logger.getLogger(IndexBackfill.class);
+    static final int STEP_ROWS = 1024;
+    private static final int MAX_RETRIES = 5;
+    private static final long RETRY_BACKOFF_MILLIS = 1000L;
+    private static final long RATE_WINDOW_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private static final AtomicLong IDS = new AtomicLong();
+    private static final ConcurrentMap<Long, IndexBackfill> RUNNING = new ConcurrentHashMap<>();
+
+    public enum Status{ RUNNING, PAUSED, RETRYING }
+
+    private final long id = IDS.incrementAndGet();
+    private final String schemaName;
+    private final String tableName;
+    private final String indexName;
+    private final DDLMessage.TentativeIndex tentativeIndex;
+    private final ScanSetBuilder<ExecRow> scanSetBuilder;
+    private final String prefix;
+    private final String scope;
+    private final TxnView parentTxn;
+    private final long checkpointRows;
+    private final BackfillThrottle throttle;
+    private final long startTime = System.currentTimeMillis();
+
+    private volatile long rowsDone;
+    private volatile long checkpoints;
+    private volatile byte[] checkpointKey;
+    private volatile boolean retrying;
+    private volatile double rowsPerSecond;
+    private long windowStart;
+    private long windowRows;
+
+    public IndexBackfill(String schemaName,
+                         String tableName,
+                         String indexName,
+                         DDLMessage.TentativeIndex tentativeIndex,
+                         ScanSetBuilder<ExecRow> scanSetBuilder,
+                         String prefix,
+                         String scope,
+                         TxnView parentTxn,
+                         SConfiguration config){
+        this.schemaName=schemaName;
+        this.tableName=tableName;
+        this.indexName=indexName;
+        this.tentativeIndex=tentativeIndex;
+        this.scanSetBuilder=scanSetBuilder;
+        this.prefix=prefix;
+        this.scope=scope;
+        this.parentTxn=parentTxn;
+        this.checkpointRows=Math.max(STEP_ROWS,config.getIndexBackfillCheckpointRows());
+        this.throttle=new BackfillThrottle(config.getIndexBackfillMaxRowsPerSecond(),
+                config.getIndexBackfillMinRowsPerSecond(),
+                config.getIndexBackfillLatencyFactor(),
+                config.getIndexBackfillWriteSaturation(),
+                IndexBackfill::writeSaturation);
+    }
+
+    public static Collection<IndexBackfill> running(){
+        return RUNNING.values();
+    }
+
+    public void run() throws StandardException{
+        RUNNING.put(id,this);
+        try{
+            DataScan fullScan=scanSetBuilder.getScan();
+            int failures=0;
+            while(true){
+                try{
+                    backfillFrom(fullScan);
+                    break;
+                }catch(Exception e){
+                    StandardException se=Exceptions.parseException(e);
+                    if(!isRetryable(se,e) || ++failures>MAX_RETRIES)
+                        throw se;
+                    SpliceLogUtils.warn(LOG,"Backfill of index %s.%s failed after %d rows, retrying from the last checkpoint (attempt %d)",
+                            schemaName,indexName,rowsDone,failures);
+                    retrying=true;
+                    try{
+                        Thread.sleep(RETRY_BACKOFF_MILLIS*failures);
+                    }catch(InterruptedException ie){
+                        Thread.currentThread().interrupt();
+                        throw se;
+                    }finally{
+                        retrying=false;
+                    }
+                }
+            }
+            SpliceLogUtils.info(LOG,"Backfilled index %s.%s with %d rows in %d checkpoints",
+                    schemaName,indexName,rowsDone,checkpoints);
+        }finally{
+            RUNNING.remove(id);
+        }
+    }
+
+    public String getSchemaName(){
+        return schemaName;
+    }
+
+    public String getTableName(){
+        return tableName;
+    }
+
+    public String getIndexName(){
+        return indexName;
+    }
+
+    public long getStartTime(){
+        return startTime;
+    }
+
+    public long getRowsDone(){
+        return rowsDone;
+    }
+
+    /**
+     * @return the rate rows were written at over the last few seconds, waits included
+     */
+    public double getRowsPerSecond(){
+        return rowsPerSecond;
+    }
+
+    public double getRateLimit(){
+        return throttle.getRate();
+    }
+
+    public Status getStatus(){
+        if(retrying)
+            return Status.RETRYING;
+        return throttle.isPaused() ? Status.PAUSED : Status.RUNNING;
+    }
+
+    public long getCheckpoints(){
+        return checkpoints;
+    }
+
+    /**
+     * @return the key of the last base row committed, or null if no checkpoint was made yet
+     */
+    public byte[] getCheckpointKey(){
+        return checkpointKey;
+    }
+
+    /**
+     * @return the highest fraction of its threads or write count the write control of this server is using
+     */
+    static double writeSaturation(){
+        PipelineDriver driver=PipelineDriver.driver();
+        if(driver==null)
+            return 0d;
+        SpliceWriteControl control=driver.writeControl();
+        WriteStatus status=control.getWriteStatus();
+        return Math.max(
+                Math.max(fraction(status.getDependentWriteThreads(),control.maxDependendentWriteThreads()),
+                        fraction(status.getIndependentWriteThreads(),control.maxIndependentWriteThreads())),
+                Math.max(fraction(status.getDependentWriteCount(),control.maxDependentWriteCount()),
+                        fraction(status.getIndependentWriteCount(),control.maxIndependentWriteCount())));
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+
+    private void backfillFrom(DataScan fullScan) throws StandardException, IOException, InterruptedException{
+        DataScan scan=fullScan.copy();
+        byte[] resumeKey=checkpointKey;
+        if(resumeKey!=null)
+            scan.startKey(Arrays.copyOf(resumeKey,resumeKey.length+1)); // the row right after the checkpoint
+        Iterator<ExecRow> rows=scanSetBuilder.scan(scan).buildDataSet(prefix).toLocalIterator();
+        DataSetProcessor dsp=EngineDriver.driver().processorFactory().localProcessor(null,null);
+        Txn chunkTxn=null;
+        long chunkRows=0L;
+        byte[] lastKey=null;
+        try{
+            List<ExecRow> step=new ArrayList<>(STEP_ROWS);
+            windowStart=System.nanoTime();
+            windowRows=0L;
+            while(rows.hasNext()){
+                step.clear();
+                while(step.size()<STEP_ROWS && rows.hasNext())
+                    step.add(rows.next().getClone());
+                if(chunkTxn==null)
+                    chunkTxn=SIDriver.driver().lifecycleManager().beginChildTransaction(parentTxn,
+                            Bytes.toBytes(Long.toString(tentativeIndex.getIndex().getConglomerate())));
+
+                throttle.acquire(step.size());
+                long start=System.nanoTime();
+                PopulateIndexJob.writeIndex(dsp.createDataSet(step.iterator()),tentativeIndex,
+                        scanSetBuilder.getOperationContext(),scope,chunkTxn);
+                throttle.record(step.size(),System.nanoTime()-start);
+
+                lastKey=step.get(step.size()-1).getKey();
+                chunkRows+=step.size();
+                rowsWritten(step.size());
+                if(chunkRows>=checkpointRows){
+                    checkpoint(chunkTxn,lastKey);
+                    chunkTxn=null;
+                    chunkRows=0L;
+                }
+            }
+            if(chunkTxn!=null){
+                checkpoint(chunkTxn,lastKey);
+                chunkTxn=null;
+            }
+        }catch(Exception e){
+            if(chunkTxn!=null){
+                rowsDone-=chunkRows;
+                try{
+                    chunkTxn.rollback();
+                }catch(IOException re){
+                    e.addSuppressed(re);
+                }
+            }
+            throw e;
+        }finally{
+            if(rows instanceof Closeable)
+                ((Closeable)rows).close();
+        }
+    }
+
+    private void checkpoint(Txn chunkTxn,byte[] lastKey) throws IOException{
+        chunkTxn.commit();
+        checkpointKey=lastKey;
+        checkpoints++;
+        SpliceLogUtils.debug(LOG,"Index %s.%s checkpointed at %d rows, %.0f rows/s",
+                schemaName,indexName,rowsDone,rowsPerSecond);
+    }
+
+    private void rowsWritten(int rows){
+        rowsDone+=rows;
+        windowRows+=rows;
+        long now=System.nanoTime();
+        long elapsed=now-windowStart;
+        if(elapsed>=RATE_WINDOW_NANOS){
+            rowsPerSecond=windowRows*(double)TimeUnit.SECONDS.toNanos(1)/elapsed;
+            windowStart=now;
+            windowRows=0L;
+        }else if(rowsPerSecond==0d && elapsed>0)
+            rowsPerSecond=windowRows*(double)TimeUnit.SECONDS.toNanos(1)/elapsed; // until the first window is over
+    }
+
+    /*
+     * Constraint violations will fail again, and an interrupted backfill is being cancelled.
+     */
+    private static boolean isRetryable(StandardException se,Exception cause){
+        if(cause instanceof InterruptedException || Thread.currentThread().isInterrupted())
+            return false;
+        String sqlState=se.getSQLState();
+        return sqlState==null || !sqlState.startsWith("23");
+    }
+
+    private static double fraction(int used,int max){
+        return max<=0 ? 0d : (double)used/max;
+    }
+}
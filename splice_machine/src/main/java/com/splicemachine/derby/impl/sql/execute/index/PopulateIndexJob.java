@@ -69,7 +69,18 @@ public class PopulateIndexJob implements Callable<Void> {
     {
 
         DataSet<ExecRow> dataSet = scanSetBuilder.buildDataSet(prefix);
-        OperationContext operationContext = scanSetBuilder.getOperationContext();
+        return writeIndex(dataSet,tentativeIndex,scanSetBuilder.getOperationContext(),scope,childTxn);
+    }
+
+    /**
+     * Writes the index rows of the base rows of {@code dataSet}.
+     */
+    public static DataSet<ExecRow> writeIndex(DataSet<ExecRow> dataSet,
+                                              DDLMessage.TentativeIndex tentativeIndex,
+                                              OperationContext operationContext,
+                                              String scope,
+                                              TxnView txn) throws StandardException
+    {
         DataSet<KVPair> keyValueSet = dataSet
                 .map(new IndexTransformFunction(tentativeIndex), null, false, true, scope + ": Prepare Index");
         if (tentativeIndex.getIndex().getExcludeDefaults() || tentativeIndex.getIndex().getExcludeNulls()) {
@@ -79,7 +90,7 @@ public class PopulateIndexJob implements Callable<Void> {
         DataSetWriter writer = dsToWrite.directWriteData()
                 .operationContext(operationContext)
                 .destConglomerate(tentativeIndex.getIndex().getConglomerate())
-                .txn(childTxn)
+                .txn(txn)
                 .build();
         return writer.write();
     }
@@ -15,18 +15,27 @@
 package com.splicemachine.derby.impl.sql.execute.operations;
 
 import com.splicemachine.EngineDriver;
+import com.splicemachine.access.api.SConfiguration;
 import com.splicemachine.access.configuration.SQLConfiguration;
 import com.splicemachine.db.iapi.error.StandardException;
 import com.splicemachine.db.iapi.services.loader.GeneratedMethod;
 import com.splicemachine.db.iapi.sql.Activation;
 import com.splicemachine.db.iapi.sql.compile.CompilerContext;
+import com.splicemachine.db.iapi.sql.execute.ExecAggregator;
 import com.splicemachine.db.iapi.sql.execute.ExecIndexRow;
 import com.splicemachine.db.iapi.sql.execute.ExecRow;
+import com.splicemachine.db.iapi.store.access.Qualifier;
+import com.splicemachine.db.impl.sql.execute.AvgAggregator;
+import com.splicemachine.db.impl.sql.execute.CountAggregator;
+import com.splicemachine.db.impl.sql.execute.MaxMinAggregator;
+import com.splicemachine.db.impl.sql.execute.SumAggregator;
 import com.splicemachine.derby.iapi.sql.execute.SpliceOperation;
 import com.splicemachine.derby.iapi.sql.execute.SpliceOperationContext;
 import com.splicemachine.derby.impl.sql.execute.operations.framework.DerbyAggregateContext;
 import com.splicemachine.derby.impl.sql.execute.operations.framework.SpliceGenericAggregator;
 import com.splicemachine.derby.impl.sql.execute.operations.iapi.AggregateContext;
+import com.splicemachine.derby.impl.sql.execute.operations.scanner.ScanAggregation;
+import com.splicemachine.derby.stream.iapi.DataSet;
 import com.splicemachine.derby.stream.iapi.DataSetProcessor;
 import com.splicemachine.si.api.txn.TxnView;
 import com.splicemachine.utils.SpliceLogUtils;
@@ -180,6 +189,70 @@ public abstract class GenericAggregateOperation extends SpliceBaseOperation {
         this.setCurrentRow(row);
     }
 
+    /**
+     * Pushes the first phase of this aggregate down into the scan it reads from, when it reads a single table
+     * through nothing but a projection of the table's columns, so that the scan returns partial aggregates
+     * (see {@link ScanAggregation}) rather than every row of the table.
+     *
+     * @param groupingKeys the 0-based positions of the group columns in the source row, empty if the
+     *                     aggregate is scalar
+     * @return the partial aggregates returned by the scan, in the layout of the source row and ready to be
+     * merged, or null if the aggregation cannot be pushed down
+     */
+    protected DataSet<ExecRow> pushDownAggregation(DataSetProcessor dsp,int[] groupingKeys) throws StandardException{
+        SConfiguration config = EngineDriver.driver().getConfiguration();
+        if(!config.getControlAggregationPushdown() || !dsp.supportsScanAggregation())
+            return null;
+        if(!(source instanceof ProjectRestrictOperation))
+            return null;
+        ProjectRestrictOperation projection = (ProjectRestrictOperation)source;
+        if(projection.getRestrictionMethodName()!=null || projection.getConstantRestrictionMethodName()!=null)
+            return null;
+        if(projection.getSource()==null || projection.getSource().getClass()!=TableScanOperation.class)
+            return null;
+        TableScanOperation scan = (TableScanOperation)projection.getSource();
+        if(scan.isForUpdate() || scan.getRowIdKey() || scan.storedAs!=null
+                || scan.getFirstRowOfIndexPrefixIteration()!=null
+                || hasQualifiers(scan.getScanInformation().getScanQualifiers()))
+            return null;
+
+        int[] groupColumns = new int[groupingKeys.length];
+        int[] groupScanColumns = new int[groupingKeys.length];
+        for(int i=0;i<groupingKeys.length;i++){
+            groupColumns[i] = groupingKeys[i]+1;
+            groupScanColumns[i] = sourceColumn(projection,groupColumns[i]);
+            if(groupScanColumns[i]<=0)
+                return null;
+        }
+        SpliceGenericAggregator[] aggregators = new SpliceGenericAggregator[aggregates.length];
+        int[] inputScanColumns = new int[aggregates.length];
+        for(int i=0;i<aggregates.length;i++){
+            SpliceGenericAggregator aggregate = aggregates[i];
+            if(aggregate.isDistinct())
+                return null;
+            int inputType = sourceExecIndexRow.getColumn(aggregate.getInputColumnId()).getTypeFormatId();
+            ExecAggregator prototype = aggregate.getAggregatorInstance(inputType).newAggregator();
+            if(!(prototype instanceof CountAggregator || prototype instanceof SumAggregator
+                    || prototype instanceof MaxMinAggregator || prototype instanceof AvgAggregator))
+                return null;
+            if(prototype instanceof CountAggregator && ((CountAggregator)prototype).isCountStar()){
+                inputScanColumns[i] = 0;
+            }else{
+                inputScanColumns[i] = sourceColumn(projection,aggregate.getInputColumnId());
+                if(inputScanColumns[i]<=0)
+                    return null;
+            }
+            aggregators[i] = new SpliceGenericAggregator(prototype,
+                    aggregate.getAggregatorColumnId(),aggregate.getInputColumnId(),aggregate.getResultColumnId());
+        }
+
+        scan.setAggregation(new ScanAggregation(sourceExecIndexRow.getClone(),
+                groupColumns,groupScanColumns,aggregators,inputScanColumns,
+                config.getControlAggregationPushdownMaxGroups()));
+        scan.setKeyOrderRequired(false);
+        return scan.getDataSet(dsp);
+    }
+
 	public ExecIndexRow getSourceExecIndexRow() {
 		return sourceExecIndexRow;
 	}
@@ -188,4 +261,22 @@ public abstract class GenericAggregateOperation extends SpliceBaseOperation {
     public TxnView getCurrentTransaction() throws StandardException{
         return source.getCurrentTransaction();
     }
+
+    /* the 1-based position of the column the projection copies into its column at {@code position}, or -1 */
+    private static int sourceColumn(ProjectRestrictOperation projection,int position){
+        int[] projectMapping = projection.projectMapping;
+        if(projectMapping==null || position>projectMapping.length)
+            return -1;
+        return projectMapping[position-1];
+    }
+
+    private static boolean hasQualifiers(Qualifier[][] qualifiers){
+        if(qualifiers==null)
+            return false;
+        for(Qualifier[] clause:qualifiers){
+            if(clause!=null && clause.length>0)
+                return true;
+        }
+        return false;
+    }
 }
@@ -14,6 +14,7 @@
 
 package com.splicemachine.derby.impl.sql.execute.operations;
 
+import com.splicemachine.EngineDriver;
 import com.splicemachine.db.iapi.error.StandardException;
 import com.splicemachine.db.iapi.services.loader.GeneratedMethod;
 import com.splicemachine.db.iapi.sql.Activation;
@@ -146,7 +147,11 @@ public class GroupedAggregateOperation extends GenericAggregateOperation {
 
         OperationContext<GroupedAggregateOperation> operationContext = dsp.createOperationContext(this);
         dsp.incrementOpDepth();
-        DataSet set = source.getDataSet(dsp);
+        DataSet set = null;
+        if (!isRollup && optimizerEstimatedRowCount <= EngineDriver.driver().getConfiguration().getControlAggregationPushdownMaxGroups())
+            set = pushDownAggregation(dsp, groupedAggregateContext.getGroupingKeys());
+        if (set == null)
+            set = source.getDataSet(dsp);
         DataSet sourceDS = set;
         dsp.decrementOpDepth();
         DataSet dataSetWithNativeSparkAggregation = null;
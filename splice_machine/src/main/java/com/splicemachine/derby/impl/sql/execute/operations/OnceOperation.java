@@ -14,6 +14,10 @@
 
 package com.splicemachine.derby.impl.sql.execute.operations;
 
+import com.splicemachine.EngineDriver;
+import com.splicemachine.db.iapi.services.io.FormatableArrayHolder;
+import com.splicemachine.db.iapi.services.io.FormatableIntHolder;
+import com.splicemachine.db.iapi.sql.Row;
 import com.splicemachine.db.iapi.sql.conn.ResubmitDistributedException;
 import com.splicemachine.derby.stream.function.CloneFunction;
 import splice.com.google.common.base.Strings;
@@ -54,6 +58,11 @@ public class OnceOperation extends SpliceBaseOperation {
     protected String emptyRowFunMethodName;
     private ExecRow rowWithNulls;
     private int cardinalityCheck;
+    // (result set number, column id) pairs of the correlated columns keying the result cache
+    private int[] memoizationKeyColumns;
+    private SubqueryResultCache resultCache;
+    // the execution of the statement the cached results belong to
+    private long resultCacheExecution;
 
     @Deprecated
     public OnceOperation() {
@@ -64,6 +73,16 @@ public class OnceOperation extends SpliceBaseOperation {
                          int subqueryNumber, int pointOfAttachment,
                          double optimizerEstimatedRowCount,
                          double optimizerEstimatedCost) throws StandardException {
+        this(s, a, emptyRowFun, cardinalityCheck, resultSetNumber, subqueryNumber, pointOfAttachment,
+                optimizerEstimatedRowCount, optimizerEstimatedCost, -1);
+    }
+
+    public OnceOperation(SpliceOperation s, Activation a, GeneratedMethod emptyRowFun,
+                         int cardinalityCheck, int resultSetNumber,
+                         int subqueryNumber, int pointOfAttachment,
+                         double optimizerEstimatedRowCount,
+                         double optimizerEstimatedCost,
+                         int memoizationKeyItem) throws StandardException {
         super(a, resultSetNumber, optimizerEstimatedRowCount, optimizerEstimatedCost);
         SpliceLogUtils.trace(LOG, "instantiated");
         this.source = s;
@@ -71,6 +90,14 @@ public class OnceOperation extends SpliceBaseOperation {
         this.cardinalityCheck = cardinalityCheck;
         this.subqueryNumber = subqueryNumber;
         this.pointOfAttachment = pointOfAttachment;
+        if (memoizationKeyItem != -1) {
+            FormatableArrayHolder fah = (FormatableArrayHolder) a.getPreparedStatement().getSavedObject(memoizationKeyItem);
+            FormatableIntHolder[] fihArray = (FormatableIntHolder[]) fah.getArray(FormatableIntHolder.class);
+            memoizationKeyColumns = new int[fihArray.length];
+            for (int i = 0; i < fihArray.length; i++) {
+                memoizationKeyColumns[i] = fihArray[i].getInt();
+            }
+        }
         init();
     }
 
@@ -133,6 +160,8 @@ public class OnceOperation extends SpliceBaseOperation {
                 .append(indent).append("cardinalityCheck:").append(cardinalityCheck)
                 .append(indent).append("subqueryNumber:").append(subqueryNumber)
                 .append(indent).append("pointOfAttachment:").append(pointOfAttachment)
+                .append(indent).append("memoized:").append(memoizationKeyColumns != null)
+                .append(indent).append("resultCache:").append(resultCache)
                 .append(indent).append("source:").append(source.prettyPrint(indentLevel + 1))
                 .toString();
     }
@@ -197,6 +226,13 @@ public class OnceOperation extends SpliceBaseOperation {
         if (!isOpen)
             throw new IllegalStateException("Operation is not open");
 
+        DataValueDescriptor[] key = getMemoizationKey();
+        if (key != null) {
+            ExecRow cached = getResultCache().get(key);
+            if (cached != null)
+                return dsp.singleRowDataSet(cached.getClone());
+        }
+
         // We are consuming the dataset, get a resultDataSet
         dsp.incrementOpDepth();
         DataSet<ExecRow> raw = source.getResultDataSet(dsp).map(new CloneFunction<>(dsp.createOperationContext(this)));
@@ -210,11 +246,49 @@ public class OnceOperation extends SpliceBaseOperation {
             throw Exceptions.parseException(e);
         }
 
+        if (key != null)
+            getResultCache().put(key, result.getClone());
+
         DataSet<ExecRow> ds = dsp.singleRowDataSet(result);
         handleSparkExplain(ds, raw, dsp);
         return ds;
     }
 
+    /**
+     * @return a copy of the current values of the outer columns this subquery is correlated to,
+     * or null if the results of this subquery are not memoized
+     */
+    private DataValueDescriptor[] getMemoizationKey() throws StandardException {
+        if (memoizationKeyColumns == null)
+            return null;
+        DataValueDescriptor[] key = new DataValueDescriptor[memoizationKeyColumns.length / 2];
+        for (int i = 0; i < key.length; i++) {
+            Row outerRow = activation.getCurrentRow(memoizationKeyColumns[2 * i]);
+            if (outerRow == null)
+                return null;
+            key[i] = outerRow.getColumn(memoizationKeyColumns[2 * i + 1]).cloneValue(false);
+        }
+        return key;
+    }
+
+    /**
+     * @return the results memoized during the current execution of the statement. The operation tree is reused when
+     * the statement is executed again, so results cached by earlier executions are dropped: they may depend on
+     * different parameter values or on data which changed since.
+     */
+    private SubqueryResultCache getResultCache() {
+        long execution = activation.getExecutionNumber();
+        if (resultCache == null || resultCacheExecution != execution) {
+            resultCache = new SubqueryResultCache(EngineDriver.driver().getConfiguration().getSubqueryCacheMaxMemory());
+            resultCacheExecution = execution;
+        }
+        return resultCache;
+    }
+
+    public SubqueryResultCache getSubqueryResultCache() {
+        return resultCache;
+    }
+
     @Override
     protected void resubmitDistributed(ResubmitDistributedException e) throws StandardException {
         throw e;
@@ -154,6 +154,10 @@ public class ProjectRestrictOperation extends SpliceBaseOperation {
         return restrictionMethodName;
     }
 
+    public String getConstantRestrictionMethodName() {
+        return constantRestrictionMethodName;
+    }
+
     public boolean doesProjection() {
         return doesProjection;
     }
@@ -108,8 +108,13 @@ public class ScalarAggregateOperation extends GenericAggregateOperation {
             throw new IllegalStateException("Operation is not open");
 
         OperationContext<ScalarAggregateOperation> operationContext = dsp.createOperationContext(this);
+        if (!singleInputRow)
+            relaxKeyOrder(source);
         dsp.incrementOpDepth();
-        DataSet<ExecRow> dsSource = source.getDataSet(dsp);
+        // rows aggregated by the scan are already initialized, and are merged rather than accumulated below
+        DataSet<ExecRow> dsSource = singleInputRow ? null : pushDownAggregation(dsp, new int[0]);
+        if (dsSource == null)
+            dsSource = source.getDataSet(dsp);
         dsp.decrementOpDepth();
         DataSet<ExecRow> dataSetWithNativeSparkAggregation = null;
 
@@ -133,4 +138,16 @@ public class ScalarAggregateOperation extends GenericAggregateOperation {
         handleSparkExplain(ds2, dsSource, dsp);
         return ds2.mapPartitions(new ScalarAggregateFlatMapFunction(operationContext, true), /*isLast=*/true, /*pushScope=*/true, "Final Aggregation");
     }
+
+    /*
+     * Aggregating every row of the source gives the same result whatever order the rows arrive in, so the
+     * scan feeding this aggregate (possibly through projections and restrictions, which keep no state across
+     * rows) is free to return them out of key order.
+     */
+    private static void relaxKeyOrder(SpliceOperation op) {
+        while (op instanceof ProjectRestrictOperation)
+            op = ((ProjectRestrictOperation) op).getSource();
+        if (op instanceof ScanOperation)
+            ((ScanOperation) op).setKeyOrderRequired(false);
+    }
 }
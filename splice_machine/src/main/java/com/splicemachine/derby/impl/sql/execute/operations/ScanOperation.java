@@ -34,10 +34,13 @@ import com.splicemachine.db.iapi.sql.Activation;
 import com.splicemachine.db.iapi.sql.execute.ExecIndexRow;
 import com.splicemachine.db.iapi.sql.execute.ExecRow;
 import com.splicemachine.db.impl.sql.GenericStorablePreparedStatement;
+import com.splicemachine.db.impl.sql.compile.ScanCardinalityEstimate;
 import com.splicemachine.db.impl.sql.execute.BaseActivation;
 import com.splicemachine.derby.iapi.sql.execute.SpliceOperation;
 import com.splicemachine.derby.iapi.sql.execute.SpliceOperationContext;
 import com.splicemachine.derby.impl.sql.execute.operations.iapi.ScanInformation;
+import com.splicemachine.derby.impl.sql.execute.operations.scanner.ScanAggregation;
+import com.splicemachine.derby.impl.stats.CardinalityFeedback;
 import com.splicemachine.si.constants.SIConstants;
 import com.splicemachine.storage.DataScan;
 import com.splicemachine.utils.SpliceLogUtils;
@@ -47,6 +50,8 @@ import org.apache.log4j.Logger;
 import java.io.IOException;
 import java.sql.Timestamp;
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.splicemachine.si.constants.SIConstants.OLDEST_TIME_TRAVEL_TX;
 
@@ -80,6 +85,12 @@ public abstract class ScanOperation extends SpliceBaseOperation {
     protected long pastTx;
     protected int[] partitionColumnMap;
     protected ExecRow defaultRow;
+    protected boolean keyOrderRequired = true;
+    protected ScanAggregation aggregation;
+    /* what the control-side scans of this operation returned, for cardinality feedback */
+    private final AtomicInteger startedScans = new AtomicInteger();
+    private final AtomicInteger pendingScanSegments = new AtomicInteger();
+    private final AtomicLong completedScanRows = new AtomicLong();
     public static final int SCAN_CACHE_SIZE = 1000;
 
     public ScanOperation(){
@@ -419,6 +430,66 @@ public abstract class ScanOperation extends SpliceBaseOperation {
         return rowIdKey;
     }
 
+    /**
+     * @return true if the operations consuming this scan depend on its rows being returned in key order,
+     * which is assumed unless a consumer declares otherwise. Scans which need not return rows in key order
+     * may read several partitions concurrently.
+     */
+    public boolean isKeyOrderRequired() {
+        return keyOrderRequired;
+    }
+
+    public void setKeyOrderRequired(boolean keyOrderRequired) {
+        this.keyOrderRequired = keyOrderRequired;
+    }
+
+    /**
+     * @return the aggregation to apply to the rows of this scan, or null if the scan returns its rows as they
+     * are. An aggregated scan returns partial aggregates, in the layout of the source row of the aggregate
+     * which requested them, rather than rows of the table.
+     */
+    public ScanAggregation getAggregation() {
+        return aggregation;
+    }
+
+    public void setAggregation(ScanAggregation aggregation) {
+        this.aggregation = aggregation;
+    }
+
+    /**
+     * Notes that a scan of this operation, read in {@code segments} pieces, was started on the control side.
+     */
+    public void scanStarted(int segments) {
+        startedScans.incrementAndGet();
+        pendingScanSegments.addAndGet(segments);
+    }
+
+    /**
+     * Notes that a piece of a scan of this operation was read to the end, after returning {@code rows} rows.
+     */
+    public void scanSegmentCompleted(long rows) {
+        completedScanRows.addAndGet(rows);
+        pendingScanSegments.decrementAndGet();
+    }
+
+    /**
+     * Reports the rows the scans of this operation returned, on average, to {@link CardinalityFeedback}. Nothing
+     * is reported unless every scan was read to the end, as the consumer of a scan closed early (e.g. by a
+     * limit) has not seen how many rows it would have returned.
+     */
+    protected void recordCardinalityFeedback() {
+        int scans = startedScans.getAndSet(0);
+        int pending = pendingScanSegments.getAndSet(0);
+        long rows = completedScanRows.getAndSet(0L);
+        if (scans == 0 || pending != 0 || aggregation != null || activation == null
+                || activation.getPreparedStatement() == null || !CardinalityFeedback.isEnabled())
+            return;
+        ScanCardinalityEstimate estimate = ScanCardinalityEstimate.find(
+                activation.getPreparedStatement().getSavedObjects(), resultSetNumber);
+        if (estimate != null)
+            CardinalityFeedback.record(estimate, (double) rows / scans);
+    }
+
     @SuppressFBWarnings(value = "EI_EXPOSE_REP", justification = "DB-9844")
     public int[] getPartitionColumnMap() {
         return partitionColumnMap;
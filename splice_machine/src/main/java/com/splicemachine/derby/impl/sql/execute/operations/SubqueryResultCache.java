@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.impl.sql.execute.operations;
+
+import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.db.iapi.sql.execute.ExecRow;
+import com.splicemachine.db.iapi.types.DataValueDescriptor;
+import com.splicemachine.db.iapi.types.StringDataValue;
+import splice.com.google.common.cache.Cache;
+import splice.com.google.common.cache.CacheBuilder;
+import splice.com.google.common.cache.CacheStats;
+import splice.com.google.common.cache.Weigher;
+
+import java.util.Arrays;
+
+/**
+ * Memoizes the results of a correlated expression subquery for the lifetime of one
+ * execution, keyed by the values of the outer columns the subquery is correlated to.
+ *
+ * The cache is bounded by the estimated memory footprint of its keys and rows, and
+ * evicts the least recently used keys first.
+ */
+public class SubqueryResultCache{
+    private final Cache<Key,ExecRow> cache;
+
+    public SubqueryResultCache(long maxMemory){
+        this.cache=CacheBuilder.newBuilder()
+                .maximumWeight(maxMemory)
+                .weigher(new Weigher<Key,ExecRow>(){
+                    @Override
+                    public int weigh(Key key,ExecRow row){
+                        return (int)Math.min(Integer.MAX_VALUE,key.estimateMemoryUsage()+estimateMemoryUsage(row.getRowArray()));
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * @return the cached result for {@code key}, or null if it has not been computed yet
+     */
+    public ExecRow get(DataValueDescriptor[] key){
+        return cache.getIfPresent(new Key(key));
+    }
+
+    /**
+     * Remember the result of the subquery for {@code key}. Both are retained as is, so the
+     * caller must pass values that are not reused afterwards.
+     */
+    public void put(DataValueDescriptor[] key,ExecRow result){
+        cache.put(new Key(key),result);
+    }
+
+    public long hitCount(){
+        return cache.stats().hitCount();
+    }
+
+    public long missCount(){
+        return cache.stats().missCount();
+    }
+
+    public double hitRate(){
+        return cache.stats().hitRate();
+    }
+
+    public long evictionCount(){
+        return cache.stats().evictionCount();
+    }
+
+    public long size(){
+        return cache.size();
+    }
+
+    @Override
+    public String toString(){
+        CacheStats stats=cache.stats();
+        return String.format("hits=%d, misses=%d, hitRate=%.2f, evictions=%d, size=%d",
+                stats.hitCount(),stats.missCount(),stats.hitRate(),stats.evictionCount(),cache.size());
+    }
+
+    private static long estimateMemoryUsage(DataValueDescriptor[] values){
+        long size=0L;
+        for(DataValueDescriptor dvd : values){
+            if(dvd!=null)
+                size+=dvd.estimateMemoryUsage();
+        }
+        return size;
+    }
+
+    /**
+     * Correlation key. Values are compared with SQL equality, except that character values
+     * must also match exactly, since values that only differ by trailing blanks compare equal
+     * but may still produce different subquery results.
+     */
+    private static final class Key{
+        private final DataValueDescriptor[] values;
+        private final int hash;
+
+        Key(DataValueDescriptor[] values){
+            this.values=values;
+            this.hash=Arrays.hashCode(values);
+        }
+
+        long estimateMemoryUsage(){
+            return SubqueryResultCache.estimateMemoryUsage(values);
+        }
+
+        @Override
+        public int hashCode(){
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj){
+            if(this==obj)
+                return true;
+            if(!(obj instanceof Key))
+                return false;
+            DataValueDescriptor[] other=((Key)obj).values;
+            if(!Arrays.equals(values,other))
+                return false;
+            try{
+                for(int i=0;i<values.length;i++){
+                    if(values[i] instanceof StringDataValue && !values[i].isNull()
+                            && !values[i].getString().equals(other[i].getString()))
+                        return false;
+                }
+            }catch(StandardException se){
+                return false;
+            }
+            return true;
+        }
+    }
+}
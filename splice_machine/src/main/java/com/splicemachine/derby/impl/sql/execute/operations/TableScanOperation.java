@@ -289,6 +289,7 @@ public class TableScanOperation extends ScanOperation{
         if(forUpdate && scanInformation.isKeyed()){
             activation.clearIndexScanInfo();
         }
+        recordCardinalityFeedback();
         super.close();
     }
 
@@ -14,6 +14,7 @@
 
 package com.splicemachine.derby.impl.sql.execute.operations.export;
 
+import com.github.luben.zstd.ZstdOutputStream;
 import com.splicemachine.access.api.DistributedFileOpenOption;
 import com.splicemachine.access.api.DistributedFileSystem;
 import com.splicemachine.db.iapi.error.StandardException;
@@ -21,6 +22,7 @@ import com.splicemachine.db.iapi.reference.SQLState;
 import com.splicemachine.derby.impl.load.ImportUtils;
 import com.splicemachine.primitives.Bytes;
 import com.splicemachine.utils.SpliceLogUtils;
+import net.jpountz.lz4.LZ4FrameOutputStream;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.io.compress.CompressionCodec;
 import org.apache.hadoop.io.compress.CompressionCodecFactory;
@@ -44,7 +46,7 @@ public class ExportFile {
     private static Logger LOG=Logger.getLogger(ExportFile.class);
 
     public static enum COMPRESSION {
-        BZ2, GZ, SNAPPY, NONE
+        BZ2, GZ, SNAPPY, NONE, LZ4, ZSTD
     }
 
     ExportFile(ExportParams exportParams, byte[] taskId) throws StandardException {
@@ -65,19 +67,56 @@ public class ExportFile {
         OutputStream rawOutputStream =fileSystem.newOutputStream(fullyQualifiedExportFilePath,
                 new DistributedFileOpenOption(exportParams.getReplicationCount(),StandardOpenOption.CREATE_NEW));
 
-        if (exportParams.getCompression()==COMPRESSION.BZ2) {
-            Configuration conf = new Configuration();
-            CompressionCodecFactory factory = new CompressionCodecFactory(conf);
-            CompressionCodec codec = factory.getCodecByClassName("org.apache.hadoop.io.compress.BZip2Codec");
-            return codec.createOutputStream(rawOutputStream);
-        }
-        else if (exportParams.getCompression()==COMPRESSION.GZ) {
-            return new GZIPOutputStream(rawOutputStream);
+        return compressedOutputStream(rawOutputStream, exportParams.getCompression());
+    }
+
+    /**
+     * Wraps {@code outputStream} with the CSV compression codec. Closing the returned stream
+     * completes the compressed stream and closes {@code outputStream}.
+     *
+     * Every codec produces a stream that can be concatenated with other streams of the same
+     * codec, and still be read back as a single file by the matching decompressor.
+     */
+    public static OutputStream compressedOutputStream(OutputStream outputStream, COMPRESSION compression) throws IOException {
+        if (compression == null) {
+            return outputStream;
         }
-        else {
-            return rawOutputStream;
+        switch (compression) {
+            case BZ2:
+                Configuration conf = new Configuration();
+                CompressionCodecFactory factory = new CompressionCodecFactory(conf);
+                CompressionCodec codec = factory.getCodecByClassName("org.apache.hadoop.io.compress.BZip2Codec");
+                return codec.createOutputStream(outputStream);
+            case GZ:
+                return new GZIPOutputStream(outputStream);
+            case LZ4:
+                return new LZ4FrameOutputStream(outputStream);
+            case ZSTD:
+                return new ZstdOutputStream(outputStream);
+            default:
+                return outputStream;
         }
+    }
 
+    /**
+     * @return the suffix appended to the ".csv" extension of files compressed with {@code compression}
+     */
+    public static String getFileExtension(COMPRESSION compression) {
+        if (compression == null) {
+            return "";
+        }
+        switch (compression) {
+            case BZ2:
+                return ".bz2";
+            case GZ:
+                return ".gz";
+            case LZ4:
+                return ".lz4";
+            case ZSTD:
+                return ".zst";
+            default:
+                return "";
+        }
     }
 
     public boolean createDirectory() throws StandardException {
@@ -156,13 +195,6 @@ public class ExportFile {
     }
 
     protected String buildFilenameFromTaskId(byte[] taskId) {
-        String postfix = "";
-        if (exportParams.getCompression() == COMPRESSION.BZ2) {
-            postfix = ".bz2";
-        }
-        else if (exportParams.getCompression() == COMPRESSION.GZ) {
-            postfix = ".gz";
-        }
-        return "export_" + Bytes.toHex(taskId) + ".csv" + postfix;
+        return "export_" + Bytes.toHex(taskId) + ".csv" + getFileExtension(exportParams.getCompression());
     }
 }
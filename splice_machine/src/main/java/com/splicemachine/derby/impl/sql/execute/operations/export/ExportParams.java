@@ -157,7 +157,7 @@ public class ExportParams implements Serializable {
                     this.compression = COMPRESSION.NONE;
                 } else throw StandardException.newException(SQLState.UNSUPPORTED_COMPRESSION_FORMAT, compression);
             } else if (f.equals("CSV")) {
-                // Support gzip, bzip2 for csv
+                // Support gzip, bzip2, lz4 and zstd for csv
                 if (compression.equals("BZ2") ||
                         compression.equals("BZIP2")) {
                     this.compression = COMPRESSION.BZ2;
@@ -165,6 +165,11 @@ public class ExportParams implements Serializable {
                         compression.equals("GZIP") ||
                         compression.equals("TRUE")) {
                     this.compression = COMPRESSION.GZ;
+                } else if (compression.equals("LZ4")) {
+                    this.compression = COMPRESSION.LZ4;
+                } else if (compression.equals("ZSTD") ||
+                        compression.equals("ZSTANDARD")) {
+                    this.compression = COMPRESSION.ZSTD;
                 } else if (compression.equals("NONE") ||
                         compression.equals("FALSE")) {
                     this.compression = COMPRESSION.NONE;
@@ -0,0 +1,359 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.impl.sql.execute.operations.scanner;
+
+import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.db.iapi.sql.execute.ExecRow;
+import com.splicemachine.db.iapi.types.DataValueDescriptor;
+import com.splicemachine.db.impl.sql.execute.ValueRow;
+import com.splicemachine.derby.impl.sql.execute.operations.framework.SpliceGenericAggregator;
+import com.splicemachine.metrics.TimeView;
+import com.splicemachine.primitives.Bytes;
+import com.splicemachine.si.constants.SIConstants;
+import com.splicemachine.storage.DataCell;
+import com.splicemachine.storage.DataScanner;
+import com.splicemachine.storage.Partition;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+import javax.annotation.Nonnull;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A partial aggregation of the rows read by a table scan, computed while the rows are read, so that a scan
+ * feeding an aggregate returns a row per group rather than every row it reads.
+ *
+ * The rows produced have the layout of the source row of the aggregate (group columns, aggregate inputs,
+ * results and aggregators where the aggregate expects them), with every aggregator initialized, and the
+ * aggregate merges them as it merges the partial results of its own first phase. Any number of rows may
+ * therefore be produced for the same group: an {@link Accumulator} starts over whenever it holds
+ * {@code maxGroups} groups, and the region servers serving a scan carrying the {@link #SCAN_ATTRIBUTE}
+ * return partial rows of their own, in the {@link #PARTIAL_COLUMN} of the last row they aggregated.
+ */
+public class ScanAggregation implements Serializable{
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The attribute of the scans whose rows the region servers should aggregate, holding the aggregation and
+     * everything needed to read the rows of the scan, as written by {@link #toScanAttribute}.
+     */
+    public static final String SCAN_ATTRIBUTE = "splice.scanAggregation";
+
+    /**
+     * The column holding the partial rows returned by region servers. It is not a column of any table, so
+     * rows holding it are never mistaken for table rows.
+     */
+    public static final byte[] PARTIAL_COLUMN = Bytes.toBytes("A");
+
+    private final ExecRow template;
+    private final int[] groupColumns;
+    private final int[] groupScanColumns;
+    private final SpliceGenericAggregator[] aggregators;
+    private final int[] inputScanColumns;
+    private final int maxGroups;
+
+    /**
+     * @param template the source row of the aggregate
+     * @param groupColumns the positions of the group columns in {@code template}
+     * @param groupScanColumns the positions of the group columns in the scanned rows
+     * @param aggregators the aggregators of the aggregate, each holding a prototype of its aggregator
+     * @param inputScanColumns the positions of the aggregate inputs in the scanned rows, or 0 for
+     *                         {@code COUNT(*)}, which has no input
+     * @param maxGroups the number of groups aggregated before starting over
+     */
+    @SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "intentional")
+    public ScanAggregation(ExecRow template,
+                           int[] groupColumns,
+                           int[] groupScanColumns,
+                           SpliceGenericAggregator[] aggregators,
+                           int[] inputScanColumns,
+                           int maxGroups){
+        this.template=template;
+        this.groupColumns=groupColumns;
+        this.groupScanColumns=groupScanColumns;
+        this.aggregators=aggregators;
+        this.inputScanColumns=inputScanColumns;
+        this.maxGroups=maxGroups;
+    }
+
+    public Accumulator newAccumulator(){
+        return new Accumulator();
+    }
+
+    /**
+     * @return the value of the {@link #SCAN_ATTRIBUTE} for the scan built by {@code builder}, which must not
+     * carry the attribute yet
+     */
+    public byte[] toScanAttribute(TableScannerBuilder<?> builder) throws IOException{
+        ByteArrayOutputStream bytes=new ByteArrayOutputStream();
+        try(ObjectOutputStream out=new ObjectOutputStream(bytes)){
+            out.writeObject(this);
+            builder.writeExternal(out);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Reads the value of the {@link #SCAN_ATTRIBUTE} of a scan, setting up {@code builder} to read its rows.
+     * The attribute is supplied by the client, so only our own classes and the JDK value types they hold
+     * are read from it.
+     *
+     * @return the aggregation of the rows of the scan
+     * @throws InvalidClassException if the attribute holds any other class
+     */
+    public static ScanAggregation fromScanAttribute(byte[] attribute,TableScannerBuilder<?> builder) throws IOException{
+        try(ObjectInputStream in=new FilteredObjectInputStream(new ByteArrayInputStream(attribute))){
+            ScanAggregation aggregation=(ScanAggregation)in.readObject();
+            builder.readExternal(in);
+            return aggregation;
+        }catch(ClassNotFoundException e){
+            throw new IOException(e);
+        }
+    }
+
+    public static byte[] encodePartialRows(List<ExecRow> rows) throws IOException{
+        ByteArrayOutputStream bytes=new ByteArrayOutputStream();
+        try(ObjectOutputStream out=new ObjectOutputStream(bytes)){
+            out.writeInt(rows.size());
+            for(ExecRow row:rows){
+                out.writeObject(row);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    public static List<ExecRow> decodePartialRows(byte[] bytes) throws IOException{
+        try(ObjectInputStream in=new FilteredObjectInputStream(new ByteArrayInputStream(bytes))){
+            int n=in.readInt();
+            List<ExecRow> rows=new ArrayList<>(n);
+            for(int i=0;i<n;i++){
+                rows.add((ExecRow)in.readObject());
+            }
+            return rows;
+        }catch(ClassNotFoundException e){
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * @return a scanner returning the rows of {@code delegate}, except for the partial rows returned by the
+     * region servers, which are merged into {@code accumulator} instead
+     */
+    public static DataScanner mergingPartialRows(DataScanner delegate,Accumulator accumulator){
+        return new PartialRowScanner(delegate,accumulator);
+    }
+
+    /**
+     * Aggregates rows into groups. Groups are flushed, with the key of the last row aggregated, when there
+     * are {@code maxGroups} of them or when asked to; once flushed they are only ever added to again by
+     * starting a new group.
+     */
+    public final class Accumulator{
+        private final Map<ExecRow, ExecRow> groups=new HashMap<>();
+        private List<ExecRow> flushed=new ArrayList<>();
+        private byte[] lastKey;
+
+        private Accumulator(){
+        }
+
+        /**
+         * Aggregates a row read by the scan.
+         */
+        public void accumulate(ExecRow row) throws StandardException{
+            ExecRow group=groups.get(groupKey(row,groupScanColumns,false));
+            if(group==null){
+                group=newGroup(row);
+                groups.put(groupKey(row,groupScanColumns,true),group);
+            }
+            for(int i=0;i<aggregators.length;i++){
+                DataValueDescriptor aggregatorColumn=group.getColumn(aggregators[i].getAggregatorColumnId());
+                // COUNT(*) counts rows whatever the value it is given, so give it one which is never null
+                DataValueDescriptor input=inputScanColumns[i]>0 ? row.getColumn(inputScanColumns[i]) : aggregatorColumn;
+                aggregators[i].accumulate(input,aggregatorColumn);
+            }
+            lastKey=row.getKey();
+            if(groups.size()>=maxGroups)
+                flush();
+        }
+
+        /**
+         * Merges a row produced by another aggregation of the same scan.
+         */
+        public void merge(ExecRow partialRow) throws StandardException{
+            ExecRow key=groupKey(partialRow,groupColumns,false);
+            ExecRow group=groups.get(key);
+            if(group==null){
+                groups.put(key,partialRow);
+            }else{
+                for(SpliceGenericAggregator aggregator:aggregators){
+                    aggregator.merge(partialRow,group);
+                }
+            }
+            if(partialRow.getKey()!=null)
+                lastKey=partialRow.getKey();
+            if(groups.size()>=maxGroups)
+                flush();
+        }
+
+        public void flush(){
+            for(ExecRow group:groups.values()){
+                group.setKey(lastKey);
+                flushed.add(group);
+            }
+            groups.clear();
+        }
+
+        public boolean isEmpty(){
+            return groups.isEmpty();
+        }
+
+        public boolean hasFlushed(){
+            return !flushed.isEmpty();
+        }
+
+        /**
+         * @return the groups flushed since the last call
+         */
+        public List<ExecRow> takeFlushed(){
+            List<ExecRow> rows=flushed;
+            flushed=new ArrayList<>();
+            return rows;
+        }
+
+        private ExecRow newGroup(ExecRow row) throws StandardException{
+            ExecRow group=template.getClone();
+            for(int i=0;i<groupColumns.length;i++){
+                group.setColumn(groupColumns[i],row.getColumn(groupScanColumns[i]).cloneValue(false));
+            }
+            for(SpliceGenericAggregator aggregator:aggregators){
+                int inputColumn=aggregator.getInputColumnId();
+                group.getColumn(aggregator.getAggregatorColumnId())
+                        .setValue(aggregator.getAggregatorInstance(group.getColumn(inputColumn).getTypeFormatId()));
+            }
+            return group;
+        }
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+
+    private static ExecRow groupKey(ExecRow row,int[] columns,boolean copy) throws StandardException{
+        DataValueDescriptor[] values=new DataValueDescriptor[columns.length];
+        for(int i=0;i<columns.length;i++){
+            DataValueDescriptor value=row.getColumn(columns[i]);
+            values[i]=copy ? value.cloneValue(false) : value;
+        }
+        return new ValueRow(values);
+    }
+
+    private static class PartialRowScanner implements DataScanner{
+        private final DataScanner delegate;
+        private final Accumulator accumulator;
+
+        PartialRowScanner(DataScanner delegate,Accumulator accumulator){
+            this.delegate=delegate;
+            this.accumulator=accumulator;
+        }
+
+        @Override
+        public @Nonnull List<DataCell> next(int limit) throws IOException{
+            while(true){
+                List<DataCell> cells=delegate.next(limit);
+                if(cells.size()!=1 || !cells.get(0).matchesQualifier(SIConstants.DEFAULT_FAMILY_BYTES,PARTIAL_COLUMN))
+                    return cells;
+                DataCell cell=cells.get(0);
+                byte[] key=cell.key();
+                try{
+                    for(ExecRow partialRow:decodePartialRows(cell.value())){
+                        partialRow.setKey(key);
+                        accumulator.merge(partialRow);
+                    }
+                }catch(StandardException e){
+                    throw new IOException(e);
+                }
+            }
+        }
+
+        @Override public TimeView getReadTime(){ return delegate.getReadTime(); }
+        @Override public long getBytesOutput(){ return delegate.getBytesOutput(); }
+        @Override public long getRowsFiltered(){ return delegate.getRowsFiltered(); }
+        @Override public long getRowsVisited(){ return delegate.getRowsVisited(); }
+        @Override public void close() throws IOException{ delegate.close(); }
+        @Override public Partition getPartition(){ return delegate.getPartition(); }
+    }
+
+    /**
+     * Reads our own classes, the JDK value types they hold and arrays of either, and refuses any other class
+     * before it is loaded.
+     */
+    private static class FilteredObjectInputStream extends ObjectInputStream{
+        // the names ending with a dot allow every class of their package
+        private static final String[] ALLOWED_CLASSES={
+                "com.splicemachine.",
+                "java.lang.Boolean","java.lang.Byte","java.lang.Character","java.lang.Double","java.lang.Enum",
+                "java.lang.Float","java.lang.Integer","java.lang.Long","java.lang.Number","java.lang.Short",
+                "java.lang.String","java.math.BigDecimal","java.math.BigInteger",
+                "java.sql.Date","java.sql.Time","java.sql.Timestamp","java.util.Date"
+        };
+
+        FilteredObjectInputStream(InputStream in) throws IOException{
+            super(in);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException{
+            if(!isAllowed(desc.getName()))
+                throw new InvalidClassException(desc.getName(),"not allowed in a scan aggregation");
+            return super.resolveClass(desc);
+        }
+
+        @Override
+        protected Class<?> resolveProxyClass(String[] interfaces) throws IOException{
+            throw new InvalidClassException("proxy classes are not allowed in a scan aggregation");
+        }
+
+        private static boolean isAllowed(String className){
+            String name=className;
+            int dimensions=0;
+            while(dimensions<name.length() && name.charAt(dimensions)=='[')
+                dimensions++;
+            if(dimensions>0){
+                name=name.substring(dimensions);
+                // arrays of primitives are named by a single letter, arrays of objects as L<class name>;
+                if(name.length()==1)
+                    return true;
+                if(!name.startsWith("L") || !name.endsWith(";"))
+                    return false;
+                name=name.substring(1,name.length()-1);
+            }
+            for(String allowed:ALLOWED_CLASSES){
+                if(allowed.endsWith(".") ? name.startsWith(allowed) : name.equals(allowed))
+                    return true;
+            }
+            return false;
+        }
+    }
+}
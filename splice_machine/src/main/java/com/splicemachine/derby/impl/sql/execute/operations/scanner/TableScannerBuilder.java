@@ -389,6 +389,15 @@ public abstract class TableScannerBuilder<V> implements Externalizable, ScanSetB
     }
 
     public SITableScanner build(){
+        return build(scanner,template);
+    }
+
+    /**
+     * Builds a scanner which reads from {@code scanner} into {@code template}, rather than from the scanner
+     * and into the template of this builder, so that several scanners may be built from the same builder
+     * and read concurrently.
+     */
+    public SITableScanner build(DataScanner scanner,ExecRow template){
             return new SITableScanner(
                     scanner,
                     region,
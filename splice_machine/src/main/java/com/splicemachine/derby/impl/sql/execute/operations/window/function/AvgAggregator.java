@@ -21,12 +21,17 @@ import com.splicemachine.db.iapi.sql.execute.WindowFunction;
 import com.splicemachine.db.iapi.types.DataTypeDescriptor;
 import com.splicemachine.db.iapi.types.DataValueDescriptor;
 import com.splicemachine.db.iapi.types.NumberDataValue;
+import com.splicemachine.db.iapi.types.SQLLongint;
 
 /**
+ * AVG over a sliding window frame. The sum and count of the non-null values in the frame are
+ * maintained as rows enter and leave it, so the result costs the same regardless of the frame
+ * size.
  *
  * Created by jyuan on 7/31/14.
  */
 public class AvgAggregator extends SpliceGenericWindowFunction {
+    private RunningSum sum = new RunningSum();
 
     @Override
     public WindowFunction setup( ClassFactory cf, String aggregateName, DataTypeDescriptor returnType,
@@ -42,46 +47,34 @@ public class AvgAggregator extends SpliceGenericWindowFunction {
 
     @Override
     protected void calculateOnAdd(WindowChunk chunk, DataValueDescriptor[] dvds) throws StandardException{
-        DataValueDescriptor result = chunk.getResult();
-        if (result == null || result.isNull()) {
-            chunk.setResult(dvds[0].cloneValue(false));
-        } else {
-            NumberDataValue input = (NumberDataValue)dvds[0];
-            if (input != null && ! input.isNull()) {
-                NumberDataValue nv = (NumberDataValue) result.cloneValue(false);
-                nv.plus(input, nv, nv);
-                chunk.setResult(nv);
-            }
-        }
+        sum.add(dvds[0], resultType);
     }
 
     @Override
     protected void calculateOnRemove(WindowChunk chunk, DataValueDescriptor[] dvds) throws StandardException {
-        DataValueDescriptor result = chunk.getResult();
-        NumberDataValue input = (NumberDataValue)dvds[0];
-        if (input != null && ! input.isNull()) {
-            NumberDataValue nv = (NumberDataValue) result.cloneValue(false);
-            nv.minus(nv, input, nv);
-            chunk.setResult(nv);
-        }
+        // the frame state is maintained in calculateOnFrameRemove
+    }
+
+    @Override
+    protected void calculateOnFrameRemove(DataValueDescriptor[] dvds) throws StandardException {
+        sum.remove(dvds[0]);
     }
 
     public DataValueDescriptor getResult() throws StandardException {
-        // Iterate through each chunk, compute the max/min of each chunk
-        if (chunks.isEmpty() || chunks.get(0).isEmpty())
+        if (sum.isEmpty())
             return null;
-        WindowChunk first = chunks.get(0);
-        long count = first.last - first.first;
-        NumberDataValue result = (NumberDataValue)first.getResult().cloneValue(false);
-        long r = result.getLong();
-        for (int i = 1; i < chunks.size(); ++i) {
-            WindowChunk chunk = chunks.get(i);
-            NumberDataValue dvd = (NumberDataValue)chunk.getResult();
-            r += dvd.getLong();
-            count += chunk.last - chunk.first;
-        }
-        result.setValue((r*1.0)/count);
-        return result;
+        NumberDataValue result = sum.getSum(resultType);
+        if (result.isNull())
+            return result;
+        return result.divide(result, new SQLLongint(sum.getNonNullCount()), result);
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        // called from the super constructor before the fields are initialized
+        if (sum != null)
+            sum.reset();
     }
 
     public WindowFunction newWindowFunction() {
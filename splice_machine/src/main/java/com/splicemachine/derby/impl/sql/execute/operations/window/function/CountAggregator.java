@@ -23,10 +23,13 @@ import com.splicemachine.db.iapi.types.DataValueDescriptor;
 import com.splicemachine.db.iapi.types.SQLLongint;
 
 /**
+ * COUNT over a sliding window frame. The number of rows in the frame is maintained as rows
+ * enter and leave it.
  *
  * Created by jyuan on 7/31/14.
  */
 public class CountAggregator extends SpliceGenericWindowFunction {
+    private long count;
 
     @Override
     public WindowFunction setup( ClassFactory cf, String aggregateName, DataTypeDescriptor returnType,
@@ -42,37 +45,29 @@ public class CountAggregator extends SpliceGenericWindowFunction {
 
     @Override
     protected void calculateOnAdd(SpliceGenericWindowFunction.WindowChunk chunk, DataValueDescriptor[] dvds) throws StandardException{
-        DataValueDescriptor result = chunk.getResult();
-        if (result == null || result.isNull()) {
-            SQLLongint r = new SQLLongint(1);
-            chunk.setResult(r);
-        } else {
-            long count = result.getLong();
-            result.setValue(count+1);
-            chunk.setResult(result);
-        }
+        count++;
     }
 
     @Override
     protected void calculateOnRemove(SpliceGenericWindowFunction.WindowChunk chunk, DataValueDescriptor[] dvds) throws StandardException {
-        DataValueDescriptor result = chunk.getResult();
-        long count = result.getLong();
-        result.setValue(count-1);
-        chunk.setResult(result);
+        // the frame state is maintained in calculateOnFrameRemove
     }
 
-    public DataValueDescriptor getResult() throws StandardException {
-        // Iterate through each chunk, compute the max/min of each chunk
-        long count = 0;
-        if (chunks.isEmpty() || chunks.get(0).isEmpty())
-            return new SQLLongint(count);
+    @Override
+    protected void calculateOnFrameRemove(DataValueDescriptor[] dvds) throws StandardException {
+        count--;
+    }
 
-        for (WindowChunk chunk : chunks) {
-            count += chunk.getResult().getLong();
-        }
+    public DataValueDescriptor getResult() throws StandardException {
         return new SQLLongint(count);
     }
 
+    @Override
+    public void reset() {
+        super.reset();
+        count = 0;
+    }
+
     public WindowFunction newWindowFunction() {
         return new CountAggregator();
     }
@@ -24,13 +24,24 @@ import com.splicemachine.db.iapi.types.DataValueDescriptor;
 import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
+import java.util.ArrayDeque;
 
 /**
+ * MAX/MIN over a sliding window frame.
+ *
+ * Rows enter and leave the frame in order, so the function keeps a monotonic queue of
+ * candidates: the values that could still become the extreme once the rows before them have
+ * left the frame. The head of the queue is the current result, each row is queued and dequeued
+ * at most once, and the result is available in constant time regardless of the frame size.
  *
  * Created by jyuan on 7/22/14.
  */
 public class MaxMinAggregator extends SpliceGenericWindowFunction {
     private boolean isMax;
+    private ArrayDeque<Candidate> candidates = new ArrayDeque<>();
+    // number of rows added to and removed from the frame since the last reset
+    private long added;
+    private long removed;
 
     @Override
     public WindowFunction setup( ClassFactory cf, String aggregateName, DataTypeDescriptor returnType,
@@ -46,68 +57,51 @@ public class MaxMinAggregator extends SpliceGenericWindowFunction {
     }
 
     @Override
-    protected void calculateOnAdd(WindowChunk chunk, DataValueDescriptor[] dvd) throws StandardException{
-        DataValueDescriptor result = chunk.getResult();
-        if (result == null || result.isNull()) {
-            chunk.setResult(dvd[0]);
-        } else if (dvd[0] == null || dvd[0].isNull()) {
+    protected void calculateOnAdd(WindowChunk chunk, DataValueDescriptor[] dvds) throws StandardException{
+        long position = added++;
+        DataValueDescriptor dvd = dvds[0];
+        if (dvd == null || dvd.isNull())
             return;
-        } else if(isMax && dvd[0].compare(result) > 0) {
-            chunk.setResult(dvd[0]);
-        }
-        else if (!isMax && dvd[0].compare(result) < 0) {
-            chunk.setResult(dvd[0]);
+        // values at the tail that are not better than the new one can never be the result again
+        while (!candidates.isEmpty() && !isBetter(candidates.peekLast().value, dvd)) {
+            candidates.pollLast();
         }
+        candidates.addLast(new Candidate(position, dvd));
     }
 
     @Override
     protected void calculateOnRemove(WindowChunk chunk, DataValueDescriptor[] dvds) throws StandardException {
-        DataValueDescriptor result = chunk.getResult();
-        if (dvds[0].compare(result) == 0) {
-            recalculate(chunk);
-        }
+        // the frame state is maintained in calculateOnFrameRemove
     }
 
-    private void recalculate(WindowChunk chunk) throws StandardException{
-        DataValueDescriptor result = chunk.get(chunk.first)[0];
-
-        for (int i = chunk.first+1; i < chunk.last; ++i) {
-            DataValueDescriptor dvd = chunk.get(i)[0];
-            if (isMax) {
-                if (dvd.compare(result) > 0) {
-                    result = dvd;
-                }
-            }
-            else {
-                if (dvd.compare(result) < 0) {
-                    result = dvd;
-                }
-            }
+    @Override
+    protected void calculateOnFrameRemove(DataValueDescriptor[] dvds) throws StandardException {
+        long position = removed++;
+        if (!candidates.isEmpty() && candidates.peekFirst().position == position) {
+            candidates.pollFirst();
         }
-        chunk.setResult(result);
+    }
+
+    private boolean isBetter(DataValueDescriptor left, DataValueDescriptor right) throws StandardException {
+        int c = left.compare(right);
+        return isMax ? c > 0 : c < 0;
     }
 
     public DataValueDescriptor getResult() throws StandardException {
-        // Iterate through each chunk, compute the max/min of each chunk
-        if (chunks.isEmpty() || chunks.get(0).isEmpty())
+        if (added == removed)
             return null;
+        if (candidates.isEmpty())
+            return resultType.getNewNull();
+        return candidates.peekFirst().value;
+    }
 
-        WindowChunk first = chunks.get(0);
-        DataValueDescriptor result = first.getResult();
-        for (int i = 1; i < chunks.size(); ++i) {
-            DataValueDescriptor dvd = chunks.get(i).getResult();
-            if (isMax) {
-                if (dvd.compare(result) > 0) {
-                    result = dvd;
-                }
-            }
-            else {
-                if (dvd.compare(result) < 0) {
-                    result = dvd;
-                }
-            }
-        }
-        return result;
+    @Override
+    public void reset() {
+        super.reset();
+        // called from the super constructor before the fields are initialized
+        if (candidates != null)
+            candidates.clear();
+        added = removed = 0;
     }
 
     @Override
@@ -126,4 +120,14 @@ public class MaxMinAggregator extends SpliceGenericWindowFunction {
     public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
         isMax = in.readBoolean();
     }
+
+    private static class Candidate {
+        final long position;
+        final DataValueDescriptor value;
+
+        Candidate(long position, DataValueDescriptor value) {
+            this.position = position;
+            this.value = value;
+        }
+    }
 }
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.impl.sql.execute.operations.window.function;
+
+import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.db.iapi.types.DataValueDescriptor;
+import com.splicemachine.db.iapi.types.NumberDataValue;
+
+/**
+ * Sum of the values in a sliding window frame, updated as rows enter and leave the frame.
+ * Null values are counted as rows of the frame but do not contribute to the sum.
+ */
+class RunningSum {
+    private NumberDataValue sum;
+    private long rowCount;
+    private long nonNullCount;
+
+    void add(DataValueDescriptor dvd, DataValueDescriptor resultType) throws StandardException {
+        rowCount++;
+        if (dvd == null || dvd.isNull())
+            return;
+        nonNullCount++;
+        if (sum == null)
+            sum = (NumberDataValue) resultType.getNewNull();
+        if (sum.isNull())
+            sum.setValue(dvd);
+        else
+            sum.plus(sum, (NumberDataValue) dvd, sum);
+    }
+
+    void remove(DataValueDescriptor dvd) throws StandardException {
+        rowCount--;
+        if (dvd == null || dvd.isNull())
+            return;
+        nonNullCount--;
+        if (nonNullCount == 0)
+            // start over from an exact zero rather than carrying rounding errors forward
+            sum.setToNull();
+        else
+            sum.minus(sum, (NumberDataValue) dvd, sum);
+    }
+
+    boolean isEmpty() {
+        return rowCount == 0;
+    }
+
+    long getNonNullCount() {
+        return nonNullCount;
+    }
+
+    /**
+     * @return a copy of the sum, which is null if there are no non-null values in the frame
+     */
+    NumberDataValue getSum(DataValueDescriptor resultType) {
+        if (sum == null)
+            return (NumberDataValue) resultType.getNewNull();
+        return (NumberDataValue) sum.cloneValue(false);
+    }
+
+    void reset() {
+        if (sum != null)
+            sum.setToNull();
+        rowCount = nonNullCount = 0;
+    }
+}
@@ -81,6 +81,7 @@ public abstract class SpliceGenericWindowFunction implements WindowFunction {
             return null;
 
         DataValueDescriptor[] dvd = first.remove();
+        calculateOnFrameRemove(dvd);
         if (first.consumed()) {
             chunks.remove(first);
             if (chunks.isEmpty()) {
@@ -99,6 +100,16 @@ public abstract class SpliceGenericWindowFunction implements WindowFunction {
 
     protected abstract void calculateOnRemove(WindowChunk chunk, DataValueDescriptor[] dvds) throws StandardException;
 
+    /**
+     * Called for every row leaving the window frame, in the order the rows were added. Unlike
+     * {@link #calculateOnRemove(WindowChunk, DataValueDescriptor[])} this is also called for the
+     * last row of a chunk, so functions that keep state for the whole frame rather than per chunk
+     * can maintain it here.
+     */
+    protected void calculateOnFrameRemove(DataValueDescriptor[] dvds) throws StandardException {
+        // override if function keeps state for the entire frame
+    }
+
     /**
      * Return the first non-zero comparison of each array item in order.<br/>
      * DVD arrays of differing size are handled like this:
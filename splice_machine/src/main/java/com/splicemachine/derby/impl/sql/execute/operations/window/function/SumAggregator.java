@@ -23,10 +23,13 @@ import com.splicemachine.db.iapi.types.DataValueDescriptor;
 import com.splicemachine.db.iapi.types.NumberDataValue;
 
 /**
+ * SUM over a sliding window frame. The sum of the values in the frame is maintained as rows
+ * enter and leave it, so the result costs the same regardless of the frame size.
  *
  * Created by jyuan on 7/31/14.
  */
 public class SumAggregator extends SpliceGenericWindowFunction {
+    private RunningSum sum = new RunningSum();
 
     @Override
     public WindowFunction setup( ClassFactory cf, String aggregateName, DataTypeDescriptor returnType,
@@ -42,47 +45,35 @@ public class SumAggregator extends SpliceGenericWindowFunction {
 
     @Override
     protected void calculateOnAdd(WindowChunk chunk, DataValueDescriptor[] dvds) throws StandardException{
-        DataValueDescriptor result = chunk.getResult();
-        if (result == null || result.isNull()) {
-            chunk.setResult(dvds[0].cloneValue(false));
-        } else {
-            NumberDataValue input = (NumberDataValue)dvds[0];
-            if (input != null && ! input.isNull()) {
-                NumberDataValue nv = (NumberDataValue) result.cloneValue(false);
-                nv.plus(input, nv, nv);
-                chunk.setResult(nv);
-            }
-        }
+        sum.add(dvds[0], resultType);
     }
 
     @Override
     protected void calculateOnRemove(WindowChunk chunk, DataValueDescriptor[] dvds) throws StandardException {
-        DataValueDescriptor result = chunk.getResult();
-        NumberDataValue input = (NumberDataValue)dvds[0];
-        if (input != null && ! input.isNull()) {
-            NumberDataValue nv = (NumberDataValue) result.cloneValue(false);
-            nv.minus(nv, input, nv);
-            chunk.setResult(nv);
-        }
+        // the frame state is maintained in calculateOnFrameRemove
+    }
+
+    @Override
+    protected void calculateOnFrameRemove(DataValueDescriptor[] dvds) throws StandardException {
+        sum.remove(dvds[0]);
     }
 
     @Override
     public DataValueDescriptor getResult() throws StandardException {
         // For window frame like ROWS BETWEEN 1 PROCEDING AND 2 PROCEDING, when we get to the first rows,
         // or for window frame like ROWS BETWEEN 1 FOLLOWING AND 2 FOLLOWING, when we get to the last rows,
-        // there are no corresponding rows before or after them,
-        // so chunks may not be populated with rows
-        if (chunks.isEmpty() || chunks.get(0).isEmpty())
+        // there are no corresponding rows before or after them, so the frame may be empty
+        if (sum.isEmpty())
             return null;
+        return sum.getSum(resultType);
+    }
 
-        WindowChunk first = chunks.get(0);
-
-        NumberDataValue result = (NumberDataValue)first.getResult().cloneValue(false);
-        for (int i = 1; i < chunks.size(); ++i) {
-            NumberDataValue dvd = (NumberDataValue)chunks.get(i).getResult();
-            result.plus(result, dvd, result);
-        }
-        return result;
+    @Override
+    public void reset() {
+        super.reset();
+        // called from the super constructor before the fields are initialized
+        if (sum != null)
+            sum.reset();
     }
 
     @Override
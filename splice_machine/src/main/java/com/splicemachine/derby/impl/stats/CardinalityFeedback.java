@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.impl.stats;
+
+import com.splicemachine.EngineDriver;
+import com.splicemachine.access.api.SConfiguration;
+import com.splicemachine.db.impl.sql.compile.ScanCardinalityEstimate;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Corrections to the number of rows base-table scans are estimated to return, learnt from the number of rows
+ * they actually returned.
+ *
+ * A correction is kept per conglomerate and predicate shape (see {@link ScanCardinalityEstimate}) as a moving
+ * average of the ratio between actual and estimated rows. The average is taken over the logarithm of the ratio,
+ * so that over and under estimates by the same factor weigh the same, and is bounded so that a single odd
+ * execution cannot make later estimates absurd.
+ *
+ * Each server keeps the corrections learnt from the statements it ran, in memory, and forgets the least
+ * recently observed ones once it holds more than {@code splice.optimizer.cardinalityFeedback.maxEntries}. The
+ * corrections of a conglomerate are also forgotten when its statistics are collected or dropped, as they
+ * corrected estimates made from the statistics replaced.
+ */
+public class CardinalityFeedback{
+    /* the weight of the latest observation in the moving average */
+    static final double WEIGHT = 0.3d;
+    static final double MAX_CORRECTION = 1000d;
+
+    private static final ConcurrentMap<Key, Entry> ENTRIES = new ConcurrentHashMap<>();
+    /* orders the observations, as several can happen within the same millisecond */
+    private static final AtomicLong OBSERVATIONS = new AtomicLong();
+
+    public static boolean isEnabled(){
+        EngineDriver driver = EngineDriver.driver();
+        return driver!=null && driver.getConfiguration().getCardinalityFeedbackEnabled();
+    }
+
+    /**
+     * @return the factor to multiply the rows estimated for scans of {@code conglomerateId} restricted by
+     * {@code predicateShape} by, 1 if nothing was observed yet
+     */
+    public static double correction(long conglomerateId,String predicateShape){
+        Entry entry = ENTRIES.get(new Key(conglomerateId,predicateShape));
+        return entry==null ? 1.0d : entry.getCorrection();
+    }
+
+    /**
+     * Records that a scan estimated by {@code estimate} actually returned {@code actualRows} rows.
+     */
+    public static void record(ScanCardinalityEstimate estimate,double actualRows){
+        SConfiguration config = EngineDriver.driver().getConfiguration();
+        record(estimate,actualRows,config.getCardinalityFeedbackMaxEntries());
+    }
+
+    static void record(ScanCardinalityEstimate estimate,double actualRows,int maxEntries){
+        Key key = new Key(estimate.getConglomerateId(),estimate.getPredicateShape());
+        ENTRIES.computeIfAbsent(key,Entry::new).observe(estimate.getEstimatedRows(),actualRows);
+        while(ENTRIES.size()>maxEntries && evictOldest()){
+            // keep evicting
+        }
+    }
+
+    public static Collection<Entry> entries(){
+        return ENTRIES.values();
+    }
+
+    /**
+     * Forgets the corrections learnt for the scans of {@code conglomerateId}.
+     */
+    public static void forget(long conglomerateId){
+        ENTRIES.keySet().removeIf(key -> key.conglomerateId==conglomerateId);
+    }
+
+    public static void clear(){
+        ENTRIES.clear();
+    }
+
+    /**
+     * What was observed of the scans of a conglomerate restricted by a predicate shape.
+     */
+    public static class Entry{
+        private final Key key;
+        private long observations;
+        private double logRatio;
+        private double lastEstimatedRows;
+        private double lastActualRows;
+        private volatile double correction = 1.0d;
+        private volatile long lastObserved;
+        private volatile long lastObservation;
+
+        Entry(Key key){
+            this.key=key;
+        }
+
+        synchronized void observe(double estimatedRows,double actualRows){
+            double ratio = Math.log((actualRows+1)/(estimatedRows+1));
+            double bound = Math.log(MAX_CORRECTION);
+            ratio = Math.max(-bound,Math.min(bound,ratio));
+            logRatio = observations==0 ? ratio : logRatio+WEIGHT*(ratio-logRatio);
+            observations++;
+            lastEstimatedRows = estimatedRows;
+            lastActualRows = actualRows;
+            correction = Math.exp(logRatio);
+            lastObserved = System.currentTimeMillis();
+            lastObservation = OBSERVATIONS.incrementAndGet();
+        }
+
+        public long getConglomerateId(){
+            return key.conglomerateId;
+        }
+
+        public String getPredicateShape(){
+            return key.predicateShape;
+        }
+
+        public synchronized long getObservations(){
+            return observations;
+        }
+
+        public synchronized double getLastEstimatedRows(){
+            return lastEstimatedRows;
+        }
+
+        public synchronized double getLastActualRows(){
+            return lastActualRows;
+        }
+
+        public double getCorrection(){
+            return correction;
+        }
+
+        public long getLastObserved(){
+            return lastObserved;
+        }
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+
+    private static boolean evictOldest(){
+        Entry oldest = null;
+        for(Entry entry:ENTRIES.values()){
+            if(oldest==null || entry.lastObservation<oldest.lastObservation)
+                oldest = entry;
+        }
+        return oldest!=null && ENTRIES.remove(oldest.key,oldest);
+    }
+
+    private static class Key{
+        private final long conglomerateId;
+        private final String predicateShape;
+
+        Key(long conglomerateId,String predicateShape){
+            this.conglomerateId=conglomerateId;
+            this.predicateShape=predicateShape;
+        }
+
+        @Override
+        public boolean equals(Object o){
+            if(this==o) return true;
+            if(!(o instanceof Key)) return false;
+            Key key = (Key)o;
+            return conglomerateId==key.conglomerateId && predicateShape.equals(key.predicateShape);
+        }
+
+        @Override
+        public int hashCode(){
+            return Objects.hash(conglomerateId,predicateShape);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.splicemachine.derby.impl.storage;
 
 import com.splicemachine.EngineDriver;
+import com.splicemachine.access.util.ByteComparisons;
 import com.splicemachine.db.catalog.types.DefaultInfoImpl;
 import com.splicemachine.db.iapi.error.StandardException;
 import com.splicemachine.db.iapi.services.io.FormatableBitSet;
@@ -32,6 +33,7 @@ import com.splicemachine.si.api.txn.TxnView;
 import com.splicemachine.si.constants.SIConstants;
 import com.splicemachine.si.impl.driver.SIDriver;
 import com.splicemachine.storage.DataScan;
+import com.splicemachine.storage.Partition;
 import com.splicemachine.utils.IntArrays;
 import com.splicemachine.utils.SpliceLogUtils;
 import org.apache.commons.lang.SerializationUtils;
@@ -73,8 +75,9 @@ public class CheckTableUtils {
         dsp.setJobGroup(jobGroup, "");
 
         int[] baseColumnMap = getBaseColumnMap(tentativeIndexList);
-        DataSet<ExecRow> tableDataSet = getTableDataSet(dsp, heapConglomId, tentativeIndexList, baseColumnMap,
-                activation, tableName, txn, td);
+        // On the region server the table is read partition by partition instead, see below
+        DataSet<ExecRow> tableDataSet = distributed ? getTableDataSet(dsp, heapConglomId, tentativeIndexList,
+                baseColumnMap, activation, tableName, txn, td, new byte[0], new byte[0]) : null;
         ExecRow key = getTableKeyExecRow(heapConglomId, activation);
         KeyHashDecoder tableKeyDecoder = getKeyDecoder(td, key, null);
         TableChecker tableChecker = dsp.getTableChecker(schemaName, tableName, tableDataSet,
@@ -96,11 +99,10 @@ public class CheckTableUtils {
                 leadingIndexColumnInfo = leadingIndexColumnInfoMap.get(conglomerate);
             }
             if (!distributed) {
-                // Create a new dataset for table if it is not checked on spark, because the dataset is essentially an
-                // iterator. Each time the table is checked, the iterator is consumed.
-                tableDataSet = getTableDataSet(dsp, heapConglomId, tentativeIndexList, baseColumnMap, activation,
-                        tableName, txn, td);
-                tableChecker.setTableDataSet(tableDataSet);
+                // Create new scans of the table if it is not checked on spark, because each dataset is essentially an
+                // iterator. Each time the table is checked, the iterators are consumed.
+                tableChecker.setTableSegments(getTableSegments(dsp, heapConglomId, tentativeIndexList, baseColumnMap,
+                        activation, tableName, txn, td));
             }
             List<String> messages = tableChecker.checkIndex(indexDataSet, indexName, leadingIndexColumnInfo,
                     index.getConglomerate(), tentativeIndex);
@@ -207,10 +209,43 @@ public class CheckTableUtils {
         return dataSet;
     }
 
+    /**
+     * Split the base table into one segment per partition, each scanned when the checker reads it
+     * @param dsp
+     * @param conglomerateId
+     * @return the segments, in key order
+     * @throws IOException
+     */
+    private static List<TableChecker.TableSegment> getTableSegments(DataSetProcessor dsp, long conglomerateId,
+                                                                    List<DDLMessage.TentativeIndex> tentativeIndexList,
+                                                                    int[] baseColumnMap,
+                                                                    Activation activation,
+                                                                    String tableName,
+                                                                    TxnView txn,
+                                                                    TableDescriptor td) throws IOException {
+        List<Partition> partitions;
+        try (Partition table = SIDriver.driver().getTableFactory().getTable(Long.toString(conglomerateId))) {
+            partitions = new ArrayList<>(table.subPartitions());
+        }
+        partitions.sort((a, b) -> ByteComparisons.comparator().compare(a.getStartKey(), b.getStartKey()));
+        if (partitions.isEmpty()) {
+            return Collections.singletonList(new PartitionSegment(new byte[0], new byte[0], dsp, conglomerateId,
+                    tentativeIndexList, baseColumnMap, activation, tableName, txn, td));
+        }
+        List<TableChecker.TableSegment> segments = new ArrayList<>(partitions.size());
+        for (Partition partition : partitions) {
+            segments.add(new PartitionSegment(partition.getStartKey(), partition.getEndKey(), dsp, conglomerateId,
+                    tentativeIndexList, baseColumnMap, activation, tableName, txn, td));
+        }
+        return segments;
+    }
+
     /**
      * Construct a DataSet for base table
      * @param dsp
      * @param conglomerateId
+     * @param startKey first row of the scan, empty for the beginning of the table
+     * @param stopKey row after the last row of the scan, empty for the end of the table
      * @return
      * @throws StandardException
      */
@@ -220,7 +255,9 @@ public class CheckTableUtils {
                                                     Activation activation,
                                                     String tableName,
                                                     TxnView txn,
-                                                    TableDescriptor td) throws StandardException {
+                                                    TableDescriptor td,
+                                                    byte[] startKey,
+                                                    byte[] stopKey) throws StandardException {
         SpliceConglomerate conglomerate = (SpliceConglomerate) ((SpliceTransactionManager) activation.getTransactionController()).findConglomerate(conglomerateId);
         LanguageConnectionContext lcc = activation.getLanguageConnectionContext();
         int[] formatIds = conglomerate.getFormat_ids();
@@ -235,7 +272,7 @@ public class CheckTableUtils {
                         .activation(activation)
                         .tableDisplayName(tableName)
                         .transaction(txn)
-                        .scan(createScan(txn))
+                        .scan(createScan(txn).startKey(startKey).stopKey(stopKey))
                         .tableVersion(td.getVersion())
                         .template(templateRow)
                         .keyColumnEncodingOrder(columnOrdering)
@@ -379,6 +416,50 @@ public class CheckTableUtils {
         return scan.startKey(new byte[0]).stopKey(new byte[0]);
     }
 
+    private static class PartitionSegment implements TableChecker.TableSegment {
+        private final byte[] startKey;
+        private final byte[] stopKey;
+        private final DataSetProcessor dsp;
+        private final long conglomerateId;
+        private final List<DDLMessage.TentativeIndex> tentativeIndexList;
+        private final int[] baseColumnMap;
+        private final Activation activation;
+        private final String tableName;
+        private final TxnView txn;
+        private final TableDescriptor td;
+
+        PartitionSegment(byte[] startKey, byte[] stopKey, DataSetProcessor dsp, long conglomerateId,
+                     List<DDLMessage.TentativeIndex> tentativeIndexList, int[] baseColumnMap, Activation activation,
+                     String tableName, TxnView txn, TableDescriptor td) {
+            this.startKey = startKey;
+            this.stopKey = stopKey;
+            this.dsp = dsp;
+            this.conglomerateId = conglomerateId;
+            this.tentativeIndexList = tentativeIndexList;
+            this.baseColumnMap = baseColumnMap;
+            this.activation = activation;
+            this.tableName = tableName;
+            this.txn = txn;
+            this.td = td;
+        }
+
+        @Override
+        public byte[] getStartKey() {
+            return startKey;
+        }
+
+        @Override
+        public byte[] getStopKey() {
+            return stopKey;
+        }
+
+        @Override
+        public DataSet<ExecRow> scan() throws StandardException {
+            return getTableDataSet(dsp, conglomerateId, tentativeIndexList, baseColumnMap, activation, tableName,
+                    txn, td, startKey, stopKey);
+        }
+    }
+
     public static class LeadingIndexColumnInfo implements Externalizable {
         private int position;
         private boolean excludeNulls;
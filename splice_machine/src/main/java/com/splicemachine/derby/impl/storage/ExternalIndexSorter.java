@@ -0,0 +1,263 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.impl.storage;
+
+import com.splicemachine.db.iapi.sql.execute.ExecRow;
+import scala.Tuple2;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Sorts the rows of an index by the base row id they point to, as produced by {@link KeyByBaseRowIdFunction},
+ * keeping at most a fixed number of rows in memory and spilling sorted runs to local temporary files beyond
+ * that.
+ *
+ * Rows are split into buckets by ranges of base row ids, normally the partitions of the base table, and each
+ * bucket is sorted and read back on its own, so that buckets can be compared against the base table
+ * concurrently. When the memory limit is reached, the largest bucket is spilled.
+ */
+public class ExternalIndexSorter implements Closeable {
+    private static final Comparator<Tuple2<String, Tuple2<byte[], ExecRow>>> BY_ROW_ID =
+            (a, b) -> a._1().compareTo(b._1());
+    /* object streams remember every object written or read until they are reset */
+    private static final int RESET_INTERVAL = 1024;
+
+    private final String[] bucketStarts;
+    private final int maxBufferedRows;
+    private final File directory;
+    private final List<List<Tuple2<String, Tuple2<byte[], ExecRow>>>> buffers;
+    private final List<List<File>> runs;
+    private final List<Closeable> readers = Collections.synchronizedList(new ArrayList<>());
+    private int bufferedRows;
+    private long rows;
+    private int spills;
+
+    /**
+     * @param bucketStarts the smallest base row id of each bucket, in increasing order. Row ids smaller than the
+     *                     first start fall into the first bucket.
+     * @param maxBufferedRows the number of rows kept in memory, across all buckets
+     * @param directory where runs are spilled, or null for the default temporary directory
+     */
+    public ExternalIndexSorter(List<String> bucketStarts, int maxBufferedRows, File directory) {
+        this.bucketStarts = bucketStarts.toArray(new String[0]);
+        this.maxBufferedRows = Math.max(1, maxBufferedRows);
+        this.directory = directory;
+        this.buffers = new ArrayList<>(bucketStarts.size());
+        this.runs = new ArrayList<>(bucketStarts.size());
+        for (int i = 0; i < bucketStarts.size(); i++) {
+            buffers.add(new ArrayList<>());
+            runs.add(new ArrayList<>());
+        }
+    }
+
+    public void add(Tuple2<String, Tuple2<byte[], ExecRow>> row) throws IOException {
+        buffers.get(bucket(row._1())).add(row);
+        rows++;
+        if (++bufferedRows > maxBufferedRows) {
+            int largest = 0;
+            for (int i = 1; i < buffers.size(); i++) {
+                if (buffers.get(i).size() > buffers.get(largest).size())
+                    largest = i;
+            }
+            spill(largest);
+        }
+    }
+
+    public int getBuckets() {
+        return buffers.size();
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public int getSpills() {
+        return spills;
+    }
+
+    /**
+     * Reads back the rows of a bucket, in base row id order. Each bucket can be read once, and different buckets
+     * concurrently, once every row has been added.
+     */
+    public Iterator<Tuple2<String, Tuple2<byte[], ExecRow>>> sorted(int bucket) throws IOException {
+        List<Tuple2<String, Tuple2<byte[], ExecRow>>> buffer = buffers.set(bucket, Collections.emptyList());
+        buffer.sort(BY_ROW_ID);
+        List<Iterator<Tuple2<String, Tuple2<byte[], ExecRow>>>> sources = new ArrayList<>();
+        sources.add(buffer.iterator());
+        for (File run : runs.get(bucket)) {
+            RunReader reader = new RunReader(run);
+            readers.add(reader);
+            sources.add(reader);
+        }
+        return sources.size() == 1 ? sources.get(0) : new MergingIterator(sources);
+    }
+
+    /**
+     * Closes the runs being read and deletes every spilled run.
+     */
+    @Override
+    public void close() throws IOException {
+        IOException error = null;
+        synchronized (readers) {
+            for (Closeable reader : readers) {
+                try {
+                    reader.close();
+                } catch (IOException e) {
+                    if (error == null)
+                        error = e;
+                }
+            }
+            readers.clear();
+        }
+        for (List<File> bucketRuns : runs) {
+            for (File run : bucketRuns) {
+                if (run.exists() && !run.delete() && error == null)
+                    error = new IOException("Unable to delete " + run);
+            }
+        }
+        if (error != null)
+            throw error;
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+
+    private int bucket(String rowId) {
+        int pos = Arrays.binarySearch(bucketStarts, rowId);
+        if (pos >= 0)
+            return pos;
+        return Math.max(0, -pos - 2);
+    }
+
+    private void spill(int bucket) throws IOException {
+        List<Tuple2<String, Tuple2<byte[], ExecRow>>> buffer = buffers.get(bucket);
+        buffer.sort(BY_ROW_ID);
+        File run = File.createTempFile("checktable", ".run", directory);
+        runs.get(bucket).add(run);
+        try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(run)))) {
+            int written = 0;
+            for (Tuple2<String, Tuple2<byte[], ExecRow>> row : buffer) {
+                out.writeBoolean(true);
+                out.writeObject(row._1());
+                byte[] key = row._2()._1();
+                out.writeInt(key == null ? -1 : key.length);
+                if (key != null)
+                    out.write(key);
+                out.writeObject(row._2()._2());
+                if (++written % RESET_INTERVAL == 0)
+                    out.reset();
+            }
+            out.writeBoolean(false);
+        }
+        bufferedRows -= buffer.size();
+        buffer.clear();
+        spills++;
+    }
+
+    private static class RunReader implements Iterator<Tuple2<String, Tuple2<byte[], ExecRow>>>, Closeable {
+        private final ObjectInputStream in;
+        private Tuple2<String, Tuple2<byte[], ExecRow>> next;
+        private boolean closed;
+
+        RunReader(File run) throws IOException {
+            this.in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(run)));
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next != null)
+                return true;
+            if (closed)
+                return false;
+            try {
+                if (!in.readBoolean()) {
+                    close();
+                    return false;
+                }
+                String rowId = (String) in.readObject();
+                int length = in.readInt();
+                byte[] key = null;
+                if (length >= 0) {
+                    key = new byte[length];
+                    in.readFully(key);
+                }
+                ExecRow row = (ExecRow) in.readObject();
+                row.setKey(key);
+                next = new Tuple2<>(rowId, new Tuple2<>(key, row));
+                return true;
+            } catch (IOException | ClassNotFoundException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        @Override
+        public Tuple2<String, Tuple2<byte[], ExecRow>> next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            Tuple2<String, Tuple2<byte[], ExecRow>> row = next;
+            next = null;
+            return row;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!closed) {
+                closed = true;
+                in.close();
+            }
+        }
+    }
+
+    private static class MergingIterator implements Iterator<Tuple2<String, Tuple2<byte[], ExecRow>>> {
+        private final PriorityQueue<Head> heads;
+
+        MergingIterator(List<Iterator<Tuple2<String, Tuple2<byte[], ExecRow>>>> sources) {
+            this.heads = new PriorityQueue<>(sources.size(), (a, b) -> BY_ROW_ID.compare(a.row, b.row));
+            for (Iterator<Tuple2<String, Tuple2<byte[], ExecRow>>> source : sources) {
+                if (source.hasNext())
+                    heads.add(new Head(source));
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !heads.isEmpty();
+        }
+
+        @Override
+        public Tuple2<String, Tuple2<byte[], ExecRow>> next() {
+            Head head = heads.poll();
+            if (head == null)
+                throw new NoSuchElementException();
+            Tuple2<String, Tuple2<byte[], ExecRow>> row = head.row;
+            if (head.source.hasNext()) {
+                head.row = head.source.next();
+                heads.add(head);
+            }
+            return row;
+        }
+    }
+
+    private static class Head {
+        private final Iterator<Tuple2<String, Tuple2<byte[], ExecRow>>> source;
+        private Tuple2<String, Tuple2<byte[], ExecRow>> row;
+
+        Head(Iterator<Tuple2<String, Tuple2<byte[], ExecRow>>> source) {
+            this.source = source;
+            this.row = source.next();
+        }
+    }
+}
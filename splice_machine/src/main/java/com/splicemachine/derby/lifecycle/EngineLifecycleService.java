@@ -41,6 +41,7 @@ import com.splicemachine.pipeline.PipelineDriver;
 import com.splicemachine.pipeline.contextfactory.ContextFactoryDriver;
 import com.splicemachine.pipeline.contextfactory.ContextFactoryLoader;
 import com.splicemachine.pipeline.contextfactory.ReferenceCountingFactoryDriver;
+import com.splicemachine.si.api.readresolve.ReadResolverManagement;
 import com.splicemachine.si.impl.driver.SIDriver;
 import com.splicemachine.tools.EmbedConnectionMaker;
 import com.splicemachine.tools.version.ManifestReader;
@@ -71,6 +72,7 @@ public class EngineLifecycleService implements DatabaseLifecycleService{
     private Logging logging;
     private SpliceDatabase db;
     private boolean isRegionServer;
+    private StatementCacheWarmer statementCacheWarmer;
 
     public EngineLifecycleService(DistributedDerbyStartup startup,SConfiguration configuration,boolean isMaster, boolean isRegionServer){
         this.startup=startup;
@@ -130,6 +132,13 @@ public class EngineLifecycleService implements DatabaseLifecycleService{
         db.registerDDL();
 
         logging = new LogManager();
+
+        if(configuration.getStatementCacheSnapshotPath()!=null && (isRegionServer || !isMaster)){
+            String dictionaryVersion = spliceVersion.getRelease()+" "+spliceVersion.getImplementationVersion();
+            statementCacheWarmer = new StatementCacheWarmer(configuration,
+                    db.getDataDictionary().getDataDictionaryCache(),dictionaryVersion,dbProperties);
+            statementCacheWarmer.start();
+        }
     }
 
     @Override
@@ -143,6 +152,11 @@ public class EngineLifecycleService implements DatabaseLifecycleService{
 
             ObjectName rollforward = new ObjectName("com.splicemachine.si.api.rollforward:type=RollForward");
             mbs.registerMBean(SIDriver.driver().getRollForward(),rollforward);
+            ReadResolverManagement readResolver = SIDriver.driver().getReadResolverManagement();
+            if(readResolver!=null){
+                ObjectName readResolverName = new ObjectName("com.splicemachine.si.api.readresolve:type=ReadResolver");
+                mbs.registerMBean(readResolver,readResolverName);
+            }
             db.getDataDictionary().getDataDictionaryCache().registerJMX(mbs);
 
 
@@ -158,7 +172,9 @@ public class EngineLifecycleService implements DatabaseLifecycleService{
 
     @Override
     public void shutdown() throws Exception{
-        
+        if(statementCacheWarmer!=null)
+            statementCacheWarmer.shutdown();
+
         EngineDriver.shutdownDriver();
 
         try{
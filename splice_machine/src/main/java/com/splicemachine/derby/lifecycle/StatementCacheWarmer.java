@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.lifecycle;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.log4j.Logger;
+import splice.com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import com.splicemachine.access.api.SConfiguration;
+import com.splicemachine.db.impl.sql.catalog.DataDictionaryCache;
+import com.splicemachine.db.impl.sql.catalog.StatementCacheSnapshot;
+import com.splicemachine.tools.EmbedConnectionMaker;
+
+/**
+ * Saves the statement cache to local disk, periodically and on shutdown, and compiles the saved
+ * statements again on startup so that the first queries after a restart find them in the cache.
+ *
+ * Startup waits for the saved statements to be compiled for at most the configured warm-up
+ * timeout, after which they are compiled in the background while the server takes traffic.
+ */
+public class StatementCacheWarmer{
+    private static final Logger LOG=Logger.getLogger(StatementCacheWarmer.class);
+
+    private final File snapshotFile;
+    private final long snapshotInterval;
+    private final int maxStatements;
+    private final long warmupTimeout;
+    private final String dictionaryVersion;
+    private final DataDictionaryCache cache;
+    private final Properties dbProperties;
+    private ScheduledExecutorService executor;
+
+    public StatementCacheWarmer(SConfiguration configuration,
+                                DataDictionaryCache cache,
+                                String dictionaryVersion,
+                                Properties dbProperties){
+        this.snapshotFile=new File(configuration.getStatementCacheSnapshotPath());
+        this.snapshotInterval=configuration.getStatementCacheSnapshotInterval();
+        this.maxStatements=configuration.getStatementCacheSnapshotMaxStatements();
+        this.warmupTimeout=configuration.getStatementCacheWarmupTimeout();
+        this.dictionaryVersion=dictionaryVersion;
+        this.cache=cache;
+        this.dbProperties=dbProperties;
+    }
+
+    public void start(){
+        executor=Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("StatementCacheWarmer").setDaemon(true).build());
+        Future<?> warmup=executor.submit(this::warmUp);
+        // the snapshots are taken on the same thread, so never before the warm-up is over
+        if(snapshotInterval>0)
+            executor.scheduleWithFixedDelay(this::saveQuietly,snapshotInterval,snapshotInterval,TimeUnit.MILLISECONDS);
+
+        try{
+            warmup.get(warmupTimeout,TimeUnit.MILLISECONDS);
+        }catch(TimeoutException e){
+            LOG.info("Statement cache warm-up did not finish in "+warmupTimeout+" ms, continuing in the background");
+        }catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+        }catch(ExecutionException e){
+            LOG.warn("Statement cache warm-up failed",e.getCause());
+        }
+    }
+
+    public void shutdown(){
+        if(executor!=null){
+            executor.shutdownNow();
+            try{
+                executor.awaitTermination(10,TimeUnit.SECONDS);
+            }catch(InterruptedException e){
+                Thread.currentThread().interrupt();
+            }
+        }
+        saveQuietly();
+    }
+
+    private void saveQuietly(){
+        try{
+            StatementCacheSnapshot snapshot=cache.statementCacheSnapshot(dictionaryVersion,maxStatements);
+            snapshot.write(snapshotFile);
+            if(LOG.isDebugEnabled())
+                LOG.debug("Saved "+snapshot.getEntries().size()+" statements to "+snapshotFile);
+        }catch(Exception e){
+            LOG.warn("Unable to save the statement cache snapshot to "+snapshotFile,e);
+        }
+    }
+
+    private void warmUp(){
+        StatementCacheSnapshot snapshot;
+        try{
+            snapshot=StatementCacheSnapshot.read(snapshotFile,dictionaryVersion);
+        }catch(IOException e){
+            LOG.warn("Unable to read the statement cache snapshot from "+snapshotFile,e);
+            return;
+        }
+        if(snapshot==null){
+            LOG.info("No statement cache snapshot for dictionary version "+dictionaryVersion+" in "+snapshotFile);
+            return;
+        }
+
+        long start=System.currentTimeMillis();
+        int compiled=0;
+        int failed=0;
+        try(Connection connection=new EmbedConnectionMaker().createNew(dbProperties);
+            PreparedStatement setSchema=connection.prepareStatement("SET SCHEMA ?")){
+            for(StatementCacheSnapshot.Entry entry:snapshot.getEntries()){
+                if(Thread.currentThread().isInterrupted())
+                    break;
+                try{
+                    setSchema.setString(1,entry.getCompilationSchema());
+                    setSchema.execute();
+                    int concurrency=entry.isForReadOnly()?ResultSet.CONCUR_READ_ONLY:ResultSet.CONCUR_UPDATABLE;
+                    connection.prepareStatement(entry.getStatementText(),ResultSet.TYPE_FORWARD_ONLY,concurrency).close();
+                    compiled++;
+                }catch(SQLException e){
+                    // the statement no longer compiles, e.g. because a table it uses was dropped
+                    failed++;
+                    if(LOG.isDebugEnabled())
+                        LOG.debug("Unable to compile "+entry.getStatementText(),e);
+                }
+            }
+        }catch(SQLException e){
+            LOG.warn("Unable to open a connection to warm up the statement cache",e);
+        }
+        LOG.info("Statement cache warm-up compiled "+compiled+" statements ("+failed+" failed) in "
+                +(System.currentTimeMillis()-start)+" ms");
+    }
+}
@@ -18,6 +18,8 @@ import com.splicemachine.db.impl.sql.catalog.Procedure;
 import splice.com.google.common.collect.Lists;
 import com.splicemachine.hbase.jmx.JMXUtils;
 import com.splicemachine.pipeline.PipelineDriver;
+import com.splicemachine.pipeline.SplitAdvisorManagement;
+import com.splicemachine.pipeline.SplitDecision;
 import com.splicemachine.db.iapi.error.PublicAPI;
 import com.splicemachine.db.iapi.error.StandardException;
 import com.splicemachine.db.iapi.sql.Activation;
@@ -36,6 +38,7 @@ import javax.management.remote.JMXConnector;
 import java.io.IOException;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.sql.Types;
 import java.util.List;
 
@@ -51,6 +54,11 @@ public class PipelineAdmin extends BaseAdminProcedures {
                 .numResultSets(1)
                 .ownerClass(PipelineAdmin.class.getCanonicalName())
                 .build().debugCheck() );
+        procedures.add( Procedure.newBuilder().name("SYSCS_GET_SPLIT_ADVICE")
+                .numOutputParams(0)
+                .numResultSets(1)
+                .ownerClass(PipelineAdmin.class.getCanonicalName())
+                .build().debugCheck() );
     }
 
     private static final ResultColumnDescriptor[] WRITE_INTAKE_COLUMNS = {
@@ -100,4 +108,59 @@ public class PipelineAdmin extends BaseAdminProcedures {
         });
     }
 
+    private static final ResultColumnDescriptor[] SPLIT_ADVICE_COLUMNS = {
+            new GenericColumnDescriptor("host",DataTypeDescriptor.getBuiltInDataTypeDescriptor(Types.VARCHAR)),
+            new GenericColumnDescriptor("time",DataTypeDescriptor.getBuiltInDataTypeDescriptor(Types.TIMESTAMP)),
+            new GenericColumnDescriptor("tableName",DataTypeDescriptor.getBuiltInDataTypeDescriptor(Types.VARCHAR)),
+            new GenericColumnDescriptor("regionName",DataTypeDescriptor.getBuiltInDataTypeDescriptor(Types.VARCHAR)),
+            new GenericColumnDescriptor("action",DataTypeDescriptor.getBuiltInDataTypeDescriptor(Types.VARCHAR)),
+            new GenericColumnDescriptor("writesPerSecond",DataTypeDescriptor.getBuiltInDataTypeDescriptor(Types.DOUBLE)),
+            new GenericColumnDescriptor("readsPerSecond",DataTypeDescriptor.getBuiltInDataTypeDescriptor(Types.DOUBLE)),
+            new GenericColumnDescriptor("splitKey",DataTypeDescriptor.getBuiltInDataTypeDescriptor(Types.VARCHAR)),
+            new GenericColumnDescriptor("reason",DataTypeDescriptor.getBuiltInDataTypeDescriptor(Types.VARCHAR)),
+    };
+    public static void SYSCS_GET_SPLIT_ADVICE(final ResultSet[] resultSet) throws SQLException {
+        operate(new BaseAdminProcedures.JMXServerOperation() {
+            @Override
+            public void operate(List<Pair<String, JMXConnector>> connections) throws MalformedObjectNameException, IOException, SQLException {
+                List<SplitAdvisorManagement> splitAdvisors = JMXUtils.getSplitAdvisors(connections);
+                ExecRow template = buildExecRow(SPLIT_ADVICE_COLUMNS);
+                List<ExecRow> rows = Lists.newArrayList();
+                int i=0;
+                for (SplitAdvisorManagement splitAdvisor : splitAdvisors) {
+                    for (SplitDecision decision : splitAdvisor.getRecentDecisions()) {
+                        template.resetRowArray();
+                        DataValueDescriptor[] dvds = template.getRowArray();
+                        try{
+                            dvds[0].setValue(connections.get(i).getFirst());
+                            dvds[1].setValue(new Timestamp(decision.getTimestamp()));
+                            dvds[2].setValue(decision.getTableName());
+                            dvds[3].setValue(decision.getRegionName());
+                            dvds[4].setValue(decision.getAction());
+                            dvds[5].setValue(decision.getWritesPerSecond());
+                            dvds[6].setValue(decision.getReadsPerSecond());
+                            dvds[7].setValue(decision.getSplitKey());
+                            dvds[8].setValue(decision.getReason());
+                        }catch(StandardException se){
+                            throw PublicAPI.wrapStandardException(se);
+                        }
+                        rows.add(template.getClone());
+                    }
+                    i++;
+                }
+
+                EmbedConnection defaultConn = (EmbedConnection) getDefaultConn();
+                Activation lastActivation = defaultConn.getLanguageConnection().getLastActivation();
+                IteratorNoPutResultSet resultsToWrap = new IteratorNoPutResultSet(rows, SPLIT_ADVICE_COLUMNS,lastActivation);
+                try {
+                    resultsToWrap.openCore();
+                } catch (StandardException e) {
+                    throw PublicAPI.wrapStandardException(e);
+                }
+                EmbedResultSet ers = new EmbedResultSet40(defaultConn, resultsToWrap,false,null,true);
+                resultSet[0] = ers;
+            }
+        });
+    }
+
 }
@@ -15,7 +15,9 @@
 package com.splicemachine.derby.stream.control;
 
 import com.splicemachine.EngineDriver;
+import com.splicemachine.access.api.SConfiguration;
 import com.splicemachine.access.api.DistributedFileSystem;
+import com.splicemachine.access.util.ByteComparisons;
 import com.splicemachine.db.iapi.error.StandardException;
 import com.splicemachine.db.iapi.sql.Activation;
 import com.splicemachine.db.iapi.sql.execute.ExecRow;
@@ -26,12 +28,17 @@ import com.splicemachine.db.shared.common.reference.MessageId;
 import com.splicemachine.derby.iapi.sql.execute.SpliceOperation;
 import com.splicemachine.derby.iapi.sql.olap.OlapStatus;
 import com.splicemachine.derby.impl.sql.execute.operations.ScanOperation;
+import com.splicemachine.derby.impl.sql.execute.operations.scanner.SITableScanner;
+import com.splicemachine.derby.impl.sql.execute.operations.scanner.ScanAggregation;
 import com.splicemachine.derby.impl.sql.execute.operations.scanner.TableScannerBuilder;
 import com.splicemachine.derby.stream.function.Partitioner;
 import com.splicemachine.derby.stream.iapi.*;
+import com.splicemachine.derby.stream.iterator.ScanAggregationIterator;
 import com.splicemachine.derby.stream.iterator.TableScannerIterator;
 import com.splicemachine.derby.utils.marshall.KeyHashDecoder;
+import com.splicemachine.metrics.MetricFactory;
 import com.splicemachine.pipeline.Exceptions;
+import com.splicemachine.primitives.Bytes;
 import com.splicemachine.procedures.external.GetSchemaExternalResult;
 import com.splicemachine.si.api.data.TxnOperationFactory;
 import com.splicemachine.si.api.server.Transactor;
@@ -41,6 +48,8 @@ import com.splicemachine.si.impl.TxnRegion;
 import com.splicemachine.si.impl.driver.SIDriver;
 import com.splicemachine.si.impl.readresolve.NoOpReadResolver;
 import com.splicemachine.si.impl.rollforward.NoopRollForward;
+import com.splicemachine.storage.DataScan;
+import com.splicemachine.storage.DataScanner;
 import com.splicemachine.storage.Partition;
 import com.splicemachine.system.CsvOptions;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
@@ -50,6 +59,7 @@ import org.apache.log4j.Logger;
 import org.apache.spark.sql.types.StructField;
 import org.apache.spark.sql.types.StructType;
 import splice.com.google.common.base.Charsets;
+import splice.com.google.common.util.concurrent.ThreadFactoryBuilder;
 import scala.Tuple2;
 
 import javax.annotation.Nonnull;
@@ -59,10 +69,17 @@ import java.io.SequenceInputStream;
 import java.net.URISyntaxException;
 import java.nio.file.OpenOption;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Scanner;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.zip.GZIPInputStream;
 
 import static com.splicemachine.db.impl.sql.compile.ExplainNode.SparkExplainKind.NONE;
@@ -128,13 +145,34 @@ public class ControlDataSetProcessor implements DataSetProcessor{
                     TxnRegion localRegion=new TxnRegion(p,NoopRollForward.INSTANCE,NoOpReadResolver.INSTANCE,
                             txnSupplier,transactory,txnOperationFactory);
 
-                    this.region(localRegion).scanner(p.openScanner(getScan(),metricFactory)); //set the scanner
+                    this.region(localRegion);
                     SpliceOperation scanOperation = (spliceOperation instanceof ScanOperation) ? spliceOperation : null;
+                    ScanAggregation aggregation = scanOperation==null ? null : ((ScanOperation)scanOperation).getAggregation();
+                    if(aggregation!=null)
+                        getScan().addAttribute(ScanAggregation.SCAN_ATTRIBUTE,aggregation.toScanAttribute(this));
+                    List<Partition> partitions = parallelScanPartitions(p,getScan(),scanOperation);
+                    if(partitions!=null){
+                        ((ScanOperation)scanOperation).scanStarted(partitions.size());
+                        ParallelScanIterator<ExecRow> parallelIterator = parallelScan(this,tableName,partitions,scanOperation,metricFactory);
+                        if(spliceOperation!=null){
+                            spliceOperation.registerCloseable(parallelIterator);
+                            spliceOperation.registerCloseable(p);
+                        }
+                        return new ControlDataSet(parallelIterator);
+                    }
+
+                    DataScanner dataScanner = p.openScanner(getScan(),metricFactory);
+                    ScanAggregation.Accumulator accumulator = aggregation==null ? null : aggregation.newAccumulator();
+                    this.scanner(accumulator==null ? dataScanner : ScanAggregation.mergingPartialRows(dataScanner,accumulator)); //set the scanner
                     TableScannerIterator tableScannerIterator=new TableScannerIterator(this, scanOperation);
+                    if(scanOperation!=null)
+                        ((ScanOperation)scanOperation).scanStarted(1);
                     if(spliceOperation!=null){
                         spliceOperation.registerCloseable(tableScannerIterator);
                         spliceOperation.registerCloseable(p);
                     }
+                    if(accumulator!=null)
+                        return new ControlDataSet(new ScanAggregationIterator(tableScannerIterator,accumulator));
                     return new ControlDataSet(tableScannerIterator);
                 }catch(IOException e){
                     throw Exceptions.parseException(e);
@@ -143,6 +181,117 @@ public class ControlDataSetProcessor implements DataSetProcessor{
         };
     }
 
+    /**
+     * @return the partitions to scan concurrently, in key order, or null if the scan should be read serially
+     */
+    private static List<Partition> parallelScanPartitions(Partition table,DataScan scan,SpliceOperation scanOperation){
+        SConfiguration config = SIDriver.driver().getConfiguration();
+        if(config.getControlParallelScanMaxThreads()<=0 || config.getControlParallelScanMaxConcurrency()<=1)
+            return null;
+        if(!(scanOperation instanceof ScanOperation) || scan.isDescendingScan())
+            return null;
+        if(((ScanOperation)scanOperation).isForUpdate())
+            return null;
+        byte[] startKey = scan.getStartKey()==null ? Bytes.EMPTY_BYTE_ARRAY : scan.getStartKey();
+        byte[] stopKey = scan.getStopKey()==null ? Bytes.EMPTY_BYTE_ARRAY : scan.getStopKey();
+        List<Partition> partitions = new ArrayList<>(table.subPartitions(startKey,stopKey));
+        if(partitions.size()<2)
+            return null;
+        partitions.sort((a,b) -> ByteComparisons.comparator().compare(a.getStartKey(),b.getStartKey()));
+        return partitions;
+    }
+
+    /**
+     * Splits the scan of {@code builder} at the boundaries of {@code partitions}, and reads the pieces
+     * concurrently, each through its own handle on the table. Each piece of an aggregated scan is aggregated
+     * on its own.
+     */
+    private static ParallelScanIterator<ExecRow> parallelScan(TableScannerBuilder<?> builder,
+                                                            String tableName,
+                                                            List<Partition> partitions,
+                                                            SpliceOperation scanOperation,
+                                                            MetricFactory metricFactory) throws IOException{
+        SConfiguration config = SIDriver.driver().getConfiguration();
+        DataScan scan = builder.getScan();
+        ScanAggregation aggregation = ((ScanOperation)scanOperation).getAggregation();
+        List<Callable<Iterator<ExecRow>>> segments = new ArrayList<>(partitions.size());
+        for(Partition partition : partitions){
+            DataScan segmentScan = scan.copy()
+                    .startKey(max(scan.getStartKey(),partition.getStartKey()))
+                    .stopKey(min(scan.getStopKey(),partition.getEndKey()));
+            segments.add(() -> {
+                Partition table = SIDriver.driver().getTableFactory().getTable(tableName);
+                DataScanner scanner;
+                try{
+                    scanner = table.openScanner(segmentScan,metricFactory);
+                }catch(IOException | RuntimeException e){
+                    table.close();
+                    throw e;
+                }
+                ExecRow template = builder.getTemplate().getClone();
+                ScanAggregation.Accumulator accumulator = aggregation==null ? null : aggregation.newAccumulator();
+                DataScanner rowScanner = accumulator==null ? scanner : ScanAggregation.mergingPartialRows(scanner,accumulator);
+                TableScannerIterator rows = new TableScannerIterator(builder,scanOperation){
+                    @Override
+                    protected SITableScanner newTableScanner(){
+                        return siTableBuilder.build(rowScanner,template);
+                    }
+
+                    @Override
+                    public void close() throws IOException{
+                        try(Partition t = table; DataScanner s = scanner){
+                            super.close();
+                        }
+                    }
+                };
+                return accumulator==null ? rows : new ScanAggregationIterator(rows,accumulator);
+            });
+        }
+        return new ParallelScanIterator<>(segments,
+                ExecRow::getClone,
+                ((ScanOperation)scanOperation).isKeyOrderRequired(),
+                config.getControlParallelScanMaxConcurrency(),
+                config.getControlParallelScanBufferSize(),
+                ParallelScans.EXECUTOR,
+                ParallelScans.THREADS);
+    }
+
+    /* the larger of two start keys, where an empty key is the start of the table */
+    private static byte[] max(byte[] startKey,byte[] partitionStart){
+        if(startKey==null || startKey.length==0)
+            return partitionStart;
+        return ByteComparisons.comparator().compare(startKey,partitionStart)>=0 ? startKey : partitionStart;
+    }
+
+    /* the smaller of two stop keys, where an empty key is the end of the table */
+    private static byte[] min(byte[] stopKey,byte[] partitionEnd){
+        if(stopKey==null || stopKey.length==0)
+            return partitionEnd;
+        if(partitionEnd.length==0)
+            return stopKey;
+        return ByteComparisons.comparator().compare(stopKey,partitionEnd)<=0 ? stopKey : partitionEnd;
+    }
+
+    /*
+     * The threads reading the partitions of parallel control scans, shared by all the queries of this server.
+     * The pool never rejects work; it is bounded by the permits, which producers take before being submitted.
+     */
+    private static class ParallelScans{
+        private static final Semaphore THREADS;
+        private static final ExecutorService EXECUTOR;
+
+        static{
+            int maxThreads = Math.max(1,SIDriver.driver().getConfiguration().getControlParallelScanMaxThreads());
+            THREADS = new Semaphore(maxThreads);
+            ThreadPoolExecutor tpe = new ThreadPoolExecutor(maxThreads,maxThreads,
+                    60L,TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(),
+                    new ThreadFactoryBuilder().setNameFormat("ControlParallelScan-%d").setDaemon(true).build());
+            tpe.allowCoreThreadTimeOut(true);
+            EXECUTOR = tpe;
+        }
+    }
+
     @Override
     public <V> DataSet<V> getEmpty(){
         return new ControlDataSet<>(Collections.<V>emptyList().iterator());
@@ -436,6 +585,9 @@ public class ControlDataSetProcessor implements DataSetProcessor{
     @Override
     public boolean isSparkDB2CompatibilityMode() { return false; }
 
+    @Override
+    public boolean supportsScanAggregation() { return true; }
+
     @Override
     public void setTempTriggerConglomerate(long conglomID) {
         this.conglomID = conglomID;
@@ -14,10 +14,13 @@
 
 package com.splicemachine.derby.stream.control;
 
+import splice.com.google.common.collect.Iterators;
 import splice.com.google.common.collect.Lists;
+import splice.com.google.common.collect.PeekingIterator;
+import splice.com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.splicemachine.db.iapi.types.DataValueDescriptor;
-import com.splicemachine.db.impl.sql.execute.ValueRow;
 import com.splicemachine.ddl.DDLMessage;
+import com.splicemachine.derby.impl.storage.ExternalIndexSorter;
 import com.splicemachine.derby.stream.function.IndexTransformFunction;
 import com.splicemachine.derby.stream.function.KVPairFunction;
 import com.splicemachine.derby.stream.output.DataSetWriter;
@@ -29,9 +32,8 @@ import com.splicemachine.pipeline.config.WriteConfiguration;
 import com.splicemachine.primitives.Bytes;
 import com.splicemachine.si.api.txn.TxnView;
 import com.splicemachine.storage.Partition;
+import com.splicemachine.utils.SpliceLogUtils;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
-import splice.com.google.common.collect.ArrayListMultimap;
-import splice.com.google.common.collect.ListMultimap;
 import com.splicemachine.db.iapi.error.StandardException;
 import com.splicemachine.db.iapi.sql.execute.ExecRow;
 import com.splicemachine.derby.impl.storage.CheckTableUtils.IndexFilter;
@@ -42,33 +44,44 @@ import com.splicemachine.derby.stream.iapi.PairDataSet;
 import com.splicemachine.derby.stream.iapi.TableChecker;
 import com.splicemachine.derby.utils.marshall.KeyHashDecoder;
 import com.splicemachine.si.impl.driver.SIDriver;
+import org.apache.log4j.Logger;
 import scala.Tuple2;
 
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 
 /**
  * Created by jyuan on 2/12/18.
+ *
+ * Compares an index to its base table with bounded memory: the index is sorted by base row id, spilling to
+ * local disk if it is large, and merged with the base table, which is scanned in row id order. The index is
+ * sorted in one bucket per partition of the base table, and partitions are compared to their bucket
+ * concurrently.
  */
 public class ControlTableChecker implements TableChecker {
+    private static final Logger LOG = Logger.getLogger(ControlTableChecker.class);
+    private static final long PROGRESS_INTERVAL = TimeUnit.SECONDS.toMillis(30);
+    /* base rows missing from the index are indexed in batches of this size when fixing */
+    private static final int FIX_BATCH_SIZE = 1024;
 
     private String schemaName;
     private String tableName;
     private String indexName;
-    private long tableCount = 0;
-    private long indexCount = 0;
-    private long invalidIndexCount = 0;
-    private long missingIndexCount = 0;
     private DataSet<ExecRow> baseTable;
-    private PairDataSet<String, ExecRow> filteredTable;
+    private List<TableSegment> tableSegments;
     private KeyHashDecoder tableKeyDecoder;
     private ExecRow tableKeyTemplate;
     private long maxCheckTableErrors;
-    private ListMultimap<String, Tuple2<byte[], ExecRow>> indexData;
-    private Map<String, ExecRow> tableData;
+    private int sortBufferRows;
+    private int parallelism;
     private boolean fix;
     private TxnView txn;
     private long conglomerate;
     private DDLMessage.TentativeIndex tentativeIndex;
+    private LeadingIndexColumnInfo leadingIndexColumnInfo;
     private int[] baseColumnMap;
     private boolean isSystemTable;
 
@@ -88,13 +101,14 @@ public class ControlTableChecker implements TableChecker {
         this.tableKeyDecoder = tableKeyDecoder;
         this.tableKeyTemplate = tableKey;
         this.maxCheckTableErrors = SIDriver.driver().getConfiguration().getMaxCheckTableErrors();
+        this.sortBufferRows = SIDriver.driver().getConfiguration().getCheckTableSortBufferRows();
+        this.parallelism = SIDriver.driver().getConfiguration().getCheckTableParallelism();
         this.txn = txn;
         this.fix = fix;
         this.baseColumnMap = baseColumnMap;
         this.isSystemTable = isSystemTable;
     }
 
-    @SuppressFBWarnings(value = "URF_UNREAD_FIELD",justification = "Intentional")
     @Override
     public List<String> checkIndex(PairDataSet index,
                                    String indexName,
@@ -105,237 +119,178 @@ public class ControlTableChecker implements TableChecker {
         this.indexName = indexName;
         this.conglomerate = conglomerate;
         this.tentativeIndex = tentativeIndex;
+        this.leadingIndexColumnInfo = leadingIndexColumnInfo;
 
-        filteredTable = baseTable.filter(new IndexFilter<>(leadingIndexColumnInfo))
-                .index(new KeyByRowIdFunction());
-        // Pull data into memory
-        populateData(filteredTable, index);
-
-        List<String> messages = new LinkedList<>();
-        messages.addAll(checkMissingIndexes());
-        messages.addAll(checkInvalidIndexes());
-        if (indexCount - invalidIndexCount > tableCount - missingIndexCount) {
-            messages.addAll(checkDuplicateIndexes());
+        List<TableSegment> segments = tableSegments;
+        if (segments == null) {
+            segments = Collections.singletonList(new WholeTable(baseTable));
+        }
+        List<String> bucketStarts = new ArrayList<>(segments.size());
+        for (TableSegment segment : segments) {
+            bucketStarts.add(Bytes.toHex(segment.getStartKey()));
+        }
+        Progress progress = new Progress(segments.size());
+        try (ExternalIndexSorter sorter = new ExternalIndexSorter(bucketStarts, sortBufferRows, null)) {
+            Iterator<Tuple2<String, Tuple2<byte[], ExecRow>>> indexSource = ((ControlPairDataSet) index).source;
+            while (indexSource.hasNext()) {
+                sorter.add(indexSource.next());
+                progress.sorted(sorter);
+            }
+            List<SegmentCheck> checks = compare(segments, sorter, progress);
+            SpliceLogUtils.info(LOG, "Checked index %s of %s.%s: %d table rows and %d index rows in %d partitions, " +
+                    "%d runs spilled", indexName, schemaName, tableName, progress.tableRows.get(),
+                    progress.indexRows.get(), segments.size(), sorter.getSpills());
+            return report(checks);
         }
-        return messages;
     }
 
-
     @Override
     public void setTableDataSet(DataSet tableDataSet) {
         this.baseTable = tableDataSet;
+        this.tableSegments = null;
     }
 
-    private void populateData(PairDataSet table, PairDataSet index) {
-
-        tableData = new HashMap<>();
-        tableCount=0;
-        Iterator<Tuple2<String, ExecRow>> tableSource = ((ControlPairDataSet) table).source;
-        while (tableSource.hasNext()) {
-            tableCount++;
-            Tuple2<String, ExecRow> t = tableSource.next();
-            String rowId = t._1;
-            ExecRow row = t._2;
-            tableData.put(rowId, row);
-        }
-
-        indexData = ArrayListMultimap.create();
-        indexCount = 0;
-        Iterator<Tuple2<String, Tuple2<byte[], ExecRow>>> indexSource = ((ControlPairDataSet)index).source;
-        while(indexSource.hasNext()) {
-            indexCount++;
-            Tuple2<String, Tuple2<byte[], ExecRow>> t = indexSource.next();
-            String baseRowId = t._1;
-            Tuple2<byte[], ExecRow> row = t._2;
-            indexData.put(baseRowId, row);
-        }
+    @Override
+    public void setTableSegments(List<TableSegment> segments) {
+        this.tableSegments = segments;
     }
 
-    private List<String> checkDuplicateIndexes() throws StandardException {
-        ArrayListMultimap<String, Tuple2<byte[], ExecRow>> result = ArrayListMultimap.create();
-        long duplicateIndexCount = 0;
-        for (String baseRowId : indexData.keySet()) {
-            List<Tuple2<byte[], ExecRow>> rows = indexData.get(baseRowId);
-            if (rows.size() > 1) {
-                duplicateIndexCount += rows.size()-1;
-                result.putAll(baseRowId, rows);
-            }
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+
+    private List<SegmentCheck> compare(List<TableSegment> segments,
+                                       ExternalIndexSorter sorter,
+                                       Progress progress) throws Exception {
+        List<SegmentCheck> checks = new ArrayList<>(segments.size());
+        for (int i = 0; i < segments.size(); i++) {
+            checks.add(new SegmentCheck(segments.get(i), sorter, i, progress));
         }
-        if (duplicateIndexCount > 0) {
-            if (fix) {
-                fixDuplicateIndexes(result);
+        int threads = Math.min(parallelism, checks.size());
+        if (threads <= 1) {
+            for (SegmentCheck check : checks) {
+                check.call();
             }
-            return reportDuplicateIndexes(result, duplicateIndexCount);
+            return checks;
         }
-        return new LinkedList<>();
-    }
-
-    private void fixDuplicateIndexes(ArrayListMultimap<String, Tuple2<byte[], ExecRow>> result) throws StandardException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads,
+                new ThreadFactoryBuilder().setNameFormat("CheckTable-%d").setDaemon(true).build());
         try {
-            WriteCoordinator writeCoordinator = PipelineDriver.driver().writeCoordinator();
-            WriteConfiguration writeConfiguration = writeCoordinator.newDefaultWriteConfiguration();
-            Partition indexPartition = SIDriver.driver().getTableFactory().getTable(Long.toString(conglomerate));
-            RecordingCallBuffer<KVPair> writeBuffer = writeCoordinator.writeBuffer(indexPartition, txn, null, writeConfiguration);
-
-            List<Integer> indexToMain = tentativeIndex.getIndex().getIndexColsToMainColMapList();
-            for (String baseRowId : result.keySet()) {
-                ExecRow baseRow = tableData.get(baseRowId);
-                List<Tuple2<byte[], ExecRow>> indexRows = result.get(baseRowId);
-                for (Tuple2<byte[], ExecRow> indexRow : indexRows) {
-                    boolean duplicate = false;
-                    DataValueDescriptor[] dvds = indexRow._2.getRowArray();
-                    for (int i = 0; i < dvds.length - 1; ++i) {
-                        int col = baseColumnMap[indexToMain.get(i) - 1];
-                        if (!dvds[i].equals(baseRow.getColumn(col + 1))) {
-                            duplicate = true;
-                            break;
-                        }
-                    }
-                    if (duplicate) {
-                        writeBuffer.add(new KVPair(indexRow._2.getKey(), new byte[0], KVPair.Type.DELETE));
-                    }
+            List<Future<Void>> futures = new ArrayList<>(checks.size());
+            for (SegmentCheck check : checks) {
+                futures.add(executor.submit(check));
+            }
+            for (Future<Void> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof Exception)
+                        throw (Exception) e.getCause();
+                    throw e;
                 }
             }
-            writeBuffer.flushBuffer();
-        }
-        catch (Exception e) {
-            throw StandardException.plainWrapException(e);
+        } finally {
+            executor.shutdownNow();
         }
+        return checks;
     }
 
-    private List<String> reportDuplicateIndexes(ArrayListMultimap<String, Tuple2<byte[], ExecRow>> result,
-                                                long duplicateIndexCount) throws StandardException {
-        List<String> messages = new LinkedList<>();
-        if (fix) {
-            messages.add(String.format("Removed the following %d indexes:", duplicateIndexCount));
-        }
-        else {
-            messages.add(String.format("The following %d indexes are duplicates:", duplicateIndexCount));
+    private List<String> report(List<SegmentCheck> checks) {
+        long missingIndexCount = 0;
+        long invalidIndexCount = 0;
+        long duplicateIndexCount = 0;
+        long mismatchedIndexCount = 0;
+        for (SegmentCheck check : checks) {
+            missingIndexCount += check.missingCount;
+            invalidIndexCount += check.invalidCount;
+            duplicateIndexCount += check.duplicateCount;
+            mismatchedIndexCount += check.mismatchedCount;
         }
 
-        int num = 0;
-        List<Integer> indexToMain = tentativeIndex.getIndex().getIndexColsToMainColMapList();
-        for (String baseRowId : result.keySet()) {
-            ExecRow baseRow = tableData.get(baseRowId);
-            List<Tuple2<byte[], ExecRow>> indexRows = result.get(baseRowId);
-            for (Tuple2<byte[], ExecRow> indexRow : indexRows) {
-                boolean duplicate = false;
-                DataValueDescriptor[] dvds = indexRow._2.getRowArray();
-                for (int i = 0; i < dvds.length - 1; ++i) {
-                    int col = baseColumnMap[indexToMain.get(i)-1];
-                    if (!dvds[i].equals(baseRow.getColumn(col+1))){
-                        duplicate = true;
-                        break;
-                    }
-                }
-                if (duplicate) {
-                    if (num >= maxCheckTableErrors) {
-                        messages.add("...");
-                        return messages;
-                    }
-                    messages.add(indexRow._2 + "@" + Bytes.toHex(indexRow._1) + "=>" + baseRowId);
-                    num++;
-                }
+        List<String> messages = new LinkedList<>();
+        if (missingIndexCount > 0) {
+            if (fix) {
+                messages.add(String.format("Created indexes for the following %d rows from base table %s.%s:",
+                        missingIndexCount, schemaName, tableName));
             }
-        }
-
-        return messages;
-    }
-
-    private List<String> checkInvalidIndexes() throws StandardException {
-        invalidIndexCount = 0;
-
-        ArrayListMultimap<String, Tuple2<byte[], ExecRow>> result = ArrayListMultimap.create();
-        for (String baseRowId : indexData.keySet()) {
-            if (!tableData.containsKey(baseRowId)) {
-                List<Tuple2<byte[], ExecRow>> rows = indexData.get(baseRowId);
-                result.putAll(baseRowId, rows);
-                invalidIndexCount += rows.size();
+            else {
+                messages.add(String.format("The following %d rows from base table %s.%s are not indexed:",
+                        missingIndexCount, schemaName, tableName));
             }
+            addMessages(messages, checks, c -> c.missingMessages, missingIndexCount);
         }
-
         if (invalidIndexCount > 0) {
             if (fix) {
-                fixInvalidIndexes(result);
+                messages.add(String.format("The following %d indexes are deleted:", invalidIndexCount));
             }
-            return reportInvalidIndexes(result);
-        }
-        return new LinkedList<>();
-    }
-
-    private List<String> reportInvalidIndexes(ArrayListMultimap<String, Tuple2<byte[], ExecRow>> result) throws StandardException {
-        List<String> messages = new LinkedList<>();
-        int i = 0;
-        if (fix) {
-            messages.add(String.format("The following %d indexes are deleted:", invalidIndexCount));
-        }
-        else {
-            messages.add(String.format("The following %d indexes are invalid:", invalidIndexCount));
+            else {
+                messages.add(String.format("The following %d indexes are invalid:", invalidIndexCount));
+            }
+            addMessages(messages, checks, c -> c.invalidMessages, invalidIndexCount);
         }
-
-        for (String baseRowId : result.keySet()) {
-            List<Tuple2<byte[], ExecRow>> indexRows = result.get(baseRowId);
-            for (Tuple2<byte[], ExecRow> indexRow : indexRows) {
-                if (i >= maxCheckTableErrors) {
-                    messages.add("...");
-                    return messages;
-                }
-                messages.add(indexRow._2 + "@" + Bytes.toHex(indexRow._1) + "=>" + baseRowId);
-                i++;
+        if (duplicateIndexCount > 0) {
+            if (fix) {
+                messages.add(String.format("Removed the following %d indexes:", duplicateIndexCount));
+            }
+            else {
+                messages.add(String.format("The following %d indexes are duplicates:", duplicateIndexCount));
             }
+            addMessages(messages, checks, c -> c.duplicateMessages, mismatchedIndexCount);
         }
-        return  messages;
+        return messages;
     }
 
-
-    private void fixInvalidIndexes(ArrayListMultimap<String, Tuple2<byte[], ExecRow>> result) throws StandardException {
-        try {
-            WriteCoordinator writeCoordinator = PipelineDriver.driver().writeCoordinator();
-            WriteConfiguration writeConfiguration = writeCoordinator.newDefaultWriteConfiguration();
-            Partition indexPartition = SIDriver.driver().getTableFactory().getTable(Long.toString(conglomerate));
-            RecordingCallBuffer<KVPair> writeBuffer = writeCoordinator.writeBuffer(indexPartition, txn, null, writeConfiguration);
-
-            for (String baseRowId : result.keySet()) {
-                List<Tuple2<byte[], ExecRow>> indexRows = result.get(baseRowId);
-                for (Tuple2<byte[], ExecRow> indexRow : indexRows) {
-                    writeBuffer.add(new KVPair(indexRow._2.getKey(), new byte[0], KVPair.Type.DELETE));
+    /* each segment keeps at most maxCheckTableErrors messages of each kind, this keeps the first of them all */
+    private void addMessages(List<String> messages,
+                             List<SegmentCheck> checks,
+                             Function<SegmentCheck, List<String>> messagesOf,
+                             long count) {
+        long added = 0;
+        for (SegmentCheck check : checks) {
+            for (String message : messagesOf.apply(check)) {
+                if (added >= maxCheckTableErrors) {
+                    messages.add("...");
+                    return;
                 }
+                messages.add(message);
+                added++;
             }
-            writeBuffer.flushBuffer();
         }
-        catch (Exception e) {
-            throw StandardException.plainWrapException(e);
+        if (added < count) {
+            messages.add("...");
         }
     }
 
-    private List<String> checkMissingIndexes() throws StandardException {
-        missingIndexCount = 0;
-        Map<String, ExecRow> result = new HashMap<>();
-        for (Map.Entry<String, ExecRow>  entry : tableData.entrySet()) {
-            String rowId = entry.getKey();
-            ExecRow row = entry.getValue();
-            if (!indexData.containsKey(rowId)) {
-                missingIndexCount++;
-                result.put(rowId, row);
-            }
+    /* the key decoder and its template are shared by all the segments */
+    private synchronized String describe(String rowId, ExecRow row) throws StandardException {
+        if (tableKeyTemplate.nColumns() > 0) {
+            byte[] key = row.getKey();
+            tableKeyDecoder.set(key, 0, key.length);
+            tableKeyDecoder.decode(tableKeyTemplate);
+            return tableKeyTemplate.getClone().toString();
         }
-        if (missingIndexCount > 0) {
-            if (fix) {
-                fixMissingIndexes(result);
+        return rowId;
+    }
+
+    private boolean matches(ExecRow indexRow, ExecRow baseRow) throws StandardException {
+        List<Integer> indexToMain = tentativeIndex.getIndex().getIndexColsToMainColMapList();
+        DataValueDescriptor[] dvds = indexRow.getRowArray();
+        for (int i = 0; i < dvds.length - 1; ++i) {
+            int col = baseColumnMap[indexToMain.get(i) - 1];
+            if (!dvds[i].equals(baseRow.getColumn(col + 1))) {
+                return false;
             }
-            return reportMissingIndexes(result);
         }
-        return new LinkedList<>();
+        return true;
     }
 
-    private void fixMissingIndexes(Map<String, ExecRow> result) throws StandardException {
+    private void fixMissingIndexes(List<ExecRow> rows) throws StandardException {
         List<Integer> baseColumnMapList = Lists.newArrayList();
         for (int i = 0; i < baseColumnMap.length; ++i) {
             if (baseColumnMap[i] >= 0) {
                 baseColumnMapList.add(i+1);
             }
         }
-        DataSet<ExecRow> dataSet = new ControlDataSet<>(result.values().iterator());
+        DataSet<ExecRow> dataSet = new ControlDataSet<>(rows.iterator());
         PairDataSet dsToWrite = dataSet
                 .map(new IndexTransformFunction(tentativeIndex, baseColumnMapList, isSystemTable), null, false, true, "Prepare Index")
                 .index(new KVPairFunction(), false, true, "Add missing indexes");
@@ -346,36 +301,225 @@ public class ControlTableChecker implements TableChecker {
         writer.write();
     }
 
+    /**
+     * Compares one partition of the base table to the index rows pointing into it.
+     */
+    private class SegmentCheck implements Callable<Void> {
+        private final TableSegment segment;
+        private final ExternalIndexSorter sorter;
+        private final int bucket;
+        private final Progress progress;
+        private final List<String> missingMessages = new ArrayList<>();
+        private final List<String> invalidMessages = new ArrayList<>();
+        private final List<String> duplicateMessages = new ArrayList<>();
+        private final List<ExecRow> missingRows = new ArrayList<>();
+        private long missingCount;
+        private long invalidCount;
+        private long duplicateCount;
+        private long mismatchedCount;
+        private RecordingCallBuffer<KVPair> deletes;
+        private String lastRowId;
+
+        SegmentCheck(TableSegment segment, ExternalIndexSorter sorter, int bucket, Progress progress) {
+            this.segment = segment;
+            this.sorter = sorter;
+            this.bucket = bucket;
+            this.progress = progress;
+        }
 
-    private List<String> reportMissingIndexes(Map<String, ExecRow> result) throws StandardException {
-        List<String> messages = new LinkedList<>();
+        @Override
+        @SuppressWarnings("unchecked")
+        public Void call() throws Exception {
+            PairDataSet table = segment.scan()
+                    .filter(new IndexFilter<>(leadingIndexColumnInfo))
+                    .index(new KeyByRowIdFunction());
+            PeekingIterator<Tuple2<String, ExecRow>> baseRows =
+                    Iterators.peekingIterator(((ControlPairDataSet<String, ExecRow>) table).source);
+            PeekingIterator<Tuple2<String, Tuple2<byte[], ExecRow>>> indexRows =
+                    Iterators.peekingIterator(sorter.sorted(bucket));
+
+            Tuple2<String, ExecRow> baseRow = nextBaseRow(baseRows);
+            while (baseRow != null || indexRows.hasNext()) {
+                int c = baseRow == null ? 1 : !indexRows.hasNext() ? -1 : baseRow._1.compareTo(indexRows.peek()._1);
+                if (c < 0) {
+                    missing(baseRow);
+                    baseRow = nextBaseRow(baseRows);
+                    continue;
+                }
+                String rowId = indexRows.peek()._1;
+                List<Tuple2<byte[], ExecRow>> group = new ArrayList<>(1);
+                while (indexRows.hasNext() && indexRows.peek()._1.equals(rowId)) {
+                    group.add(indexRows.next()._2);
+                }
+                progress.compared(0, group.size());
+                if (c > 0) {
+                    invalid(rowId, group);
+                } else {
+                    if (group.size() > 1) {
+                        duplicates(rowId, baseRow._2, group);
+                    }
+                    baseRow = nextBaseRow(baseRows);
+                }
+            }
+            flush();
+            progress.segmentChecked();
+            return null;
+        }
 
-        int i = 0;
-        if (fix) {
-            messages.add(String.format("Created indexes for the following %d rows from base table %s.%s:", result.size(),
-                    schemaName, tableName));
+        private Tuple2<String, ExecRow> nextBaseRow(PeekingIterator<Tuple2<String, ExecRow>> baseRows) {
+            if (!baseRows.hasNext())
+                return null;
+            Tuple2<String, ExecRow> row = baseRows.next();
+            while (baseRows.hasNext() && baseRows.peek()._1.equals(row._1)) {
+                row = baseRows.next();
+            }
+            if (lastRowId != null && row._1.compareTo(lastRowId) < 0) {
+                throw new IllegalStateException(String.format("Rows of %s.%s are not read in key order: %s after %s",
+                        schemaName, tableName, row._1, lastRowId));
+            }
+            lastRowId = row._1;
+            progress.compared(1, 0);
+            return row;
         }
-        else {
-            messages.add(String.format("The following %d rows from base table %s.%s are not indexed:", result.size(),
-                    schemaName, tableName));
+
+        private void missing(Tuple2<String, ExecRow> baseRow) throws StandardException {
+            missingCount++;
+            if (missingMessages.size() < maxCheckTableErrors) {
+                missingMessages.add(describe(baseRow._1, baseRow._2));
+            }
+            if (fix) {
+                missingRows.add(baseRow._2);
+                if (missingRows.size() >= FIX_BATCH_SIZE) {
+                    fixMissingIndexes(missingRows);
+                    missingRows.clear();
+                }
+            }
         }
-        for (Map.Entry<String, ExecRow> entry : result.entrySet()) {
-            if (i >= maxCheckTableErrors) {
-                messages.add("...");
-                break;
+
+        private void invalid(String baseRowId, List<Tuple2<byte[], ExecRow>> indexRows) throws StandardException {
+            for (Tuple2<byte[], ExecRow> indexRow : indexRows) {
+                invalidCount++;
+                if (invalidMessages.size() < maxCheckTableErrors) {
+                    invalidMessages.add(indexRow._2 + "@" + Bytes.toHex(indexRow._1) + "=>" + baseRowId);
+                }
+                if (fix) {
+                    delete(indexRow._2);
+                }
             }
-            byte[] key = entry.getValue().getKey();
-            if (tableKeyTemplate.nColumns() > 0) {
-                tableKeyDecoder.set(key, 0, key.length);
-                tableKeyDecoder.decode(tableKeyTemplate);
-                ValueRow r = (ValueRow) tableKeyTemplate.getClone();
-                messages.add(r.toString());
+        }
+
+        private void duplicates(String baseRowId, ExecRow baseRow,
+                                List<Tuple2<byte[], ExecRow>> indexRows) throws StandardException {
+            duplicateCount += indexRows.size() - 1;
+            for (Tuple2<byte[], ExecRow> indexRow : indexRows) {
+                if (!matches(indexRow._2, baseRow)) {
+                    mismatchedCount++;
+                    if (duplicateMessages.size() < maxCheckTableErrors) {
+                        duplicateMessages.add(indexRow._2 + "@" + Bytes.toHex(indexRow._1) + "=>" + baseRowId);
+                    }
+                    if (fix) {
+                        delete(indexRow._2);
+                    }
+                }
             }
-            else {
-                messages.add(entry.getKey());
+        }
+
+        private void delete(ExecRow indexRow) throws StandardException {
+            try {
+                if (deletes == null) {
+                    WriteCoordinator writeCoordinator = PipelineDriver.driver().writeCoordinator();
+                    WriteConfiguration writeConfiguration = writeCoordinator.newDefaultWriteConfiguration();
+                    Partition indexPartition = SIDriver.driver().getTableFactory().getTable(Long.toString(conglomerate));
+                    deletes = writeCoordinator.writeBuffer(indexPartition, txn, null, writeConfiguration);
+                }
+                deletes.add(new KVPair(indexRow.getKey(), new byte[0], KVPair.Type.DELETE));
+            }
+            catch (Exception e) {
+                throw StandardException.plainWrapException(e);
+            }
+        }
+
+        private void flush() throws StandardException {
+            if (!missingRows.isEmpty()) {
+                fixMissingIndexes(missingRows);
+                missingRows.clear();
+            }
+            if (deletes != null) {
+                try {
+                    deletes.flushBuffer();
+                }
+                catch (Exception e) {
+                    throw StandardException.plainWrapException(e);
+                }
             }
-            i++;
         }
-        return  messages;
+    }
+
+    /**
+     * The base table as a single segment, when it was given as a data set.
+     */
+    private static class WholeTable implements TableSegment {
+        private final DataSet<ExecRow> table;
+
+        WholeTable(DataSet<ExecRow> table) {
+            this.table = table;
+        }
+
+        @Override
+        public byte[] getStartKey() {
+            return new byte[0];
+        }
+
+        @Override
+        public byte[] getStopKey() {
+            return new byte[0];
+        }
+
+        @Override
+        public DataSet<ExecRow> scan() {
+            return table;
+        }
+    }
+
+    /**
+     * Logs how far the check has gone every {@link #PROGRESS_INTERVAL} milliseconds.
+     */
+    private class Progress {
+        private final int segments;
+        private final AtomicLong tableRows = new AtomicLong();
+        private final AtomicLong indexRows = new AtomicLong();
+        private final AtomicInteger segmentsChecked = new AtomicInteger();
+        private final AtomicLong lastReport = new AtomicLong(System.currentTimeMillis());
+
+        Progress(int segments) {
+            this.segments = segments;
+        }
+
+        void sorted(ExternalIndexSorter sorter) {
+            if (due()) {
+                SpliceLogUtils.info(LOG, "Checking index %s of %s.%s: %d index rows sorted, %d runs spilled",
+                        indexName, schemaName, tableName, sorter.getRows(), sorter.getSpills());
+            }
+        }
+
+        void compared(long table, long index) {
+            tableRows.addAndGet(table);
+            indexRows.addAndGet(index);
+            if (due()) {
+                SpliceLogUtils.info(LOG, "Checking index %s of %s.%s: %d of %d partitions checked, %d table rows " +
+                        "and %d index rows compared", indexName, schemaName, tableName, segmentsChecked.get(),
+                        segments, tableRows.get(), indexRows.get());
+            }
+        }
+
+        void segmentChecked() {
+            segmentsChecked.incrementAndGet();
+        }
+
+        private boolean due() {
+            long last = lastReport.get();
+            long now = System.currentTimeMillis();
+            return now - last >= PROGRESS_INTERVAL && lastReport.compareAndSet(last, now);
+        }
     }
 }
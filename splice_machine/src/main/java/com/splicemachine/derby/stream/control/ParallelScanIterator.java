@@ -0,0 +1,268 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.stream.control;
+
+import org.apache.log4j.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Iterator over several segments of a scan (typically one per partition), which reads the segments concurrently.
+ *
+ * Each segment is read by a producer on {@code executor} into a bounded buffer of {@code bufferSize} rows,
+ * and at most {@code maxConcurrency} segments of the scan are read at once. When order is preserved, rows
+ * are returned segment by segment in the order the segments were given, each segment being buffered
+ * separately; as the segments of a scan cover disjoint, ordered key ranges, this returns rows in the same key
+ * order as a serial scan. Otherwise, rows are returned in whatever order the producers read them.
+ *
+ * A producer only runs while it holds a permit of {@code threads}, which is shared by all the scans of
+ * the server. When no permit is available, the next segment is read on the thread consuming this iterator,
+ * as a serial scan would, so that a busy server degrades to serial scans rather than queuing behind
+ * (possibly idle) scans holding all the threads.
+ *
+ * Rows are handed over from the producers through {@code copier}, so that sources reusing the same row
+ * object can be read concurrently.
+ */
+public class ParallelScanIterator<T> implements Iterator<T>, Closeable {
+    private static final Logger LOG = Logger.getLogger(ParallelScanIterator.class);
+    private static final Object END = new Object();
+    private static final long OFFER_WAIT_MILLIS = 100L;
+
+    private final List<Callable<Iterator<T>>> segments;
+    private final Function<T, T> copier;
+    private final boolean preserveOrder;
+    private final int maxConcurrency;
+    private final int bufferSize;
+    private final ExecutorService executor;
+    private final Semaphore threads;
+
+    private final BlockingQueue<Object>[] buffers; // the buffer of each segment read by a producer, by segment
+    private final BlockingQueue<Object> sharedBuffer; // the buffer of all producers, when order is not preserved
+
+    private int started;  // segments read by a producer or on this thread so far
+    private int finished; // segments consumed so far
+    private int running;  // segments read by a producer and not consumed yet
+    private Iterator<T> local; // the segment read on this thread, if any
+    private T next;
+    private boolean slotted;
+    private volatile boolean closed;
+
+    @SuppressWarnings("unchecked")
+    public ParallelScanIterator(List<Callable<Iterator<T>>> segments,
+                                Function<T, T> copier,
+                                boolean preserveOrder,
+                                int maxConcurrency,
+                                int bufferSize,
+                                ExecutorService executor,
+                                Semaphore threads) {
+        assert maxConcurrency > 0 && bufferSize > 0 : "Concurrency and buffer size must be positive";
+        this.segments = segments;
+        this.copier = copier;
+        this.preserveOrder = preserveOrder;
+        this.maxConcurrency = maxConcurrency;
+        this.bufferSize = bufferSize;
+        this.executor = executor;
+        this.threads = threads;
+        this.buffers = preserveOrder ? new BlockingQueue[segments.size()] : null;
+        this.sharedBuffer = preserveOrder ? null : new ArrayBlockingQueue<>(bufferSize);
+    }
+
+    @Override
+    public boolean hasNext() {
+        try {
+            while (!slotted) {
+                if (finished == segments.size())
+                    return false;
+                startProducers();
+                if (local != null) {
+                    if (local.hasNext()) {
+                        next = local.next();
+                        slotted = true;
+                    } else {
+                        closeQuietly(local);
+                        local = null;
+                        finished++;
+                    }
+                } else if (preserveOrder && buffers[finished] != null) {
+                    if (accept(take(buffers[finished]))) {
+                        buffers[finished] = null;
+                        running--;
+                        finished++;
+                    }
+                } else if (!preserveOrder && running > 0) {
+                    if (accept(take(sharedBuffer))) {
+                        running--;
+                        finished++;
+                    }
+                } else {
+                    // no thread is free to read the next segment, so read it here
+                    local = segments.get(started++).call();
+                }
+            }
+            return true;
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext())
+            throw new NoSuchElementException();
+        slotted = false;
+        T n = next;
+        next = null;
+        return n;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed)
+            return;
+        closed = true; // producers stop at their next row, and close their own scans
+        if (local != null) {
+            closeQuietly(local);
+            local = null;
+        }
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+
+    private void startProducers() {
+        while (!closed && started < segments.size() && started - finished < maxConcurrency && threads.tryAcquire()) {
+            int segment = started;
+            BlockingQueue<Object> buffer = preserveOrder ? new ArrayBlockingQueue<>(bufferSize) : sharedBuffer;
+            try {
+                executor.execute(new Producer(segments.get(segment), buffer));
+            } catch (RejectedExecutionException ree) {
+                threads.release();
+                return;
+            }
+            if (preserveOrder)
+                buffers[segment] = buffer;
+            started++;
+            running++;
+        }
+    }
+
+    /**
+     * @return true if {@code item} marks the end of a segment, false if it is the next row
+     */
+    @SuppressWarnings("unchecked")
+    private boolean accept(Object item) {
+        if (item == END)
+            return true;
+        if (item instanceof Failure) {
+            Throwable cause = ((Failure) item).cause;
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            throw new RuntimeException(cause);
+        }
+        next = (T) item;
+        slotted = true;
+        return false;
+    }
+
+    private static Object take(BlockingQueue<Object> buffer) {
+        try {
+            return buffer.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void closeQuietly(Iterator<?> source) {
+        if (source instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) source).close();
+            } catch (Exception e) {
+                LOG.warn("Unable to close scan segment", e);
+            }
+        }
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper classes*/
+
+    private static class Failure {
+        private final Throwable cause;
+
+        Failure(Throwable cause) {
+            this.cause = cause;
+        }
+    }
+
+    private class Producer implements Runnable {
+        private final Callable<Iterator<T>> segment;
+        private final BlockingQueue<Object> buffer;
+
+        Producer(Callable<Iterator<T>> segment, BlockingQueue<Object> buffer) {
+            this.segment = segment;
+            this.buffer = buffer;
+        }
+
+        @Override
+        public void run() {
+            Iterator<T> source = null;
+            try {
+                if (closed)
+                    return;
+                source = segment.call();
+                while (!closed && source.hasNext()) {
+                    put(copier.apply(source.next()));
+                }
+                closeQuietly(source); // before the consumer learns the segment is done, and starts another
+                source = null;
+                put(END);
+            } catch (Throwable t) {
+                if (!closed)
+                    put(new Failure(t));
+            } finally {
+                closeQuietly(source);
+                threads.release();
+            }
+        }
+
+        private void put(Object item) {
+            boolean interrupted = false;
+            while (!closed) {
+                try {
+                    if (buffer.offer(item, OFFER_WAIT_MILLIS, TimeUnit.MILLISECONDS))
+                        break;
+                } catch (InterruptedException e) {
+                    interrupted = true; // the consumer is waiting for this item, so hand it over regardless
+                }
+            }
+            if (interrupted)
+                Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -14,7 +14,9 @@
 
 package com.splicemachine.derby.stream.control.output;
 
+import com.splicemachine.EngineDriver;
 import com.splicemachine.access.api.DistributedFileSystem;
+import com.splicemachine.access.api.SConfiguration;
 import com.splicemachine.db.iapi.error.StandardException;
 import com.splicemachine.db.iapi.sql.execute.ExecRow;
 import com.splicemachine.db.iapi.types.SQLLongint;
@@ -29,15 +31,12 @@ import com.splicemachine.derby.stream.output.DataSetWriter;
 import com.splicemachine.derby.stream.output.ExportDataSetWriterBuilder;
 import com.splicemachine.si.api.txn.TxnView;
 import com.splicemachine.si.impl.driver.SIDriver;
+import com.splicemachine.utils.SpliceLogUtils;
 import org.apache.commons.collections.iterators.SingletonIterator;
-import org.apache.hadoop.conf.Configuration;
-import org.apache.hadoop.io.compress.CompressionCodec;
-import org.apache.hadoop.io.compress.CompressionCodecFactory;
 import org.apache.log4j.Logger;
 import java.io.OutputStream;
 import java.nio.file.StandardOpenOption;
 import java.util.Iterator;
-import java.util.zip.GZIPOutputStream;
 import com.splicemachine.derby.impl.sql.execute.operations.export.ExportFile.COMPRESSION;
 /**
  * @author Scott Fines
@@ -60,44 +59,42 @@ public class ControlExportDataSetWriter<V> implements DataSetWriter{
 
     @Override
     public DataSet<ExecRow> write() throws StandardException{
-        Integer count;
-        String extension = ".csv";
+        long count;
         long start = System.currentTimeMillis();
         SpliceOperation operation=exportFunction.getOperation();
         COMPRESSION compressionAlgorithm = null;
-        CompressionCodec codec = null;
+        boolean splittable = false;
         if(operation instanceof ExportOperation){
             ExportOperation op=(ExportOperation)exportFunction.getOperation();
             compressionAlgorithm=op.getExportParams().getCompression();
-            if(compressionAlgorithm == COMPRESSION.BZ2){
-                extension+=".bz2";
-            }
-            else if (compressionAlgorithm == COMPRESSION.GZ) {
-                extension+=".gz";
-            }
+            // encodings with a byte order mark cannot be written in independent chunks
+            splittable = !"UTF-16".equalsIgnoreCase(op.getExportParams().getCharacterEncoding());
         }
+        String extension = ".csv" + ExportFile.getFileExtension(compressionAlgorithm);
+        SConfiguration config = EngineDriver.driver().getConfiguration();
+        int parallelism = config.getExportControlParallelism();
+        long targetFileSize = config.getExportTargetFileSize();
         try{
             final DistributedFileSystem dfs=SIDriver.driver().getSIEnvironment().fileSystem(path);
             dfs.createDirectory(path,false);
-            // The 'part-r-00000' naming convention is what spark uses so we are consistent on control side
-            try(OutputStream fileOut =dfs.newOutputStream(path /*directory*/,"part-r-00000"+extension/*file*/,StandardOpenOption.CREATE)){
-                OutputStream toWrite=fileOut;
-                if(compressionAlgorithm == COMPRESSION.BZ2){
-                    Configuration conf = new Configuration();
-                    CompressionCodecFactory factory = new CompressionCodecFactory(conf);
-                    codec = factory.getCodecByClassName("org.apache.hadoop.io.compress.BZip2Codec");
-                    toWrite=codec.createOutputStream(fileOut);;
-                }
-                else if (compressionAlgorithm == COMPRESSION.GZ){
-                    toWrite=new GZIPOutputStream(fileOut);
+            if (splittable && (parallelism > 1 || targetFileSize > 0)) {
+                ParallelExportWriter<V> writer = new ParallelExportWriter<>(dfs, path, extension, compressionAlgorithm,
+                        exportFunction, parallelism, targetFileSize);
+                count = writer.write(dataSet.toLocalIterator());
+            } else {
+                // The 'part-r-00000' naming convention is what spark uses so we are consistent on control side
+                try (OutputStream fileOut = dfs.newOutputStream(path /*directory*/, "part-r-00000" + extension/*file*/, StandardOpenOption.CREATE)) {
+                    OutputStream toWrite = ExportFile.compressedOutputStream(fileOut, compressionAlgorithm);
+                    count = exportFunction.call(toWrite, dataSet.toLocalIterator());
                 }
-                count=exportFunction.call(toWrite,dataSet.toLocalIterator());
             }
             dfs.touchFile(path, ExportFile.SUCCESS_FILE);
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
         long end = System.currentTimeMillis();
+        if (LOG.isDebugEnabled())
+            SpliceLogUtils.debug(LOG, "exported %d rows to %s in %d ms", count, path, end - start);
 
         ValueRow valueRow = new ValueRow(2);
         valueRow.setColumn(1,new SQLLongint(count));
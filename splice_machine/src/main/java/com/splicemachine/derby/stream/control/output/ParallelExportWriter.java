@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.stream.control.output;
+
+import com.splicemachine.access.api.DistributedFileSystem;
+import com.splicemachine.db.iapi.sql.execute.ExecRow;
+import com.splicemachine.derby.iapi.sql.execute.SpliceOperation;
+import com.splicemachine.derby.impl.sql.execute.operations.export.ExportFile;
+import com.splicemachine.derby.impl.sql.execute.operations.export.ExportFile.COMPRESSION;
+import com.splicemachine.derby.stream.function.SpliceFunction2;
+import com.splicemachine.utils.SpliceLogUtils;
+import org.apache.log4j.Logger;
+import splice.com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Writes a control side CSV export as one or more part files, formatting and compressing
+ * rows on a pool of worker threads.
+ *
+ * Rows are cut into chunks that the workers export and compress independently, each into a
+ * complete compressed stream. The calling thread appends the chunks in order, so the export
+ * keeps the order of its source rows, and starts a new part file once the current one reaches
+ * the target file size. Every supported codec can decompress a sequence of concatenated
+ * streams, so each part file remains a single valid compressed file.
+ *
+ * The part files only become visible as a complete export once the caller writes the
+ * {@link ExportFile#SUCCESS_FILE} marker; if the export fails, the part files written so far
+ * are deleted.
+ */
+class ParallelExportWriter<V> {
+    private static final Logger LOG = Logger.getLogger(ParallelExportWriter.class);
+
+    static final int ROWS_PER_CHUNK = 4096;
+
+    private final DistributedFileSystem dfs;
+    private final String directory;
+    private final String extension;
+    private final COMPRESSION compression;
+    private final SpliceFunction2<? extends SpliceOperation, OutputStream, Iterator<V>, Integer> exportFunction;
+    private final int parallelism;
+    private final long targetFileSize;
+
+    private final List<String> partFiles = new ArrayList<>();
+    private OutputStream currentPart;
+    private long currentPartSize;
+
+    ParallelExportWriter(DistributedFileSystem dfs,
+                         String directory,
+                         String extension,
+                         COMPRESSION compression,
+                         SpliceFunction2<? extends SpliceOperation, OutputStream, Iterator<V>, Integer> exportFunction,
+                         int parallelism,
+                         long targetFileSize) {
+        this.dfs = dfs;
+        this.directory = directory;
+        this.extension = extension;
+        this.compression = compression;
+        this.exportFunction = exportFunction;
+        this.parallelism = Math.max(parallelism, 1);
+        this.targetFileSize = targetFileSize;
+    }
+
+    /**
+     * Export all the rows of {@code rows}.
+     *
+     * @return the number of rows exported
+     */
+    long write(Iterator<V> rows) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, new ThreadFactoryBuilder()
+                .setNameFormat("export-writer-%d").setDaemon(true).build());
+        // at most two chunks per worker are buffered in memory at any time
+        ArrayDeque<Future<Chunk>> pending = new ArrayDeque<>(2 * parallelism);
+        long count = 0;
+        boolean success = false;
+        try {
+            while (rows.hasNext()) {
+                List<V> chunkRows = new ArrayList<>(ROWS_PER_CHUNK);
+                while (chunkRows.size() < ROWS_PER_CHUNK && rows.hasNext()) {
+                    chunkRows.add(copy(rows.next()));
+                }
+                if (pending.size() >= 2 * parallelism) {
+                    count += append(pending.poll());
+                }
+                pending.add(executor.submit(() -> exportChunk(chunkRows)));
+            }
+            while (!pending.isEmpty()) {
+                count += append(pending.poll());
+            }
+            if (currentPart == null) {
+                // keep the same layout for empty exports: a single part holding an empty stream
+                append(executor.submit(() -> exportChunk(new ArrayList<>())));
+            }
+            closePart();
+            success = true;
+            return count;
+        } finally {
+            for (Future<Chunk> future : pending) {
+                future.cancel(true);
+            }
+            executor.shutdownNow();
+            if (!success) {
+                abort();
+            }
+        }
+    }
+
+    private Chunk exportChunk(List<V> chunkRows) throws Exception {
+        Chunk chunk = new Chunk();
+        // the export function closes the stream it is given, completing the compressed stream
+        chunk.rowCount = exportFunction.call(ExportFile.compressedOutputStream(chunk, compression), chunkRows.iterator());
+        return chunk;
+    }
+
+    private int append(Future<Chunk> future) throws IOException {
+        Chunk chunk;
+        try {
+            chunk = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException)
+                throw (IOException) cause;
+            throw new IOException(cause);
+        }
+        if (currentPart == null
+                || (targetFileSize > 0 && currentPartSize > 0 && currentPartSize + chunk.size() > targetFileSize)) {
+            nextPart();
+        }
+        chunk.writeTo(currentPart);
+        currentPartSize += chunk.size();
+        return chunk.rowCount;
+    }
+
+    private void nextPart() throws IOException {
+        closePart();
+        // The 'part-r-00000' naming convention is what spark uses so we are consistent on control side
+        String name = String.format("part-r-%05d%s", partFiles.size(), extension);
+        partFiles.add(name);
+        currentPart = dfs.newOutputStream(directory, name, StandardOpenOption.CREATE);
+        currentPartSize = 0;
+    }
+
+    private void closePart() throws IOException {
+        if (currentPart != null) {
+            OutputStream part = currentPart;
+            currentPart = null;
+            part.close();
+        }
+    }
+
+    private void abort() {
+        try {
+            closePart();
+        } catch (IOException e) {
+            SpliceLogUtils.warn(LOG, "Unable to close part file in %s: %s", directory, e.getMessage());
+        }
+        for (String file : partFiles) {
+            try {
+                dfs.delete(directory, file, false);
+            } catch (NoSuchFileException e) {
+                // never created
+            } catch (IOException e) {
+                SpliceLogUtils.warn(LOG, "Unable to delete file %s/%s of a failed export", directory, file);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private V copy(V row) {
+        // the source may reuse the same row instance for every row it returns
+        if (row instanceof ExecRow)
+            return (V) ((ExecRow) row).getClone();
+        return row;
+    }
+
+    /**
+     * A compressed chunk of the export, which is appended to a part file without copying its buffer.
+     */
+    private static class Chunk extends ByteArrayOutputStream {
+        int rowCount;
+
+        Chunk() {
+            super(64 * 1024);
+        }
+    }
+}
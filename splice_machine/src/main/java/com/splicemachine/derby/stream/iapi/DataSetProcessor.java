@@ -267,6 +267,12 @@ public interface DataSetProcessor {
 
     boolean isSparkDB2CompatibilityMode();
 
+    /**
+     * @return true if the scans built by this processor can aggregate their rows as they read them,
+     * as requested by {@link com.splicemachine.derby.impl.sql.execute.operations.ScanOperation#setAggregation}
+     */
+    boolean supportsScanAggregation();
+
     void setTempTriggerConglomerate(long conglomID);
     long getTempTriggerConglomerate();
 }
@@ -14,6 +14,7 @@
 
 package com.splicemachine.derby.stream.iapi;
 
+import com.splicemachine.db.iapi.error.StandardException;
 import com.splicemachine.db.iapi.sql.execute.ExecRow;
 import com.splicemachine.ddl.DDLMessage;
 import com.splicemachine.derby.impl.storage.CheckTableJob;
@@ -33,4 +34,21 @@ public interface TableChecker {
                             DDLMessage.TentativeIndex tentativeIndex) throws Exception;
 
     void setTableDataSet(DataSet tableDataSet);
+
+    /**
+     * Sets the table to check as one segment per partition, for checkers which compare partitions concurrently.
+     * Checkers which read the table as a whole ignore them.
+     */
+    void setTableSegments(List<TableSegment> segments);
+
+    /**
+     * The rows of the table between two keys, scanned on demand.
+     */
+    interface TableSegment {
+        byte[] getStartKey();
+
+        byte[] getStopKey();
+
+        DataSet<ExecRow> scan() throws StandardException;
+    }
 }
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.stream.iterator;
+
+import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.db.iapi.sql.execute.ExecRow;
+import com.splicemachine.derby.impl.sql.execute.operations.scanner.ScanAggregation;
+import com.splicemachine.derby.stream.function.IteratorUtils;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Returns the partial aggregates of the rows of a table scan, rather than the rows themselves.
+ *
+ * Rows returned as they are by the scan are aggregated here, and partial rows returned by region servers
+ * which aggregated the scan themselves are merged into the same groups as they are read (see
+ * {@link ScanAggregation#mergingPartialRows}), so that the scan is aggregated whether or not the servers
+ * serving it could do so.
+ */
+@NotThreadSafe
+public class ScanAggregationIterator implements Iterable<ExecRow>, Iterator<ExecRow>, Closeable {
+    private final TableScannerIterator rows;
+    private final ScanAggregation.Accumulator accumulator;
+    private Iterator<ExecRow> flushed = Collections.emptyIterator();
+    private boolean exhausted;
+
+    public ScanAggregationIterator(TableScannerIterator rows, ScanAggregation.Accumulator accumulator) {
+        this.rows = rows;
+        this.accumulator = accumulator;
+    }
+
+    @Override
+    public Iterator<ExecRow> iterator() {
+        return IteratorUtils.asInterruptibleIterator(this);
+    }
+
+    @Override
+    public boolean hasNext() {
+        try {
+            while (!flushed.hasNext()) {
+                if (exhausted)
+                    return false;
+                if (rows.hasNext()) {
+                    accumulator.accumulate(rows.next());
+                } else {
+                    exhausted = true;
+                    accumulator.flush();
+                }
+                if (accumulator.hasFlushed())
+                    flushed = accumulator.takeFlushed().iterator();
+            }
+            return true;
+        } catch (StandardException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public ExecRow next() throws NoSuchElementException {
+        if (!hasNext())
+            throw new NoSuchElementException();
+        return flushed.next();
+    }
+
+    @Override
+    public void remove() {
+        throw new RuntimeException("Not Implemented");
+    }
+
+    @Override
+    public void close() throws IOException {
+        rows.close();
+    }
+}
@@ -75,7 +75,7 @@ public class TableScannerIterator implements Iterable<ExecRow>, Iterator<ExecRow
             slotted = true;
             if (!initialized) {
                 initialized = true;
-                tableScanner = siTableBuilder.build();
+                tableScanner = newTableScanner();
                 tableScanner.open();
                 if (operation!= null) {
                     operation.registerCloseable(new Closeable() {
@@ -95,6 +95,8 @@ public class TableScannerIterator implements Iterable<ExecRow>, Iterator<ExecRow
                 execRow = tableScanner.next();
                 if (execRow == null) {
                     tableScanner.close();
+                    if (operation != null)
+                        operation.scanSegmentCompleted(rows);
                     initialized = false;
                     hasNext = false;
                     slotted = true;
@@ -112,6 +114,10 @@ public class TableScannerIterator implements Iterable<ExecRow>, Iterator<ExecRow
         }
     }
 
+    protected SITableScanner newTableScanner() {
+        return siTableBuilder.build();
+    }
+
     @Override
     public ExecRow next() throws NoSuchElementException {
         if (!hasNext)
@@ -237,6 +237,9 @@ public abstract class ForwardingDataSetProcessor implements DataSetProcessor{
     @Override
     public boolean isSparkDB2CompatibilityMode() { return delegate.isSparkDB2CompatibilityMode(); }
 
+    @Override
+    public boolean supportsScanAggregation() { return delegate.supportsScanAggregation(); }
+
     @Override
     public void setTempTriggerConglomerate(long conglomID) {
         delegate.setTempTriggerConglomerate(conglomID);
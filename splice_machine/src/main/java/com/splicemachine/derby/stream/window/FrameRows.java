@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.stream.window;
+
+import com.splicemachine.db.iapi.sql.execute.ExecRow;
+
+import java.util.Arrays;
+
+/**
+ * Rows buffered by a window frame buffer. Rows are appended at the end and dropped from the
+ * front as the frame slides, so they are kept in a circular array where both operations take
+ * constant time, while still allowing access by position.
+ */
+class FrameRows {
+    private ExecRow[] rows = new ExecRow[16];
+    private int head;
+    private int size;
+
+    public int size() {
+        return size;
+    }
+
+    public ExecRow get(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        return rows[(head + index) & (rows.length - 1)];
+    }
+
+    public void add(ExecRow row) {
+        if (size == rows.length) {
+            grow();
+        }
+        rows[(head + size) & (rows.length - 1)] = row;
+        size++;
+    }
+
+    public ExecRow removeFirst() {
+        if (size == 0)
+            throw new IndexOutOfBoundsException("Index: 0, Size: 0");
+        ExecRow row = rows[head];
+        rows[head] = null;
+        head = (head + 1) & (rows.length - 1);
+        size--;
+        return row;
+    }
+
+    public void clear() {
+        Arrays.fill(rows, null);
+        head = size = 0;
+    }
+
+    private void grow() {
+        // the capacity is kept a power of two so positions can be wrapped with a mask
+        ExecRow[] newRows = new ExecRow[rows.length << 1];
+        int firstPart = rows.length - head;
+        System.arraycopy(rows, head, newRows, 0, firstPart);
+        System.arraycopy(rows, 0, newRows, firstPart, head);
+        rows = newRows;
+        head = 0;
+    }
+}
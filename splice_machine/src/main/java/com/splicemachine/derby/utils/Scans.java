@@ -17,6 +17,7 @@ package com.splicemachine.derby.utils;
 import com.carrotsearch.hppc.BitSet;
 import com.splicemachine.db.iapi.error.StandardException;
 import com.splicemachine.db.iapi.services.io.FormatableBitSet;
+import com.splicemachine.db.iapi.services.io.StoredFormatIds;
 import com.splicemachine.db.iapi.sql.execute.ExecRow;
 import com.splicemachine.db.iapi.store.access.Qualifier;
 import com.splicemachine.db.iapi.store.access.ScanController;
@@ -31,6 +32,7 @@ import com.splicemachine.si.constants.SIConstants;
 import com.splicemachine.si.impl.driver.SIDriver;
 import com.splicemachine.storage.DataScan;
 import com.splicemachine.storage.EntryPredicateFilter;
+import com.splicemachine.storage.StringPredicate;
 import com.splicemachine.utils.Pair;
 import org.apache.log4j.Logger;
 
@@ -127,7 +129,8 @@ public class Scans extends SpliceUtils {
                     keyRows, firstIndexColumnKeys, skipBuildOfFirstKeyColumn);
 
             if (!rowIdKey) {
-                buildPredicateFilter(qualifiers, scanColumnList, scan, keyDecodingMap);
+                buildPredicateFilter(qualifiers, scanColumnList, scan, keyDecodingMap,
+                        conglomerate.getFormat_ids(), conglomerate.getCollation_ids());
             }
 
 
@@ -214,14 +217,36 @@ public class Scans extends SpliceUtils {
                                             FormatableBitSet scanColumnList,
                                             DataScan scan,
                                             int[] keyColumnEncodingOrder) throws StandardException, IOException {
+        buildPredicateFilter(qualifiers, scanColumnList, scan, keyColumnEncodingOrder, null, null);
+    }
+
+    public static void buildPredicateFilter(Qualifier[][] qualifiers,
+                                            FormatableBitSet scanColumnList,
+                                            DataScan scan,
+                                            int[] keyColumnEncodingOrder,
+                                            int[] formatIds,
+                                            int[] collationIds) throws StandardException, IOException {
         EntryPredicateFilter pqf = getEntryPredicateFilter(qualifiers,
-                scanColumnList, keyColumnEncodingOrder);
+                scanColumnList, keyColumnEncodingOrder, formatIds, collationIds);
         scan.addAttribute(SIConstants.ENTRY_PREDICATE_LABEL, pqf.toBytes());
     }
 
     public static EntryPredicateFilter getEntryPredicateFilter(Qualifier[][] qualifiers,
                                                      FormatableBitSet scanColumnList,
                                                      int[] keyColumnEncodingOrder) throws StandardException {
+        return getEntryPredicateFilter(qualifiers, scanColumnList, keyColumnEncodingOrder, null, null);
+    }
+
+    /**
+     * @param formatIds    the format ids of the stored columns, or null if they are unknown, in which
+     *                     case no predicates are evaluated against the encoded row
+     * @param collationIds the collation ids of the stored columns, or null for UCS_BASIC
+     */
+    public static EntryPredicateFilter getEntryPredicateFilter(Qualifier[][] qualifiers,
+                                                     FormatableBitSet scanColumnList,
+                                                     int[] keyColumnEncodingOrder,
+                                                     int[] formatIds,
+                                                     int[] collationIds) throws StandardException {
         BitSet colsToReturn = new BitSet();
         if (qualifiers != null) {
             for (Qualifier[] qualifierList : qualifiers) {
@@ -245,7 +270,67 @@ public class Scans extends SpliceUtils {
                     colsToReturn.clear(col);
             }
         }
-        return new EntryPredicateFilter(colsToReturn, true);
+        List<StringPredicate> predicates = getStringPredicates(qualifiers, keyColumnEncodingOrder, formatIds, collationIds);
+        return new EntryPredicateFilter(colsToReturn, true, predicates.toArray(new StringPredicate[predicates.size()]));
+    }
+
+    /**
+     * Translate the AND qualifiers on UCS_BASIC string columns into predicates on the encoded row, so that
+     * the rows they reject are filtered out before they are decoded. The qualifiers are still evaluated
+     * on the decoded rows, so qualifiers which can't be translated are simply left out.
+     */
+    private static List<StringPredicate> getStringPredicates(Qualifier[][] qualifiers,
+                                                            int[] keyColumnEncodingOrder,
+                                                            int[] formatIds,
+                                                            int[] collationIds) throws StandardException {
+        List<StringPredicate> predicates = new ArrayList<>();
+        if (qualifiers == null || qualifiers.length == 0 || formatIds == null)
+            return predicates;
+        for (Qualifier qualifier : qualifiers[0]) {
+            int column = qualifier.getStoragePosition();
+            int operator = qualifier.getOperator();
+            if (column < 0 || column >= formatIds.length || qualifier.getVariantType() == Qualifier.VARIANT
+                    || operator < Orderable.ORDER_OP_LESSTHAN || operator > Orderable.ORDER_OP_GREATEROREQUALS)
+                continue;
+            if (!isUcsBasicString(formatIds[column], collationIds == null ? StringDataValue.COLLATION_TYPE_UCS_BASIC : collationIds[column]))
+                continue;
+            if (isKeyColumn(column, keyColumnEncodingOrder))
+                continue;
+            DataValueDescriptor orderable = qualifier.getOrderable();
+            if (orderable == null || orderable.isNull())
+                continue;
+            Class<?> orderableClass = orderable.getClass();
+            if (orderableClass != SQLChar.class && orderableClass != SQLVarchar.class && orderableClass != SQLLongvarchar.class)
+                continue;
+            // the value of the dominant type decides how the comparison is done: only CHAR to CHAR pads with blanks
+            boolean padded = formatIds[column] == StoredFormatIds.SQL_CHAR_ID && orderableClass == SQLChar.class;
+            predicates.add(StringPredicate.compare(column, operator,
+                    qualifier.negateCompareResult(), padded, orderable.getString()));
+        }
+        return predicates;
+    }
+
+    private static boolean isUcsBasicString(int formatId, int collationId) {
+        if (collationId != StringDataValue.COLLATION_TYPE_UCS_BASIC)
+            return false;
+        switch (formatId) {
+            case StoredFormatIds.SQL_CHAR_ID:
+            case StoredFormatIds.SQL_VARCHAR_ID:
+            case StoredFormatIds.SQL_LONGVARCHAR_ID:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isKeyColumn(int column, int[] keyColumnEncodingOrder) {
+        if (keyColumnEncodingOrder != null) {
+            for (int col : keyColumnEncodingOrder) {
+                if (col == column)
+                    return true;
+            }
+        }
+        return false;
     }
 
     private static Pair<byte [], byte []>
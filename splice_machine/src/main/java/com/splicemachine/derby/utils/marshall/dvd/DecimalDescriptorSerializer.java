@@ -30,11 +30,10 @@ import java.math.BigDecimal;
  * Date: 4/2/14
  */
 class DecimalDescriptorSerializer implements DescriptorSerializer {
-		private static final DescriptorSerializer INSTANCE = new DecimalDescriptorSerializer();
 		public static final Factory INSTANCE_FACTORY = new Factory() {
 				@Override
 				public DescriptorSerializer newInstance() {
-						return INSTANCE;
+						return new DecimalDescriptorSerializer();
 				}
 				@Override public boolean applies(DataValueDescriptor dvd) { return dvd!=null && applies(dvd.getTypeFormatId()); }
 				@Override public boolean applies(int typeFormatId) { return typeFormatId == StoredFormatIds.SQL_DECIMAL_ID; }
@@ -44,22 +43,39 @@ class DecimalDescriptorSerializer implements DescriptorSerializer {
 				@Override public boolean isDouble() { return false; }
 		};
 
+		/*
+		 * Decimals of up to 18 digits are decoded into the unscaled long form of SQLDecimal,
+		 * and written from it without going through a BigDecimal.
+		 */
+		private final long[] unscaledAndScale = new long[2];
+
 		private DecimalDescriptorSerializer() { }
 
 
 		@Override
 		public void encode(MultiFieldEncoder fieldEncoder, DataValueDescriptor dvd, boolean desc) throws StandardException {
-			fieldEncoder.encodeNext((BigDecimal)dvd.getObject(),desc);
+			if (isCompact(dvd)) {
+				SQLDecimal d = (SQLDecimal)dvd;
+				fieldEncoder.encodeNextDecimal(d.getUnscaledValue(),d.getCompactScale(),desc);
+			} else
+				fieldEncoder.encodeNext((BigDecimal)dvd.getObject(),desc);
 		}
 
 		@Override
 		public byte[] encodeDirect(DataValueDescriptor dvd, boolean desc) throws StandardException {
+				if (isCompact(dvd)) {
+						SQLDecimal d = (SQLDecimal)dvd;
+						return Encoding.encodeDecimal(d.getUnscaledValue(),d.getCompactScale(),desc);
+				}
 				return Encoding.encode((BigDecimal)dvd.getObject(),desc);
 		}
 
 		@Override
 		public void decode(MultiFieldDecoder fieldDecoder, DataValueDescriptor destDvd, boolean desc) throws StandardException {
-				destDvd.setBigDecimal(fieldDecoder.decodeNextBigDecimal(desc));
+				if (destDvd instanceof SQLDecimal && fieldDecoder.decodeNextUnscaledDecimal(desc,unscaledAndScale))
+						((SQLDecimal)destDvd).setUnscaledValue(unscaledAndScale[0],(int)unscaledAndScale[1]);
+				else
+						destDvd.setBigDecimal(fieldDecoder.decodeNextBigDecimal(desc));
 		}
 
 		@Override
@@ -67,11 +83,18 @@ class DecimalDescriptorSerializer implements DescriptorSerializer {
 				SQLDecimal d = (SQLDecimal)dvd;
 				int precision = d.getPrecision();
 				int scale = d.getScale();
-				d.setBigDecimal( Encoding.decodeBigDecimal(data,offset,length,desc) );
+				if (Encoding.decodeUnscaledDecimal(data,offset,length,desc,unscaledAndScale))
+						d.setUnscaledValue(unscaledAndScale[0],(int)unscaledAndScale[1]);
+				else
+						d.setBigDecimal( Encoding.decodeBigDecimal(data,offset,length,desc) );
 				d.setPrecision( precision );
 				d.setScale( scale );
 		}
 
+		private static boolean isCompact(DataValueDescriptor dvd) {
+				return dvd instanceof SQLDecimal && !dvd.isNull() && ((SQLDecimal)dvd).isCompact();
+		}
+
 		@Override public boolean isScalarType() { return false; }
 		@Override public boolean isFloatType() { return false; }
 		@Override public boolean isDoubleType() { return false; }
@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.vti;
+
+import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.db.iapi.sql.ResultColumnDescriptor;
+import com.splicemachine.db.iapi.sql.conn.LanguageConnectionContext;
+import com.splicemachine.db.iapi.sql.dictionary.ConglomerateDescriptor;
+import com.splicemachine.db.iapi.sql.dictionary.DataDictionary;
+import com.splicemachine.db.iapi.sql.dictionary.TableDescriptor;
+import com.splicemachine.db.iapi.sql.execute.ExecRow;
+import com.splicemachine.db.iapi.types.SQLDouble;
+import com.splicemachine.db.iapi.types.SQLLongint;
+import com.splicemachine.db.iapi.types.SQLTimestamp;
+import com.splicemachine.db.iapi.types.SQLVarchar;
+import com.splicemachine.db.impl.jdbc.EmbedResultSetMetaData;
+import com.splicemachine.db.impl.sql.execute.ValueRow;
+import com.splicemachine.db.vti.CompileTimeSchema;
+import com.splicemachine.db.vti.VTICosting;
+import com.splicemachine.db.vti.VTIEnvironment;
+import com.splicemachine.derby.iapi.sql.execute.SpliceOperation;
+import com.splicemachine.derby.impl.stats.CardinalityFeedback;
+import com.splicemachine.derby.stream.iapi.DataSet;
+import com.splicemachine.derby.stream.iapi.DataSetProcessor;
+import com.splicemachine.derby.stream.iapi.OperationContext;
+import com.splicemachine.derby.vti.iapi.DatasetProvider;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+
+/**
+ * Lists the corrections to scan row count estimates learnt by the server the query is connected to, with the
+ * last estimated and actual row counts they were learnt from, e.g.
+ *
+ * select * from new com.splicemachine.derby.vti.CardinalityFeedbackVTI() v order by correction desc
+ */
+public class CardinalityFeedbackVTI implements DatasetProvider, VTICosting, CompileTimeSchema {
+    protected OperationContext operationContext;
+
+    public CardinalityFeedbackVTI() {
+    }
+
+    @Override
+    public DataSet<ExecRow> getDataSet(SpliceOperation op, DataSetProcessor dsp, ExecRow execRow) throws StandardException {
+        operationContext = dsp.createOperationContext(op);
+        LanguageConnectionContext lcc = op.getActivation().getLanguageConnectionContext();
+        DataDictionary dd = lcc.getDataDictionary();
+
+        ArrayList<ExecRow> items = new ArrayList<>();
+        for (CardinalityFeedback.Entry entry : CardinalityFeedback.entries()) {
+            String schemaName = null;
+            String tableName = null;
+            String conglomerateName = null;
+            ConglomerateDescriptor cd = dd.getConglomerateDescriptor(entry.getConglomerateId());
+            if (cd != null) {
+                conglomerateName = cd.getConglomerateName();
+                TableDescriptor td = dd.getTableDescriptor(cd.getTableID(), lcc.getTransactionExecute());
+                if (td != null) {
+                    schemaName = td.getSchemaName();
+                    tableName = td.getName();
+                }
+            }
+            ExecRow valueRow = new ValueRow(10);
+            valueRow.setColumn(1, new SQLVarchar(schemaName));
+            valueRow.setColumn(2, new SQLVarchar(tableName));
+            valueRow.setColumn(3, new SQLVarchar(conglomerateName));
+            valueRow.setColumn(4, new SQLLongint(entry.getConglomerateId()));
+            valueRow.setColumn(5, new SQLVarchar(entry.getPredicateShape()));
+            valueRow.setColumn(6, new SQLLongint(entry.getObservations()));
+            valueRow.setColumn(7, new SQLDouble(entry.getLastEstimatedRows()));
+            valueRow.setColumn(8, new SQLDouble(entry.getLastActualRows()));
+            valueRow.setColumn(9, new SQLDouble(entry.getCorrection()));
+            valueRow.setColumn(10, new SQLTimestamp(new Timestamp(entry.getLastObserved())));
+            items.add(valueRow);
+        }
+        return dsp.createDataSet(items.iterator());
+    }
+
+    @Override
+    public double getEstimatedCostPerInstantiation(VTIEnvironment arg0)
+            throws SQLException {
+        return 1;
+    }
+
+    @Override
+    public double getEstimatedRowCount(VTIEnvironment arg0) throws SQLException {
+        return 1;
+    }
+
+    @Override
+    public boolean supportsMultipleInstantiations(VTIEnvironment arg0)
+            throws SQLException {
+        return false;
+    }
+
+    public static ResultSetMetaData getMetaData() throws SQLException {
+        return metadata;
+    }
+
+    public static boolean schemaKnownAtCompileTime() {
+        return true;
+    }
+
+    @Override
+    public OperationContext getOperationContext() {
+        return this.operationContext;
+    }
+
+    /*
+     * Metadata
+     */
+    private static final ResultColumnDescriptor[] columnInfo = {
+            EmbedResultSetMetaData.getResultColumnDescriptor("SCHEMANAME", Types.VARCHAR, true, 128),
+            EmbedResultSetMetaData.getResultColumnDescriptor("TABLENAME", Types.VARCHAR, true, 128),
+            EmbedResultSetMetaData.getResultColumnDescriptor("CONGLOMERATENAME", Types.VARCHAR, true, 128),
+            EmbedResultSetMetaData.getResultColumnDescriptor("CONGLOMERATEID", Types.BIGINT, false),
+            EmbedResultSetMetaData.getResultColumnDescriptor("PREDICATESHAPE", Types.VARCHAR, false, 32672),
+            EmbedResultSetMetaData.getResultColumnDescriptor("OBSERVATIONS", Types.BIGINT, false),
+            EmbedResultSetMetaData.getResultColumnDescriptor("LASTESTIMATEDROWS", Types.DOUBLE, false),
+            EmbedResultSetMetaData.getResultColumnDescriptor("LASTACTUALROWS", Types.DOUBLE, false),
+            EmbedResultSetMetaData.getResultColumnDescriptor("CORRECTION", Types.DOUBLE, false),
+            EmbedResultSetMetaData.getResultColumnDescriptor("LASTOBSERVED", Types.TIMESTAMP, false)
+    };
+
+    private static final ResultSetMetaData metadata = new EmbedResultSetMetaData(columnInfo);
+
+}
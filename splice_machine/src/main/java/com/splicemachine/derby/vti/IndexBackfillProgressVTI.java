@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.vti;
+
+import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.db.iapi.sql.ResultColumnDescriptor;
+import com.splicemachine.db.iapi.sql.execute.ExecRow;
+import com.splicemachine.db.iapi.types.SQLDouble;
+import com.splicemachine.db.iapi.types.SQLLongint;
+import com.splicemachine.db.iapi.types.SQLTimestamp;
+import com.splicemachine.db.iapi.types.SQLVarchar;
+import com.splicemachine.db.impl.jdbc.EmbedResultSetMetaData;
+import com.splicemachine.db.impl.sql.execute.ValueRow;
+import com.splicemachine.db.vti.CompileTimeSchema;
+import com.splicemachine.db.vti.VTICosting;
+import com.splicemachine.db.vti.VTIEnvironment;
+import com.splicemachine.derby.iapi.sql.execute.SpliceOperation;
+import com.splicemachine.derby.impl.sql.execute.index.IndexBackfill;
+import com.splicemachine.derby.stream.iapi.DataSet;
+import com.splicemachine.derby.stream.iapi.DataSetProcessor;
+import com.splicemachine.derby.stream.iapi.OperationContext;
+import com.splicemachine.derby.vti.iapi.DatasetProvider;
+import com.splicemachine.primitives.Bytes;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+
+/**
+ * Lists the throttled index backfills running on the server the query is connected to, e.g.
+ *
+ * select * from new com.splicemachine.derby.vti.IndexBackfillProgressVTI() v
+ */
+public class IndexBackfillProgressVTI implements DatasetProvider, VTICosting, CompileTimeSchema {
+    protected OperationContext operationContext;
+
+    public IndexBackfillProgressVTI() {
+    }
+
+    @Override
+    public DataSet<ExecRow> getDataSet(SpliceOperation op, DataSetProcessor dsp, ExecRow execRow) throws StandardException {
+        operationContext = dsp.createOperationContext(op);
+
+        ArrayList<ExecRow> items = new ArrayList<>();
+        for (IndexBackfill backfill : IndexBackfill.running()) {
+            byte[] checkpointKey = backfill.getCheckpointKey();
+            ExecRow valueRow = new ValueRow(10);
+            valueRow.setColumn(1, new SQLVarchar(backfill.getSchemaName()));
+            valueRow.setColumn(2, new SQLVarchar(backfill.getTableName()));
+            valueRow.setColumn(3, new SQLVarchar(backfill.getIndexName()));
+            valueRow.setColumn(4, new SQLTimestamp(new Timestamp(backfill.getStartTime())));
+            valueRow.setColumn(5, new SQLLongint(backfill.getRowsDone()));
+            valueRow.setColumn(6, new SQLDouble(backfill.getRowsPerSecond()));
+            valueRow.setColumn(7, new SQLDouble(backfill.getRateLimit()));
+            valueRow.setColumn(8, new SQLVarchar(backfill.getStatus().name()));
+            valueRow.setColumn(9, new SQLLongint(backfill.getCheckpoints()));
+            valueRow.setColumn(10, new SQLVarchar(checkpointKey == null ? null : Bytes.toHex(checkpointKey)));
+            items.add(valueRow);
+        }
+        return dsp.createDataSet(items.iterator());
+    }
+
+    @Override
+    public double getEstimatedCostPerInstantiation(VTIEnvironment arg0)
+            throws SQLException {
+        return 1;
+    }
+
+    @Override
+    public double getEstimatedRowCount(VTIEnvironment arg0) throws SQLException {
+        return 1;
+    }
+
+    @Override
+    public boolean supportsMultipleInstantiations(VTIEnvironment arg0)
+            throws SQLException {
+        return false;
+    }
+
+    public static ResultSetMetaData getMetaData() throws SQLException {
+        return metadata;
+    }
+
+    public static boolean schemaKnownAtCompileTime() {
+        return true;
+    }
+
+    @Override
+    public OperationContext getOperationContext() {
+        return this.operationContext;
+    }
+
+    /*
+     * Metadata
+     */
+    private static final ResultColumnDescriptor[] columnInfo = {
+            EmbedResultSetMetaData.getResultColumnDescriptor("SCHEMANAME", Types.VARCHAR, false, 128),
+            EmbedResultSetMetaData.getResultColumnDescriptor("TABLENAME", Types.VARCHAR, false, 128),
+            EmbedResultSetMetaData.getResultColumnDescriptor("INDEXNAME", Types.VARCHAR, false, 128),
+            EmbedResultSetMetaData.getResultColumnDescriptor("STARTTIME", Types.TIMESTAMP, false),
+            EmbedResultSetMetaData.getResultColumnDescriptor("ROWSDONE", Types.BIGINT, false),
+            EmbedResultSetMetaData.getResultColumnDescriptor("ROWSPERSECOND", Types.DOUBLE, false),
+            EmbedResultSetMetaData.getResultColumnDescriptor("RATELIMIT", Types.DOUBLE, false),
+            EmbedResultSetMetaData.getResultColumnDescriptor("STATUS", Types.VARCHAR, false, 16),
+            EmbedResultSetMetaData.getResultColumnDescriptor("CHECKPOINTS", Types.BIGINT, false),
+            EmbedResultSetMetaData.getResultColumnDescriptor("CHECKPOINTKEY", Types.VARCHAR, true, 32672)
+    };
+
+    private static final ResultSetMetaData metadata = new EmbedResultSetMetaData(columnInfo);
+
+}
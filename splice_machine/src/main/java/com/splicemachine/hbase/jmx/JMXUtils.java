@@ -40,6 +40,7 @@ import com.splicemachine.access.api.DatabaseVersion;
 import com.splicemachine.derby.management.StatementManagement;
 import com.splicemachine.derby.utils.DatabasePropertyManagement;
 import com.splicemachine.pipeline.PipelineDriver;
+import com.splicemachine.pipeline.SplitAdvisorManagement;
 import com.splicemachine.pipeline.threadpool.ThreadPoolStatus;
 import com.splicemachine.timestamp.api.TimestampClientStatistics;
 import com.splicemachine.timestamp.api.TimestampOracleStatistics;
@@ -60,6 +61,7 @@ public class JMXUtils {
     public static final String TIMESTAMP_MASTER_MANAGEMENT = "com.splicemachine.si.client.timestamp.generator:type=TimestampMasterManagement";
     public static final String TIMESTAMP_REGION_MANAGEMENT = "com.splicemachine.si.client.timestamp.request:type=TimestampRegionManagement";
 	public static final String DATABASE_PROPERTY_MANAGEMENT = "com.splicemachine.derby.utils:type=DatabasePropertyManagement";
+    public static final String SPLIT_ADVISOR = "com.splicemachine.pipeline:type=SplitAdvisor";
 
     public static List<Pair<String,JMXConnector>> getMBeanServerConnections(Collection<Pair<String,String>> serverConnections) throws IOException {
         List<Pair<String,JMXConnector>> mbscArray =new ArrayList<>(serverConnections.size());
@@ -105,6 +107,13 @@ public class JMXUtils {
         }
         return activeWrites;
     }
+    public static List<SplitAdvisorManagement> getSplitAdvisors(List<Pair<String,JMXConnector>> mbscArray) throws MalformedObjectNameException, IOException {
+        List<SplitAdvisorManagement> splitAdvisors =new ArrayList<>();
+        for (Pair<String,JMXConnector> mbsc: mbscArray) {
+            splitAdvisors.add(getNewMXBeanProxy(mbsc.getSecond(),SPLIT_ADVISOR,SplitAdvisorManagement.class));
+        }
+        return splitAdvisors;
+    }
     public static List<JMXThreadPool> getExecutorService(List<Pair<String,JMXConnector>> mbscArray) throws MalformedObjectNameException, IOException {
         List<JMXThreadPool> jmxThreadList =new ArrayList<>();
         for (Pair<String,JMXConnector> mbsc: mbscArray) {
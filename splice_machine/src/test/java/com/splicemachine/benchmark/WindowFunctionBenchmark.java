@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2021 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.benchmark;
+
+import com.splicemachine.derby.test.framework.SpliceNetConnection;
+import com.splicemachine.derby.test.framework.SpliceSchemaWatcher;
+import com.splicemachine.test.Benchmark;
+import org.apache.log4j.Logger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.sql.*;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This test suite measures the performance of window aggregates over sliding frames of
+ * varying size.
+ *
+ * The test runs as following:
+ *    1. Create a table with an int primary key and an int value column.
+ *    2. Insert data into the table.
+ *    3. Evaluate MAX, MIN, SUM, AVG and COUNT over a frame of N preceding rows,
+ *       in either OLAP or OLTP.
+ *
+ * With constant time frame updates, the execution time should not depend on the frame size.
+ */
+@Category(Benchmark.class)
+@RunWith(Parameterized.class)
+public class WindowFunctionBenchmark extends Benchmark {
+
+    private static final Logger LOG = Logger.getLogger(WindowFunctionBenchmark.class);
+
+    private static final String SCHEMA = WindowFunctionBenchmark.class.getSimpleName();
+    private static final String BASE_TABLE = "BASE_TABLE";
+    private static final int NUM_CONNECTIONS = 10;
+    private static final int NUM_EXECS = 10;
+    private static final int NUM_WARMUP_RUNS = 3;
+    private static final int TABLE_SIZE = 200000;
+
+    private final int frameSize;
+    private final boolean onOlap;
+    private final int batchSize;
+
+    public WindowFunctionBenchmark(int frameSize, boolean onOlap) {
+        this.frameSize = frameSize;
+        this.onOlap = onOlap;
+        this.batchSize = 1000;
+    }
+
+    @ClassRule
+    public static SpliceSchemaWatcher spliceSchemaWatcher = new SpliceSchemaWatcher(SCHEMA);
+
+    static Connection makeConnection() throws SQLException {
+        Connection connection = SpliceNetConnection.getDefaultConnection();
+        connection.setSchema(spliceSchemaWatcher.schemaName);
+        connection.setAutoCommit(true);
+        return connection;
+    }
+
+    static Connection testConnection;
+    static Statement testStatement;
+
+    @Before
+    public void setUp() throws Exception {
+        getInfo();
+
+        LOG.info("Create tables");
+        testConnection = makeConnection();
+        testStatement = testConnection.createStatement();
+        testStatement.execute("CREATE TABLE " + BASE_TABLE + " (col1 INTEGER PRIMARY KEY, col2 INTEGER)");
+
+        curSize.set(0);
+        runBenchmark(NUM_CONNECTIONS, () -> populateTable(TABLE_SIZE));
+
+        testStatement.execute(String.format("call syscs_util.syscs_flush_table('%s', '%s')", SCHEMA, BASE_TABLE));
+        LOG.info("Collect statistics");
+        try (ResultSet rs = testStatement.executeQuery("ANALYZE SCHEMA " + SCHEMA)) {
+            assertTrue(rs.next());
+        }
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        testStatement.execute("DROP TABLE " + BASE_TABLE);
+        testStatement.close();
+        testConnection.close();
+        reportStats();
+    }
+
+    static final String STAT_ERROR = "ERROR";
+    static final String STAT_CREATE = "CREATE";
+
+    static AtomicInteger curSize = new AtomicInteger(0);
+
+    private void populateTable(int size) {
+        try (Connection conn = makeConnection()) {
+            try (PreparedStatement insert = conn.prepareStatement("INSERT INTO " + BASE_TABLE + " VALUES (?,?)")) {
+                for (; ; ) {
+                    int newSize = curSize.getAndAdd(batchSize);
+                    if (newSize >= size) break;
+                    for (int i = newSize; i < newSize + batchSize; ++i) {
+                        insert.setInt(1, i);
+                        // pseudo-random values so the frame extremes keep changing
+                        insert.setInt(2, (int) ((i * 2654435761L) % 100000));
+                        insert.addBatch();
+                    }
+                    long start = System.currentTimeMillis();
+                    int[] counts = insert.executeBatch();
+                    long end = System.currentTimeMillis();
+                    int count = 0;
+                    for (int c : counts) count += c;
+                    if (count != batchSize) {
+                        updateStats(STAT_ERROR);
+                    }
+                    if (count > 0) {
+                        updateStats(STAT_CREATE, count, end - start);
+                    }
+                }
+            }
+        }
+        catch (Throwable t) {
+            LOG.error("Connection broken", t);
+            System.exit(-1);
+        }
+    }
+
+    private static int getRowCount(ResultSet rs) throws SQLException {
+        assertTrue(rs.next());
+        return rs.getInt(1);
+    }
+
+    private void benchmark(String function, int numExec, boolean warmUp) {
+        String sqlText = String.format("select count(*), max(w) from " +
+                "(select %s(col2) over (order by col1 rows between %d preceding and current row) as w " +
+                "from %s --splice-properties useSpark=%b\n) v", function, frameSize, BASE_TABLE, onOlap);
+        String dataLabel = function + " FRAME = " + frameSize + ", OLAP = " + onOlap;
+        try (Connection conn = makeConnection()) {
+            try (PreparedStatement query = conn.prepareStatement(sqlText)) {
+                if (warmUp) {
+                    for (int i = 0; i < NUM_WARMUP_RUNS; ++i) {
+                        query.executeQuery();
+                    }
+                }
+
+                for (int i = 0; i < numExec; ++i) {
+                    long start = System.currentTimeMillis();
+                    try (ResultSet rs = query.executeQuery()) {
+                        if (getRowCount(rs) != TABLE_SIZE) {
+                            updateStats(STAT_ERROR);
+                        } else {
+                            long stop = System.currentTimeMillis();
+                            updateStats(dataLabel, stop - start);
+                        }
+                    } catch (SQLException ex) {
+                        LOG.error("ERROR execution " + i + " of window benchmark using " + function + ": " + ex.getMessage());
+                        updateStats(STAT_ERROR);
+                    }
+                }
+            }
+        } catch (Throwable t) {
+            LOG.error("Connection broken", t);
+        }
+    }
+
+    @Parameterized.Parameters
+    public static Collection testParams() {
+        return Arrays.asList(new Object[][]{
+                {10,     false},
+                {100,    false},
+                {1000,   false},
+                {10000,  false},
+                {100000, false},
+                {10,     true},
+                {100,    true},
+                {1000,   true},
+                {10000,  true},
+                {100000, true},
+        });
+    }
+
+    @Test
+    public void slidingMaxMin() throws Exception {
+        LOG.info("slidingMaxMin");
+        runBenchmark(1, () -> benchmark("MAX", NUM_EXECS, true));
+        runBenchmark(1, () -> benchmark("MIN", NUM_EXECS, true));
+    }
+
+    @Test
+    public void slidingSumAvgCount() throws Exception {
+        LOG.info("slidingSumAvgCount");
+        runBenchmark(1, () -> benchmark("SUM", NUM_EXECS, true));
+        runBenchmark(1, () -> benchmark("AVG", NUM_EXECS, true));
+        runBenchmark(1, () -> benchmark("COUNT", NUM_EXECS, true));
+    }
+}
@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.db.impl.sql.compile;
+
+import com.splicemachine.db.iapi.sql.compile.AccessPath;
+import com.splicemachine.db.iapi.sql.compile.CompilerContext;
+import com.splicemachine.db.iapi.sql.compile.CostEstimate;
+import com.splicemachine.db.iapi.sql.compile.JoinStrategy;
+import com.splicemachine.db.iapi.sql.compile.Optimizable;
+import com.splicemachine.db.iapi.sql.compile.OptimizableList;
+import com.splicemachine.db.iapi.sql.compile.OptimizablePredicate;
+import com.splicemachine.db.iapi.sql.compile.OptimizablePredicateList;
+import com.splicemachine.db.iapi.sql.compile.Optimizer;
+import com.splicemachine.db.iapi.sql.compile.RowOrdering;
+import com.splicemachine.db.iapi.sql.dictionary.ConglomerateDescriptor;
+import com.splicemachine.db.iapi.util.JBitSet;
+import com.splicemachine.derby.impl.sql.compile.SimpleCostEstimate;
+import com.splicemachine.si.testenv.ArchitectureIndependent;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyDouble;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link JoinOrderEnumerator}, and for how {@link OptimizerImpl} jumps to the join
+ * order it enumerates.
+ * <p/>
+ * The join strategies are mocked to cost a join as the cost of scanning the inner table, plus
+ * one per outer row and one per joined row, the joined rows being the product of the outer and
+ * inner rows and of the selectivity of the join predicates.
+ */
+@Category(ArchitectureIndependent.class)
+public class JoinOrderEnumeratorTest{
+    private final Map<OptimizablePredicate,Double> selectivities=new HashMap<>();
+
+    @Test
+    public void chainQueryIsJoinedAlongTheChain() throws Exception{
+        // t0 - t1 - t2 - t3 - t4
+        double[] rows={1000,100000,10,50000,200};
+        OptimizableList optimizables=optimizables(rows);
+        PredicateList predicates=new PredicateList();
+        predicates.addOptPredicate(joinPredicate(rows.length,1.0d/100000,0,1));
+        predicates.addOptPredicate(joinPredicate(rows.length,1.0d/100000,1,2));
+        predicates.addOptPredicate(joinPredicate(rows.length,1.0d/10000,2,3));
+        predicates.addOptPredicate(joinPredicate(rows.length,1.0d/50000,3,4));
+
+        JoinOrderEnumerator enumerator=new JoinOrderEnumerator(optimizer(JoinStrategy.JoinStrategyType.MERGE_SORT),
+                optimizables,predicates,CompilerContext.DEFAULT_JOIN_ORDER_ENUMERATION_MAX_DP_TABLES,
+                CompilerContext.DEFAULT_JOIN_ORDER_ENUMERATION_MAX_SUB_PLANS);
+        Assert.assertArrayEquals(new int[]{2,1,0,3,4},enumerator.getJoinOrder());
+    }
+
+    @Test
+    public void starQueryJoinsTheFactTableEarly() throws Exception{
+        // t0 is the fact table, joined to each of the dimension tables
+        double[] rows={1000000,100,1000,10,10000};
+        OptimizableList optimizables=optimizables(rows);
+        PredicateList predicates=new PredicateList();
+        predicates.addOptPredicate(joinPredicate(rows.length,0.001d,0,1));
+        predicates.addOptPredicate(joinPredicate(rows.length,0.1d,0,2));
+        predicates.addOptPredicate(joinPredicate(rows.length,0.5d,0,3));
+        predicates.addOptPredicate(joinPredicate(rows.length,0.0001d,0,4));
+
+        JoinOrderEnumerator enumerator=new JoinOrderEnumerator(optimizer(JoinStrategy.JoinStrategyType.MERGE_SORT),
+                optimizables,predicates,CompilerContext.DEFAULT_JOIN_ORDER_ENUMERATION_MAX_DP_TABLES,
+                CompilerContext.DEFAULT_JOIN_ORDER_ENUMERATION_MAX_SUB_PLANS);
+        Assert.assertArrayEquals(new int[]{1,0,4,3,2},enumerator.getJoinOrder());
+    }
+
+    @Test
+    public void fallsBackToGreedyJoinOrderWhenThereAreTooManySubPlans() throws Exception{
+        double[] rows={1000,100000,10,50000,200};
+        OptimizableList optimizables=optimizables(rows);
+        PredicateList predicates=new PredicateList();
+        predicates.addOptPredicate(joinPredicate(rows.length,1.0d/100000,0,1));
+        predicates.addOptPredicate(joinPredicate(rows.length,1.0d/100000,1,2));
+        predicates.addOptPredicate(joinPredicate(rows.length,1.0d/10000,2,3));
+        predicates.addOptPredicate(joinPredicate(rows.length,1.0d/50000,3,4));
+
+        /*
+         * The greedy join order starts from the smallest table and joins the cheapest
+         * table to it at each step, which is not the cheapest join order of the chain.
+         */
+        JoinOrderEnumerator enumerator=new JoinOrderEnumerator(optimizer(JoinStrategy.JoinStrategyType.MERGE_SORT),
+                optimizables,predicates,CompilerContext.DEFAULT_JOIN_ORDER_ENUMERATION_MAX_DP_TABLES,1);
+        Assert.assertArrayEquals(new int[]{2,3,4,1,0},enumerator.getJoinOrder());
+    }
+
+    @Test
+    public void optimizerStopsAfterCostingTheEnumeratedJoinOrder() throws Exception{
+        int numTables=CompilerContext.DEFAULT_JOIN_ORDER_ENUMERATION_TABLE_THRESHOLD;
+        List<Integer> placed=new ArrayList<>();
+        OptimizableList optimizables=mock(OptimizableList.class);
+        when(optimizables.size()).thenReturn(numTables);
+        when(optimizables.optimizeJoinOrder()).thenReturn(true);
+        for(int i=0;i<numTables;i++){
+            // the bigger tables come first, so the cheapest cross product is in the reverse order
+            FromTable table=table(FromTable.class,numTables,i,(numTables-i)*10.0d);
+            int tableNumber=i;
+            doAnswer(invocation->placed.add(tableNumber)).when(table).startOptimizing(any(Optimizer.class),any(RowOrdering.class));
+            when(table.getAccumulatedCost()).thenAnswer(invocation->new SimpleCostEstimate(1.0d,1.0d,1.0d));
+            when(optimizables.getOptimizable(i)).thenReturn(table);
+        }
+
+        OptimizerImpl optimizer=new OptimizerImpl(optimizables,new PredicateList(),null,false,false,true,0,
+                new JoinStrategy[]{joinStrategy(JoinStrategy.JoinStrategyType.CROSS)},0,null,numTables,null){
+            @Override
+            public CostEstimate getNewCostEstimate(double theCost,double theRowCount,double theSingleScanRowCount){
+                return new SimpleCostEstimate(theCost,theRowCount,theSingleScanRowCount);
+            }
+        };
+
+        int[] firstOrder=new int[numTables];
+        int[] enumeratedOrder=new int[numTables];
+        for(int i=0;i<numTables;i++){
+            firstOrder[i]=i;
+            enumeratedOrder[i]=numTables-1-i;
+        }
+        for(int round=0;round<2;round++){
+            placed.clear();
+            while(optimizer.nextJoinOrder()){
+                Assert.assertTrue("Walked past the enumerated join order",placed.size()<=2*numTables);
+            }
+            // the first join order, then the enumerated one, and nothing around it
+            Assert.assertEquals(2*numTables,placed.size());
+            Assert.assertArrayEquals(firstOrder,toArray(placed.subList(0,numTables)));
+            Assert.assertArrayEquals(enumeratedOrder,toArray(placed.subList(numTables,2*numTables)));
+
+            // the next round enumerates again
+            optimizer.prepForNextRound();
+        }
+    }
+
+    private OptimizableList optimizables(double[] rows){
+        OptimizableList optimizables=mock(OptimizableList.class);
+        when(optimizables.size()).thenReturn(rows.length);
+        for(int i=0;i<rows.length;i++){
+            Optimizable table=table(Optimizable.class,rows.length,i,rows[i]);
+            when(optimizables.getOptimizable(i)).thenReturn(table);
+        }
+        return optimizables;
+    }
+
+    private static <T extends Optimizable> T table(Class<T> tableClass,int numTables,int tableNumber,double rows){
+        T table=mock(tableClass);
+        when(table.getReferencedTableMap()).thenReturn(tableMap(numTables,tableNumber));
+        when(table.legalJoinOrder(any(JBitSet.class))).thenReturn(true);
+        AccessPath bestPath=mock(AccessPath.class);
+        when(bestPath.getCostEstimate()).thenReturn(new SimpleCostEstimate(rows,rows,rows));
+        when(table.getBestAccessPath()).thenReturn(bestPath);
+        return table;
+    }
+
+    /* an equality between a column of each of the two tables */
+    private Predicate joinPredicate(int numTables,double selectivity,int... tables){
+        BinaryRelationalOperatorNode equality=mock(BinaryRelationalOperatorNode.class);
+        when(equality.getLeftOperand()).thenReturn(column(tables[0]));
+        when(equality.getRightOperand()).thenReturn(column(tables[1]));
+        AndNode andNode=mock(AndNode.class);
+        when(andNode.getLeftOperand()).thenReturn(equality);
+        Predicate predicate=new Predicate();
+        predicate.init(andNode,tableMap(numTables,tables));
+        selectivities.put(predicate,selectivity);
+        return predicate;
+    }
+
+    private static ColumnReference column(int tableNumber){
+        ColumnReference column=mock(ColumnReference.class);
+        when(column.getTableNumber()).thenReturn(tableNumber);
+        when(column.getHashableJoinColumnReference()).thenReturn(Collections.singletonList(column));
+        return column;
+    }
+
+    private Optimizer optimizer(JoinStrategy.JoinStrategyType strategyType) throws Exception{
+        Optimizer optimizer=mock(Optimizer.class);
+        when(optimizer.getNewCostEstimate(anyDouble(),anyDouble(),anyDouble())).thenAnswer(invocation->{
+            Object[] args=invocation.getArguments();
+            return new SimpleCostEstimate((Double)args[0],(Double)args[1],(Double)args[2]);
+        });
+        JoinStrategy strategy=joinStrategy(strategyType);
+        when(optimizer.getNumberOfJoinStrategies()).thenReturn(1);
+        when(optimizer.getJoinStrategy(0)).thenReturn(strategy);
+        return optimizer;
+    }
+
+    private JoinStrategy joinStrategy(JoinStrategy.JoinStrategyType strategyType) throws Exception{
+        JoinStrategy strategy=mock(JoinStrategy.class);
+        when(strategy.getJoinStrategyType()).thenReturn(strategyType);
+        doAnswer(invocation->{
+            Object[] args=invocation.getArguments();
+            OptimizablePredicateList predicates=(OptimizablePredicateList)args[1];
+            CostEstimate outerCost=(CostEstimate)args[3];
+            CostEstimate innerCost=(CostEstimate)args[5];
+            double selectivity=1.0d;
+            for(int i=0;i<predicates.size();i++){
+                selectivity*=selectivities.get(predicates.getOptPredicate(i));
+            }
+            double joinedRows=Math.max(outerCost.rowCount()*innerCost.rowCount()*selectivity,1.0d);
+            innerCost.setLocalCost(innerCost.localCost()+outerCost.rowCount()+joinedRows);
+            innerCost.setRowCount(joinedRows);
+            return null;
+        }).when(strategy).estimateCost(any(Optimizable.class),any(OptimizablePredicateList.class),
+                any(ConglomerateDescriptor.class),any(CostEstimate.class),any(Optimizer.class),any(CostEstimate.class));
+        return strategy;
+    }
+
+    private static JBitSet tableMap(int numTables,int... tables){
+        JBitSet map=new JBitSet(numTables);
+        for(int table:tables){
+            map.set(table);
+        }
+        return map;
+    }
+
+    private static int[] toArray(List<Integer> values){
+        int[] array=new int[values.size()];
+        for(int i=0;i<array.length;i++){
+            array[i]=values.get(i);
+        }
+        return array;
+    }
+}
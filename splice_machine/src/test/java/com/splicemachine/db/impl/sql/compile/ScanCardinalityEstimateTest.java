@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.db.impl.sql.compile;
+
+import com.splicemachine.EngineDriver;
+import com.splicemachine.SqlEnvironment;
+import com.splicemachine.access.api.SConfiguration;
+import com.splicemachine.db.catalog.UUID;
+import com.splicemachine.db.iapi.sql.compile.Optimizable;
+import com.splicemachine.db.iapi.sql.compile.RelationalOperator;
+import com.splicemachine.db.iapi.sql.compile.Visitor;
+import com.splicemachine.db.iapi.sql.dictionary.ConglomerateDescriptor;
+import com.splicemachine.db.iapi.sql.dictionary.DataDescriptorGenerator;
+import com.splicemachine.db.iapi.store.access.StoreCostController;
+import com.splicemachine.db.iapi.util.JBitSet;
+import com.splicemachine.db.impl.services.uuid.BasicUUID;
+import com.splicemachine.derby.impl.sql.compile.SimpleCostEstimate;
+import com.splicemachine.derby.impl.sql.compile.costing.V1ScanCostEstimator;
+import com.splicemachine.derby.impl.stats.CardinalityFeedback;
+import com.splicemachine.si.testenv.ArchitectureIndependent;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link ScanCardinalityEstimate}, and for how {@link V1ScanCostEstimator} corrects its estimates
+ * with what {@link CardinalityFeedback} learnt.
+ */
+@Category(ArchitectureIndependent.class)
+public class ScanCardinalityEstimateTest {
+    private static final long CONGLOMERATE = 1568L;
+
+    @After
+    public void clear() {
+        CardinalityFeedback.clear();
+        EngineDriver.shutdownDriver();
+    }
+
+    @Test
+    public void predicateShapeLeavesOutValuesAndOtherTables() throws Exception {
+        Predicate lessThan = predicate(RelationalOperator.LESS_THAN_RELOP, column(0, 3));
+        Predicate equals = predicate(RelationalOperator.EQUALS_RELOP, column(0, 1));
+        Predicate in = inListPredicate(column(0, 2));
+        // a join predicate restricts the table by its own column only
+        Predicate join = predicate(RelationalOperator.EQUALS_RELOP, column(1, 5), column(0, 4));
+
+        String shape = ScanCardinalityEstimate.predicateShape(0, Arrays.asList(lessThan, equals, in, join));
+        Assert.assertEquals("<(3) AND =(1) AND =(4) AND IN(2)", shape);
+        Assert.assertEquals("Predicates should be listed in a canonical order", shape,
+                ScanCardinalityEstimate.predicateShape(0, Arrays.asList(join, in, equals, lessThan)));
+        Assert.assertEquals("", ScanCardinalityEstimate.predicateShape(0, Collections.<Predicate>emptyList()));
+    }
+
+    @Test
+    public void predicateShapeListsEveryColumnOfAPredicate() throws Exception {
+        Predicate predicate = predicate(RelationalOperator.GREATER_EQUALS_RELOP, column(0, 7), column(0, 2));
+        Assert.assertEquals(">=(2,7)", ScanCardinalityEstimate.predicateShape(0, Collections.singletonList(predicate)));
+    }
+
+    @Test
+    public void scanEstimateIsLeftAloneWithoutFeedback() throws Exception {
+        loadDriver(false);
+        SimpleCostEstimate scanCost = generateCost(0.01d);
+        Assert.assertEquals(100L, scanCost.getEstimatedRowCount());
+        Assert.assertNull(scanCost.getScanCardinality());
+    }
+
+    @Test
+    public void scanEstimateIsCorrectedByFeedback() throws Exception {
+        loadDriver(true);
+        SimpleCostEstimate scanCost = generateCost(0.01d);
+        Assert.assertEquals("Nothing was observed yet", 100L, scanCost.getEstimatedRowCount());
+        ScanCardinalityEstimate estimate = scanCost.getScanCardinality();
+        Assert.assertEquals(CONGLOMERATE, estimate.getConglomerateId());
+        Assert.assertEquals(100d, estimate.getEstimatedRows(), 0.0d);
+        Assert.assertEquals(1.0d, estimate.getCorrection(), 0.0d);
+
+        CardinalityFeedback.record(estimate, 1000d);
+        double correction = 1001d / 101d;
+        scanCost = generateCost(0.01d);
+        Assert.assertEquals(Math.round(10000 * 0.01d * correction), scanCost.getEstimatedRowCount());
+        Assert.assertEquals("The estimate before correction should be kept",
+                100d, scanCost.getScanCardinality().getEstimatedRows(), 0.0d);
+        Assert.assertEquals(correction, scanCost.getScanCardinality().getCorrection(), 1e-9);
+        Assert.assertEquals("The scan cannot read fewer rows than it returns",
+                10000d, scanCost.getScannedBaseTableRows(), 0.0d);
+    }
+
+    @Test
+    public void correctedScanEstimateIsBoundedByTheTable() throws Exception {
+        loadDriver(true);
+        CardinalityFeedback.record(generateCost(0.5d).getScanCardinality(), 1e9);
+        Assert.assertEquals(10000L, generateCost(0.5d).getEstimatedRowCount());
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+
+    private static void loadDriver(boolean cardinalityFeedbackEnabled) {
+        SConfiguration config = mock(SConfiguration.class);
+        when(config.getCardinalityFeedbackEnabled()).thenReturn(cardinalityFeedbackEnabled);
+        when(config.getCardinalityFeedbackMaxEntries()).thenReturn(100);
+        SqlEnvironment environment = mock(SqlEnvironment.class);
+        when(environment.getConfiguration()).thenReturn(config);
+        EngineDriver.loadDriver(environment);
+    }
+
+    /* the cost of scanning a table of 10000 rows restricted on its first column with {@code selectivity} */
+    private static SimpleCostEstimate generateCost(double selectivity) throws Exception {
+        Optimizable baseTable = mock(Optimizable.class);
+        UUID uuid = new BasicUUID("08264012-014b-c29b-a826-000003009390");
+        ConglomerateDescriptor cd = new DataDescriptorGenerator(null).newConglomerateDescriptor(CONGLOMERATE, "T",
+                false, null, false, uuid, uuid, uuid);
+        StoreCostController scc = mock(StoreCostController.class);
+        when(scc.baseRowCount()).thenReturn(10000d);
+        ResultColumnList resultColumns = new ResultColumnList();
+        resultColumns.addElement(mock(ResultColumn.class));
+        resultColumns.addElement(mock(ResultColumn.class));
+        BitSet baseColumnsInScan = new BitSet();
+        baseColumnsInScan.set(0, 2);
+
+        SimpleCostEstimate scanCost = new SimpleCostEstimate();
+        V1ScanCostEstimator estimator = new V1ScanCostEstimator(baseTable, cd, scc, scanCost, resultColumns, null,
+                baseColumnsInScan, null, false, new HashSet<>());
+        estimator.addSelectivity(new ConstantSelectivity(selectivity, 1, QualifierPhase.FILTER_BASE),
+                AbstractScanCostEstimator.SCAN);
+        estimator.generateCost(0);
+        return scanCost;
+    }
+
+    private static ColumnReference column(int tableNumber, int columnNumber) {
+        ColumnReference column = mock(ColumnReference.class);
+        when(column.getTableNumber()).thenReturn(tableNumber);
+        when(column.getColumnNumber()).thenReturn(columnNumber);
+        return column;
+    }
+
+    private static Predicate predicate(int operator, ColumnReference... columns) throws Exception {
+        BinaryRelationalOperatorNode operand = operand(columns);
+        when(operand.getOperator()).thenReturn(operator);
+        return predicate(operand);
+    }
+
+    /* an IN list probed as an equality */
+    private static Predicate inListPredicate(ColumnReference column) throws Exception {
+        BinaryRelationalOperatorNode operand = operand(column);
+        when(operand.getOperator()).thenReturn(RelationalOperator.EQUALS_RELOP);
+        when(operand.isInListProbeNode()).thenReturn(true);
+        when(operand.getInListOp()).thenReturn(new InListOperatorNode());
+        return predicate(operand);
+    }
+
+    private static Predicate predicate(ValueNode operand) {
+        AndNode andNode = mock(AndNode.class);
+        when(andNode.getLeftOperand()).thenReturn(operand);
+        Predicate predicate = new Predicate();
+        predicate.init(andNode, new JBitSet(2));
+        return predicate;
+    }
+
+    /* an operator whose operands are {@code columns} and values */
+    private static BinaryRelationalOperatorNode operand(ColumnReference... columns) throws Exception {
+        BinaryRelationalOperatorNode operand = mock(BinaryRelationalOperatorNode.class);
+        doAnswer(invocation -> {
+            Visitor visitor = (Visitor) invocation.getArguments()[0];
+            for (ColumnReference column : columns)
+                visitor.visit(column, operand);
+            return null;
+        }).when(operand).acceptChildren(any(Visitor.class));
+        return operand;
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.impl.sql.execute.index;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BackfillThrottleTest {
+
+    @Test
+    public void growsFromTheMinimumToTheMaximumRate() {
+        BackfillThrottle throttle = new BackfillThrottle(10000, 500, 2.0, 0.75, () -> 0d);
+        Assert.assertEquals(500, throttle.getRate(), 0.001);
+        throttle.record(1000, TimeUnit.MILLISECONDS.toNanos(10));
+        Assert.assertEquals(1000, throttle.getRate(), 0.001);
+        for (int i = 0; i < 50; i++)
+            throttle.record(1000, TimeUnit.MILLISECONDS.toNanos(10));
+        Assert.assertEquals("The rate should be capped", 10000, throttle.getRate(), 0.001);
+    }
+
+    @Test
+    public void halvesTheRateWhenWritesGetSlower() {
+        BackfillThrottle throttle = new BackfillThrottle(10000, 500, 2.0, 0.75, () -> 0d);
+        for (int i = 0; i < 50; i++)
+            throttle.record(1000, TimeUnit.MILLISECONDS.toNanos(10));
+        throttle.record(1000, TimeUnit.MILLISECONDS.toNanos(15));
+        Assert.assertEquals("A slowdown within the latency factor should be tolerated", 10000, throttle.getRate(), 0.001);
+        for (int i = 0; i < 10; i++)
+            throttle.record(1000, TimeUnit.MILLISECONDS.toNanos(100));
+        Assert.assertTrue("The rate should have been halved", throttle.getRate() < 10000);
+        Assert.assertEquals("The rate should not go below the minimum", 500, throttle.getRate(), 0.001);
+    }
+
+    @Test
+    public void recoversOnceWritesAreFastAgain() {
+        BackfillThrottle throttle = new BackfillThrottle(10000, 500, 2.0, 0.75, () -> 0d);
+        throttle.record(1000, TimeUnit.MILLISECONDS.toNanos(10));
+        for (int i = 0; i < 10; i++)
+            throttle.record(1000, TimeUnit.MILLISECONDS.toNanos(100));
+        double slow = throttle.getRate();
+        for (int i = 0; i < 5; i++)
+            throttle.record(1000, TimeUnit.MILLISECONDS.toNanos(10));
+        Assert.assertTrue("The rate should grow again", throttle.getRate() > slow);
+    }
+
+    @Test
+    public void pacesRowsAtTheCurrentRate() throws Exception {
+        BackfillThrottle throttle = new BackfillThrottle(1000, 1000, 2.0, 0.75, () -> 0d);
+        long start = System.nanoTime();
+        for (int i = 0; i < 5; i++)
+            throttle.acquire(100);
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        Assert.assertTrue("500 rows at 1000 rows/s should take 400ms at least, took " + elapsed, elapsed >= 390);
+    }
+
+    @Test
+    public void pausesWhileWritesAreSaturated() throws Exception {
+        AtomicInteger polls = new AtomicInteger();
+        BackfillThrottle throttle = new BackfillThrottle(10000, 10000, 2.0, 0.75,
+                () -> polls.incrementAndGet() <= 3 ? 0.9d : 0.1d);
+        long start = System.nanoTime();
+        throttle.acquire(1);
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        Assert.assertTrue("The backfill should have paused, took " + elapsed, elapsed >= 3 * BackfillThrottle.PAUSE_MILLIS);
+        Assert.assertFalse(throttle.isPaused());
+    }
+}
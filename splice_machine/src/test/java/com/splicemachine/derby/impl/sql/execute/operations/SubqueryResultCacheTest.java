@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.impl.sql.execute.operations;
+
+import com.splicemachine.db.iapi.sql.execute.ExecRow;
+import com.splicemachine.db.iapi.types.DataValueDescriptor;
+import com.splicemachine.db.iapi.types.SQLInteger;
+import com.splicemachine.db.iapi.types.SQLVarchar;
+import com.splicemachine.db.impl.sql.execute.ValueRow;
+import com.splicemachine.si.testenv.ArchitectureIndependent;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import static org.junit.Assert.*;
+
+@Category(ArchitectureIndependent.class)
+public class SubqueryResultCacheTest {
+
+    private static ExecRow row(int value) {
+        ValueRow row = new ValueRow(1);
+        row.setColumn(1, new SQLInteger(value));
+        return row;
+    }
+
+    @Test
+    public void testHitsAndMisses() throws Exception {
+        SubqueryResultCache cache = new SubqueryResultCache(1024 * 1024);
+        assertNull(cache.get(new DataValueDescriptor[]{new SQLInteger(1)}));
+        cache.put(new DataValueDescriptor[]{new SQLInteger(1)}, row(10));
+
+        ExecRow cached = cache.get(new DataValueDescriptor[]{new SQLInteger(1)});
+        assertNotNull(cached);
+        assertEquals(10, cached.getColumn(1).getInt());
+        assertNull(cache.get(new DataValueDescriptor[]{new SQLInteger(2)}));
+
+        assertEquals(1, cache.hitCount());
+        assertEquals(2, cache.missCount());
+    }
+
+    @Test
+    public void testNullKeysMatch() throws Exception {
+        SubqueryResultCache cache = new SubqueryResultCache(1024 * 1024);
+        cache.put(new DataValueDescriptor[]{new SQLInteger()}, row(7));
+        assertNotNull(cache.get(new DataValueDescriptor[]{new SQLInteger()}));
+        assertNull(cache.get(new DataValueDescriptor[]{new SQLInteger(0)}));
+    }
+
+    @Test
+    public void testTrailingBlanksAreDistinctKeys() throws Exception {
+        SubqueryResultCache cache = new SubqueryResultCache(1024 * 1024);
+        cache.put(new DataValueDescriptor[]{new SQLVarchar("a")}, row(1));
+        assertNull(cache.get(new DataValueDescriptor[]{new SQLVarchar("a  ")}));
+        assertNotNull(cache.get(new DataValueDescriptor[]{new SQLVarchar("a")}));
+    }
+
+    @Test
+    public void testMemoryBoundEvicts() throws Exception {
+        SubqueryResultCache cache = new SubqueryResultCache(2048);
+        for (int i = 0; i < 1000; i++) {
+            cache.put(new DataValueDescriptor[]{new SQLInteger(i)}, row(i));
+        }
+        assertTrue(cache.size() < 1000);
+        assertTrue(cache.evictionCount() > 0);
+        assertNotNull(cache.get(new DataValueDescriptor[]{new SQLInteger(999)}));
+    }
+}
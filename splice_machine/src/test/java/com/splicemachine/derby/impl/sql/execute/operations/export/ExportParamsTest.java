@@ -85,6 +85,13 @@ public class ExportParamsTest {
         assertEquals(ExportFile.COMPRESSION.GZ, params2.getCompression());
     }
 
+    @Test
+    public void constructor_lz4AndZstdCompression() throws StandardException {
+        assertEquals(ExportFile.COMPRESSION.LZ4, new ExportParams("/dir", "lz4", "csv", -1, null, null, null, null, null, null).getCompression());
+        assertEquals(ExportFile.COMPRESSION.ZSTD, new ExportParams("/dir", "ZSTD", "csv", -1, null, null, null, null, null, null).getCompression());
+        assertEquals(ExportFile.COMPRESSION.ZSTD, new ExportParams("/dir", "zstandard", "csv", -1, null, null, null, null, null, null).getCompression());
+    }
+
     @Test
     public void constructor_badExportDirectory() {
         try {
@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.impl.sql.execute.operations.scanner;
+
+import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.db.iapi.sql.execute.ExecAggregator;
+import com.splicemachine.db.iapi.sql.execute.ExecRow;
+import com.splicemachine.db.iapi.types.DataValueDescriptor;
+import com.splicemachine.db.iapi.types.SQLInteger;
+import com.splicemachine.db.iapi.types.SQLLongint;
+import com.splicemachine.db.iapi.types.UserType;
+import com.splicemachine.db.impl.sql.execute.CountAggregator;
+import com.splicemachine.db.impl.sql.execute.LongBufferedSumAggregator;
+import com.splicemachine.db.impl.sql.execute.ValueRow;
+import com.splicemachine.derby.impl.sql.execute.operations.framework.SpliceGenericAggregator;
+import com.splicemachine.derby.stream.iapi.DataSet;
+import com.splicemachine.primitives.Bytes;
+import com.splicemachine.si.api.txn.TxnView;
+import com.splicemachine.storage.DataScan;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ScanAggregationTest {
+    /* the source row of the aggregate: the group column, then COUNT(*) and SUM(B) as (result, input, aggregator) */
+    private static final int GROUP = 1;
+    private static final int COUNT_AGGREGATOR = 4;
+    private static final int SUM_AGGREGATOR = 7;
+
+    @Test
+    public void aggregatesEveryRowIntoOneGroupWhenScalar() throws Exception {
+        ScanAggregation.Accumulator accumulator = aggregation(false, 100).newAccumulator();
+        for (int i = 0; i < 10; i++)
+            accumulator.accumulate(scanRow(i));
+        Assert.assertFalse(accumulator.hasFlushed());
+        accumulator.flush();
+        List<ExecRow> rows = accumulator.takeFlushed();
+        Assert.assertEquals(1, rows.size());
+        Assert.assertEquals(10L, result(rows.get(0), COUNT_AGGREGATOR));
+        Assert.assertEquals(45L, result(rows.get(0), SUM_AGGREGATOR));
+        Assert.assertArrayEquals("Partial rows should carry the key of the last row", Bytes.toBytes(9), rows.get(0).getKey());
+        Assert.assertTrue(accumulator.isEmpty());
+    }
+
+    @Test
+    public void flushesWhenTheGroupsAreFull() throws Exception {
+        ScanAggregation.Accumulator accumulator = aggregation(true, 2).newAccumulator();
+        Map<Integer, long[]> totals = new HashMap<>();
+        int flushes = 0;
+        for (int i = 0; i < 30; i++) {
+            accumulator.accumulate(scanRow(i));
+            if (accumulator.hasFlushed()) {
+                flushes++;
+                add(totals, accumulator.takeFlushed());
+            }
+        }
+        accumulator.flush();
+        add(totals, accumulator.takeFlushed());
+        Assert.assertTrue("Three groups should not fit in two", flushes > 0);
+        assertTotals(totals, 30);
+    }
+
+    @Test
+    public void mergesPartialRowsOfOtherAggregations() throws Exception {
+        ScanAggregation aggregation = aggregation(true, 100);
+        ScanAggregation.Accumulator server = aggregation.newAccumulator();
+        for (int i = 0; i < 15; i++)
+            server.accumulate(scanRow(i));
+        server.flush();
+        byte[] encoded = ScanAggregation.encodePartialRows(server.takeFlushed());
+
+        ScanAggregation.Accumulator client = aggregation.newAccumulator();
+        for (ExecRow partialRow : ScanAggregation.decodePartialRows(encoded))
+            client.merge(partialRow);
+        for (int i = 15; i < 30; i++)
+            client.accumulate(scanRow(i));
+        client.flush();
+        List<ExecRow> rows = client.takeFlushed();
+        Assert.assertEquals("Partial rows should be merged into the groups they belong to", 3, rows.size());
+        Map<Integer, long[]> totals = new HashMap<>();
+        add(totals, rows);
+        assertTotals(totals, 30);
+    }
+
+    @Test
+    public void scanAttributeRoundTrips() throws Exception {
+        ScanBuilder builder = new ScanBuilder();
+        builder.template(new ValueRow(new DataValueDescriptor[]{new SQLInteger(), new SQLInteger()}));
+        builder.baseColumnMap(new int[]{0, 1});
+        byte[] attribute = aggregation(true, 100).toScanAttribute(builder);
+
+        ScanBuilder read = new ScanBuilder();
+        ScanAggregation.Accumulator accumulator = ScanAggregation.fromScanAttribute(attribute, read).newAccumulator();
+        Assert.assertEquals(2, read.getTemplate().nColumns());
+        Assert.assertArrayEquals(new int[]{0, 1}, read.getBaseColumnMap());
+        for (int i = 0; i < 30; i++)
+            accumulator.accumulate(scanRow(i));
+        accumulator.flush();
+        Map<Integer, long[]> totals = new HashMap<>();
+        add(totals, accumulator.takeFlushed());
+        assertTotals(totals, 30);
+    }
+
+    @Test(expected = InvalidClassException.class)
+    public void scanAttributeRefusesOtherClasses() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(new HashMap<String, String>());
+        }
+        ScanAggregation.fromScanAttribute(bytes.toByteArray(), new ScanBuilder());
+    }
+
+    @Test(expected = InvalidClassException.class)
+    public void partialRowsRefuseOtherClasses() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeInt(1);
+            out.writeObject(new ArrayList<String>());
+        }
+        ScanAggregation.decodePartialRows(bytes.toByteArray());
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+
+    private static ScanAggregation aggregation(boolean grouped, int maxGroups) throws StandardException {
+        ExecRow template = new ValueRow(new DataValueDescriptor[]{
+                new SQLInteger(),
+                new SQLLongint(), new SQLInteger(), new UserType(),
+                new SQLLongint(), new SQLInteger(), new UserType()});
+        ExecAggregator count = new CountAggregator().setup(null, "COUNT(*)", null);
+        SpliceGenericAggregator[] aggregators = new SpliceGenericAggregator[]{
+                new SpliceGenericAggregator(count, COUNT_AGGREGATOR, 3, 2),
+                new SpliceGenericAggregator(new LongBufferedSumAggregator(64), SUM_AGGREGATOR, 6, 5)
+        };
+        int[] groupColumns = grouped ? new int[]{GROUP} : new int[0];
+        int[] groupScanColumns = grouped ? new int[]{1} : new int[0];
+        return new ScanAggregation(template, groupColumns, groupScanColumns, aggregators, new int[]{0, 2}, maxGroups);
+    }
+
+    /* a row of the scanned table, (A, B) = (i % 3, i) */
+    private static ExecRow scanRow(int i) {
+        ExecRow row = new ValueRow(new DataValueDescriptor[]{new SQLInteger(i % 3), new SQLInteger(i)});
+        row.setKey(Bytes.toBytes(i));
+        return row;
+    }
+
+    private static long result(ExecRow row, int aggregatorColumn) throws StandardException {
+        return ((ExecAggregator) row.getColumn(aggregatorColumn).getObject()).getResult().getLong();
+    }
+
+    private static void add(Map<Integer, long[]> totals, List<ExecRow> rows) throws StandardException {
+        for (ExecRow row : rows) {
+            long[] total = totals.computeIfAbsent(row.getColumn(GROUP).getInt(), g -> new long[2]);
+            total[0] += result(row, COUNT_AGGREGATOR);
+            total[1] += result(row, SUM_AGGREGATOR);
+        }
+    }
+
+    private static void assertTotals(Map<Integer, long[]> totals, int rows) {
+        Assert.assertEquals(3, totals.size());
+        for (int group = 0; group < 3; group++) {
+            long count = 0;
+            long sum = 0;
+            for (int i = group; i < rows; i += 3) {
+                count++;
+                sum += i;
+            }
+            Assert.assertEquals("count of group " + group, count, totals.get(group)[0]);
+            Assert.assertEquals("sum of group " + group, sum, totals.get(group)[1]);
+        }
+    }
+
+    /* a builder leaving out the scan and the transaction, which need a running driver */
+    private static class ScanBuilder extends TableScannerBuilder<ExecRow> {
+        @Override
+        public DataSet<ExecRow> buildDataSet() throws StandardException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected void writeTxn(ObjectOutput out) {
+        }
+
+        @Override
+        protected void writeScan(ObjectOutput out) {
+        }
+
+        @Override
+        protected TxnView readTxn(ObjectInput in) {
+            return null;
+        }
+
+        @Override
+        protected DataScan readScan(ObjectInput in) {
+            return null;
+        }
+    }
+}
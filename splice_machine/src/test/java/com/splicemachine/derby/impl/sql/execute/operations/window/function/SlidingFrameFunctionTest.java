@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.impl.sql.execute.operations.window.function;
+
+import com.splicemachine.db.iapi.services.io.FormatableHashtable;
+import com.splicemachine.db.iapi.types.DataValueDescriptor;
+import com.splicemachine.db.iapi.types.SQLDouble;
+import com.splicemachine.db.iapi.types.SQLInteger;
+import com.splicemachine.db.iapi.types.SQLLongint;
+import com.splicemachine.si.testenv.ArchitectureIndependent;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compares MAX, MIN, SUM, AVG and COUNT over sliding frames with a brute force evaluation
+ * of the frame contents.
+ */
+@Category(ArchitectureIndependent.class)
+public class SlidingFrameFunctionTest {
+
+    private static final int[] FRAME_SIZES = {1, 2, 7, 99, 100, 101, 250};
+
+    @Test
+    public void testMax() throws Exception {
+        for (int frameSize : FRAME_SIZES) {
+            helpTest("MAX", new MaxMinAggregator(), new SQLInteger(), frameSize);
+        }
+    }
+
+    @Test
+    public void testMin() throws Exception {
+        for (int frameSize : FRAME_SIZES) {
+            helpTest("MIN", new MaxMinAggregator(), new SQLInteger(), frameSize);
+        }
+    }
+
+    @Test
+    public void testSum() throws Exception {
+        for (int frameSize : FRAME_SIZES) {
+            helpTest("SUM", new SumAggregator(), new SQLLongint(), frameSize);
+        }
+    }
+
+    @Test
+    public void testAvg() throws Exception {
+        for (int frameSize : FRAME_SIZES) {
+            helpTest("AVG", new AvgAggregator(), new SQLDouble(), frameSize);
+        }
+    }
+
+    @Test
+    public void testCount() throws Exception {
+        for (int frameSize : FRAME_SIZES) {
+            helpTest("COUNT", new CountAggregator(), new SQLLongint(), frameSize);
+        }
+    }
+
+    @Test
+    public void testEmptyAndAllNullFrames() throws Exception {
+        MaxMinAggregator max = (MaxMinAggregator) new MaxMinAggregator().setup(null, "MAX", null, (FormatableHashtable) null).newWindowFunction();
+        max.setResultType(new SQLInteger());
+        assertNull(max.getResult());
+        max.accumulate(new DataValueDescriptor[]{new SQLInteger()});
+        assertTrue(max.getResult().isNull());
+        max.accumulate(new DataValueDescriptor[]{new SQLInteger(3)});
+        assertEquals(3, max.getResult().getInt());
+        max.remove();
+        assertEquals(3, max.getResult().getInt());
+        max.remove();
+        assertNull(max.getResult());
+
+        SumAggregator sum = new SumAggregator();
+        sum.setResultType(new SQLLongint());
+        sum.accumulate(new DataValueDescriptor[]{new SQLInteger(5)});
+        sum.accumulate(new DataValueDescriptor[]{new SQLInteger()});
+        sum.remove();
+        assertTrue(sum.getResult().isNull());
+    }
+
+    private void helpTest(String name, SpliceGenericWindowFunction prototype, DataValueDescriptor resultType,
+                          int frameSize) throws Exception {
+        SpliceGenericWindowFunction function = (SpliceGenericWindowFunction) prototype.setup(null, name, null, (FormatableHashtable) null).newWindowFunction();
+        function.setResultType(resultType);
+        Random random = new Random(frameSize);
+        List<Integer> frame = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            Integer value = random.nextInt(10) == 0 ? null : random.nextInt(1000) - 500;
+            function.accumulate(new DataValueDescriptor[]{value == null ? new SQLInteger() : new SQLInteger(value)});
+            frame.add(value);
+            if (frame.size() > frameSize) {
+                function.remove();
+                frame.remove(0);
+            }
+            check(name, frame, function.getResult());
+        }
+        // drain the frame, as for frames ending after the current row
+        while (!frame.isEmpty()) {
+            function.remove();
+            frame.remove(0);
+            if (!frame.isEmpty())
+                check(name, frame, function.getResult());
+        }
+        function.reset();
+        assertEquals(name + " after reset", "COUNT".equals(name) ? Long.valueOf(0) : null,
+                function.getResult() == null ? null : function.getResult().getLong());
+    }
+
+    private static void check(String name, List<Integer> frame, DataValueDescriptor result) throws Exception {
+        String message = name + " over " + frame;
+        long count = 0;
+        long sum = 0;
+        Integer max = null, min = null;
+        for (Integer v : frame) {
+            if (v == null)
+                continue;
+            count++;
+            sum += v;
+            max = max == null || v > max ? v : max;
+            min = min == null || v < min ? v : min;
+        }
+        assertNotNull(message, result);
+        switch (name) {
+            case "COUNT":
+                assertEquals(message, frame.size(), result.getLong());
+                break;
+            case "MAX":
+                assertEquals(message, max, result.isNull() ? null : result.getInt());
+                break;
+            case "MIN":
+                assertEquals(message, min, result.isNull() ? null : result.getInt());
+                break;
+            case "SUM":
+                assertEquals(message, count == 0 ? null : sum, result.isNull() ? null : result.getLong());
+                break;
+            case "AVG":
+                if (count == 0)
+                    assertTrue(message, result.isNull());
+                else
+                    assertEquals(message, (double) sum / count, result.getDouble(), 1e-9);
+                break;
+            default:
+                fail("unknown function " + name);
+        }
+    }
+}
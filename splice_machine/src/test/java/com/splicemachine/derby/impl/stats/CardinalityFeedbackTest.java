@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.impl.stats;
+
+import com.splicemachine.db.impl.sql.compile.ScanCardinalityEstimate;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CardinalityFeedbackTest {
+
+    @After
+    public void clear() {
+        CardinalityFeedback.clear();
+    }
+
+    @Test
+    public void correctsTowardsObservedRows() {
+        ScanCardinalityEstimate estimate = new ScanCardinalityEstimate(1568L, "=(1)", 99d, 1.0d);
+        Assert.assertEquals(1.0d, CardinalityFeedback.correction(1568L, "=(1)"), 0.0d);
+        CardinalityFeedback.record(estimate, 999d, 100);
+        Assert.assertEquals(10.0d, CardinalityFeedback.correction(1568L, "=(1)"), 1e-9);
+        for (int i = 0; i < 20; i++)
+            CardinalityFeedback.record(estimate, 99d, 100);
+        Assert.assertEquals("The correction should decay once estimates are right again",
+                1.0d, CardinalityFeedback.correction(1568L, "=(1)"), 0.01d);
+        Assert.assertEquals("Other shapes should not be corrected", 1.0d, CardinalityFeedback.correction(1568L, ">(1)"), 0.0d);
+    }
+
+    @Test
+    public void boundsCorrections() {
+        CardinalityFeedback.record(new ScanCardinalityEstimate(1568L, "=(1)", 0d, 1.0d), 1e9, 100);
+        Assert.assertEquals(CardinalityFeedback.MAX_CORRECTION, CardinalityFeedback.correction(1568L, "=(1)"), 1e-6);
+        CardinalityFeedback.record(new ScanCardinalityEstimate(1584L, "=(1)", 1e9, 1.0d), 0d, 100);
+        Assert.assertEquals(1 / CardinalityFeedback.MAX_CORRECTION, CardinalityFeedback.correction(1584L, "=(1)"), 1e-9);
+    }
+
+    @Test
+    public void forgetsLeastRecentlyObserved() {
+        CardinalityFeedback.record(new ScanCardinalityEstimate(1L, "=(1)", 10d, 1.0d), 100d, 2);
+        CardinalityFeedback.record(new ScanCardinalityEstimate(2L, "=(1)", 10d, 1.0d), 100d, 2);
+        CardinalityFeedback.record(new ScanCardinalityEstimate(1L, "=(1)", 10d, 1.0d), 100d, 2);
+        CardinalityFeedback.record(new ScanCardinalityEstimate(3L, "=(1)", 10d, 1.0d), 100d, 2);
+        Assert.assertEquals(2, CardinalityFeedback.entries().size());
+        Assert.assertEquals(1.0d, CardinalityFeedback.correction(2L, "=(1)"), 0.0d);
+        Assert.assertNotEquals(1.0d, CardinalityFeedback.correction(1L, "=(1)"), 0.0d);
+        Assert.assertNotEquals(1.0d, CardinalityFeedback.correction(3L, "=(1)"), 0.0d);
+    }
+
+    @Test
+    public void forgetsTheCorrectionsOfAConglomerate() {
+        CardinalityFeedback.record(new ScanCardinalityEstimate(1L, "=(1)", 10d, 1.0d), 100d, 100);
+        CardinalityFeedback.record(new ScanCardinalityEstimate(1L, ">(2)", 10d, 1.0d), 100d, 100);
+        CardinalityFeedback.record(new ScanCardinalityEstimate(2L, "=(1)", 10d, 1.0d), 100d, 100);
+        CardinalityFeedback.forget(1L);
+        Assert.assertEquals(1, CardinalityFeedback.entries().size());
+        Assert.assertEquals(1.0d, CardinalityFeedback.correction(1L, "=(1)"), 0.0d);
+        Assert.assertEquals(1.0d, CardinalityFeedback.correction(1L, ">(2)"), 0.0d);
+        Assert.assertNotEquals(1.0d, CardinalityFeedback.correction(2L, "=(1)"), 0.0d);
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.impl.storage;
+
+import com.splicemachine.db.iapi.sql.execute.ExecRow;
+import com.splicemachine.db.iapi.types.DataValueDescriptor;
+import com.splicemachine.db.iapi.types.SQLInteger;
+import com.splicemachine.db.impl.sql.execute.ValueRow;
+import org.junit.Assert;
+import org.junit.Test;
+import scala.Tuple2;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.*;
+
+public class ExternalIndexSorterTest {
+    private static final List<String> BUCKETS = Arrays.asList("", rowId(100), rowId(200));
+
+    @Test
+    public void sortsEachBucketInMemory() throws Exception {
+        try (ExternalIndexSorter sorter = new ExternalIndexSorter(BUCKETS, 1000, null)) {
+            addShuffled(sorter, 300, 1);
+            Assert.assertEquals(0, sorter.getSpills());
+            for (int b = 0; b < 3; b++)
+                assertBucket(sorter.sorted(b), b * 100, (b + 1) * 100, 1);
+        }
+    }
+
+    @Test
+    public void spillsAndMergesSortedRuns() throws Exception {
+        try (ExternalIndexSorter sorter = new ExternalIndexSorter(BUCKETS, 25, null)) {
+            addShuffled(sorter, 300, 2);
+            Assert.assertEquals(600, sorter.getRows());
+            Assert.assertTrue("Rows beyond the limit should have been spilled", sorter.getSpills() > 0);
+            for (int b = 2; b >= 0; b--)
+                assertBucket(sorter.sorted(b), b * 100, (b + 1) * 100, 2);
+        }
+    }
+
+    @Test
+    public void putsRowIdsBeforeTheFirstBucketInIt() throws Exception {
+        List<String> buckets = Arrays.asList(rowId(50), rowId(200));
+        try (ExternalIndexSorter sorter = new ExternalIndexSorter(buckets, 1000, null)) {
+            addShuffled(sorter, 300, 1);
+            assertBucket(sorter.sorted(0), 0, 200, 1);
+            assertBucket(sorter.sorted(1), 200, 300, 1);
+        }
+    }
+
+    @Test
+    public void closeDeletesSpilledRuns() throws Exception {
+        File directory = Files.createTempDirectory("ExternalIndexSorterTest").toFile();
+        try {
+            ExternalIndexSorter sorter = new ExternalIndexSorter(BUCKETS, 10, directory);
+            addShuffled(sorter, 300, 1);
+            Iterator<Tuple2<String, Tuple2<byte[], ExecRow>>> partial = sorter.sorted(1);
+            partial.next();
+            Assert.assertTrue(Objects.requireNonNull(directory.list()).length > 0);
+            sorter.close();
+            Assert.assertEquals(0, Objects.requireNonNull(directory.list()).length);
+        } finally {
+            Assert.assertTrue(directory.delete());
+        }
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+
+    private static String rowId(int i) {
+        return String.format("%08x", i);
+    }
+
+    /* adds {@code copies} index rows pointing to each of {@code count} base rows, in random order */
+    private static void addShuffled(ExternalIndexSorter sorter, int count, int copies) throws Exception {
+        List<Tuple2<String, Tuple2<byte[], ExecRow>>> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            for (int c = 0; c < copies; c++) {
+                byte[] key = new byte[]{(byte) c, (byte) (i >> 8), (byte) i};
+                ExecRow row = new ValueRow(new DataValueDescriptor[]{new SQLInteger(i), new SQLInteger(c)});
+                row.setKey(key);
+                rows.add(new Tuple2<>(rowId(i), new Tuple2<>(key, row)));
+            }
+        }
+        Collections.shuffle(rows, new Random(count));
+        for (Tuple2<String, Tuple2<byte[], ExecRow>> row : rows)
+            sorter.add(row);
+    }
+
+    private static void assertBucket(Iterator<Tuple2<String, Tuple2<byte[], ExecRow>>> sorted,
+                                     int from, int to, int copies) throws Exception {
+        for (int i = from; i < to; i++) {
+            Set<Integer> seen = new HashSet<>();
+            for (int c = 0; c < copies; c++) {
+                Assert.assertTrue("Missing row " + i, sorted.hasNext());
+                Tuple2<String, Tuple2<byte[], ExecRow>> row = sorted.next();
+                Assert.assertEquals(rowId(i), row._1());
+                ExecRow indexRow = row._2()._2();
+                Assert.assertEquals(i, indexRow.getColumn(1).getInt());
+                int copy = indexRow.getColumn(2).getInt();
+                Assert.assertTrue("Duplicate copy of row " + i, seen.add(copy));
+                Assert.assertArrayEquals(new byte[]{(byte) copy, (byte) (i >> 8), (byte) i}, row._2()._1());
+                Assert.assertArrayEquals(row._2()._1(), indexRow.getKey());
+            }
+        }
+        Assert.assertFalse(sorted.hasNext());
+    }
+}
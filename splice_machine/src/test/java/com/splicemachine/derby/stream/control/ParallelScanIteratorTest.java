@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.stream.control;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+public class ParallelScanIteratorTest {
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool();
+
+    @AfterClass
+    public static void shutdown() {
+        EXECUTOR.shutdownNow();
+    }
+
+    @Test
+    public void preservesSegmentOrder() throws Exception {
+        Semaphore threads = new Semaphore(8);
+        List<Integer> rows = drain(new ParallelScanIterator<>(segments(10, 500, null), Function.identity(),
+                true, 3, 16, EXECUTOR, threads));
+        Assert.assertEquals(expected(10, 500), rows);
+        awaitPermits(threads, 8);
+    }
+
+    @Test
+    public void returnsEveryRowWithoutOrder() throws Exception {
+        Semaphore threads = new Semaphore(8);
+        List<Integer> rows = drain(new ParallelScanIterator<>(segments(10, 500, null), Function.identity(),
+                false, 4, 16, EXECUTOR, threads));
+        Collections.sort(rows);
+        Assert.assertEquals(expected(10, 500), rows);
+        awaitPermits(threads, 8);
+    }
+
+    @Test
+    public void readsOnCallingThreadWhenNoThreadIsFree() throws Exception {
+        List<String> readers = Collections.synchronizedList(new ArrayList<>());
+        List<Integer> rows = drain(new ParallelScanIterator<>(segments(4, 100, readers), Function.identity(),
+                true, 4, 16, EXECUTOR, new Semaphore(0)));
+        Assert.assertEquals(expected(4, 100), rows);
+        Assert.assertEquals(4, readers.size());
+        for (String reader : readers)
+            Assert.assertEquals(Thread.currentThread().getName(), reader);
+    }
+
+    @Test
+    public void capsConcurrentSegments() throws Exception {
+        AtomicInteger open = new AtomicInteger();
+        AtomicInteger maxOpen = new AtomicInteger();
+        List<Callable<Iterator<Integer>>> segments = new ArrayList<>();
+        for (int s = 0; s < 12; s++) {
+            List<Integer> rows = rows(s, 200);
+            segments.add(() -> new CountingIterator(rows.iterator(), open, maxOpen));
+        }
+        Semaphore threads = new Semaphore(8);
+        List<Integer> rows = drain(new ParallelScanIterator<>(segments, Function.identity(),
+                false, 3, 4, EXECUTOR, threads));
+        Assert.assertEquals(12 * 200, rows.size());
+        awaitPermits(threads, 8);
+        Assert.assertEquals("Every segment should be closed", 0, open.get());
+        Assert.assertTrue("At most 3 segments should be read at once", maxOpen.get() <= 3);
+    }
+
+    @Test
+    public void copiesRowsReadByProducers() throws Exception {
+        List<Integer> rows = drain(new ParallelScanIterator<>(segments(3, 10, null), i -> -i,
+                true, 2, 4, EXECUTOR, new Semaphore(8)));
+        Assert.assertEquals(30, rows.size());
+        for (int i = 0; i < rows.size(); i++)
+            Assert.assertEquals(-i, (int) rows.get(i));
+    }
+
+    @Test
+    public void propagatesSegmentFailures() throws Exception {
+        List<Callable<Iterator<Integer>>> segments = segments(3, 10, null);
+        segments.set(1, () -> {
+            throw new IllegalStateException("region moved");
+        });
+        ParallelScanIterator<Integer> iterator = new ParallelScanIterator<>(segments, Function.identity(),
+                true, 2, 4, EXECUTOR, new Semaphore(8));
+        try {
+            drain(iterator);
+            Assert.fail("Expected the failure of the second segment");
+        } catch (IllegalStateException expected) {
+            Assert.assertEquals("region moved", expected.getMessage());
+        }
+    }
+
+    @Test
+    public void closeReleasesBlockedProducers() throws Exception {
+        Semaphore threads = new Semaphore(8);
+        ParallelScanIterator<Integer> iterator = new ParallelScanIterator<>(segments(4, 1000, null), Function.identity(),
+                true, 4, 4, EXECUTOR, threads);
+        Assert.assertTrue(iterator.hasNext());
+        Assert.assertEquals(0, (int) iterator.next());
+        iterator.close();
+        awaitPermits(threads, 8);
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+
+    private static List<Callable<Iterator<Integer>>> segments(int count, int size, List<String> readers) {
+        List<Callable<Iterator<Integer>>> segments = new ArrayList<>(count);
+        for (int s = 0; s < count; s++) {
+            List<Integer> rows = rows(s, size);
+            segments.add(() -> {
+                if (readers != null)
+                    readers.add(Thread.currentThread().getName());
+                return rows.iterator();
+            });
+        }
+        return segments;
+    }
+
+    private static List<Integer> rows(int segment, int size) {
+        List<Integer> rows = new ArrayList<>(size);
+        for (int i = 0; i < size; i++)
+            rows.add(segment * size + i);
+        return rows;
+    }
+
+    private static List<Integer> expected(int count, int size) {
+        List<Integer> rows = new ArrayList<>(count * size);
+        for (int s = 0; s < count; s++)
+            rows.addAll(rows(s, size));
+        return rows;
+    }
+
+    private static List<Integer> drain(ParallelScanIterator<Integer> iterator) throws Exception {
+        List<Integer> rows = new ArrayList<>();
+        try {
+            while (iterator.hasNext())
+                rows.add(iterator.next());
+        } finally {
+            iterator.close();
+        }
+        return rows;
+    }
+
+    /* producers release their thread just after handing over their last row, so wait for them to do so */
+    private static void awaitPermits(Semaphore threads, int permits) throws InterruptedException {
+        for (int i = 0; i < 100 && threads.availablePermits() < permits; i++)
+            Thread.sleep(50);
+        Assert.assertEquals("Every thread should be released", permits, threads.availablePermits());
+    }
+
+    private static class CountingIterator implements Iterator<Integer>, Closeable {
+        private final Iterator<Integer> delegate;
+        private final AtomicInteger open;
+
+        CountingIterator(Iterator<Integer> delegate, AtomicInteger open, AtomicInteger maxOpen) {
+            this.delegate = delegate;
+            this.open = open;
+            maxOpen.accumulateAndGet(open.incrementAndGet(), Math::max);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return delegate.hasNext();
+        }
+
+        @Override
+        public Integer next() {
+            return delegate.next();
+        }
+
+        @Override
+        public void close() {
+            open.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.stream.control.output;
+
+import com.github.luben.zstd.ZstdInputStream;
+import com.splicemachine.access.api.DistributedFileSystem;
+import com.splicemachine.derby.iapi.sql.execute.SpliceOperation;
+import com.splicemachine.derby.impl.sql.execute.operations.export.ExportFile.COMPRESSION;
+import com.splicemachine.derby.stream.function.SpliceFunction2;
+import com.splicemachine.si.impl.TestingFileSystem;
+import com.splicemachine.si.testenv.ArchitectureIndependent;
+import net.jpountz.lz4.LZ4FrameInputStream;
+import org.apache.commons.io.IOUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.*;
+
+@Category(ArchitectureIndependent.class)
+public class ParallelExportWriterTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private DistributedFileSystem dfs = new TestingFileSystem(FileSystems.getDefault().provider());
+
+    @Test
+    public void singlePartKeepsRowOrder() throws Exception {
+        List<String> rows = rows(20000);
+        long count = writer(COMPRESSION.NONE, ".csv", 4, 0, new LineWriter()).write(rows.iterator());
+
+        assertEquals(rows.size(), count);
+        assertArrayEquals(new String[]{"part-r-00000.csv"}, partFiles());
+        assertEquals(rows, readParts(COMPRESSION.NONE));
+    }
+
+    @Test
+    public void rollsPartsAtTargetSize() throws Exception {
+        List<String> rows = rows(50000);
+        long count = writer(COMPRESSION.GZ, ".csv.gz", 3, 32 * 1024, new LineWriter()).write(rows.iterator());
+
+        assertEquals(rows.size(), count);
+        assertTrue(partFiles().length > 1);
+        for (String part : partFiles()) {
+            assertTrue(part.endsWith(".csv.gz"));
+        }
+        assertEquals(rows, readParts(COMPRESSION.GZ));
+    }
+
+    @Test
+    public void concatenatedLz4AndZstdStreamsRoundTrip() throws Exception {
+        List<String> rows = rows(30000);
+        writer(COMPRESSION.LZ4, ".csv.lz4", 4, 0, new LineWriter()).write(rows.iterator());
+        assertEquals(rows, readParts(COMPRESSION.LZ4));
+
+        temporaryFolder.delete();
+        temporaryFolder.create();
+        writer(COMPRESSION.ZSTD, ".csv.zst", 4, 0, new LineWriter()).write(rows.iterator());
+        assertEquals(rows, readParts(COMPRESSION.ZSTD));
+    }
+
+    @Test
+    public void emptyExportWritesOnePart() throws Exception {
+        long count = writer(COMPRESSION.GZ, ".csv.gz", 2, 0, new LineWriter()).write(new ArrayList<String>().iterator());
+
+        assertEquals(0, count);
+        assertArrayEquals(new String[]{"part-r-00000.csv.gz"}, partFiles());
+        assertEquals(new ArrayList<String>(), readParts(COMPRESSION.GZ));
+    }
+
+    @Test
+    public void failedExportDeletesParts() throws Exception {
+        LineWriter failing = new LineWriter() {
+            @Override
+            public Integer call(OutputStream out, Iterator<String> rows) throws Exception {
+                List<String> chunk = new ArrayList<>();
+                rows.forEachRemaining(chunk::add);
+                if (chunk.contains("row-15000"))
+                    throw new IOException("disk full");
+                return super.call(out, chunk.iterator());
+            }
+        };
+        try {
+            writer(COMPRESSION.NONE, ".csv", 2, 16 * 1024, failing).write(rows(40000).iterator());
+            fail("expected the export to fail");
+        } catch (IOException e) {
+            assertEquals("disk full", e.getMessage());
+        }
+        assertEquals(0, partFiles().length);
+    }
+
+    private ParallelExportWriter<String> writer(COMPRESSION compression, String extension, int parallelism,
+                                                long targetFileSize, LineWriter exportFunction) {
+        return new ParallelExportWriter<>(dfs, temporaryFolder.getRoot().getAbsolutePath(), extension, compression,
+                exportFunction, parallelism, targetFileSize);
+    }
+
+    private static List<String> rows(int count) {
+        List<String> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add("row-" + i);
+        }
+        return rows;
+    }
+
+    private String[] partFiles() {
+        String[] parts = temporaryFolder.getRoot().list((dir, name) -> name.startsWith("part-r-"));
+        Arrays.sort(parts);
+        return parts;
+    }
+
+    private List<String> readParts(COMPRESSION compression) throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (String part : partFiles()) {
+            try (InputStream in = decompress(new FileInputStream(new File(temporaryFolder.getRoot(), part)), compression)) {
+                for (String line : IOUtils.readLines(in, StandardCharsets.UTF_8)) {
+                    lines.add(line);
+                }
+            }
+        }
+        return lines;
+    }
+
+    private static InputStream decompress(InputStream in, COMPRESSION compression) throws IOException {
+        switch (compression) {
+            case GZ:
+                return new GZIPInputStream(in);
+            case LZ4:
+                return new LZ4FrameInputStream(in);
+            case ZSTD:
+                return new ZstdInputStream(in);
+            default:
+                return in;
+        }
+    }
+
+    private static class LineWriter extends SpliceFunction2<SpliceOperation, OutputStream, Iterator<String>, Integer> {
+        @Override
+        public Integer call(OutputStream out, Iterator<String> rows) throws Exception {
+            int count = 0;
+            while (rows.hasNext()) {
+                out.write((rows.next() + "\n").getBytes(StandardCharsets.UTF_8));
+                count++;
+            }
+            out.close();
+            return count;
+        }
+    }
+}
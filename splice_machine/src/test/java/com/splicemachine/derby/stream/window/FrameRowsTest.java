@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.stream.window;
+
+import com.splicemachine.db.iapi.sql.execute.ExecRow;
+import com.splicemachine.db.iapi.types.SQLInteger;
+import com.splicemachine.db.impl.sql.execute.ValueRow;
+import com.splicemachine.si.testenv.ArchitectureIndependent;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.ArrayDeque;
+
+import static org.junit.Assert.assertEquals;
+
+@Category(ArchitectureIndependent.class)
+public class FrameRowsTest {
+
+    private static ExecRow row(int value) {
+        ValueRow row = new ValueRow(1);
+        row.setColumn(1, new SQLInteger(value));
+        return row;
+    }
+
+    @Test
+    public void testSlidingAcrossGrowth() throws Exception {
+        FrameRows rows = new FrameRows();
+        ArrayDeque<Integer> expected = new ArrayDeque<>();
+        int next = 0;
+        for (int i = 0; i < 1000; i++) {
+            // add two, remove one, so the buffer wraps around while it grows
+            rows.add(row(next));
+            expected.addLast(next++);
+            rows.add(row(next));
+            expected.addLast(next++);
+            assertEquals((int) expected.pollFirst(), rows.removeFirst().getColumn(1).getInt());
+
+            assertEquals(expected.size(), rows.size());
+            for (int j = 0; j < rows.size(); j += 97) {
+                assertEquals(expected.toArray()[j], rows.get(j).getColumn(1).getInt());
+            }
+        }
+        rows.clear();
+        assertEquals(0, rows.size());
+        rows.add(row(42));
+        assertEquals(42, rows.get(0).getColumn(1).getInt());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testOutOfBounds() throws Exception {
+        FrameRows rows = new FrameRows();
+        rows.add(row(1));
+        rows.get(1);
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.subquery;
+
+import com.splicemachine.derby.test.framework.SpliceSchemaWatcher;
+import com.splicemachine.derby.test.framework.SpliceWatcher;
+import com.splicemachine.homeless.TestUtils;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test correlated expression subqueries whose results are memoized per correlation key.
+ */
+public class Subquery_Memoization_IT {
+
+    private static final String SCHEMA = Subquery_Memoization_IT.class.getSimpleName();
+
+    // the subquery is correlated through a range so that it is not flattened
+    private static final String QUERY = "select distinct k, (select max(v) from T2 where T2.k <= T1.k and T2.v < %s) " +
+            "from T1 order by k";
+
+    @ClassRule
+    public static SpliceSchemaWatcher schemaWatcher = new SpliceSchemaWatcher(SCHEMA);
+
+    @ClassRule
+    public static SpliceWatcher classWatcher = new SpliceWatcher(SCHEMA);
+
+    @BeforeClass
+    public static void createSharedTables() throws Exception {
+        classWatcher.executeUpdate("create table T1 (k int, l int)");
+        StringBuilder values = new StringBuilder();
+        for (int i = 0; i < 30; i++) {
+            values.append(i == 0 ? "" : ",").append(String.format("(%d,%d)", i % 3 + 1, i));
+        }
+        classWatcher.executeUpdate("insert into T1 values " + values);
+
+        classWatcher.executeUpdate("create table T2 (k int, v int)");
+        classWatcher.executeUpdate("insert into T2 values (1,10),(2,20),(3,30)");
+
+        classWatcher.getOrCreateConnection().collectStats(SCHEMA, null);
+    }
+
+    @Rule
+    public SpliceWatcher methodWatcher = new SpliceWatcher(SCHEMA);
+
+    @Test
+    public void reexecutionDoesNotReuseMemoizedResults() throws Exception {
+        try (ResultSet rs = methodWatcher.executeQuery("explain " + String.format(QUERY, "25"))) {
+            String plan = TestUtils.FormattedResult.ResultFactory.toString(rs);
+            assertTrue("Expected the subquery to be memoized:\n" + plan, plan.contains("memoized=true"));
+        }
+
+        try (PreparedStatement ps = methodWatcher.prepareStatement(String.format(QUERY, "?"))) {
+            ps.setInt(1, 25);
+            assertResult(ps, 10, 20, 20);
+
+            // a different parameter
+            ps.setInt(1, 100);
+            assertResult(ps, 10, 20, 30);
+
+            // the same parameter over changed data
+            methodWatcher.executeUpdate("insert into T2 values (1,40)");
+            assertResult(ps, 40, 40, 40);
+        }
+    }
+
+    /* asserts the subquery results for the keys 1, 2 and 3 */
+    private static void assertResult(PreparedStatement ps, int... expected) throws Exception {
+        try (ResultSet rs = ps.executeQuery()) {
+            for (int i = 0; i < expected.length; i++) {
+                assertTrue(rs.next());
+                assertEquals(i + 1, rs.getInt(1));
+                assertEquals("Wrong result for key " + (i + 1), expected[i], rs.getInt(2));
+            }
+            assertFalse(rs.next());
+        }
+    }
+}
@@ -27,9 +27,21 @@ import com.splicemachine.utils.TrafficControl;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import org.apache.log4j.Logger;
 import splice.com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Read-Resolver which asynchronously submits regions for execution, discarding
@@ -37,12 +49,17 @@ import java.util.concurrent.TimeUnit;
  * <p/>
  * This implementation uses an LMAX disruptor to asynchronously pass Read-resolve events
  * to a background thread, which in turn uses a SynchronousReadResolver to actually perform the resolution.
+ * <p/>
+ * Rather than resolving rows one at a time, the background thread coalesces them by region and transaction
+ * (dropping row keys which are already pending) and resolves each group with a single batched mutation, once
+ * the group is full or has been waiting for the linger time. Scanning a large, freshly committed load thus
+ * costs one transaction lookup and one write per batch of rows instead of one per row.
  *
  * @author Scott Fines
  *         Date: 7/1/14
  */
 @ThreadSafe
-public class AsyncReadResolver{
+public class AsyncReadResolver implements ReadResolverManagement{
     private static final Logger LOG=Logger.getLogger(AsyncReadResolver.class);
     private final RingBuffer<ResolveEvent> ringBuffer;
     private final Disruptor<ResolveEvent> disruptor;
@@ -54,7 +71,33 @@ public class AsyncReadResolver{
     private final TrafficControl trafficControl;
     private final KeyedReadResolver synchronousResolver;
 
+    private final int batchSize;
+    private final long lingerMillis;
+    private final ScheduledExecutorService lingerThread;
+    /*
+     * Rows taken off the ring buffer but not resolved yet, grouped by region and transaction. Groups are kept
+     * in creation order so that the ones which lingered the longest come first; access is guarded by the map.
+     */
+    private final Map<GroupKey, PendingGroup> pending=new LinkedHashMap<>();
+    private final int maxPendingRows;
+
+    private final AtomicLong pendingRows=new AtomicLong(0L);
+    private final AtomicLong droppedRows=new AtomicLong(0L);
+    private final AtomicLong deduplicatedRows=new AtomicLong(0L);
+    private final AtomicLong flushedBatches=new AtomicLong(0L);
+    private final AtomicLong flushedRows=new AtomicLong(0L);
+    private final AtomicInteger maxBatchSize=new AtomicInteger(0);
+
+    public AsyncReadResolver(int maxThreads,int bufferSize,
+                             TxnSupplier txnSupplier,
+                             RollForwardStatus status,
+                             TrafficControl trafficControl,
+                             KeyedReadResolver synchronousResolver){
+        this(maxThreads,bufferSize,1,0L,txnSupplier,status,trafficControl,synchronousResolver);
+    }
+
     public AsyncReadResolver(int maxThreads,int bufferSize,
+                             int batchSize,long lingerMillis,
                              TxnSupplier txnSupplier,
                              RollForwardStatus status,
                              TrafficControl trafficControl,
@@ -63,6 +106,8 @@ public class AsyncReadResolver{
         this.trafficControl=trafficControl;
         this.status=status;
         this.synchronousResolver = synchronousResolver;
+        this.batchSize=Math.max(1,batchSize);
+        this.lingerMillis=this.batchSize>1?Math.max(0L,lingerMillis):0L;
         consumerThreads=new ThreadPoolExecutor(maxThreads,maxThreads,
                 60,TimeUnit.SECONDS,
                 new LinkedBlockingQueue<Runnable>(),
@@ -76,16 +121,83 @@ public class AsyncReadResolver{
                 new BlockingWaitStrategy()); //we want low latency here, but it might cost too much in CPU
         disruptor.handleEventsWith(new ResolveEventHandler());
         ringBuffer=disruptor.getRingBuffer();
+        maxPendingRows=bSize;
+        if(this.lingerMillis>0){
+            lingerThread=Executors.newSingleThreadScheduledExecutor(
+                    new ThreadFactoryBuilder().setNameFormat("readResolver-linger").setDaemon(true).build());
+        }else
+            lingerThread=null;
     }
 
     public void start(){
         disruptor.start();
+        if(lingerThread!=null){
+            long period=Math.max(1L,lingerMillis/2);
+            lingerThread.scheduleWithFixedDelay(new Runnable(){
+                @Override
+                public void run(){
+                    flushLingering();
+                }
+            },period,period,TimeUnit.MILLISECONDS);
+        }
     }
 
     public void shutdown(){
         stopped=true;
         disruptor.shutdown();
         consumerThreads.shutdownNow();
+        if(lingerThread!=null)
+            lingerThread.shutdownNow();
+        synchronized(pending){
+            pending.clear();
+            pendingRows.set(0L);
+        }
+    }
+
+    @Override
+    public int getQueueDepth(){
+        return (int)(ringBuffer.getBufferSize()-ringBuffer.remainingCapacity());
+    }
+
+    @Override
+    public int getQueueCapacity(){
+        return ringBuffer.getBufferSize();
+    }
+
+    @Override
+    public long getPendingRows(){
+        return pendingRows.get();
+    }
+
+    @Override
+    public long getDroppedRows(){
+        return droppedRows.get();
+    }
+
+    @Override
+    public long getDeduplicatedRows(){
+        return deduplicatedRows.get();
+    }
+
+    @Override
+    public long getFlushedBatches(){
+        return flushedBatches.get();
+    }
+
+    @Override
+    public long getFlushedRows(){
+        return flushedRows.get();
+    }
+
+    @Override
+    public double getAverageBatchSize(){
+        long batches=flushedBatches.get();
+        return batches==0?0d:((double)flushedRows.get())/batches;
+    }
+
+    @Override
+    public int getMaxBatchSize(){
+        return maxBatchSize.get();
     }
 
     @ThreadSafe
@@ -111,20 +223,11 @@ public class AsyncReadResolver{
 
         @Override
         public void onEvent(ResolveEvent event,long sequence,boolean endOfBatch) throws Exception{
-            try{
-                if(synchronousResolver.resolve(event.region,
-                        event.rowKey,
-                        event.txnId,
-                        txnSupplier,
-                        status,
-                        false,
-                        trafficControl)){
-//                    event.rollForward.recordResolved(event.rowKey,event.txnId);
-                }
-            }catch(Exception e){
-                LOG.info("Error during read resolution",e);
-                throw e;
-            }
+            List<PendingGroup> ready=add(event.region,event.txnId,new ByteSlice(event.rowKey));
+            event.region=null; //don't hold on to closed regions
+            if(endOfBatch && lingerMillis<=0)
+                ready=drain(Long.MAX_VALUE,ready);
+            flush(ready);
         }
     }
 
@@ -144,6 +247,7 @@ public class AsyncReadResolver{
             try{
                 sequence=ringBuffer.tryNext();
             }catch(InsufficientCapacityException e){
+                droppedRows.incrementAndGet();
                 if(LOG.isTraceEnabled())
                     LOG.trace("Unable to submit for read resolution");
                 return;
@@ -164,4 +268,139 @@ public class AsyncReadResolver{
             return true;
         }
     }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+
+    /**
+     * Adds a row to its pending group.
+     *
+     * @return the groups which should be flushed now: the row's group if it became full, and the oldest groups
+     * if too many rows are pending.
+     */
+    private List<PendingGroup> add(Partition region,long txnId,ByteSlice rowKey){
+        List<PendingGroup> ready=null;
+        synchronized(pending){
+            GroupKey key=new GroupKey(region.getEncodedName(),txnId);
+            PendingGroup group=pending.get(key);
+            if(group==null){
+                group=new PendingGroup(region,txnId,System.currentTimeMillis());
+                pending.put(key,group);
+            }
+            if(!group.rowKeys.add(rowKey)){
+                deduplicatedRows.incrementAndGet();
+                return null;
+            }
+            long rows=pendingRows.incrementAndGet();
+            if(group.rowKeys.size()>=batchSize){
+                pending.remove(key);
+                pendingRows.addAndGet(-group.rowKeys.size());
+                ready=new ArrayList<>(1);
+                ready.add(group);
+            }else if(rows>maxPendingRows){
+                //too many small groups are lingering, so make room by flushing the oldest
+                ready=drain(0L,pendingRows.get()-maxPendingRows/2,null);
+            }
+        }
+        return ready;
+    }
+
+    private void flushLingering(){
+        try{
+            flush(drain(System.currentTimeMillis()-lingerMillis,null));
+        }catch(Exception e){
+            LOG.info("Error during read resolution",e);
+        }
+    }
+
+    /**
+     * @return {@code ready}, with all the groups created before {@code createdBefore} added to it
+     */
+    private List<PendingGroup> drain(long createdBefore,List<PendingGroup> ready){
+        synchronized(pending){
+            return drain(createdBefore,Long.MAX_VALUE,ready);
+        }
+    }
+
+    /*
+     * Removes groups in creation order until either one created at or after createdBefore is found, or at least
+     * minRows rows have been removed when createdBefore is 0. Must be called holding the lock on pending.
+     */
+    private List<PendingGroup> drain(long createdBefore,long minRows,List<PendingGroup> ready){
+        long removed=0L;
+        Iterator<PendingGroup> groups=pending.values().iterator();
+        while(groups.hasNext()){
+            PendingGroup group=groups.next();
+            if(createdBefore>0 && group.createdMillis>=createdBefore) break;
+            if(createdBefore<=0 && removed>=minRows) break;
+            groups.remove();
+            removed+=group.rowKeys.size();
+            if(ready==null)
+                ready=new ArrayList<>();
+            ready.add(group);
+        }
+        pendingRows.addAndGet(-removed);
+        return ready;
+    }
+
+    private void flush(List<PendingGroup> ready){
+        if(ready==null) return;
+        for(PendingGroup group:ready){
+            if(stopped) return;
+            int rows=group.rowKeys.size();
+            flushedBatches.incrementAndGet();
+            flushedRows.addAndGet(rows);
+            int max;
+            do{
+                max=maxBatchSize.get();
+            }while(rows>max && !maxBatchSize.compareAndSet(max,rows));
+            try{
+                synchronousResolver.resolve(group.region,
+                        group.rowKeys,
+                        group.txnId,
+                        txnSupplier,
+                        status,
+                        false,
+                        trafficControl);
+            }catch(Exception e){
+                LOG.info("Error during read resolution of "+rows+" rows of transaction "+group.txnId,e);
+            }
+        }
+    }
+
+    private static class GroupKey{
+        private final String regionName;
+        private final long txnId;
+
+        GroupKey(String regionName,long txnId){
+            this.regionName=regionName;
+            this.txnId=txnId;
+        }
+
+        @Override
+        public boolean equals(Object o){
+            if(this==o) return true;
+            if(!(o instanceof GroupKey)) return false;
+            GroupKey that=(GroupKey)o;
+            return txnId==that.txnId && regionName.equals(that.regionName);
+        }
+
+        @Override
+        public int hashCode(){
+            return 31*regionName.hashCode()+Long.hashCode(txnId);
+        }
+    }
+
+    private static class PendingGroup{
+        private final Partition region;
+        private final long txnId;
+        private final long createdMillis;
+        private final Set<ByteSlice> rowKeys=new LinkedHashSet<>();
+
+        PendingGroup(Partition region,long txnId,long createdMillis){
+            this.region=region;
+            this.txnId=txnId;
+            this.createdMillis=createdMillis;
+        }
+    }
 }
@@ -20,6 +20,8 @@ import com.splicemachine.storage.Partition;
 import com.splicemachine.utils.ByteSlice;
 import com.splicemachine.utils.TrafficControl;
 
+import java.util.Collection;
+
 /**
  * @author Scott Fines
  *         Date: 12/21/15
@@ -32,4 +34,27 @@ public interface KeyedReadResolver{
                     RollForwardStatus status,
                     boolean failOnError,
                     TrafficControl trafficControl);
+
+    /**
+     * Resolves several rows of {@code region} which were all written by the same transaction.
+     *
+     * Implementations should look the transaction up once and write all the resolutions in a single
+     * batched mutation; this default resolves the rows one at a time.
+     *
+     * @return the number of rows resolved
+     */
+    default int resolve(Partition region,
+                        Collection<ByteSlice> rowKeys,
+                        long txnId,
+                        TxnSupplier txnSupplier,
+                        RollForwardStatus status,
+                        boolean failOnError,
+                        TrafficControl trafficControl){
+        int resolved=0;
+        for(ByteSlice rowKey:rowKeys){
+            if(resolve(region,rowKey,txnId,txnSupplier,status,failOnError,trafficControl))
+                resolved++;
+        }
+        return resolved;
+    }
 }
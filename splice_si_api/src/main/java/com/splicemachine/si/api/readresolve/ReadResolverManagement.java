@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.si.api.readresolve;
+
+import javax.management.MXBean;
+
+/**
+ * JMX view of the asynchronous read resolver of a server.
+ */
+@MXBean
+public interface ReadResolverManagement{
+
+    /**
+     * @return the number of rows waiting in the resolution queue
+     */
+    int getQueueDepth();
+
+    int getQueueCapacity();
+
+    /**
+     * @return the number of rows taken off the queue and waiting to be batched with
+     * other rows of the same region and transaction
+     */
+    long getPendingRows();
+
+    /**
+     * @return the number of rows which were not resolved because the queue was full
+     */
+    long getDroppedRows();
+
+    /**
+     * @return the number of rows which were already pending resolution when they were queued again
+     */
+    long getDeduplicatedRows();
+
+    long getFlushedBatches();
+
+    long getFlushedRows();
+
+    double getAverageBatchSize();
+
+    int getMaxBatchSize();
+}
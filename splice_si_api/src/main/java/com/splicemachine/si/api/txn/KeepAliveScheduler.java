@@ -40,6 +40,17 @@ public interface KeepAliveScheduler {
 		 */
 		void scheduleKeepAlive(Txn txn);
 
+		/**
+		 * Schedule the transaction for keep alive, with its first keep-alive no sooner than
+		 * {@code initialDelayMillis} from now.
+		 *
+		 * @param txn the transaction to keep alive.
+		 * @param initialDelayMillis the delay before the first keep-alive, in milliseconds.
+		 */
+		default void scheduleKeepAlive(Txn txn,long initialDelayMillis){
+				scheduleKeepAlive(txn);
+		}
+
 		/**
 		 * Start the scheduler, including any resources associated with it.
  		 */
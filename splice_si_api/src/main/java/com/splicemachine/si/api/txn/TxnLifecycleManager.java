@@ -221,6 +221,17 @@ public interface TxnLifecycleManager{
 
     void unregisterActiveTransaction(long txnId) throws IOException;
 
+    /**
+     * Records a transaction whose registration was deferred, along with its unrecorded ancestors, on the
+     * transaction table, and starts keeping it alive.
+     *
+     * @param txnId    the id of the transaction to register
+     * @param recorded whether the transaction and its unrecorded ancestors were already recorded by a server,
+     *                 along with the first write of the transaction
+     * @throws IOException If something goes wrong during the registration
+     */
+    void registerTransaction(long txnId,boolean recorded) throws IOException;
+
     /**
      * "Chains" a new transaction to the old one.
      * <p/>
@@ -34,6 +34,17 @@ public interface TxnStore extends TxnSupplier{
      */
     void recordNewTransaction(Txn txn) throws IOException;
 
+    /**
+     * Write the Transaction to underlying storage, unless it is already there.
+     * <p/>
+     * Used for registrations which may be delivered late or more than once, and so must not reset
+     * a transaction which is already recorded, committed or rolled back.
+     *
+     * @param txn the transaction to write.
+     * @throws IOException if something goes wrong trying to write it
+     */
+    void recordNewTransactionIfAbsent(Txn txn) throws IOException;
+
     void registerActiveTransaction(Txn txn);
 
     void unregisterActiveTransaction(long txnId);
@@ -22,12 +22,15 @@ import com.splicemachine.primitives.Bytes;
 import com.splicemachine.si.api.data.ExceptionFactory;
 import com.splicemachine.si.api.txn.*;
 import com.splicemachine.si.constants.SIConstants;
+import com.splicemachine.si.impl.hlc.HLCTimestampSource;
 import com.splicemachine.si.impl.txn.ReadOnlyTxn;
 import com.splicemachine.si.impl.txn.WritableTxn;
 import com.splicemachine.timestamp.api.TimestampSource;
 
 import java.io.IOException;
 import java.nio.charset.Charset;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Represents a Client Transaction Lifecycle Manager.
@@ -48,6 +51,15 @@ public class ClientTxnLifecycleManager implements TxnLifecycleManager{
 
     private volatile boolean restoreMode=false;
 
+    /*
+     * When set, writable transactions are not recorded on the transaction table when they begin, but along
+     * with their first write (or when they are handed to another server), so that transactions which never
+     * write, or which write once, do not pay for a separate round trip to the transaction table.
+     */
+    private volatile boolean lazyRegistration=false;
+    private volatile long keepAliveIntervalMs;
+    private final ConcurrentMap<Long,WritableTxn> unregistered=new ConcurrentHashMap<>();
+
     private volatile String replicationRole = SIConstants.REPLICATION_ROLE_NONE;
 
     public ClientTxnLifecycleManager(TimestampSource timestampSource,
@@ -64,6 +76,16 @@ public class ClientTxnLifecycleManager implements TxnLifecycleManager{
         this.keepAliveScheduler = kas;
     }
 
+    /**
+     * @param lazyRegistration whether to defer recording new writable transactions until their first write
+     * @param keepAliveIntervalMs the delay before the first keep-alive of a transaction registered late, which
+     *                            is recorded with a fresh keep-alive time
+     */
+    public void setLazyRegistration(boolean lazyRegistration,long keepAliveIntervalMs){
+        this.lazyRegistration=lazyRegistration;
+        this.keepAliveIntervalMs=keepAliveIntervalMs;
+    }
+
     @Override
     public Txn beginTransaction() throws IOException{
         return beginTransaction(Txn.ROOT_TRANSACTION.getIsolationLevel());
@@ -215,12 +237,23 @@ public class ClientTxnLifecycleManager implements TxnLifecycleManager{
         if(!txn.allowsWrites()){
             //we've elevated from a read-only to a writable, so make sure that we add
             //it to the keep alive
-            Txn writableTxn=new WritableTxn(txn,this,destinationTable,exceptionFactory);
-            store.recordNewTransaction(writableTxn);
-            keepAliveScheduler.scheduleKeepAlive(writableTxn);
+            WritableTxn writableTxn=new WritableTxn(txn,this,destinationTable,exceptionFactory);
+            if(lazyRegistration)
+                deferRegistration(writableTxn);
+            else{
+                store.recordNewTransaction(writableTxn);
+                keepAliveScheduler.scheduleKeepAlive(writableTxn);
+            }
             txn=writableTxn;
-        }else
-            store.elevateTransaction(txn,destinationTable);
+        }else{
+            WritableTxn unregisteredTxn=unregistered.get(txn.getTxnId());
+            if(unregisteredTxn==null || unregisteredTxn.isRegistrationSent()){
+                //a registration in flight may not carry the new destination table
+                registerTransaction(txn.getTxnId(),false);
+                store.elevateTransaction(txn,destinationTable);
+            }
+            //otherwise the new destination table is recorded along with the transaction itself
+        }
         return txn;
     }
 
@@ -229,7 +262,23 @@ public class ClientTxnLifecycleManager implements TxnLifecycleManager{
         if(restoreMode){
             return -1; // we are in restore mode, don't try to access the store
         }
-        return store.commit(txnId);
+        WritableTxn txn=unregistered.get(txnId);
+        if(txn!=null){
+            if(!txn.isRegistrationSent()){
+                /*
+                 * The transaction never wrote anything, so nothing refers to it and there is nothing to
+                 * record; all it needs is a commit timestamp
+                 */
+                unregistered.remove(txnId);
+                txn.markRegistered();
+                return timestampSource.nextTimestamp();
+            }
+            //a write carrying its registration may have reached a server, so make sure it is recorded
+            registerTransaction(txnId,false);
+        }
+        long commitTs=store.commit(txnId);
+        HLCTimestampSource.observe(commitTs);
+        return commitTs;
         //TODO -sf- add the transaction to the global cache?
     }
 
@@ -238,6 +287,15 @@ public class ClientTxnLifecycleManager implements TxnLifecycleManager{
         if(restoreMode){
             return; // we are in restore mode, don't try to access the store
         }
+        WritableTxn txn=unregistered.get(txnId);
+        if(txn!=null){
+            if(!txn.isRegistrationSent()){
+                unregistered.remove(txnId);
+                txn.markRegistered();
+                return;
+            }
+            registerTransaction(txnId,false);
+        }
         store.rollback(txnId);
         //TODO -sf- add the transaction to the global cache?
     }
@@ -252,9 +310,29 @@ public class ClientTxnLifecycleManager implements TxnLifecycleManager{
         if(restoreMode){
             return; // we are in restore mode, don't try to access the store
         }
+        long parentTxnId=txnId & SIConstants.TRANSANCTION_ID_MASK;
+        WritableTxn txn=unregistered.get(parentTxnId);
+        if(txn!=null && !txn.isRegistrationSent())
+            return; // none of the subtransactions wrote anything
+        registerTransaction(parentTxnId,false);
         store.rollbackSubtransactions(txnId, rolledback);
     }
 
+    @Override
+    public void registerTransaction(long txnId,boolean recorded) throws IOException{
+        WritableTxn txn=unregistered.get(txnId);
+        if(txn==null)
+            return;
+        for(WritableTxn t:WritableTxn.unregisteredChain(txn)){
+            if(recorded)
+                t.markRegistered();
+            else
+                record(t);
+            if(unregistered.remove(t.getTxnId())!=null)
+                keepAliveScheduler.scheduleKeepAlive(t,keepAliveIntervalMs);
+        }
+    }
+
     /**********************************************************************************************************/
         /*private helper method*/
     private Txn createWritableTransaction(long timestamp,
@@ -278,18 +356,40 @@ public class ClientTxnLifecycleManager implements TxnLifecycleManager{
         WritableTxn newTxn=new WritableTxn(timestamp ^ subId, timestamp, parentReference,
                 isolationLevel,parentTxn,this,additive,destinationTable,taskId,exceptionFactory);
         if (subId == 0) {
-            //record the transaction on the transaction table--network call
-            store.recordNewTransaction(newTxn);
+            boolean lazy = lazyRegistration;
+            if (lazy) {
+                //recorded on the transaction table along with its first write
+                deferRegistration(newTxn);
+            } else {
+                //record the transaction on the transaction table--network call
+                store.recordNewTransaction(newTxn);
+            }
             if (parentTxn == Txn.ROOT_TRANSACTION) {
                 // keep track of this transaction
                 store.registerActiveTransaction(newTxn);
             }
-            keepAliveScheduler.scheduleKeepAlive(newTxn);
+            if (!lazy)
+                keepAliveScheduler.scheduleKeepAlive(newTxn);
         }
 
         return newTxn;
     }
 
+    private void deferRegistration(WritableTxn txn){
+        txn.deferRegistration();
+        unregistered.put(txn.getTxnId(),txn);
+    }
+
+    private void record(WritableTxn txn) throws IOException{
+        synchronized(txn){
+            if(!txn.isRegistered()){
+                //a registration sent along with a write may have already recorded it
+                store.recordNewTransactionIfAbsent(txn);
+                txn.markRegistered();
+            }
+        }
+    }
+
     private Txn createReadableTransaction(Txn.IsolationLevel isolationLevel,
                                           boolean additive,
                                           TxnView parentTxn){
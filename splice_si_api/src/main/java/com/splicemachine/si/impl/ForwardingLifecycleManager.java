@@ -149,6 +149,11 @@ public class ForwardingLifecycleManager implements TxnLifecycleManager{
         lifecycleManager.unregisterActiveTransaction(txnId);
     }
 
+    @Override
+    public void registerTransaction(long txnId,boolean recorded) throws IOException{
+        lifecycleManager.registerTransaction(txnId,recorded);
+    }
+
     @Override
     public void rollbackSubtransactions(long txnId, LongHashSet rolledback) throws IOException {
         lifecycleManager.rollbackSubtransactions(txnId, rolledback);
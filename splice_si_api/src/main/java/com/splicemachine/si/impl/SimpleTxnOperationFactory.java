@@ -24,8 +24,10 @@ import com.splicemachine.si.api.txn.TaskId;
 import com.splicemachine.si.api.txn.Txn;
 import com.splicemachine.si.api.txn.TxnView;
 import com.splicemachine.si.constants.SIConstants;
+import com.splicemachine.si.impl.hlc.HLCTimestampSource;
 import com.splicemachine.si.impl.txn.ActiveWriteTxn;
 import com.splicemachine.si.impl.txn.ReadOnlyTxn;
+import com.splicemachine.si.impl.txn.WritableTxn;
 import com.splicemachine.storage.*;
 
 import java.io.ByteArrayInputStream;
@@ -136,6 +138,7 @@ public class SimpleTxnOperationFactory implements TxnOperationFactory{
         MultiFieldDecoder decoder=MultiFieldDecoder.wrap(data,off,length);
         long txnId=decoder.decodeNextLong();
         long beginTs=decoder.decodeNextLong();
+        HLCTimestampSource.observe(beginTs);
         boolean additive=decoder.decodeNextBoolean();
         Txn.IsolationLevel level=Txn.IsolationLevel.fromByte(decoder.decodeNextByte());
         //throw away the allow reads bit, since we won't care anyway
@@ -214,6 +217,7 @@ public class SimpleTxnOperationFactory implements TxnOperationFactory{
             MultiFieldDecoder decoder=MultiFieldDecoder.wrap(bytes, 0, bytes.length);
             long txnId=decoder.decodeNextLong();
             long beginTs=decoder.decodeNextLong();
+            HLCTimestampSource.observe(beginTs);
             boolean additive=decoder.decodeNextBoolean();
             Txn.IsolationLevel level=Txn.IsolationLevel.fromByte(decoder.decodeNextByte());
             boolean allowsWrites=decoder.decodeNextBoolean();
@@ -237,6 +241,7 @@ public class SimpleTxnOperationFactory implements TxnOperationFactory{
         MultiFieldDecoder decoder=MultiFieldDecoder.wrap(data,offset,length);
         long txnId=decoder.decodeNextLong();
         long beginTs=decoder.decodeNextLong();
+        HLCTimestampSource.observe(beginTs);
         boolean additive=decoder.decodeNextBoolean();
         Txn.IsolationLevel level=Txn.IsolationLevel.fromByte(decoder.decodeNextByte());
         boolean allowsWrites=decoder.decodeNextBoolean();
@@ -262,6 +267,8 @@ public class SimpleTxnOperationFactory implements TxnOperationFactory{
 
     @Override
     public void writeTxn(TxnView txn,ObjectOutput out) throws IOException{
+        //the receiving side may look the transaction up, so it has to be on the transaction table
+        WritableTxn.ensureRegistered(txn);
         byte[] eData= encode(txn);
         out.writeInt(eData.length);
         out.write(eData,0,eData.length);
@@ -269,6 +276,7 @@ public class SimpleTxnOperationFactory implements TxnOperationFactory{
 
     @Override
     public void writeTxnStack(TxnView txn,ObjectOutput out) throws IOException{
+        WritableTxn.ensureRegistered(txn);
         try (ByteArrayOutputStream bos = new ByteArrayOutputStream()) {
             ObjectOutput oo = new ObjectOutputStream(bos);
             while(txn != Txn.ROOT_TRANSACTION) {
@@ -294,6 +302,8 @@ public class SimpleTxnOperationFactory implements TxnOperationFactory{
     public void encodeForWrites(Attributable op,TxnView txn) throws IOException{
         if(!txn.allowsWrites())
             throw exceptionLib.readOnlyModification("ReadOnly txn "+txn.getTxnId());
+        //writes made outside of the write pipeline do not carry the registration of their transaction
+        WritableTxn.ensureRegistered(txn);
         byte[] data=encode(txn);
         op.addAttribute(SI_TRANSACTION_ID_KEY,data);
         op.addAttribute(SI_NEEDED,SI_NEEDED_VALUE_BYTES);
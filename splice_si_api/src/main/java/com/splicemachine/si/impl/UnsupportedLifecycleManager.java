@@ -96,6 +96,11 @@ public class UnsupportedLifecycleManager implements TxnLifecycleManager {
 		throw new UnsupportedOperationException("Cannot unregister active transactions from the UnsupportedLifecycle Manager. Use a real Lifecycle manager instead");
 	}
 
+	@Override
+	public void registerTransaction(long txnId,boolean recorded) throws IOException{
+		throw new UnsupportedOperationException("Cannot register transactions from the UnsupportedLifecycle Manager. Use a real Lifecycle manager instead");
+	}
+
 	@Override
 	public void rollbackSubtransactions(long txnId, LongHashSet rolledback) throws IOException {
 		throw new UnsupportedOperationException("Cannot rollback subtransactions from the UnsupportedLifecycle Manager. Use a real Lifecycle manager instead");
@@ -21,6 +21,7 @@ import com.splicemachine.si.api.txn.Txn;
 import com.splicemachine.si.api.txn.lifecycle.TxnPartition;
 import com.splicemachine.si.constants.SIConstants;
 import com.splicemachine.si.coprocessor.TxnMessage;
+import com.splicemachine.si.impl.hlc.HLCTimestampSource;
 import com.splicemachine.timestamp.api.TimestampSource;
 import com.splicemachine.utils.Pair;
 import com.splicemachine.utils.Source;
@@ -73,6 +74,14 @@ public class StripedTxnLifecycleStore implements TxnLifecycleStore{
         Lock lock=lockStriper.get(txn.getTxnId()).writeLock();
         acquireLock(lock);
         try{
+            HLCTimestampSource.observe(txn.getBeginTs());
+            if(txn.getOnlyIfAbsent() && baseStore.getState(txn.getTxnId())!=null){
+                /*
+                 * A registration carried by a write which arrived late or twice: the transaction may have been
+                 * committed or rolled back since, and must not be made active again.
+                 */
+                return;
+            }
             baseStore.recordTransaction(txn);
         }finally{
             unlock(lock);
@@ -109,6 +118,7 @@ public class StripedTxnLifecycleStore implements TxnLifecycleStore{
                 SpliceLogUtils.error(LOG,"attempting to commit rolled back txn=%d",txnId);
                 throw baseStore.cannotCommit(txnId, state);
             }
+            HLCTimestampSource.observe(txnId); // the commit may be the first this server hears of the txn
             long commitTs=timestampSource.nextTimestamp();
             baseStore.recordCommit(txnId,commitTs);
             return commitTs;
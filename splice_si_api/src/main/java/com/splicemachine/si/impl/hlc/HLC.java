@@ -16,6 +16,7 @@ package com.splicemachine.si.impl.hlc;
 
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
 
 /**
  *
@@ -28,6 +29,18 @@ public class HLC {
     public static final int hlcNumBitsToShift = 12;
     public static final int hlcLogicalBitsMask = (1 << hlcNumBitsToShift) - 1;
     AtomicLong atomicHLC = new AtomicLong(physicalAndLogicalToHLC(0l, 0l));
+    private final LongSupplier physicalClock;
+
+    public HLC() {
+        this(System::currentTimeMillis);
+    }
+
+    /**
+     * @param physicalClock the physical time of this clock, in milliseconds
+     */
+    public HLC(LongSupplier physicalClock) {
+        this.physicalClock = physicalClock;
+    }
 
     public long sendOrLocalEvent() {
         long currentHLC;
@@ -35,7 +48,7 @@ public class HLC {
         while (true) {
             currentHLC = atomicHLC.get();
             long[] hlc = HLCToPhysicalAndLogical(currentHLC);
-            long logical = Math.max(hlc[0], System.currentTimeMillis());
+            long logical = Math.max(hlc[0], physicalClock.getAsLong());
             if (logical == hlc[0])
                 hlc[1]++;
             else {
@@ -54,10 +67,10 @@ public class HLC {
         long[] messageHLC = HLCToPhysicalAndLogical(message);
         while (true) {
             currentHLC = atomicHLC.get();
-            long[] hlc = HLCToPhysicalAndLogical(atomicHLC.get());
-            long logical = Math.max(hlc[0],Math.max(messageHLC[0], System.currentTimeMillis()));
+            long[] hlc = HLCToPhysicalAndLogical(currentHLC);
+            long logical = Math.max(hlc[0],Math.max(messageHLC[0], physicalClock.getAsLong()));
             if (logical == hlc[0] && logical==messageHLC[0])
-                hlc[1] = Math.max(hlc[0],messageHLC[0]) +1;
+                hlc[1] = Math.max(hlc[1],messageHLC[1]) +1;
             else if (logical == hlc[0])
                 hlc[1]++;
             else if (logical == messageHLC[0]) {
@@ -74,6 +87,27 @@ public class HLC {
         }
     }
 
+    /**
+     * @return the last value of this clock, without advancing it
+     */
+    public long current() {
+        return atomicHLC.get();
+    }
+
+    /**
+     * @return the physical time of this clock, in milliseconds
+     */
+    public long physicalTime() {
+        return physicalClock.getAsLong();
+    }
+
+    /**
+     * @return the physical component of {@code hlc}, in milliseconds
+     */
+    public static long physical(long hlc) {
+        return hlc >> hlcNumBitsToShift;
+    }
+
     /**
      * Converts the provided timestamp, in the provided unit, to the HybridTime timestamp
      * format. Logical bits are set to 0.
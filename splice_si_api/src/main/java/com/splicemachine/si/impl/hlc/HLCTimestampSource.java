@@ -14,45 +14,222 @@
 
 package com.splicemachine.si.impl.hlc;
 
+import com.splicemachine.access.api.SConfiguration;
+import com.splicemachine.si.constants.SIConstants;
 import com.splicemachine.timestamp.api.TimestampSource;
+import com.splicemachine.utils.SpliceLogUtils;
+import org.apache.log4j.Logger;
 
 /**
+ * Timestamp source backed by the hybrid logical clock of this JVM, rather than by the timestamp server.
+ *
+ * Timestamps are HLC values shifted left by the subtransaction bits, so that they can serve as transaction ids
+ * just like the timestamps of the oracle. To keep snapshot isolation across servers whose clocks differ:
+ * <ul>
+ *     <li>every timestamp received from another server (in a transaction, a write or a transaction lookup)
+ *     is {@link #observe(long) observed}, so that timestamps issued afterwards are greater;</li>
+ *     <li>region servers return their clock in the responses to writes, and the clock of the caller travels with
+ *     commits, elevations and lookups of transactions, so that a transaction commits after every transaction
+ *     which read the regions it wrote to before it wrote there;</li>
+ *     <li>a commit is only acknowledged once the commit timestamp is older than the maximum clock offset
+ *     ({@link #awaitCommit(long) commit-wait}), so that any transaction begun afterwards, on any server, begins
+ *     after it.</li>
+ * </ul>
+ * Commit-wait alone is not enough: it orders a commit before the transactions which begin after it, not after
+ * those which began earlier on a server whose clock runs ahead, and which could see the transaction's writes appear
+ * in the regions they read. Writes issued by Spark executors report the clocks of their regions to the executors
+ * only, so a transaction writing from Spark still relies on the maximum clock offset being respected.
+ * The oracle, when there is one, is kept ahead of every timestamp issued here, so that a cluster can be switched
+ * back to it; and timestamps issued here start past the oracle's, so that a cluster can be switched from it.
+ * Either switch requires restarting the whole cluster, as the two modes cannot be mixed.
+ *
  * Created by jleach on 4/21/16.
  */
 public class HLCTimestampSource implements TimestampSource {
-    public static final HLC hlc = new HLC();
+    private static final Logger LOG = Logger.getLogger(HLCTimestampSource.class);
+    private final HLC hlc;
+
+    public static final String ORACLE_MODE = "oracle";
+    public static final String HLC_MODE = "hlc";
+
+    private static final int SUBTRANSACTION_BITS = Long.bitCount(SIConstants.SUBTRANSANCTION_ID_MASK);
+    /*
+     * How far ahead of the timestamps issued here the oracle is moved at once, in milliseconds of physical time
+     */
+    private static final long ORACLE_RESERVATION_MS = 1000L;
+    private static final long SKEW_WARNING_INTERVAL_MS = 60000L;
+
+    private static volatile HLCTimestampSource active;
+
+    private final TimestampSource oracle;
+    private final long maxClockOffsetMs;
+    private volatile long reservedUpTo;
+    private volatile long rememberedTimestamp;
+    private volatile long lastSkewWarning;
 
     public HLCTimestampSource() {
+        this(null, 0L);
+    }
+
+    /**
+     * @param oracle the timestamp source this one replaces, or null if there is none
+     * @param maxClockOffsetMs the maximum offset between the clocks of any two servers, in milliseconds
+     */
+    public HLCTimestampSource(TimestampSource oracle, long maxClockOffsetMs) {
+        this(oracle, maxClockOffsetMs, new HLC());
+    }
+
+    HLCTimestampSource(TimestampSource oracle, long maxClockOffsetMs, HLC hlc) {
+        this.hlc = hlc;
+        this.oracle = oracle;
+        this.maxClockOffsetMs = maxClockOffsetMs;
+        if (oracle != null) {
+            // start past every timestamp the oracle issued, or reserved for an earlier run of this source
+            receive(oracle.currentTimestamp());
+        }
+    }
+
+    /**
+     * @return the timestamp source selected by the configuration: {@code oracle} itself, or a source backed by
+     * the hybrid logical clock, which then receives the timestamps observed by this JVM
+     */
+    public static TimestampSource select(SConfiguration config, TimestampSource oracle) {
+        if (!HLC_MODE.equalsIgnoreCase(config.getTimestampMode()))
+            return oracle;
+        SpliceLogUtils.info(LOG, "Using hybrid logical clock timestamps, with a maximum clock offset of %d ms",
+                config.getTimestampMaxClockOffset());
+        HLCTimestampSource source = new HLCTimestampSource(oracle, config.getTimestampMaxClockOffset());
+        active = source;
+        return source;
+    }
+
+    /**
+     * @return whether timestamps come from the hybrid logical clock of this JVM
+     */
+    public static boolean isActive() {
+        return active != null;
+    }
+
+    /**
+     * Makes sure timestamps issued from now on are greater than {@code timestamp}, issued by another server.
+     * Does nothing unless timestamps come from the hybrid logical clock.
+     */
+    public static void observe(long timestamp) {
+        HLCTimestampSource source = active;
+        if (source != null)
+            source.receive(timestamp);
+    }
+
+    /**
+     * @return the clock of this JVM, to hand over to the server a request is sent to, or 0 unless timestamps come
+     * from the hybrid logical clock
+     */
+    public static long observedTimestamp() {
+        HLCTimestampSource source = active;
+        return source != null ? source.currentTimestamp() : 0L;
     }
 
+    /**
+     * Waits until no server can issue a timestamp lower than {@code commitTimestamp} any more. Does nothing
+     * unless timestamps come from the hybrid logical clock.
+     */
+    public static void awaitCommit(long commitTimestamp) {
+        HLCTimestampSource source = active;
+        if (source != null && commitTimestamp > 0)
+            source.commitWait(commitTimestamp);
+    }
 
     @Override
     public long currentTimestamp() {
-        return hlc.sendOrLocalEvent();
+        return toTimestamp(hlc.current());
     }
 
     @Override
     public long nextTimestamp() {
-        return hlc.sendOrLocalEvent();
+        long timestamp = toTimestamp(hlc.sendOrLocalEvent());
+        if (oracle != null && timestamp > reservedUpTo)
+            reserve(timestamp);
+        return timestamp;
     }
 
     @Override
     public void rememberTimestamp(long timestamp) {
-        // No Op
+        if (oracle != null)
+            oracle.rememberTimestamp(timestamp);
+        else
+            rememberedTimestamp = timestamp;
     }
 
     @Override
     public long retrieveTimestamp() {
-        return 0;
+        return oracle != null ? oracle.retrieveTimestamp() : rememberedTimestamp;
     }
 
     @Override
     public void shutdown() {
-
+        if (oracle != null)
+            oracle.shutdown();
     }
 
     @Override
     public void bumpTimestamp(long timestamp) {
+        receive(timestamp);
+        if (oracle != null && timestamp > reservedUpTo)
+            reserve(timestamp);
+    }
+
+    /**
+     * Advances the clock past {@code timestamp}.
+     */
+    public void receive(long timestamp) {
+        long message = toHLC(timestamp);
+        if (message <= hlc.current())
+            return; // the common case, which costs no update
+        long now = hlc.physicalTime();
+        long ahead = HLC.physical(message) - now;
+        if (maxClockOffsetMs > 0 && ahead > maxClockOffsetMs && now - lastSkewWarning > SKEW_WARNING_INTERVAL_MS) {
+            lastSkewWarning = now;
+            SpliceLogUtils.warn(LOG, "Observed a timestamp %d ms ahead of the local clock, more than the maximum " +
+                    "clock offset of %d ms; commits will wait longer until clocks are synchronized", ahead, maxClockOffsetMs);
+        }
+        hlc.receiveEvent(message);
+    }
+
+    /**
+     * Blocks until the local clock is past {@code commitTimestamp} by the maximum clock offset.
+     */
+    public void commitWait(long commitTimestamp) {
+        long until = HLC.physical(toHLC(commitTimestamp)) + maxClockOffsetMs;
+        long remaining;
+        while ((remaining = until - hlc.physicalTime()) >= 0) {
+            try {
+                Thread.sleep(remaining + 1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    public static long toTimestamp(long hlcValue) {
+        return hlcValue << SUBTRANSACTION_BITS;
+    }
+
+    public static long toHLC(long timestamp) {
+        return timestamp >>> SUBTRANSACTION_BITS;
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
 
+    /*
+     * Moves the oracle past timestamp, and a bit further so that this is only needed once in a while.
+     */
+    private synchronized void reserve(long timestamp) {
+        if (timestamp <= reservedUpTo)
+            return;
+        long reservation = toTimestamp(HLC.physicalAndLogicalToHLC(HLC.physical(toHLC(timestamp)) + ORACLE_RESERVATION_MS, 0L));
+        oracle.bumpTimestamp(reservation);
+        reservedUpTo = reservation;
     }
 }
@@ -20,7 +20,9 @@ import com.splicemachine.si.api.txn.Txn;
 import com.splicemachine.si.api.txn.TxnLifecycleManager;
 import com.splicemachine.si.api.txn.TxnSupplier;
 import com.splicemachine.si.api.txn.TxnView;
+import com.splicemachine.si.impl.UnsupportedLifecycleManager;
 import com.splicemachine.si.impl.driver.SIDriver;
+import com.splicemachine.si.impl.hlc.HLCTimestampSource;
 import com.splicemachine.utils.ByteSlice;
 import com.splicemachine.utils.SliceIterator;
 import com.splicemachine.utils.SpliceLogUtils;
@@ -28,8 +30,11 @@ import org.apache.log4j.Logger;
 
 import java.io.IOException;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Deque;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArraySet;
 
@@ -50,6 +55,8 @@ public class WritableTxn extends AbstractTxn{
     private Set<byte[]> tableWrites=new CopyOnWriteArraySet<>();
     private TaskId taskId;
     private ExceptionFactory exceptionFactory;
+    private volatile boolean registered=true;
+    private volatile boolean registrationSent;
 
     public WritableTxn(){
 
@@ -87,6 +94,23 @@ public class WritableTxn extends AbstractTxn{
             this.tableWrites.add(destinationTable);
     }
 
+    /**
+     * @return a stand-in for a transaction begun on another server, holding what is recorded of it on the
+     * transaction table, so that it can be recorded on its behalf
+     */
+    public static WritableTxn recordOf(long txnId,
+                                       long beginTimestamp,
+                                       IsolationLevel isolationLevel,
+                                       TxnView parentTxn,
+                                       boolean isAdditive,
+                                       List<byte[]> destinationTables,
+                                       TaskId taskId){
+        WritableTxn txn=new WritableTxn(txnId,beginTimestamp,null,isolationLevel,parentTxn,
+                UnsupportedLifecycleManager.INSTANCE,isAdditive,null,taskId,null);
+        txn.tableWrites.addAll(destinationTables);
+        return txn;
+    }
+
     public WritableTxn(Txn txn,TxnLifecycleManager tc,byte[] destinationTable,ExceptionFactory exceptionFactory){
         super(txn, txn.getTxnId(), txn.getBeginTimestamp(),txn.getIsolationLevel());
         this.parentTxn=txn.getParentTxnView();
@@ -167,6 +191,13 @@ public class WritableTxn extends AbstractTxn{
                                 }
                             }
                         }
+                        if (ROOT_TRANSACTION.equals(parentTxn)) {
+                            /*
+                             * With hybrid-logical-clock timestamps, the commit is only acknowledged once every
+                             * server's clock is past its timestamp, so that whatever begins next sees it
+                             */
+                            HLCTimestampSource.awaitCommit(commitTimestamp);
+                        }
                 }
             }
         } else {
@@ -275,4 +306,71 @@ public class WritableTxn extends AbstractTxn{
     public TaskId getTaskId() {
         return taskId;
     }
+
+    /**
+     * @return whether this transaction is recorded on the transaction table. A transaction whose registration
+     * was deferred is only recorded along with its first write, or when it is handed to another server.
+     */
+    public boolean isRegistered(){
+        return registered;
+    }
+
+    public void deferRegistration(){
+        registered=false;
+    }
+
+    public void markRegistered(){
+        registered=true;
+    }
+
+    /**
+     * @return whether the registration of this transaction was piggybacked on a write which may have reached
+     * a server, even though it was not acknowledged
+     */
+    public boolean isRegistrationSent(){
+        return registrationSent;
+    }
+
+    public void markRegistrationSent(){
+        registrationSent=true;
+    }
+
+    /**
+     * Records this transaction, and those of its ancestors which are not yet, on the transaction table.
+     *
+     * @param recorded whether a server already recorded them on our behalf, along with a write
+     */
+    public void register(boolean recorded) throws IOException{
+        if(!registered)
+            tc.registerTransaction(txnId,recorded);
+    }
+
+    /**
+     * @return the transactions of the family of {@code txn}, {@code txn} included, whose registration is still
+     * deferred, from the oldest ancestor down
+     */
+    public static List<WritableTxn> unregisteredChain(TxnView txn){
+        List<WritableTxn> chain=null;
+        for(TxnView t=txn;t!=null && t!=Txn.ROOT_TRANSACTION;t=t.getParentTxnView()){
+            if(t instanceof WritableTxn && !((WritableTxn)t).registered){
+                if(chain==null)
+                    chain=new ArrayList<>(2);
+                chain.add((WritableTxn)t);
+            }
+        }
+        if(chain==null)
+            return Collections.emptyList();
+        Collections.reverse(chain);
+        return chain;
+    }
+
+    /**
+     * Makes sure {@code txn} and its ancestors are recorded on the transaction table, before it is handed to
+     * another server other than through its own writes.
+     */
+    public static void ensureRegistered(TxnView txn) throws IOException{
+        List<WritableTxn> chain=unregisteredChain(txn);
+        if(!chain.isEmpty())
+            chain.get(chain.size()-1).register(false);
+    }
 }
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.si.api.readresolve;
+
+import com.splicemachine.si.api.txn.TxnSupplier;
+import com.splicemachine.si.impl.rollforward.RollForwardStatus;
+import com.splicemachine.si.testenv.ArchitectureIndependent;
+import com.splicemachine.storage.Partition;
+import com.splicemachine.utils.ByteSlice;
+import com.splicemachine.utils.GreenLight;
+import com.splicemachine.utils.TrafficControl;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@Category(ArchitectureIndependent.class)
+public class AsyncReadResolverTest{
+    private final RecordingResolver resolver=new RecordingResolver();
+    private AsyncReadResolver asyncResolver;
+
+    @After
+    public void tearDown(){
+        if(asyncResolver!=null)
+            asyncResolver.shutdown();
+    }
+
+    @Test
+    public void coalescesRowsOfARegionAndTransaction() throws Exception{
+        asyncResolver=start(4,60000L);
+        ReadResolver r1=asyncResolver.getResolver(region("r1"),null);
+        ReadResolver r2=asyncResolver.getResolver(region("r2"),null);
+        for(int i=0;i<8;i++){
+            r1.resolve(row(i),1L);
+            r2.resolve(row(i),2L);
+        }
+        List<Batch> batches=resolver.await(4);
+        for(Batch batch:batches){
+            Assert.assertEquals("Batches should be flushed once full",4,batch.rows.size());
+            Assert.assertEquals(batch.region.equals("r1")?1L:2L,batch.txnId);
+        }
+        Assert.assertEquals(16L,asyncResolver.getFlushedRows());
+        Assert.assertEquals(4,asyncResolver.getMaxBatchSize());
+        Assert.assertEquals(4d,asyncResolver.getAverageBatchSize(),0d);
+        Assert.assertEquals(0L,asyncResolver.getPendingRows());
+    }
+
+    @Test
+    public void dropsRowsWhichArePendingAlready() throws Exception{
+        asyncResolver=start(3,60000L);
+        ReadResolver r1=asyncResolver.getResolver(region("r1"),null);
+        for(int i:new int[]{0,1,1,0,2})
+            r1.resolve(row(i),1L);
+        List<Batch> batches=resolver.await(1);
+        Assert.assertEquals(3,batches.get(0).rows.size());
+        Assert.assertEquals(2L,asyncResolver.getDeduplicatedRows());
+    }
+
+    @Test
+    public void flushesLingeringRows() throws Exception{
+        asyncResolver=start(100,20L);
+        asyncResolver.getResolver(region("r1"),null).resolve(row(0),1L);
+        asyncResolver.getResolver(region("r1"),null).resolve(row(1),1L);
+        asyncResolver.getResolver(region("r1"),null).resolve(row(2),3L);
+        List<Batch> batches=resolver.await(2);
+        Assert.assertEquals(2,batches.get(0).rows.size());
+        Assert.assertEquals(1,batches.get(1).rows.size());
+        Assert.assertEquals(3L,batches.get(1).txnId);
+    }
+
+    @Test
+    public void flushesWhenTheQueueIsDrainedWithoutLinger() throws Exception{
+        asyncResolver=start(100,0L);
+        asyncResolver.getResolver(region("r1"),null).resolve(row(0),1L);
+        List<Batch> batches=resolver.await(1);
+        Assert.assertEquals(1,batches.get(0).rows.size());
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+
+    private AsyncReadResolver start(int batchSize,long lingerMillis){
+        AsyncReadResolver ar=new AsyncReadResolver(1,1024,batchSize,lingerMillis,
+                mock(TxnSupplier.class),new RollForwardStatus(),GreenLight.INSTANCE,resolver);
+        ar.start();
+        return ar;
+    }
+
+    private static Partition region(String name){
+        Partition p=mock(Partition.class);
+        when(p.getEncodedName()).thenReturn(name);
+        return p;
+    }
+
+    private static ByteSlice row(int i){
+        return ByteSlice.wrap(new byte[]{(byte)i});
+    }
+
+    private static class Batch{
+        private final String region;
+        private final long txnId;
+        private final List<ByteSlice> rows;
+
+        Batch(String region,long txnId,List<ByteSlice> rows){
+            this.region=region;
+            this.txnId=txnId;
+            this.rows=rows;
+        }
+    }
+
+    private static class RecordingResolver implements KeyedReadResolver{
+        private final List<Batch> batches=Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public boolean resolve(Partition region,ByteSlice rowKey,long txnId,TxnSupplier txnSupplier,
+                               RollForwardStatus status,boolean failOnError,TrafficControl trafficControl){
+            return resolve(region,Collections.singletonList(rowKey),txnId,txnSupplier,status,failOnError,trafficControl)==1;
+        }
+
+        @Override
+        public int resolve(Partition region,Collection<ByteSlice> rowKeys,long txnId,TxnSupplier txnSupplier,
+                           RollForwardStatus status,boolean failOnError,TrafficControl trafficControl){
+            batches.add(new Batch(region.getEncodedName(),txnId,new ArrayList<>(rowKeys)));
+            return rowKeys.size();
+        }
+
+        List<Batch> await(int count) throws InterruptedException{
+            for(int i=0;i<200 && batches.size()<count;i++)
+                Thread.sleep(10);
+            Assert.assertEquals("Unexpected number of batches",count,batches.size());
+            return new ArrayList<>(batches);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.si.impl;
+
+import com.splicemachine.concurrent.IncrementingClock;
+import com.splicemachine.primitives.Bytes;
+import com.splicemachine.si.api.data.ExceptionFactory;
+import com.splicemachine.si.api.txn.Txn;
+import com.splicemachine.si.impl.store.TestingTimestampSource;
+import com.splicemachine.si.impl.store.TestingTxnStore;
+import com.splicemachine.si.impl.txn.WritableTxn;
+import com.splicemachine.si.testenv.ArchitectureSpecific;
+import com.splicemachine.si.testenv.SITestEnvironment;
+import com.splicemachine.timestamp.api.TimestampSource;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.List;
+
+/**
+ * Tests around the deferred registration of writable transactions.
+ */
+@Category(ArchitectureSpecific.class)
+public class ClientTxnLifecycleManagerTest{
+    private static final byte[] DESTINATION_TABLE=Bytes.toBytes("1184");
+
+    private TestingTxnStore txnStore;
+    private ClientTxnLifecycleManager lifecycleManager;
+
+    @Before
+    public void setUp() throws Exception{
+        ExceptionFactory exceptionFactory=SITestEnvironment.loadTestDataEnvironment().getExceptionFactory();
+        TimestampSource tss=new TestingTimestampSource();
+        txnStore=new TestingTxnStore(new IncrementingClock(),tss,exceptionFactory,Long.MAX_VALUE);
+        lifecycleManager=new ClientTxnLifecycleManager(tss,exceptionFactory);
+        lifecycleManager.setTxnStore(txnStore);
+        lifecycleManager.setKeepAliveScheduler(new ManualKeepAliveScheduler(txnStore));
+        lifecycleManager.setLazyRegistration(true,1000L);
+    }
+
+    @Test
+    public void recordsOnBeginWhenNotLazy() throws Exception{
+        lifecycleManager.setLazyRegistration(false,1000L);
+        Txn txn=lifecycleManager.beginTransaction(DESTINATION_TABLE);
+        Assert.assertEquals("The transaction should be recorded when it begins",1L,txnStore.createdCount());
+        txn.commit();
+        Assert.assertEquals(1L,txnStore.commitCount());
+    }
+
+    @Test
+    public void commitsWithoutRecordingTransactionsWhichNeverWrote() throws Exception{
+        Txn txn=lifecycleManager.beginTransaction(DESTINATION_TABLE);
+        Assert.assertEquals("The transaction should not be recorded yet",0L,txnStore.createdCount());
+        txn.commit();
+        Assert.assertEquals(Txn.State.COMMITTED,txn.getState());
+        Assert.assertTrue("Incorrect commit timestamp",txn.getCommitTimestamp()>txn.getBeginTimestamp());
+        Assert.assertEquals("Nothing should have reached the transaction table",0L,txnStore.createdCount());
+        Assert.assertEquals(0L,txnStore.commitCount());
+    }
+
+    @Test
+    public void elevatedTransactionsAreDeferredToo() throws Exception{
+        Txn txn=lifecycleManager.beginTransaction();
+        txn=txn.elevateToWritable(DESTINATION_TABLE);
+        Assert.assertTrue(txn.allowsWrites());
+        Assert.assertEquals(0L,txnStore.createdCount());
+        txn.elevateToWritable(Bytes.toBytes("1200"));
+        Assert.assertEquals("The new table should be recorded with the transaction",0L,txnStore.elevationCount());
+        txn.rollback();
+        Assert.assertEquals(Txn.State.ROLLEDBACK,txn.getState());
+        Assert.assertEquals(0L,txnStore.createdCount());
+    }
+
+    @Test
+    public void registrationRecordedWithAWriteIsNotRepeated() throws Exception{
+        WritableTxn txn=(WritableTxn)lifecycleManager.beginTransaction(DESTINATION_TABLE);
+        List<WritableTxn> chain=WritableTxn.unregisteredChain(txn);
+        Assert.assertEquals(1,chain.size());
+        txn.markRegistrationSent();
+        txnStore.recordNewTransactionIfAbsent(txn); // what the server does on receiving the write
+        txn.register(true);
+        Assert.assertTrue(txn.isRegistered());
+        Assert.assertTrue(WritableTxn.unregisteredChain(txn).isEmpty());
+
+        txn.commit();
+        Assert.assertEquals("Only the server should have recorded the transaction",1L,txnStore.createdCount());
+        Assert.assertEquals(1L,txnStore.commitCount());
+    }
+
+    @Test
+    public void unacknowledgedRegistrationIsRecordedBeforeCommit() throws Exception{
+        WritableTxn txn=(WritableTxn)lifecycleManager.beginTransaction(DESTINATION_TABLE);
+        txn.markRegistrationSent(); // the write failed, and may or may not have reached the server
+        txn.commit();
+        Assert.assertEquals(1L,txnStore.createdCount());
+        Assert.assertEquals(1L,txnStore.commitCount());
+        Assert.assertEquals(Txn.State.COMMITTED,txnStore.getTransaction(txn.getTxnId()).getState());
+    }
+
+    @Test
+    public void registersAncestorsFirst() throws Exception{
+        Txn parent=lifecycleManager.beginTransaction(DESTINATION_TABLE);
+        Txn child=lifecycleManager.beginChildTransaction(parent,DESTINATION_TABLE);
+        List<WritableTxn> chain=WritableTxn.unregisteredChain(child);
+        Assert.assertEquals(2,chain.size());
+        Assert.assertSame("Ancestors should come first",parent,chain.get(0));
+        Assert.assertSame(child,chain.get(1));
+
+        WritableTxn.ensureRegistered(child);
+        Assert.assertEquals(2L,txnStore.createdCount());
+        Assert.assertEquals(parent.getTxnId(),txnStore.getTransaction(child.getTxnId()).getParentTxnId());
+        Assert.assertTrue(WritableTxn.unregisteredChain(child).isEmpty());
+
+        child.commit();
+        parent.commit();
+        Assert.assertEquals(2L,txnStore.createdCount());
+        Assert.assertEquals(2L,txnStore.commitCount());
+    }
+}
@@ -32,4 +32,24 @@ public class HLCTest {
             value = comparison;
         }
     }
+
+    @Test
+    public void receiveEventMovesPastMessage() {
+        HLC hlc = new HLC();
+        long local = hlc.sendOrLocalEvent();
+        long message = HLC.physicalAndLogicalToHLC(HLC.physical(local) + 10000, 5);
+        long received = hlc.receiveEvent(message);
+        Assert.assertTrue("should be past the message", received > message);
+        Assert.assertEquals(HLC.physical(message), HLC.physical(received));
+        Assert.assertEquals(received, hlc.current());
+        Assert.assertTrue("should keep increasing after the message", hlc.sendOrLocalEvent() > received);
+    }
+
+    @Test
+    public void receiveEventOfOldMessageStillIncreases() {
+        HLC hlc = new HLC();
+        long local = hlc.sendOrLocalEvent();
+        long received = hlc.receiveEvent(HLC.physicalAndLogicalToHLC(1L, 0L));
+        Assert.assertTrue("went backwards, catastophic", received > local);
+    }
 }
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.si.impl.hlc;
+
+import com.splicemachine.si.constants.SIConstants;
+import com.splicemachine.si.impl.store.TestingTimestampSource;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class HLCTimestampSourceTest {
+
+    @Test
+    public void leavesRoomForSubtransactions() {
+        HLCTimestampSource source = new HLCTimestampSource();
+        for (int i = 0; i < 10000; i++) {
+            Assert.assertEquals(0L, source.nextTimestamp() & SIConstants.SUBTRANSANCTION_ID_MASK);
+        }
+    }
+
+    @Test
+    public void alwaysIncreasing() {
+        HLCTimestampSource source = new HLCTimestampSource();
+        long value = 0;
+        for (int i = 0; i < 100000; i++) {
+            long next = source.nextTimestamp();
+            Assert.assertTrue("went backwards, catastophic", value < next);
+            Assert.assertTrue("current timestamp should not be behind the last one", source.currentTimestamp() >= next);
+            value = next;
+        }
+    }
+
+    @Test
+    public void startsPastTheOracle() {
+        TestingTimestampSource oracle = new TestingTimestampSource();
+        long ahead = HLCTimestampSource.toTimestamp(HLC.physicalAndLogicalToHLC(System.currentTimeMillis() + 20, 0));
+        oracle.bumpTimestamp(ahead);
+        HLCTimestampSource source = new HLCTimestampSource(oracle, 0L);
+        Assert.assertTrue("should start past the oracle", source.nextTimestamp() > ahead);
+    }
+
+    @Test
+    public void keepsTheOracleAhead() {
+        TestingTimestampSource oracle = new TestingTimestampSource();
+        HLCTimestampSource source = new HLCTimestampSource(oracle, 0L);
+        for (int i = 0; i < 1000; i++) {
+            long next = source.nextTimestamp();
+            Assert.assertTrue("the oracle should be ahead", oracle.nextTimestamp() > next);
+        }
+    }
+
+    @Test
+    public void observedTimestampsComeBefore() {
+        HLCTimestampSource source = new HLCTimestampSource();
+        long remote = HLCTimestampSource.toTimestamp(HLC.physicalAndLogicalToHLC(System.currentTimeMillis() + 20, 7));
+        source.receive(remote);
+        Assert.assertTrue("should be past the observed timestamp", source.nextTimestamp() > remote);
+    }
+
+    @Test
+    public void commitWaitsForTheClockOffset() {
+        HLCTimestampSource source = new HLCTimestampSource(null, 50L);
+        long start = System.currentTimeMillis();
+        long commitTs = source.nextTimestamp();
+        source.commitWait(commitTs);
+        long end = System.currentTimeMillis();
+        Assert.assertTrue("should wait out the clock offset", end - start >= 50);
+        Assert.assertTrue("the clock should be past the offset", end > HLC.physical(HLCTimestampSource.toHLC(commitTs)) + 50);
+    }
+
+    @Test
+    public void commitFollowsReadersOfTheWrittenRegionsDespiteSkewedClocks() {
+        long now = System.currentTimeMillis();
+        // the reader's server runs ahead, the server holding the writer's transaction row runs behind
+        HLCTimestampSource readerServer = new HLCTimestampSource(null, 250L, new HLC(() -> now + 1000));
+        HLCTimestampSource regionServer = new HLCTimestampSource(null, 250L, new HLC(() -> now));
+        HLCTimestampSource writerServer = new HLCTimestampSource(null, 250L, new HLC(() -> now));
+        HLCTimestampSource txnServer = new HLCTimestampSource(null, 250L, new HLC(() -> now - 1000));
+
+        long writerBegin = writerServer.nextTimestamp();
+        long readerBegin = readerServer.nextTimestamp();
+        Assert.assertTrue("a commit on the slow server would come before the reader",
+                new HLCTimestampSource(null, 250L, new HLC(() -> now - 1000)).nextTimestamp() < readerBegin);
+
+        // the reader scans the region, then the writer writes to it and gets the clock of the region back
+        regionServer.receive(readerBegin);
+        regionServer.receive(writerBegin);
+        writerServer.receive(regionServer.currentTimestamp());
+
+        // the commit request carries the clock of the writer
+        txnServer.receive(writerServer.currentTimestamp());
+        long commit = txnServer.nextTimestamp();
+        Assert.assertTrue("the writer should commit after the reader began", commit > readerBegin);
+    }
+}
@@ -54,6 +54,8 @@ public class TestingTimestampSource implements TimestampSource{
 
     @Override
     public void bumpTimestamp(long timestamp) {
-
+        synchronized (this) {
+            id = Math.max(id, timestamp);
+        }
     }
 }
@@ -30,6 +30,7 @@ import java.io.IOException;
 import java.sql.Timestamp;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 
@@ -46,6 +47,10 @@ public class TestingTxnStore implements TxnStore{
     private TxnLifecycleManager tc;
     private final long txnTimeOutIntervalMs;
     private final ExceptionFactory exceptionFactory;
+    private final AtomicLong created=new AtomicLong();
+    private final AtomicLong elevations=new AtomicLong();
+    private final AtomicLong commits=new AtomicLong();
+    private final AtomicLong rollbacks=new AtomicLong();
 
 
     public TestingTxnStore(Clock clock,
@@ -113,9 +118,16 @@ public class TestingTxnStore implements TxnStore{
     public void recordNewTransaction(Txn txn) throws IOException{
         TxnHolder txn1=txnMap.get(txn.getTxnId());
         assert txn1==null:" Transaction "+txn.getTxnId()+" already existed!";
+        created.incrementAndGet();
         txnMap.put(txn.getTxnId(),new TxnHolder(txn,clock.currentTimeMillis()));
     }
 
+    @Override
+    public void recordNewTransactionIfAbsent(Txn txn) throws IOException{
+        if(txnMap.putIfAbsent(txn.getTxnId(),new TxnHolder(txn,clock.currentTimeMillis()))==null)
+            created.incrementAndGet();
+    }
+
     @Override
     public void registerActiveTransaction(Txn txn) {
         
@@ -133,6 +145,7 @@ public class TestingTxnStore implements TxnStore{
 
     @Override
     public void rollback(long txnId) throws IOException{
+        rollbacks.incrementAndGet();
         TxnHolder txnHolder=txnMap.get(txnId);
         if(txnHolder==null) return; //no transaction exists
 
@@ -194,6 +207,7 @@ public class TestingTxnStore implements TxnStore{
     public long commit(long txnId) throws IOException{
         TxnHolder txnHolder=txnMap.get(txnId);
         if(txnHolder==null) throw new IOException("Cannot commit txn "+txnId);
+        commits.incrementAndGet();
 
         final Txn txn= (Txn) txnHolder.txn;
         if(txn.getEffectiveState()==Txn.State.ROLLEDBACK)
@@ -270,6 +284,7 @@ public class TestingTxnStore implements TxnStore{
     @Override
     public void elevateTransaction(Txn txn,byte[] newDestinationTable) throws IOException{
         long txnId=txn.getTxnId();
+        elevations.incrementAndGet();
         Txn writableTxnCopy=new WritableTxn(txn,tc,newDestinationTable,exceptionFactory);
         TxnHolder oldTxn=txnMap.get(txnId);
         if(oldTxn==null){
@@ -330,22 +345,22 @@ public class TestingTxnStore implements TxnStore{
 
     @Override
     public long elevationCount(){
-        return 0;
+        return elevations.get();
     }
 
     @Override
     public long createdCount(){
-        return 0;
+        return created.get();
     }
 
     @Override
     public long rollbackCount(){
-        return 0;
+        return rollbacks.get();
     }
 
     @Override
     public long commitCount(){
-        return 0;
+        return commits.get();
     }
 
     public boolean keepAlive(Txn txn) throws IOException{
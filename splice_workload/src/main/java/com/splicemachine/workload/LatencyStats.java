@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.workload;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The latencies of one operation, recorded by all the workers running it, in microseconds.
+ *
+ * Two histograms are kept. The service time runs from the moment the operation was actually started. The
+ * response time runs from the moment it was meant to start: when workers are paced, an operation delayed by
+ * a slow predecessor is charged the delay, which is what a client issuing requests at that rate would see.
+ * Without that correction a stall is recorded once instead of for every request it held up, and the high
+ * percentiles come out far too low (coordinated omission).
+ *
+ * Unpaced workers have no intended start times. Their response times are corrected instead by
+ * back-filling each long sample as if operations had kept arriving at the median interval seen during the
+ * warm-up.
+ */
+public class LatencyStats {
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final String mix;
+    private final String name;
+    private final Recorder responseTimes = new Recorder(SIGNIFICANT_DIGITS);
+    private final Recorder serviceTimes = new Recorder(SIGNIFICANT_DIGITS);
+    private final LongAdder rollbacks = new LongAdder();
+    private final ConcurrentMap<String, LongAdder> errors = new ConcurrentHashMap<>();
+    private volatile long expectedIntervalMicros;
+    private volatile long startMillis = System.currentTimeMillis();
+
+    public LatencyStats(String mix, String name) {
+        this.mix = mix;
+        this.name = name;
+    }
+
+    public void record(long intendedStartNanos, long startNanos, long endNanos) {
+        responseTimes.recordValue(TimeUnit.NANOSECONDS.toMicros(endNanos - intendedStartNanos));
+        serviceTimes.recordValue(TimeUnit.NANOSECONDS.toMicros(endNanos - startNanos));
+    }
+
+    public void rolledBack() {
+        rollbacks.increment();
+    }
+
+    public void failed(SQLException e) {
+        String state = e.getSQLState() == null ? "unknown" : e.getSQLState();
+        errors.computeIfAbsent(state, k -> new LongAdder()).increment();
+    }
+
+    /**
+     * Ends the warm-up, discarding everything recorded so far.
+     */
+    public void reset() {
+        Histogram warmup = serviceTimes.getIntervalHistogram();
+        responseTimes.reset();
+        expectedIntervalMicros = warmup.getTotalCount() > 0 ? warmup.getValueAtPercentile(50.0) : 0L;
+        rollbacks.reset();
+        errors.clear();
+        startMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * @param paced whether the workers running the operation were paced, see the class comment
+     * @return what was recorded since the end of the warm-up
+     */
+    public Result finish(boolean paced) {
+        Histogram service = serviceTimes.getIntervalHistogram();
+        Histogram response = responseTimes.getIntervalHistogram();
+        if (!paced && expectedIntervalMicros > 0)
+            response = service.copyCorrectedForCoordinatedOmission(expectedIntervalMicros);
+        long endMillis = System.currentTimeMillis();
+        for (Histogram histogram : new Histogram[]{response, service}) {
+            histogram.setStartTimeStamp(startMillis);
+            histogram.setEndTimeStamp(endMillis);
+        }
+        response.setTag(mix + "." + name + ".response");
+        service.setTag(mix + "." + name + ".service");
+        Map<String, Long> errorCounts = new TreeMap<>();
+        for (Map.Entry<String, LongAdder> e : errors.entrySet()) {
+            errorCounts.put(e.getKey(), e.getValue().sum());
+        }
+        return new Result(mix, name, paced, endMillis - startMillis, rollbacks.sum(), errorCounts, response, service);
+    }
+
+    public static class Result {
+        private final String mix;
+        private final String name;
+        private final boolean paced;
+        private final long durationMillis;
+        private final long rollbacks;
+        private final Map<String, Long> errors;
+        private final Histogram responseTimes;
+        private final Histogram serviceTimes;
+
+        Result(String mix, String name, boolean paced, long durationMillis, long rollbacks, Map<String, Long> errors,
+               Histogram responseTimes, Histogram serviceTimes) {
+            this.mix = mix;
+            this.name = name;
+            this.paced = paced;
+            this.durationMillis = durationMillis;
+            this.rollbacks = rollbacks;
+            this.errors = errors;
+            this.responseTimes = responseTimes;
+            this.serviceTimes = serviceTimes;
+        }
+
+        public String getMix() {
+            return mix;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean isPaced() {
+            return paced;
+        }
+
+        public long getDurationMillis() {
+            return durationMillis;
+        }
+
+        /**
+         * @return the number of operations completed, including those rolled back by design
+         */
+        public long getCount() {
+            return serviceTimes.getTotalCount();
+        }
+
+        public long getRollbacks() {
+            return rollbacks;
+        }
+
+        /**
+         * @return the number of failed operations by SQL state, e.g. write-write conflicts
+         */
+        public Map<String, Long> getErrors() {
+            return errors;
+        }
+
+        public Histogram getResponseTimes() {
+            return responseTimes;
+        }
+
+        public Histogram getServiceTimes() {
+            return serviceTimes;
+        }
+    }
+}
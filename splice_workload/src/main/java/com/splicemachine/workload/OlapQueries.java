@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.workload;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+/**
+ * Analytical queries modelled on TPC-H, adapted to the TPC-C schema as in the CH-benCHmark, so that they can run
+ * alongside the {@link OltpTransactions} on the same data.
+ */
+public class OlapQueries {
+    // older than any loaded or new row, as the CH-benCHmark date constants
+    private static final Timestamp SINCE = Timestamp.valueOf("2007-01-02 00:00:00");
+
+    private OlapQueries() {
+    }
+
+    public static Mix mix() {
+        return new Mix("olap")
+                .add(new Query("Q1", "SELECT ol_number, SUM(ol_quantity), SUM(ol_amount), AVG(ol_quantity)," +
+                        " AVG(ol_amount), COUNT(*) FROM ORDER_LINE WHERE ol_delivery_d > ?" +
+                        " GROUP BY ol_number ORDER BY ol_number"), 1)
+                .add(new Query("Q3", "SELECT ol_o_id, ol_w_id, ol_d_id, SUM(ol_amount) AS revenue, o_entry_d" +
+                        " FROM CUSTOMER, NEW_ORDER, OORDER, ORDER_LINE" +
+                        " WHERE c_state LIKE 'A%' AND c_id = o_c_id AND c_w_id = o_w_id AND c_d_id = o_d_id" +
+                        " AND no_w_id = o_w_id AND no_d_id = o_d_id AND no_o_id = o_id" +
+                        " AND ol_w_id = o_w_id AND ol_d_id = o_d_id AND ol_o_id = o_id AND o_entry_d > ?" +
+                        " GROUP BY ol_o_id, ol_w_id, ol_d_id, o_entry_d" +
+                        " ORDER BY revenue DESC, o_entry_d FETCH FIRST 10 ROWS ONLY"), 1)
+                .add(new Query("Q4", "SELECT o_ol_cnt, COUNT(*) FROM OORDER WHERE o_entry_d >= ?" +
+                        " AND EXISTS (SELECT * FROM ORDER_LINE WHERE o_id = ol_o_id AND o_w_id = ol_w_id" +
+                        " AND o_d_id = ol_d_id AND ol_delivery_d >= o_entry_d)" +
+                        " GROUP BY o_ol_cnt ORDER BY o_ol_cnt"), 1)
+                .add(new Query("Q6", "SELECT SUM(ol_amount) FROM ORDER_LINE" +
+                        " WHERE ol_delivery_d >= ? AND ol_quantity BETWEEN 1 AND 100000"), 1)
+                .add(new Query("Q12", "SELECT o_ol_cnt," +
+                        " SUM(CASE WHEN o_carrier_id = 1 OR o_carrier_id = 2 THEN 1 ELSE 0 END)," +
+                        " SUM(CASE WHEN o_carrier_id <> 1 AND o_carrier_id <> 2 THEN 1 ELSE 0 END)" +
+                        " FROM OORDER, ORDER_LINE WHERE ol_w_id = o_w_id AND ol_d_id = o_d_id AND ol_o_id = o_id" +
+                        " AND o_entry_d <= ol_delivery_d AND ol_delivery_d >= ?" +
+                        " GROUP BY o_ol_cnt ORDER BY o_ol_cnt"), 1)
+                .add(new Query("Q14", "SELECT 100.00 * SUM(CASE WHEN i_data LIKE 'PR%' THEN ol_amount ELSE 0 END)" +
+                        " / (1 + SUM(ol_amount)) FROM ORDER_LINE, ITEM WHERE ol_i_id = i_id AND ol_delivery_d >= ?"), 1);
+    }
+
+    static class Query implements Operation {
+        private final String name;
+        private final String sql;
+
+        Query(String name, String sql) {
+            this.name = name;
+            this.sql = sql;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public boolean execute(Session session) throws SQLException {
+            PreparedStatement statement = session.prepare(sql);
+            statement.setTimestamp(1, SINCE);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    // consume every row, as a client would
+                }
+            }
+            return true;
+        }
+    }
+}
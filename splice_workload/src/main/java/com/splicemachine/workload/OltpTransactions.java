@@ -0,0 +1,378 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.workload;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Arrays;
+
+import static com.splicemachine.workload.TpccSchema.DISTRICTS_PER_WAREHOUSE;
+import static com.splicemachine.workload.TpccSchema.ITEMS;
+
+/**
+ * The five TPC-C transactions (section 2), run in the mix of the specification's minimum percentages.
+ *
+ * Input generation follows the specification, but the transactions return nothing to a terminal and keying
+ * and think times are left out: the pace of a worker is set by the driver instead.
+ */
+public class OltpTransactions {
+
+    private OltpTransactions() {
+    }
+
+    public static Mix mix() {
+        return new Mix("oltp")
+                .add(new NewOrder(), 45)
+                .add(new Payment(), 43)
+                .add(new OrderStatus(), 4)
+                .add(new Delivery(), 4)
+                .add(new StockLevel(), 4);
+    }
+
+    static class NewOrder implements Operation {
+        @Override
+        public String getName() {
+            return "NewOrder";
+        }
+
+        @Override
+        public boolean execute(Session session) throws SQLException {
+            TpccRandom random = session.getRandom();
+            int warehouses = session.getSchema().getWarehouses();
+            int w = session.getHomeWarehouse();
+            int d = random.uniform(1, DISTRICTS_PER_WAREHOUSE);
+            int c = random.customerId(session.getSchema().getCustomersPerDistrict());
+            int lineCount = random.uniform(5, 15);
+            boolean rollback = random.uniform(1, 100) == 1;
+
+            PreparedStatement customer = session.prepare(
+                    "SELECT c_discount, c_last, c_credit FROM CUSTOMER WHERE c_w_id = ? AND c_d_id = ? AND c_id = ?");
+            customer.setInt(1, w);
+            customer.setInt(2, d);
+            customer.setInt(3, c);
+            double discount = single(customer).getDouble(1);
+
+            PreparedStatement nextOrder = session.prepare(
+                    "UPDATE DISTRICT SET d_next_o_id = d_next_o_id + 1 WHERE d_w_id = ? AND d_id = ?");
+            nextOrder.setInt(1, w);
+            nextOrder.setInt(2, d);
+            nextOrder.executeUpdate();
+            PreparedStatement district = session.prepare(
+                    "SELECT d_next_o_id - 1, d_tax, w_tax FROM DISTRICT, WAREHOUSE WHERE d_w_id = ? AND d_id = ? AND w_id = d_w_id");
+            district.setInt(1, w);
+            district.setInt(2, d);
+            ResultSet rs = single(district);
+            int o = rs.getInt(1);
+            double tax = rs.getDouble(2) + rs.getDouble(3);
+
+            int[] items = new int[lineCount];
+            int[] supplyWarehouses = new int[lineCount];
+            boolean allLocal = true;
+            for (int l = 0; l < lineCount; l++) {
+                items[l] = rollback && l == lineCount - 1 ? ITEMS + 1 : random.itemId(ITEMS);
+                // 1% of the lines are supplied by a remote warehouse
+                supplyWarehouses[l] = warehouses > 1 && random.uniform(1, 100) == 1 ? remote(random, w, warehouses) : w;
+                allLocal &= supplyWarehouses[l] == w;
+            }
+
+            Timestamp now = new Timestamp(System.currentTimeMillis());
+            PreparedStatement order = session.prepare("INSERT INTO OORDER VALUES (?, ?, ?, ?, ?, NULL, ?, ?)");
+            order.setInt(1, w);
+            order.setInt(2, d);
+            order.setInt(3, o);
+            order.setInt(4, c);
+            order.setTimestamp(5, now);
+            order.setInt(6, lineCount);
+            order.setInt(7, allLocal ? 1 : 0);
+            order.executeUpdate();
+            PreparedStatement newOrder = session.prepare("INSERT INTO NEW_ORDER VALUES (?, ?, ?)");
+            newOrder.setInt(1, w);
+            newOrder.setInt(2, d);
+            newOrder.setInt(3, o);
+            newOrder.executeUpdate();
+
+            PreparedStatement item = session.prepare("SELECT i_price FROM ITEM WHERE i_id = ?");
+            PreparedStatement stock = session.prepare(
+                    "SELECT s_quantity, s_dist_info FROM STOCK WHERE s_w_id = ? AND s_i_id = ?");
+            PreparedStatement updateStock = session.prepare("UPDATE STOCK SET s_quantity = ?, s_ytd = s_ytd + ?," +
+                    " s_order_cnt = s_order_cnt + 1, s_remote_cnt = s_remote_cnt + ? WHERE s_w_id = ? AND s_i_id = ?");
+            PreparedStatement line = session.prepare("INSERT INTO ORDER_LINE VALUES (?, ?, ?, ?, ?, ?, NULL, ?, ?, ?)");
+            for (int l = 0; l < lineCount; l++) {
+                item.setInt(1, items[l]);
+                double price;
+                try (ResultSet itemRs = item.executeQuery()) {
+                    if (!itemRs.next())
+                        return false; // an unused item number, the transaction is rolled back (TPC-C 2.4.2.3)
+                    price = itemRs.getDouble(1);
+                }
+                int quantity = random.uniform(1, 10);
+                stock.setInt(1, supplyWarehouses[l]);
+                stock.setInt(2, items[l]);
+                rs = single(stock);
+                int stockQuantity = rs.getInt(1);
+                String distInfo = rs.getString(2);
+                updateStock.setInt(1, stockQuantity >= quantity + 10 ? stockQuantity - quantity : stockQuantity - quantity + 91);
+                updateStock.setInt(2, quantity);
+                updateStock.setInt(3, supplyWarehouses[l] == w ? 0 : 1);
+                updateStock.setInt(4, supplyWarehouses[l]);
+                updateStock.setInt(5, items[l]);
+                updateStock.executeUpdate();
+
+                line.setInt(1, w);
+                line.setInt(2, d);
+                line.setInt(3, o);
+                line.setInt(4, l + 1);
+                line.setInt(5, items[l]);
+                line.setInt(6, supplyWarehouses[l]);
+                line.setInt(7, quantity);
+                line.setDouble(8, quantity * price * (1 + tax) * (1 - discount));
+                line.setString(9, distInfo);
+                line.executeUpdate();
+            }
+            return true;
+        }
+    }
+
+    static class Payment implements Operation {
+        @Override
+        public String getName() {
+            return "Payment";
+        }
+
+        @Override
+        public boolean execute(Session session) throws SQLException {
+            TpccRandom random = session.getRandom();
+            int w = session.getHomeWarehouse();
+            int d = random.uniform(1, DISTRICTS_PER_WAREHOUSE);
+            // 15% of the payments are made by customers of a remote warehouse
+            int warehouses = session.getSchema().getWarehouses();
+            int cw = warehouses > 1 && random.uniform(1, 100) <= 15 ? remote(random, w, warehouses) : w;
+            int cd = cw == w ? d : random.uniform(1, DISTRICTS_PER_WAREHOUSE);
+            double amount = random.uniform(100, 500000) / 100.0;
+
+            PreparedStatement warehouse = session.prepare("UPDATE WAREHOUSE SET w_ytd = w_ytd + ? WHERE w_id = ?");
+            warehouse.setDouble(1, amount);
+            warehouse.setInt(2, w);
+            warehouse.executeUpdate();
+            PreparedStatement district = session.prepare(
+                    "UPDATE DISTRICT SET d_ytd = d_ytd + ? WHERE d_w_id = ? AND d_id = ?");
+            district.setDouble(1, amount);
+            district.setInt(2, w);
+            district.setInt(3, d);
+            district.executeUpdate();
+
+            int c = random.uniform(1, 100) <= 60 ? customerByName(session, cw, cd) : random.customerId(
+                    session.getSchema().getCustomersPerDistrict());
+            PreparedStatement customer = session.prepare("UPDATE CUSTOMER SET c_balance = c_balance - ?," +
+                    " c_ytd_payment = c_ytd_payment + ?, c_payment_cnt = c_payment_cnt + 1" +
+                    " WHERE c_w_id = ? AND c_d_id = ? AND c_id = ?");
+            customer.setDouble(1, amount);
+            customer.setDouble(2, amount);
+            customer.setInt(3, cw);
+            customer.setInt(4, cd);
+            customer.setInt(5, c);
+            customer.executeUpdate();
+
+            PreparedStatement history = session.prepare("INSERT INTO HISTORY VALUES (?, ?, ?, ?, ?, ?, ?)");
+            history.setInt(1, c);
+            history.setInt(2, cd);
+            history.setInt(3, cw);
+            history.setInt(4, d);
+            history.setInt(5, w);
+            history.setTimestamp(6, new Timestamp(System.currentTimeMillis()));
+            history.setDouble(7, amount);
+            history.executeUpdate();
+            return true;
+        }
+    }
+
+    static class OrderStatus implements Operation {
+        @Override
+        public String getName() {
+            return "OrderStatus";
+        }
+
+        @Override
+        public boolean execute(Session session) throws SQLException {
+            TpccRandom random = session.getRandom();
+            int w = session.getHomeWarehouse();
+            int d = random.uniform(1, DISTRICTS_PER_WAREHOUSE);
+            int c = random.uniform(1, 100) <= 60 ? customerByName(session, w, d) : random.customerId(
+                    session.getSchema().getCustomersPerDistrict());
+
+            PreparedStatement order = session.prepare("SELECT o_id, o_carrier_id, o_entry_d FROM OORDER" +
+                    " WHERE o_w_id = ? AND o_d_id = ? AND o_c_id = ? ORDER BY o_id DESC FETCH FIRST ROW ONLY");
+            order.setInt(1, w);
+            order.setInt(2, d);
+            order.setInt(3, c);
+            int o;
+            try (ResultSet rs = order.executeQuery()) {
+                if (!rs.next())
+                    return true;
+                o = rs.getInt(1);
+            }
+            PreparedStatement lines = session.prepare("SELECT ol_i_id, ol_supply_w_id, ol_quantity, ol_amount," +
+                    " ol_delivery_d FROM ORDER_LINE WHERE ol_w_id = ? AND ol_d_id = ? AND ol_o_id = ?");
+            lines.setInt(1, w);
+            lines.setInt(2, d);
+            lines.setInt(3, o);
+            drain(lines);
+            return true;
+        }
+    }
+
+    static class Delivery implements Operation {
+        @Override
+        public String getName() {
+            return "Delivery";
+        }
+
+        @Override
+        public boolean execute(Session session) throws SQLException {
+            TpccRandom random = session.getRandom();
+            int w = session.getHomeWarehouse();
+            int carrier = random.uniform(1, 10);
+            Timestamp now = new Timestamp(System.currentTimeMillis());
+
+            PreparedStatement oldest = session.prepare(
+                    "SELECT MIN(no_o_id) FROM NEW_ORDER WHERE no_w_id = ? AND no_d_id = ?");
+            PreparedStatement delete = session.prepare(
+                    "DELETE FROM NEW_ORDER WHERE no_w_id = ? AND no_d_id = ? AND no_o_id = ?");
+            PreparedStatement order = session.prepare(
+                    "SELECT o_c_id FROM OORDER WHERE o_w_id = ? AND o_d_id = ? AND o_id = ?");
+            PreparedStatement updateOrder = session.prepare(
+                    "UPDATE OORDER SET o_carrier_id = ? WHERE o_w_id = ? AND o_d_id = ? AND o_id = ?");
+            PreparedStatement updateLines = session.prepare(
+                    "UPDATE ORDER_LINE SET ol_delivery_d = ? WHERE ol_w_id = ? AND ol_d_id = ? AND ol_o_id = ?");
+            PreparedStatement total = session.prepare(
+                    "SELECT SUM(ol_amount) FROM ORDER_LINE WHERE ol_w_id = ? AND ol_d_id = ? AND ol_o_id = ?");
+            PreparedStatement customer = session.prepare("UPDATE CUSTOMER SET c_balance = c_balance + ?," +
+                    " c_delivery_cnt = c_delivery_cnt + 1 WHERE c_w_id = ? AND c_d_id = ? AND c_id = ?");
+            for (int d = 1; d <= DISTRICTS_PER_WAREHOUSE; d++) {
+                oldest.setInt(1, w);
+                oldest.setInt(2, d);
+                int o = single(oldest).getInt(1);
+                if (o == 0)
+                    continue; // no order to deliver in this district
+                setKey(delete, w, d, o, 1);
+                if (delete.executeUpdate() == 0)
+                    continue; // delivered concurrently
+                setKey(order, w, d, o, 1);
+                int c = single(order).getInt(1);
+                updateOrder.setInt(1, carrier);
+                setKey(updateOrder, w, d, o, 2);
+                updateOrder.executeUpdate();
+                updateLines.setTimestamp(1, now);
+                setKey(updateLines, w, d, o, 2);
+                updateLines.executeUpdate();
+                setKey(total, w, d, o, 1);
+                double amount = single(total).getDouble(1);
+                customer.setDouble(1, amount);
+                setKey(customer, w, d, c, 2);
+                customer.executeUpdate();
+            }
+            return true;
+        }
+    }
+
+    static class StockLevel implements Operation {
+        @Override
+        public String getName() {
+            return "StockLevel";
+        }
+
+        @Override
+        public boolean execute(Session session) throws SQLException {
+            TpccRandom random = session.getRandom();
+            int w = session.getHomeWarehouse();
+            int d = random.uniform(1, DISTRICTS_PER_WAREHOUSE);
+            PreparedStatement district = session.prepare(
+                    "SELECT d_next_o_id FROM DISTRICT WHERE d_w_id = ? AND d_id = ?");
+            district.setInt(1, w);
+            district.setInt(2, d);
+            int next = single(district).getInt(1);
+
+            PreparedStatement lowStock = session.prepare("SELECT COUNT(DISTINCT s_i_id) FROM ORDER_LINE, STOCK" +
+                    " WHERE ol_w_id = ? AND ol_d_id = ? AND ol_o_id < ? AND ol_o_id >= ?" +
+                    " AND s_w_id = ol_w_id AND s_i_id = ol_i_id AND s_quantity < ?");
+            lowStock.setInt(1, w);
+            lowStock.setInt(2, d);
+            lowStock.setInt(3, next);
+            lowStock.setInt(4, next - 20);
+            lowStock.setInt(5, random.uniform(10, 20));
+            drain(lowStock);
+            return true;
+        }
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+
+    /**
+     * @return the id of the customer in the middle of those with a random last name, sorted by first name
+     * (TPC-C 2.5.2.2)
+     */
+    private static int customerByName(Session session, int w, int d) throws SQLException {
+        PreparedStatement byName = session.prepare("SELECT c_id FROM CUSTOMER" +
+                " WHERE c_w_id = ? AND c_d_id = ? AND c_last = ? ORDER BY c_first");
+        byName.setInt(1, w);
+        byName.setInt(2, d);
+        byName.setString(3, session.getRandom().customerLastName(session.getSchema().getCustomersPerDistrict()));
+        int[] ids = new int[16];
+        int count = 0;
+        try (ResultSet rs = byName.executeQuery()) {
+            while (rs.next()) {
+                if (count == ids.length)
+                    ids = Arrays.copyOf(ids, count * 2);
+                ids[count++] = rs.getInt(1);
+            }
+        }
+        if (count == 0) // possible with a reduced number of customers per district
+            return session.getRandom().customerId(session.getSchema().getCustomersPerDistrict());
+        return ids[(count - 1) / 2];
+    }
+
+    private static int remote(TpccRandom random, int home, int warehouses) {
+        int w = random.uniform(1, warehouses - 1);
+        return w >= home ? w + 1 : w;
+    }
+
+    private static void setKey(PreparedStatement statement, int w, int d, int id, int first) throws SQLException {
+        statement.setInt(first, w);
+        statement.setInt(first + 1, d);
+        statement.setInt(first + 2, id);
+    }
+
+    /**
+     * Runs a query expected to return a single row, left open for the caller to read. The result set is
+     * closed when the statement is executed again.
+     */
+    private static ResultSet single(PreparedStatement statement) throws SQLException {
+        ResultSet rs = statement.executeQuery();
+        if (!rs.next())
+            throw new SQLException("Missing row for " + statement);
+        return rs;
+    }
+
+    private static void drain(PreparedStatement statement) throws SQLException {
+        try (ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                // consume every row, as a client would
+            }
+        }
+    }
+}
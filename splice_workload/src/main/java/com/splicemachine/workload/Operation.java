@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.workload;
+
+import java.sql.SQLException;
+
+/**
+ * A transaction or query of a workload. Operations are stateless, everything they need is in the
+ * {@link Session} of the worker running them.
+ */
+public interface Operation {
+
+    String getName();
+
+    /**
+     * Runs the operation in the current transaction of the session.
+     *
+     * @return true if the transaction should be committed, false if it should be rolled back (e.g. the 1% of
+     * TPC-C new orders that are rolled back by design)
+     */
+    boolean execute(Session session) throws SQLException;
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.workload;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the results of a run as JSON, and optionally the full histograms as an HdrHistogram log, which
+ * HdrHistogram's log processing tools can merge and plot to compare runs.
+ *
+ * All latencies are in microseconds.
+ */
+public class ResultWriter {
+    private static final double[] PERCENTILES = {50.0, 90.0, 95.0, 99.0, 99.9, 99.99};
+    private static final String[] PERCENTILE_NAMES = {"p50", "p90", "p95", "p99", "p99_9", "p99_99"};
+
+    private final Map<String, Object> run;
+    private final List<LatencyStats.Result> results;
+
+    /**
+     * @param run the settings and environment of the run, written as they are: values are either numbers,
+     *            booleans or written as strings
+     */
+    public ResultWriter(Map<String, Object> run, List<LatencyStats.Result> results) {
+        this.run = run;
+        this.results = results;
+    }
+
+    public void writeJson(PrintStream out) {
+        out.println("{");
+        out.print("  \"run\": ");
+        writeObject(out, run, "    ");
+        out.println(",");
+        out.println("  \"unit\": \"us\",");
+        out.println("  \"operations\": [");
+        for (Iterator<LatencyStats.Result> it = results.iterator(); it.hasNext(); ) {
+            LatencyStats.Result result = it.next();
+            double seconds = result.getDurationMillis() / 1000.0;
+            out.println("    {");
+            out.println("      \"mix\": " + quote(result.getMix()) + ",");
+            out.println("      \"name\": " + quote(result.getName()) + ",");
+            out.println("      \"paced\": " + result.isPaced() + ",");
+            out.println("      \"count\": " + result.getCount() + ",");
+            out.println("      \"throughput\": " + String.format("%.2f", seconds > 0 ? result.getCount() / seconds : 0.0) + ",");
+            out.println("      \"rollbacks\": " + result.getRollbacks() + ",");
+            out.print("      \"errors\": ");
+            writeObject(out, result.getErrors(), "        ");
+            out.println(",");
+            out.println("      \"response\": " + summary(result.getResponseTimes()) + ",");
+            out.println("      \"service\": " + summary(result.getServiceTimes()));
+            out.println(it.hasNext() ? "    }," : "    }");
+        }
+        out.println("  ]");
+        out.println("}");
+    }
+
+    public void writeHistogramLog(File file) throws FileNotFoundException {
+        try (PrintStream out = new PrintStream(file)) {
+            HistogramLogWriter writer = new HistogramLogWriter(out);
+            writer.outputComment("splice_workload " + run);
+            writer.outputLogFormatVersion();
+            long start = Long.MAX_VALUE;
+            for (LatencyStats.Result result : results) {
+                start = Math.min(start, result.getServiceTimes().getStartTimeStamp());
+            }
+            writer.outputStartTime(start);
+            writer.setBaseTime(start);
+            writer.outputLegend();
+            for (LatencyStats.Result result : results) {
+                writer.outputIntervalHistogram(result.getResponseTimes());
+                writer.outputIntervalHistogram(result.getServiceTimes());
+            }
+        }
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+
+    private static String summary(Histogram histogram) {
+        if (histogram.getTotalCount() == 0)
+            return "{}";
+        StringBuilder sb = new StringBuilder("{");
+        sb.append("\"min\": ").append(histogram.getMinValue());
+        sb.append(", \"mean\": ").append(String.format("%.1f", histogram.getMean()));
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            sb.append(", \"").append(PERCENTILE_NAMES[i]).append("\": ").append(histogram.getValueAtPercentile(PERCENTILES[i]));
+        }
+        sb.append(", \"max\": ").append(histogram.getMaxValue());
+        return sb.append('}').toString();
+    }
+
+    private static void writeObject(PrintStream out, Map<String, ?> fields, String indent) {
+        if (fields.isEmpty()) {
+            out.print("{}");
+            return;
+        }
+        out.println("{");
+        for (Iterator<? extends Map.Entry<String, ?>> it = fields.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<String, ?> field = it.next();
+            Object value = field.getValue();
+            String json = value instanceof Number || value instanceof Boolean ? value.toString() : quote(String.valueOf(value));
+            out.println(indent + quote(field.getKey()) + ": " + json + (it.hasNext() ? "," : ""));
+        }
+        out.print(indent.substring(2) + "}");
+    }
+
+    private static String quote(String s) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (char c : s.toCharArray()) {
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                default:
+                    if (c < 0x20)
+                        sb.append(String.format("\\u%04x", (int) c));
+                    else
+                        sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.workload;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The connection of a worker along with its prepared statements and random generator.
+ */
+public class Session implements AutoCloseable {
+    private final Connection connection;
+    private final TpccSchema schema;
+    private final TpccRandom random;
+    private final int homeWarehouse;
+    private final Map<String, PreparedStatement> statements = new HashMap<>();
+
+    public Session(Connection connection, TpccSchema schema, TpccRandom random, int homeWarehouse) {
+        this.connection = connection;
+        this.schema = schema;
+        this.random = random;
+        this.homeWarehouse = homeWarehouse;
+    }
+
+    public PreparedStatement prepare(String sql) throws SQLException {
+        PreparedStatement statement = statements.get(sql);
+        if (statement == null) {
+            statement = connection.prepareStatement(sql);
+            statements.put(sql, statement);
+        }
+        return statement;
+    }
+
+    public Connection getConnection() {
+        return connection;
+    }
+
+    public TpccSchema getSchema() {
+        return schema;
+    }
+
+    public TpccRandom getRandom() {
+        return random;
+    }
+
+    /**
+     * @return the warehouse this worker acts as a terminal of, as in TPC-C each terminal has a fixed home warehouse
+     */
+    public int getHomeWarehouse() {
+        return homeWarehouse;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        for (PreparedStatement statement : statements.values()) {
+            statement.close();
+        }
+        connection.close();
+    }
+}
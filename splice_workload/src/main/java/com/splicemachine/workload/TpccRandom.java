@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.workload;
+
+import java.util.Random;
+
+/**
+ * The random value generators of the TPC-C specification (section 2.1.6 and 4.3.2), driven by a seeded
+ * {@link Random} so that loads and runs can be repeated.
+ */
+public class TpccRandom {
+    private static final String[] SYLLABLES = {
+            "BAR", "OUGHT", "ABLE", "PRI", "PRES", "ESE", "ANTI", "CALLY", "ATION", "EING"};
+    private static final String LETTERS = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ";
+
+    // the C constants of NURand, fixed so that every run picks the same hot customers and items
+    private static final int C_LAST = 223;
+    private static final int C_ID = 259;
+    private static final int OL_I_ID = 7911;
+
+    private final Random random;
+
+    public TpccRandom(long seed) {
+        this.random = new Random(seed);
+    }
+
+    public int uniform(int min, int max) {
+        return min + random.nextInt(max - min + 1);
+    }
+
+    public double uniform(double min, double max) {
+        return min + random.nextDouble() * (max - min);
+    }
+
+    public int customerId(int customersPerDistrict) {
+        return nonUniform(1023, C_ID, 1, customersPerDistrict);
+    }
+
+    public int itemId(int items) {
+        return nonUniform(8191, OL_I_ID, 1, items);
+    }
+
+    public String customerLastName(int customersPerDistrict) {
+        return lastName(nonUniform(255, C_LAST, 0, Math.min(999, customersPerDistrict - 1)));
+    }
+
+    public String string(int minLength, int maxLength) {
+        int length = uniform(minLength, maxLength);
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append(LETTERS.charAt(random.nextInt(LETTERS.length())));
+        }
+        return sb.toString();
+    }
+
+    public String digits(int length) {
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append((char) ('0' + random.nextInt(10)));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return the last name of customer {@code number}, for number in [0, 999]
+     */
+    public static String lastName(int number) {
+        return SYLLABLES[number / 100] + SYLLABLES[(number / 10) % 10] + SYLLABLES[number % 10];
+    }
+
+    private int nonUniform(int a, int c, int min, int max) {
+        return (((uniform(0, a) | uniform(min, max)) + c) % (max - min + 1)) + min;
+    }
+}
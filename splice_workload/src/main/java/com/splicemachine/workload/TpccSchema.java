@@ -0,0 +1,312 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.workload;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * The TPC-C schema the workloads run against, and its initial population (TPC-C section 4.3.3).
+ *
+ * The number of customers (and initial orders) per district can be lowered from the specified 3000 to keep
+ * loads short on the mem platform; transactions and queries read it from here.
+ */
+public class TpccSchema {
+    public static final int DISTRICTS_PER_WAREHOUSE = 10;
+    public static final int ITEMS = 100000;
+    public static final int DEFAULT_CUSTOMERS_PER_DISTRICT = 3000;
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String[] TABLES = {
+            "ORDER_LINE", "NEW_ORDER", "OORDER", "HISTORY", "CUSTOMER", "DISTRICT", "STOCK", "ITEM", "WAREHOUSE"};
+
+    private static final String[] DDL = {
+            "CREATE TABLE WAREHOUSE (w_id INT NOT NULL, w_name VARCHAR(10), w_state CHAR(2), w_tax DECIMAL(4,4)," +
+                    " w_ytd DECIMAL(12,2), PRIMARY KEY (w_id))",
+            "CREATE TABLE DISTRICT (d_w_id INT NOT NULL, d_id INT NOT NULL, d_name VARCHAR(10), d_tax DECIMAL(4,4)," +
+                    " d_ytd DECIMAL(12,2), d_next_o_id INT, PRIMARY KEY (d_w_id, d_id))",
+            "CREATE TABLE CUSTOMER (c_w_id INT NOT NULL, c_d_id INT NOT NULL, c_id INT NOT NULL, c_first VARCHAR(16)," +
+                    " c_last VARCHAR(16), c_state CHAR(2), c_since TIMESTAMP, c_credit CHAR(2), c_discount DECIMAL(4,4)," +
+                    " c_balance DECIMAL(12,2), c_ytd_payment DECIMAL(12,2), c_payment_cnt INT, c_delivery_cnt INT," +
+                    " PRIMARY KEY (c_w_id, c_d_id, c_id))",
+            "CREATE INDEX CUSTOMER_NAME ON CUSTOMER (c_w_id, c_d_id, c_last, c_first)",
+            "CREATE TABLE HISTORY (h_c_id INT, h_c_d_id INT, h_c_w_id INT, h_d_id INT, h_w_id INT, h_date TIMESTAMP," +
+                    " h_amount DECIMAL(6,2))",
+            "CREATE TABLE ITEM (i_id INT NOT NULL, i_name VARCHAR(24), i_price DECIMAL(5,2), i_data VARCHAR(50)," +
+                    " PRIMARY KEY (i_id))",
+            "CREATE TABLE STOCK (s_w_id INT NOT NULL, s_i_id INT NOT NULL, s_quantity INT, s_ytd INT, s_order_cnt INT," +
+                    " s_remote_cnt INT, s_dist_info CHAR(24), PRIMARY KEY (s_w_id, s_i_id))",
+            "CREATE TABLE OORDER (o_w_id INT NOT NULL, o_d_id INT NOT NULL, o_id INT NOT NULL, o_c_id INT," +
+                    " o_entry_d TIMESTAMP, o_carrier_id INT, o_ol_cnt INT, o_all_local INT," +
+                    " PRIMARY KEY (o_w_id, o_d_id, o_id))",
+            "CREATE INDEX OORDER_CUSTOMER ON OORDER (o_w_id, o_d_id, o_c_id, o_id)",
+            "CREATE TABLE NEW_ORDER (no_w_id INT NOT NULL, no_d_id INT NOT NULL, no_o_id INT NOT NULL," +
+                    " PRIMARY KEY (no_w_id, no_d_id, no_o_id))",
+            "CREATE TABLE ORDER_LINE (ol_w_id INT NOT NULL, ol_d_id INT NOT NULL, ol_o_id INT NOT NULL," +
+                    " ol_number INT NOT NULL, ol_i_id INT, ol_supply_w_id INT, ol_delivery_d TIMESTAMP, ol_quantity INT," +
+                    " ol_amount DECIMAL(6,2), ol_dist_info CHAR(24), PRIMARY KEY (ol_w_id, ol_d_id, ol_o_id, ol_number))"
+    };
+
+    private final String url;
+    private final String schema;
+    private final int warehouses;
+    private final int customersPerDistrict;
+    private final long seed;
+
+    public TpccSchema(String url, String schema, int warehouses, int customersPerDistrict, long seed) {
+        this.url = url;
+        this.schema = schema;
+        this.warehouses = warehouses;
+        this.customersPerDistrict = customersPerDistrict;
+        this.seed = seed;
+    }
+
+    public int getWarehouses() {
+        return warehouses;
+    }
+
+    public int getCustomersPerDistrict() {
+        return customersPerDistrict;
+    }
+
+    public Connection connect() throws SQLException {
+        Connection connection = DriverManager.getConnection(url);
+        connection.setSchema(schema);
+        return connection;
+    }
+
+    /**
+     * Drops and recreates the tables, then loads every warehouse, {@code threads} warehouses at a time.
+     * The same seed always loads the same data.
+     */
+    public void load(int threads) throws Exception {
+        try (Connection connection = DriverManager.getConnection(url);
+             Statement statement = connection.createStatement()) {
+            try (ResultSet rs = connection.getMetaData().getSchemas(null, schema)) {
+                if (!rs.next())
+                    statement.execute("CREATE SCHEMA " + schema);
+            }
+            connection.setSchema(schema);
+            for (String table : TABLES) {
+                try (ResultSet rs = connection.getMetaData().getTables(null, schema, table, null)) {
+                    if (rs.next())
+                        statement.execute("DROP TABLE " + table);
+                }
+            }
+            for (String ddl : DDL) {
+                statement.execute(ddl);
+            }
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Void>> loads = new ArrayList<>();
+            loads.add(executor.submit(() -> {
+                loadItems();
+                return null;
+            }));
+            for (int w = 1; w <= warehouses; w++) {
+                final int warehouse = w;
+                loads.add(executor.submit(() -> {
+                    loadWarehouse(warehouse);
+                    return null;
+                }));
+            }
+            for (Future<Void> load : loads) {
+                load.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+
+    private void loadItems() throws SQLException {
+        TpccRandom random = new TpccRandom(seed);
+        try (Connection connection = connect();
+             PreparedStatement insert = connection.prepareStatement("INSERT INTO ITEM VALUES (?, ?, ?, ?)")) {
+            connection.setAutoCommit(false);
+            for (int i = 1; i <= ITEMS; i++) {
+                insert.setInt(1, i);
+                insert.setString(2, random.string(14, 24));
+                insert.setDouble(3, random.uniform(100, 10000) / 100.0);
+                insert.setString(4, data(random));
+                add(connection, insert, i);
+            }
+            flush(connection, insert);
+        }
+    }
+
+    private void loadWarehouse(int w) throws SQLException {
+        TpccRandom random = new TpccRandom(seed + w);
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        try (Connection connection = connect()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement insert = connection.prepareStatement("INSERT INTO WAREHOUSE VALUES (?, ?, ?, ?, ?)")) {
+                insert.setInt(1, w);
+                insert.setString(2, random.string(6, 10));
+                insert.setString(3, random.string(2, 2).toUpperCase());
+                insert.setDouble(4, random.uniform(0, 2000) / 10000.0);
+                insert.setDouble(5, 300000.0);
+                insert.executeUpdate();
+            }
+            try (PreparedStatement insert = connection.prepareStatement("INSERT INTO STOCK VALUES (?, ?, ?, 0, 0, 0, ?)")) {
+                for (int i = 1; i <= ITEMS; i++) {
+                    insert.setInt(1, w);
+                    insert.setInt(2, i);
+                    insert.setInt(3, random.uniform(10, 100));
+                    insert.setString(4, random.string(24, 24));
+                    add(connection, insert, i);
+                }
+                flush(connection, insert);
+            }
+            for (int d = 1; d <= DISTRICTS_PER_WAREHOUSE; d++) {
+                loadDistrict(connection, random, w, d, now);
+            }
+            connection.commit();
+        }
+    }
+
+    private void loadDistrict(Connection connection, TpccRandom random, int w, int d, Timestamp now) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO DISTRICT VALUES (?, ?, ?, ?, 30000.0, ?)")) {
+            insert.setInt(1, w);
+            insert.setInt(2, d);
+            insert.setString(3, random.string(6, 10));
+            insert.setDouble(4, random.uniform(0, 2000) / 10000.0);
+            insert.setInt(5, customersPerDistrict + 1);
+            insert.executeUpdate();
+        }
+        try (PreparedStatement customers = connection.prepareStatement(
+                "INSERT INTO CUSTOMER VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, -10.0, 10.0, 1, 0)");
+             PreparedStatement history = connection.prepareStatement(
+                     "INSERT INTO HISTORY VALUES (?, ?, ?, ?, ?, ?, 10.0)")) {
+            for (int c = 1; c <= customersPerDistrict; c++) {
+                customers.setInt(1, w);
+                customers.setInt(2, d);
+                customers.setInt(3, c);
+                customers.setString(4, random.string(8, 16));
+                customers.setString(5, c <= 1000 ? TpccRandom.lastName(c - 1) : random.customerLastName(customersPerDistrict));
+                customers.setString(6, random.string(2, 2).toUpperCase());
+                customers.setTimestamp(7, now);
+                customers.setString(8, random.uniform(1, 100) <= 10 ? "BC" : "GC");
+                customers.setDouble(9, random.uniform(0, 5000) / 10000.0);
+                history.setInt(1, c);
+                history.setInt(2, d);
+                history.setInt(3, w);
+                history.setInt(4, d);
+                history.setInt(5, w);
+                history.setTimestamp(6, now);
+                customers.addBatch();
+                history.addBatch();
+                if (c % BATCH_SIZE == 0) {
+                    customers.executeBatch();
+                    flush(connection, history);
+                }
+            }
+            customers.executeBatch();
+            flush(connection, history);
+        }
+
+        // orders are placed by a random permutation of the customers, the last 30% are not delivered yet
+        int[] customerIds = new int[customersPerDistrict];
+        for (int i = 0; i < customerIds.length; i++) {
+            customerIds[i] = i + 1;
+        }
+        for (int i = customerIds.length - 1; i > 0; i--) {
+            int j = random.uniform(0, i);
+            int swap = customerIds[i];
+            customerIds[i] = customerIds[j];
+            customerIds[j] = swap;
+        }
+        int firstNewOrder = customersPerDistrict - customersPerDistrict * 3 / 10 + 1;
+        try (PreparedStatement orders = connection.prepareStatement("INSERT INTO OORDER VALUES (?, ?, ?, ?, ?, ?, ?, 1)");
+             PreparedStatement newOrders = connection.prepareStatement("INSERT INTO NEW_ORDER VALUES (?, ?, ?)");
+             PreparedStatement lines = connection.prepareStatement(
+                     "INSERT INTO ORDER_LINE VALUES (?, ?, ?, ?, ?, ?, ?, 5, ?, ?)")) {
+            for (int o = 1; o <= customersPerDistrict; o++) {
+                boolean delivered = o < firstNewOrder;
+                int lineCount = random.uniform(5, 15);
+                orders.setInt(1, w);
+                orders.setInt(2, d);
+                orders.setInt(3, o);
+                orders.setInt(4, customerIds[o - 1]);
+                orders.setTimestamp(5, now);
+                if (delivered)
+                    orders.setInt(6, random.uniform(1, 10));
+                else
+                    orders.setNull(6, Types.INTEGER);
+                orders.setInt(7, lineCount);
+                orders.addBatch();
+                if (!delivered) {
+                    newOrders.setInt(1, w);
+                    newOrders.setInt(2, d);
+                    newOrders.setInt(3, o);
+                    newOrders.addBatch();
+                }
+                for (int l = 1; l <= lineCount; l++) {
+                    lines.setInt(1, w);
+                    lines.setInt(2, d);
+                    lines.setInt(3, o);
+                    lines.setInt(4, l);
+                    lines.setInt(5, random.uniform(1, ITEMS));
+                    lines.setInt(6, w);
+                    if (delivered)
+                        lines.setTimestamp(7, now);
+                    else
+                        lines.setNull(7, Types.TIMESTAMP);
+                    lines.setDouble(8, delivered ? 0.0 : random.uniform(1, 999999) / 100.0);
+                    lines.setString(9, random.string(24, 24));
+                    lines.addBatch();
+                }
+                if (o % 100 == 0) {
+                    orders.executeBatch();
+                    newOrders.executeBatch();
+                    lines.executeBatch();
+                    connection.commit();
+                }
+            }
+            orders.executeBatch();
+            newOrders.executeBatch();
+            lines.executeBatch();
+            connection.commit();
+        }
+    }
+
+    private static String data(TpccRandom random) {
+        String data = random.string(26, 50);
+        if (random.uniform(1, 100) > 10)
+            return data;
+        // 10% of the items are "original" (TPC-C 4.3.3.1)
+        int at = random.uniform(0, data.length() - 8);
+        return data.substring(0, at) + "ORIGINAL" + data.substring(at + 8);
+    }
+
+    private static void add(Connection connection, PreparedStatement insert, int row) throws SQLException {
+        insert.addBatch();
+        if (row % BATCH_SIZE == 0)
+            flush(connection, insert);
+    }
+
+    private static void flush(Connection connection, PreparedStatement insert) throws SQLException {
+        insert.executeBatch();
+        connection.commit();
+    }
+}
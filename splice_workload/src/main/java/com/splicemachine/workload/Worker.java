@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.workload;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A client running operations of a {@link Mix} on its own connection until stopped, one transaction per operation.
+ *
+ * A paced worker starts an operation every {@code intervalNanos} on a fixed schedule, however long the previous
+ * one took; if it falls behind it runs operations back to back until it catches up. An unpaced worker starts the
+ * next operation as soon as the previous one completes.
+ */
+public class Worker implements Runnable {
+    private final TpccSchema schema;
+    private final Mix mix;
+    private final Map<String, LatencyStats> stats;
+    private final List<String> setup;
+    private final int homeWarehouse;
+    private final long seed;
+    private final long intervalNanos;
+    private final AtomicBoolean stop;
+    private volatile Exception failure;
+
+    public Worker(TpccSchema schema, Mix mix, Map<String, LatencyStats> stats, List<String> setup,
+                  int homeWarehouse, long seed, long intervalNanos, AtomicBoolean stop) {
+        this.schema = schema;
+        this.mix = mix;
+        this.stats = stats;
+        this.setup = setup;
+        this.homeWarehouse = homeWarehouse;
+        this.seed = seed;
+        this.intervalNanos = intervalNanos;
+        this.stop = stop;
+    }
+
+    @Override
+    public void run() {
+        TpccRandom random = new TpccRandom(seed);
+        try (Session session = new Session(schema.connect(), schema, random, homeWarehouse)) {
+            Connection connection = session.getConnection();
+            try (Statement statement = connection.createStatement()) {
+                for (String sql : setup) {
+                    statement.execute(sql);
+                }
+            }
+            connection.setAutoCommit(false);
+
+            // spread the schedules of paced workers, so they don't all start their operations at once
+            long intendedStart = System.nanoTime() + (intervalNanos > 0 ? (long) (random.uniform(0.0, 1.0) * intervalNanos) : 0L);
+            while (!stop.get()) {
+                Operation operation = mix.next(random);
+                LatencyStats operationStats = stats.get(operation.getName());
+                long start;
+                if (intervalNanos > 0) {
+                    waitUntil(intendedStart);
+                    start = System.nanoTime();
+                } else {
+                    start = intendedStart = System.nanoTime();
+                }
+                try {
+                    boolean commit = operation.execute(session);
+                    if (commit) {
+                        connection.commit();
+                    } else {
+                        connection.rollback();
+                        operationStats.rolledBack();
+                    }
+                    operationStats.record(intendedStart, start, System.nanoTime());
+                } catch (SQLException e) {
+                    operationStats.failed(e);
+                    rollback(connection);
+                }
+                intendedStart += intervalNanos;
+            }
+        } catch (Exception e) {
+            failure = e;
+        }
+    }
+
+    /**
+     * @return the exception that stopped this worker before it was asked to, if any
+     */
+    public Exception getFailure() {
+        return failure;
+    }
+
+    private void waitUntil(long nanoTime) {
+        long wait;
+        while ((wait = nanoTime - System.nanoTime()) > 0 && !stop.get()) {
+            LockSupport.parkNanos(wait);
+        }
+    }
+
+    private static void rollback(Connection connection) throws SQLException {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            if (connection.isClosed())
+                throw e;
+        }
+    }
+}
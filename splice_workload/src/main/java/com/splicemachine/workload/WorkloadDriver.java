@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.workload;
+
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.sql.Connection;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs TPC-C transactions and TPC-H style queries over JDBC, concurrently if both are asked for, and reports
+ * their latency distributions. Only needs a JDBC endpoint, so the same run can be repeated against the mem and
+ * standalone platforms or a cluster, and its JSON output compared between builds.
+ *
+ * A run loads the data if asked to, then runs the workers for a warm-up period whose measurements are
+ * discarded, and then for the measured period.
+ */
+@Command(mixinStandardHelpOptions = true, name = "splice_workload", sortOptions = false,
+        description = "Runs a repeatable OLTP/OLAP workload and records its latency histograms")
+public class WorkloadDriver implements Callable<Integer> {
+    private static final String DRIVER = "com.splicemachine.db.jdbc.ClientDriver";
+
+    enum OlapEngine {
+        AUTO, CONTROL, SPARK
+    }
+
+    @Option(names = {"-u", "--url"}, defaultValue = "jdbc:splice://localhost:1527/splicedb;user=splice;password=admin",
+            description = "JDBC url of the server, default value is ${DEFAULT-VALUE}")
+    String url;
+    @Option(names = {"-s", "--schema"}, defaultValue = "WORKLOAD", description = "schema of the tables, default value is ${DEFAULT-VALUE}")
+    String schema;
+    @Option(names = {"-w", "--warehouses"}, defaultValue = "1", description = "number of TPC-C warehouses, default value is ${DEFAULT-VALUE}")
+    int warehouses;
+    @Option(names = "--customers", defaultValue = "" + TpccSchema.DEFAULT_CUSTOMERS_PER_DISTRICT,
+            description = "customers (and initial orders) per district, default value is ${DEFAULT-VALUE}")
+    int customersPerDistrict;
+    @Option(names = "--load", description = "drop, create and load the tables before running")
+    boolean load;
+    @Option(names = "--load-threads", defaultValue = "4", description = "warehouses loaded concurrently, default value is ${DEFAULT-VALUE}")
+    int loadThreads;
+    @Option(names = "--oltp-threads", defaultValue = "8", description = "workers running TPC-C transactions, default value is ${DEFAULT-VALUE}")
+    int oltpThreads;
+    @Option(names = "--olap-threads", defaultValue = "0", description = "workers running analytical queries, default value is ${DEFAULT-VALUE}")
+    int olapThreads;
+    @Option(names = "--oltp-rate", defaultValue = "0", description = "transactions per second of each OLTP worker, 0 to run them back to back, default value is ${DEFAULT-VALUE}")
+    double oltpRate;
+    @Option(names = "--olap-rate", defaultValue = "0", description = "queries per second of each OLAP worker, 0 to run them back to back, default value is ${DEFAULT-VALUE}")
+    double olapRate;
+    @Option(names = "--olap-engine", defaultValue = "AUTO", description = "engine of the analytical queries: ${COMPLETION-CANDIDATES}, default value is ${DEFAULT-VALUE}")
+    OlapEngine olapEngine;
+    @Option(names = "--warmup", defaultValue = "30", description = "seconds of warm-up, default value is ${DEFAULT-VALUE}")
+    int warmupSeconds;
+    @Option(names = {"-d", "--duration"}, defaultValue = "120", description = "seconds measured, default value is ${DEFAULT-VALUE}")
+    int durationSeconds;
+    @Option(names = "--seed", defaultValue = "42", description = "seed of the data and of the workers' inputs, default value is ${DEFAULT-VALUE}")
+    long seed;
+    @Option(names = {"-o", "--output"}, description = "file the JSON results are written to, standard output if not set")
+    File output;
+    @Option(names = "--histograms", description = "file the histograms are written to, as an HdrHistogram log")
+    File histograms;
+
+    public static void main(String... args) {
+        System.exit(new CommandLine(new WorkloadDriver()).setCaseInsensitiveEnumValuesAllowed(true).execute(args));
+    }
+
+    @Override
+    public Integer call() throws Exception {
+        Class.forName(DRIVER);
+        TpccSchema tpcc = new TpccSchema(url, schema, warehouses, customersPerDistrict, seed);
+        if (load) {
+            log("Loading %d warehouses into %s", warehouses, schema);
+            long start = System.currentTimeMillis();
+            tpcc.load(loadThreads);
+            log("Loaded in %d s", TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis() - start));
+        }
+        if (oltpThreads + olapThreads == 0)
+            return 0;
+
+        Map<String, Object> run = describe(tpcc);
+        AtomicBoolean stop = new AtomicBoolean();
+        List<Worker> workers = new ArrayList<>();
+        Mix oltp = OltpTransactions.mix();
+        Map<String, LatencyStats> oltpStats = stats(oltp);
+        for (int i = 0; i < oltpThreads; i++) {
+            workers.add(new Worker(tpcc, oltp, oltpStats, Collections.emptyList(), 1 + i % warehouses,
+                    seed + i, interval(oltpRate), stop));
+        }
+        Mix olap = OlapQueries.mix();
+        Map<String, LatencyStats> olapStats = stats(olap);
+        List<String> olapSetup = olapEngine == OlapEngine.AUTO ? Collections.emptyList() :
+                Collections.singletonList("set session_property useOLAP=" + (olapEngine == OlapEngine.SPARK));
+        for (int i = 0; i < olapThreads; i++) {
+            workers.add(new Worker(tpcc, olap, olapStats, olapSetup, 1 + i % warehouses,
+                    seed + oltpThreads + i, interval(olapRate), stop));
+        }
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < workers.size(); i++) {
+            Thread thread = new Thread(workers.get(i), (i < oltpThreads ? "oltp-" : "olap-") + i);
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+        log("Warming up for %d s", warmupSeconds);
+        TimeUnit.SECONDS.sleep(warmupSeconds);
+        for (LatencyStats s : oltpStats.values())
+            s.reset();
+        for (LatencyStats s : olapStats.values())
+            s.reset();
+        log("Measuring for %d s", durationSeconds);
+        TimeUnit.SECONDS.sleep(durationSeconds);
+        stop.set(true);
+
+        List<LatencyStats.Result> results = new ArrayList<>();
+        for (LatencyStats s : oltpStats.values())
+            results.add(s.finish(oltpRate > 0));
+        for (LatencyStats s : olapStats.values())
+            results.add(s.finish(olapRate > 0));
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        int failed = 0;
+        for (Worker worker : workers) {
+            if (worker.getFailure() != null) {
+                failed++;
+                log("A worker failed: %s", worker.getFailure());
+            }
+        }
+        run.put("failedWorkers", failed);
+        ResultWriter writer = new ResultWriter(run, results);
+        if (output == null) {
+            writer.writeJson(System.out);
+        } else {
+            try (PrintStream out = new PrintStream(output, "UTF-8")) {
+                writer.writeJson(out);
+            }
+        }
+        if (histograms != null)
+            writer.writeHistogramLog(histograms);
+        return failed == 0 ? 0 : 1;
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+
+    private Map<String, Object> describe(TpccSchema tpcc) throws Exception {
+        Map<String, Object> run = new LinkedHashMap<>();
+        run.put("start", Instant.now().toString());
+        run.put("url", url.replaceAll("password=[^;]*", "password=***"));
+        try (Connection connection = tpcc.connect()) {
+            run.put("server", connection.getMetaData().getDatabaseProductVersion());
+        }
+        run.put("warehouses", warehouses);
+        run.put("customersPerDistrict", customersPerDistrict);
+        run.put("oltpThreads", oltpThreads);
+        run.put("olapThreads", olapThreads);
+        run.put("oltpRate", oltpRate);
+        run.put("olapRate", olapRate);
+        run.put("olapEngine", olapEngine);
+        run.put("warmupSeconds", warmupSeconds);
+        run.put("durationSeconds", durationSeconds);
+        run.put("seed", seed);
+        return run;
+    }
+
+    private static Map<String, LatencyStats> stats(Mix mix) {
+        Map<String, LatencyStats> stats = new LinkedHashMap<>();
+        for (Operation operation : mix.getOperations()) {
+            stats.put(operation.getName(), new LatencyStats(mix.getName(), operation.getName()));
+        }
+        return stats;
+    }
+
+    private static long interval(double rate) {
+        return rate > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / rate) : 0L;
+    }
+
+    private static void log(String format, Object... args) {
+        System.err.println(String.format(format, args));
+    }
+}
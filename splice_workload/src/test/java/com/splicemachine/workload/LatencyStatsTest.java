@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.workload;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+public class LatencyStatsTest {
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    public void pacedResponseTimesIncludeTheDelayedStart() {
+        LatencyStats stats = new LatencyStats("oltp", "payment");
+        stats.reset();
+        // meant to start at 0, held up by a slow predecessor until 10 ms
+        stats.record(0, 10 * MS, 11 * MS);
+        LatencyStats.Result result = stats.finish(true);
+        Assert.assertEquals(1, result.getCount());
+        Assert.assertTrue(result.getResponseTimes().valuesAreEquivalent(11000, result.getResponseTimes().getMaxValue()));
+        Assert.assertEquals(1000, result.getServiceTimes().getMaxValue());
+        Assert.assertEquals("oltp.payment.response", result.getResponseTimes().getTag());
+        Assert.assertEquals("oltp.payment.service", result.getServiceTimes().getTag());
+    }
+
+    @Test
+    public void unpacedResponseTimesAreCorrectedForCoordinatedOmission() {
+        LatencyStats stats = new LatencyStats("oltp", "newOrder");
+        long now = 0;
+        for (int i = 0; i < 100; i++, now += MS) {
+            stats.record(now, now, now + MS);
+        }
+        stats.reset();
+        for (int i = 0; i < 99; i++, now += MS) {
+            stats.record(now, now, now + MS);
+        }
+        // a stall of 64 ms, which held up the 63 operations that would have run meanwhile
+        stats.record(now, now, now + 64 * MS);
+
+        LatencyStats.Result result = stats.finish(false);
+        Assert.assertEquals("Only the operations run should be counted", 100, result.getCount());
+        Assert.assertEquals(1000, result.getServiceTimes().getValueAtPercentile(99.0));
+        Assert.assertEquals("The stall should be back-filled at the warm-up interval",
+                163, result.getResponseTimes().getTotalCount());
+        Assert.assertTrue("The stall should show in the high percentiles of the response times",
+                result.getResponseTimes().getValueAtPercentile(90.0) > 30000);
+    }
+
+    @Test
+    public void unpacedResponseTimesAreLeftAloneWithoutAWarmup() {
+        LatencyStats stats = new LatencyStats("oltp", "delivery");
+        stats.reset();
+        stats.record(0, 0, 100 * MS);
+        LatencyStats.Result result = stats.finish(false);
+        Assert.assertEquals(1, result.getResponseTimes().getTotalCount());
+    }
+
+    @Test
+    public void resetDiscardsTheWarmup() throws Exception {
+        LatencyStats stats = new LatencyStats("olap", "q1");
+        stats.record(0, 0, MS);
+        stats.rolledBack();
+        stats.failed(new SQLException("conflict", "SE014"));
+        stats.reset();
+
+        stats.record(0, 0, 2 * MS);
+        stats.rolledBack();
+        stats.failed(new SQLException("timeout", "XCL52"));
+        stats.failed(new SQLException("timeout", "XCL52"));
+        stats.failed(new SQLException("no state"));
+        LatencyStats.Result result = stats.finish(true);
+        Assert.assertEquals(1, result.getCount());
+        Assert.assertEquals(1, result.getRollbacks());
+        Assert.assertEquals(2L, (long) result.getErrors().get("XCL52"));
+        Assert.assertEquals(1L, (long) result.getErrors().get("unknown"));
+        Assert.assertEquals(2, result.getErrors().size());
+    }
+}
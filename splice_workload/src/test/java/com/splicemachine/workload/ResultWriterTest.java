@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.splicemachine.workload;
+
+import org.HdrHistogram.EncodableHistogram;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogReader;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class ResultWriterTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void writesRunAndOperationsAsJson() {
+        Map<String, Object> run = new LinkedHashMap<>();
+        run.put("workload", "tpcc");
+        run.put("threads", 4);
+        run.put("paced", true);
+        Map<String, Long> errors = new TreeMap<>();
+        errors.put("SE014", 3L);
+
+        String json = writeJson(run, result("oltp", "payment", errors, 1000, 2000), result("olap", "q1", Collections.emptyMap()));
+
+        Assert.assertEquals(String.join("\n",
+                "{",
+                "  \"run\": {",
+                "    \"workload\": \"tpcc\",",
+                "    \"threads\": 4,",
+                "    \"paced\": true",
+                "  },",
+                "  \"unit\": \"us\",",
+                "  \"operations\": [",
+                "    {",
+                "      \"mix\": \"oltp\",",
+                "      \"name\": \"payment\",",
+                "      \"paced\": true,",
+                "      \"count\": 2,",
+                "      \"throughput\": " + String.format("%.2f", 1.0) + ",",
+                "      \"rollbacks\": 1,",
+                "      \"errors\": {",
+                "        \"SE014\": 3",
+                "      },",
+                "      \"response\": {\"min\": 1000, \"mean\": " + String.format("%.1f", 1500.0) + ", \"p50\": 1000, \"p90\": 2000, " +
+                        "\"p95\": 2000, \"p99\": 2000, \"p99_9\": 2000, \"p99_99\": 2000, \"max\": 2000},",
+                "      \"service\": {\"min\": 1000, \"mean\": " + String.format("%.1f", 1500.0) + ", \"p50\": 1000, \"p90\": 2000, " +
+                        "\"p95\": 2000, \"p99\": 2000, \"p99_9\": 2000, \"p99_99\": 2000, \"max\": 2000}",
+                "    },",
+                "    {",
+                "      \"mix\": \"olap\",",
+                "      \"name\": \"q1\",",
+                "      \"paced\": true,",
+                "      \"count\": 0,",
+                "      \"throughput\": " + String.format("%.2f", 0.0) + ",",
+                "      \"rollbacks\": 1,",
+                "      \"errors\": {},",
+                "      \"response\": {},",
+                "      \"service\": {}",
+                "    }",
+                "  ]",
+                "}",
+                ""), json);
+    }
+
+    @Test
+    public void escapesStrings() {
+        Map<String, Object> run = new LinkedHashMap<>();
+        run.put("label", "a \"quoted\" \\ label\nover\tlines");
+        run.put("jdbc", null);
+
+        String json = writeJson(run);
+
+        Assert.assertTrue(json, json.contains("\"label\": \"a \\\"quoted\\\" \\\\ label\\nover\\u0009lines\","));
+        Assert.assertTrue(json, json.contains("\"jdbc\": \"null\""));
+        Assert.assertTrue(json, json.contains("\"operations\": [\n  ]"));
+    }
+
+    @Test
+    public void writesTaggedHistogramsToTheLog() throws Exception {
+        File log = folder.newFile("run.hlog");
+        new ResultWriter(Collections.singletonMap("workload", "tpcc"),
+                Arrays.asList(result("oltp", "payment", Collections.emptyMap(), 1000, 2000),
+                        result("oltp", "delivery", Collections.emptyMap(), 5000))).writeHistogramLog(log);
+
+        HistogramLogReader reader = new HistogramLogReader(log);
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (EncodableHistogram h = reader.nextIntervalHistogram(); h != null; h = reader.nextIntervalHistogram()) {
+            counts.put(h.getTag(), ((Histogram) h).getTotalCount());
+        }
+        Map<String, Long> expected = new LinkedHashMap<>();
+        expected.put("oltp.payment.response", 2L);
+        expected.put("oltp.payment.service", 2L);
+        expected.put("oltp.delivery.response", 1L);
+        expected.put("oltp.delivery.service", 1L);
+        Assert.assertEquals(expected, counts);
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+
+    private static String writeJson(Map<String, Object> run, LatencyStats.Result... results) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (PrintStream out = new PrintStream(bytes, true)) {
+            new ResultWriter(run, Arrays.asList(results)).writeJson(out);
+        }
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8).replace(System.lineSeparator(), "\n");
+    }
+
+    /* an operation that ran for two seconds and took the given times */
+    private static LatencyStats.Result result(String mix, String name, Map<String, Long> errors, long... micros) {
+        Histogram times = new Histogram(3);
+        for (long t : micros) {
+            times.recordValue(t);
+        }
+        times.setStartTimeStamp(1000);
+        times.setEndTimeStamp(3000);
+        Histogram response = times.copy();
+        response.setTag(mix + "." + name + ".response");
+        times.setTag(mix + "." + name + ".service");
+        return new LatencyStats.Result(mix, name, true, 2000, 1, errors, response, times);
+    }
+}
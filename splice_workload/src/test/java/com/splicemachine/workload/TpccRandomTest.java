@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.splicemachine.workload;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+public class TpccRandomTest {
+    private static final int DRAWS = 100000;
+
+    @Test
+    public void lastNamesAreBuiltFromTheDigitsOfTheNumber() {
+        Assert.assertEquals("BARBARBAR", TpccRandom.lastName(0));
+        Assert.assertEquals("BARBAROUGHT", TpccRandom.lastName(1));
+        Assert.assertEquals("PRICALLYOUGHT", TpccRandom.lastName(371));
+        Assert.assertEquals("EINGEINGEING", TpccRandom.lastName(999));
+    }
+
+    @Test
+    public void customerIdsAreNonUniformWithinRange() {
+        TpccRandom random = new TpccRandom(42);
+        int[] hits = new int[3001];
+        for (int i = 0; i < DRAWS; i++) {
+            int id = random.customerId(3000);
+            Assert.assertTrue("Customer id out of range: " + id, id >= 1 && id <= 3000);
+            hits[id]++;
+        }
+        assertNonUniform(hits, 1);
+    }
+
+    @Test
+    public void itemIdsAreNonUniformWithinRange() {
+        TpccRandom random = new TpccRandom(42);
+        int[] hits = new int[100001];
+        for (int i = 0; i < DRAWS; i++) {
+            int id = random.itemId(100000);
+            Assert.assertTrue("Item id out of range: " + id, id >= 1 && id <= 100000);
+            hits[id]++;
+        }
+        assertNonUniform(hits, 1);
+    }
+
+    @Test
+    public void customerLastNamesAreTheLoadedOnes() {
+        TpccRandom random = new TpccRandom(42);
+        Set<String> loaded = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            loaded.add(TpccRandom.lastName(i));
+        }
+        Set<String> drawn = new HashSet<>();
+        for (int i = 0; i < DRAWS; i++) {
+            drawn.add(random.customerLastName(3000));
+        }
+        Assert.assertTrue("Drew names that are never loaded", loaded.containsAll(drawn));
+        Assert.assertTrue("Drew only " + drawn.size() + " of the loaded names", drawn.size() > 900);
+    }
+
+    @Test
+    public void customerLastNamesOfSmallDistrictsAreTheLoadedOnes() {
+        TpccRandom random = new TpccRandom(42);
+        for (int i = 0; i < DRAWS; i++) {
+            String name = random.customerLastName(10);
+            Assert.assertTrue("Not a loaded name: " + name, name.startsWith("BARBAR"));
+        }
+    }
+
+    @Test
+    public void theSameSeedDrawsTheSameValues() {
+        TpccRandom a = new TpccRandom(7);
+        TpccRandom b = new TpccRandom(7);
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertEquals(a.customerId(3000), b.customerId(3000));
+            Assert.assertEquals(a.itemId(100000), b.itemId(100000));
+            Assert.assertEquals(a.customerLastName(3000), b.customerLastName(3000));
+            Assert.assertEquals(a.string(8, 16), b.string(8, 16));
+        }
+    }
+
+    @Test
+    public void stringsAndDigitsHaveTheRequestedLength() {
+        TpccRandom random = new TpccRandom(42);
+        for (int i = 0; i < 1000; i++) {
+            String s = random.string(8, 16);
+            Assert.assertTrue(s, s.length() >= 8 && s.length() <= 16);
+            String digits = random.digits(9);
+            Assert.assertTrue(digits, digits.matches("[0-9]{9}"));
+        }
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+
+    /* the most frequent value is drawn far more often than the average one */
+    private static void assertNonUniform(int[] hits, int min) {
+        long total = 0;
+        int max = 0;
+        for (int i = min; i < hits.length; i++) {
+            total += hits[i];
+            max = Math.max(max, hits[i]);
+        }
+        double mean = (double) total / (hits.length - min);
+        Assert.assertTrue("Expected a skewed distribution, the most frequent value was drawn " + max
+                + " times against a mean of " + mean, max > 2 * mean);
+    }
+}
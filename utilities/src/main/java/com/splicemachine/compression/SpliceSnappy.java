@@ -49,6 +49,10 @@ public class SpliceSnappy {
         }
     }
 
+    public static boolean isInstalled() {
+        return installed;
+    }
+
     public static int maxCompressedLength(int byteSize) {
         return installed ? Snappy.maxCompressedLength(byteSize) : byteSize;
     }